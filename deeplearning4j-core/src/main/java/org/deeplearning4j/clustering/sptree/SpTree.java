@@ -209,6 +209,22 @@ public class SpTree implements Serializable {
      * @param sumQ
      */
     public void computeNonEdgeForces(int pointIndex, double theta, INDArray negativeForce, AtomicDouble sumQ) {
+        computeNonEdgeForces(pointIndex, theta, negativeForce, sumQ, buf);
+    }
+
+    /**
+     * Compute non edge forces using barnes hut, using the given scratch buffer
+     * instead of the one owned by the tree. The tree is only read, so this is safe
+     * to call for different points from multiple threads as long as each thread
+     * passes its own buffer, negative force and sum.
+     * @param pointIndex
+     * @param theta
+     * @param negativeForce
+     * @param sumQ
+     * @param buf scratch buffer of length D
+     */
+    public void computeNonEdgeForces(int pointIndex, double theta, INDArray negativeForce, AtomicDouble sumQ,
+                    INDArray buf) {
         // Make sure that we spend no time on empty nodes or self-interactions
         if (cumSize == 0 || (isLeaf() && size == 1 && index[0] == pointIndex))
             return;
@@ -234,7 +250,7 @@ public class SpTree implements Serializable {
 
             // Recursively apply Barnes-Hut to children
             for (int i = 0; i < numChildren; i++) {
-                children[i].computeNonEdgeForces(pointIndex, theta, negativeForce, sumQ);
+                children[i].computeNonEdgeForces(pointIndex, theta, negativeForce, sumQ, buf);
             }
 
         }
@@ -23,6 +23,7 @@ import org.deeplearning4j.berkeley.PriorityQueue;
 import org.deeplearning4j.clustering.sptree.DataPoint;
 import org.deeplearning4j.clustering.sptree.HeapItem;
 import org.deeplearning4j.util.MathUtils;
+import org.deeplearning4j.util.MultiThreadUtils;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
@@ -30,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Vantage point tree implementation
@@ -40,7 +42,6 @@ public class VPTree {
 
     public static final String EUCLIDEAN = "euclidean";
     private List<DataPoint> items;
-    private double tau;
     private Node root;
     private CounterMap<DataPoint, DataPoint> distances;
     private String similarityFunction;
@@ -157,6 +158,13 @@ public class VPTree {
         return count;
     }
 
+    private double getCachedDistance(DataPoint d1, DataPoint d2) {
+        double count = distances.getCount(d1, d2);
+        if (count == 0)
+            return d1.distance(d2);
+        return count;
+    }
+
     private Node buildFromPoints(int lower, int upper) {
         if (upper == lower)
             return null;
@@ -211,7 +219,6 @@ public class VPTree {
 
     public void search(DataPoint target, int k, List<DataPoint> results, List<Double> distances) {
         PriorityQueue<HeapItem> pq = new PriorityQueue<>();
-        tau = Double.MAX_VALUE;
         search(root, target, k, pq);
 
         results.clear();
@@ -228,17 +235,76 @@ public class VPTree {
     }
 
 
+    /**
+     * Search the k nearest neighbors of every target in parallel.
+     * The tree is only read, so this is safe to call concurrently with other searches.
+     *
+     * @param targets the points to search the neighbors of
+     * @param k the number of neighbors per target
+     * @param indices output, of length targets.size() * k: the {@link DataPoint#getIndex()} of the neighbors of
+     *                target i, ordered by increasing distance, start at i * k
+     * @param distances output, of length targets.size() * k: the distances matching indices
+     * @param executorService the executor to run the searches on
+     */
+    public void search(final List<DataPoint> targets, final int k, final int[] indices, final double[] distances,
+                    ExecutorService executorService) {
+        if (indices.length < targets.size() * k || distances.length < targets.size() * k)
+            throw new IllegalArgumentException("Output arrays must hold k = " + k + " neighbors for each of the "
+                            + targets.size() + " targets");
+
+        int numTasks = Math.min(targets.size(), Runtime.getRuntime().availableProcessors());
+        int chunkSize = (targets.size() + numTasks - 1) / Math.max(1, numTasks);
+        final int deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        List<Runnable> tasks = new ArrayList<>(numTasks);
+        for (int t = 0; t < numTasks; t++) {
+            final int from = t * chunkSize;
+            final int to = Math.min(targets.size(), from + chunkSize);
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    Nd4j.getAffinityManager().attachThreadToDevice(Thread.currentThread(), deviceId);
+                    for (int i = from; i < to; i++) {
+                        PriorityQueue<HeapItem> pq = new PriorityQueue<>();
+                        search(root, targets.get(i), k, pq, new double[] {Double.MAX_VALUE}, false);
+
+                        // the queue returns the furthest neighbor first
+                        int j = Math.min(k, pq.size()) - 1;
+                        while (!pq.isEmpty()) {
+                            HeapItem item = pq.peek();
+                            indices[i * k + j] = items.get(item.getIndex()).getIndex();
+                            distances[i * k + j] = item.getDistance();
+                            pq.next();
+                            j--;
+                        }
+                    }
+                }
+            });
+        }
+
+        //a failed search would leave zeros in the outputs, so failures are rethrown
+        MultiThreadUtils.parallelTasksRethrow(tasks, executorService);
+    }
+
     public void search(Node node, DataPoint target, int k, PriorityQueue<HeapItem> pq) {
+        search(node, target, k, pq, new double[] {Double.MAX_VALUE}, true);
+    }
+
+    /**
+     * @param tau the distance to the furthest neighbor found so far, shared by the whole search
+     * @param cacheDistances whether to store newly computed distances, which is not safe to do from parallel searches
+     */
+    private void search(Node node, DataPoint target, int k, PriorityQueue<HeapItem> pq, double[] tau,
+                    boolean cacheDistances) {
         if (node == null)
             return;
         DataPoint get = items.get(node.getIndex());
-        double distance = getDistance(get, target);
-        if (distance < tau) {
+        double distance = cacheDistances ? getDistance(get, target) : getCachedDistance(get, target);
+        if (distance < tau[0]) {
             if (pq.size() == k)
                 pq.next();
             pq.add(new HeapItem(node.index, distance), distance);
             if (pq.size() == k)
-                tau = pq.peek().getDistance();
+                tau[0] = pq.peek().getDistance();
 
 
         }
@@ -247,21 +313,21 @@ public class VPTree {
             return;
 
         if (distance < node.getThreshold()) {
-            if (distance - tau <= node.getThreshold()) { // if there can still be neighbors inside the ball, recursively search left child first
-                search(node.getLeft(), target, k, pq);
+            if (distance - tau[0] <= node.getThreshold()) { // if there can still be neighbors inside the ball, recursively search left child first
+                search(node.getLeft(), target, k, pq, tau, cacheDistances);
             }
 
-            if (distance + tau >= node.getThreshold()) { // if there can still be neighbors outside the ball, recursively search right child
-                search(node.getRight(), target, k, pq);
+            if (distance + tau[0] >= node.getThreshold()) { // if there can still be neighbors outside the ball, recursively search right child
+                search(node.getRight(), target, k, pq, tau, cacheDistances);
             }
 
         } else {
-            if (distance + tau >= node.getThreshold()) { // if there can still be neighbors outside the ball, recursively search right child first
-                search(node.getRight(), target, k, pq);
+            if (distance + tau[0] >= node.getThreshold()) { // if there can still be neighbors outside the ball, recursively search right child first
+                search(node.getRight(), target, k, pq, tau, cacheDistances);
             }
 
-            if (distance - tau <= node.getThreshold()) { // if there can still be neighbors inside the ball, recursively search left child
-                search(node.getLeft(), target, k, pq);
+            if (distance - tau[0] <= node.getThreshold()) { // if there can still be neighbors inside the ball, recursively search left child
+                search(node.getLeft(), target, k, pq, tau, cacheDistances);
             }
         }
 
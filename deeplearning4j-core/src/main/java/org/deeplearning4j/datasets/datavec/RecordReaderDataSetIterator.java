@@ -163,7 +163,7 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
             return last;
         }
 
-        List<DataSet> dataSets = new ArrayList<>();
+        List<List<Writable>> records = new ArrayList<>(num);
         List<RecordMetaData> meta = (collectMetaData ? new ArrayList<RecordMetaData>() : null);
         for (int i = 0; i < num; i++) {
             if (!hasNext())
@@ -174,25 +174,32 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
                     sequenceIter = sequenceRecord.iterator();
                 }
 
-                List<Writable> record = sequenceIter.next();
-                dataSets.add(getDataSet(record));
+                records.add(sequenceIter.next());
             } else {
                 if (collectMetaData) {
                     Record record = recordReader.nextRecord();
-                    dataSets.add(getDataSet(record.getRecord()));
+                    records.add(record.getRecord());
                     meta.add(record.getMetaData());
                 } else {
-                    List<Writable> record = recordReader.next();
-                    dataSets.add(getDataSet(record));
+                    records.add(recordReader.next());
                 }
             }
         }
         batchNum++;
 
-        if (dataSets.isEmpty())
+        if (records.isEmpty())
             return new DataSet();
 
-        DataSet ret = DataSet.merge(dataSets);
+        //Fast path: assemble the minibatch column-wise, for records of scalar values only
+        DataSet ret = getDataSetColumnar(records);
+        if (ret == null) {
+            List<DataSet> dataSets = new ArrayList<>(records.size());
+            for (List<Writable> record : records) {
+                dataSets.add(getDataSet(record));
+            }
+            ret = DataSet.merge(dataSets);
+        }
+
         if (collectMetaData) {
             ret.setExampleMetaData(meta);
         }
@@ -206,6 +213,108 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
     }
 
 
+    /**
+     * Assemble the minibatch directly into the feature and label arrays, one value at a time from each Writable
+     * into a preallocated primitive array. This is equivalent to creating one DataSet per record with
+     * {@link #getDataSet(List)} and merging them, but avoids the per-example arrays and putScalar calls.
+     *
+     * @return The minibatch, or null if the records are not all of the same length and made up of non-empty scalar
+     * values only (in which case the per-record path should be used)
+     */
+    private DataSet getDataSetColumnar(final List<List<Writable>> records) {
+        final int numExamples = records.size();
+        final int recordSize = records.get(0).size();
+
+        //allow people to specify label index as -1 and infer the last possible label
+        if (numPossibleLabels >= 1 && labelIndex < 0) {
+            labelIndex = recordSize - 1;
+        }
+
+        final int labelFrom;
+        final int labelTo;
+        final boolean oneHot;
+        if (labelIndex < 0) {
+            //No labels
+            labelFrom = -1;
+            labelTo = -2;
+            oneHot = false;
+        } else if (regression) {
+            if (labelIndexTo < labelIndex)
+                return null;
+            labelFrom = labelIndex;
+            labelTo = labelIndexTo;
+            oneHot = false;
+        } else {
+            if (numPossibleLabels < 1)
+                throw new IllegalStateException("Number of possible labels invalid, must be >= 1");
+            labelFrom = labelIndex;
+            labelTo = labelIndex;
+            oneHot = true;
+        }
+        if (labelTo >= recordSize)
+            return null;
+
+        for (List<Writable> record : records) {
+            if (record.size() != recordSize)
+                return null;
+            for (Writable w : record) {
+                if (w instanceof NDArrayWritable || WritableBatchAssembler.isEmptyText(w))
+                    return null;
+            }
+        }
+
+        final int nFeatures = recordSize - (labelTo - labelFrom + 1);
+        final int nLabels = (oneHot ? numPossibleLabels : labelTo - labelFrom + 1);
+        if (nFeatures <= 0)
+            return null;
+
+        final WritableBatchAssembler.Values features = new WritableBatchAssembler.Values(numExamples * nFeatures);
+        final WritableBatchAssembler.Values labels =
+                        (labelFrom >= 0 ? new WritableBatchAssembler.Values(numExamples * nLabels) : null);
+
+        WritableBatchAssembler.convertExamples(numExamples, new WritableBatchAssembler.ExampleConverter() {
+            @Override
+            void convert(int fromExample, int toExampleExclusive) {
+                for (int i = fromExample; i < toExampleExclusive; i++) {
+                    List<Writable> record = records.get(i);
+                    int featureIdx = i * nFeatures;
+                    for (int j = 0; j < recordSize; j++) {
+                        Writable current = record.get(j);
+                        if (j < labelFrom || j > labelTo) {
+                            features.set(featureIdx++, current.toDouble());
+                        } else if (oneHot) {
+                            if (converter != null) {
+                                try {
+                                    current = converter.convert(current);
+                                } catch (WritableConverterException e) {
+                                    e.printStackTrace();
+                                }
+                            }
+                            int curr = current.toInt();
+                            checkClassIndex(curr, current);
+                            labels.set(i * nLabels + curr, 1.0);
+                        } else {
+                            labels.set(i * nLabels + (j - labelFrom), current.toDouble());
+                        }
+                    }
+                }
+            }
+        });
+
+        INDArray featureArr = features.toArray(new int[] {numExamples, nFeatures}, 'c');
+        INDArray labelArr = (labels != null ? labels.toArray(new int[] {numExamples, nLabels}, 'c') : featureArr.dup());
+        return new DataSet(featureArr, labelArr);
+    }
+
+    private void checkClassIndex(int curr, Writable current) {
+        if (curr < 0 || curr >= numPossibleLabels) {
+            throw new DL4JInvalidInputException("Invalid classification data: expect label value (at label index column = "
+                            + labelIndex + ") to be in range 0 to " + (numPossibleLabels - 1)
+                            + " inclusive (0 to numClasses-1, with numClasses=" + numPossibleLabels
+                            + "); got label value of " + current);
+        }
+    }
+
     private DataSet getDataSet(List<Writable> record) {
         List<Writable> currList;
         if (record instanceof List)
@@ -273,14 +382,7 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
                     label = Nd4j.scalar(current.toDouble());
                 } else {
                     int curr = current.toInt();
-                    if (curr < 0 || curr >= numPossibleLabels) {
-                        throw new DL4JInvalidInputException(
-                                        "Invalid classification data: expect label value (at label index column = "
-                                                        + labelIndex + ") to be in range 0 to "
-                                                        + (numPossibleLabels - 1)
-                                                        + " inclusive (0 to numClasses-1, with numClasses="
-                                                        + numPossibleLabels + "); got label value of " + current);
-                    }
+                    checkClassIndex(curr, current);
                     label = FeatureUtil.toOutcomeVector(curr, numPossibleLabels);
                 }
             } else {
@@ -31,6 +31,7 @@ import org.datavec.api.records.reader.SequenceRecordReader;
 import org.datavec.api.writable.Writable;
 import org.datavec.common.data.NDArrayWritable;
 import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.exception.DL4JInvalidInputException;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
@@ -256,6 +257,10 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
     }
 
     private INDArray convertWritables(List<List<Writable>> list, int minValues, SubsetDetails details) {
+        INDArray columnar = convertWritablesColumnar(list, minValues, details);
+        if (columnar != null)
+            return columnar;
+
         INDArray arr;
         if (details.entireReader) {
             if (list.get(0).size() == 1 && list.get(0).get(0) instanceof NDArrayWritable) {
@@ -339,6 +344,150 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
         return arr;
     }
 
+    /**
+     * Convert the writables of a standard reader column-wise into a single preallocated array.
+     *
+     * @return The converted array, or null if any of the selected values is an NDArrayWritable
+     */
+    private INDArray convertWritablesColumnar(final List<List<Writable>> list, int minValues,
+                    final SubsetDetails details) {
+        final int from;
+        final int toInclusive;
+        if (details.entireReader) {
+            from = 0;
+            toInclusive = list.get(0).size() - 1;
+            for (int i = 0; i < minValues; i++) {
+                if (list.get(i).size() != toInclusive + 1)
+                    return null;
+            }
+        } else {
+            from = details.subsetStart;
+            toInclusive = details.subsetEndInclusive;
+        }
+        if (toInclusive < from || !WritableBatchAssembler.isScalarColumns(list, minValues, from, toInclusive))
+            return null;
+
+        final int nOut = (details.oneHot ? details.oneHotNumClasses : toInclusive - from + 1);
+        final WritableBatchAssembler.Values values = new WritableBatchAssembler.Values(minValues * nOut);
+        WritableBatchAssembler.convertExamples(minValues, new WritableBatchAssembler.ExampleConverter() {
+            @Override
+            void convert(int fromExample, int toExampleExclusive) {
+                for (int i = fromExample; i < toExampleExclusive; i++) {
+                    List<Writable> c = list.get(i);
+                    if (details.oneHot) {
+                        Writable w = c.get(from);
+                        values.set(i * nOut + classIndex(w, details), 1.0);
+                    } else {
+                        int idx = i * nOut;
+                        for (int j = from; j <= toInclusive; j++) {
+                            values.set(idx++, c.get(j).toDouble());
+                        }
+                    }
+                }
+            }
+        });
+        return values.toArray(new int[] {minValues, nOut}, 'c');
+    }
+
+    /**
+     * Convert the writables of a sequence reader column-wise into a single preallocated array (plus mask array, if
+     * required)
+     *
+     * @return The converted array and mask, or null if any of the selected values is an NDArrayWritable or the time
+     * steps have different numbers of values
+     */
+    private Pair<INDArray, INDArray> convertWritablesSequenceColumnar(final List<List<List<Writable>>> list,
+                    final int minValues, final int maxTSLength, final SubsetDetails details,
+                    final int[] longestSequence) {
+        final int from;
+        final int toInclusive;
+        if (details.entireReader) {
+            from = 0;
+            toInclusive = list.get(0).iterator().next().size() - 1;
+        } else {
+            from = details.subsetStart;
+            toInclusive = details.subsetEndInclusive;
+        }
+        if (toInclusive < from)
+            return null;
+
+        boolean needMaskArray = false;
+        for (int i = 0; i < minValues; i++) {
+            List<List<Writable>> sequence = list.get(i);
+            if (sequence.size() > maxTSLength)
+                return null;
+            if (sequence.size() < maxTSLength)
+                needMaskArray = true;
+            for (List<Writable> timeStep : sequence) {
+                if (details.entireReader && timeStep.size() != toInclusive + 1)
+                    return null;
+            }
+            if (!WritableBatchAssembler.isScalarColumns(sequence, sequence.size(), from, toInclusive))
+                return null;
+        }
+        if (!needMaskArray) {
+            for (int i = minValues; i < list.size(); i++) {
+                if (list.get(i).size() < maxTSLength)
+                    needMaskArray = true;
+            }
+        }
+
+        final int size = (details.oneHot ? details.oneHotNumClasses : toInclusive - from + 1);
+        final WritableBatchAssembler.Values values = new WritableBatchAssembler.Values(minValues * size * maxTSLength);
+        final WritableBatchAssembler.Values mask =
+                        (needMaskArray ? new WritableBatchAssembler.Values(minValues * maxTSLength) : null);
+
+        WritableBatchAssembler.convertExamples(minValues, new WritableBatchAssembler.ExampleConverter() {
+            @Override
+            void convert(int fromExample, int toExampleExclusive) {
+                for (int i = fromExample; i < toExampleExclusive; i++) {
+                    List<List<Writable>> sequence = list.get(i);
+                    int startOffset = 0;
+                    if (alignmentMode == AlignmentMode.ALIGN_END)
+                        startOffset = longestSequence[i] - sequence.size();
+
+                    //Values are in 'f' order: index of (example i, value j, time step k) is i + minValues * (j + size * k)
+                    int k = startOffset;
+                    for (List<Writable> timeStep : sequence) {
+                        if (details.oneHot) {
+                            int classIdx = classIndex(timeStep.get(from), details);
+                            values.set(i + minValues * (classIdx + size * k), 1.0);
+                        } else {
+                            for (int j = from; j <= toInclusive; j++) {
+                                values.set(i + minValues * ((j - from) + size * k), timeStep.get(j).toDouble());
+                            }
+                        }
+                        k++;
+                    }
+
+                    if (mask != null) {
+                        //Mask array is 'c' order [minValues, maxTSLength]. As in the per-value conversion, only the
+                        // padding before the data (align end) or after it (align start) is masked out
+                        int maskStart = (alignmentMode == AlignmentMode.ALIGN_END ? startOffset : 0);
+                        int maskEnd = (alignmentMode == AlignmentMode.ALIGN_START ? k : maxTSLength);
+                        for (int t = maskStart; t < maskEnd; t++) {
+                            mask.set(i * maxTSLength + t, 1.0);
+                        }
+                    }
+                }
+            }
+        });
+
+        INDArray arr = values.toArray(new int[] {minValues, size, maxTSLength}, 'f');
+        INDArray maskArray = (mask != null ? mask.toArray(new int[] {minValues, maxTSLength}, 'c') : null);
+        return new Pair<>(arr, maskArray);
+    }
+
+    private static int classIndex(Writable w, SubsetDetails details) {
+        int classIdx = w.toInt();
+        if (classIdx < 0 || classIdx >= details.oneHotNumClasses) {
+            throw new DL4JInvalidInputException("Invalid one-hot data for reader \"" + details.readerName
+                            + "\": expect class index (at column " + details.subsetStart + ") to be in range 0 to "
+                            + (details.oneHotNumClasses - 1) + " inclusive; got value of " + w);
+        }
+        return classIdx;
+    }
+
     private void putExample(INDArray arr, INDArray singleExample, int exampleIdx) {
         switch (arr.rank()) {
             case 2:
@@ -364,6 +513,11 @@ public class RecordReaderMultiDataSetIterator implements MultiDataSetIterator {
                     int maxTSLength, SubsetDetails details, int[] longestSequence) {
         if (maxTSLength == -1)
             maxTSLength = list.get(0).size();
+        Pair<INDArray, INDArray> columnar =
+                        convertWritablesSequenceColumnar(list, minValues, maxTSLength, details, longestSequence);
+        if (columnar != null)
+            return columnar;
+
         INDArray arr;
         if (details.entireReader) {
             int size = list.get(0).iterator().next().size();
@@ -0,0 +1,165 @@
+/*-
+ *
+ *  * Copyright 2017 Skymind,Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ *
+ */
+
+package org.deeplearning4j.datasets.datavec;
+
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.datavec.common.data.NDArrayWritable;
+import org.deeplearning4j.util.MultiThreadUtils;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Helper for the record reader iterators: assembles a whole minibatch of {@link Writable}s into a single preallocated
+ * float[] or double[] (depending on the Nd4j data type), which is wrapped as an INDArray once, instead of creating
+ * one array per example and setting values one putScalar call at a time.<br>
+ * For large minibatches, the conversion of the Writables (usually the parsing of Text values) is split by example
+ * across threads.
+ */
+class WritableBatchAssembler {
+
+    /**
+     * Minimum number of examples converted by each thread. Smaller minibatches are converted on the calling thread
+     */
+    static final int MIN_EXAMPLES_PER_THREAD = 256;
+
+    private static ExecutorService executorService;
+
+    private WritableBatchAssembler() {}
+
+    /**
+     * Values for one array, stored in the Nd4j data type
+     */
+    static class Values {
+        private final float[] floats;
+        private final double[] doubles;
+
+        Values(int length) {
+            if (Nd4j.dataType() == DataBuffer.Type.DOUBLE) {
+                floats = null;
+                doubles = new double[length];
+            } else {
+                floats = new float[length];
+                doubles = null;
+            }
+        }
+
+        void set(int idx, double value) {
+            if (floats != null) {
+                floats[idx] = (float) value;
+            } else {
+                doubles[idx] = value;
+            }
+        }
+
+        INDArray toArray(int[] shape, char order) {
+            if (floats != null)
+                return Nd4j.create(floats, shape, order);
+            return Nd4j.create(doubles, shape, order);
+        }
+    }
+
+    /**
+     * Conversion of the examples in a range of the minibatch
+     */
+    abstract static class ExampleConverter {
+        abstract void convert(int fromExample, int toExampleExclusive);
+    }
+
+    /**
+     * Run the converter for all examples; in parallel if there are enough examples
+     */
+    static void convertExamples(int numExamples, ExampleConverter converter) {
+        int nThreads = Math.min(Runtime.getRuntime().availableProcessors(), numExamples / MIN_EXAMPLES_PER_THREAD);
+        if (nThreads <= 1) {
+            converter.convert(0, numExamples);
+            return;
+        }
+
+        ExecutorService executor = getExecutorService();
+        List<Future<?>> futures = new ArrayList<>(nThreads);
+        int perThread = (numExamples + nThreads - 1) / nThreads;
+        for (int t = 0; t < nThreads; t++) {
+            final int from = t * perThread;
+            final int to = Math.min(numExamples, from + perThread);
+            final ExampleConverter c = converter;
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    c.convert(from, to);
+                }
+            }));
+        }
+
+        //Conversion errors (invalid labels, unparseable values) have to reach the caller, as in the single threaded case
+        RuntimeException failure = null;
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = (e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                                    : new RuntimeException(e.getCause()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    private static synchronized ExecutorService getExecutorService() {
+        if (executorService == null)
+            executorService = MultiThreadUtils.newExecutorService();
+        return executorService;
+    }
+
+    /**
+     * @return True if the values in columns from to toInclusive of the first numExamples records can be assembled
+     *         column-wise: all records have at least toInclusive+1 values, and none of these is an NDArrayWritable
+     */
+    static boolean isScalarColumns(List<List<Writable>> records, int numExamples, int from, int toInclusive) {
+        for (int i = 0; i < numExamples; i++) {
+            List<Writable> record = records.get(i);
+            if (record.size() <= toInclusive)
+                return false;
+            for (int j = from; j <= toInclusive; j++) {
+                if (record.get(j) instanceof NDArrayWritable)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return True if the writable is an empty Text value (these are skipped by RecordReaderDataSetIterator)
+     */
+    static boolean isEmptyText(Writable w) {
+        return w instanceof Text && ((Text) w).getLength() == 0;
+    }
+}
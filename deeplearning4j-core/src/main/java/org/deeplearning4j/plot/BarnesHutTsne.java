@@ -32,6 +32,7 @@ import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.optimize.api.ConvexOptimizer;
 import org.deeplearning4j.optimize.api.IterationListener;
+import org.deeplearning4j.util.MultiThreadUtils;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.BooleanIndexing;
@@ -47,9 +48,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import static org.nd4j.linalg.factory.Nd4j.*;
-import static org.nd4j.linalg.ops.transforms.Transforms.pow;
 import static org.nd4j.linalg.ops.transforms.Transforms.sign;
 
 
@@ -84,6 +85,10 @@ public class BarnesHutTsne implements Model {
     private INDArray rows;
     private INDArray cols;
     private INDArray vals;
+    //sparse P in compressed row format, rows/cols/vals are views of these for the INDArray based api
+    private int[] rowP;
+    private int[] colP;
+    private double[] valP;
     private String simiarlityFunction = "cosinesimilarity";
     private boolean invert = true;
     private INDArray x;
@@ -93,6 +98,7 @@ public class BarnesHutTsne implements Model {
     private INDArray gains;
     private INDArray yIncs;
     protected transient IterationListener iterationListener;
+    private transient ExecutorService executorService;
 
     public BarnesHutTsne(int numDimensions, String simiarlityFunction, double theta, boolean invert, int maxIter,
                     double realMin, double initialMomentum, double finalMomentum, double momentum,
@@ -167,80 +173,77 @@ public class BarnesHutTsne implements Model {
             throw new IllegalStateException("Illegal k value " + k + "greater than " + u);
 
 
-        rows = zeros(1, N + 1);
-        cols = zeros(1, N * k);
-        vals = zeros(1, N * k);
+        rowP = new int[N + 1];
+        colP = new int[N * k];
+        valP = new double[N * k];
 
         for (int n = 0; n < N; n++)
-            rows.putScalar(n + 1, rows.getDouble(n) + k);
-
-
-        final INDArray beta = ones(N, 1);
+            rowP[n + 1] = rowP[n] + k;
 
         final double logU = FastMath.log(u);
         VPTree tree = new VPTree(d, simiarlityFunction, invert);
 
-        log.info("Calculating probabilities of data similarities...");
-        for (int i = 0; i < N; i++) {
-            if (i % 500 == 0)
-                log.info("Handled " + i + " records");
-
-            double betaMin = -Double.MAX_VALUE;
-            double betaMax = Double.MAX_VALUE;
-            List<DataPoint> results = new ArrayList<>();
-            tree.search(new DataPoint(i, d.slice(i)), k + 1, results, new ArrayList<Double>());
-            double betas = beta.getDouble(i);
-
-            INDArray cArr = VPTree.buildFromData(results);
-            Pair<INDArray, Double> pair = computeGaussianKernel(cArr, beta.getDouble(i), k);
-            INDArray currP = pair.getFirst();
-            double hDiff = pair.getSecond() - logU;
-            int tries = 0;
-            boolean found = false;
-            //binary search
-            while (!found && tries < 200) {
-                if (hDiff < tolerance && -hDiff < tolerance)
-                    found = true;
-                else {
-                    if (hDiff > 0) {
-                        betaMin = betas;
-
-                        if (betaMax == Double.MAX_VALUE || betaMax == -Double.MAX_VALUE)
-                            betas *= 2;
-                        else
-                            betas = (betas + betaMax) / 2.0;
-                    } else {
-                        betaMax = betas;
-                        if (betaMin == -Double.MAX_VALUE || betaMin == Double.MAX_VALUE)
-                            betas /= 2.0;
-                        else
-                            betas = (betas + betaMin) / 2.0;
-                    }
+        log.info("Searching nearest neighbors of " + N + " records...");
+        List<DataPoint> points = new ArrayList<>(N);
+        for (int i = 0; i < N; i++)
+            points.add(new DataPoint(i, d.slice(i)));
 
-                    pair = computeGaussianKernel(cArr, betas, k);
-                    hDiff = pair.getSecond() - logU;
-                    tries++;
-                }
+        //the closest neighbor of each point is the point itself
+        final int[] neighbors = new int[N * (k + 1)];
+        final double[] distances = new double[N * (k + 1)];
+        tree.search(points, k + 1, neighbors, distances, executor());
 
-            }
+        //the gaussian kernel is defined on squared distances
+        for (int i = 0; i < distances.length; i++)
+            distances[i] *= distances[i];
 
+        log.info("Calculating probabilities of data similarities...");
+        parallelFor(N, new RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                double[] currP = new double[k];
+                for (int i = from; i < to; i++) {
+                    int offset = i * (k + 1);
+                    double betaMin = -Double.MAX_VALUE;
+                    double betaMax = Double.MAX_VALUE;
+                    double betas = 1.0;
+
+                    double hDiff = computeGaussianKernel(distances, offset, betas, k, currP) - logU;
+                    int tries = 0;
+                    //binary search
+                    while (!(hDiff < tolerance && -hDiff < tolerance) && tries < 200) {
+                        if (hDiff > 0) {
+                            betaMin = betas;
+
+                            if (betaMax == Double.MAX_VALUE || betaMax == -Double.MAX_VALUE)
+                                betas *= 2;
+                            else
+                                betas = (betas + betaMax) / 2.0;
+                        } else {
+                            betaMax = betas;
+                            if (betaMin == -Double.MAX_VALUE || betaMin == Double.MAX_VALUE)
+                                betas /= 2.0;
+                            else
+                                betas = (betas + betaMin) / 2.0;
+                        }
 
-            currP.divi(currP.sum(Integer.MAX_VALUE));
-            INDArray indices = Nd4j.create(1, k + 1);
-            for (int j = 0; j < indices.length(); j++) {
-                if (j >= results.size())
-                    break;
-                indices.putScalar(j, results.get(j).getIndex());
-            }
-
-            for (int l = 0; l < k; l++) {
-                cols.putScalar(rows.getInt(i) + l, indices.getDouble(l + 1));
-                vals.putScalar(rows.getInt(i) + l, currP.getDouble(l));
-            }
+                        hDiff = computeGaussianKernel(distances, offset, betas, k, currP) - logU;
+                        tries++;
+                    }
 
+                    double sum = 0.0;
+                    for (int l = 0; l < k; l++)
+                        sum += currP[l];
 
+                    for (int l = 0; l < k; l++) {
+                        colP[rowP[i] + l] = neighbors[offset + l + 1];
+                        valP[rowP[i] + l] = currP[l] / sum;
+                    }
+                }
+            }
+        });
 
-        }
+        syncSparseArrays();
         return vals;
 
     }
@@ -301,93 +304,119 @@ public class BarnesHutTsne implements Model {
 
 
     /**
-     * Symmetrize the value matrix
+     * Symmetrize the value matrix.
+     * The row and column indices of this model are replaced
+     * with the ones of the symmetrized matrix.
      * @param rowP
      * @param colP
      * @param valP
      * @return
      */
     public INDArray symmetrized(INDArray rowP, INDArray colP, INDArray valP) {
-        INDArray rowCounts = Nd4j.create(N);
+        int[] rowPArr = new int[rowP.length()];
+        for (int i = 0; i < rowPArr.length; i++)
+            rowPArr[i] = rowP.getInt(i);
+        int[] colPArr = new int[colP.length()];
+        double[] valPArr = new double[valP.length()];
+        for (int i = 0; i < colPArr.length; i++) {
+            colPArr[i] = colP.getInt(i);
+            valPArr[i] = valP.getDouble(i);
+        }
+
+        symmetrize(rowPArr, colPArr, valPArr);
+        return vals;
+    }
+
+    /**
+     * Symmetrize the sparse matrix P in compressed row format,
+     * storing the result in the rowP/colP/valP fields
+     */
+    private void symmetrize(int[] rowP, int[] colP, double[] valP) {
+        int[] rowCounts = new int[N];
         for (int n = 0; n < N; n++) {
-            int begin = rowP.getInt(n);
-            int end = rowP.getInt(n + 1);
-            for (int i = begin; i < end; i++) {
+            for (int i = rowP[n]; i < rowP[n + 1]; i++) {
+                int colPI = colP[i];
                 boolean present = false;
-                for (int m = rowP.getInt(colP.getInt(i)); m < rowP.getInt(colP.getInt(i) + 1); m++)
-                    if (colP.getInt(m) == n) {
+                for (int m = rowP[colPI]; m < rowP[colPI + 1]; m++) {
+                    if (colP[m] == n) {
                         present = true;
+                        break;
                     }
-
-
-                if (present)
-                    rowCounts.putScalar(n, rowCounts.getDouble(n) + 1);
-
-                else {
-                    rowCounts.putScalar(n, rowCounts.getDouble(n) + 1);
-                    rowCounts.putScalar(colP.getInt(i), rowCounts.getDouble(colP.getInt(i)) + 1);
                 }
+
+                rowCounts[n]++;
+                if (!present)
+                    rowCounts[colPI]++;
             }
         }
 
-
-        int numElements = rowCounts.sum(Integer.MAX_VALUE).getInt(0);
-        INDArray offset = Nd4j.create(N);
-        INDArray symRowP = Nd4j.create(N + 1);
-        INDArray symColP = Nd4j.create(numElements);
-        INDArray symValP = Nd4j.create(numElements);
-
+        int[] symRowP = new int[N + 1];
         for (int n = 0; n < N; n++)
-            symRowP.putScalar(n + 1, symRowP.getDouble(n) + rowCounts.getDouble(n));
-
+            symRowP[n + 1] = symRowP[n] + rowCounts[n];
 
+        int numElements = symRowP[N];
+        int[] offset = new int[N];
+        int[] symColP = new int[numElements];
+        double[] symValP = new double[numElements];
 
         for (int n = 0; n < N; n++) {
-            for (int i = rowP.getInt(n); i < rowP.getInt(n + 1); i++) {
+            for (int i = rowP[n]; i < rowP[n + 1]; i++) {
+                int colPI = colP[i];
                 boolean present = false;
-                for (int m = rowP.getInt(colP.getInt(i)); m < rowP.getInt(colP.getInt(i)) + 1; m++) {
-                    if (colP.getInt(m) == n) {
+                for (int m = rowP[colPI]; m < rowP[colPI + 1]; m++) {
+                    if (colP[m] == n) {
                         present = true;
-                        if (n < colP.getInt(i)) {
+                        if (n <= colPI) {
                             // make sure we do not add elements twice
-                            symColP.putScalar(symRowP.getInt(n) + offset.getInt(n), colP.getInt(i));
-                            symColP.putScalar(symRowP.getInt(colP.getInt(i)) + offset.getInt(colP.getInt(i)), n);
-                            symValP.putScalar(symRowP.getInt(n) + offset.getInt(n),
-                                            valP.getDouble(i) + valP.getDouble(m));
-                            symValP.putScalar(symRowP.getInt(colP.getInt(i)) + offset.getInt(colP.getInt(i)),
-                                            valP.getDouble(i) + valP.getDouble(m));
+                            symColP[symRowP[n] + offset[n]] = colPI;
+                            symColP[symRowP[colPI] + offset[colPI]] = n;
+                            symValP[symRowP[n] + offset[n]] = valP[i] + valP[m];
+                            symValP[symRowP[colPI] + offset[colPI]] = valP[i] + valP[m];
                         }
                     }
                 }
 
                 // If (colP[i], n) is not present, there is no addition involved
                 if (!present) {
-                    int colPI = colP.getInt(i);
-                    if (n < colPI) {
-                        symColP.putScalar(symRowP.getInt(n) + offset.getInt(n), colPI);
-                        symColP.putScalar(symRowP.getInt(colP.getInt(i)) + offset.getInt(colPI), n);
-                        symValP.putScalar(symRowP.getInt(n) + offset.getInt(n), valP.getDouble(i));
-                        symValP.putScalar(symRowP.getInt(colPI) + offset.getInt(colPI), valP.getDouble(i));
-                    }
-
+                    symColP[symRowP[n] + offset[n]] = colPI;
+                    symColP[symRowP[colPI] + offset[colPI]] = n;
+                    symValP[symRowP[n] + offset[n]] = valP[i];
+                    symValP[symRowP[colPI] + offset[colPI]] = valP[i];
                 }
 
                 // Update offsets
-                if (!present || (present && n < colP.getInt(i))) {
-                    offset.putScalar(n, offset.getInt(n) + 1);
-                    int colPI = colP.getInt(i);
+                if (!present || n <= colPI) {
+                    offset[n]++;
                     if (colPI != n)
-                        offset.putScalar(colPI, offset.getDouble(colPI) + 1);
+                        offset[colPI]++;
                 }
             }
         }
 
         // Divide the result by two
-        symValP.divi(2.0);
+        for (int i = 0; i < numElements; i++)
+            symValP[i] /= 2.0;
 
+        this.rowP = symRowP;
+        this.colP = symColP;
+        this.valP = symValP;
+        syncSparseArrays();
+    }
 
-        return symValP;
+    /**
+     * Refresh the INDArray views of the sparse matrix P
+     */
+    private void syncSparseArrays() {
+        double[] rowsArr = new double[rowP.length];
+        for (int i = 0; i < rowP.length; i++)
+            rowsArr[i] = rowP[i];
+        double[] colsArr = new double[colP.length];
+        for (int i = 0; i < colP.length; i++)
+            colsArr[i] = colP[i];
 
+        rows = Nd4j.create(rowsArr);
+        cols = Nd4j.create(colsArr);
+        vals = Nd4j.create(valP);
     }
 
     /**
@@ -414,6 +443,31 @@ public class BarnesHutTsne implements Model {
         return new Pair<>(currP, h);
     }
 
+    /**
+     * Computes a gaussian kernel row
+     * given the squared distances of a point to its neighbors
+     *
+     * @param distances the squared distances, the first one at offset being the distance of the point to itself
+     * @param offset the offset of the point in distances
+     * @param beta
+     * @param k the number of neighbors
+     * @param currP output, the unnormalized kernel row
+     * @return the entropy of the row
+     */
+    private static double computeGaussianKernel(double[] distances, int offset, double beta, int k, double[] currP) {
+        double sum = 0.0;
+        for (int m = 0; m < k; m++) {
+            currP[m] = FastMath.exp(-beta * distances[offset + m + 1]);
+            sum += currP[m];
+        }
+
+        double h = 0.0;
+        for (int m = 0; m < k; m++)
+            h += beta * (distances[offset + m + 1] * currP[m]);
+
+        return (h / sum) + FastMath.log(sum);
+    }
+
 
     /**
      * Set the IterationListeners for the ComputationGraph (and all layers in the network)
@@ -450,23 +504,41 @@ public class BarnesHutTsne implements Model {
             }
 
 
-            computeGaussianPerplexity(x, perplexity);
-            vals = symmetrized(rows, cols, vals).divi(vals.sum(Integer.MAX_VALUE));
-            //lie about gradient
-            vals.muli(12);
-            for (int i = 0; i < maxIter; i++) {
-                step(vals, i);
-
-                if (i == switchMomentumIteration)
-                    momentum = finalMomentum;
-                if (i == stopLyingIteration)
-                    vals.divi(12);
+            try {
+                computeGaussianPerplexity(x, perplexity);
+                symmetrize(rowP, colP, valP);
+                double sumP = 0.0;
+                for (int i = 0; i < valP.length; i++)
+                    sumP += valP[i];
+                //lie about gradient
+                for (int i = 0; i < valP.length; i++)
+                    valP[i] = valP[i] / sumP * 12;
+                vals = Nd4j.create(valP);
+
+                for (int i = 0; i < maxIter; i++) {
+                    long start = System.currentTimeMillis();
+                    step(vals, i);
+                    long stepTime = System.currentTimeMillis() - start;
+
+                    if (i == switchMomentumIteration)
+                        momentum = finalMomentum;
+                    if (i == stopLyingIteration) {
+                        for (int j = 0; j < valP.length; j++)
+                            valP[j] /= 12;
+                        vals = Nd4j.create(valP);
+                    }
 
 
-                if (iterationListener != null) {
-                    iterationListener.iterationDone(this, i);
+                    if (iterationListener != null) {
+                        iterationListener.iterationDone(this, i);
+                    }
+                    log.info("Error at iteration " + i + " is " + score() + ", step took " + stepTime + " ms");
+                }
+            } finally {
+                if (executorService != null) {
+                    executorService.shutdown();
+                    executorService = null;
                 }
-                log.info("Error at iteration " + i + " is " + score());
             }
         }
     }
@@ -575,33 +647,123 @@ public class BarnesHutTsne implements Model {
     @Override
     public double score() {
         // Get estimate of normalization term
-        INDArray buff = Nd4j.create(numDimensions);
-        AtomicDouble sum_Q = new AtomicDouble(0.0);
-        for (int n = 0; n < N; n++)
-            tree.computeNonEdgeForces(n, theta, buff, sum_Q);
+        double sumQ = computeNonEdgeForces(null);
 
         // Loop over all edges to compute t-SNE error
+        final double[] y = Y.dup('c').data().asDouble();
         double C = .0;
-        INDArray linear = Y;
         for (int n = 0; n < N; n++) {
-            int begin = rows.getInt(n);
-            int end = rows.getInt(n + 1);
-            int ind1 = n;
-            for (int i = begin; i < end; i++) {
-                int ind2 = cols.getInt(i);
-                buff.assign(linear.slice(ind1));
-                buff.subi(linear.slice(ind2));
-
-                double Q = pow(buff, 2).sum(Integer.MAX_VALUE).getDouble(0);
-                Q = (1.0 / (1.0 + Q)) / sum_Q.doubleValue();
-                C += vals.getDouble(i) * FastMath.log(vals.getDouble(i) + Nd4j.EPS_THRESHOLD)
-                                / (Q + Nd4j.EPS_THRESHOLD);
+            int ind1 = n * numDimensions;
+            for (int i = rowP[n]; i < rowP[n + 1]; i++) {
+                int ind2 = colP[i] * numDimensions;
+                double Q = 0.0;
+                for (int d = 0; d < numDimensions; d++) {
+                    double diff = y[ind1 + d] - y[ind2 + d];
+                    Q += diff * diff;
+                }
+
+                Q = (1.0 / (1.0 + Q)) / sumQ;
+                C += valP[i] * FastMath.log((valP[i] + Nd4j.EPS_THRESHOLD) / (Q + Nd4j.EPS_THRESHOLD));
             }
         }
 
         return C;
     }
 
+    /**
+     * Compute the Barnes-Hut approximation of the non edge forces for all points in parallel
+     * @param negF the negative forces to add to, one row per point, or null to only compute the normalization term
+     * @return the normalization term sum Q
+     */
+    private double computeNonEdgeForces(final INDArray negF) {
+        if (tree == null)
+            tree = new SpTree(Y);
+
+        final AtomicDouble sumQ = new AtomicDouble(0.0);
+        parallelFor(N, new RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                INDArray buf = Nd4j.create(numDimensions);
+                INDArray scratch = negF == null ? Nd4j.create(numDimensions) : null;
+                AtomicDouble partialSumQ = new AtomicDouble(0.0);
+                for (int n = from; n < to; n++)
+                    tree.computeNonEdgeForces(n, theta, negF == null ? scratch : negF.slice(n), partialSumQ, buf);
+                sumQ.addAndGet(partialSumQ.get());
+            }
+        });
+
+        return sumQ.get();
+    }
+
+    /**
+     * Compute the positive (edge) forces for all points in parallel
+     * @return the positive forces, one row per point
+     */
+    private INDArray computeEdgeForces() {
+        final double[] y = Y.dup('c').data().asDouble();
+        final double[] posF = new double[N * numDimensions];
+        parallelFor(N, new RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                double[] buf = new double[numDimensions];
+                for (int n = from; n < to; n++) {
+                    int ind1 = n * numDimensions;
+                    for (int i = rowP[n]; i < rowP[n + 1]; i++) {
+                        // Compute pairwise distance and Q-value
+                        int ind2 = colP[i] * numDimensions;
+                        double D = 1.0;
+                        for (int d = 0; d < numDimensions; d++) {
+                            buf[d] = y[ind1 + d] - y[ind2 + d];
+                            D += buf[d] * buf[d];
+                        }
+                        D = valP[i] / D;
+
+                        // Sum positive force
+                        for (int d = 0; d < numDimensions; d++)
+                            posF[ind1 + d] += D * buf[d];
+                    }
+                }
+            }
+        });
+
+        return Nd4j.create(posF, new int[] {N, numDimensions}, 'c');
+    }
+
+    private interface RangeTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * Run the task over [0, n) split in one contiguous range per core,
+     * blocking until all ranges are done
+     */
+    private void parallelFor(int n, final RangeTask task) {
+        int numTasks = Math.max(1, Math.min(n, Runtime.getRuntime().availableProcessors()));
+        int chunkSize = (n + numTasks - 1) / numTasks;
+        final int deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        List<Runnable> tasks = new ArrayList<>(numTasks);
+        for (int t = 0; t < numTasks; t++) {
+            final int from = t * chunkSize;
+            final int to = Math.min(n, from + chunkSize);
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    Nd4j.getAffinityManager().attachThreadToDevice(Thread.currentThread(), deviceId);
+                    task.run(from, to);
+                }
+            });
+        }
+
+        //a failed range would leave its rows empty and training would go on, so failures are rethrown
+        MultiThreadUtils.parallelTasksRethrow(tasks, executor());
+    }
+
+    private ExecutorService executor() {
+        if (executorService == null)
+            executorService = MultiThreadUtils.newExecutorService();
+        return executorService;
+    }
+
     @Override
     public void computeGradientAndScore() {
 
@@ -677,16 +839,10 @@ public class BarnesHutTsne implements Model {
         if (gains == null)
             gains = ones(Y.shape());
 
-        AtomicDouble sumQ = new AtomicDouble(0);
         /* Calculate gradient based on barnes hut approximation with positive and negative forces */
-        INDArray posF = Nd4j.create(Y.shape());
+        INDArray posF = computeEdgeForces();
         INDArray negF = Nd4j.create(Y.shape());
-        if (tree == null)
-            tree = new SpTree(Y);
-        tree.computeEdgeForces(rows, cols, vals, N, posF);
-
-        for (int n = 0; n < N; n++)
-            tree.computeNonEdgeForces(n, theta, negF.slice(n), sumQ);
+        double sumQ = computeNonEdgeForces(negF);
 
 
         INDArray dC = posF.subi(negF.divi(sumQ));
@@ -19,11 +19,14 @@
 package org.deeplearning4j.clustering.vptree;
 
 import org.deeplearning4j.clustering.sptree.DataPoint;
+import org.deeplearning4j.util.MultiThreadUtils;
 import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import static org.junit.Assert.assertEquals;
 
@@ -48,4 +51,35 @@ public class VpTreeNodeTest {
 
     }
 
+    @Test
+    public void batchSearchMatchesSingleSearch() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray data = Nd4j.rand(50, 3);
+        VPTree tree = new VPTree(data, VPTree.EUCLIDEAN, false);
+
+        List<DataPoint> targets = new ArrayList<>();
+        for (int i = 0; i < data.rows(); i++)
+            targets.add(new DataPoint(i, data.slice(i)));
+
+        int k = 4;
+        int[] indices = new int[targets.size() * k];
+        double[] distances = new double[targets.size() * k];
+        ExecutorService executorService = MultiThreadUtils.newExecutorService();
+        try {
+            tree.search(targets, k, indices, distances, executorService);
+        } finally {
+            executorService.shutdown();
+        }
+
+        for (int i = 0; i < targets.size(); i++) {
+            List<DataPoint> results = new ArrayList<>();
+            List<Double> resultDistances = new ArrayList<>();
+            tree.search(targets.get(i), k, results, resultDistances);
+            for (int j = 0; j < k; j++) {
+                assertEquals(results.get(j).getIndex(), indices[i * k + j]);
+                assertEquals(resultDistances.get(j), distances[i * k + j], 1e-6);
+            }
+        }
+    }
+
 }
@@ -31,14 +31,18 @@ import org.datavec.api.split.FileSplit;
 import org.datavec.api.split.NumberedFileInputSplit;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.datavec.common.data.NDArrayWritable;
 import org.deeplearning4j.datasets.datavec.exception.ZeroLengthSequenceException;
+import org.deeplearning4j.exception.DL4JInvalidInputException;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.io.ClassPathResource;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
@@ -963,4 +967,80 @@ public class RecordReaderDataSetiteratorTest {
         assertEquals(expFeatures, ds.getFeatures());
         assertEquals(expLabels, ds.getLabels());
     }
+
+    @Test
+    public void testColumnarAssemblyLargeBatch() {
+        //Large enough minibatches to be converted on multiple threads
+        int nExamples = 2000;
+        int nFeatures = 5;
+        int nClasses = 4;
+        Random r = new Random(12345);
+        List<List<Writable>> data = new ArrayList<>();
+        INDArray expFeatures = Nd4j.create(nExamples, nFeatures);
+        INDArray expLabels = Nd4j.create(nExamples, nClasses);
+        for (int i = 0; i < nExamples; i++) {
+            List<Writable> record = new ArrayList<>();
+            for (int j = 0; j < nFeatures; j++) {
+                double d = r.nextDouble();
+                record.add(new Text(String.valueOf(d)));
+                expFeatures.putScalar(i, j, d);
+            }
+            int label = r.nextInt(nClasses);
+            record.add(new IntWritable(label));
+            expLabels.putScalar(i, label, 1.0);
+            data.add(record);
+        }
+
+        DataSetIterator iter = new RecordReaderDataSetIterator(new CollectionRecordReader(data), 1000, nFeatures,
+                        nClasses);
+        DataSet ds1 = iter.next();
+        DataSet ds2 = iter.next();
+        assertFalse(iter.hasNext());
+
+        assertEquals(expFeatures.get(NDArrayIndex.interval(0, 1000), NDArrayIndex.all()), ds1.getFeatures());
+        assertEquals(expLabels.get(NDArrayIndex.interval(0, 1000), NDArrayIndex.all()), ds1.getLabels());
+        assertEquals(expFeatures.get(NDArrayIndex.interval(1000, 2000), NDArrayIndex.all()), ds2.getFeatures());
+        assertEquals(expLabels.get(NDArrayIndex.interval(1000, 2000), NDArrayIndex.all()), ds2.getLabels());
+
+        //Invalid labels should still be reported when converting on multiple threads
+        data.get(1500).set(nFeatures, new IntWritable(nClasses));
+        iter = new RecordReaderDataSetIterator(new CollectionRecordReader(data), 2000, nFeatures, nClasses);
+        try {
+            iter.next();
+            fail("Expected exception");
+        } catch (DL4JInvalidInputException e) {
+            //OK
+        }
+    }
+
+    @Test
+    @Ignore //Benchmark: should be run manually
+    public void testColumnarAssemblyThroughput() {
+        int nExamples = 100000;
+        int nFeatures = 20;
+        Random r = new Random(12345);
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < nExamples; i++) {
+            List<Writable> record = new ArrayList<>();
+            for (int j = 0; j < nFeatures; j++) {
+                record.add(new Text(String.valueOf(r.nextDouble())));
+            }
+            record.add(new IntWritable(r.nextInt(10)));
+            data.add(record);
+        }
+
+        for (int batchSize : new int[] {32, 1024}) {
+            DataSetIterator iter = new RecordReaderDataSetIterator(new CollectionRecordReader(data), batchSize,
+                            nFeatures, 10);
+            long start = System.currentTimeMillis();
+            int count = 0;
+            while (iter.hasNext()) {
+                count += iter.next().numExamples();
+            }
+            long time = Math.max(1, System.currentTimeMillis() - start);
+            assertEquals(nExamples, count);
+            System.out.println("RecordReaderDataSetIterator, batch size " + batchSize + ": " + (count * 1000L / time)
+                            + " examples/sec");
+        }
+    }
 }
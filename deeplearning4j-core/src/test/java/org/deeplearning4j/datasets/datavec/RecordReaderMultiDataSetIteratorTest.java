@@ -9,11 +9,15 @@ import org.datavec.api.io.labels.ParentPathLabelGenerator;
 import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.reader.RecordReader;
 import org.datavec.api.records.reader.SequenceRecordReader;
+import org.datavec.api.records.reader.impl.collection.CollectionSequenceRecordReader;
 import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
 import org.datavec.api.records.reader.impl.csv.CSVSequenceRecordReader;
 import org.datavec.api.split.FileSplit;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.split.NumberedFileInputSplit;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
 import org.datavec.image.recordreader.ImageRecordReader;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -21,10 +25,14 @@ import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.io.ClassPathResource;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.Assert.*;
@@ -602,4 +610,43 @@ public class RecordReaderMultiDataSetIteratorTest {
             os.write(b);
         }
     }
+
+    @Test
+    public void testVariableLengthSequencesLargeBatch() {
+        //Large enough minibatch to be converted on multiple threads
+        int nExamples = 1000;
+        int maxLength = 5;
+        Random r = new Random(12345);
+        List<List<List<Writable>>> data = new ArrayList<>();
+        INDArray expFeatures = Nd4j.create(new int[] {nExamples, 2, maxLength}, 'f');
+        INDArray expLabels = Nd4j.create(new int[] {nExamples, 3, maxLength}, 'f');
+        INDArray expMask = Nd4j.zeros(nExamples, maxLength);
+        for (int i = 0; i < nExamples; i++) {
+            int length = (i == 0 ? maxLength : 1 + r.nextInt(maxLength));
+            List<List<Writable>> sequence = new ArrayList<>();
+            for (int t = 0; t < length; t++) {
+                double f0 = r.nextDouble();
+                double f1 = r.nextDouble();
+                int label = r.nextInt(3);
+                sequence.add(Arrays.<Writable>asList(new DoubleWritable(f0), new DoubleWritable(f1),
+                                new IntWritable(label)));
+                expFeatures.putScalar(new int[] {i, 0, t}, f0);
+                expFeatures.putScalar(new int[] {i, 1, t}, f1);
+                expLabels.putScalar(new int[] {i, label, t}, 1.0);
+                expMask.putScalar(i, t, 1.0);
+            }
+            data.add(sequence);
+        }
+
+        MultiDataSetIterator iter = new RecordReaderMultiDataSetIterator.Builder(nExamples)
+                        .addSequenceReader("seq", new CollectionSequenceRecordReader(data))
+                        .addInput("seq", 0, 1).addOutputOneHot("seq", 2, 3)
+                        .sequenceAlignmentMode(RecordReaderMultiDataSetIterator.AlignmentMode.ALIGN_START).build();
+
+        MultiDataSet mds = iter.next();
+        assertEquals(expFeatures, mds.getFeatures(0));
+        assertEquals(expLabels, mds.getLabels(0));
+        assertEquals(expMask, mds.getFeaturesMaskArray(0));
+        assertEquals(expMask, mds.getLabelsMaskArray(0));
+    }
 }
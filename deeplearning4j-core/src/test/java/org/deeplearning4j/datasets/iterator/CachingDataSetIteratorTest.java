@@ -0,0 +1,182 @@
+package org.deeplearning4j.datasets.iterator;
+
+import com.google.common.io.Files;
+import org.apache.commons.io.FileUtils;
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.datasets.iterator.impl.ListDataSetIterator;
+import org.junit.Test;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CachingDataSetIteratorTest {
+
+    @Test
+    public void testCachedEpochsEqualSource() throws Exception {
+        File dir = Files.createTempDir();
+        try {
+            List<DataSet> expected = collect(new IrisDataSetIterator(15, 150));
+
+            CachingDataSetIterator iter = new CachingDataSetIterator(new IrisDataSetIterator(15, 150), dir, "iris-15");
+            assertFalse(iter.isReadingFromCache());
+            assertEquals(expected, collect(iter));
+
+            for (int epoch = 0; epoch < 2; epoch++) {
+                iter.reset();
+                assertTrue(iter.isReadingFromCache());
+                assertEquals(expected, collect(iter));
+            }
+
+            //A new iterator with the same key should use the existing cache, without touching the source
+            DataSetIterator emptySource = new ListDataSetIterator(new ArrayList<DataSet>());
+            CachingDataSetIterator iter2 = new CachingDataSetIterator(emptySource, dir, "iris-15");
+            assertTrue(iter2.isReadingFromCache());
+            assertEquals(expected, collect(iter2));
+
+            //A different key should not
+            CachingDataSetIterator iter3 = new CachingDataSetIterator(new IrisDataSetIterator(10, 150), dir, "iris-10");
+            assertFalse(iter3.isReadingFromCache());
+            assertEquals(15, collect(iter3).size());
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testShuffledEpochs() throws Exception {
+        File dir = Files.createTempDir();
+        try {
+            List<DataSet> expected = collect(new IrisDataSetIterator(10, 150));
+            CachingDataSetIterator iter = new CachingDataSetIterator(new IrisDataSetIterator(10, 150), dir, "iris",
+                            true, 12345, CachingDataSetIterator.DEFAULT_MAX_CACHE_BYTES);
+            assertEquals(expected, collect(iter));
+
+            iter.reset();
+            List<DataSet> shuffled = collect(iter);
+            assertNotEquals(expected, shuffled);
+            assertEquals(expected.size(), shuffled.size());
+            for (DataSet ds : expected) {
+                assertTrue(shuffled.contains(ds));
+            }
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testMaxCacheSize() throws Exception {
+        File dir = Files.createTempDir();
+        try {
+            //Iris in float: 150 x (4 + 3) values, a bit over 4kB. Too large for the cache: should fall back to source
+            CachingDataSetIterator iter = new CachingDataSetIterator(new IrisDataSetIterator(10, 150), dir, "small",
+                            false, 0, 2048);
+            assertEquals(15, collect(iter).size());
+            iter.reset();
+            assertFalse(iter.isReadingFromCache());
+            assertEquals(15, collect(iter).size());
+
+            //Least recently used caches should be evicted once the cache directory is too large. Size the cache
+            // directory to hold two (but not three) caches of the same size
+            File sizeDir = Files.createTempDir();
+            long cacheSize;
+            try {
+                collect(new CachingDataSetIterator(new IrisDataSetIterator(10, 150), sizeDir, "size"));
+                cacheSize = FileUtils.sizeOfDirectory(sizeDir);
+            } finally {
+                FileUtils.deleteDirectory(sizeDir);
+            }
+            long maxBytes = 2 * cacheSize + cacheSize / 2;
+            CachingDataSetIterator first =
+                            new CachingDataSetIterator(new IrisDataSetIterator(10, 150), dir, "a", false, 0, maxBytes);
+            collect(first);
+            Thread.sleep(1100); //File modification times may only have 1 second resolution
+            CachingDataSetIterator second =
+                            new CachingDataSetIterator(new IrisDataSetIterator(10, 150), dir, "b", false, 0, maxBytes);
+            collect(second);
+            Thread.sleep(1100);
+            CachingDataSetIterator third =
+                            new CachingDataSetIterator(new IrisDataSetIterator(10, 150), dir, "c", false, 0, maxBytes);
+            collect(third);
+
+            assertTrue(FileUtils.sizeOfDirectory(dir) <= maxBytes);
+            first.reset();
+            assertFalse(first.isReadingFromCache());
+            third.reset();
+            assertTrue(third.isReadingFromCache());
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testEmptySource() throws Exception {
+        File dir = Files.createTempDir();
+        try {
+            CachingDataSetIterator iter = new CachingDataSetIterator(new ListDataSetIterator(new ArrayList<DataSet>()),
+                            dir, "empty");
+            assertFalse(iter.hasNext());
+
+            //The (empty) cache should be complete after the first pass
+            assertTrue(iter.resetSupported());
+            iter.reset();
+            assertTrue(iter.isReadingFromCache());
+            assertFalse(iter.hasNext());
+            assertEquals(0, new MinibatchCache(dir, "empty", Long.MAX_VALUE).numCachedBatches());
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testCachingMultiDataSetIterator() throws Exception {
+        File dir = Files.createTempDir();
+        try {
+            List<MultiDataSet> expected = new ArrayList<>();
+            DataSetIterator source = new IrisDataSetIterator(15, 150);
+            while (source.hasNext()) {
+                DataSet ds = source.next();
+                expected.add(new org.nd4j.linalg.dataset.MultiDataSet(
+                                new org.nd4j.linalg.api.ndarray.INDArray[] {ds.getFeatures(), ds.getFeatures()},
+                                new org.nd4j.linalg.api.ndarray.INDArray[] {ds.getLabels()}, null,
+                                new org.nd4j.linalg.api.ndarray.INDArray[] {Nd4j.ones(15, 1)}));
+            }
+
+            MultiDataSetIterator iter = new CachingMultiDataSetIterator(new IteratorMultiDataSetIterator(
+                            expected.iterator(), 15), dir, "mds");
+            for (int epoch = 0; epoch < 2; epoch++) {
+                if (epoch > 0) {
+                    assertTrue(iter.resetSupported());
+                    iter.reset();
+                }
+                int i = 0;
+                while (iter.hasNext()) {
+                    MultiDataSet mds = iter.next();
+                    MultiDataSet exp = expected.get(i++);
+                    assertArrayEquals(exp.getFeatures(), mds.getFeatures());
+                    assertArrayEquals(exp.getLabels(), mds.getLabels());
+                    assertNull(mds.getFeaturesMaskArrays());
+                    assertArrayEquals(exp.getLabelsMaskArrays(), mds.getLabelsMaskArrays());
+                }
+                assertEquals(expected.size(), i);
+            }
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    private static List<DataSet> collect(DataSetIterator iter) {
+        List<DataSet> out = new ArrayList<>();
+        while (iter.hasNext()) {
+            out.add(iter.next());
+        }
+        return out;
+    }
+}
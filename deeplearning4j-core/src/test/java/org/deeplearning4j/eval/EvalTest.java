@@ -692,4 +692,64 @@ public class EvalTest {
 
 
     }
+
+    @Test
+    public void testParallelEvaluation() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(5).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(5).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        DataSetIterator iter = new IrisDataSetIterator(10, 150);
+        Evaluation expected = net.evaluate(iter, null, 2);
+
+        iter.reset();
+        Evaluation actual = net.evaluate(iter, null, 2, 4);
+
+        assertEquals(expected.getNumRowCounter(), actual.getNumRowCounter());
+        assertEquals(expected.getConfusionMatrix(), actual.getConfusionMatrix());
+        assertEquals(expected.truePositives(), actual.truePositives());
+        assertEquals(expected.falsePositives(), actual.falsePositives());
+        assertEquals(expected.falseNegatives(), actual.falseNegatives());
+        assertEquals(expected.trueNegatives(), actual.trueNegatives());
+        assertEquals(expected.topNAccuracy(), actual.topNAccuracy(), 1e-6);
+        assertEquals(expected.stats(), actual.stats());
+    }
+
+    @Test
+    public void testEvalManyClasses() {
+        //Small minibatch with a large number of classes
+        int nClasses = 20000;
+        int[] actual = {3, 3, 19999, 7, 3};
+        int[] predicted = {3, 5, 19999, 3, 5};
+
+        INDArray labels = Nd4j.zeros(actual.length, nClasses);
+        INDArray predictions = Nd4j.zeros(actual.length, nClasses);
+        for (int i = 0; i < actual.length; i++) {
+            labels.putScalar(i, actual[i], 1.0);
+            predictions.putScalar(i, predicted[i], 1.0);
+        }
+
+        Evaluation eval = new Evaluation(nClasses);
+        eval.eval(labels, predictions);
+
+        ConfusionMatrix<Integer> cm = eval.getConfusionMatrix();
+        assertEquals(1, cm.getCount(3, 3));
+        assertEquals(2, cm.getCount(3, 5));
+        assertEquals(1, cm.getCount(19999, 19999));
+        assertEquals(1, cm.getCount(7, 3));
+        assertEquals(0, cm.getCount(5, 3));
+
+        assertEquals(1, eval.truePositives().get(3).intValue());
+        assertEquals(1, eval.falsePositives().get(3).intValue());
+        assertEquals(2, eval.falseNegatives().get(3).intValue());
+        assertEquals(2, eval.falsePositives().get(5).intValue());
+        assertEquals(1, eval.falseNegatives().get(7).intValue());
+        assertEquals(5, eval.trueNegatives().get(100).intValue());
+        assertEquals(0.4, eval.accuracy(), 1e-6);
+    }
 }
@@ -23,6 +23,7 @@ import java.util.*;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Alex on 04/11/2016.
@@ -529,4 +530,67 @@ public class ROCTest {
             assertArrayEquals(rocCurve[1], rocManual[1], 1e-6);
         }
     }
+
+    @Test
+    public void testAUCErrorBound() {
+        Nd4j.getRandom().setSeed(12345);
+        int nExamples = 2000;
+        INDArray predictions = Nd4j.rand(nExamples, 1);
+        INDArray labels = Nd4j.getExecutioner().exec(
+                        new BernoulliDistribution(Nd4j.createUninitialized(nExamples, 1), 0.5), Nd4j.getRandom());
+        //Make the classifier better than random
+        predictions.addi(labels.mul(0.3)).divi(1.3);
+
+        //Exact AUC: probability that a random positive is ranked above a random negative (ties count 1/2)
+        double correctPairs = 0.0;
+        long countPositive = 0;
+        long countNegative = 0;
+        for (int i = 0; i < nExamples; i++) {
+            if (labels.getDouble(i) != 1.0) {
+                countNegative++;
+                continue;
+            }
+            countPositive++;
+            for (int j = 0; j < nExamples; j++) {
+                if (labels.getDouble(j) == 1.0)
+                    continue;
+                double pi = predictions.getDouble(i);
+                double pj = predictions.getDouble(j);
+                if (pi > pj)
+                    correctPairs += 1.0;
+                else if (pi == pj)
+                    correctPairs += 0.5;
+            }
+        }
+        double exactAUC = correctPairs / (countPositive * (double) countNegative);
+
+        double lastBound = Double.MAX_VALUE;
+        for (int steps : new int[] {10, 100, 10000}) {
+            ROC roc = new ROC(steps);
+            roc.eval(labels, predictions);
+
+            double bound = roc.calculateAUCErrorBound();
+            assertEquals(exactAUC, roc.calculateAUC(), bound + 1e-9);
+            assertTrue(bound <= lastBound);
+            lastBound = bound;
+        }
+        assertTrue(lastBound < 1e-3);
+    }
+
+    @Test
+    public void testAUPRCPerfectClassifier() {
+        INDArray labels = Nd4j.create(new double[][] {{0, 1}, {0, 1}, {1, 0}, {1, 0}, {1, 0}});
+        INDArray prediction = Nd4j.create(new double[][] {{0.1, 0.9}, {0.2, 0.8}, {0.7, 0.3}, {0.8, 0.2}, {0.9, 0.1}});
+
+        ROC roc = new ROC(100);
+        roc.eval(labels, prediction);
+        assertEquals(1.0, roc.calculateAUC(), 1e-6);
+        assertEquals(1.0, roc.calculateAUPRC(), 1e-6);
+        assertEquals(0.0, roc.calculateAUCErrorBound(), 0.0);
+
+        ROCMultiClass rocMultiClass = new ROCMultiClass(100);
+        rocMultiClass.eval(labels, prediction);
+        assertEquals(1.0, rocMultiClass.calculateAUPRC(1), 1e-6);
+        assertEquals(roc.calculateAUPRC(), rocMultiClass.calculateAUPRC(1), 1e-6);
+    }
 }
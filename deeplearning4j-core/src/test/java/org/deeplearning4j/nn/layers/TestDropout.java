@@ -7,6 +7,9 @@ import org.deeplearning4j.nn.conf.Updater;
 import org.deeplearning4j.nn.conf.distribution.UniformDistribution;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.conf.layers.SubsamplingLayer;
+import org.deeplearning4j.nn.conf.preprocessor.CnnToFeedForwardPreProcessor;
+import org.deeplearning4j.nn.conf.preprocessor.FeedForwardToCnnPreProcessor;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.junit.Test;
@@ -20,6 +23,7 @@ import org.nd4j.linalg.lossfunctions.LossFunctions;
 import java.lang.reflect.Field;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.fail;
 
 public class TestDropout {
@@ -185,6 +189,57 @@ public class TestDropout {
         }
     }
 
+    @Test
+    public void testDropoutDoesNotModifyInputOrParams() {
+        int nIn = 100;
+        int nOut = 50;
+
+        for (boolean dropConnect : new boolean[] {false, true}) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                            .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).updater(Updater.SGD)
+                            .iterations(1).regularization(true).dropOut(0.5).useDropConnect(dropConnect)
+                            .learningRate(0.1).list()
+                            .layer(0, new DenseLayer.Builder().activation(Activation.TANH).nIn(nIn).nOut(nOut)
+                                            .build())
+                            .layer(1, new SubsamplingLayer.Builder().kernelSize(1, 1).stride(1, 1).build())
+                            .layer(2, new OutputLayer.Builder().lossFunction(LossFunctions.LossFunction.MSE)
+                                            .activation(Activation.IDENTITY).nIn(nOut).nOut(nOut).build())
+                            .inputPreProcessor(1, new FeedForwardToCnnPreProcessor(1, nOut, 1))
+                            .inputPreProcessor(2, new CnnToFeedForwardPreProcessor(1, nOut, 1))
+                            .backprop(true).pretrain(false).build();
+
+            MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            net.init();
+
+            Nd4j.getRandom().setSeed(12345);
+            INDArray in = Nd4j.rand(20, nIn);
+            INDArray labels = Nd4j.rand(20, nOut);
+            INDArray inCopy = in.dup();
+            INDArray w0Copy = net.getLayer(0).getParam("W").dup();
+
+            net.setInput(in);
+            net.setLabels(labels);
+            net.computeGradientAndScore();
+
+            //Dropout is applied to a copy of the input, and drop connect to a copy of the weights
+            assertEquals(inCopy, in);
+            assertEquals(w0Copy, net.getLayer(0).getParam("W"));
+            if (!dropConnect) {
+                assertNotSame(in, net.getLayer(0).input());
+                INDArray l0Input = net.getLayer(0).input();
+                for (int i = 0; i < inCopy.length(); i++) {
+                    double doValue = l0Input.getDouble(i);
+                    if (doValue != 0.0) {
+                        assertEquals(inCopy.getDouble(i) * 2.0, doValue, 1e-4);
+                    }
+                }
+            }
 
-
+            //No dropout at inference: output is deterministic
+            INDArray out1 = net.output(in, false);
+            INDArray out2 = net.output(in, false);
+            assertEquals(out1, out2);
+            assertEquals(inCopy, in);
+        }
+    }
 }
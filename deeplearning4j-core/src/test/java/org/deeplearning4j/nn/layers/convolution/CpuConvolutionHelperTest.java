@@ -0,0 +1,160 @@
+package org.deeplearning4j.nn.layers.convolution;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.nn.conf.ConvolutionMode;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.params.ConvolutionParamInitializer;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CpuConvolutionHelperTest {
+
+    private static ConvolutionLayer getLayer(int nIn, int nOut, int[] kernel, int[] stride, int[] pad,
+                    ConvolutionMode mode, INDArray params) {
+        NeuralNetConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .layer(new org.deeplearning4j.nn.conf.layers.ConvolutionLayer.Builder(kernel).stride(stride)
+                                        .padding(pad).nIn(nIn).nOut(nOut).convolutionMode(mode)
+                                        .activation(Activation.IDENTITY).build())
+                        .build();
+        int numParams = conf.getLayer().initializer().numParams(conf);
+        ConvolutionLayer layer = (ConvolutionLayer) conf.getLayer().instantiate(conf, null, 0,
+                        (params == null ? Nd4j.create(1, numParams) : params.dup()), params == null);
+        layer.setBackpropGradientsViewArray(Nd4j.create(1, numParams));
+        return layer;
+    }
+
+    @Test
+    public void testHelperMatchesIm2col() {
+        Nd4j.getRandom().setSeed(12345);
+        int miniBatch = 3;
+        int nIn = 4;
+        int nOut = 5;
+
+        //kernel, stride, padding, mode, input height, input width
+        Object[][] configs = new Object[][] {
+                        {new int[] {3, 3}, new int[] {1, 1}, new int[] {1, 1}, ConvolutionMode.Truncate, 10, 8},
+                        {new int[] {3, 3}, new int[] {1, 1}, new int[] {0, 0}, ConvolutionMode.Truncate, 11, 9},
+                        {new int[] {3, 3}, new int[] {1, 1}, new int[] {0, 0}, ConvolutionMode.Same, 11, 9},
+                        {new int[] {3, 3}, new int[] {2, 2}, new int[] {0, 0}, ConvolutionMode.Same, 11, 9},
+                        {new int[] {5, 5}, new int[] {2, 2}, new int[] {2, 2}, ConvolutionMode.Truncate, 12, 13},
+                        {new int[] {1, 1}, new int[] {1, 1}, new int[] {0, 0}, ConvolutionMode.Truncate, 7, 7},
+                        {new int[] {2, 3}, new int[] {1, 2}, new int[] {1, 0}, ConvolutionMode.Truncate, 9, 10}};
+
+        //Default, no Winograd + tiling over output rows, tiling over examples
+        ConvolutionHelper[] helpers = new ConvolutionHelper[] {new CpuConvolutionHelper(),
+                        new CpuConvolutionHelper(200, false), new CpuConvolutionHelper(4000, true)};
+
+        for (Object[] c : configs) {
+            int[] kernel = (int[]) c[0];
+            int[] stride = (int[]) c[1];
+            int[] pad = (int[]) c[2];
+            ConvolutionMode mode = (ConvolutionMode) c[3];
+            INDArray input = Nd4j.rand(new int[] {miniBatch, nIn, (Integer) c[4], (Integer) c[5]});
+
+            ConvolutionLayer reference = getLayer(nIn, nOut, kernel, stride, pad, mode, null);
+            reference.helper = null;
+            INDArray params = reference.params();
+            reference.setInput(input);
+            INDArray expOut = reference.preOutput(true).dup();
+            INDArray epsilon = Nd4j.rand(expOut.shape());
+            Pair<Gradient, INDArray> expGrad = reference.backpropGradient(epsilon.dup());
+
+            for (int h = 0; h < helpers.length; h++) {
+                String msg = "kernel=" + Arrays.toString(kernel) + ", stride=" + Arrays.toString(stride) + ", pad="
+                                + Arrays.toString(pad) + ", " + mode + ", helper " + h;
+                ConvolutionLayer layer = getLayer(nIn, nOut, kernel, stride, pad, mode, params);
+                layer.helper = helpers[h];
+                layer.setInput(input);
+                assertClose(msg, expOut, layer.preOutput(true));
+
+                Pair<Gradient, INDArray> grad = layer.backpropGradient(epsilon.dup());
+                assertClose(msg + ", epsilon", expGrad.getSecond(), grad.getSecond());
+                for (String key : new String[] {ConvolutionParamInitializer.WEIGHT_KEY,
+                                ConvolutionParamInitializer.BIAS_KEY}) {
+                    assertClose(msg + ", " + key, expGrad.getFirst().getGradientFor(key),
+                                    grad.getFirst().getGradientFor(key));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHelperOptIn() {
+        String prop = ConvolutionLayer.CPU_HELPER_PROPERTY;
+        try {
+            System.clearProperty(prop);
+            assertFalse(getLayer(2, 3, new int[] {3, 3}, new int[] {1, 1}, new int[] {0, 0},
+                            ConvolutionMode.Truncate, null).helper instanceof CpuConvolutionHelper);
+            System.setProperty(prop, "true");
+            assertTrue(getLayer(2, 3, new int[] {3, 3}, new int[] {1, 1}, new int[] {0, 0},
+                            ConvolutionMode.Truncate, null).helper instanceof CpuConvolutionHelper);
+        } finally {
+            System.clearProperty(prop);
+        }
+    }
+
+    @Test
+    @Ignore //Benchmark: should be run manually
+    public void testHelperTiming() {
+        //Forward + backward time per layer, for (scaled down minibatch) VGG and ResNet layer shapes
+        //nIn, nOut, kernel, stride, padding, input size
+        int[][] shapes = new int[][] {
+                        {3, 64, 3, 1, 1, 224}, //VGG conv1_1
+                        {64, 128, 3, 1, 1, 112}, //VGG conv2_1
+                        {256, 256, 3, 1, 1, 56}, //VGG conv3_2
+                        {3, 64, 7, 2, 3, 224}, //ResNet conv1
+                        {256, 64, 1, 1, 0, 56}, //ResNet bottleneck 1x1
+                        {128, 128, 3, 1, 1, 28}}; //ResNet 3x3
+        int miniBatch = 2;
+        int iterations = 3;
+
+        for (int[] s : shapes) {
+            int[] kernel = new int[] {s[2], s[2]};
+            int[] stride = new int[] {s[3], s[3]};
+            int[] pad = new int[] {s[4], s[4]};
+            INDArray input = Nd4j.rand(new int[] {miniBatch, s[0], s[5], s[5]});
+
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("nIn=%d, nOut=%d, kernel=%d, stride=%d, input=%dx%d:", s[0], s[1], s[2], s[3],
+                            s[5], s[5]));
+            INDArray params = null;
+            for (boolean useHelper : new boolean[] {false, true}) {
+                ConvolutionLayer layer = getLayer(s[0], s[1], kernel, stride, pad, ConvolutionMode.Truncate, params);
+                params = layer.params();
+                layer.helper = (useHelper ? new CpuConvolutionHelper() : null);
+                layer.setInput(input);
+                INDArray epsilon = Nd4j.rand(layer.preOutput(true).shape()); //Also warmup
+
+                long fwd = 0;
+                long bwd = 0;
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    layer.preOutput(true);
+                    long mid = System.nanoTime();
+                    layer.backpropGradient(epsilon);
+                    fwd += mid - start;
+                    bwd += System.nanoTime() - mid;
+                }
+                sb.append(String.format(" %s forward %.1f ms, backward %.1f ms;", (useHelper ? "helper" : "im2col"),
+                                fwd / 1e6 / iterations, bwd / 1e6 / iterations));
+            }
+            System.out.println(sb);
+        }
+    }
+
+    private static void assertClose(String msg, INDArray expected, INDArray actual) {
+        assertArrayEquals(msg, expected.shape(), actual.shape());
+        double maxAbsDiff = Transforms.abs(expected.sub(actual)).maxNumber().doubleValue();
+        double scale = Math.max(1.0, Transforms.abs(expected).maxNumber().doubleValue());
+        assertTrue(msg + ": max difference " + maxAbsDiff, maxAbsDiff / scale < 1e-4);
+    }
+}
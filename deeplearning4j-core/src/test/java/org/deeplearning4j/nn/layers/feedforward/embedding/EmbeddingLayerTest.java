@@ -2,6 +2,8 @@ package org.deeplearning4j.nn.layers.feedforward.embedding;
 
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.api.layers.SparseGradientLayer;
+import org.deeplearning4j.nn.conf.GradientNormalization;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.Updater;
@@ -9,6 +11,7 @@ import org.deeplearning4j.nn.conf.layers.*;
 import org.deeplearning4j.nn.conf.layers.EmbeddingLayer;
 import org.deeplearning4j.nn.conf.preprocessor.FeedForwardToRnnPreProcessor;
 import org.deeplearning4j.nn.conf.preprocessor.RnnToFeedForwardPreProcessor;
+import org.deeplearning4j.nn.gradient.SparseRowGradient;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.params.DefaultParamInitializer;
 import org.deeplearning4j.nn.weights.WeightInit;
@@ -24,6 +27,7 @@ import java.util.Random;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class EmbeddingLayerTest {
 
@@ -318,4 +322,209 @@ public class EmbeddingLayerTest {
         }
     }
 
+    @Test
+    public void testSparseGradientsMatchDense() {
+        //Without regularization, rows that aren't in the minibatch have a zero gradient: for SGD and Adagrad, a dense
+        // update doesn't change them. For Adam and RMSProp, the same holds for the first iteration only (the state of
+        // the rows that aren't in the minibatch isn't decayed by the sparse update)
+        int nClassesIn = 50;
+        int batchSize = 8;
+
+        for (Updater updater : new Updater[] {Updater.SGD, Updater.ADAGRAD, Updater.ADAM, Updater.RMSPROP}) {
+            int nIterations = (updater == Updater.ADAM || updater == Updater.RMSPROP ? 1 : 5);
+
+            MultiLayerNetwork[] nets = new MultiLayerNetwork[2];
+            for (int j = 0; j < 2; j++) {
+                MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().activation(Activation.TANH)
+                                .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                                .updater(updater).learningRate(0.1).seed(12345).list()
+                                .layer(0, new EmbeddingLayer.Builder().nIn(nClassesIn).nOut(6).sparseGradients(j == 1)
+                                                .build())
+                                .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(6).nOut(4)
+                                                .activation(Activation.SOFTMAX).build())
+                                .pretrain(false).backprop(true).build();
+                if (j == 1) {
+                    MultiLayerConfiguration fromJson = MultiLayerConfiguration.fromJson(conf.toJson());
+                    assertEquals(conf, fromJson);
+                    assertTrue(((EmbeddingLayer) fromJson.getConf(0).getLayer()).isSparseGradients());
+                }
+                nets[j] = new MultiLayerNetwork(conf);
+                nets[j].init();
+            }
+            nets[1].setParams(nets[0].params().dup());
+
+            Random r = new Random(12345);
+            for (int iter = 0; iter < nIterations; iter++) {
+                INDArray in = Nd4j.create(batchSize, 1);
+                INDArray labels = Nd4j.zeros(batchSize, 4);
+                for (int i = 0; i < batchSize; i++) {
+                    //Only use the first half of the classes: the remaining rows should be unchanged
+                    in.putScalar(i, r.nextInt(nClassesIn / 2));
+                    labels.putScalar(i, r.nextInt(4), 1.0);
+                }
+                nets[0].fit(in, labels);
+                nets[1].fit(in, labels);
+
+                String msg = updater + " - iteration " + iter;
+                assertEquals(msg, nets[0].getLayer(0).getParam("W"), nets[1].getLayer(0).getParam("W"));
+                assertEquals(msg, nets[0].params(), nets[1].params());
+            }
+        }
+    }
+
+    @Test
+    public void testSparseGradientsInNetworkGradient() {
+        int nClassesIn = 20;
+        int batchSize = 5;
+
+        MultiLayerNetwork[] nets = new MultiLayerNetwork[2];
+        for (int j = 0; j < 2; j++) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().activation(Activation.TANH)
+                            .updater(Updater.ADAM).seed(12345).list()
+                            .layer(0, new EmbeddingLayer.Builder().nIn(nClassesIn).nOut(6).sparseGradients(j == 1)
+                                            .build())
+                            .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(6).nOut(4)
+                                            .activation(Activation.SOFTMAX).build())
+                            .pretrain(false).backprop(true).build();
+            nets[j] = new MultiLayerNetwork(conf);
+            nets[j].init();
+        }
+        nets[1].setParams(nets[0].params().dup());
+
+        INDArray labels = Nd4j.zeros(batchSize, 4);
+        for (int i = 0; i < batchSize; i++) {
+            labels.putScalar(i, i % 4, 1.0);
+        }
+        INDArray in1 = Nd4j.create(new double[] {1, 3, 3, 7, 1}, new int[] {batchSize, 1});
+        INDArray in2 = Nd4j.create(new double[] {12, 4, 15, 4, 12}, new int[] {batchSize, 1});
+
+        //The sparse rows should be included in the (dense) network gradient, as used by the step function
+        for (INDArray in : new INDArray[] {in1, in2}) {
+            for (MultiLayerNetwork net : nets) {
+                net.setInput(in);
+                net.setLabels(labels);
+                net.computeGradientAndScore();
+            }
+            assertEquals(nets[0].gradient().getGradientFor("0_W"), nets[1].gradient().getGradientFor("0_W"));
+            assertEquals(nets[0].gradient().gradient(), nets[1].gradient().gradient());
+        }
+
+        //Sparse gradients from the first backprop (never applied) should have been replaced by the second backprop
+        Map<String, SparseRowGradient> sparse =
+                        ((SparseGradientLayer) nets[1].getLayer(0)).getSparseGradients();
+        assertArrayEquals(new int[] {4, 12, 15}, sparse.get(DefaultParamInitializer.WEIGHT_KEY).getRows());
+    }
+
+    @Test
+    public void testSparseGradientViewAfterFit() {
+        //Only the rows of the previous minibatch are reset in the dense gradient view; after an update (which writes
+        // the update to these rows) the next gradient should still match the dense gradient
+        int nClassesIn = 20;
+        int batchSize = 5;
+
+        MultiLayerNetwork[] nets = new MultiLayerNetwork[2];
+        for (int j = 0; j < 2; j++) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().activation(Activation.TANH)
+                            .updater(Updater.ADAGRAD).learningRate(0.1).seed(12345).list()
+                            .layer(0, new EmbeddingLayer.Builder().nIn(nClassesIn).nOut(6).sparseGradients(j == 1)
+                                            .build())
+                            .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(6).nOut(4)
+                                            .activation(Activation.SOFTMAX).build())
+                            .pretrain(false).backprop(true).build();
+            nets[j] = new MultiLayerNetwork(conf);
+            nets[j].init();
+        }
+        nets[1].setParams(nets[0].params().dup());
+
+        INDArray labels = Nd4j.zeros(batchSize, 4);
+        for (int i = 0; i < batchSize; i++) {
+            labels.putScalar(i, i % 4, 1.0);
+        }
+        INDArray in1 = Nd4j.create(new double[] {1, 3, 3, 7, 1}, new int[] {batchSize, 1});
+        INDArray in2 = Nd4j.create(new double[] {12, 3, 15, 4, 12}, new int[] {batchSize, 1});
+
+        for (MultiLayerNetwork net : nets) {
+            net.fit(in1, labels);
+            net.setInput(in2);
+            net.setLabels(labels);
+            net.computeGradientAndScore();
+        }
+        assertEquals(nets[0].params(), nets[1].params());
+        assertEquals(nets[0].gradient().gradient(), nets[1].gradient().gradient());
+        INDArray wGrad = nets[1].gradient().getGradientFor("0_W");
+        assertEquals(0.0, wGrad.getRow(1).norm2Number().doubleValue(), 0.0);
+        assertEquals(0.0, wGrad.getRow(7).norm2Number().doubleValue(), 0.0);
+    }
+
+    @Test
+    public void testSparseGradientsNormalization() {
+        //Gradient normalization is applied to the dense gradients: the sparse updates should include it
+        int nClassesIn = 30;
+        int batchSize = 6;
+
+        MultiLayerNetwork[] nets = new MultiLayerNetwork[2];
+        for (int j = 0; j < 2; j++) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().activation(Activation.TANH)
+                            .updater(Updater.SGD).learningRate(0.5).seed(12345)
+                            .gradientNormalization(GradientNormalization.RenormalizeL2PerLayer).list()
+                            .layer(0, new EmbeddingLayer.Builder().nIn(nClassesIn).nOut(6).sparseGradients(j == 1)
+                                            .build())
+                            .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(6).nOut(4)
+                                            .activation(Activation.SOFTMAX).build())
+                            .pretrain(false).backprop(true).build();
+            nets[j] = new MultiLayerNetwork(conf);
+            nets[j].init();
+        }
+        nets[1].setParams(nets[0].params().dup());
+
+        Random r = new Random(12345);
+        for (int iter = 0; iter < 3; iter++) {
+            INDArray in = Nd4j.create(batchSize, 1);
+            INDArray labels = Nd4j.zeros(batchSize, 4);
+            for (int i = 0; i < batchSize; i++) {
+                in.putScalar(i, r.nextInt(nClassesIn));
+                labels.putScalar(i, r.nextInt(4), 1.0);
+            }
+            nets[0].fit(in, labels);
+            nets[1].fit(in, labels);
+            assertEquals(nets[0].params(), nets[1].params());
+        }
+    }
+
+    @Test
+    public void testSparseGradientsLargeVocab() {
+        int nClassesIn = 500000;
+        int batchSize = 64;
+        int nIterations = 20;
+
+        for (boolean sparse : new boolean[] {false, true}) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().activation(Activation.TANH)
+                            .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                            .updater(Updater.ADAM).learningRate(0.01).seed(12345).list()
+                            .layer(0, new EmbeddingLayer.Builder().nIn(nClassesIn).nOut(32).sparseGradients(sparse)
+                                            .build())
+                            .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(32).nOut(4)
+                                            .activation(Activation.SOFTMAX).build())
+                            .pretrain(false).backprop(true).build();
+            MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            net.init();
+
+            Random r = new Random(12345);
+            INDArray in = Nd4j.create(batchSize, 1);
+            INDArray labels = Nd4j.zeros(batchSize, 4);
+            for (int i = 0; i < batchSize; i++) {
+                in.putScalar(i, r.nextInt(nClassesIn));
+                labels.putScalar(i, r.nextInt(4), 1.0);
+            }
+            INDArray untouchedRow = net.getLayer(0).getParam("W").getRow(nClassesIn - 1).dup();
+
+            for (int i = 0; i < nIterations; i++) {
+                net.fit(in, labels);
+            }
+
+            if (sparse) {
+                assertEquals(untouchedRow, net.getLayer(0).getParam("W").getRow(nClassesIn - 1));
+            }
+        }
+    }
 }
@@ -574,4 +574,51 @@ public class GravesBidirectionalLSTMTest {
             net.fit(in, labels);
         }
     }
+
+    @Test
+    public void testFusedHelperMatchesLSTMHelpers() {
+        //FusedLSTMHelper should give the same results as the per time step LSTMHelpers, including with a mask array
+        Nd4j.getRandom().setSeed(12345);
+        int nIn = 4;
+        int layerSize = 5;
+        int miniBatchSize = 3;
+        int timeSeriesLength = 6;
+
+        NeuralNetConfiguration conf = new NeuralNetConfiguration.Builder()
+                        .layer(new org.deeplearning4j.nn.conf.layers.GravesBidirectionalLSTM.Builder().nIn(nIn)
+                                        .nOut(layerSize).activation(Activation.TANH).build())
+                        .build();
+        int numParams = conf.getLayer().initializer().numParams(conf);
+        INDArray params = Nd4j.rand(1, numParams).subi(0.5);
+
+        INDArray mask = Nd4j.ones(miniBatchSize, timeSeriesLength);
+        mask.putScalar(1, timeSeriesLength - 1, 0.0);
+        mask.putScalar(2, timeSeriesLength - 1, 0.0);
+        mask.putScalar(2, timeSeriesLength - 2, 0.0);
+
+        for (INDArray maskArray : new INDArray[] {null, mask}) {
+            GravesBidirectionalLSTM fused = (GravesBidirectionalLSTM) conf.getLayer().instantiate(conf, null, 0,
+                            params.dup(), true);
+            fused.setBackpropGradientsViewArray(Nd4j.create(1, numParams));
+            fused.setMaskArray(maskArray);
+            fused.helper = new FusedLSTMHelper();
+            GravesBidirectionalLSTM legacy = (GravesBidirectionalLSTM) conf.getLayer().instantiate(conf, null, 0,
+                            params.dup(), true);
+            legacy.setBackpropGradientsViewArray(Nd4j.create(1, numParams));
+            legacy.setMaskArray(maskArray);
+
+            String msg = (maskArray == null ? "no mask" : "mask");
+            INDArray input = Nd4j.rand(new int[] {miniBatchSize, nIn, timeSeriesLength});
+            GravesLSTMTest.assertClose(msg, legacy.activate(input.dup(), false), fused.activate(input.dup(), false));
+
+            INDArray epsilon = Nd4j.rand(new int[] {miniBatchSize, layerSize, timeSeriesLength});
+            Pair<Gradient, INDArray> pLegacy = legacy.backpropGradient(epsilon.dup());
+            Pair<Gradient, INDArray> pFused = fused.backpropGradient(epsilon.dup());
+            GravesLSTMTest.assertClose(msg + ", epsilon", pLegacy.getSecond(), pFused.getSecond());
+            for (String key : pLegacy.getFirst().gradientForVariable().keySet()) {
+                GravesLSTMTest.assertClose(msg + ", " + key, pLegacy.getFirst().getGradientFor(key),
+                                pFused.getFirst().getGradientFor(key));
+            }
+        }
+    }
 }
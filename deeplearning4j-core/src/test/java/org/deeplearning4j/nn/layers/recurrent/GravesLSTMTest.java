@@ -10,6 +10,7 @@ import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.params.GravesLSTMParamInitializer;
 import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -17,6 +18,7 @@ import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.INDArrayIndex;
 import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.nd4j.linalg.ops.transforms.Transforms;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -255,4 +257,109 @@ public class GravesLSTMTest {
             net.fit(in, labels);
         }
     }
+
+    @Test
+    public void testFusedHelperMatchesLSTMHelpers() {
+        //FusedLSTMHelper should give the same activations, gradients and epsilons as the per time step LSTMHelpers
+        Nd4j.getRandom().setSeed(12345);
+        int nIn = 5;
+        int layerSize = 6;
+        int miniBatchSize = 3;
+
+        for (String gateAfn : new String[] {"sigmoid", "hardsigmoid"}) {
+            for (int timeSeriesLength : new int[] {1, 7}) {
+                NeuralNetConfiguration conf = new NeuralNetConfiguration.Builder()
+                                .layer(new org.deeplearning4j.nn.conf.layers.GravesLSTM.Builder().nIn(nIn)
+                                                .nOut(layerSize).gateActivationFunction(gateAfn)
+                                                .activation(Activation.TANH).build())
+                                .build();
+                int numParams = conf.getLayer().initializer().numParams(conf);
+                INDArray params = Nd4j.rand(1, numParams).subi(0.5);
+
+                GravesLSTM fused = (GravesLSTM) conf.getLayer().instantiate(conf, null, 0, params.dup(), true);
+                fused.setBackpropGradientsViewArray(Nd4j.create(1, numParams));
+                fused.helper = new FusedLSTMHelper();
+                GravesLSTM legacy = (GravesLSTM) conf.getLayer().instantiate(conf, null, 0, params.dup(), true);
+                legacy.setBackpropGradientsViewArray(Nd4j.create(1, numParams));
+                assertNull(legacy.helper);
+
+                String msg = gateAfn + ", timeSeriesLength = " + timeSeriesLength;
+                INDArray input = Nd4j.rand(new int[] {miniBatchSize, nIn, timeSeriesLength});
+                assertClose(msg, legacy.activate(input.dup(), false), fused.activate(input.dup(), false));
+
+                INDArray epsilon = Nd4j.rand(new int[] {miniBatchSize, layerSize, timeSeriesLength});
+                Pair<Gradient, INDArray> pLegacy = legacy.backpropGradient(epsilon.dup());
+                Pair<Gradient, INDArray> pFused = fused.backpropGradient(epsilon.dup());
+                assertGradientsClose(msg, pLegacy, pFused);
+
+                if (timeSeriesLength > 1) {
+                    //Truncated BPTT: backprop over the last 3 time steps only
+                    pLegacy = legacy.tbpttBackpropGradient(epsilon.dup(), 3);
+                    pFused = fused.tbpttBackpropGradient(epsilon.dup(), 3);
+                    assertGradientsClose(msg + ", tbptt", pLegacy, pFused);
+
+                    //rnnTimeStep: state carried over between calls
+                    for (int t = 0; t < timeSeriesLength; t++) {
+                        INDArray step = input.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.point(t));
+                        assertClose(msg + ", rnnTimeStep " + t, legacy.rnnTimeStep(step.dup()),
+                                        fused.rnnTimeStep(step.dup()));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @Ignore //Benchmark: should be run manually
+    public void testFusedHelperPerformance() {
+        //Forward + backward steps/sec for FusedLSTMHelper vs. the per time step LSTMHelpers
+        int nIn = 16;
+        int layerSize = 32;
+        int miniBatchSize = 8;
+        NeuralNetConfiguration conf = new NeuralNetConfiguration.Builder()
+                        .layer(new org.deeplearning4j.nn.conf.layers.GravesLSTM.Builder().nIn(nIn).nOut(layerSize)
+                                        .activation(Activation.TANH).build())
+                        .build();
+        int numParams = conf.getLayer().initializer().numParams(conf);
+        INDArray params = Nd4j.rand(1, numParams).subi(0.5);
+
+        for (int timeSeriesLength : new int[] {10, 100, 1000}) {
+            INDArray input = Nd4j.rand(new int[] {miniBatchSize, nIn, timeSeriesLength});
+            INDArray epsilon = Nd4j.rand(new int[] {miniBatchSize, layerSize, timeSeriesLength});
+            for (boolean useFused : new boolean[] {false, true}) {
+                GravesLSTM lstm = (GravesLSTM) conf.getLayer().instantiate(conf, null, 0, params.dup(), true);
+                lstm.setBackpropGradientsViewArray(Nd4j.create(1, numParams));
+                lstm.helper = (useFused ? new FusedLSTMHelper() : null);
+                lstm.setInput(input);
+
+                int iterations = Math.max(2, 2000 / timeSeriesLength);
+                lstm.backpropGradient(epsilon); //Warmup
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    lstm.backpropGradient(epsilon);
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.println(String.format("%s, timeSeriesLength = %d: %.0f steps/sec (forward + backward)",
+                                (useFused ? "FusedLSTMHelper" : "LSTMHelpers"), timeSeriesLength,
+                                iterations * timeSeriesLength / seconds));
+            }
+        }
+    }
+
+    private static void assertGradientsClose(String msg, Pair<Gradient, INDArray> expected,
+                    Pair<Gradient, INDArray> actual) {
+        assertClose(msg + ", epsilon", expected.getSecond(), actual.getSecond());
+        for (String key : new String[] {GravesLSTMParamInitializer.INPUT_WEIGHT_KEY,
+                        GravesLSTMParamInitializer.RECURRENT_WEIGHT_KEY, GravesLSTMParamInitializer.BIAS_KEY}) {
+            assertClose(msg + ", " + key, expected.getFirst().getGradientFor(key),
+                            actual.getFirst().getGradientFor(key));
+        }
+    }
+
+    static void assertClose(String msg, INDArray expected, INDArray actual) {
+        assertArrayEquals(msg, expected.shape(), actual.shape());
+        double maxAbsDiff = Transforms.abs(expected.sub(actual)).maxNumber().doubleValue();
+        double scale = Math.max(1.0, Transforms.abs(expected).maxNumber().doubleValue());
+        assertTrue(msg + ": max difference " + maxAbsDiff, maxAbsDiff / scale < 1e-4);
+    }
 }
@@ -0,0 +1,174 @@
+package org.deeplearning4j.nn.multilayer;
+
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.graph.ElementWiseVertex;
+import org.deeplearning4j.nn.conf.graph.MergeVertex;
+import org.deeplearning4j.nn.conf.layers.BatchNormalization;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.deeplearning4j.util.ActivationCheckpointReport;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions.LossFunction;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TestActivationCheckpointing {
+
+    private static MultiLayerConfiguration getMLNConf(int[] checkpoints) {
+        NeuralNetConfiguration.ListBuilder list = new NeuralNetConfiguration.Builder().seed(12345)
+                        .weightInit(WeightInit.XAVIER).activation(Activation.TANH).list()
+                        .layer(0, new DenseLayer.Builder().nIn(10).nOut(20).build())
+                        .layer(1, new DenseLayer.Builder().nIn(20).nOut(20).build())
+                        .layer(2, new BatchNormalization.Builder().nOut(20).build())
+                        .layer(3, new DenseLayer.Builder().nIn(20).nOut(20).build())
+                        .layer(4, new DenseLayer.Builder().nIn(20).nOut(20).build())
+                        .layer(5, new DenseLayer.Builder().nIn(20).nOut(20).build())
+                        .layer(6, new OutputLayer.Builder(LossFunction.MCXENT).activation(Activation.SOFTMAX)
+                                        .nIn(20).nOut(5).build());
+        if (checkpoints != null)
+            list.activationCheckpoints(checkpoints);
+        return list.build();
+    }
+
+    private static ComputationGraphConfiguration getCGConf(String... checkpoints) {
+        ComputationGraphConfiguration.GraphBuilder b = new NeuralNetConfiguration.Builder().seed(12345)
+                        .weightInit(WeightInit.XAVIER).activation(Activation.TANH).graphBuilder().addInputs("in")
+                        .addLayer("d0", new DenseLayer.Builder().nIn(10).nOut(20).build(), "in")
+                        .addLayer("d1", new DenseLayer.Builder().nIn(20).nOut(20).build(), "d0")
+                        .addLayer("d2", new DenseLayer.Builder().nIn(20).nOut(20).build(), "d1")
+                        .addVertex("add", new ElementWiseVertex(ElementWiseVertex.Op.Add), "d0", "d2")
+                        .addLayer("d3", new DenseLayer.Builder().nIn(20).nOut(20).build(), "add")
+                        .addLayer("d4", new DenseLayer.Builder().nIn(20).nOut(20).build(), "add")
+                        .addVertex("merge", new MergeVertex(), "d3", "d4")
+                        .addLayer("out", new OutputLayer.Builder(LossFunction.MCXENT).activation(Activation.SOFTMAX)
+                                        .nIn(40).nOut(5).build(), "merge")
+                        .setOutputs("out");
+        if (checkpoints != null)
+            b.activationCheckpoints(checkpoints);
+        return b.build();
+    }
+
+    private static INDArray labels(int minibatch, int nOut) {
+        INDArray labels = Nd4j.zeros(minibatch, nOut);
+        for (int i = 0; i < minibatch; i++) {
+            labels.putScalar(i, i % nOut, 1.0);
+        }
+        return labels;
+    }
+
+    @Test
+    public void testCheckpointedGradientsMLN() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray features = Nd4j.rand(8, 10);
+        INDArray labels = labels(8, 5);
+
+        for (int[] checkpoints : new int[][] {{}, {1}, {0, 3}, {1, 2, 4}}) {
+            MultiLayerNetwork net = new MultiLayerNetwork(getMLNConf(null));
+            net.init();
+            MultiLayerNetwork netCheckpointed = new MultiLayerNetwork(getMLNConf(checkpoints));
+            netCheckpointed.init();
+            netCheckpointed.setParams(net.params().dup());
+
+            net.setInput(features);
+            net.setLabels(labels);
+            net.computeGradientAndScore();
+            netCheckpointed.setInput(features);
+            netCheckpointed.setLabels(labels);
+            netCheckpointed.computeGradientAndScore();
+
+            String msg = "Checkpoints: " + Arrays.toString(checkpoints);
+            assertEquals(msg, net.score(), netCheckpointed.score(), 1e-6);
+            assertEquals(msg, net.gradient().gradient(), netCheckpointed.gradient().gradient());
+
+            //Recomputed activations should have been released after backprop
+            int numNull = 0;
+            for (int i = 0; i < netCheckpointed.getnLayers(); i++) {
+                if (netCheckpointed.getLayer(i).input() == null)
+                    numNull++;
+            }
+            assertTrue(msg, numNull > 0);
+
+            //Training should also give identical parameters
+            net.fit(features, labels);
+            netCheckpointed.fit(features, labels);
+            assertEquals(msg, net.params(), netCheckpointed.params());
+        }
+    }
+
+    @Test
+    public void testCheckpointedGradientsCG() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray features = Nd4j.rand(8, 10);
+        INDArray labels = labels(8, 5);
+
+        for (String[] checkpoints : new String[][] {{}, {"d1"}, {"add"}, {"d0", "d3"}}) {
+            ComputationGraph net = new ComputationGraph(getCGConf((String[]) null));
+            net.init();
+            ComputationGraph netCheckpointed = new ComputationGraph(getCGConf(checkpoints));
+            netCheckpointed.init();
+            netCheckpointed.setParams(net.params().dup());
+
+            net.setInputs(features);
+            net.setLabels(labels);
+            net.computeGradientAndScore();
+            netCheckpointed.setInputs(features);
+            netCheckpointed.setLabels(labels);
+            netCheckpointed.computeGradientAndScore();
+
+            String msg = "Checkpoints: " + Arrays.toString(checkpoints);
+            assertEquals(msg, net.score(), netCheckpointed.score(), 1e-6);
+            assertEquals(msg, net.gradient().gradient(), netCheckpointed.gradient().gradient());
+
+            net.fit(new INDArray[] {features}, new INDArray[] {labels});
+            netCheckpointed.fit(new INDArray[] {features}, new INDArray[] {labels});
+            assertEquals(msg, net.params(), netCheckpointed.params());
+        }
+    }
+
+    @Test
+    public void testCheckpointConfigJson() {
+        MultiLayerConfiguration conf = getMLNConf(new int[] {1, 3});
+        MultiLayerConfiguration fromJson = MultiLayerConfiguration.fromJson(conf.toJson());
+        assertArrayEquals(new int[] {1, 3}, fromJson.getActivationCheckpoints());
+        assertEquals(conf, fromJson);
+
+        ComputationGraphConfiguration cgConf = getCGConf("d1", "add");
+        ComputationGraphConfiguration cgFromJson = ComputationGraphConfiguration.fromJson(cgConf.toJson());
+        assertEquals(Arrays.asList("d1", "add"), cgFromJson.getActivationCheckpoints());
+        assertEquals(cgConf, cgFromJson);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInvalidCheckpointIndex() {
+        getMLNConf(new int[] {10});
+    }
+
+    @Test
+    public void testCheckpointReport() {
+        Nd4j.getRandom().setSeed(12345);
+        int minibatch = 256;
+        INDArray features = Nd4j.rand(minibatch, 10);
+        INDArray labels = labels(minibatch, 5);
+
+        MultiLayerNetwork net = new MultiLayerNetwork(getMLNConf(new int[] {3}));
+        net.init();
+        ActivationCheckpointReport report = ActivationCheckpointReport.evaluate(net, features, labels, 5);
+        assertTrue(report.getRetainedBytesCheckpointed() < report.getRetainedBytes());
+        assertArrayEquals(new int[] {3}, net.getLayerWiseConfigurations().getActivationCheckpoints());
+
+        ComputationGraph cg = new ComputationGraph(getCGConf());
+        cg.init();
+        ActivationCheckpointReport cgReport = ActivationCheckpointReport.evaluate(cg, new INDArray[] {features},
+                        new INDArray[] {labels}, 5);
+        assertTrue(cgReport.getRetainedBytesCheckpointed() < cgReport.getRetainedBytes());
+    }
+}
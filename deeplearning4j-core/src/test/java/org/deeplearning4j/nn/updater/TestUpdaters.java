@@ -4,13 +4,16 @@ package org.deeplearning4j.nn.updater;
 import org.apache.commons.math3.util.FastMath;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.Updater;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.graph.ElementWiseVertex;
 import org.deeplearning4j.nn.conf.inputs.InputType;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.params.DefaultParamInitializer;
 import org.deeplearning4j.nn.params.PretrainParamInitializer;
@@ -670,4 +673,188 @@ public class TestUpdaters {
         AdaGrad adaGrad = (AdaGrad) u3.updaterForVariable.get("W");
         assertEquals(e, adaGrad.getEpsilon(), 0.0);
     }
+
+    @Test
+    public void testFusedUpdaterMatchesLayerUpdaters() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).learningRate(0.1)
+                        .regularization(true).l1(0.01).l2(0.02).activation(Activation.TANH).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(5)
+                                        .updater(org.deeplearning4j.nn.conf.Updater.SGD).build())
+                        .layer(1, new DenseLayer.Builder().nIn(5).nOut(6)
+                                        .updater(org.deeplearning4j.nn.conf.Updater.SGD).build())
+                        .layer(2, new DenseLayer.Builder().nIn(6).nOut(7).learningRate(0.05).l1(0.0)
+                                        .updater(org.deeplearning4j.nn.conf.Updater.SGD).build())
+                        .layer(3, new DenseLayer.Builder().nIn(7).nOut(8)
+                                        .updater(org.deeplearning4j.nn.conf.Updater.ADAM).build())
+                        .layer(4, new DenseLayer.Builder().nIn(8).nOut(9)
+                                        .updater(org.deeplearning4j.nn.conf.Updater.NONE).build())
+                        .layer(5, new OutputLayer.Builder().nIn(9).nOut(3).activation(Activation.SOFTMAX)
+                                        .lossFunction(LossFunctions.LossFunction.MCXENT)
+                                        .updater(org.deeplearning4j.nn.conf.Updater.NESTEROVS).build())
+                        .build();
+
+        MultiLayerNetwork fusedNet = new MultiLayerNetwork(conf);
+        fusedNet.init();
+        MultiLayerNetwork layerwiseNet = new MultiLayerNetwork(conf.clone());
+        layerwiseNet.init();
+
+        INDArray input = Nd4j.rand(10, 4);
+        INDArray labels = Nd4j.zeros(10, 3);
+        for (int i = 0; i < 10; i++)
+            labels.putScalar(i, i % 3, 1.0);
+
+        for (int iter = 0; iter < 3; iter++) {
+            fusedNet.setInput(input);
+            fusedNet.setLabels(labels);
+            fusedNet.computeGradientAndScore();
+            layerwiseNet.setInput(input);
+            layerwiseNet.setLabels(labels);
+            layerwiseNet.computeGradientAndScore();
+            assertEquals(fusedNet.getFlattenedGradients(), layerwiseNet.getFlattenedGradients());
+
+            fusedNet.getUpdater().update(fusedNet, fusedNet.gradient(), iter, 10);
+
+            //Reference: per-layer, per-parameter LayerUpdater
+            Updater[] layerUpdaters = ((MultiLayerUpdater) layerwiseNet.getUpdater()).getLayerUpdaters();
+            Gradient g = layerwiseNet.gradient();
+            for (int i = 0; i < layerUpdaters.length; i++) {
+                Gradient layerGradient = new DefaultGradient();
+                for (Map.Entry<String, INDArray> e : g.gradientForVariable().entrySet()) {
+                    if (e.getKey().startsWith(i + "_"))
+                        layerGradient.setGradientFor(e.getKey().substring(e.getKey().indexOf('_') + 1), e.getValue());
+                }
+                layerUpdaters[i].update(layerwiseNet.getLayer(i), layerGradient, iter, 10);
+            }
+
+            assertEquals(layerwiseNet.getFlattenedGradients(), fusedNet.getFlattenedGradients());
+            assertEquals(layerwiseNet.getUpdater().getStateViewArray(), fusedNet.getUpdater().getStateViewArray());
+
+            fusedNet.params().subi(fusedNet.getFlattenedGradients());
+            layerwiseNet.params().subi(layerwiseNet.getFlattenedGradients());
+        }
+    }
+
+    @Test
+    public void testFusedUpdaterConfigurationChange() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).learningRate(0.1)
+                        .regularization(true).l2(0.02).updater(org.deeplearning4j.nn.conf.Updater.SGD)
+                        .activation(Activation.TANH).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(5).build())
+                        .layer(1, new OutputLayer.Builder().nIn(5).nOut(3).activation(Activation.SOFTMAX)
+                                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                        .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        INDArray input = Nd4j.rand(10, 4);
+        INDArray labels = Nd4j.zeros(10, 3);
+        for (int i = 0; i < 10; i++)
+            labels.putScalar(i, i % 3, 1.0);
+
+        for (int iter = 0; iter < 3; iter++) {
+            if (iter == 2) {
+                //Changes to the configuration between iterations should be picked up by the fused updater
+                net.getLayer(0).conf().setLearningRateByParam("W", 0.5);
+                net.getLayer(0).conf().getL2ByParam().put("W", 0.3);
+            }
+
+            net.setInput(input);
+            net.setLabels(labels);
+            net.computeGradientAndScore();
+            INDArray rawGradient = net.gradient().getGradientFor("0_W").dup();
+            INDArray params = net.getLayer(0).getParam("W").dup();
+
+            net.getUpdater().update(net, net.gradient(), iter, 10);
+
+            double lr = (iter == 2 ? 0.5 : 0.1);
+            double l2 = (iter == 2 ? 0.3 : 0.02);
+            INDArray expected = rawGradient.mul(lr).addi(params.mul(l2)).divi(10);
+            assertEquals(expected, net.gradient().getGradientFor("0_W"));
+
+            net.params().subi(net.getFlattenedGradients());
+        }
+    }
+
+    @Test
+    public void testFusedUpdaterStepTime() {
+        //Many small layers: per-parameter op dispatch dominates the updater step time
+        int nLayers = 50;
+        NeuralNetConfiguration.ListBuilder list = new NeuralNetConfiguration.Builder().seed(12345).learningRate(0.1)
+                        .regularization(true).l2(1e-4).updater(org.deeplearning4j.nn.conf.Updater.SGD).list();
+        for (int i = 0; i < nLayers - 1; i++) {
+            list.layer(i, new DenseLayer.Builder().nIn(i == 0 ? 10 : 32).nOut(32).build());
+        }
+        list.layer(nLayers - 1, new OutputLayer.Builder().nIn(32).nOut(3).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build());
+        MultiLayerNetwork net = new MultiLayerNetwork(list.build());
+        net.init();
+
+        net.setInput(Nd4j.rand(16, 10));
+        INDArray labels = Nd4j.zeros(16, 3);
+        for (int i = 0; i < 16; i++)
+            labels.putScalar(i, i % 3, 1.0);
+        net.setLabels(labels);
+        net.computeGradientAndScore();
+        Gradient g = net.gradient();
+        Updater[] layerUpdaters = ((MultiLayerUpdater) net.getUpdater()).getLayerUpdaters();
+
+        int nIter = 200;
+        long layerwise = 0;
+        long fused = 0;
+        for (int iter = 0; iter < nIter; iter++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < nLayers; i++) {
+                Gradient layerGradient = new DefaultGradient();
+                layerGradient.setGradientFor(DefaultParamInitializer.WEIGHT_KEY, g.getGradientFor(i + "_W"));
+                layerGradient.setGradientFor(DefaultParamInitializer.BIAS_KEY, g.getGradientFor(i + "_b"));
+                layerUpdaters[i].update(net.getLayer(i), layerGradient, iter, 16);
+            }
+            layerwise += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            net.getUpdater().update(net, g, iter, 16);
+            fused += System.nanoTime() - start;
+        }
+        System.out.println("Updater step time, " + nLayers + " layer MLP: per-parameter " + layerwise / nIter / 1000
+                        + " us, fused " + fused / nIter / 1000 + " us");
+    }
+
+    @Test
+    public void testFusedUpdaterStepTimeResidualGraph() {
+        int nBlocks = 20;
+        ComputationGraphConfiguration.GraphBuilder b = new NeuralNetConfiguration.Builder().seed(12345)
+                        .learningRate(0.1).regularization(true).l2(1e-4)
+                        .updater(org.deeplearning4j.nn.conf.Updater.SGD).graphBuilder().addInputs("in")
+                        .addLayer("d0", new DenseLayer.Builder().nIn(10).nOut(32).build(), "in");
+        String last = "d0";
+        for (int i = 0; i < nBlocks; i++) {
+            b.addLayer("a" + i, new DenseLayer.Builder().nIn(32).nOut(32).build(), last)
+                            .addLayer("b" + i, new DenseLayer.Builder().nIn(32).nOut(32).build(), "a" + i)
+                            .addVertex("res" + i, new ElementWiseVertex(ElementWiseVertex.Op.Add), last, "b" + i);
+            last = "res" + i;
+        }
+        b.addLayer("out", new OutputLayer.Builder().nIn(32).nOut(3).activation(Activation.SOFTMAX)
+                        .lossFunction(LossFunctions.LossFunction.MCXENT).build(), last).setOutputs("out");
+
+        ComputationGraph graph = new ComputationGraph(b.build());
+        graph.init();
+
+        INDArray labels = Nd4j.zeros(16, 3);
+        for (int i = 0; i < 16; i++)
+            labels.putScalar(i, i % 3, 1.0);
+        graph.setInputs(Nd4j.rand(16, 10));
+        graph.setLabels(labels);
+        graph.computeGradientAndScore();
+        Gradient g = graph.gradient();
+
+        int nIter = 200;
+        long start = System.nanoTime();
+        for (int iter = 0; iter < nIter; iter++) {
+            graph.getUpdater().update(graph, g, iter, 16);
+        }
+        long time = System.nanoTime() - start;
+        System.out.println("Updater step time, residual graph with " + graph.getNumLayers() + " layers: "
+                        + time / nIter / 1000 + " us");
+    }
 }
@@ -30,9 +30,11 @@ import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.io.ClassPathResource;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by agibsonccc on 10/1/14.
@@ -65,6 +67,77 @@ public class BarnesHutTsneTest {
         b.fit(data);
     }
 
+    @Test
+    public void testGaussianPerplexity() throws Exception {
+        DataTypeUtil.setDTypeForContext(DataBuffer.Type.DOUBLE);
+        Nd4j.getRandom().setSeed(12345);
+        int n = 40;
+        double perplexity = 3.0;
+        int k = (int) (3 * perplexity);
+        INDArray data = Nd4j.randn(n, 5);
+
+        BarnesHutTsne b = new BarnesHutTsne.Builder().similarityFunction("euclidean").invertDistanceMetric(false)
+                        .perplexity(perplexity).tolerance(1e-8).build();
+        double[] p = b.computeGaussianPerplexity(data, perplexity).data().asDouble();
+        assertEquals(n * k, p.length);
+
+        for (int i = 0; i < n; i++) {
+            //squared distances to the k nearest neighbors, in the order used for the row of P
+            double[] d2 = new double[n - 1];
+            int idx = 0;
+            for (int j = 0; j < n; j++) {
+                if (j != i) {
+                    double d = data.getRow(i).distance2(data.getRow(j));
+                    d2[idx++] = d * d;
+                }
+            }
+            Arrays.sort(d2);
+
+            double sum = 0.0;
+            double entropy = 0.0;
+            for (int m = 0; m < k; m++) {
+                double pm = p[i * k + m];
+                sum += pm;
+                entropy -= pm * Math.log(pm);
+            }
+            assertEquals(1.0, sum, 1e-6);
+            assertEquals(Math.log(perplexity), entropy, 1e-4);
+
+            //p_m is proportional to exp(-beta * d_m^2): the implied beta is the same for all neighbors
+            double beta = Math.log(p[i * k] / p[i * k + k - 1]) / (d2[k - 1] - d2[0]);
+            for (int m = 1; m < k - 1; m++) {
+                double betaM = Math.log(p[i * k] / p[i * k + m]) / (d2[m] - d2[0]);
+                assertEquals(beta, betaM, 1e-4 * Math.abs(beta));
+            }
+        }
+    }
+
+    @Test
+    public void testTsneSeparatesClusters() throws Exception {
+        DataTypeUtil.setDTypeForContext(DataBuffer.Type.DOUBLE);
+        Nd4j.getRandom().setSeed(12345);
+        int nPerCluster = 30;
+        INDArray data = Nd4j.randn(2 * nPerCluster, 10);
+        data.get(NDArrayIndex.interval(nPerCluster, 2 * nPerCluster), NDArrayIndex.all()).addi(10.0);
+
+        BarnesHutTsne b = new BarnesHutTsne.Builder().similarityFunction("euclidean").invertDistanceMetric(false)
+                        .perplexity(5).theta(0.5).setMaxIter(300).learningRate(100).useAdaGrad(false)
+                        .normalize(false).build();
+        b.fit(data);
+
+        INDArray y = b.getData();
+        assertEquals(2 * nPerCluster, y.rows());
+        INDArray c0 = y.get(NDArrayIndex.interval(0, nPerCluster), NDArrayIndex.all()).mean(0);
+        INDArray c1 = y.get(NDArrayIndex.interval(nPerCluster, 2 * nPerCluster), NDArrayIndex.all()).mean(0);
+
+        //every embedded point should be closer to the centroid of its own cluster
+        for (int i = 0; i < 2 * nPerCluster; i++) {
+            INDArray own = i < nPerCluster ? c0 : c1;
+            INDArray other = i < nPerCluster ? c1 : c0;
+            assertTrue(y.getRow(i).distance2(own) < y.getRow(i).distance2(other));
+        }
+    }
+
     @Test
     public void testBuilderFields() throws Exception {
         final double theta = 0;
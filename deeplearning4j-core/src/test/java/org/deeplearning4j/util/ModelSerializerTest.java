@@ -5,13 +5,17 @@ import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.dataset.api.preprocessor.NormalizerMinMaxScaler;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
@@ -22,6 +26,8 @@ import java.io.FileOutputStream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author raver119@gmail.com
@@ -153,4 +159,135 @@ public class ModelSerializerTest {
         assertEquals(cg.params(), network.params());
         assertEquals(cg.getUpdater(), network.getUpdater());
     }
+
+    @Test
+    public void testWriteMappedMLNModel() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(Updater.ADAM)
+                        .learningRate(0.1).activation(Activation.TANH).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(20).build())
+                        .layer(1, new OutputLayer.Builder().lossFunction(LossFunctions.LossFunction.MCXENT)
+                                        .activation(Activation.SOFTMAX).nIn(20).nOut(3).build())
+                        .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        DataSet ds = new IrisDataSetIterator(150, 150).next();
+        net.fit(ds);
+
+        File tempFile = File.createTempFile("mapped", "bin");
+        tempFile.deleteOnExit();
+
+        ModelSerializer.writeModelMapped(net, tempFile, true);
+        assertTrue(ModelSerializer.isMappedModelFile(tempFile));
+
+        MultiLayerNetwork network = ModelSerializer.restoreMultiLayerNetworkMapped(tempFile, true);
+        assertEquals(net.getLayerWiseConfigurations().toJson(), network.getLayerWiseConfigurations().toJson());
+        assertEquals(net.params(), network.params());
+        assertEquals(net.getUpdater().getStateViewArray(), network.getUpdater().getStateViewArray());
+        assertEquals(net.output(ds.getFeatures()), network.output(ds.getFeatures()));
+
+        //Standard restore method should detect the format
+        MultiLayerNetwork network2 = ModelSerializer.restoreMultiLayerNetwork(tempFile, false);
+        assertEquals(net.params(), network2.params());
+        assertEquals(0.0, network2.getUpdater().getStateViewArray().sumNumber().doubleValue(), 0.0);
+
+        //Training a restored network must not modify the file (copy on write)
+        INDArray paramsBefore = net.params().dup();
+        network.fit(ds);
+        assertNotEquals(paramsBefore, network.params());
+        MultiLayerNetwork network3 = ModelSerializer.restoreMultiLayerNetworkMapped(tempFile, true);
+        assertEquals(paramsBefore, network3.params());
+    }
+
+    @Test
+    public void testWriteMappedCGModel() throws Exception {
+        ComputationGraphConfiguration config = new NeuralNetConfiguration.Builder().updater(Updater.NESTEROVS)
+                        .learningRate(0.1).graphBuilder().addInputs("in")
+                        .addLayer("dense", new DenseLayer.Builder().nIn(4).nOut(2).build(), "in")
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(2).nOut(3)
+                                        .activation(Activation.SOFTMAX).build(), "dense")
+                        .setOutputs("out").pretrain(false).backprop(true).build();
+
+        ComputationGraph cg = new ComputationGraph(config);
+        cg.init();
+        cg.fit(new IrisDataSetIterator(150, 150).next());
+
+        File tempFile = File.createTempFile("mapped", "bin");
+        tempFile.deleteOnExit();
+
+        ModelSerializer.writeModelMapped(cg, tempFile, true);
+
+        ComputationGraph network = ModelSerializer.restoreComputationGraph(tempFile);
+        assertEquals(cg.getConfiguration().toJson(), network.getConfiguration().toJson());
+        assertEquals(cg.params(), network.params());
+        assertEquals(cg.getUpdater().getStateViewArray(), network.getUpdater().getStateViewArray());
+    }
+
+    @Test
+    public void testMappedConfigurationCache() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(5).build())
+                        .layer(1, new OutputLayer.Builder().nIn(5).nOut(3).build()).build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        File tempFile = File.createTempFile("mapped", "bin");
+        tempFile.deleteOnExit();
+        ModelSerializer.writeModelMapped(net, tempFile, false);
+
+        //Each restored network gets its own copy of the cached configuration
+        MultiLayerNetwork first = ModelSerializer.restoreMultiLayerNetworkMapped(tempFile, false);
+        MultiLayerNetwork second = ModelSerializer.restoreMultiLayerNetworkMapped(tempFile, false);
+        assertEquals(conf, second.getLayerWiseConfigurations());
+        assertNotSame(first.getLayerWiseConfigurations(), second.getLayerWiseConfigurations());
+        first.getLayerWiseConfigurations().setIterationCount(10);
+        assertEquals(0, second.getLayerWiseConfigurations().getIterationCount());
+        assertEquals(0, ModelSerializer.restoreMultiLayerNetworkMapped(tempFile, false).getLayerWiseConfigurations()
+                        .getIterationCount());
+
+        //Overwriting the file invalidates the cached configuration
+        MultiLayerConfiguration conf2 = new NeuralNetConfiguration.Builder().seed(12345).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(7).build())
+                        .layer(1, new OutputLayer.Builder().nIn(7).nOut(3).build()).build();
+        MultiLayerNetwork net2 = new MultiLayerNetwork(conf2);
+        net2.init();
+        ModelSerializer.writeModelMapped(net2, tempFile, false);
+        MultiLayerNetwork third = ModelSerializer.restoreMultiLayerNetworkMapped(tempFile, false);
+        assertEquals(conf2, third.getLayerWiseConfigurations());
+        assertEquals(net2.params(), third.params());
+    }
+
+    @Test
+    @Ignore //Benchmark: should be run manually
+    public void testMappedRestoreTiming() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(Updater.ADAM).list()
+                        .layer(0, new DenseLayer.Builder().nIn(1000).nOut(1000).build())
+                        .layer(1, new DenseLayer.Builder().nIn(1000).nOut(1000).build())
+                        .layer(2, new OutputLayer.Builder().nIn(1000).nOut(10).build()).build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        File zipFile = File.createTempFile("zip", "bin");
+        zipFile.deleteOnExit();
+        File mappedFile = File.createTempFile("mapped", "bin");
+        mappedFile.deleteOnExit();
+        ModelSerializer.writeModel(net, zipFile, true);
+        ModelSerializer.writeModelMapped(net, mappedFile, true);
+
+        Runtime rt = Runtime.getRuntime();
+        for (boolean mapped : new boolean[] {false, true}) {
+            File f = (mapped ? mappedFile : zipFile);
+            System.gc();
+            long heapBefore = rt.totalMemory() - rt.freeMemory();
+            long start = System.nanoTime();
+            MultiLayerNetwork restored = ModelSerializer.restoreMultiLayerNetwork(f, false);
+            long time = System.nanoTime() - start;
+            long heapAfter = rt.totalMemory() - rt.freeMemory();
+
+            assertEquals(net.params(), restored.params());
+            System.out.println((mapped ? "Mapped" : "Zip") + " restore of " + net.numParams() + " parameters ("
+                            + f.length() + " bytes): " + time / 1000000 + " ms, heap delta "
+                            + (heapAfter - heapBefore) / 1024 + " kB");
+        }
+    }
 }
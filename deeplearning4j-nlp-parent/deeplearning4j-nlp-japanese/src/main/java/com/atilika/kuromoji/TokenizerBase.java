@@ -45,6 +45,8 @@ public abstract class TokenizerBase {
 
     private boolean split;
 
+    private ThreadLocal<ViterbiArena> viterbiArenas;
+
     private TokenInfoDictionary tokenInfoDictionary;
 
     private UnknownDictionary unknownDictionary;
@@ -77,6 +79,15 @@ public abstract class TokenizerBase {
         this.viterbiFormatter = new ViterbiFormatter(builder.connectionCosts);
         this.split = builder.split;
 
+        if (builder.reuseLattice) {
+            this.viterbiArenas = new ThreadLocal<ViterbiArena>() {
+                @Override
+                protected ViterbiArena initialValue() {
+                    return new ViterbiArena();
+                }
+            };
+        }
+
         initDictionaryMap();
     }
 
@@ -206,6 +217,10 @@ public abstract class TokenizerBase {
      * @return list of Token
      */
     private <T extends TokenBase> List<T> createTokenList(int offset, String text) {
+        if (viterbiArenas != null) {
+            return createTokenListFromArena(offset, text);
+        }
+
         ArrayList<T> result = new ArrayList<>();
 
         ViterbiLattice lattice = viterbiBuilder.build(text);
@@ -225,6 +240,39 @@ public abstract class TokenizerBase {
         return result;
     }
 
+    /**
+     * Tokenize input sentence using this thread's reusable lattice arena.
+     * <p>
+     * Only the tokens on the best path are created, no lattice nodes or intermediate surfaces are allocated.
+     *
+     * @param offset   offset of sentence in original input text
+     * @param text sentence to tokenize
+     * @return list of Token
+     */
+    private <T extends TokenBase> List<T> createTokenListFromArena(int offset, String text) {
+        ViterbiArena arena = viterbiArenas.get();
+
+        viterbiBuilder.build(text, arena);
+        viterbiSearcher.search(arena);
+
+        ArrayList<T> result = new ArrayList<>(arena.getPathLength());
+
+        for (int i = 0; i < arena.getPathLength(); i++) {
+            int node = arena.getPathNode(i);
+            int wordId = arena.getWordId(node);
+            ViterbiNode.Type type = arena.getType(node);
+            if (type == ViterbiNode.Type.KNOWN && wordId == -1) { // Do not include BOS/EOS
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            T token = (T) tokenFactory.createToken(wordId, arena.getSurface(node), type,
+                            offset + arena.getStartIndex(node), dictionaryMap.get(type));
+            result.add(token);
+        }
+
+        return result;
+    }
+
     /**
      * Abstract Builder shared by all tokenizers
      */
@@ -239,6 +287,7 @@ public abstract class TokenizerBase {
 
         protected Mode mode = Mode.NORMAL;
         protected boolean split = true;
+        protected boolean reuseLattice = false;
         protected List<Integer> penalties = Collections.emptyList();
 
         protected int totalFeatures = -1;
@@ -210,11 +210,28 @@ public class DoubleArrayTrie {
     }
 
     public int lookup(String key, int index, int j) {
+        return lookup(key, index, j, key.length());
+    }
+
+    /**
+     * Match the characters of text in the range [begin, end) without creating a substring.
+     * <p>
+     * Equivalent to {@code lookup(text.substring(begin, end))}
+     *
+     * @param text  text containing the key to match
+     * @param begin  index of the first character of the key, inclusive
+     * @param end  index of the last character of the key, exclusive
+     * @return index value of last character in baseBuffer(double array id) if it is complete match. Negative value if it doesn't match. 0 if it is prefix match.
+     */
+    public int lookupRange(String text, int begin, int end) {
+        return lookup(text, 0, begin, end);
+    }
+
+    private int lookup(String key, int index, int j, int keyLength) {
         int base = 1;
         if (index != 0) {
             base = baseBuffer.get(index);
         }
-        int keyLength = key.length();
         for (int i = j; i < keyLength; i++) {
             int previous = index;
             if (compact) {
@@ -237,7 +254,7 @@ public class DoubleArrayTrie {
             }
 
             if (base >= TAIL_OFFSET) { // If base is bigger than TAIL_OFFSET, start processing "tail"
-                return matchTail(base, index, key.substring(i + 1));
+                return matchTail(base, index, key, i + 1, keyLength);
             }
 
         }
@@ -259,14 +276,16 @@ public class DoubleArrayTrie {
      * @param base
      * @param index
      * @param key
+     * @param begin  index of the first key character to match against the tail, inclusive
+     * @param end  index of the last key character to match against the tail, exclusive
      * @return index if it is complete match. 0 if it is prefix match. negative value if it doesn't match
      */
-    private int matchTail(int base, int index, String key) {
+    private int matchTail(int base, int index, String key, int begin, int end) {
         int positionInTailArr = base - TAIL_OFFSET;
 
-        int keyLength = key.length();
+        int keyLength = end - begin;
         for (int i = 0; i < keyLength; i++) {
-            if (key.charAt(i) != tailBuffer.get(positionInTailArr + i)) {
+            if (key.charAt(begin + i) != tailBuffer.get(positionInTailArr + i)) {
                 return -1;
             }
         }
@@ -0,0 +1,326 @@
+/*-*
+ * Copyright © 2010-2015 Atilika Inc. and contributors (see CONTRIBUTORS.md)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  A copy of the
+ * License is distributed with this work in the LICENSE.md file.  You may
+ * also obtain a copy of the License from
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.atilika.kuromoji.viterbi;
+
+import java.util.Arrays;
+
+/**
+ * Reusable Viterbi lattice backed by primitive arrays
+ * <p>
+ * This is the allocation free counterpart of {@link ViterbiLattice} and {@link ViterbiNode}: a node is an index into
+ * parallel arrays holding its word id, connection ids, costs and back-pointer, and the nodes starting and ending at
+ * each lattice position are kept as linked lists in insertion order. Calling {@link #reset(String)} prepares the
+ * arena for the next sentence without releasing any of the arrays, which only grow when a longer sentence or a denser
+ * lattice is seen.
+ * <p>
+ * Surfaces are stored as ranges into the sentence and are only turned into strings by {@link #getSurface(int)}.
+ * <p>
+ * This class is not thread safe, use one instance per thread
+ */
+public class ViterbiArena {
+
+    static final int NONE = -1;
+
+    private static final int INITIAL_NODE_CAPACITY = 256;
+    private static final int INITIAL_POSITION_CAPACITY = 64;
+    private static final ViterbiNode.Type[] TYPES = ViterbiNode.Type.values();
+
+    private String text;
+    private int dimension;
+    private int size;
+
+    // Node attributes, indexed by node
+    private int[] wordIds;
+    private int[] leftIds;
+    private int[] rightIds;
+    private int[] wordCosts;
+    private int[] pathCosts;
+    private int[] leftNodes;
+    private int[] startIndices;
+    private int[] surfaceStarts;
+    private int[] surfaceLengths;
+    private byte[] types;
+    private int[] nextInStart;
+    private int[] nextInEnd;
+
+    // Linked list heads and tails, indexed by lattice position
+    private int[] startHeads;
+    private int[] startTails;
+    private int[] endHeads;
+    private int[] endTails;
+
+    // Best path, filled in by ViterbiSearcher
+    private int[] path;
+    private int pathLength;
+
+    public ViterbiArena() {
+        allocateNodes(INITIAL_NODE_CAPACITY);
+        allocatePositions(INITIAL_POSITION_CAPACITY);
+        path = new int[INITIAL_POSITION_CAPACITY];
+    }
+
+    /**
+     * Clears the arena and prepares it for building the lattice of a new sentence
+     *
+     * @param text  sentence the lattice is built for
+     */
+    public void reset(String text) {
+        this.text = text;
+        this.dimension = text.length() + 2;
+        this.size = 0;
+        this.pathLength = 0;
+
+        if (startHeads.length < dimension) {
+            allocatePositions(Math.max(dimension, startHeads.length * 2));
+        }
+
+        Arrays.fill(startHeads, 0, dimension, NONE);
+        Arrays.fill(startTails, 0, dimension, NONE);
+        Arrays.fill(endHeads, 0, dimension, NONE);
+        Arrays.fill(endTails, 0, dimension, NONE);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    void addBos() {
+        addNode(-1, 0, 0, 0, -1, 0, 0, ViterbiNode.Type.KNOWN, 0, 1);
+    }
+
+    void addEos() {
+        addNode(-1, 0, 0, 0, dimension - 1, 0, 0, ViterbiNode.Type.KNOWN, dimension - 1, 0);
+    }
+
+    /**
+     * Adds a node to the lattice
+     *
+     * @param wordId  word id of the node
+     * @param leftId  left connection id
+     * @param rightId  right connection id
+     * @param wordCost  word cost
+     * @param startIndex  start index reported for the token created from this node
+     * @param surfaceStart  index of the first surface character in the sentence
+     * @param surfaceLength  length of the surface
+     * @param type  node type
+     * @param start  lattice position the node starts at
+     * @param end  lattice position the node ends at
+     * @return the new node
+     */
+    int addNode(int wordId, int leftId, int rightId, int wordCost, int startIndex, int surfaceStart,
+                    int surfaceLength, ViterbiNode.Type type, int start, int end) {
+        int node = addDetachedNode(wordId, leftId, rightId, wordCost, startIndex, surfaceStart, surfaceLength, type);
+
+        if (startTails[start] == NONE) {
+            startHeads[start] = node;
+        } else {
+            nextInStart[startTails[start]] = node;
+        }
+        startTails[start] = node;
+
+        if (endTails[end] == NONE) {
+            endHeads[end] = node;
+        } else {
+            nextInEnd[endTails[end]] = node;
+        }
+        endTails[end] = node;
+
+        return node;
+    }
+
+    /**
+     * Adds a node that is not linked into the lattice, such as the unigram nodes created for unknown words in
+     * {@link com.atilika.kuromoji.TokenizerBase.Mode#EXTENDED} mode
+     */
+    int addDetachedNode(int wordId, int leftId, int rightId, int wordCost, int startIndex, int surfaceStart,
+                    int surfaceLength, ViterbiNode.Type type) {
+        if (size == wordIds.length) {
+            growNodes(size * 2);
+        }
+
+        int node = size++;
+
+        wordIds[node] = wordId;
+        leftIds[node] = leftId;
+        rightIds[node] = rightId;
+        wordCosts[node] = wordCost;
+        pathCosts[node] = 0;
+        leftNodes[node] = NONE;
+        startIndices[node] = startIndex;
+        surfaceStarts[node] = surfaceStart;
+        surfaceLengths[node] = surfaceLength;
+        types[node] = (byte) type.ordinal();
+        nextInStart[node] = NONE;
+        nextInEnd[node] = NONE;
+
+        return node;
+    }
+
+    boolean tokenEndsWhereCurrentTokenStarts(int startIndex) {
+        return endHeads[startIndex + 1] != NONE;
+    }
+
+    int getStartHead(int position) {
+        return startHeads[position];
+    }
+
+    int getEndHead(int position) {
+        return endHeads[position];
+    }
+
+    int getNextInStart(int node) {
+        return nextInStart[node];
+    }
+
+    int getNextInEnd(int node) {
+        return nextInEnd[node];
+    }
+
+    public int getWordId(int node) {
+        return wordIds[node];
+    }
+
+    public int getLeftId(int node) {
+        return leftIds[node];
+    }
+
+    public int getRightId(int node) {
+        return rightIds[node];
+    }
+
+    public int getWordCost(int node) {
+        return wordCosts[node];
+    }
+
+    public int getPathCost(int node) {
+        return pathCosts[node];
+    }
+
+    void setPathCost(int node, int pathCost) {
+        pathCosts[node] = pathCost;
+    }
+
+    public int getLeftNode(int node) {
+        return leftNodes[node];
+    }
+
+    void setLeftNode(int node, int leftNode) {
+        leftNodes[node] = leftNode;
+    }
+
+    public int getStartIndex(int node) {
+        return startIndices[node];
+    }
+
+    int getSurfaceStart(int node) {
+        return surfaceStarts[node];
+    }
+
+    public int getSurfaceLength(int node) {
+        return surfaceLengths[node];
+    }
+
+    public ViterbiNode.Type getType(int node) {
+        return TYPES[types[node]];
+    }
+
+    /**
+     * Materializes the surface of a node
+     *
+     * @param node  node to get the surface for
+     * @return surface, not null
+     */
+    public String getSurface(int node) {
+        int surfaceStart = surfaceStarts[node];
+        return text.substring(surfaceStart, surfaceStart + surfaceLengths[node]);
+    }
+
+    /**
+     * @return number of nodes on the best path, including BOS and EOS
+     */
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * @param i  position on the best path
+     * @return node at position i on the best path
+     */
+    public int getPathNode(int i) {
+        return path[i];
+    }
+
+    void clearPath() {
+        pathLength = 0;
+    }
+
+    void setPathNode(int i, int node) {
+        path[i] = node;
+    }
+
+    void appendToPath(int node) {
+        if (pathLength == path.length) {
+            path = Arrays.copyOf(path, pathLength * 2);
+        }
+        path[pathLength++] = node;
+    }
+
+    private void allocateNodes(int capacity) {
+        wordIds = new int[capacity];
+        leftIds = new int[capacity];
+        rightIds = new int[capacity];
+        wordCosts = new int[capacity];
+        pathCosts = new int[capacity];
+        leftNodes = new int[capacity];
+        startIndices = new int[capacity];
+        surfaceStarts = new int[capacity];
+        surfaceLengths = new int[capacity];
+        types = new byte[capacity];
+        nextInStart = new int[capacity];
+        nextInEnd = new int[capacity];
+    }
+
+    private void growNodes(int capacity) {
+        wordIds = Arrays.copyOf(wordIds, capacity);
+        leftIds = Arrays.copyOf(leftIds, capacity);
+        rightIds = Arrays.copyOf(rightIds, capacity);
+        wordCosts = Arrays.copyOf(wordCosts, capacity);
+        pathCosts = Arrays.copyOf(pathCosts, capacity);
+        leftNodes = Arrays.copyOf(leftNodes, capacity);
+        startIndices = Arrays.copyOf(startIndices, capacity);
+        surfaceStarts = Arrays.copyOf(surfaceStarts, capacity);
+        surfaceLengths = Arrays.copyOf(surfaceLengths, capacity);
+        types = Arrays.copyOf(types, capacity);
+        nextInStart = Arrays.copyOf(nextInStart, capacity);
+        nextInEnd = Arrays.copyOf(nextInEnd, capacity);
+    }
+
+    private void allocatePositions(int capacity) {
+        startHeads = new int[capacity];
+        startTails = new int[capacity];
+        endHeads = new int[capacity];
+        endTails = new int[capacity];
+    }
+}
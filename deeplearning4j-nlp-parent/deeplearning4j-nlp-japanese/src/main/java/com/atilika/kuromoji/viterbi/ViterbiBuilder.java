@@ -105,6 +105,49 @@ public class ViterbiBuilder {
         return lattice;
     }
 
+    /**
+     * Build lattice from input text into a reusable arena
+     * <p>
+     * Builds the same lattice as {@link #build(String)}, but without creating any nodes or substrings
+     *
+     * @param text  source text for the lattice
+     * @param arena  arena to build the lattice into, reset by this method
+     */
+    public void build(String text, ViterbiArena arena) {
+        int textLength = text.length();
+        arena.reset(text);
+
+        arena.addBos();
+
+        int unknownWordEndIndex = -1; // index of the last character of unknown word
+
+        for (int startIndex = 0; startIndex < textLength; startIndex++) {
+            // If no token ends where current token starts, skip this index
+            if (arena.tokenEndsWhereCurrentTokenStarts(startIndex)) {
+
+                boolean found = processIndex(arena, text, startIndex);
+
+                // In the case of normal mode, it doesn't process unknown word greedily.
+                if (searchMode || unknownWordEndIndex <= startIndex) {
+
+                    int[] categories = characterDefinitions.lookupCategories(text.charAt(startIndex));
+
+                    for (int i = 0; i < categories.length; i++) {
+                        int category = categories[i];
+                        unknownWordEndIndex = processUnknownWord(category, i, arena, text, unknownWordEndIndex,
+                                        startIndex, found);
+                    }
+                }
+            }
+        }
+
+        if (useUserDictionary) {
+            processUserDictionary(text, arena);
+        }
+
+        arena.addEos();
+    }
+
     private boolean processIndex(ViterbiLattice lattice, int startIndex, String suffix) {
         boolean found = false;
         for (int endIndex = 1; endIndex < suffix.length() + 1; endIndex++) {
@@ -167,6 +210,139 @@ public class ViterbiBuilder {
         return unknownWordEndIndex;
     }
 
+    private boolean processIndex(ViterbiArena arena, String text, int startIndex) {
+        boolean found = false;
+        int suffixLength = text.length() - startIndex;
+        for (int endIndex = 1; endIndex < suffixLength + 1; endIndex++) {
+            int result = trie.lookupRange(text, startIndex, startIndex + endIndex);
+
+            if (result > 0) { // Found match in double array trie
+                found = true; // Don't produce unknown word starting from this index
+                for (int wordId : dictionary.lookupWordIds(result)) {
+                    arena.addNode(wordId, dictionary.getLeftId(wordId), dictionary.getRightId(wordId),
+                                    dictionary.getWordCost(wordId), startIndex, startIndex, endIndex,
+                                    ViterbiNode.Type.KNOWN, startIndex + 1, startIndex + 1 + endIndex);
+                }
+            } else if (result < 0) { // If result is less than zero, continue to next position
+                break;
+            }
+        }
+        return found;
+    }
+
+    private int processUnknownWord(int category, int i, ViterbiArena arena, String text, int unknownWordEndIndex,
+                    int startIndex, boolean found) {
+        int unknownWordLength = 0;
+        int[] definition = characterDefinitions.lookupDefinition(category);
+        int suffixLength = text.length() - startIndex;
+
+        if (definition[CharacterDefinitions.INVOKE] == 1 || found == false) {
+            unknownWordLength = 1;
+            if (definition[CharacterDefinitions.GROUP] != 0) {
+                for (int j = 1; j < suffixLength; j++) {
+                    int[] categories = characterDefinitions.lookupCategories(text.charAt(startIndex + j));
+
+                    if (categories == null) {
+                        break;
+                    }
+
+                    if (i < categories.length && category == categories[i]) {
+                        unknownWordLength++;
+                    } else {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (unknownWordLength > 0) {
+            int[] wordIds = unknownDictionary.lookupWordIds(category); // characters in input text are supposed to be the same
+
+            for (int wordId : wordIds) {
+                arena.addNode(wordId, unknownDictionary.getLeftId(wordId), unknownDictionary.getRightId(wordId),
+                                unknownDictionary.getWordCost(wordId), startIndex, startIndex, unknownWordLength,
+                                ViterbiNode.Type.UNKNOWN, startIndex + 1, startIndex + 1 + unknownWordLength);
+            }
+            unknownWordEndIndex = startIndex + unknownWordLength;
+        }
+
+        return unknownWordEndIndex;
+    }
+
+    private void processUserDictionary(final String text, ViterbiArena arena) {
+        List<UserDictionary.UserDictionaryMatch> matches = userDictionary.findUserDictionaryMatches(text);
+
+        for (UserDictionary.UserDictionaryMatch match : matches) {
+            int wordId = match.getWordId();
+            int index = match.getMatchStartIndex();
+            int length = match.getMatchLength();
+
+            int nodeStartIndex = index + 1;
+            int nodeEndIndex = nodeStartIndex + length;
+
+            arena.addNode(wordId, userDictionary.getLeftId(wordId), userDictionary.getRightId(wordId),
+                            userDictionary.getWordCost(wordId), index, index, length, ViterbiNode.Type.USER,
+                            nodeStartIndex, nodeEndIndex);
+
+            if (arena.getEndHead(nodeStartIndex) == ViterbiArena.NONE) {
+                repairBrokenLatticeBefore(arena, index);
+            }
+
+            if (arena.getStartHead(nodeStartIndex + length) == ViterbiArena.NONE) {
+                repairBrokenLatticeAfter(arena, nodeEndIndex);
+            }
+        }
+    }
+
+    private void repairBrokenLatticeBefore(ViterbiArena arena, int index) {
+        for (int startIndex = index; startIndex > 0; startIndex--) {
+            int head = arena.getStartHead(startIndex);
+            if (head != ViterbiArena.NONE) {
+                int glueBase = findGlueNodeCandidate(arena, index, head, true, startIndex);
+                if (glueBase != ViterbiArena.NONE) {
+                    int length = index + 1 - startIndex;
+                    addGlueNode(arena, startIndex, glueBase, arena.getSurfaceStart(glueBase), length);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void repairBrokenLatticeAfter(ViterbiArena arena, int nodeEndIndex) {
+        for (int endIndex = nodeEndIndex + 1; endIndex < arena.getDimension(); endIndex++) {
+            int head = arena.getEndHead(endIndex);
+            if (head != ViterbiArena.NONE) {
+                int glueBase = findGlueNodeCandidate(arena, nodeEndIndex, head, false, endIndex);
+                if (glueBase != ViterbiArena.NONE) {
+                    int delta = endIndex - nodeEndIndex;
+                    int glueBaseSurfaceEnd = arena.getSurfaceStart(glueBase) + arena.getSurfaceLength(glueBase);
+                    addGlueNode(arena, nodeEndIndex, glueBase, glueBaseSurfaceEnd - delta, delta);
+                    return;
+                }
+            }
+        }
+    }
+
+    private int findGlueNodeCandidate(ViterbiArena arena, int index, int head, boolean startList, int startIndex) {
+        int glueBase = ViterbiArena.NONE;
+        int length = index + 1 - startIndex;
+        for (int candidate = head; candidate != ViterbiArena.NONE; candidate =
+                        startList ? arena.getNextInStart(candidate) : arena.getNextInEnd(candidate)) {
+            int candidateLength = arena.getSurfaceLength(candidate);
+            if ((glueBase == ViterbiArena.NONE || candidateLength < arena.getSurfaceLength(glueBase))
+                            && candidateLength >= length) {
+                glueBase = candidate;
+            }
+        }
+        return glueBase;
+    }
+
+    private void addGlueNode(ViterbiArena arena, int startIndex, int glueBase, int surfaceStart, int surfaceLength) {
+        arena.addNode(arena.getWordId(glueBase), arena.getLeftId(glueBase), arena.getRightId(glueBase),
+                        arena.getWordCost(glueBase), startIndex, surfaceStart, surfaceLength,
+                        ViterbiNode.Type.INSERTED, startIndex, startIndex + surfaceLength);
+    }
+
     /**
      * Find token(s) in input text and set found token(s) in arrays as normal tokens
      *
@@ -65,6 +65,18 @@ public class ViterbiSearcher {
         return result;
     }
 
+    /**
+     * Find best path in a lattice built into an arena.
+     * <p>
+     * The best path is stored in the arena, see {@link ViterbiArena#getPathNode(int)}
+     *
+     * @param arena  arena filled in by {@link ViterbiBuilder#build(String, ViterbiArena)}
+     */
+    public void search(ViterbiArena arena) {
+        calculatePathCosts(arena);
+        backtrackBestPath(arena, arena.getEndHead(0));
+    }
+
     private ViterbiNode[][] calculatePathCosts(ViterbiLattice lattice) {
         ViterbiNode[][] startIndexArr = lattice.getStartIndexArr();
         ViterbiNode[][] endIndexArr = lattice.getEndIndexArr();
@@ -115,6 +127,116 @@ public class ViterbiSearcher {
         }
     }
 
+    private void calculatePathCosts(ViterbiArena arena) {
+        int dimension = arena.getDimension();
+
+        for (int i = 1; i < dimension; i++) {
+            int leftHead = arena.getEndHead(i);
+
+            if (leftHead == ViterbiArena.NONE) { // continue since no previous node exists
+                continue;
+            }
+
+            for (int node = arena.getStartHead(i); node != ViterbiArena.NONE; node = arena.getNextInStart(node)) {
+                updateNode(arena, leftHead, node);
+            }
+        }
+    }
+
+    private void updateNode(ViterbiArena arena, int leftHead, int node) {
+        int backwardConnectionId = arena.getLeftId(node);
+        int wordCost = arena.getWordCost(node);
+        int leastPathCost = DEFAULT_COST;
+
+        // Add extra cost for long nodes in "Search mode".
+        int penaltyCost = 0;
+        if (mode == TokenizerBase.Mode.SEARCH || mode == TokenizerBase.Mode.EXTENDED) {
+            penaltyCost = getPenaltyCost(arena, node);
+        }
+
+        for (int leftNode = leftHead; leftNode != ViterbiArena.NONE; leftNode = arena.getNextInEnd(leftNode)) {
+            int pathCost = arena.getPathCost(leftNode) + costs.get(arena.getRightId(leftNode), backwardConnectionId)
+                            + wordCost + penaltyCost;
+
+            if (pathCost < leastPathCost) {
+                leastPathCost = pathCost;
+                arena.setPathCost(node, leastPathCost);
+                arena.setLeftNode(node, leftNode);
+            }
+        }
+    }
+
+    private int getPenaltyCost(ViterbiArena arena, int node) {
+        int pathCost = 0;
+        int length = arena.getSurfaceLength(node);
+
+        if (length > kanjiPenaltyLengthTreshold) {
+            if (isKanjiOnly(arena.getText(), arena.getSurfaceStart(node), length)) { // Process only Kanji keywords
+                pathCost += (length - kanjiPenaltyLengthTreshold) * kanjiPenalty;
+            } else if (length > otherPenaltyLengthThreshold) {
+                pathCost += (length - otherPenaltyLengthThreshold) * otherPenalty;
+            }
+        }
+        return pathCost;
+    }
+
+    private boolean isKanjiOnly(String text, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            if (Character.UnicodeBlock.of(text.charAt(i)) != Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stores the best path ending in eos in the arena, in the same order as {@link #backtrackBestPath(ViterbiNode)}
+     * returns it
+     */
+    private void backtrackBestPath(ViterbiArena arena, int eos) {
+        arena.clearPath();
+
+        int pathNodes = 0;
+        for (int node = arena.getLeftNode(eos); node != ViterbiArena.NONE; node = arena.getLeftNode(node)) {
+            if (!isExtendedUnknownNode(arena, node)) {
+                pathNodes++;
+            }
+        }
+
+        // Reserve the slots in front of EOS and fill them from the back while walking towards BOS
+        for (int i = 0; i < pathNodes; i++) {
+            arena.appendToPath(ViterbiArena.NONE);
+        }
+        arena.appendToPath(eos);
+
+        int slot = pathNodes;
+        for (int node = arena.getLeftNode(eos); node != ViterbiArena.NONE; node = arena.getLeftNode(node)) {
+            // Extended mode converts unknown word into unigram nodes
+            if (isExtendedUnknownNode(arena, node)) {
+                appendUnigramNodes(arena, node);
+            } else {
+                arena.setPathNode(--slot, node);
+            }
+        }
+    }
+
+    private void appendUnigramNodes(ViterbiArena arena, int node) {
+        int unigramWordId = 0;
+        int surfaceStart = arena.getSurfaceStart(node);
+        int startIndex = arena.getStartIndex(node);
+
+        for (int i = 0; i < arena.getSurfaceLength(node); i++) {
+            int uniGramNode = arena.addDetachedNode(unigramWordId, unknownDictionary.getLeftId(unigramWordId),
+                            unknownDictionary.getRightId(unigramWordId), unknownDictionary.getWordCost(unigramWordId),
+                            startIndex + i, surfaceStart + i, 1, ViterbiNode.Type.UNKNOWN);
+            arena.appendToPath(uniGramNode);
+        }
+    }
+
+    private boolean isExtendedUnknownNode(ViterbiArena arena, int node) {
+        return mode == TokenizerBase.Mode.EXTENDED && arena.getType(node) == ViterbiNode.Type.UNKNOWN;
+    }
+
     private int getPenaltyCost(ViterbiNode node) {
         int pathCost = 0;
         String surface = node.getSurface();
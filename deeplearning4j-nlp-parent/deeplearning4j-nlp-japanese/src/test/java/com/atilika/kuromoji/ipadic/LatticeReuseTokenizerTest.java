@@ -0,0 +1,84 @@
+/*-*
+ * Copyright © 2010-2015 Atilika Inc. and contributors (see CONTRIBUTORS.md)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  A copy of the
+ * License is distributed with this work in the LICENSE.md file.  You may
+ * also obtain a copy of the License from
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.atilika.kuromoji.ipadic;
+
+import com.atilika.kuromoji.TokenizerBase.Mode;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.atilika.kuromoji.TestUtils.assertMultiThreadedTokenizedStreamEquals;
+import static com.atilika.kuromoji.TestUtils.assertTokenizedStreamEquals;
+import static org.junit.Assert.assertEquals;
+
+public class LatticeReuseTokenizerTest {
+
+    @Test
+    public void testBocchan() throws IOException {
+        assertTokenizedStreamEquals(getClass().getResourceAsStream("/bocchan-ipadic-features.txt"),
+                        getClass().getResourceAsStream("/bocchan.txt"),
+                        new Tokenizer.Builder().reuseLattice(true).build());
+    }
+
+    @Test
+    public void testMultiThreadedUserDictionary() throws IOException, InterruptedException {
+        assertMultiThreadedTokenizedStreamEquals(5, 25, "/jawikisentences-ipadic-features.txt", "/jawikisentences.txt",
+                        new Tokenizer.Builder().userDictionary(getClass().getResourceAsStream("/userdict.txt"))
+                                        .reuseLattice(true).build());
+    }
+
+    @Test
+    public void testSameTokensAsLatticeInAllModes() throws IOException {
+        for (Mode mode : Mode.values()) {
+            Tokenizer tokenizer = new Tokenizer.Builder().mode(mode)
+                            .userDictionary(getClass().getResourceAsStream("/userdict.txt")).build();
+            Tokenizer reusingTokenizer = new Tokenizer.Builder().mode(mode)
+                            .userDictionary(getClass().getResourceAsStream("/userdict.txt")).reuseLattice(true)
+                            .build();
+
+            assertSameTokens(mode, "/jawikisentences.txt", tokenizer, reusingTokenizer);
+            assertSameTokens(mode, "/bocchan.txt", tokenizer, reusingTokenizer);
+        }
+    }
+
+    private void assertSameTokens(Mode mode, String resource, Tokenizer expectedTokenizer, Tokenizer actualTokenizer)
+                    throws IOException {
+        InputStream input = getClass().getResourceAsStream(resource);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            List<Token> expected = expectedTokenizer.tokenize(line);
+            List<Token> actual = actualTokenizer.tokenize(line);
+
+            assertEquals(mode + ": " + line, expected.size(), actual.size());
+
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getSurface(), actual.get(i).getSurface());
+                assertEquals(expected.get(i).getPosition(), actual.get(i).getPosition());
+                assertEquals(expected.get(i).getAllFeatures(), actual.get(i).getAllFeatures());
+            }
+        }
+
+        reader.close();
+    }
+}
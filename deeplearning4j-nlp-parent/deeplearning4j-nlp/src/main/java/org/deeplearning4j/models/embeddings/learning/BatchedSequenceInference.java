@@ -0,0 +1,27 @@
+package org.deeplearning4j.models.embeddings.learning;
+
+import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.List;
+
+/**
+ * SequenceLearningAlgorithms implementing this interface can infer vectors for many sequences at once: the inference
+ * steps of all sequences are executed in lock-step, with the independent per-sequence ops of each step executed as
+ * a single batch.
+ */
+public interface BatchedSequenceInference<T extends SequenceElement> {
+
+    /**
+     * This method does inference for a batch of previously unseen paragraphs. Results are the same as calling
+     * {@link SequenceLearningAlgorithm#inferSequence(Sequence, long, double, double, int)} for each sequence
+     *
+     * @param sequences
+     * @param nextRandom
+     * @param learningRate
+     * @return inferred vectors, in the same order as the sequences. Null for empty sequences
+     */
+    List<INDArray> inferSequenceBatch(List<Sequence<T>> sequences, long nextRandom, double learningRate,
+                    double minLearningRate, int iterations);
+}
@@ -134,6 +134,25 @@ public class CBOW<T extends SequenceElement> implements ElementsLearningAlgorith
 
     public void iterateSample(T currentWord, int[] windowWords, AtomicLong nextRandom, double alpha,
                     boolean isInference, int numLabels, boolean trainWords, INDArray inferenceVector) {
+        if (batches.get() == null)
+            batches.set(new ArrayList<Aggregate>());
+
+        AggregateCBOW cbow = createAggregate(currentWord, windowWords, nextRandom, alpha, numLabels, trainWords,
+                        inferenceVector);
+
+        if (!isInference)
+            batches.get().add(cbow);
+        else
+            Nd4j.getExecutioner().exec(cbow);
+
+    }
+
+    /**
+     * This method creates the CBOW op for a single sample, without executing it. The next random value is advanced,
+     * as per {@link #iterateSample(SequenceElement, int[], AtomicLong, double, boolean, int, boolean, INDArray)}
+     */
+    public AggregateCBOW createAggregate(T currentWord, int[] windowWords, AtomicLong nextRandom, double alpha,
+                    int numLabels, boolean trainWords, INDArray inferenceVector) {
         int[] idxSyn1 = null;
         int[] codes = null;
 
@@ -160,20 +179,13 @@ public class CBOW<T extends SequenceElement> implements ElementsLearningAlgorith
             }
         }
 
-        if (batches.get() == null)
-            batches.set(new ArrayList<Aggregate>());
-
         AggregateCBOW cbow = new AggregateCBOW(syn0.get(), syn1.get(), syn1Neg.get(), expTable.get(), table.get(),
                         currentWord.getIndex(), windowWords, idxSyn1, codes, (int) negative, currentWord.getIndex(),
                         lookupTable.layerSize(), alpha, nextRandom.get(), vocabCache.numWords(), numLabels, trainWords,
                         inferenceVector);
         nextRandom.set(Math.abs(nextRandom.get() * 25214903917L + 11));
 
-        if (!isInference)
-            batches.get().add(cbow);
-        else
-            Nd4j.getExecutioner().exec(cbow);
-
+        return cbow;
     }
 
     public void cbow(int i, List<T> sentence, int b, AtomicLong nextRandom, double alpha, int currentWindow) {
@@ -223,16 +223,37 @@ public class SkipGram<T extends SequenceElement> implements ElementsLearningAlgo
 
     public double iterateSample(T w1, T lastWord, AtomicLong nextRandom, double alpha, boolean isInference,
                     INDArray inferenceVector) {
+        AggregateSkipGram sg = createAggregate(w1, lastWord, nextRandom, alpha, isInference, inferenceVector);
+        if (sg == null)
+            return 0.0;
+
+        if (batches.get() == null) {
+            batches.set(new ArrayList<Aggregate>());
+        }
+
+        if (!isInference)
+            batches.get().add(sg);
+        else
+            Nd4j.getExecutioner().exec(sg);
+
+        return 0.0;
+    }
+
+    /**
+     * This method creates the SkipGram op for a single sample, without executing it. The next random value is
+     * advanced, as per {@link #iterateSample(SequenceElement, SequenceElement, AtomicLong, double, boolean, INDArray)}
+     *
+     * @return the op, or null if the sample should be skipped
+     */
+    public AggregateSkipGram createAggregate(T w1, T lastWord, AtomicLong nextRandom, double alpha,
+                    boolean isInference, INDArray inferenceVector) {
         if (w1 == null || lastWord == null || (lastWord.getIndex() < 0 && !isInference)
                         || w1.getIndex() == lastWord.getIndex() || w1.getLabel().equals("STOP")
                         || lastWord.getLabel().equals("STOP") || w1.getLabel().equals("UNK")
                         || lastWord.getLabel().equals("UNK")) {
-            return 0.0;
+            return null;
         }
 
-
-        double score = 0.0;
-
         int[] idxSyn1 = null;
         int[] codes = null;
         if (configuration.isUseHierarchicSoftmax()) {
@@ -262,10 +283,6 @@ public class SkipGram<T extends SequenceElement> implements ElementsLearningAlgo
             }
         }
 
-        if (batches.get() == null) {
-            batches.set(new ArrayList<Aggregate>());
-        }
-
         //log.info("VocabWords: {}; lastWordIndex: {}; syn1neg: {}", vocabCache.numWords(), lastWord.getIndex(), syn1Neg.get().rows());
 
         AggregateSkipGram sg = new AggregateSkipGram(syn0.get(), syn1.get(), syn1Neg.get(), expTable.get(), table.get(),
@@ -273,11 +290,6 @@ public class SkipGram<T extends SequenceElement> implements ElementsLearningAlgo
                         nextRandom.get(), vocabCache.numWords(), inferenceVector);
         nextRandom.set(Math.abs(nextRandom.get() * 25214903917L + 11));
 
-        if (!isInference)
-            batches.get().add(sg);
-        else
-            Nd4j.getExecutioner().exec(sg);
-
-        return score;
+        return sg;
     }
 }
@@ -2,6 +2,7 @@ package org.deeplearning4j.models.embeddings.learning.impl.sequence;
 
 import lombok.NonNull;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.embeddings.learning.BatchedSequenceInference;
 import org.deeplearning4j.models.embeddings.learning.ElementsLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.SequenceLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.impl.elements.SkipGram;
@@ -11,6 +12,8 @@ import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.aggregates.Aggregate;
+import org.nd4j.linalg.api.ops.aggregates.impl.AggregateSkipGram;
 import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
@@ -23,7 +26,7 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * @author raver119@gmail.com
  */
-public class DBOW<T extends SequenceElement> implements SequenceLearningAlgorithm<T> {
+public class DBOW<T extends SequenceElement> implements SequenceLearningAlgorithm<T>, BatchedSequenceInference<T> {
     protected VocabCache<T> vocabCache;
     protected WeightLookupTable<T> lookupTable;
     protected VectorsConfiguration configuration;
@@ -147,10 +150,7 @@ public class DBOW<T extends SequenceElement> implements SequenceLearningAlgorith
             return null;
 
 
-        Random random = Nd4j.getRandomFactory().getNewRandomInstance(configuration.getSeed() * sequence.hashCode(),
-                        lookupTable.layerSize() + 1);
-        INDArray ret = Nd4j.rand(new int[] {1, lookupTable.layerSize()}, random).subi(0.5)
-                        .divi(lookupTable.layerSize());
+        INDArray ret = initialInferenceVector(sequence);
 
         for (int iter = 0; iter < iterations; iter++) {
             nr.set(Math.abs(nr.get() * 25214903917L + 11));
@@ -164,6 +164,83 @@ public class DBOW<T extends SequenceElement> implements SequenceLearningAlgorith
         return ret;
     }
 
+    /**
+     * This method does inference for a batch of previously unseen paragraphs. All paragraphs are processed in
+     * lock-step: the SkipGram ops for step k of every paragraph are independent of each other, and are executed as a
+     * single batch
+     */
+    @Override
+    public List<INDArray> inferSequenceBatch(List<Sequence<T>> sequences, long nextRandom, double learningRate,
+                    double minLearningRate, int iterations) {
+        int numSequences = sequences.size();
+        List<INDArray> result = new ArrayList<>(numSequences);
+        AtomicLong[] nr = new AtomicLong[numSequences];
+        for (int s = 0; s < numSequences; s++) {
+            Sequence<T> sequence = sequences.get(s);
+            if (sequence.isEmpty()) {
+                result.add(null);
+                continue;
+            }
+            result.add(initialInferenceVector(sequence));
+            nr[s] = new AtomicLong(nextRandom);
+        }
+
+        List<List<T>> sentences = new ArrayList<>(numSequences);
+        int[] steps = new int[numSequences];
+        List<Aggregate> batch = new ArrayList<>(Math.min(numSequences, configuration.getBatchSize()));
+        for (int iter = 0; iter < iterations; iter++) {
+            sentences.clear();
+            int maxSteps = 0;
+            for (int s = 0; s < numSequences; s++) {
+                Sequence<T> sequence = sequences.get(s);
+                steps[s] = 0;
+                if (nr[s] == null || sequence.getSequenceLabel() == null) {
+                    sentences.add(null);
+                    continue;
+                }
+                // same use of random numbers as inferSequence() and dbow()
+                nr[s].set(Math.abs(nr[s].get() * 25214903917L + 11));
+                List<T> sentence = skipGram.applySubsampling(sequence, nr[s]).getElements();
+                sentences.add(sentence);
+                steps[s] = sentence.size() * sequence.getSequenceLabels().size();
+                maxSteps = Math.max(maxSteps, steps[s]);
+            }
+
+            for (int k = 0; k < maxSteps; k++) {
+                for (int s = 0; s < numSequences; s++) {
+                    if (k >= steps[s])
+                        continue;
+                    List<T> sentence = sentences.get(s);
+                    T lastWord = sequences.get(s).getSequenceLabels().get(k / sentence.size());
+                    T word = sentence.get(k % sentence.size());
+
+                    AggregateSkipGram sg = skipGram.createAggregate(word, lastWord, nr[s], learningRate, true,
+                                    result.get(s));
+                    if (sg != null)
+                        batch.add(sg);
+                    if (batch.size() >= configuration.getBatchSize()) {
+                        Nd4j.getExecutioner().exec(batch);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    Nd4j.getExecutioner().exec(batch);
+                    batch.clear();
+                }
+            }
+
+            learningRate = ((learningRate - minLearningRate) / (iterations - iter)) + minLearningRate;
+        }
+
+        return result;
+    }
+
+    protected INDArray initialInferenceVector(Sequence<T> sequence) {
+        Random random = Nd4j.getRandomFactory().getNewRandomInstance(configuration.getSeed() * sequence.hashCode(),
+                        lookupTable.layerSize() + 1);
+        return Nd4j.rand(new int[] {1, lookupTable.layerSize()}, random).subi(0.5).divi(lookupTable.layerSize());
+    }
+
     @Override
     public void finish() {
         if (skipGram != null && skipGram.getBatch() != null && skipGram.getBatch().size() > 0) {
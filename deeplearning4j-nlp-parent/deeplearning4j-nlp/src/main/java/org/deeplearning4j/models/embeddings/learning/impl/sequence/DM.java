@@ -4,6 +4,7 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.learning.BatchedSequenceInference;
 import org.deeplearning4j.models.embeddings.learning.ElementsLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.SequenceLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.impl.elements.CBOW;
@@ -13,6 +14,7 @@ import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.aggregates.Aggregate;
 import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.ops.transforms.Transforms;
@@ -28,7 +30,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * @author raver119@gmail.com
  */
 @Slf4j
-public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<T> {
+public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<T>, BatchedSequenceInference<T> {
     private VocabCache<T> vocabCache;
     private WeightLookupTable<T> lookupTable;
     private VectorsConfiguration configuration;
@@ -106,18 +108,31 @@ public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<
 
     public void dm(int i, Sequence<T> sequence, int b, AtomicLong nextRandom, double alpha, List<T> labels,
                     boolean isInference, INDArray inferenceVector) {
-        int end = window * 2 + 1 - b;
-
         T currentWord = sequence.getElementByIndex(i);
 
-        List<Integer> intsList = new ArrayList<>();
+        int[] windowWords = windowWords(i, sequence, b, labels);
+
+        // pass for underlying
+        cbow.iterateSample(currentWord, windowWords, nextRandom, alpha, isInference, labels == null ? 0 : labels.size(),
+                        configuration.isTrainElementsVectors(), inferenceVector);
+
+        if (cbow.getBatch() != null && cbow.getBatch().size() >= configuration.getBatchSize()) {
+            Nd4j.getExecutioner().exec(cbow.getBatch());
+            cbow.getBatch().clear();
+        }
+    }
+
+    protected int[] windowWords(int i, Sequence<T> sequence, int b, List<T> labels) {
+        int end = window * 2 + 1 - b;
+        int count = 0;
+        int[] buffer = new int[end - b + (labels == null ? 0 : labels.size())];
         for (int a = b; a < end; a++) {
             if (a != window) {
                 int c = i - window + a;
                 if (c >= 0 && c < sequence.size()) {
                     T lastWord = sequence.getElementByIndex(c);
 
-                    intsList.add(lastWord.getIndex());
+                    buffer[count++] = lastWord.getIndex();
                 }
             }
         }
@@ -125,22 +140,10 @@ public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<
         // appending labels indexes
         if (labels != null)
             for (T label : labels) {
-                intsList.add(label.getIndex());
+                buffer[count++] = label.getIndex();
             }
 
-        int[] windowWords = new int[intsList.size()];
-        for (int x = 0; x < windowWords.length; x++) {
-            windowWords[x] = intsList.get(x);
-        }
-
-        // pass for underlying
-        cbow.iterateSample(currentWord, windowWords, nextRandom, alpha, isInference, labels == null ? 0 : labels.size(),
-                        configuration.isTrainElementsVectors(), inferenceVector);
-
-        if (cbow.getBatch() != null && cbow.getBatch().size() >= configuration.getBatchSize()) {
-            Nd4j.getExecutioner().exec(cbow.getBatch());
-            cbow.getBatch().clear();
-        }
+        return count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
     }
 
     @Override
@@ -168,10 +171,7 @@ public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<
         if (sequence.isEmpty())
             return null;
 
-        Random random = Nd4j.getRandomFactory().getNewRandomInstance(configuration.getSeed() * sequence.hashCode(),
-                        lookupTable.layerSize() + 1);
-        INDArray ret = Nd4j.rand(new int[] {1, lookupTable.layerSize()}, random).subi(0.5)
-                        .divi(lookupTable.layerSize());
+        INDArray ret = initialInferenceVector(sequence);
 
         for (int iter = 0; iter < iterations; iter++) {
             for (int i = 0; i < sequence.size(); i++) {
@@ -187,6 +187,64 @@ public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<
     }
 
 
+    /**
+     * This method does inference for a batch of previously unseen paragraphs. All paragraphs are processed in
+     * lock-step: the CBOW ops for word i of every paragraph are independent of each other, and are executed as a
+     * single batch
+     */
+    @Override
+    public List<INDArray> inferSequenceBatch(List<Sequence<T>> sequences, long nr, double learningRate,
+                    double minLearningRate, int iterations) {
+        int numSequences = sequences.size();
+        List<INDArray> result = new ArrayList<>(numSequences);
+        AtomicLong[] nextRandom = new AtomicLong[numSequences];
+        int maxLength = 0;
+        for (int s = 0; s < numSequences; s++) {
+            Sequence<T> sequence = sequences.get(s);
+            if (sequence.isEmpty()) {
+                result.add(null);
+                continue;
+            }
+            result.add(initialInferenceVector(sequence));
+            nextRandom[s] = new AtomicLong(nr);
+            maxLength = Math.max(maxLength, sequence.size());
+        }
+
+        List<Aggregate> batch = new ArrayList<>(Math.min(numSequences, configuration.getBatchSize()));
+        for (int iter = 0; iter < iterations; iter++) {
+            for (int i = 0; i < maxLength; i++) {
+                for (int s = 0; s < numSequences; s++) {
+                    Sequence<T> sequence = sequences.get(s);
+                    if (nextRandom[s] == null || i >= sequence.size())
+                        continue;
+
+                    nextRandom[s].set(Math.abs(nextRandom[s].get() * 25214903917L + 11));
+                    int b = (int) nextRandom[s].get() % window;
+                    batch.add(cbow.createAggregate(sequence.getElementByIndex(i), windowWords(i, sequence, b, null),
+                                    nextRandom[s], learningRate, 0, configuration.isTrainElementsVectors(),
+                                    result.get(s)));
+                    if (batch.size() >= configuration.getBatchSize()) {
+                        Nd4j.getExecutioner().exec(batch);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    Nd4j.getExecutioner().exec(batch);
+                    batch.clear();
+                }
+            }
+            learningRate = ((learningRate - minLearningRate) / (iterations - iter)) + minLearningRate;
+        }
+
+        return result;
+    }
+
+    protected INDArray initialInferenceVector(Sequence<T> sequence) {
+        Random random = Nd4j.getRandomFactory().getNewRandomInstance(configuration.getSeed() * sequence.hashCode(),
+                        lookupTable.layerSize() + 1);
+        return Nd4j.rand(new int[] {1, lookupTable.layerSize()}, random).subi(0.5).divi(lookupTable.layerSize());
+    }
+
     @Override
     public void finish() {
         if (cbow != null && cbow.getBatch() != null && cbow.getBatch().size() > 0) {
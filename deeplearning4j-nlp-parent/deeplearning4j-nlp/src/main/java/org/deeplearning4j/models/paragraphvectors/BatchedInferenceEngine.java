@@ -0,0 +1,138 @@
+package org.deeplearning4j.models.paragraphvectors;
+
+import lombok.NonNull;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Inference engine behind {@link ParagraphVectors#inferVectorBatched(String)}: documents are submitted to a bounded
+ * queue, and worker threads take them off the queue in batches of up to maxBatchSize documents. Each batch is
+ * tokenized and inferred at once with {@link ParagraphVectors#inferVectors(List, double, double, int)}.<br>
+ * Submitting blocks while the queue is full, which limits the number of documents (and results) held in memory.
+ */
+class BatchedInferenceEngine {
+
+    private final ParagraphVectors vectors;
+    private final BlockingQueue<Request<?>> queue;
+    private final int maxBatchSize;
+    private final List<Thread> workers = new ArrayList<>();
+
+    /**
+     * A single document to infer the vector for
+     */
+    abstract static class Request<V> implements Callable<V> {
+        private final String text;
+        private final FutureTask<V> future = new FutureTask<>(this);
+        private INDArray vector;
+        private RuntimeException error;
+
+        Request(@NonNull String text) {
+            this.text = text;
+        }
+
+        abstract V toResult(INDArray vector);
+
+        Future<V> getFuture() {
+            return future;
+        }
+
+        @Override
+        public V call() {
+            if (error != null)
+                throw error;
+            return toResult(vector);
+        }
+
+        private void complete(INDArray vector, RuntimeException error) {
+            this.vector = vector;
+            this.error = error;
+            future.run();
+        }
+    }
+
+    BatchedInferenceEngine(@NonNull ParagraphVectors vectors, int numWorkers, int queueCapacity, int maxBatchSize) {
+        this.vectors = vectors;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+
+        for (int i = 0; i < numWorkers; i++) {
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    List<Request<?>> batch = new ArrayList<>(BatchedInferenceEngine.this.maxBatchSize);
+                    while (true) {
+                        try {
+                            batch.add(queue.take());
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        queue.drainTo(batch, BatchedInferenceEngine.this.maxBatchSize - 1);
+                        process(batch);
+                        batch.clear();
+                    }
+                }
+            });
+            t.setName("ParagraphVectors inference thread " + i);
+            t.setDaemon(true);
+            t.start();
+            workers.add(t);
+        }
+    }
+
+    /**
+     * Submit a document for inference. Blocks while the queue is full
+     */
+    <V> Future<V> submit(Request<V> request) {
+        try {
+            queue.put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to submit document for inference", e);
+        }
+        return request.getFuture();
+    }
+
+    void shutdown() {
+        for (Thread t : workers) {
+            t.interrupt();
+        }
+    }
+
+    private void process(List<Request<?>> batch) {
+        //Tokenization of each document is independent; documents without known words fail individually
+        List<Request<?>> valid = new ArrayList<>(batch.size());
+        List<List<VocabWord>> documents = new ArrayList<>(batch.size());
+        for (Request<?> request : batch) {
+            try {
+                List<VocabWord> document = vectors.documentAsVocabWords(request.text);
+                if (document.isEmpty())
+                    throw new ND4JIllegalStateException("Text passed for inference has no matches in model vocabulary.");
+                valid.add(request);
+                documents.add(document);
+            } catch (RuntimeException e) {
+                request.complete(null, e);
+            }
+        }
+        if (valid.isEmpty())
+            return;
+
+        List<INDArray> results;
+        try {
+            results = vectors.inferVectors(documents);
+        } catch (RuntimeException e) {
+            for (Request<?> request : valid) {
+                request.complete(null, e);
+            }
+            return;
+        }
+
+        for (int i = 0; i < valid.size(); i++) {
+            valid.get(i).complete(results.get(i), null);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.deeplearning4j.berkeley.Counter;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.learning.BatchedSequenceInference;
 import org.deeplearning4j.models.embeddings.learning.ElementsLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.SequenceLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.impl.sequence.DM;
@@ -57,25 +58,29 @@ public class ParagraphVectors extends Word2Vec {
     protected boolean normalizedLabels = false;
 
     protected transient final Object inferenceLocker = new Object();
-    protected transient ExecutorService inferenceExecutor;
+    protected transient BatchedInferenceEngine inferenceEngine;
     protected transient AtomicLong countSubmitted;
     protected transient AtomicLong countFinished;
 
+    /**
+     * Maximum number of documents waiting for inference in {@link #inferVectorBatched(String)}
+     */
+    protected static final int INFERENCE_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Maximum number of documents inferred together by a single inference thread
+     */
+    protected static final int INFERENCE_BATCH_SIZE = 128;
+
     protected ParagraphVectors() {
         super();
     }
 
     protected synchronized void initInference() {
-        if (countSubmitted == null || countFinished == null || inferenceExecutor == null) {
-            inferenceExecutor = Executors.newFixedThreadPool(
-                            Math.max(Runtime.getRuntime().availableProcessors() - 2, 2), new ThreadFactory() {
-                                public Thread newThread(Runnable r) {
-                                    Thread t = Executors.defaultThreadFactory().newThread(r);
-                                    t.setName("ParagraphVectors inference thread");
-                                    t.setDaemon(true);
-                                    return t;
-                                }
-                            });
+        if (countSubmitted == null || countFinished == null || inferenceEngine == null) {
+            int numThreads = Math.max(Runtime.getRuntime().availableProcessors() - 2, 2);
+            inferenceEngine = new BatchedInferenceEngine(this, numThreads, INFERENCE_QUEUE_CAPACITY,
+                            INFERENCE_BATCH_SIZE);
             countSubmitted = new AtomicLong(0);
             countFinished = new AtomicLong(0);
         }
@@ -167,18 +172,32 @@ public class ParagraphVectors extends Word2Vec {
         if (this.vocab == null || this.vocab.numWords() == 0)
             reassignExistingModel();
 
+        List<VocabWord> document = documentAsVocabWords(text);
+
+        if (document.isEmpty())
+            throw new ND4JIllegalStateException("Text passed for inference has no matches in model vocabulary.");
+
+        return inferVector(document, learningRate, minLearningRate, iterations);
+    }
+
+    /**
+     * This method applies the tokenizer to the text, and returns the tokens that are in the vocabulary
+     *
+     * @param text
+     * @return
+     */
+    protected List<VocabWord> documentAsVocabWords(String text) {
+        if (tokenizerFactory == null)
+            throw new IllegalStateException("TokenizerFactory should be defined, prior to predict() call");
+
         List<String> tokens = tokenizerFactory.create(text).getTokens();
-        List<VocabWord> document = new ArrayList<>();
+        List<VocabWord> document = new ArrayList<>(tokens.size());
         for (String token : tokens) {
             if (vocab.containsWord(token)) {
                 document.add(vocab.wordFor(token));
             }
         }
-
-        if (document.isEmpty())
-            throw new ND4JIllegalStateException("Text passed for inference has no matches in model vocabulary.");
-
-        return inferVector(document, learningRate, minLearningRate, iterations);
+        return document;
     }
 
     @SuppressWarnings("unchecked")
@@ -213,38 +232,85 @@ public class ParagraphVectors extends Word2Vec {
     public INDArray inferVector(@NonNull List<VocabWord> document, double learningRate, double minLearningRate,
                     int iterations) {
 
-        SequenceLearningAlgorithm<VocabWord> learner = sequenceLearningAlgorithm;
+        SequenceLearningAlgorithm<VocabWord> learner = inferenceLearner();
+
+        if (document.isEmpty())
+            throw new ND4JIllegalStateException("Impossible to apply inference to empty list of words");
+
+
+        Sequence<VocabWord> sequence = inferenceSequence(document);
+
+        initLearners();
+
+        INDArray inf = learner.inferSequence(sequence, seed, learningRate, minLearningRate, iterations);
+
+        return inf;
+    }
+
+    /**
+     * This method calculates inferred vectors for a batch of documents at once. For the PV-DM and PV-DBOW learners,
+     * the inference steps of all documents are executed together; results are the same as calling
+     * {@link #inferVector(List, double, double, int)} for each document
+     *
+     * @param documents
+     * @return inferred vectors, in the same order as the documents
+     */
+    public List<INDArray> inferVectors(@NonNull List<List<VocabWord>> documents, double learningRate,
+                    double minLearningRate, int iterations) {
+        SequenceLearningAlgorithm<VocabWord> learner = inferenceLearner();
+
+        List<Sequence<VocabWord>> sequences = new ArrayList<>(documents.size());
+        for (List<VocabWord> document : documents) {
+            if (document.isEmpty())
+                throw new ND4JIllegalStateException("Impossible to apply inference to empty list of words");
+            sequences.add(inferenceSequence(document));
+        }
+
+        initLearners();
+
+        if (learner instanceof BatchedSequenceInference) {
+            return ((BatchedSequenceInference<VocabWord>) learner).inferSequenceBatch(sequences, seed, learningRate,
+                            minLearningRate, iterations);
+        }
+
+        List<INDArray> result = new ArrayList<>(sequences.size());
+        for (Sequence<VocabWord> sequence : sequences) {
+            result.add(learner.inferSequence(sequence, seed, learningRate, minLearningRate, iterations));
+        }
+        return result;
+    }
 
-        if (learner == null) {
+    /**
+     * This method calculates inferred vectors for a batch of documents, with default parameters for learning rate
+     * and iterations
+     *
+     * @param documents
+     * @return inferred vectors, in the same order as the documents
+     */
+    public List<INDArray> inferVectors(@NonNull List<List<VocabWord>> documents) {
+        return inferVectors(documents, this.learningRate.get(), this.minLearningRate,
+                        this.numEpochs * this.numIterations);
+    }
+
+    private SequenceLearningAlgorithm<VocabWord> inferenceLearner() {
+        if (sequenceLearningAlgorithm == null) {
             synchronized (this) {
                 if (sequenceLearningAlgorithm == null) {
                     log.info("Creating new PV-DM learner...");
-                    learner = new DM<VocabWord>();
+                    SequenceLearningAlgorithm<VocabWord> learner = new DM<VocabWord>();
                     learner.configure(vocab, lookupTable, configuration);
                     sequenceLearningAlgorithm = learner;
-                } else {
-                    learner = sequenceLearningAlgorithm;
                 }
             }
         }
+        return sequenceLearningAlgorithm;
+    }
 
-        learner = sequenceLearningAlgorithm;
-
-
-
-        if (document.isEmpty())
-            throw new ND4JIllegalStateException("Impossible to apply inference to empty list of words");
-
-
+    private static Sequence<VocabWord> inferenceSequence(List<VocabWord> document) {
         Sequence<VocabWord> sequence = new Sequence<>();
         sequence.addElements(document);
         sequence.setSequenceLabel(new VocabWord(1.0, String.valueOf(new Random().nextInt())));
-
-        initLearners();
-
-        INDArray inf = learner.inferSequence(sequence, seed, learningRate, minLearningRate, iterations);
-
-        return inf;
+        return sequence;
     }
 
     /**
@@ -287,23 +353,23 @@ public class ParagraphVectors extends Word2Vec {
      * @param document
      * @return
      */
-    public Future<Pair<String, INDArray>> inferVectorBatched(@NonNull LabelledDocument document) {
+    public Future<Pair<String, INDArray>> inferVectorBatched(@NonNull final LabelledDocument document) {
         if (countSubmitted == null)
             initInference();
 
         if (this.vocab == null || this.vocab.numWords() == 0)
             reassignExistingModel();
 
-        // we block execution until queued amount of documents gets below acceptable level, to avoid memory exhaust
-        while (countSubmitted.get() - countFinished.get() > 1024) {
-            try {
-                Thread.sleep(50);
-            } catch (Exception e) {
-            }
-        }
-
-        InferenceCallable callable = new InferenceCallable(vocab, tokenizerFactory, document);
-        Future<Pair<String, INDArray>> future = inferenceExecutor.submit(callable);
+        // submission blocks while the inference queue is full, to avoid memory exhaust
+        Future<Pair<String, INDArray>> future =
+                        inferenceEngine.submit(new BatchedInferenceEngine.Request<Pair<String, INDArray>>(
+                                        document.getContent()) {
+                            @Override
+                            Pair<String, INDArray> toResult(INDArray vector) {
+                                countFinished.incrementAndGet();
+                                return Pair.makePair(document.getId(), vector);
+                            }
+                        });
         countSubmitted.incrementAndGet();
 
         return future;
@@ -324,16 +390,14 @@ public class ParagraphVectors extends Word2Vec {
         if (this.vocab == null || this.vocab.numWords() == 0)
             reassignExistingModel();
 
-        // we block execution until queued amount of documents gets below acceptable level, to avoid memory exhaust
-        while (countSubmitted.get() - countFinished.get() > 1024) {
-            try {
-                Thread.sleep(50);
-            } catch (Exception e) {
+        // submission blocks while the inference queue is full, to avoid memory exhaust
+        Future<INDArray> future = inferenceEngine.submit(new BatchedInferenceEngine.Request<INDArray>(document) {
+            @Override
+            INDArray toResult(INDArray vector) {
+                countFinished.incrementAndGet();
+                return vector;
             }
-        }
-
-        BlindInferenceCallable callable = new BlindInferenceCallable(vocab, tokenizerFactory, document);
-        Future<INDArray> future = inferenceExecutor.submit(callable);
+        });
         countSubmitted.incrementAndGet();
 
         return future;
@@ -345,35 +409,21 @@ public class ParagraphVectors extends Word2Vec {
      * @return INDArrays in the same order as input texts
      */
     public List<INDArray> inferVectorBatched(@NonNull List<String> documents) {
-        if (countSubmitted == null)
-            initInference();
-
-        if (this.vocab == null || this.vocab.numWords() == 0)
-            reassignExistingModel();
-
-        List<Future<INDArray>> futuresList = new ArrayList<>();
-        List<INDArray> results = new ArrayList<>();
-
-        final AtomicLong flag = new AtomicLong(0);
-
-        for (int i = 0; i < documents.size(); i++) {
-            BlindInferenceCallable callable =
-                            new BlindInferenceCallable(vocab, tokenizerFactory, documents.get(i), flag);
-
-            futuresList.add(inferenceExecutor.submit(callable));
+        List<Future<INDArray>> futuresList = new ArrayList<>(documents.size());
+        for (String document : documents) {
+            futuresList.add(inferVectorBatched(document));
         }
 
-        for (int i = 0; i < documents.size(); i++) {
-            Future<INDArray> future = futuresList.get(i);
-            while (!future.isDone()) {
-                try {
-                    Thread.sleep(1);
-                } catch (Exception e) {
-                }
-            }
+        List<INDArray> results = new ArrayList<>(documents.size());
+        for (Future<INDArray> future : futuresList) {
             try {
                 results.add(future.get());
-            } catch (Exception e) {
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 throw new RuntimeException(e);
             }
         }
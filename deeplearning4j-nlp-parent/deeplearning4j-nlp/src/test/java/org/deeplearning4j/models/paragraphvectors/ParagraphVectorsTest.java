@@ -23,6 +23,7 @@ import lombok.NonNull;
 import org.datavec.api.util.ClassPathResource;
 import org.deeplearning4j.berkeley.Iterators;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.learning.SequenceLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.impl.elements.CBOW;
 import org.deeplearning4j.models.embeddings.learning.impl.elements.SkipGram;
 import org.deeplearning4j.models.embeddings.learning.impl.sequence.DBOW;
@@ -61,6 +62,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -931,6 +933,70 @@ public class ParagraphVectorsTest {
         log.info("vec1/vec2: {}", Transforms.cosineSim(vec1, vec2));
     }
 
+    @Test
+    public void testBatchedInference() throws Exception {
+        ClassPathResource resource = new ClassPathResource("/big/raw_sentences.txt");
+        File file = resource.getFile();
+
+        TokenizerFactory t = new DefaultTokenizerFactory();
+        t.setTokenPreProcessor(new CommonPreprocessor());
+
+        Word2Vec wordVectors = new Word2Vec.Builder().minWordFrequency(1).batchSize(250).iterations(1).epochs(1)
+                        .learningRate(0.025).layerSize(100).minLearningRate(0.001)
+                        .elementsLearningAlgorithm(new SkipGram<VocabWord>()).useHierarchicSoftmax(true).windowSize(5)
+                        .iterate(new BasicLineIterator(file)).tokenizerFactory(t).build();
+        wordVectors.fit();
+
+        List<String> documents = new ArrayList<>();
+        SentenceIterator iter = new BasicLineIterator(file);
+        while (iter.hasNext() && documents.size() < 2000) {
+            documents.add(iter.nextSentence());
+        }
+
+        for (SequenceLearningAlgorithm<VocabWord> algorithm : Arrays.<SequenceLearningAlgorithm<VocabWord>>asList(
+                        new DM<VocabWord>(), new DBOW<VocabWord>())) {
+            ParagraphVectors pv = new ParagraphVectors.Builder().tokenizerFactory(t).iterations(5)
+                            .useHierarchicSoftmax(true).trainWordVectors(true).useExistingWordVectors(wordVectors)
+                            .negativeSample(0).sequenceLearningAlgorithm(algorithm).build();
+
+            //Batched inference should give the same vectors as one document at a time
+            long start = System.nanoTime();
+            List<INDArray> single = new ArrayList<>();
+            for (String document : documents) {
+                single.add(pv.inferVector(document));
+            }
+            long singleTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<INDArray> batched = pv.inferVectorBatched(documents);
+            long batchedTime = System.nanoTime() - start;
+
+            assertEquals(documents.size(), batched.size());
+            for (int i = 0; i < documents.size(); i++) {
+                assertEquals(documents.get(i), 1.0, Transforms.cosineSim(single.get(i), batched.get(i)), 1e-3);
+            }
+
+            //Latency: time from submission until the result is retrieved (in submission order)
+            long[] submitted = new long[documents.size()];
+            List<Future<INDArray>> futures = new ArrayList<>();
+            for (int i = 0; i < documents.size(); i++) {
+                submitted[i] = System.nanoTime();
+                futures.add(pv.inferVectorBatched(documents.get(i)));
+            }
+            long[] latency = new long[documents.size()];
+            for (int i = 0; i < documents.size(); i++) {
+                futures.get(i).get();
+                latency[i] = System.nanoTime() - submitted[i];
+            }
+            Arrays.sort(latency);
+
+            log.info("{}: single docs/sec: {}, batched docs/sec: {}, p50 latency: {} ms, p99 latency: {} ms",
+                            algorithm.getCodeName(), documents.size() * 1e9 / singleTime,
+                            documents.size() * 1e9 / batchedTime, latency[latency.length / 2] / 1e6,
+                            latency[(int) (latency.length * 0.99)] / 1e6);
+        }
+    }
+
     @Ignore
     @Test
     public void testGoogleModelForInference() throws Exception {
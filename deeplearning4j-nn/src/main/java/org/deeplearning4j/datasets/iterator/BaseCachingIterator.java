@@ -0,0 +1,195 @@
+package org.deeplearning4j.datasets.iterator;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Common implementation for {@link CachingDataSetIterator} and {@link CachingMultiDataSetIterator}.<br>
+ * The first epoch is read from the source iterator and written to the {@link MinibatchCache}; once the source has
+ * been fully consumed, later epochs are served from the cache. If writing fails, or the cache would exceed the
+ * maximum cache size, the source iterator is used for all epochs.
+ *
+ * @param <T> DataSet or MultiDataSet
+ */
+abstract class BaseCachingIterator<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(BaseCachingIterator.class);
+
+    protected final MinibatchCache cache;
+    protected final boolean shuffle;
+    private final Random rng;
+
+    private boolean initialized = false;
+    private boolean cacheable = true;
+    private boolean writing = false;
+    private int batchCount;
+    //Order in which the cached minibatches are returned, null if reading from the source
+    private int[] order;
+    private int cursor;
+
+    protected BaseCachingIterator(MinibatchCache cache, boolean shuffle, long seed) {
+        this.cache = cache;
+        this.shuffle = shuffle;
+        this.rng = new Random(seed);
+    }
+
+    protected abstract boolean sourceHasNext();
+
+    protected abstract T sourceNext();
+
+    protected abstract void sourceReset();
+
+    protected abstract boolean sourceResetSupported();
+
+    protected abstract INDArray[][] toArrays(T next);
+
+    protected abstract T fromArrays(INDArray[][] arrays);
+
+    /**
+     * @return True if the current epoch is being served from the cache
+     */
+    public boolean isReadingFromCache() {
+        init();
+        return order != null;
+    }
+
+    /**
+     * @return True if a new epoch can be started: either the source can be reset, or the cache is complete
+     */
+    protected boolean canReset() {
+        return sourceResetSupported() || (cacheable && !writing && cache.numCachedBatches() >= 0);
+    }
+
+    protected boolean hasNextBatch() {
+        init();
+        if (order != null)
+            return cursor < order.length;
+        return sourceHasNext();
+    }
+
+    protected T nextBatch() {
+        init();
+        if (order != null) {
+            if (cursor >= order.length)
+                throw new NoSuchElementException();
+            try {
+                return fromArrays(cache.read(order[cursor++]));
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading minibatch from cache", e);
+            }
+        }
+
+        T next = sourceNext();
+        if (writing) {
+            try {
+                if (cache.write(batchCount, toArrays(next))) {
+                    batchCount++;
+                    if (!sourceHasNext()) {
+                        cache.complete(batchCount);
+                        writing = false;
+                    }
+                } else {
+                    log.warn("Minibatch cache would exceed the maximum cache size; not caching minibatches");
+                    abortWriting();
+                }
+            } catch (IOException e) {
+                log.warn("Error writing minibatch cache; not caching minibatches", e);
+                abortWriting();
+            }
+        }
+        return next;
+    }
+
+    protected void resetEpoch() {
+        if (writing) {
+            //Epoch was not completed: partial caches are not used
+            cache.delete();
+            writing = false;
+        }
+        initialized = false;
+        if (!startFromCache()) {
+            sourceReset();
+            startWriting();
+        }
+        initialized = true;
+    }
+
+    private void init() {
+        if (initialized)
+            return;
+        if (!startFromCache())
+            startWriting();
+        initialized = true;
+    }
+
+    /**
+     * Start a new epoch from the cache if a complete cache exists
+     *
+     * @return True if the epoch is served from the cache
+     */
+    private boolean startFromCache() {
+        order = null;
+        cursor = 0;
+        if (!cacheable)
+            return false;
+
+        int numCached = cache.numCachedBatches();
+        if (numCached < 0)
+            return false;
+
+        order = new int[numCached];
+        for (int i = 0; i < numCached; i++)
+            order[i] = i;
+        if (shuffle) {
+            for (int i = numCached - 1; i > 0; i--) {
+                int j = rng.nextInt(i + 1);
+                int temp = order[i];
+                order[i] = order[j];
+                order[j] = temp;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prepare for writing the cache while the current epoch is read from the source, if applicable. The source should
+     * be at the start of an epoch
+     */
+    private void startWriting() {
+        if (!cacheable)
+            return;
+
+        if (!sourceHasNext()) {
+            if (!sourceResetSupported()) {
+                //Source has already been consumed and cannot be reset: nothing to cache
+                cacheable = false;
+                return;
+            }
+            sourceReset();
+        }
+        try {
+            cache.startWriting();
+            batchCount = 0;
+            if (sourceHasNext()) {
+                writing = true;
+            } else {
+                //Empty source: there will be no call to nextBatch() to complete the cache
+                cache.complete(0);
+            }
+        } catch (IOException e) {
+            log.warn("Could not create minibatch cache; not caching minibatches", e);
+            abortWriting();
+        }
+    }
+
+    private void abortWriting() {
+        writing = false;
+        cacheable = false;
+        cache.delete();
+    }
+}
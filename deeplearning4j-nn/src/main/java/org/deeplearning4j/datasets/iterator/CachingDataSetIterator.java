@@ -0,0 +1,168 @@
+package org.deeplearning4j.datasets.iterator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * DataSetIterator that caches the minibatches of another iterator on local disk, so that the source iterator (and
+ * any record reader parsing, transforms, image decoding and normalization it does) is only used for the first epoch.
+ * Later epochs are served from memory mapped cache files; see {@link MinibatchCache} for details of the cache.<br>
+ * Optionally, the order of the minibatches can be shuffled for each epoch that is served from the cache.
+ * <p>
+ * The cache key identifies the source data: a cache written with the same key in the same directory (for example,
+ * by a previous run) is reused without using the source iterator at all. The key should therefore change whenever
+ * the source data or its configuration changes.<br>
+ * Any preprocessor set on the source iterator is applied before caching; a preprocessor set on this iterator is
+ * applied after reading from the cache. Example metadata is not cached.
+ */
+public class CachingDataSetIterator extends BaseCachingIterator<DataSet> implements DataSetIterator {
+
+    public static final long DEFAULT_MAX_CACHE_BYTES = 10L * 1024 * 1024 * 1024;
+
+    private final DataSetIterator source;
+    @Getter
+    private DataSetPreProcessor preProcessor;
+
+    /**
+     * Cache without shuffling, with a maximum cache size of {@link #DEFAULT_MAX_CACHE_BYTES}
+     *
+     * @param source   Source iterator. Should be at the start of an epoch
+     * @param cacheDir Root directory for the cache
+     * @param cacheKey Key identifying the source data and its configuration
+     */
+    public CachingDataSetIterator(@NonNull DataSetIterator source, @NonNull File cacheDir, @NonNull String cacheKey) {
+        this(source, cacheDir, cacheKey, false, 0, DEFAULT_MAX_CACHE_BYTES);
+    }
+
+    /**
+     * @param source        Source iterator. Should be at the start of an epoch
+     * @param cacheDir      Root directory for the cache
+     * @param cacheKey      Key identifying the source data and its configuration
+     * @param shuffle       If true: shuffle the order of the minibatches for epochs served from the cache
+     * @param seed          Seed for shuffling
+     * @param maxCacheBytes Maximum total size of the caches in the cache directory. Least recently used caches are
+     *                      deleted to stay within this size
+     */
+    public CachingDataSetIterator(@NonNull DataSetIterator source, @NonNull File cacheDir, @NonNull String cacheKey,
+                    boolean shuffle, long seed, long maxCacheBytes) {
+        super(new MinibatchCache(cacheDir, cacheKey, maxCacheBytes), shuffle, seed);
+        this.source = source;
+    }
+
+    @Override
+    protected boolean sourceHasNext() {
+        return source.hasNext();
+    }
+
+    @Override
+    protected DataSet sourceNext() {
+        return source.next();
+    }
+
+    @Override
+    protected void sourceReset() {
+        source.reset();
+    }
+
+    @Override
+    protected boolean sourceResetSupported() {
+        return source.resetSupported();
+    }
+
+    @Override
+    protected INDArray[][] toArrays(DataSet next) {
+        return new INDArray[][] {{next.getFeatures(), next.getLabels(), next.getFeaturesMaskArray(),
+                        next.getLabelsMaskArray()}};
+    }
+
+    @Override
+    protected DataSet fromArrays(INDArray[][] arrays) {
+        INDArray[] a = arrays[0];
+        return new DataSet(a[0], a[1], a[2], a[3]);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNextBatch();
+    }
+
+    @Override
+    public DataSet next() {
+        DataSet ds = nextBatch();
+        if (preProcessor != null)
+            preProcessor.preProcess(ds);
+        return ds;
+    }
+
+    @Override
+    public DataSet next(int num) {
+        throw new UnsupportedOperationException("next(int) isn't supported");
+    }
+
+    @Override
+    public int totalExamples() {
+        return source.totalExamples();
+    }
+
+    @Override
+    public int inputColumns() {
+        return source.inputColumns();
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return source.totalOutcomes();
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return canReset();
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        resetEpoch();
+    }
+
+    @Override
+    public int batch() {
+        return source.batch();
+    }
+
+    @Override
+    public int cursor() {
+        return source.cursor();
+    }
+
+    @Override
+    public int numExamples() {
+        return source.numExamples();
+    }
+
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return source.getLabels();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,120 @@
+package org.deeplearning4j.datasets.iterator;
+
+import lombok.NonNull;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+
+import java.io.File;
+
+/**
+ * MultiDataSetIterator that caches the minibatches of another iterator on local disk, so that the source iterator
+ * is only used for the first epoch. See {@link CachingDataSetIterator} for details.
+ */
+public class CachingMultiDataSetIterator extends BaseCachingIterator<MultiDataSet> implements MultiDataSetIterator {
+
+    private final MultiDataSetIterator source;
+    private MultiDataSetPreProcessor preProcessor;
+
+    /**
+     * Cache without shuffling, with a maximum cache size of {@link CachingDataSetIterator#DEFAULT_MAX_CACHE_BYTES}
+     *
+     * @param source   Source iterator. Should be at the start of an epoch
+     * @param cacheDir Root directory for the cache
+     * @param cacheKey Key identifying the source data and its configuration
+     */
+    public CachingMultiDataSetIterator(@NonNull MultiDataSetIterator source, @NonNull File cacheDir,
+                    @NonNull String cacheKey) {
+        this(source, cacheDir, cacheKey, false, 0, CachingDataSetIterator.DEFAULT_MAX_CACHE_BYTES);
+    }
+
+    /**
+     * @param source        Source iterator. Should be at the start of an epoch
+     * @param cacheDir      Root directory for the cache
+     * @param cacheKey      Key identifying the source data and its configuration
+     * @param shuffle       If true: shuffle the order of the minibatches for epochs served from the cache
+     * @param seed          Seed for shuffling
+     * @param maxCacheBytes Maximum total size of the caches in the cache directory. Least recently used caches are
+     *                      deleted to stay within this size
+     */
+    public CachingMultiDataSetIterator(@NonNull MultiDataSetIterator source, @NonNull File cacheDir,
+                    @NonNull String cacheKey, boolean shuffle, long seed, long maxCacheBytes) {
+        super(new MinibatchCache(cacheDir, cacheKey, maxCacheBytes), shuffle, seed);
+        this.source = source;
+    }
+
+    @Override
+    protected boolean sourceHasNext() {
+        return source.hasNext();
+    }
+
+    @Override
+    protected MultiDataSet sourceNext() {
+        return source.next();
+    }
+
+    @Override
+    protected void sourceReset() {
+        source.reset();
+    }
+
+    @Override
+    protected boolean sourceResetSupported() {
+        return source.resetSupported();
+    }
+
+    @Override
+    protected INDArray[][] toArrays(MultiDataSet next) {
+        return new INDArray[][] {next.getFeatures(), next.getLabels(), next.getFeaturesMaskArrays(),
+                        next.getLabelsMaskArrays()};
+    }
+
+    @Override
+    protected MultiDataSet fromArrays(INDArray[][] arrays) {
+        return new org.nd4j.linalg.dataset.MultiDataSet(arrays[0], arrays[1], arrays[2], arrays[3]);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNextBatch();
+    }
+
+    @Override
+    public MultiDataSet next() {
+        MultiDataSet mds = nextBatch();
+        if (preProcessor != null)
+            preProcessor.preProcess(mds);
+        return mds;
+    }
+
+    @Override
+    public MultiDataSet next(int num) {
+        throw new UnsupportedOperationException("next(int) isn't supported");
+    }
+
+    @Override
+    public void setPreProcessor(MultiDataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return canReset();
+    }
+
+    @Override
+    public boolean asyncSupported() {
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        resetEpoch();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
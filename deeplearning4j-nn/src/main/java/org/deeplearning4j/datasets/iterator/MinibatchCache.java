@@ -0,0 +1,307 @@
+package org.deeplearning4j.datasets.iterator;
+
+import lombok.NonNull;
+import org.apache.commons.io.FileUtils;
+import org.deeplearning4j.util.MappedArrayUtils;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * On-disk cache of minibatches, used by {@link CachingDataSetIterator} and {@link CachingMultiDataSetIterator}.<br>
+ * Each minibatch is stored as a set of groups of (possibly null) arrays, for example features, labels and mask
+ * arrays, in one file per minibatch. Array contents are stored in the Nd4j data type and native byte order, aligned
+ * to {@link #ALIGNMENT} bytes, so that they can be memory mapped (copy on write) rather than deserialized when read.
+ * <p>
+ * Caches for different upstream data (different cache keys) are stored in separate subdirectories of the cache root
+ * directory. The cache key should describe everything that affects the minibatches: the source data, the batch size,
+ * any transforms and normalization. When a cache is completed, the least recently used caches in the root directory
+ * are deleted until the total size of the root directory is at most the maximum cache size.
+ */
+public class MinibatchCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MinibatchCache.class);
+
+    public static final int ALIGNMENT = MappedArrayUtils.ALIGNMENT;
+    private static final byte[] MAGIC = "DL4JBTCH".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final String COMPLETE_FILE = "complete.txt";
+    private static final String BATCH_FILE_PREFIX = "batch_";
+
+    private final File rootDir;
+    private final File cacheDir;
+    private final String cacheKey;
+    private final long maxCacheBytes;
+    private long bytesWritten;
+
+    /**
+     * @param rootDir       Cache root directory. May be shared between caches with different keys
+     * @param cacheKey      Key describing the upstream data; a cache is only reused if its key is equal
+     * @param maxCacheBytes Maximum total size of all caches in the root directory, in bytes
+     */
+    public MinibatchCache(@NonNull File rootDir, @NonNull String cacheKey, long maxCacheBytes) {
+        if (maxCacheBytes <= 0)
+            throw new IllegalArgumentException("Invalid maximum cache size: " + maxCacheBytes + " (must be > 0)");
+        this.rootDir = rootDir;
+        this.cacheKey = cacheKey;
+        this.cacheDir = new File(rootDir, hash(cacheKey));
+        this.maxCacheBytes = maxCacheBytes;
+    }
+
+    /**
+     * @return Number of cached minibatches, or -1 if there is no complete cache for this key
+     */
+    public int numCachedBatches() {
+        File f = new File(cacheDir, COMPLETE_FILE);
+        if (!f.exists())
+            return -1;
+        try {
+            String[] lines = FileUtils.readFileToString(f, StandardCharsets.UTF_8).split("\n", 2);
+            if (lines.length < 2 || !cacheKey.equals(lines[1]))
+                return -1; //Hash collision, or cache written by something else
+            //Mark as recently used, for eviction
+            cacheDir.setLastModified(System.currentTimeMillis());
+            return Integer.parseInt(lines[0]);
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Could not read minibatch cache at {}", cacheDir, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Delete any existing cache contents for this key, and prepare for writing minibatches
+     */
+    public void startWriting() throws IOException {
+        delete();
+        if (!cacheDir.mkdirs())
+            throw new IOException("Could not create minibatch cache directory " + cacheDir);
+        bytesWritten = 0;
+    }
+
+    /**
+     * Write one minibatch
+     *
+     * @param batchIdx Index of the minibatch
+     * @param groups   Groups of arrays. Groups and arrays may be null
+     * @return False if the minibatch was not written because the cache would exceed the maximum cache size
+     */
+    public boolean write(int batchIdx, INDArray[][] groups) throws IOException {
+        DataBuffer.Type dataType = MappedArrayUtils.storageType();
+        int elementSize = MappedArrayUtils.elementSize(dataType);
+
+        //Header: magic, version, data type, number of groups; then per group the number of arrays (-1 for null) and
+        // per array: present flag, order, rank, shape, data offset
+        int headerSize = MAGIC.length + 3 * 4;
+        for (INDArray[] group : groups) {
+            headerSize += 4;
+            if (group == null)
+                continue;
+            for (INDArray arr : group) {
+                headerSize += 1;
+                if (arr != null)
+                    headerSize += 1 + 4 + 4 * arr.rank() + 8;
+            }
+        }
+
+        long[] offsets = new long[countArrays(groups)];
+        long offset = MappedArrayUtils.align(headerSize);
+        int k = 0;
+        for (INDArray[] group : groups) {
+            if (group == null)
+                continue;
+            for (INDArray arr : group) {
+                if (arr != null) {
+                    offsets[k] = offset;
+                    offset = MappedArrayUtils.align(offset + (long) arr.length() * elementSize);
+                }
+                k++;
+            }
+        }
+
+        if (bytesWritten + offset > maxCacheBytes)
+            return false;
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.nativeOrder());
+        header.put(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(dataType == DataBuffer.Type.DOUBLE ? 1 : 0);
+        header.putInt(groups.length);
+        k = 0;
+        for (INDArray[] group : groups) {
+            header.putInt(group == null ? -1 : group.length);
+            if (group == null)
+                continue;
+            for (INDArray arr : group) {
+                header.put((byte) (arr == null ? 0 : 1));
+                if (arr != null) {
+                    header.put((byte) arr.ordering());
+                    header.putInt(arr.rank());
+                    for (int d : arr.shape())
+                        header.putInt(d);
+                    header.putLong(offsets[k]);
+                }
+                k++;
+            }
+        }
+        header.flip();
+
+        try (RandomAccessFile raf = new RandomAccessFile(batchFile(batchIdx), "rw")) {
+            FileChannel channel = raf.getChannel();
+            MappedArrayUtils.writeFully(channel, header, 0);
+            k = 0;
+            for (INDArray[] group : groups) {
+                if (group == null)
+                    continue;
+                for (INDArray arr : group) {
+                    if (arr != null)
+                        MappedArrayUtils.writeArray(channel, arr, dataType, offsets[k]);
+                    k++;
+                }
+            }
+            raf.setLength(offset);
+        }
+        bytesWritten += offset;
+        return true;
+    }
+
+    /**
+     * Mark the cache as complete, and evict least recently used caches if the root directory exceeds the maximum
+     * cache size
+     *
+     * @param numBatches Number of minibatches written
+     */
+    public void complete(int numBatches) throws IOException {
+        FileUtils.writeStringToFile(new File(cacheDir, COMPLETE_FILE), numBatches + "\n" + cacheKey,
+                        StandardCharsets.UTF_8);
+        evict();
+    }
+
+    /**
+     * Read a minibatch, as written by {@link #write(int, INDArray[][])}
+     */
+    public INDArray[][] read(int batchIdx) throws IOException {
+        File f = batchFile(batchIdx);
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+            FileChannel channel = raf.getChannel();
+            //Copy on write: arrays may be modified in place (by preprocessors, for example) without changing the cache
+            ByteBuffer mapped = MappedArrayUtils.map(channel, 0, channel.size(), ByteOrder.nativeOrder());
+
+            byte[] magic = new byte[MAGIC.length];
+            mapped.get(magic);
+            if (!Arrays.equals(MAGIC, magic) || mapped.getInt() != VERSION)
+                throw new IOException("Invalid minibatch cache file: " + f);
+            DataBuffer.Type fileType = (mapped.getInt() == 1 ? DataBuffer.Type.DOUBLE : DataBuffer.Type.FLOAT);
+            int elementSize = MappedArrayUtils.elementSize(fileType);
+
+            INDArray[][] groups = new INDArray[mapped.getInt()][];
+            for (int i = 0; i < groups.length; i++) {
+                int nArrays = mapped.getInt();
+                if (nArrays < 0)
+                    continue;
+                groups[i] = new INDArray[nArrays];
+                for (int j = 0; j < nArrays; j++) {
+                    if (mapped.get() == 0)
+                        continue;
+                    char order = (char) mapped.get();
+                    int[] shape = new int[mapped.getInt()];
+                    int length = 1;
+                    for (int d = 0; d < shape.length; d++) {
+                        shape[d] = mapped.getInt();
+                        length *= shape[d];
+                    }
+                    long dataOffset = mapped.getLong();
+
+                    ByteBuffer data = mapped.duplicate().order(ByteOrder.nativeOrder());
+                    data.position((int) dataOffset);
+                    data.limit((int) dataOffset + length * elementSize);
+                    groups[i][j] = MappedArrayUtils.toArray(data.slice().order(ByteOrder.nativeOrder()), fileType,
+                                    shape, order);
+                }
+            }
+            return groups;
+        }
+    }
+
+    /**
+     * Delete the cache for this key
+     */
+    public void delete() {
+        if (cacheDir.exists()) {
+            try {
+                FileUtils.deleteDirectory(cacheDir);
+            } catch (IOException e) {
+                log.warn("Could not delete minibatch cache directory {}", cacheDir, e);
+            }
+        }
+    }
+
+    private void evict() {
+        File[] dirs = rootDir.listFiles();
+        if (dirs == null)
+            return;
+        long total = 0;
+        for (File d : dirs) {
+            total += FileUtils.sizeOf(d);
+        }
+        //Least recently used first
+        Arrays.sort(dirs, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                return Long.compare(o1.lastModified(), o2.lastModified());
+            }
+        });
+        for (File d : dirs) {
+            if (total <= maxCacheBytes)
+                break;
+            if (!d.isDirectory() || d.equals(cacheDir))
+                continue;
+            long size = FileUtils.sizeOf(d);
+            try {
+                FileUtils.deleteDirectory(d);
+                total -= size;
+                log.info("Evicted minibatch cache {} ({} bytes)", d, size);
+            } catch (IOException e) {
+                log.warn("Could not delete minibatch cache directory {}", d, e);
+            }
+        }
+    }
+
+    private File batchFile(int batchIdx) {
+        return new File(cacheDir, BATCH_FILE_PREFIX + batchIdx + ".bin");
+    }
+
+    private static int countArrays(INDArray[][] groups) {
+        int count = 0;
+        for (INDArray[] group : groups) {
+            if (group != null)
+                count += group.length;
+        }
+        return count;
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
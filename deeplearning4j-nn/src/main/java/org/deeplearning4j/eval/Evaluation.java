@@ -28,9 +28,7 @@ import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.api.ops.impl.accum.MatchCondition;
 import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.indexing.conditions.Conditions;
 
 import java.io.Serializable;
 import java.text.DecimalFormat;
@@ -262,14 +260,24 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
             }
 
         } else {
-            INDArray guessIndex = Nd4j.argMax(guesses, 1);
-            INDArray realOutcomeIndex = Nd4j.argMax(realOutcomes, 1);
-
-            int nExamples = guessIndex.length();
+            int[] guessIndex = toIntArray(Nd4j.argMax(guesses, 1));
+            int[] realOutcomeIndex = toIntArray(Nd4j.argMax(realOutcomes, 1));
+
+            //Count the minibatch as a sorted list of (actual, predicted) pairs: memory and time are linear in the
+            // minibatch size, and each distinct pair is added to the confusion matrix once
+            int nExamples = guessIndex.length;
+            long[] pairs = new long[nExamples];
+            int[] actualTotals = new int[nCols];
+            int[] predictedTotals = new int[nCols];
+            int[] correct = new int[nCols];
             for (int i = 0; i < nExamples; i++) {
-                int actual = (int) realOutcomeIndex.getDouble(i);
-                int predicted = (int) guessIndex.getDouble(i);
-                confusion.add(actual, predicted);
+                int actual = realOutcomeIndex[i];
+                int predicted = guessIndex[i];
+                pairs[i] = (long) actual * nCols + predicted;
+                actualTotals[actual]++;
+                predictedTotals[predicted]++;
+                if (actual == predicted)
+                    correct[actual]++;
 
                 if (recordMetaData != null && recordMetaData.size() > i) {
                     Object m = recordMetaData.get(i);
@@ -277,13 +285,21 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
                 }
             }
 
-            for (int col = 0; col < nCols; col++) {
-                INDArray colBinaryGuesses = guessIndex.eps(col);
-                INDArray colRealOutcomes = realOutcomes.getColumn(col);
+            Arrays.sort(pairs);
+            int runStart = 0;
+            for (int i = 1; i <= nExamples; i++) {
+                if (i == nExamples || pairs[i] != pairs[runStart]) {
+                    int actual = (int) (pairs[runStart] / nCols);
+                    int predicted = (int) (pairs[runStart] % nCols);
+                    confusion.add(actual, predicted, i - runStart);
+                    runStart = i;
+                }
+            }
 
-                int colTp = colBinaryGuesses.mul(colRealOutcomes).sumNumber().intValue();
-                int colFp = colBinaryGuesses.mul(colRealOutcomes.mul(-1.0).addi(1.0)).sumNumber().intValue();
-                int colFn = colBinaryGuesses.mul(-1.0).addi(1.0).muli(colRealOutcomes).sumNumber().intValue();
+            for (int col = 0; col < nCols; col++) {
+                int colTp = correct[col];
+                int colFp = predictedTotals[col] - colTp;
+                int colFn = actualTotals[col] - colTp;
                 int colTn = nRows - colTp - colFp - colFn;
 
                 truePositives.incrementCount(col, colTp);
@@ -291,29 +307,32 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
                 falseNegatives.incrementCount(col, colFn);
                 trueNegatives.incrementCount(col, colTn);
             }
-        }
 
-        if (nCols > 1 && topN > 1) {
-            //Calculate top N accuracy
-            //TODO: this could be more efficient
-            INDArray realOutcomeIndex = Nd4j.argMax(realOutcomes, 1);
-            int nExamples = realOutcomeIndex.length();
-            for (int i = 0; i < nExamples; i++) {
-                int labelIdx = (int) realOutcomeIndex.getDouble(i);
-                double prob = guesses.getDouble(i, labelIdx);
-                INDArray row = guesses.getRow(i);
-                int countGreaterThan = (int) Nd4j.getExecutioner()
-                                .exec(new MatchCondition(row, Conditions.greaterThan(prob)), Integer.MAX_VALUE)
-                                .getDouble(0);
-                if (countGreaterThan < topN) {
-                    //For example, for top 3 accuracy: can have at most 2 other probabilities larger
-                    topNCorrectCount++;
+            if (topN > 1) {
+                //Calculate top N accuracy: for example, for top 3 accuracy there can be at most 2 other
+                // probabilities larger than the probability of the true class
+                double[] probs = guesses.dup('c').data().asDouble();
+                for (int i = 0; i < nExamples; i++) {
+                    int rowOffset = i * nCols;
+                    double prob = probs[rowOffset + realOutcomeIndex[i]];
+                    int countGreaterThan = 0;
+                    for (int j = 0; j < nCols; j++) {
+                        if (probs[rowOffset + j] > prob)
+                            countGreaterThan++;
+                    }
+                    if (countGreaterThan < topN) {
+                        topNCorrectCount++;
+                    }
+                    topNTotalCount++;
                 }
-                topNTotalCount++;
             }
         }
     }
 
+    private static int[] toIntArray(INDArray indices) {
+        return indices.dup('c').data().asInt();
+    }
+
     /**
      * Evaluate a single prediction (one prediction at a time)
      *
@@ -892,7 +911,9 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
                 confusion.add(other.confusion);
         }
         numRowCounter += other.numRowCounter;
-        if (labelsList.isEmpty())
+        if (labelsList == null)
+            labelsList = new ArrayList<>();
+        if (labelsList.isEmpty() && other.labelsList != null)
             labelsList.addAll(other.labelsList);
 
         if (topN != other.topN) {
@@ -901,6 +922,14 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
         }
         this.topNCorrectCount += other.topNCorrectCount;
         this.topNTotalCount += other.topNTotalCount;
+
+        if (other.confusionMatrixMetaData != null) {
+            for (Map.Entry<Pair<Integer, Integer>, List<Object>> entry : other.confusionMatrixMetaData.entrySet()) {
+                for (Object m : entry.getValue()) {
+                    addToMetaConfusionMatrix(entry.getKey().getFirst(), entry.getKey().getSecond(), m);
+                }
+            }
+        }
     }
 
     /**
@@ -0,0 +1,96 @@
+package org.deeplearning4j.eval;
+
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs evaluation of a single {@link DataSetIterator} on several threads.<br>
+ * Each {@link Worker} is expected to own a replica of the network and its own {@link IEvaluation} instance, so that
+ * nothing but the iterator is shared between threads. Minibatches are pulled from the iterator under a lock on the
+ * iterator itself; the per-worker evaluations can then be combined with {@link IEvaluation#merge(IEvaluation)}.
+ */
+public class ParallelEvaluator {
+
+    /**
+     * Evaluates one minibatch at a time on a single thread
+     */
+    public interface Worker {
+
+        /**
+         * @param next minibatch to evaluate
+         * @return false if evaluation should stop (for example, because the minibatch has no features or labels)
+         */
+        boolean eval(DataSet next);
+    }
+
+    private ParallelEvaluator() {}
+
+    /**
+     * Evaluate all remaining minibatches of the iterator, using one thread per worker. Blocks until the iterator is
+     * exhausted and all workers are done.
+     *
+     * @param iterator Data to evaluate on. Is reset first if it has no more elements and supports reset
+     * @param workers  Workers to use, one per thread
+     */
+    public static void evaluate(final DataSetIterator iterator, List<? extends Worker> workers) {
+        if (!iterator.hasNext() && iterator.resetSupported()) {
+            iterator.reset();
+        }
+
+        final int deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        final AtomicBoolean stop = new AtomicBoolean(false);
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = Executors.defaultThreadFactory().newThread(r);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers.size());
+            for (final Worker worker : workers) {
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        Nd4j.getAffinityManager().attachThreadToDevice(Thread.currentThread(), deviceId);
+                        while (true) {
+                            DataSet next;
+                            synchronized (iterator) {
+                                if (stop.get() || !iterator.hasNext())
+                                    return;
+                                next = iterator.next();
+                            }
+                            if (!worker.eval(next)) {
+                                stop.set(true);
+                                return;
+                            }
+                        }
+                    }
+                }));
+            }
+
+            //Unlike MultiThreadUtils.parallelTasks, failures are rethrown: silently losing minibatches would
+            // produce wrong metrics
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Error during parallel evaluation", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
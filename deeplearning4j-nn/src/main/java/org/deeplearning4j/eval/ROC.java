@@ -1,18 +1,10 @@
 package org.deeplearning4j.eval;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
-import org.deeplearning4j.berkeley.Pair;
-import org.deeplearning4j.util.TimeSeriesUtils;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.api.ops.Op;
-import org.nd4j.linalg.api.ops.impl.transforms.IsMax;
-import org.nd4j.linalg.api.ops.impl.transforms.comparison.CompareAndSet;
-import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.indexing.NDArrayIndex;
-import org.nd4j.linalg.indexing.conditions.Condition;
-import org.nd4j.linalg.indexing.conditions.Conditions;
 
 import java.io.Serializable;
 import java.util.*;
@@ -25,6 +17,11 @@ import java.util.*;
  * 1.0 / thresholdSteps, as this allows easy implementation for batched and distributed evaluation scenarios (where the
  * full data set is not available in memory on any one machine at once).
  * <p>
+ * Internally, predictions are collected in a histogram with one bin per threshold step: evaluation is O(1) per example,
+ * memory use is O(thresholdSteps) regardless of the number of examples, and merging is O(thresholdSteps). Large values
+ * of thresholdSteps (for example, 10,000 or more) are therefore practical; see {@link #calculateAUCErrorBound()} for the
+ * resulting accuracy of {@link #calculateAUC()}.
+ * <p>
  * The data is assumed to be binary classification - nColumns == 1 (single binary output variable) or nColumns == 2
  * (probability distribution over 2 classes, with column 1 being values for 'positive' examples)
  *
@@ -38,19 +35,15 @@ public class ROC extends BaseEvaluation<ROC> {
     private long countActualPositive;
     private long countActualNegative;
 
-    private final Map<Double, CountsForThreshold> counts = new LinkedHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final ThresholdHistogram histogram;
 
     /**
      * @param thresholdSteps Number of threshold steps to use for the ROC calculation
      */
     public ROC(int thresholdSteps) {
         this.thresholdSteps = thresholdSteps;
-
-        double step = 1.0 / thresholdSteps;
-        for (int i = 0; i <= thresholdSteps; i++) {
-            double currThreshold = i * step;
-            counts.put(currThreshold, new CountsForThreshold(currThreshold));
-        }
+        this.histogram = new ThresholdHistogram(thresholdSteps);
     }
 
 
@@ -65,6 +58,7 @@ public class ROC extends BaseEvaluation<ROC> {
         if (labels.rank() == 3 && predictions.rank() == 3) {
             //Assume time series input -> reshape to 2d
             evalTimeSeries(labels, predictions);
+            return;
         }
         if (labels.rank() > 2 || predictions.rank() > 2 || labels.size(1) != predictions.size(1)
                         || labels.size(1) > 2) {
@@ -73,58 +67,38 @@ public class ROC extends BaseEvaluation<ROC> {
                             + Arrays.toString(predictions.shape()) + "; require rank 2 array with size(1) == 1 or 2");
         }
 
-        double step = 1.0 / thresholdSteps;
-        boolean singleOutput = labels.size(1) == 1;
-
-        INDArray positivePredictedClassColumn;
-        INDArray positiveActualClassColumn;
-        INDArray negativeActualClassColumn;
-
-        if (singleOutput) {
-            //Single binary variable case
-            positiveActualClassColumn = labels;
-            negativeActualClassColumn = labels.rsub(1.0); //1.0 - label
-            positivePredictedClassColumn = predictions;
-        } else {
-            //Standard case - 2 output variables (probability distribution)
-            positiveActualClassColumn = labels.getColumn(1);
-            negativeActualClassColumn = labels.getColumn(0);
-            positivePredictedClassColumn = predictions.getColumn(1);
+        //Single binary variable case: column 0. Otherwise, probability distribution with positive class in column 1
+        int nCols = labels.size(1);
+        int positiveColumn = nCols - 1;
+        double[] labelsArr = labels.dup('c').data().asDouble();
+        double[] predictionsArr = predictions.dup('c').data().asDouble();
+
+        int nExamples = labels.size(0);
+        for (int i = 0; i < nExamples; i++) {
+            int idx = i * nCols + positiveColumn;
+            boolean positive = labelsArr[idx] >= 0.5; //Labels are assumed to be 0 or 1
+            if (positive) {
+                countActualPositive++;
+            } else {
+                countActualNegative++;
+            }
+            histogram.add(predictionsArr[idx], positive);
         }
+    }
 
-        //Increment global counts - actual positive/negative observed
-        countActualPositive += positiveActualClassColumn.sumNumber().intValue();
-        countActualNegative += negativeActualClassColumn.sumNumber().intValue();
-
-        //Here: calculate true positive rate (TPR) vs. false positive rate (FPR) at different threshold
+    /**
+     * Get the true/false positive counts at each threshold, in threshold order
+     */
+    public Map<Double, CountsForThreshold> getCounts() {
+        long[] tp = histogram.truePositiveCounts();
+        long[] fp = histogram.falsePositiveCounts();
 
+        Map<Double, CountsForThreshold> counts = new LinkedHashMap<>();
         for (int i = 0; i <= thresholdSteps; i++) {
-            double currThreshold = i * step;
-
-            //Work out true/false positives - do this by replacing probabilities (predictions) with 1 or 0 based on threshold
-            Condition condGeq = Conditions.greaterThanOrEqual(currThreshold);
-            Condition condLeq = Conditions.lessThanOrEqual(currThreshold);
-
-            Op op = new CompareAndSet(positivePredictedClassColumn.dup(), 1.0, condGeq);
-            INDArray predictedClass1 = Nd4j.getExecutioner().execAndReturn(op);
-            op = new CompareAndSet(predictedClass1, 0.0, condLeq);
-            predictedClass1 = Nd4j.getExecutioner().execAndReturn(op);
-
-
-            //True positives: occur when positive predicted class and actual positive actual class...
-            //False positive occurs when positive predicted class, but negative actual class
-            INDArray isTruePositive = predictedClass1.mul(positiveActualClassColumn); //If predicted == 1 and actual == 1 at this threshold: 1x1 = 1. 0 otherwise
-            INDArray isFalsePositive = predictedClass1.mul(negativeActualClassColumn); //If predicted == 1 and actual == 0 at this threshold: 1x1 = 1. 0 otherwise
-
-            //Counts for this batch:
-            int truePositiveCount = isTruePositive.sumNumber().intValue();
-            int falsePositiveCount = isFalsePositive.sumNumber().intValue();
-
-            //Increment counts for this thold
-            CountsForThreshold thresholdCounts = counts.get(currThreshold);
-            thresholdCounts.incrementTruePositive(truePositiveCount);
-            thresholdCounts.incrementFalsePositive(falsePositiveCount);
+            double currThreshold = histogram.getThreshold(i);
+            counts.put(currThreshold, new CountsForThreshold(currThreshold, tp[i], fp[i]));
         }
+        return counts;
     }
 
     /**
@@ -133,9 +107,9 @@ public class ROC extends BaseEvaluation<ROC> {
      * @return ROC curve, as a list of points
      */
     public List<ROCValue> getResults() {
-        List<ROCValue> out = new ArrayList<>(counts.size());
+        List<ROCValue> out = new ArrayList<>(thresholdSteps + 1);
 
-        for (Map.Entry<Double, CountsForThreshold> entry : counts.entrySet()) {
+        for (Map.Entry<Double, CountsForThreshold> entry : getCounts().entrySet()) {
             double t = entry.getKey();
             CountsForThreshold c = entry.getValue();
             double tpr = c.getCountTruePositive() / ((double) countActualPositive);
@@ -151,9 +125,9 @@ public class ROC extends BaseEvaluation<ROC> {
         //Precision: (true positive count) / (true positive count + false positive count) == true positive rate
         //Recall: (true positive count) / (true positive count + false negative count) = (TP count) / (total dataset positives)
 
-        List<PrecisionRecallPoint> out = new ArrayList<>(counts.size());
+        List<PrecisionRecallPoint> out = new ArrayList<>(thresholdSteps + 1);
 
-        for (Map.Entry<Double, CountsForThreshold> entry : counts.entrySet()) {
+        for (Map.Entry<Double, CountsForThreshold> entry : getCounts().entrySet()) {
             double t = entry.getKey();
             CountsForThreshold c = entry.getValue();
             long tpCount = c.getCountTruePositive();
@@ -194,7 +168,7 @@ public class ROC extends BaseEvaluation<ROC> {
     public double[][] getResultsAsArray() {
         double[][] out = new double[2][thresholdSteps + 1];
         int i = 0;
-        for (Map.Entry<Double, CountsForThreshold> entry : counts.entrySet()) {
+        for (Map.Entry<Double, CountsForThreshold> entry : getCounts().entrySet()) {
             CountsForThreshold c = entry.getValue();
             double tpr = c.getCountTruePositive() / ((double) countActualPositive);
             double fpr = c.getCountFalsePositive() / ((double) countActualNegative);
@@ -232,6 +206,44 @@ public class ROC extends BaseEvaluation<ROC> {
         return auc;
     }
 
+    /**
+     * Upper bound on the absolute difference between {@link #calculateAUC()} and the exact AUC that would be obtained
+     * from the raw (unthresholded) predictions. Pairs of positive and negative examples whose predictions fall within
+     * the same threshold step are the only source of error, hence the bound can be reduced by increasing the number of
+     * threshold steps.
+     *
+     * @return Upper bound on the AUC error
+     */
+    public double calculateAUCErrorBound() {
+        return histogram.aucErrorBound(countActualPositive, countActualNegative);
+    }
+
+    /**
+     * Calculate the area under the precision/recall curve (AUPRC)<br>
+     * Utilizes trapezoidal integration over the points of {@link #getPrecisionRecallCurve()}
+     *
+     * @return AUPRC
+     */
+    public double calculateAUPRC() {
+        return calculateAUPRC(getPrecisionRecallCurve());
+    }
+
+    protected static double calculateAUPRC(List<PrecisionRecallPoint> list) {
+        double auprc = 0.0;
+        for (int i = 0; i < list.size() - 1; i++) {
+            PrecisionRecallPoint left = list.get(i);
+            PrecisionRecallPoint right = list.get(i + 1);
+
+            //y axis: precision
+            //x axis: recall (decreases as threshold increases)
+            double deltaX = Math.abs(right.getRecall() - left.getRecall());
+            double avg = (left.getPrecision() + right.getPrecision()) / 2.0;
+
+            auprc += deltaX * avg;
+        }
+        return auprc;
+    }
+
     /**
      * Merge this ROC instance with another.
      * This ROC instance is modified, by adding the stats from the other instance.
@@ -247,12 +259,7 @@ public class ROC extends BaseEvaluation<ROC> {
         }
         this.countActualPositive += other.countActualPositive;
         this.countActualNegative += other.countActualNegative;
-        for (Double d : this.counts.keySet()) {
-            CountsForThreshold cft = this.counts.get(d);
-            CountsForThreshold otherCft = other.counts.get(d);
-            cft.countTruePositive += otherCft.countTruePositive;
-            cft.countFalsePositive += otherCft.countFalsePositive;
-        }
+        this.histogram.merge(other.histogram);
     }
 
 
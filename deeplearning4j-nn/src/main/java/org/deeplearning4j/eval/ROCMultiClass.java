@@ -1,16 +1,8 @@
 package org.deeplearning4j.eval;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.AccessLevel;
 import lombok.Getter;
-import org.deeplearning4j.berkeley.Pair;
-import org.deeplearning4j.util.TimeSeriesUtils;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.api.ops.Op;
-import org.nd4j.linalg.api.ops.impl.transforms.comparison.CompareAndSet;
-import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.indexing.conditions.Condition;
-import org.nd4j.linalg.indexing.conditions.Conditions;
 
 import java.io.Serializable;
 import java.util.*;
@@ -25,6 +17,9 @@ import java.util.*;
  * ROC curve (or optimal cut points for diagnostic purposes). This implementation currently uses fixed steps of size
  * 1.0 / thresholdSteps, as this allows easy implementation for batched and distributed evaluation scenarios (where the
  * full data set is not available in memory on any one machine at once).
+ * <p>
+ * As with {@link ROC}, each class is backed by a fixed memory histogram with one bin per threshold step, so that
+ * evaluation is O(1) per example and class, and merging is O(numClasses * thresholdSteps).
  *
  * @author Alex Black
  */
@@ -36,7 +31,8 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
     private long[] countActualPositive;
     private long[] countActualNegative;
 
-    private final Map<Integer, Map<Double, ROC.CountsForThreshold>> counts = new LinkedHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private ThresholdHistogram[] histograms;
 
     /**
      * @param thresholdSteps Number of threshold steps to use for the ROC calculation
@@ -57,6 +53,7 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
         if (labels.rank() == 3 && predictions.rank() == 3) {
             //Assume time series input -> reshape to 2d
             evalTimeSeries(labels, predictions);
+            return;
         }
         if (labels.rank() > 2 || predictions.rank() > 2 || labels.size(1) != predictions.size(1)) {
             throw new IllegalArgumentException("Invalid input data shape: labels shape = "
@@ -64,22 +61,14 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
                             + Arrays.toString(predictions.shape()) + "; require rank 2 array with size(1) == 1 or 2");
         }
 
-        double step = 1.0 / thresholdSteps;
-
         if (countActualPositive == null) {
             //This must be the first time eval has been called...
             int size = labels.size(1);
             countActualPositive = new long[size];
             countActualNegative = new long[size];
-
+            histograms = new ThresholdHistogram[size];
             for (int i = 0; i < size; i++) {
-                Map<Double, ROC.CountsForThreshold> map = new LinkedHashMap<Double, ROC.CountsForThreshold>();
-                counts.put(i, map);
-
-                for (int j = 0; j <= thresholdSteps; j++) {
-                    double currThreshold = j * step;
-                    map.put(currThreshold, new ROC.CountsForThreshold(currThreshold));
-                }
+                histograms[i] = new ThresholdHistogram(thresholdSteps);
             }
         }
 
@@ -91,47 +80,52 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
                                             + " vs. expected number of label classes = " + countActualPositive.length);
         }
 
-        for (int i = 0; i < countActualPositive.length; i++) {
-            //Iterate over each class
-            INDArray positiveActualColumn = labels.getColumn(i);
-            INDArray positivePredictedColumn = predictions.getColumn(i);
-
-            //Increment global counts - actual positive/negative observed
-            long currBatchPositiveActualCount = positiveActualColumn.sumNumber().intValue();
-            countActualPositive[i] += currBatchPositiveActualCount;
-            countActualNegative[i] += positiveActualColumn.length() - currBatchPositiveActualCount;
-
-            //Here: calculate true positive rate (TPR) vs. false positive rate (FPR) at different threshold
-
-            for (int j = 0; j <= thresholdSteps; j++) {
-                double currThreshold = j * step;
-
-                //Work out true/false positives - do this by replacing probabilities (predictions) with 1 or 0 based on threshold
-                Condition condGeq = Conditions.greaterThanOrEqual(currThreshold);
-                Condition condLeq = Conditions.lessThanOrEqual(currThreshold);
-
-                Op op = new CompareAndSet(positivePredictedColumn.dup(), 1.0, condGeq);
-                INDArray predictedClass1 = Nd4j.getExecutioner().execAndReturn(op);
-                op = new CompareAndSet(predictedClass1, 0.0, condLeq);
-                predictedClass1 = Nd4j.getExecutioner().execAndReturn(op);
-
+        int nClasses = countActualPositive.length;
+        double[] labelsArr = labels.dup('c').data().asDouble();
+        double[] predictionsArr = predictions.dup('c').data().asDouble();
+
+        int nExamples = labels.size(0);
+        for (int i = 0; i < nExamples; i++) {
+            int rowOffset = i * nClasses;
+            for (int j = 0; j < nClasses; j++) {
+                //One-vs-all for each class. Labels are assumed to be 0 or 1
+                boolean positive = labelsArr[rowOffset + j] >= 0.5;
+                if (positive) {
+                    countActualPositive[j]++;
+                } else {
+                    countActualNegative[j]++;
+                }
+                histograms[j].add(predictionsArr[rowOffset + j], positive);
+            }
+        }
+    }
 
-                //True positives: occur when positive predicted class and actual positive actual class...
-                //False positive occurs when positive predicted class, but negative actual class
-                INDArray isTruePositive = predictedClass1.mul(positiveActualColumn); //If predicted == 1 and actual == 1 at this threshold: 1x1 = 1. 0 otherwise
-                INDArray negativeActualColumn = positiveActualColumn.rsub(1.0);
-                INDArray isFalsePositive = predictedClass1.mul(negativeActualColumn); //If predicted == 1 and actual == 0 at this threshold: 1x1 = 1. 0 otherwise
+    /**
+     * Get the true/false positive counts at each threshold, for each class
+     *
+     * @return Map of class index to (threshold, counts) map, in threshold order. Empty if no data has been collected
+     */
+    public Map<Integer, Map<Double, ROC.CountsForThreshold>> getCounts() {
+        Map<Integer, Map<Double, ROC.CountsForThreshold>> counts = new LinkedHashMap<>();
+        if (histograms != null) {
+            for (int i = 0; i < histograms.length; i++) {
+                counts.put(i, getCounts(i));
+            }
+        }
+        return counts;
+    }
 
-                //Counts for this batch:
-                int truePositiveCount = isTruePositive.sumNumber().intValue();
-                int falsePositiveCount = isFalsePositive.sumNumber().intValue();
+    private Map<Double, ROC.CountsForThreshold> getCounts(int classIdx) {
+        ThresholdHistogram histogram = histograms[classIdx];
+        long[] tp = histogram.truePositiveCounts();
+        long[] fp = histogram.falsePositiveCounts();
 
-                //Increment counts for this threshold
-                ROC.CountsForThreshold thresholdCounts = counts.get(i).get(currThreshold);
-                thresholdCounts.incrementTruePositive(truePositiveCount);
-                thresholdCounts.incrementFalsePositive(falsePositiveCount);
-            }
+        Map<Double, ROC.CountsForThreshold> counts = new LinkedHashMap<>();
+        for (int j = 0; j <= thresholdSteps; j++) {
+            double currThreshold = histogram.getThreshold(j);
+            counts.put(currThreshold, new ROC.CountsForThreshold(currThreshold, tp[j], fp[j]));
         }
+        return counts;
     }
 
     /**
@@ -144,9 +138,9 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
     public List<ROC.ROCValue> getResults(int classIdx) {
         assertHasBeenFit(classIdx);
 
-        List<ROC.ROCValue> out = new ArrayList<>(counts.size());
+        List<ROC.ROCValue> out = new ArrayList<>(thresholdSteps + 1);
 
-        for (Map.Entry<Double, ROC.CountsForThreshold> entry : counts.get(classIdx).entrySet()) {
+        for (Map.Entry<Double, ROC.CountsForThreshold> entry : getCounts(classIdx).entrySet()) {
             double t = entry.getKey();
             ROC.CountsForThreshold c = entry.getValue();
             double tpr = c.getCountTruePositive() / ((double) countActualPositive[classIdx]);
@@ -171,7 +165,7 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
 
         double[][] out = new double[2][thresholdSteps + 1];
         int i = 0;
-        for (Map.Entry<Double, ROC.CountsForThreshold> entry : counts.get(classIdx).entrySet()) {
+        for (Map.Entry<Double, ROC.CountsForThreshold> entry : getCounts(classIdx).entrySet()) {
             ROC.CountsForThreshold c = entry.getValue();
             double tpr = c.getCountTruePositive() / ((double) countActualPositive[classIdx]);
             double fpr = c.getCountFalsePositive() / ((double) countActualNegative[classIdx]);
@@ -225,13 +219,31 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
         return sum / countActualPositive.length;
     }
 
+    /**
+     * Upper bound on the absolute difference between {@link #calculateAUC(int)} and the exact (unthresholded) AUC for
+     * the specified class. See {@link ROC#calculateAUCErrorBound()}
+     */
+    public double calculateAUCErrorBound(int classIdx) {
+        assertHasBeenFit(classIdx);
+        return histograms[classIdx].aucErrorBound(countActualPositive[classIdx], countActualNegative[classIdx]);
+    }
+
+    /**
+     * Calculate the area under the (one-vs-all) precision/recall curve for the specified class
+     */
+    public double calculateAUPRC(int classIdx) {
+        return ROC.calculateAUPRC(getPrecisionRecallCurve(classIdx));
+    }
+
     public List<ROC.PrecisionRecallPoint> getPrecisionRecallCurve(int classIndex) {
         //Precision: (true positive count) / (true positive count + false positive count) == true positive rate
         //Recall: (true positive count) / (true positive count + false negative count) = (TP count) / (total dataset positives)
 
-        List<ROC.PrecisionRecallPoint> out = new ArrayList<>(counts.get(classIndex).size());
+        assertHasBeenFit(classIndex);
 
-        for (Map.Entry<Double, ROC.CountsForThreshold> entry : counts.get(classIndex).entrySet()) {
+        List<ROC.PrecisionRecallPoint> out = new ArrayList<>(thresholdSteps + 1);
+
+        for (Map.Entry<Double, ROC.CountsForThreshold> entry : getCounts(classIndex).entrySet()) {
             double t = entry.getKey();
             ROC.CountsForThreshold c = entry.getValue();
             long tpCount = c.getCountTruePositive();
@@ -276,30 +288,19 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
             //This instance has no data
             this.countActualPositive = Arrays.copyOf(other.countActualPositive, other.countActualPositive.length);
             this.countActualNegative = Arrays.copyOf(other.countActualNegative, other.countActualNegative.length);
-            for (Map.Entry<Integer, Map<Double, ROC.CountsForThreshold>> e : other.counts.entrySet()) {
-                Map<Double, ROC.CountsForThreshold> m = e.getValue();
-                Map<Double, ROC.CountsForThreshold> mClone = new LinkedHashMap<>();
-                for (Map.Entry<Double, ROC.CountsForThreshold> e2 : m.entrySet()) {
-                    mClone.put(e2.getKey(), e2.getValue().clone());
-                }
-                this.counts.put(e.getKey(), mClone);
+            this.histograms = new ThresholdHistogram[other.histograms.length];
+            for (int i = 0; i < histograms.length; i++) {
+                this.histograms[i] = other.histograms[i].copy();
             }
         } else {
+            if (countActualPositive.length != other.countActualPositive.length) {
+                throw new IllegalArgumentException("Cannot merge ROCMultiClass instances with different numbers of classes ("
+                                + countActualPositive.length + " vs. " + other.countActualPositive.length + ")");
+            }
             for (int i = 0; i < countActualPositive.length; i++) {
                 this.countActualPositive[i] += other.countActualPositive[i];
                 this.countActualNegative[i] += other.countActualNegative[i];
-            }
-
-            for (Integer i : counts.keySet()) {
-                Map<Double, ROC.CountsForThreshold> thisMap = counts.get(i);
-                Map<Double, ROC.CountsForThreshold> otherMap = other.counts.get(i);
-
-                for (Double d : thisMap.keySet()) {
-                    ROC.CountsForThreshold thisC = thisMap.get(d);
-                    ROC.CountsForThreshold otherC = otherMap.get(d);
-                    thisC.incrementTruePositive(otherC.getCountTruePositive());
-                    thisC.incrementFalsePositive(otherC.getCountFalsePositive());
-                }
+                this.histograms[i].merge(other.histograms[i]);
             }
         }
     }
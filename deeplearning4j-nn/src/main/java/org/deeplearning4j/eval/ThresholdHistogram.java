@@ -0,0 +1,142 @@
+package org.deeplearning4j.eval;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Fixed memory histogram of predicted probabilities for the positive and negative examples of one (one-vs-all)
+ * binary classification problem, used by {@link ROC} and {@link ROCMultiClass}.
+ * <p>
+ * Bin i holds the examples whose prediction p satisfies threshold(i) <= p < threshold(i+1), where
+ * threshold(i) = i / thresholdSteps. The true/false positive counts at every threshold are then suffix sums over the
+ * bins, so adding an example is O(1) regardless of the number of threshold steps, and merging two histograms is
+ * O(thresholdSteps). An example is counted as predicted positive at threshold t when p >= t, for all t < 1.0; no
+ * example is predicted positive at threshold 1.0.
+ */
+class ThresholdHistogram implements Serializable {
+
+    private final int thresholdSteps;
+    private final double step;
+    private final long[] positiveCounts;
+    private final long[] negativeCounts;
+
+    ThresholdHistogram(int thresholdSteps) {
+        if (thresholdSteps <= 0) {
+            throw new IllegalArgumentException("Invalid number of threshold steps: " + thresholdSteps + " (must be > 0)");
+        }
+        this.thresholdSteps = thresholdSteps;
+        this.step = 1.0 / thresholdSteps;
+        this.positiveCounts = new long[thresholdSteps];
+        this.negativeCounts = new long[thresholdSteps];
+    }
+
+    /**
+     * @return the threshold for the given threshold step, in the range 0 to 1 inclusive
+     */
+    double getThreshold(int thresholdIdx) {
+        return thresholdIdx * step;
+    }
+
+    /**
+     * Add a single example
+     *
+     * @param prediction Predicted probability of the positive class
+     * @param positive   Whether the example is actually positive
+     */
+    void add(double prediction, boolean positive) {
+        int bin = bin(prediction);
+        if (bin < 0)
+            return; //Below all thresholds (or NaN): never predicted positive
+        if (positive) {
+            positiveCounts[bin]++;
+        } else {
+            negativeCounts[bin]++;
+        }
+    }
+
+    private int bin(double prediction) {
+        if (!(prediction >= 0.0))
+            return -1;
+        int bin = (int) Math.min(thresholdSteps - 1, Math.floor(prediction * thresholdSteps));
+        //Correct for rounding, so that binning agrees exactly with comparing against i * step
+        while (bin + 1 < thresholdSteps && prediction >= (bin + 1) * step)
+            bin++;
+        while (bin > 0 && prediction < bin * step)
+            bin--;
+        return bin;
+    }
+
+    void merge(ThresholdHistogram other) {
+        if (thresholdSteps != other.thresholdSteps) {
+            throw new UnsupportedOperationException(
+                            "Cannot merge ROC instances with different numbers of threshold steps ("
+                                            + thresholdSteps + " vs. " + other.thresholdSteps + ")");
+        }
+        for (int i = 0; i < thresholdSteps; i++) {
+            positiveCounts[i] += other.positiveCounts[i];
+            negativeCounts[i] += other.negativeCounts[i];
+        }
+    }
+
+    /**
+     * @return true positive counts for thresholds 0, 1/thresholdSteps, ..., 1.0 (length thresholdSteps + 1)
+     */
+    long[] truePositiveCounts() {
+        return suffixSums(positiveCounts);
+    }
+
+    /**
+     * @return false positive counts for thresholds 0, 1/thresholdSteps, ..., 1.0 (length thresholdSteps + 1)
+     */
+    long[] falsePositiveCounts() {
+        return suffixSums(negativeCounts);
+    }
+
+    private long[] suffixSums(long[] counts) {
+        long[] out = new long[thresholdSteps + 1];
+        for (int i = thresholdSteps - 1; i >= 0; i--) {
+            out[i] = out[i + 1] + counts[i];
+        }
+        return out;
+    }
+
+    /**
+     * Upper bound on the difference between the AUC calculated from the thresholded ROC curve and the exact AUC
+     * (the probability that a random positive example is ranked above a random negative example).<br>
+     * Trapezoidal integration of the thresholded curve is exact except for positive/negative pairs that fall into the
+     * same bin, which are counted as half ranked correctly. Consequently the bound shrinks as thresholdSteps increases.
+     *
+     * @param countActualPositive Total number of positive examples
+     * @param countActualNegative Total number of negative examples
+     */
+    double aucErrorBound(long countActualPositive, long countActualNegative) {
+        if (countActualPositive == 0 || countActualNegative == 0)
+            return 0.0;
+        double sameBinPairs = 0.0;
+        for (int i = 0; i < thresholdSteps; i++) {
+            sameBinPairs += positiveCounts[i] * (double) negativeCounts[i];
+        }
+        return 0.5 * sameBinPairs / (countActualPositive * (double) countActualNegative);
+    }
+
+    ThresholdHistogram copy() {
+        ThresholdHistogram out = new ThresholdHistogram(thresholdSteps);
+        System.arraycopy(positiveCounts, 0, out.positiveCounts, 0, thresholdSteps);
+        System.arraycopy(negativeCounts, 0, out.negativeCounts, 0, thresholdSteps);
+        return out;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ThresholdHistogram))
+            return false;
+        ThresholdHistogram h = (ThresholdHistogram) o;
+        return thresholdSteps == h.thresholdSteps && Arrays.equals(positiveCounts, h.positiveCounts)
+                        && Arrays.equals(negativeCounts, h.negativeCounts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(positiveCounts) + Arrays.hashCode(negativeCounts);
+    }
+}
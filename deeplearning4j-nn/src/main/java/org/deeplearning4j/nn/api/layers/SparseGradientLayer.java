@@ -0,0 +1,32 @@
+package org.deeplearning4j.nn.api.layers;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.gradient.SparseRowGradient;
+
+import java.util.Map;
+
+/**
+ * A layer whose gradients for some of its parameters are non-zero only for a few rows, listed by
+ * {@link SparseRowGradient}s.<br>
+ * The {@link org.deeplearning4j.nn.updater.LayerUpdater} applies the updater to these rows only, and replaces the
+ * sparse gradients by the sparse updates; {@link org.deeplearning4j.optimize.solvers.StochasticGradientDescent} then
+ * applies the updates to these rows of the parameters only. The rows are also written to the dense gradient views
+ * returned by {@link Layer#backpropGradient(org.nd4j.linalg.api.ndarray.INDArray)}, which are zero elsewhere, so that
+ * the dense gradient remains valid (for gradient checks, for example, and for optimizers without sparse support).
+ * Sparse gradients are replaced at the start of each backprop.
+ */
+public interface SparseGradientLayer extends Layer {
+
+    /**
+     * @return Sparse gradients (or updates) from the last backpropGradient call, keyed by parameter name. Null or empty
+     * if none
+     */
+    Map<String, SparseRowGradient> getSparseGradients();
+
+    /**
+     * Discard the sparse gradients, when they can't be applied as sparse updates (for example, when the updater
+     * applied a dense update instead). The dense gradient views may then be non-zero outside of the listed rows, and
+     * are fully reset by the next backprop
+     */
+    void clearSparseGradients();
+}
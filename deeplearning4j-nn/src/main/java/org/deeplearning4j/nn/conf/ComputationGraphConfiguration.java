@@ -75,6 +75,11 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
     protected int tbpttFwdLength = 20;
     protected int tbpttBackLength = 20;
 
+    /**
+     * Vertices whose activations are retained when activation checkpointing is used; null: checkpointing disabled
+     */
+    protected List<String> activationCheckpoints;
+
     protected NeuralNetConfiguration defaultConfiguration;
 
     //Counter for the number of parameter updates so far
@@ -219,6 +224,8 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         conf.backpropType = backpropType;
         conf.tbpttFwdLength = tbpttFwdLength;
         conf.tbpttBackLength = tbpttBackLength;
+        conf.activationCheckpoints =
+                        (activationCheckpoints == null ? null : new ArrayList<>(activationCheckpoints));
         conf.defaultConfiguration = defaultConfiguration.clone();
 
         return conf;
@@ -270,6 +277,15 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             }
         }
 
+        if (activationCheckpoints != null) {
+            for (String s : activationCheckpoints) {
+                if (!vertices.containsKey(s) && !networkInputs.contains(s)) {
+                    throw new IllegalStateException("Invalid configuration: activation checkpoint \"" + s
+                                    + "\" is not a valid vertex or network input");
+                }
+            }
+        }
+
         //Check for no graph cycles: done in ComputationGraph.init()
     }
 
@@ -426,6 +442,7 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
         protected BackpropType backpropType = BackpropType.Standard;
         protected int tbpttFwdLength = 20;
         protected int tbpttBackLength = 20;
+        protected List<String> activationCheckpoints;
 
         protected Map<String, InputPreProcessor> inputPreProcessors = new LinkedHashMap<>();
 
@@ -500,6 +517,26 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             return this;
         }
 
+        /**
+         * Enable activation checkpointing for backprop. By default, the activations of all vertices are retained from
+         * the forward pass until the end of backprop, hence memory use grows with the size of the graph. With activation
+         * checkpointing, only the network inputs and the activations of the specified vertices are retained; the
+         * other activations are released during the forward pass once all vertices using them have been computed, and
+         * are recomputed as required during backprop. This trades up to one extra forward pass for lower peak memory.
+         * <br>
+         * Activations that can't be recomputed exactly are always retained: the inputs and outputs of layers with
+         * dropout, and of batch normalization layers, as well as the inputs of output layers. Not used with
+         * truncated BPTT.
+         *
+         * @param vertexNames Vertices whose activations should be retained. No vertices: retain only the network
+         *                    inputs (and the activations that can't be recomputed)
+         * @see org.deeplearning4j.util.ActivationCheckpointReport
+         */
+        public GraphBuilder activationCheckpoints(String... vertexNames) {
+            this.activationCheckpoints = Arrays.asList(vertexNames);
+            return this;
+        }
+
         /**
          * When doing truncated BPTT: how many steps of forward pass should we do
          * before doing (truncated) backprop?<br>
@@ -680,6 +717,8 @@ public class ComputationGraphConfiguration implements Serializable, Cloneable {
             conf.backpropType = backpropType;
             conf.tbpttBackLength = tbpttBackLength;
             conf.tbpttFwdLength = tbpttFwdLength;
+            conf.activationCheckpoints =
+                            (activationCheckpoints == null ? null : new ArrayList<>(activationCheckpoints));
 
             conf.networkInputs = networkInputs;
             conf.networkOutputs = networkOutputs;
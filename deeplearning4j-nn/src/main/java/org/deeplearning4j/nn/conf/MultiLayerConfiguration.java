@@ -66,6 +66,8 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
     protected BackpropType backpropType = BackpropType.Standard;
     protected int tbpttFwdLength = 20;
     protected int tbpttBackLength = 20;
+    //Layers whose activations are retained when activation checkpointing is used; null: checkpointing disabled
+    protected int[] activationCheckpoints;
 
     //Counter for the number of parameter updates so far
     // This is important for learning rate schedules, for example, and is stored here to ensure it is persisted
@@ -279,6 +281,10 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
                 clone.inputPreProcessors = map;
             }
 
+            if (clone.activationCheckpoints != null) {
+                clone.activationCheckpoints = clone.activationCheckpoints.clone();
+            }
+
             return clone;
 
         } catch (CloneNotSupportedException e) {
@@ -301,6 +307,7 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
         protected BackpropType backpropType = BackpropType.Standard;
         protected int tbpttFwdLength = 20;
         protected int tbpttBackLength = 20;
+        protected int[] activationCheckpoints;
         protected InputType inputType;
         @Deprecated
         protected int[] cnnInputSize;
@@ -367,6 +374,24 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
             return this;
         }
 
+        /**
+         * Enable activation checkpointing for backprop. By default, the activations of all layers are retained from the
+         * forward pass until the end of backprop, hence memory use grows with the number of layers. With activation
+         * checkpointing, only the network input and the activations (outputs) of the specified layers are retained;
+         * the activations in between are released during the forward pass, and recomputed (one segment between
+         * checkpoints at a time) during backprop. This trades up to one extra forward pass for lower peak memory.<br>
+         * Activations that can't be recomputed exactly are always retained: the inputs and outputs of layers with
+         * dropout, and of batch normalization layers. Not used with truncated BPTT.
+         *
+         * @param layerIndices Layers whose activations should be retained. No layers: retain only the network input
+         *                     (and the activations that can't be recomputed)
+         * @see org.deeplearning4j.util.ActivationCheckpointReport
+         */
+        public Builder activationCheckpoints(int... layerIndices) {
+            this.activationCheckpoints = layerIndices;
+            return this;
+        }
+
         /**
          * Whether to do pre train or not
          * @param pretrain whether to do pre train or not
@@ -493,6 +518,14 @@ public class MultiLayerConfiguration implements Serializable, Cloneable {
             conf.backpropType = backpropType;
             conf.tbpttFwdLength = tbpttFwdLength;
             conf.tbpttBackLength = tbpttBackLength;
+            if (activationCheckpoints != null) {
+                for (int i : activationCheckpoints) {
+                    if (i < 0 || i >= confs.size())
+                        throw new IllegalStateException("Invalid activation checkpoint: layer index " + i
+                                        + " (network has " + confs.size() + " layers)");
+                }
+                conf.activationCheckpoints = activationCheckpoints.clone();
+            }
             Nd4j.getRandom().setSeed(conf.getConf(0).getSeed());
             return conf;
 
@@ -18,7 +18,10 @@ import java.util.Map;
  * with all but one value being zero).<br>
  * <b>Note</b>: can only be used as the first layer for a network<br>
  * <b>Note 2</b>: For a given example index i, the output is activationFunction(weights.getRow(i) + bias), hence the
- * weight rows can be considered a vector/embedding for each example.
+ * weight rows can be considered a vector/embedding for each example.<br>
+ * <b>Note 3</b>: With {@link Builder#sparseGradients(boolean)}, the weight gradient is calculated only for the rows
+ * used in the minibatch, and the updater and (with stochastic gradient descent) the parameter update are applied only
+ * to these rows (and their updater state). Supported for all updaters.
  * @author Alex Black
  */
 @Data
@@ -27,8 +30,11 @@ import java.util.Map;
 @EqualsAndHashCode(callSuper = true)
 public class EmbeddingLayer extends FeedForwardLayer {
 
+    private boolean sparseGradients;
+
     private EmbeddingLayer(Builder builder) {
         super(builder);
+        this.sparseGradients = builder.sparseGradients;
     }
 
     @Override
@@ -50,9 +56,26 @@ public class EmbeddingLayer extends FeedForwardLayer {
         return DefaultParamInitializer.getInstance();
     }
 
-    @AllArgsConstructor
     public static class Builder extends FeedForwardLayer.Builder<Builder> {
 
+        private boolean sparseGradients = false;
+
+        /**
+         * If true: calculate the weight gradient only for the rows (indices) present in each minibatch, and apply
+         * the updater only to these rows. With updaters whose state decays (Adam, RMSProp, AdaDelta, Nesterovs), the
+         * state of the other rows is not decayed, and L1/L2 regularization is not applied to them ("lazy" updates).
+         * With {@link org.deeplearning4j.nn.api.OptimizationAlgorithm#STOCHASTIC_GRADIENT_DESCENT} and no gradient
+         * normalization, the work per iteration for the weights is then proportional to the number of distinct
+         * indices in the minibatch, rather than to nIn.<br>
+         * Default: false
+         *
+         * @param sparseGradients Whether to use sparse (row-wise) weight gradients
+         */
+        public Builder sparseGradients(boolean sparseGradients) {
+            this.sparseGradients = sparseGradients;
+            return this;
+        }
+
         @Override
         @SuppressWarnings("unchecked")
         public EmbeddingLayer build() {
@@ -0,0 +1,143 @@
+package org.deeplearning4j.nn.gradient;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Gradient for a subset of the rows of a 2d parameter array: the gradient is zero for all rows other than those
+ * listed. Used for layers such as {@link org.deeplearning4j.nn.layers.feedforward.embedding.EmbeddingLayer}, where
+ * each minibatch only touches a small number of the rows of a (potentially very large) weight matrix.<br>
+ * The updater replaces the values by the update for these rows (see {@link #isUpdate()}), which the step function then
+ * applies to the rows of the parameters. The values are also written to the same rows of the dense gradient view (see
+ * {@link #scatterRows(INDArray, int[], INDArray)}), which is otherwise zero, for consumers of the dense gradient such
+ * as gradient checks.
+ */
+public class SparseRowGradient implements Serializable {
+
+    private final int[] rows;
+    private final INDArray values;
+    private boolean update;
+
+    /**
+     * @param rows   Indices of the rows with a (non-zero) gradient; sorted and without duplicates
+     * @param values Gradients for these rows, with shape [rows.length, numColumns]
+     */
+    public SparseRowGradient(int[] rows, INDArray values) {
+        if (rows.length != values.rows()) {
+            throw new IllegalArgumentException("Number of rows (" + rows.length
+                            + ") does not match number of gradient rows (" + values.rows() + ")");
+        }
+        this.rows = rows;
+        this.values = values;
+    }
+
+    /**
+     * @return Indices of the rows with a gradient, in ascending order
+     */
+    public int[] getRows() {
+        return rows;
+    }
+
+    /**
+     * @return Gradients (or, once {@link #isUpdate()}, updates) for the rows, with shape [getRows().length, numColumns]
+     */
+    public INDArray getValues() {
+        return values;
+    }
+
+    /**
+     * @return True if the values have been replaced by the update (after the updater, regularization and division by
+     * the minibatch size), to be applied by the step function
+     */
+    public boolean isUpdate() {
+        return update;
+    }
+
+    /**
+     * @param update Whether the values are the update for the rows, rather than the gradient
+     */
+    public void setUpdate(boolean update) {
+        this.update = update;
+    }
+
+    /**
+     * Create the gradient by summing the row deltas for each distinct row index
+     *
+     * @param rowIndexes Row index for each row of rowDeltas. May contain duplicates
+     * @param rowDeltas  Gradient contributions, shape [rowIndexes.length, numColumns]
+     */
+    public static SparseRowGradient fromRowDeltas(int[] rowIndexes, INDArray rowDeltas) {
+        int[] sorted = rowIndexes.clone();
+        Arrays.sort(sorted);
+        int numUnique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                sorted[numUnique++] = sorted[i];
+        }
+        int[] rows = Arrays.copyOf(sorted, numUnique);
+
+        int nCols = rowDeltas.columns();
+        double[] deltas = rowDeltas.dup('c').data().asDouble();
+        double[] summed = new double[numUnique * nCols];
+        for (int i = 0; i < rowIndexes.length; i++) {
+            int from = i * nCols;
+            int to = Arrays.binarySearch(rows, rowIndexes[i]) * nCols;
+            for (int j = 0; j < nCols; j++) {
+                summed[to + j] += deltas[from + j];
+            }
+        }
+        return new SparseRowGradient(rows, Nd4j.create(summed, new int[] {numUnique, nCols}, 'c'));
+    }
+
+    /**
+     * Write the rows of values to the given rows of target: target.getRow(rows[i]) = values.getRow(i).<br>
+     * Rows with consecutive indices are written with a single op
+     *
+     * @param target Array to write to
+     * @param rows   Row indices in target, sorted and without duplicates
+     * @param values Values to write, shape [rows.length, target.columns()]
+     */
+    public static void scatterRows(INDArray target, int[] rows, INDArray values) {
+        int start = 0;
+        while (start < rows.length) {
+            int end = endOfRun(rows, start);
+            if (end - start == 1) {
+                target.getRow(rows[start]).assign(values.getRow(start));
+            } else {
+                target.get(NDArrayIndex.interval(rows[start], rows[end - 1] + 1), NDArrayIndex.all())
+                                .assign(values.get(NDArrayIndex.interval(start, end), NDArrayIndex.all()));
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Set the given rows of target to zero. Rows with consecutive indices are set with a single op
+     *
+     * @param target Array to modify
+     * @param rows   Row indices in target, sorted and without duplicates
+     */
+    public static void clearRows(INDArray target, int[] rows) {
+        int start = 0;
+        while (start < rows.length) {
+            int end = endOfRun(rows, start);
+            if (end - start == 1) {
+                target.getRow(rows[start]).assign(0);
+            } else {
+                target.get(NDArrayIndex.interval(rows[start], rows[end - 1] + 1), NDArrayIndex.all()).assign(0);
+            }
+            start = end;
+        }
+    }
+
+    private static int endOfRun(int[] rows, int start) {
+        int end = start + 1;
+        while (end < rows.length && rows[end] == rows[end - 1] + 1)
+            end++;
+        return end;
+    }
+}
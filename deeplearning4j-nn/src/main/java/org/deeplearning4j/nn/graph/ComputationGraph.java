@@ -27,6 +27,7 @@ import org.deeplearning4j.datasets.iterator.AsyncDataSetIterator;
 import org.deeplearning4j.datasets.iterator.AsyncMultiDataSetIterator;
 import org.deeplearning4j.datasets.iterator.impl.SingletonMultiDataSetIterator;
 import org.deeplearning4j.eval.Evaluation;
+import org.deeplearning4j.eval.ParallelEvaluator;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.MaskState;
 import org.deeplearning4j.nn.api.Model;
@@ -50,6 +51,7 @@ import org.deeplearning4j.optimize.Solver;
 import org.deeplearning4j.optimize.api.ConvexOptimizer;
 import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.optimize.api.TrainingListener;
+import org.deeplearning4j.util.ActivationCheckpointUtils;
 import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.DataSet;
@@ -1003,7 +1005,12 @@ public class ComputationGraph implements Serializable, Model {
             }
             calcBackpropGradients(true);
         } else {
-            Map<String, INDArray> activations = feedForward(true, true);
+            Map<String, INDArray> activations;
+            if (configuration.getActivationCheckpoints() != null) {
+                activations = feedForwardCheckpointed();
+            } else {
+                activations = feedForward(true, true);
+            }
             if (trainingListeners.size() > 0) {
                 for (TrainingListener tl : trainingListeners) {
                     tl.onForwardPass(this, activations);
@@ -1135,6 +1142,106 @@ public class ComputationGraph implements Serializable, Model {
         return layerActivations;
     }
 
+    /**
+     * Training time forward pass (excluding output layers) with activation checkpointing: once all vertices using the
+     * output of a vertex have been computed, that output is released from their inputs, unless it is retained as per
+     * {@link ActivationCheckpointUtils#retainedVertexOutputs(GraphVertex[], Collection)}. Released activations are
+     * recomputed during backprop, in {@link #calcBackpropGradients(boolean, INDArray...)}.<br>
+     * Layer activations are only returned if training listeners are present (for
+     * {@link TrainingListener#onForwardPass(Model, Map)}), in which case they are not released until the end of the
+     * forward pass.
+     */
+    protected Map<String, INDArray> feedForwardCheckpointed() {
+        boolean[] retain = ActivationCheckpointUtils.retainedVertexOutputs(vertices,
+                        configuration.getActivationCheckpoints());
+        Map<String, INDArray> layerActivations = new HashMap<>();
+        boolean returnActivations = trainingListeners.size() > 0;
+
+        //Number of vertices that still have to do their forward pass with each vertex's output
+        int[] remainingForward = new int[vertices.length];
+        for (GraphVertex v : vertices) {
+            remainingForward[v.getVertexIndex()] = v.getNumOutputConnections();
+        }
+
+        for (int i = 0; i < topologicalOrder.length; i++) {
+            GraphVertex current = vertices[topologicalOrder[i]];
+            INDArray out;
+            if (current.isInputVertex()) {
+                out = inputs[current.getVertexIndex()];
+            } else {
+                if (current.isOutputVertex() && current.hasLayer() && current.getLayer() instanceof IOutputLayer)
+                    continue; //Inputs are set, and retained; no forward pass required for backprop
+                out = current.doForward(true);
+
+                VertexIndices[] inputsFrom = current.getInputVertices();
+                for (VertexIndices v : inputsFrom) {
+                    int from = v.getVertexIndex();
+                    if (--remainingForward[from] == 0 && !retain[from])
+                        releaseOutput(vertices[from]);
+                }
+            }
+            if (returnActivations && (current.hasLayer() || current.isInputVertex()))
+                layerActivations.put(current.getVertexName(), out);
+
+            VertexIndices[] outputsTo = current.getOutputVertices();
+            if (outputsTo != null) {
+                for (VertexIndices v : outputsTo) {
+                    INDArray in = (current.isInputVertex() ? out.dup() : out);
+                    vertices[v.getVertexIndex()].setInput(v.getVertexEdgeNumber(), in);
+                }
+            }
+        }
+        return layerActivations;
+    }
+
+    /**
+     * Remove the output of the specified vertex from the inputs of all vertices that use it
+     */
+    private void releaseOutput(GraphVertex vertex) {
+        VertexIndices[] outputsTo = vertex.getOutputVertices();
+        if (outputsTo == null)
+            return;
+        for (VertexIndices v : outputsTo) {
+            GraphVertex to = vertices[v.getVertexIndex()];
+            if (to.hasLayer()) {
+                //Layer vertices have a single input; also release the (preprocessed) input stored in the layer
+                to.clear();
+                to.getLayer().setInput(null);
+            } else {
+                to.setInput(v.getVertexEdgeNumber(), null);
+            }
+        }
+    }
+
+    /**
+     * Restore any inputs of the vertex that were released by activation checkpointing, recomputing the outputs of
+     * earlier vertices (recursively) as required
+     *
+     * @param vertex     Vertex to restore the inputs for
+     * @param recomputed Recomputed vertex outputs, by vertex index
+     * @param restored   Set to true for all vertices with restored inputs
+     */
+    private void restoreInputs(GraphVertex vertex, Map<Integer, INDArray> recomputed, boolean[] restored) {
+        INDArray[] currentInputs = vertex.getInputs();
+        VertexIndices[] inputsFrom = vertex.getInputVertices();
+        if (inputsFrom == null)
+            return;
+        for (int i = 0; i < inputsFrom.length; i++) {
+            if (currentInputs[i] != null)
+                continue;
+            int from = inputsFrom[i].getVertexIndex();
+            INDArray out = recomputed.get(from);
+            if (out == null) {
+                GraphVertex fromVertex = vertices[from];
+                restoreInputs(fromVertex, recomputed, restored);
+                out = fromVertex.doForward(true);
+                recomputed.put(from, out);
+            }
+            vertex.setInput(i, out);
+            restored[vertex.getVertexIndex()] = true;
+        }
+    }
+
     /**
      * Return an array of network outputs (predictions) at test time, given the specified network inputs
      * Network outputs are for output layers only.
@@ -1227,6 +1334,21 @@ public class ComputationGraph implements Serializable, Model {
 
         LinkedList<Triple<String, INDArray, Character>> gradients = new LinkedList<>();
 
+        //With activation checkpointing: outputs recomputed during backprop, and the number of vertices that have yet to
+        // do backprop with each vertex's output (after which the recomputed output can be released)
+        boolean checkpointing = !truncatedBPTT && configuration.getActivationCheckpoints() != null;
+        Map<Integer, INDArray> recomputed = null;
+        boolean[] restored = null;
+        int[] remainingBackward = null;
+        if (checkpointing) {
+            recomputed = new HashMap<>();
+            restored = new boolean[vertices.length];
+            remainingBackward = new int[vertices.length];
+            for (GraphVertex v : vertices) {
+                remainingBackward[v.getVertexIndex()] = v.getNumOutputConnections();
+            }
+        }
+
         //Do backprop according to the reverse of the topological ordering of the network
         boolean[] setVertexEpsilon = new boolean[topologicalOrder.length]; //If true: already set epsilon for this vertex; later epsilons should be *added* to the existing one, not set
         for (int i = topologicalOrder.length - 1; i >= 0; i--) {
@@ -1255,12 +1377,28 @@ public class ComputationGraph implements Serializable, Model {
                 }
             }
 
+            if (checkpointing)
+                restoreInputs(current, recomputed, restored);
+
             Pair<Gradient, INDArray[]> pair = current.doBackward(truncatedBPTT);
             INDArray[] epsilons = pair.getSecond();
 
             //Inputs to the current GraphVertex:
             VertexIndices[] inputVertices = current.getInputVertices();
 
+            if (checkpointing && inputVertices != null) {
+                //Release activations that are no longer required
+                for (VertexIndices v : inputVertices) {
+                    if (--remainingBackward[v.getVertexIndex()] == 0)
+                        recomputed.remove(v.getVertexIndex());
+                }
+                if (restored[current.getVertexIndex()] && !current.isOutputVertex()) {
+                    current.clear();
+                    if (current.hasLayer())
+                        current.getLayer().setInput(null);
+                }
+            }
+
             //Set epsilons for the vertices that provide inputs to this vertex:
             if (inputVertices != null) {
                 int j = 0;
@@ -1665,6 +1803,14 @@ public class ComputationGraph implements Serializable, Model {
         return params(true);
     }
 
+    /**
+     * @return the flattened gradients for all layers (with the exception of pretrain-only parameters). The
+     * gradients of each layer are views of this array
+     */
+    public INDArray getFlattenedGradients() {
+        return flattenedGradients;
+    }
+
     @Override
     public int numParams() {
         return numParams(true);
@@ -2356,24 +2502,76 @@ public class ComputationGraph implements Serializable, Model {
 
         Evaluation e = new Evaluation(labelsList, topN);
         while (iterator.hasNext()) {
-            org.nd4j.linalg.dataset.DataSet next = iterator.next();
-
-            if (next.getFeatureMatrix() == null || next.getLabels() == null)
+            if (!doEvaluation(iterator.next(), e))
                 break;
+        }
+        return e;
+    }
 
-            INDArray features = next.getFeatures();
-            INDArray labels = next.getLabels();
+    /**
+     * Evaluate the network (for classification) on the provided data set using multiple threads. Each thread
+     * evaluates minibatches from the shared iterator on its own copy of the network, into its own {@link Evaluation};
+     * the per-thread evaluations are merged once the iterator is exhausted.
+     *
+     * @param iterator   Iterator (data) to evaluate on
+     * @param labelsList List of labels. May be null.
+     * @param topN       N value for top N accuracy evaluation
+     * @param numWorkers Number of threads (and network copies) to use. Values <= 1: evaluate on the calling thread
+     * @return Evaluation object, summarizing the results of the evaluation on the provided DataSetIterator
+     */
+    public Evaluation evaluate(DataSetIterator iterator, List<String> labelsList, int topN, int numWorkers) {
+        if (numWorkers <= 1)
+            return evaluate(iterator, labelsList, topN);
+        if (layers == null || !(getOutputLayer(0) instanceof IOutputLayer)) {
+            throw new IllegalStateException("Cannot evaluate network with no output layer");
+        }
 
-            INDArray[] out;
-            out = output(false, features);
-            if (labels.rank() == 3)
-                e.evalTimeSeries(labels, out[0]);
-            else
-                e.eval(labels, out[0]);
+        if (labelsList == null)
+            labelsList = iterator.getLabels();
+
+        List<Evaluation> evaluations = new ArrayList<>(numWorkers);
+        List<ParallelEvaluator.Worker> workers = new ArrayList<>(numWorkers);
+        for (int i = 0; i < numWorkers; i++) {
+            final ComputationGraph replica = (i == 0 ? this : clone());
+            final Evaluation e = new Evaluation(labelsList, topN);
+            evaluations.add(e);
+            workers.add(new ParallelEvaluator.Worker() {
+                @Override
+                public boolean eval(org.nd4j.linalg.dataset.DataSet next) {
+                    return replica.doEvaluation(next, e);
+                }
+            });
+        }
+        ParallelEvaluator.evaluate(iterator, workers);
+
+        Evaluation e = evaluations.get(0);
+        for (int i = 1; i < numWorkers; i++) {
+            e.merge(evaluations.get(i));
         }
         return e;
     }
 
+    /**
+     * Evaluate a single minibatch
+     *
+     * @return false if the minibatch has no features or labels, in which case evaluation should stop
+     */
+    private boolean doEvaluation(org.nd4j.linalg.dataset.DataSet next, Evaluation e) {
+        if (next.getFeatureMatrix() == null || next.getLabels() == null)
+            return false;
+
+        INDArray features = next.getFeatures();
+        INDArray labels = next.getLabels();
+
+        INDArray[] out;
+        out = output(false, features);
+        if (labels.rank() == 3)
+            e.evalTimeSeries(labels, out[0]);
+        else
+            e.eval(labels, out[0]);
+        return true;
+    }
+
     /**
      * String detailing the architecture of the computation graph.
      * Vertices are printed in a topological sort order.
@@ -495,9 +495,10 @@ public abstract class BaseLayer<LayerConfT extends org.deeplearning4j.nn.conf.la
     }
 
     protected void applyDropOutIfNecessary(boolean training) {
-        if (conf.getLayer().getDropOut() > 0 && !conf.isUseDropConnect() && training && !dropoutApplied) {
-            input = input.dup();
-            Dropout.applyDropout(input, conf.getLayer().getDropOut());
+        if (!training || dropoutApplied)
+            return;
+        if (conf.getLayer().getDropOut() > 0 && !conf.isUseDropConnect()) {
+            input = Dropout.applyDropoutCopy(input, conf.getLayer().getDropOut());
             dropoutApplied = true;
         }
     }
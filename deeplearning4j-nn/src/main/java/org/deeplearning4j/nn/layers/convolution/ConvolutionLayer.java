@@ -52,6 +52,14 @@ import java.util.Map;
 public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.ConvolutionLayer> {
     protected static final Logger log = LoggerFactory.getLogger(ConvolutionLayer.class);
 
+    /**
+     * System property: set to "true" to use {@link CpuConvolutionHelper} when the cuDNN helper is not available.
+     * Default (not set): the im2col implementation in this class is used. The helper gives the same results, but it
+     * is opt-in until CpuConvolutionHelperTest#testHelperTiming shows it to be faster than im2col on the VGG and
+     * ResNet layer shapes; on shapes where it is slower, enabling it globally would slow down whole networks.
+     */
+    public static final String CPU_HELPER_PROPERTY = "org.deeplearning4j.config.convolution.cpuhelper";
+
     protected ConvolutionHelper helper = null;
     protected ConvolutionMode convolutionMode;
 
@@ -76,6 +84,9 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
                 log.warn("Could not load CudnnConvolutionHelper", t);
             }
         }
+        if (helper == null && Boolean.getBoolean(CPU_HELPER_PROPERTY)) {
+            helper = new CpuConvolutionHelper();
+        }
     }
 
     @Override
@@ -0,0 +1,364 @@
+package org.deeplearning4j.nn.layers.convolution;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.nn.conf.ConvolutionMode;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer.AlgoMode;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.params.ConvolutionParamInitializer;
+import org.deeplearning4j.util.ConvolutionUtils;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.broadcast.BroadcastAddOp;
+import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.convolution.Convolution;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.nd4j.linalg.indexing.NDArrayIndex.all;
+import static org.nd4j.linalg.indexing.NDArrayIndex.interval;
+
+/**
+ * Convolution helper for use without cuDNN.
+ * <p>
+ * The standard ConvolutionLayer implementation does a single im2col for the whole minibatch (of size
+ * miniBatch*outH*outW*inDepth*kH*kW) followed by one GEMM, which for large feature maps means a very large temporary
+ * array and memory bandwidth. This helper instead tiles the im2col + GEMM over blocks of examples and output rows, with
+ * the im2col buffer for each tile limited to (approximately) a fixed number of elements and reused between tiles.
+ * Backprop is tiled in the same way, accumulating the weight and bias gradients over the tiles.
+ * <p>
+ * For 3x3 kernels with stride 1, the forward pass uses the Winograd F(2x2,3x3) algorithm (Lavin and Gray, "Fast
+ * Algorithms for Convolutional Neural Networks", 2015, https://arxiv.org/abs/1509.09308), expressed as 16 GEMMs over
+ * the input depth. This needs 2.25x fewer multiplications than the direct (im2col) convolution.
+ * <p>
+ * Not used by default: set the {@link ConvolutionLayer#CPU_HELPER_PROPERTY} system property to "true" to enable it.
+ *
+ * @see ConvolutionLayer
+ */
+public class CpuConvolutionHelper implements ConvolutionHelper {
+
+    /**
+     * Default maximum number of elements of the im2col buffer for each tile
+     */
+    public static final long DEFAULT_MAX_TILE_ELEMENTS = 1 << 22;
+
+    //Winograd F(2x2,3x3) transforms
+    private static final double[][] BT = {{1, 0, -1, 0}, {0, 1, 1, 0}, {0, -1, 1, 0}, {0, 1, 0, -1}};
+    private static final double[][] G = {{1, 0, 0}, {0.5, 0.5, 0.5}, {0.5, -0.5, 0.5}, {0, 0, 1}};
+    private static final double[][] AT = {{1, 1, 1, 0}, {0, 1, -1, -1}};
+
+    private final long maxTileElements;
+    private final boolean useWinograd;
+
+    public CpuConvolutionHelper() {
+        this(DEFAULT_MAX_TILE_ELEMENTS, true);
+    }
+
+    /**
+     * @param maxTileElements Maximum number of elements of the im2col buffer for each tile (at least one output row
+     *                        of one example is processed per tile)
+     * @param useWinograd     Whether to use Winograd F(2x2,3x3) for 3x3, stride 1 convolutions
+     */
+    public CpuConvolutionHelper(long maxTileElements, boolean useWinograd) {
+        this.maxTileElements = maxTileElements;
+        this.useWinograd = useWinograd;
+    }
+
+    @Override
+    public INDArray preOutput(INDArray input, INDArray weights, INDArray bias, int[] kernel, int[] strides, int[] pad,
+                    AlgoMode mode, ConvolutionMode convolutionMode) {
+        int[] outSize = ConvolutionUtils.getOutputSize(input, kernel, strides,
+                        (convolutionMode == ConvolutionMode.Same ? null : pad), convolutionMode);
+
+        INDArray z;
+        if (useWinograd && weights.size(2) == 3 && weights.size(3) == 3 && strides[0] == 1 && strides[1] == 1) {
+            z = winogradPreOutput(input, weights, pad, outSize);
+        } else {
+            z = tiledPreOutput(input, weights, strides, pad, outSize);
+        }
+
+        //Bias: [1,outDepth], along dimension 1 of [miniBatch,outDepth,outH,outW]
+        Nd4j.getExecutioner().exec(new BroadcastAddOp(z, bias, z, 1));
+        return z;
+    }
+
+    @Override
+    public Pair<Gradient, INDArray> backpropGradient(INDArray input, INDArray weights, INDArray delta, int[] kernel,
+                    int[] strides, int[] pad, INDArray biasGradView, INDArray weightGradView, IActivation afn,
+                    AlgoMode mode, ConvolutionMode convolutionMode) {
+        int miniBatch = input.size(0);
+        int inH = input.size(2);
+        int inW = input.size(3);
+        int outDepth = weights.size(0);
+        int inDepth = weights.size(1);
+        int kH = weights.size(2);
+        int kW = weights.size(3);
+        int outH = delta.size(2);
+        int outW = delta.size(3);
+
+        //As per ConvolutionLayer: weight gradients [outDepth,inDepth,kH,kW] c order, as [inDepth*kH*kW,outDepth] f order
+        INDArray weightGradView2df = Shape
+                        .newShapeNoCopy(weightGradView, new int[] {outDepth, inDepth * kH * kW}, false).transpose();
+        weightGradView.assign(0);
+        INDArray w2d = weights.permute(3, 2, 1, 0).reshape('f', kW * kH * inDepth, outDepth);
+        INDArray biasGrad = Nd4j.zeros(outDepth, 1);
+        INDArray epsNext = Nd4j.create(new int[] {miniBatch, inDepth, inH, inW}, 'c');
+
+        Tiling tiling = new Tiling(miniBatch, outH, (long) outW * inDepth * kH * kW);
+        Tile tile = null;
+        for (int n0 = 0; n0 < miniBatch; n0 += tiling.examples) {
+            int n1 = Math.min(miniBatch, n0 + tiling.examples);
+            for (int oh0 = 0; oh0 < outH; oh0 += tiling.rows) {
+                int oh1 = Math.min(outH, oh0 + tiling.rows);
+                tile = Tile.get(tile, n1 - n0, oh1 - oh0, outW, inDepth, kH, kW, strides, outDepth);
+                tile.im2col(input, n0, oh0 * strides[0] - pad[0], -pad[1]);
+
+                //Deltas for this tile, as [outDepth, examples*rows*outW]
+                tile.delta.assign(delta.get(interval(n0, n1), all(), interval(oh0, oh1), all()).permute(1, 0, 2, 3));
+                INDArray delta2d = tile.delta.reshape('c', outDepth, tile.numRows());
+
+                Nd4j.gemm(tile.col2d, delta2d, weightGradView2df, true, true, 1.0, 1.0);
+                biasGrad.addi(delta2d.sum(1));
+
+                //Epsilons in im2col format, then col2im into the (zeroed) input slab and add to epsNext. Adjacent
+                // tiles overlap when kH > strides[0], hence the add
+                INDArray epsCol2d = w2d.mmul(delta2d);
+                INDArray eps6d = Shape.newShapeNoCopy(epsCol2d,
+                                new int[] {kW, kH, inDepth, outW, tile.rows, tile.examples}, true)
+                                .permute(5, 2, 1, 0, 4, 3);
+                tile.slab.assign(0);
+                Convolution.col2im(eps6d, tile.slab, strides[0], strides[1], 0, 0, tile.slabH, tile.slabW);
+                tile.addSlabTo(epsNext, n0, oh0 * strides[0] - pad[0], -pad[1]);
+            }
+        }
+        biasGradView.assign(biasGrad);
+
+        Gradient retGradient = new DefaultGradient();
+        retGradient.setGradientFor(ConvolutionParamInitializer.BIAS_KEY, biasGradView);
+        retGradient.setGradientFor(ConvolutionParamInitializer.WEIGHT_KEY, weightGradView, 'c');
+        return new Pair<>(retGradient, epsNext);
+    }
+
+    @Override
+    public INDArray activate(INDArray z, IActivation afn) {
+        //Activation functions are applied by the layer
+        return null;
+    }
+
+    private INDArray tiledPreOutput(INDArray input, INDArray weights, int[] strides, int[] pad, int[] outSize) {
+        int miniBatch = input.size(0);
+        int outDepth = weights.size(0);
+        int inDepth = weights.size(1);
+        int kH = weights.size(2);
+        int kW = weights.size(3);
+        int outH = outSize[0];
+        int outW = outSize[1];
+
+        //As per ConvolutionLayer: weights [outDepth,inDepth,kH,kW] c order -> [kW*kH*inDepth,outDepth] f order
+        INDArray w2d = weights.permute(3, 2, 1, 0).reshape('f', kW * kH * inDepth, outDepth);
+        INDArray out = Nd4j.createUninitialized(new int[] {miniBatch, outDepth, outH, outW}, 'c');
+
+        Tiling tiling = new Tiling(miniBatch, outH, (long) outW * inDepth * kH * kW);
+        Tile tile = null;
+        for (int n0 = 0; n0 < miniBatch; n0 += tiling.examples) {
+            int n1 = Math.min(miniBatch, n0 + tiling.examples);
+            for (int oh0 = 0; oh0 < outH; oh0 += tiling.rows) {
+                int oh1 = Math.min(outH, oh0 + tiling.rows);
+                tile = Tile.get(tile, n1 - n0, oh1 - oh0, outW, inDepth, kH, kW, strides, outDepth);
+                tile.im2col(input, n0, oh0 * strides[0] - pad[0], -pad[1]);
+
+                //[examples*rows*outW, outDepth] f order; transposed, this is [outDepth,examples,rows,outW] c order
+                Nd4j.gemm(tile.col2d, w2d, tile.z, false, false, 1.0, 0.0);
+                INDArray z4d = tile.z.transpose().reshape('c', outDepth, tile.examples, tile.rows, outW);
+                out.get(interval(n0, n1), all(), interval(oh0, oh1), all()).assign(z4d.permute(1, 0, 2, 3));
+            }
+        }
+        return out;
+    }
+
+    private INDArray winogradPreOutput(INDArray input, INDArray weights, int[] pad, int[] outSize) {
+        int miniBatch = input.size(0);
+        int inH = input.size(2);
+        int inW = input.size(3);
+        int outDepth = weights.size(0);
+        int inDepth = weights.size(1);
+        int outH = outSize[0];
+        int outW = outSize[1];
+        //Number of 2x2 output tiles; each is computed from a 4x4 input tile, with a step of 2
+        int tilesH = (outH + 1) / 2;
+        int tilesW = (outW + 1) / 2;
+        int tilesPerExample = tilesH * tilesW;
+
+        //Filter transform, U = G g G^T for each (outDepth, inDepth) pair: as [16, outDepth, inDepth], c order
+        INDArray g2d = weights.dup('c').reshape('c', outDepth * inDepth, 9);
+        INDArray uF = Nd4j.create(new int[] {outDepth * inDepth, 16}, 'f');
+        Nd4j.gemm(g2d, kron(G, G), uF, false, true, 1.0, 0.0);
+        INDArray u = uF.transpose().reshape('c', 16, outDepth, inDepth);
+
+        INDArray kronBT = kron(BT, BT);
+        INDArray kronAT = kron(AT, AT);
+
+        INDArray full = Nd4j.createUninitialized(new int[] {miniBatch, outDepth, 2 * tilesH, 2 * tilesW}, 'c');
+        INDArray full6d = full.reshape('c', miniBatch, outDepth, tilesH, 2, tilesW, 2);
+
+        //Tile over examples: 16*inDepth*tiles for the transformed input, per example
+        int examplesPerBlock = (int) Math.max(1, Math.min(miniBatch, maxTileElements / (16L * inDepth * tilesPerExample)));
+        int slabH = 2 * tilesH + 2;
+        int slabW = 2 * tilesW + 2;
+        for (int n0 = 0; n0 < miniBatch; n0 += examplesPerBlock) {
+            int n1 = Math.min(miniBatch, n0 + examplesPerBlock);
+            int nEx = n1 - n0;
+            int numTiles = nEx * tilesPerExample;
+
+            //Zero padded input, then the 4x4 input tiles via im2col with stride 2: as [16, inDepth*numTiles] c order
+            INDArray slab = Nd4j.create(new int[] {nEx, inDepth, slabH, slabW}, 'c');
+            copyValidRegion(input, n0, n1, -pad[0], -pad[1], slab, inH, inW);
+            INDArray col = Nd4j.createUninitialized(new int[] {4, 4, inDepth, nEx, tilesH, tilesW}, 'c');
+            Convolution.im2col(slab, 4, 4, 2, 2, 0, 0, false, col.permute(3, 2, 0, 1, 4, 5));
+            INDArray d2d = col.reshape('c', 16, inDepth * numTiles);
+
+            //Input transform, V = B^T d B: as [16, inDepth, numTiles] c order
+            INDArray vF = Nd4j.create(new int[] {inDepth * numTiles, 16}, 'f');
+            Nd4j.gemm(d2d, kronBT, vF, true, true, 1.0, 0.0);
+            INDArray v = vF.transpose().reshape('c', 16, inDepth, numTiles);
+
+            //M = U V, summed over the input depth: one GEMM for each of the 16 transformed positions
+            INDArray m = Nd4j.createUninitialized(new int[] {16, outDepth, numTiles}, 'c');
+            for (int i = 0; i < 16; i++) {
+                INDArray mT = m.tensorAlongDimension(i, 1, 2).transpose(); //[numTiles, outDepth], f order
+                Nd4j.gemm(v.tensorAlongDimension(i, 1, 2), u.tensorAlongDimension(i, 1, 2), mT, true, true, 1.0, 0.0);
+            }
+
+            //Output transform, Y = A^T M A: as [2, 2, outDepth, nEx, tilesH, tilesW] c order
+            INDArray yF = Nd4j.create(new int[] {outDepth * numTiles, 4}, 'f');
+            Nd4j.gemm(m.reshape('c', 16, outDepth * numTiles), kronAT, yF, true, true, 1.0, 0.0);
+            INDArray y6d = yF.transpose().reshape('c', 2, 2, outDepth, nEx, tilesH, tilesW);
+            full6d.get(interval(n0, n1), all(), all(), all(), all(), all()).assign(y6d.permute(3, 2, 4, 0, 5, 1));
+        }
+
+        if (2 * tilesH == outH && 2 * tilesW == outW)
+            return full;
+        return full.get(all(), all(), interval(0, outH), interval(0, outW)).dup('c');
+    }
+
+    /**
+     * Kronecker product of two matrices, as used to apply the 2d Winograd transforms as a single matrix multiplication
+     */
+    private static INDArray kron(double[][] a, double[][] b) {
+        int rows = a.length * b.length;
+        int cols = a[0].length * b[0].length;
+        double[][] out = new double[rows][cols];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b.length; j++) {
+                for (int k = 0; k < a[0].length; k++) {
+                    for (int l = 0; l < b[0].length; l++) {
+                        out[i * b.length + j][k * b[0].length + l] = a[i][k] * b[j][l];
+                    }
+                }
+            }
+        }
+        return Nd4j.create(out);
+    }
+
+    /**
+     * Copy the input values in examples n0 to n1 into the slab, where slab position (0,0) corresponds to input
+     * position (inRow0, inCol0). Slab positions outside of the input are not modified (i.e., remain zero padding)
+     */
+    private static void copyValidRegion(INDArray input, int n0, int n1, int inRow0, int inCol0, INDArray slab,
+                    int inH, int inW) {
+        int sr0 = Math.max(0, -inRow0);
+        int sr1 = Math.min(slab.size(2), inH - inRow0);
+        int sc0 = Math.max(0, -inCol0);
+        int sc1 = Math.min(slab.size(3), inW - inCol0);
+        if (sr1 <= sr0 || sc1 <= sc0)
+            return;
+        slab.get(all(), all(), interval(sr0, sr1), interval(sc0, sc1)).assign(input.get(interval(n0, n1), all(),
+                        interval(inRow0 + sr0, inRow0 + sr1), interval(inCol0 + sc0, inCol0 + sc1)));
+    }
+
+    /**
+     * Number of examples and output rows per tile, such that the im2col buffer is at most maxTileElements (or one
+     * output row of one example, if larger)
+     */
+    private class Tiling {
+        private final int examples;
+        private final int rows;
+
+        private Tiling(int miniBatch, int outH, long colElementsPerRow) {
+            long perExample = colElementsPerRow * outH;
+            if (perExample <= maxTileElements) {
+                rows = outH;
+                examples = (int) Math.max(1, Math.min(miniBatch, maxTileElements / perExample));
+            } else {
+                examples = 1;
+                rows = (int) Math.max(1, Math.min(outH, maxTileElements / colElementsPerRow));
+            }
+        }
+    }
+
+    /**
+     * Scratch buffers for one tile: zero padded input slab, im2col buffer, GEMM output and deltas
+     */
+    private static class Tile {
+        private int examples;
+        private int rows;
+        private int outW;
+        private int slabH;
+        private int slabW;
+        private INDArray slab;
+        private INDArray col;
+        private INDArray col2d;
+        private INDArray z;
+        private INDArray delta;
+        private int[] strides;
+
+        /**
+         * Reuse the previous tile's buffers if the tile has the same size, otherwise allocate new buffers
+         */
+        private static Tile get(Tile previous, int examples, int rows, int outW, int inDepth, int kH, int kW,
+                        int[] strides, int outDepth) {
+            if (previous != null && previous.examples == examples && previous.rows == rows)
+                return previous;
+
+            Tile t = new Tile();
+            t.examples = examples;
+            t.rows = rows;
+            t.outW = outW;
+            t.strides = strides;
+            t.slabH = (rows - 1) * strides[0] + kH;
+            t.slabW = (outW - 1) * strides[1] + kW;
+            t.slab = Nd4j.create(new int[] {examples, inDepth, t.slabH, t.slabW}, 'c');
+            //As per ConvolutionLayer: [miniB,outH,outW,depthIn,kH,kW] c order, permuted to the im2col order for im2col
+            t.col = Nd4j.createUninitialized(new int[] {examples, rows, outW, inDepth, kH, kW}, 'c');
+            t.col2d = t.col.reshape('c', t.numRows(), inDepth * kH * kW);
+            t.z = Nd4j.createUninitialized(new int[] {t.numRows(), outDepth}, 'f');
+            t.delta = Nd4j.createUninitialized(new int[] {outDepth, examples, rows, outW}, 'c');
+            return t;
+        }
+
+        private int numRows() {
+            return examples * rows * outW;
+        }
+
+        private void im2col(INDArray input, int n0, int inRow0, int inCol0) {
+            slab.assign(0);
+            copyValidRegion(input, n0, n0 + examples, inRow0, inCol0, slab, input.size(2), input.size(3));
+            Convolution.im2col(slab, col.size(4), col.size(5), strides[0], strides[1], 0, 0, false,
+                            col.permute(0, 3, 4, 5, 1, 2));
+        }
+
+        /**
+         * Add the slab values that correspond to input positions to the given array (of the same shape as the input)
+         */
+        private void addSlabTo(INDArray arr, int n0, int inRow0, int inCol0) {
+            int sr0 = Math.max(0, -inRow0);
+            int sr1 = Math.min(slabH, arr.size(2) - inRow0);
+            int sc0 = Math.max(0, -inCol0);
+            int sc1 = Math.min(slabW, arr.size(3) - inCol0);
+            if (sr1 <= sr0 || sc1 <= sc0)
+                return;
+            arr.get(interval(n0, n0 + examples), all(), interval(inRow0 + sr0, inRow0 + sr1),
+                            interval(inCol0 + sc0, inCol0 + sc1))
+                            .addi(slab.get(all(), all(), interval(sr0, sr1), interval(sc0, sc1)));
+        }
+    }
+}
@@ -246,7 +246,7 @@ public class SubsamplingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
     @Override
     public INDArray activate(boolean training) {
         if (training && conf.getLayer().getDropOut() > 0) {
-            Dropout.applyDropout(input, conf.getLayer().getDropOut());
+            input = Dropout.applyDropoutCopy(input, conf.getLayer().getDropOut());
         }
 
         //Input validation: expect rank 4 matrix
@@ -20,14 +20,19 @@ package org.deeplearning4j.nn.layers.feedforward.embedding;
 
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.exception.DL4JInvalidInputException;
+import org.deeplearning4j.nn.api.layers.SparseGradientLayer;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.gradient.SparseRowGradient;
 import org.deeplearning4j.nn.layers.BaseLayer;
 import org.deeplearning4j.nn.params.DefaultParamInitializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**Embedding layer: feed-forward layer that expects single integers per example as input (class numbers, in range 0 to numClass-1)
  * as input. This input has shape [numExamples,1] instead of [numExamples,numClasses] for the equivalent one-hot representation.
  * Mathematically, EmbeddingLayer is equivalent to using a DenseLayer with a one-hot representation for the input; however,
@@ -38,13 +43,21 @@ import org.nd4j.linalg.factory.Nd4j;
  * weight rows can be considered a vector/embedding for each example.
  * @author Alex Black
  */
-public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.EmbeddingLayer> {
+public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.EmbeddingLayer>
+                implements SparseGradientLayer {
+
+    private transient Map<String, SparseRowGradient> sparseGradients;
+    //Rows of the weight gradient view that may be non-zero; null if any row may be non-zero
+    private transient int[] gradientRows;
+
     public EmbeddingLayer(NeuralNetConfiguration conf) {
         super(conf);
     }
 
     @Override
     public Pair<Gradient, INDArray> backpropGradient(INDArray epsilon) {
+        //Sparse gradients (or updates) from the previous backprop are replaced
+        sparseGradients = null;
 
         //If this layer is layer L, then epsilon is (w^(L+1)*(d^(L+1))^T) (or equivalent)
         INDArray z = preOutput(input);
@@ -57,23 +70,35 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
             delta.muliColumnVector(maskArray);
         }
 
-        INDArray weights = getParam(DefaultParamInitializer.WEIGHT_KEY);
-        INDArray weightGradients = gradientViews.get(DefaultParamInitializer.WEIGHT_KEY);
-        weightGradients.assign(0);
-
-        int[] indexes = new int[input.length()];
-        for (int i = 0; i < indexes.length; i++) {
-            indexes[i] = input.getInt(i, 0);
+        int[] indexes = getIndexes();
+        Gradient ret = new DefaultGradient();
 
-            weightGradients.getRow(indexes[i]).addi(delta.getRow(i));
+        INDArray weightGradients = gradientViews.get(DefaultParamInitializer.WEIGHT_KEY);
+        if (layerConf().isSparseGradients()) {
+            //Only the rows used in this minibatch get a gradient: the deltas are summed per row. Only the rows written
+            // by the previous backprop need to be reset in the dense gradient view; all other rows are already zero
+            if (gradientRows == null) {
+                weightGradients.assign(0);
+            } else {
+                SparseRowGradient.clearRows(weightGradients, gradientRows);
+            }
+            SparseRowGradient sparse = SparseRowGradient.fromRowDeltas(indexes, delta);
+            SparseRowGradient.scatterRows(weightGradients, sparse.getRows(), sparse.getValues());
+            gradientRows = sparse.getRows();
+            sparseGradients = Collections.singletonMap(DefaultParamInitializer.WEIGHT_KEY, sparse);
+        } else {
+            weightGradients.assign(0);
+            for (int i = 0; i < indexes.length; i++) {
+                weightGradients.getRow(indexes[i]).addi(delta.getRow(i));
+            }
+            gradientRows = null;
         }
+        ret.gradientForVariable().put(DefaultParamInitializer.WEIGHT_KEY, weightGradients);
 
         INDArray biasGradientsView = gradientViews.get(DefaultParamInitializer.BIAS_KEY);
         INDArray biasGradients = delta.sum(0);
         biasGradientsView.assign(biasGradients); //TODO do this without the assign...
 
-        Gradient ret = new DefaultGradient();
-        ret.gradientForVariable().put(DefaultParamInitializer.WEIGHT_KEY, weightGradients);
         ret.gradientForVariable().put(DefaultParamInitializer.BIAS_KEY, biasGradientsView);
 
         return new Pair<>(ret, null); //Don't bother returning epsilons: no layer below this one...
@@ -81,16 +106,7 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
 
     @Override
     public INDArray preOutput(boolean training) {
-        if (input.columns() != 1) {
-            //Assume shape is [numExamples,1], and each entry is an integer index
-            throw new DL4JInvalidInputException(
-                            "Cannot do forward pass for embedding layer with input more than one column. "
-                                            + "Expected input shape: [numExamples,1] with each entry being an integer index");
-        }
-
-        int[] indexes = new int[input.length()];
-        for (int i = 0; i < indexes.length; i++)
-            indexes[i] = input.getInt(i, 0);
+        int[] indexes = getIndexes();
 
         INDArray weights = getParam(DefaultParamInitializer.WEIGHT_KEY);
         INDArray bias = getParam(DefaultParamInitializer.BIAS_KEY);
@@ -108,6 +124,50 @@ public class EmbeddingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.
         return rows;
     }
 
+    /**
+     * Read the indices from the input (shape [numExamples,1]) with a single bulk copy, and validate them
+     */
+    protected int[] getIndexes() {
+        if (input.columns() != 1) {
+            //Assume shape is [numExamples,1], and each entry is an integer index
+            throw new DL4JInvalidInputException(
+                            "Cannot do forward pass for embedding layer with input more than one column. "
+                                            + "Expected input shape: [numExamples,1] with each entry being an integer index");
+        }
+
+        INDArray in = input;
+        if (in.elementWiseStride() != 1 || in.offset() != 0 || in.data().length() != in.length())
+            in = in.dup();
+        int[] indexes = in.data().asInt();
+
+        int nIn = layerConf().getNIn();
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] < 0 || indexes[i] >= nIn) {
+                throw new DL4JInvalidInputException("Invalid index for embedding layer: got index " + indexes[i]
+                                + " for example " + i + ", expected indices in range 0 to " + (nIn - 1)
+                                + " inclusive (nIn = " + nIn + ")");
+            }
+        }
+        return indexes;
+    }
+
+    @Override
+    public Map<String, SparseRowGradient> getSparseGradients() {
+        return sparseGradients;
+    }
+
+    @Override
+    public void clearSparseGradients() {
+        sparseGradients = null;
+        gradientRows = null;
+    }
+
+    @Override
+    public void setBackpropGradientsViewArray(INDArray gradients) {
+        super.setBackpropGradientsViewArray(gradients);
+        gradientRows = null;
+    }
+
     @Override
     public INDArray activate(boolean training) {
         INDArray rows = preOutput(training);
@@ -420,7 +420,7 @@ public class RBM extends BasePretrainNetwork<org.deeplearning4j.nn.conf.layers.R
     @Override
     public INDArray activate(boolean training) {
         if (training && conf.getLayer().getDropOut() > 0.0) {
-            Dropout.applyDropout(input, conf.getLayer().getDropOut());
+            input = Dropout.applyDropoutCopy(input, conf.getLayer().getDropOut());
         }
         //reconstructed: propUp ----> hidden propDown to transform
         INDArray propUp = propUp(input, training);
@@ -121,6 +121,10 @@ public class BatchNormalization extends BaseLayer<org.deeplearning4j.nn.conf.lay
             Pair<Gradient, INDArray> ret = helper.backpropGradient(input, epsilon, shape, gamma, dGammaView, dBetaView,
                             layerConf.getEps());
             if (ret != null) {
+                dGlobalMeanView.assign(0);
+                dGlobalVarView.assign(0);
+                ret.getFirst().setGradientFor(BatchNormalizationParamInitializer.GLOBAL_MEAN, dGlobalMeanView);
+                ret.getFirst().setGradientFor(BatchNormalizationParamInitializer.GLOBAL_VAR, dGlobalVarView);
                 return ret;
             }
         }
@@ -256,6 +260,33 @@ public class BatchNormalization extends BaseLayer<org.deeplearning4j.nn.conf.lay
         // "For convolutional layers, we additionally want the normalization to obey the convolutional property – so that
         //  different elements of the same feature map, at different locations, are normalized in the same way. To achieve
         //  this, we jointly normalize all the activations in a minibatch, over all locations."
+        INDArray gamma = null;
+        INDArray beta = null;
+        INDArray globalMeanView = getParam(BatchNormalizationParamInitializer.GLOBAL_MEAN);
+        INDArray globalVarView = getParam(BatchNormalizationParamInitializer.GLOBAL_VAR);
+        if (layerConf.isLockGammaBeta()) {
+            if (helper != null && x.rank() == 4) {
+                //TODO: don't create these each iteration, when using cudnn
+                int[] gammaBetaShape = new int[] {1, layerConf().getNOut()};
+                gamma = Nd4j.valueArrayOf(gammaBetaShape, layerConf().getGamma());
+                beta = Nd4j.valueArrayOf(gammaBetaShape, layerConf().getBeta());
+            }
+        } else {
+            gamma = getParam(BatchNormalizationParamInitializer.GAMMA);
+            beta = getParam(BatchNormalizationParamInitializer.BETA);
+        }
+
+        if (helper != null && x.rank() == 4 && (training != TrainingMode.TRAIN || layerConf.isMinibatch())) {
+            //Note that cudnn does not support dense (2d) batch norm case as of v5.1
+            //Full-batch training (global stats = minibatch stats, no moving average) is done below
+            double decay = layerConf.getDecay();
+            INDArray ret = helper.preOutput(x, training == TrainingMode.TRAIN, shape, gamma, beta, globalMeanView,
+                            globalVarView, decay, layerConf.getEps());
+            if (ret != null) {
+                return ret;
+            }
+        }
+
         INDArray mean, var;
         if (training == TrainingMode.TRAIN) {
             switch (x.rank()) {
@@ -283,32 +314,6 @@ public class BatchNormalization extends BaseLayer<org.deeplearning4j.nn.conf.lay
         }
         std = Transforms.sqrt(var, true);
 
-        INDArray gamma = null;
-        INDArray beta = null;
-        INDArray globalMeanView = getParam(BatchNormalizationParamInitializer.GLOBAL_MEAN);
-        INDArray globalVarView = getParam(BatchNormalizationParamInitializer.GLOBAL_VAR);
-        if (layerConf.isLockGammaBeta()) {
-            if (helper != null && input.rank() == 4) {
-                //TODO: don't create these each iteration, when using cudnn
-                int[] gammaBetaShape = new int[] {1, layerConf().getNOut()};
-                gamma = Nd4j.valueArrayOf(gammaBetaShape, layerConf().getGamma());
-                beta = Nd4j.valueArrayOf(gammaBetaShape, layerConf().getBeta());
-            }
-        } else {
-            gamma = getParam(BatchNormalizationParamInitializer.GAMMA);
-            beta = getParam(BatchNormalizationParamInitializer.BETA);
-        }
-
-        if (helper != null && input.rank() != 4) {
-            //Note that cudnn does not support dense (2d) batch norm case as of v5.1
-            double decay = layerConf.getDecay();
-            INDArray ret = helper.preOutput(x, training == TrainingMode.TRAIN, shape, gamma, beta, globalMeanView,
-                            globalVarView, decay, layerConf.getEps());
-            if (ret != null) {
-                return ret;
-            }
-        }
-
         // BN(xk) = gamma*xˆ + β (applying gamma and beta for each activation)
         if (x.rank() == 2) {
             xMu = x.subRowVector(mean);
@@ -0,0 +1,446 @@
+package org.deeplearning4j.nn.layers.recurrent;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.exception.DL4JInvalidInputException;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.util.Dropout;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.activations.impl.ActivationSigmoid;
+import org.nd4j.linalg.api.blas.Level1;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.broadcast.BroadcastMulOp;
+import org.nd4j.linalg.api.ops.impl.transforms.TimesOneMinus;
+import org.nd4j.linalg.api.ops.impl.transforms.arithmetic.MulOp;
+import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.nd4j.linalg.indexing.NDArrayIndex.all;
+import static org.nd4j.linalg.indexing.NDArrayIndex.interval;
+import static org.nd4j.linalg.indexing.NDArrayIndex.point;
+
+/**
+ * Whole-sequence implementation of the LSTM forward pass and backprop. The math is the same as {@link LSTMHelpers}
+ * (and gives the same results), but the work is organized around whole-sequence arrays instead of per time step arrays:
+ * <ul>
+ * <li>The input projection (input weights and biases) for all time steps is calculated in a single GEMM, instead of
+ * one GEMM per time step; only the recurrent weights are applied in the time step loop</li>
+ * <li>The gate activations, cell states etc. for all time steps are written into arrays allocated once per sequence,
+ * and the gate nonlinearities are applied in place on views of these. The per time step copies (dup) of
+ * {@link LSTMHelpers} are avoided</li>
+ * <li>In backprop, only the deltas are calculated in the time step loop. The input weight, recurrent weight, peephole
+ * and bias gradients and the epsilons for the layer below are then calculated for all time steps at once</li>
+ * </ul>
+ * The per time step op count (and allocations) are what dominates the runtime of LSTMHelpers for long sequences and
+ * small minibatches. This helper uses more memory than LSTMHelpers for the sequence buffers (about 4 times the size of
+ * the layer activations for inference).
+ */
+public class FusedLSTMHelper implements LSTMHelper {
+
+    @Override
+    public boolean checkSupported(IActivation gateActivationFn, IActivation activationFn) {
+        return true;
+    }
+
+    /**
+     * Forward pass return with the whole-sequence arrays, for use in {@link #backpropGradient}
+     */
+    static class FusedFwdPassReturn extends FwdPassReturn {
+        //Input for all time steps, shape [miniBatch*timeSeriesLength, nIn]. Rows: example + miniBatch*time
+        private INDArray input2d;
+        //Shape [miniBatch, hiddenLayerSize, timeSeriesLength]
+        private INDArray memCellState3d;
+    }
+
+    @Override
+    public FwdPassReturn activate(Layer layer, NeuralNetConfiguration conf, IActivation gateActivationFn,
+                    INDArray input, INDArray recurrentWeights, INDArray originalInputWeights, INDArray biases,
+                    boolean training, INDArray prevOutputActivations, INDArray originalPrevMemCellState,
+                    boolean forBackprop, boolean forwards, String inputWeightKey, INDArray maskArray) {
+        if (input == null || input.length() == 0)
+            throw new IllegalArgumentException("Invalid input: not set or 0 length");
+
+        INDArray inputWeights = originalInputWeights;
+        //Apply dropconnect to input (not recurrent) weights only:
+        if (conf.isUseDropConnect() && training && conf.getLayer().getDropOut() > 0) {
+            inputWeights = Dropout.applyDropConnect(layer, inputWeightKey);
+        }
+
+        boolean is2dInput = input.rank() < 3; //Edge case of T=1, may have shape [m,nIn], equiv. to [m,nIn,1]
+        int timeSeriesLength = (is2dInput ? 1 : input.size(2));
+        int hiddenLayerSize = recurrentWeights.size(0);
+        int miniBatchSize = input.size(0);
+
+        if (input.size(1) != inputWeights.size(0)) {
+            throw new DL4JInvalidInputException("Received input with size(1) = " + input.size(1)
+                            + " (input array shape = " + Arrays.toString(input.shape())
+                            + "); input.size(1) must match layer nIn size (nIn = " + inputWeights.size(0) + ")");
+        }
+        if (prevOutputActivations != null && prevOutputActivations.size(0) != input.size(0)) {
+            throw new DL4JInvalidInputException("Previous activations (stored state) number of examples = "
+                            + prevOutputActivations.size(0) + " but input array number of examples = " + input.size(0)
+                            + ". Possible cause: using rnnTimeStep() without calling"
+                            + " rnnClearPreviousState() between different sequences?");
+        }
+
+        int h = hiddenLayerSize;
+        INDArray recurrentWeightsIFOG = recurrentWeights.get(all(), interval(0, 4 * h)).dup('f');
+        INDArray wFFTranspose = peepholeWeights(recurrentWeights, 4 * h);
+        INDArray wOOTranspose = peepholeWeights(recurrentWeights, 4 * h + 1);
+        INDArray wGGTranspose = peepholeWeights(recurrentWeights, 4 * h + 2);
+
+        //Input projection + bias for all time steps at once, then rearranged so that each time step is contiguous
+        INDArray input2d = (is2dInput ? Shape.toMmulCompatible(input) : toTimeMajor2d(input));
+        INDArray ifog2d = Nd4j.create(new int[] {miniBatchSize * timeSeriesLength, 4 * h}, 'f');
+        Nd4j.gemm(input2d, inputWeights, ifog2d, false, false, 1.0, 0.0);
+        ifog2d.addiRowVector(biases);
+        INDArray ifog = Nd4j.createUninitialized(new int[] {miniBatchSize, 4 * h, timeSeriesLength}, 'f');
+        ifog.assign(ifog2d.reshape('f', miniBatchSize, timeSeriesLength, 4 * h).permute(0, 2, 1));
+        ifog2d = null;
+
+        boolean sigmoidGates = gateActivationFn instanceof ActivationSigmoid;
+        IActivation afn = conf.getLayer().getActivationFn();
+
+        int[] seqShape = new int[] {miniBatchSize, hiddenLayerSize, timeSeriesLength};
+        INDArray outputActivations = Nd4j.createUninitialized(seqShape, 'f');
+        INDArray memCellState = Nd4j.createUninitialized(seqShape, 'f');
+        INDArray memCellActivations = null;
+        INDArray iz = null;
+        INDArray fz = null;
+        INDArray oz = null;
+        INDArray gz = null;
+        if (forBackprop) {
+            memCellActivations = Nd4j.createUninitialized(seqShape, 'f');
+            iz = Nd4j.createUninitialized(seqShape, 'f');
+            if (!sigmoidGates) {
+                fz = Nd4j.createUninitialized(seqShape, 'f');
+                oz = Nd4j.createUninitialized(seqShape, 'f');
+                gz = Nd4j.createUninitialized(seqShape, 'f');
+            }
+        }
+
+        FusedFwdPassReturn toReturn = new FusedFwdPassReturn();
+        toReturn.fwdPassOutput = outputActivations;
+        if (forBackprop) {
+            toReturn.input2d = input2d;
+            toReturn.memCellState3d = memCellState;
+            toReturn.fwdPassOutputAsArrays = new INDArray[timeSeriesLength];
+            toReturn.memCellState = new INDArray[timeSeriesLength];
+            toReturn.memCellActivations = new INDArray[timeSeriesLength];
+            toReturn.iz = new INDArray[timeSeriesLength];
+            toReturn.ia = new INDArray[timeSeriesLength];
+            toReturn.fa = new INDArray[timeSeriesLength];
+            toReturn.oa = new INDArray[timeSeriesLength];
+            toReturn.ga = new INDArray[timeSeriesLength];
+            if (!sigmoidGates) {
+                toReturn.fz = new INDArray[timeSeriesLength];
+                toReturn.oz = new INDArray[timeSeriesLength];
+                toReturn.gz = new INDArray[timeSeriesLength];
+            }
+        }
+
+        //Null previous state: equivalent to zeros, and the corresponding terms are skipped
+        INDArray prevOut = prevOutputActivations;
+        INDArray prevMemCell = originalPrevMemCellState;
+        INDArray temp = Nd4j.createUninitialized(new int[] {miniBatchSize, hiddenLayerSize}, 'f');
+        INDArray currOut = null;
+        INDArray currMemCell = null;
+
+        for (int iTimeIndex = 0; iTimeIndex < timeSeriesLength; iTimeIndex++) {
+            int time = (forwards ? iTimeIndex : timeSeriesLength - iTimeIndex - 1);
+
+            INDArray ifogT = ifog.tensorAlongDimension(time, 1, 0); //Shape: [m,4*hiddenLayerSize], f order, contiguous
+            if (prevOut != null) {
+                Nd4j.gemm(prevOut, recurrentWeightsIFOG, ifogT, false, false, 1.0, 1.0);
+            }
+            INDArray inputActivations = ifogT.get(all(), interval(0, h));
+            INDArray forgetGateActivations = ifogT.get(all(), interval(h, 2 * h));
+            INDArray outputGateActivations = ifogT.get(all(), interval(2 * h, 3 * h));
+            INDArray inputModGateActivations = ifogT.get(all(), interval(3 * h, 4 * h));
+
+            if (forBackprop)
+                iz.tensorAlongDimension(time, 1, 0).assign(inputActivations);
+            afn.getActivation(inputActivations, training);
+
+            //Peephole connections from the previous cell state to the forget and input modulation gates
+            if (prevMemCell != null) {
+                forgetGateActivations.addi(temp.assign(prevMemCell).muliRowVector(wFFTranspose));
+                inputModGateActivations.addi(temp.assign(prevMemCell).muliRowVector(wGGTranspose));
+            }
+            if (forBackprop && !sigmoidGates) {
+                fz.tensorAlongDimension(time, 1, 0).assign(forgetGateActivations);
+                gz.tensorAlongDimension(time, 1, 0).assign(inputModGateActivations);
+            }
+            gateActivationFn.getActivation(forgetGateActivations, training);
+            gateActivationFn.getActivation(inputModGateActivations, training);
+
+            //Memory cell state: c = f*c_prev + g*i
+            currMemCell = memCellState.tensorAlongDimension(time, 1, 0);
+            Nd4j.getExecutioner().exec(new MulOp(inputModGateActivations, inputActivations, currMemCell));
+            if (prevMemCell != null) {
+                Nd4j.getExecutioner().exec(new MulOp(forgetGateActivations, prevMemCell, temp));
+                currMemCell.addi(temp);
+            }
+
+            //Peephole connection from the current cell state to the output gate
+            outputGateActivations.addi(temp.assign(currMemCell).muliRowVector(wOOTranspose));
+            if (forBackprop && !sigmoidGates)
+                oz.tensorAlongDimension(time, 1, 0).assign(outputGateActivations);
+            gateActivationFn.getActivation(outputGateActivations, training);
+
+            //LSTM unit outputs
+            INDArray currMemCellActivation =
+                            (forBackprop ? memCellActivations.tensorAlongDimension(time, 1, 0) : temp);
+            afn.getActivation(currMemCellActivation.assign(currMemCell), training);
+            currOut = outputActivations.tensorAlongDimension(time, 1, 0);
+            Nd4j.getExecutioner().exec(new MulOp(currMemCellActivation, outputGateActivations, currOut));
+
+            if (maskArray != null) {
+                //Bidirectional RNN with mask: zero out both the activations and the memory cell state (as these are
+                // carried forward) for masked time steps, as per LSTMHelpers
+                INDArray timeStepMaskColumn = maskArray.getColumn(time);
+                currOut.muliColumnVector(timeStepMaskColumn);
+                currMemCell.muliColumnVector(timeStepMaskColumn);
+            }
+
+            if (forBackprop) {
+                toReturn.fwdPassOutputAsArrays[time] = currOut;
+                toReturn.memCellState[time] = currMemCell;
+                toReturn.memCellActivations[time] = currMemCellActivation;
+                toReturn.iz[time] = iz.tensorAlongDimension(time, 1, 0);
+                toReturn.ia[time] = inputActivations;
+                toReturn.fa[time] = forgetGateActivations;
+                toReturn.oa[time] = outputGateActivations;
+                toReturn.ga[time] = inputModGateActivations;
+                if (!sigmoidGates) {
+                    toReturn.fz[time] = fz.tensorAlongDimension(time, 1, 0);
+                    toReturn.oz[time] = oz.tensorAlongDimension(time, 1, 0);
+                    toReturn.gz[time] = gz.tensorAlongDimension(time, 1, 0);
+                }
+            }
+
+            prevOut = currOut;
+            prevMemCell = currMemCell;
+        }
+
+        //Copies: the stored state must not be affected by in-place modification of the returned activations
+        toReturn.lastAct = currOut.dup('f');
+        toReturn.lastMemCell = currMemCell.dup('f');
+        return toReturn;
+    }
+
+    @Override
+    public Pair<Gradient, INDArray> backpropGradient(NeuralNetConfiguration conf, IActivation gateActivationFn,
+                    INDArray input, INDArray recurrentWeights, INDArray inputWeights, INDArray epsilon,
+                    boolean truncatedBPTT, int tbpttBackwardLength, FwdPassReturn fwdPass, boolean forwards,
+                    String inputWeightKey, String recurrentWeightKey, String biasWeightKey,
+                    Map<String, INDArray> gradientViews, INDArray maskArray) {
+        if (!(fwdPass instanceof FusedFwdPassReturn) || ((FusedFwdPassReturn) fwdPass).input2d == null) {
+            //Forward pass was not done by this helper
+            return LSTMHelpers.backpropGradientHelper(conf, gateActivationFn, input, recurrentWeights, inputWeights,
+                            epsilon, truncatedBPTT, tbpttBackwardLength, fwdPass, forwards, inputWeightKey,
+                            recurrentWeightKey, biasWeightKey, gradientViews, maskArray);
+        }
+        FusedFwdPassReturn fwd = (FusedFwdPassReturn) fwdPass;
+
+        int hiddenLayerSize = recurrentWeights.size(0);
+        int prevLayerSize = inputWeights.size(0);
+        int miniBatchSize = epsilon.size(0);
+        boolean is2dInput = epsilon.rank() < 3;
+        int timeSeriesLength = (is2dInput ? 1 : epsilon.size(2));
+        int h = hiddenLayerSize;
+
+        INDArray wFFTranspose = peepholeWeights(recurrentWeights, 4 * h);
+        INDArray wOOTranspose = peepholeWeights(recurrentWeights, 4 * h + 1);
+        INDArray wGGTranspose = peepholeWeights(recurrentWeights, 4 * h + 2);
+        INDArray wIFOG = recurrentWeights.get(all(), interval(0, 4 * h)).dup('f');
+
+        int endIdx = 0;
+        if (truncatedBPTT) {
+            endIdx = Math.max(0, timeSeriesLength - tbpttBackwardLength);
+        }
+
+        //Deltas for all time steps; rows: example + miniBatch*time, as per the input. Zeros for time steps before endIdx
+        INDArray deltaifogAll = Nd4j.create(new int[] {miniBatchSize * timeSeriesLength, 4 * h}, 'f');
+
+        int[] stepShape = new int[] {miniBatchSize, hiddenLayerSize};
+        INDArray deltaifog = Nd4j.create(new int[] {miniBatchSize, 4 * h}, 'f');
+        INDArray deltai = deltaifog.get(all(), interval(0, h));
+        INDArray deltaf = deltaifog.get(all(), interval(h, 2 * h));
+        INDArray deltao = deltaifog.get(all(), interval(2 * h, 3 * h));
+        INDArray deltag = deltaifog.get(all(), interval(3 * h, 4 * h));
+        INDArray nablaCellState = Nd4j.create(stepShape, 'f');
+        INDArray nablaCellStateNext = Nd4j.create(stepShape, 'f');
+        INDArray nablaOut = Nd4j.createUninitialized(stepShape, 'f');
+        INDArray temp = Nd4j.createUninitialized(stepShape, 'f');
+
+        boolean sigmoidGates = gateActivationFn instanceof ActivationSigmoid;
+        IActivation afn = conf.getLayer().getActivationFn();
+
+        for (int iTimeIndex = timeSeriesLength - 1; iTimeIndex >= endIdx; iTimeIndex--) {
+            int time = (forwards ? iTimeIndex : timeSeriesLength - iTimeIndex - 1);
+            int inext = (forwards ? 1 : -1);
+            boolean lastStep = (iTimeIndex == timeSeriesLength - 1); //No contributions from the next time step
+
+            //Components of nablaCellState that rely on the next time step deltas (before these are overwritten)
+            if (lastStep) {
+                nablaCellState.assign(0);
+            } else {
+                nablaCellState.assign(deltaf).muliRowVector(wFFTranspose);
+                nablaCellState.addi(temp.assign(deltag).muliRowVector(wGGTranspose));
+            }
+
+            //LSTM unit output errors (dL/d(a_out))
+            nablaOut.assign(is2dInput ? epsilon : epsilon.tensorAlongDimension(time, 1, 0));
+            if (!lastStep) {
+                Nd4j.gemm(deltaifog, wIFOG, nablaOut, false, true, 1.0, 1.0);
+            }
+
+            //Output gate deltas:
+            INDArray ao = fwd.oa[time];
+            Nd4j.getExecutioner().exec(new MulOp(nablaOut, fwd.memCellActivations[time], deltao));
+            if (sigmoidGates) {
+                Nd4j.getExecutioner().exec(new TimesOneMinus(ao, temp)); //Equivalent to sigmoid deriv on zo
+                deltao.muli(temp);
+            } else {
+                deltao.assign(gateActivationFn.backprop(fwd.oz[time], deltao).getFirst());
+            }
+
+            //Memory cell error:
+            nablaCellState.addi(afn.backprop(temp.assign(fwd.memCellState[time]), ao.muli(nablaOut)).getFirst());
+            nablaCellState.addi(temp.assign(deltao).muliRowVector(wOOTranspose));
+            if (!lastStep) {
+                Nd4j.getExecutioner().exec(new MulOp(fwd.fa[time + inext], nablaCellStateNext, temp));
+                nablaCellState.addi(temp);
+            }
+
+            //Forget gate delta: no contribution at the first time step (previous cell state is zero)
+            if (iTimeIndex > 0) {
+                INDArray prevMemCellState = fwd.memCellState[time - inext];
+                if (sigmoidGates) {
+                    Nd4j.getExecutioner().exec(new TimesOneMinus(fwd.fa[time], deltaf));
+                    deltaf.muli(nablaCellState);
+                    deltaf.muli(prevMemCellState);
+                } else {
+                    Nd4j.getExecutioner().exec(new MulOp(nablaCellState, prevMemCellState, temp));
+                    deltaf.assign(gateActivationFn.backprop(fwd.fz[time].dup('f'), temp).getFirst());
+                }
+            } else {
+                deltaf.assign(0);
+            }
+
+            //Input modulation gate delta:
+            INDArray ag = fwd.ga[time];
+            INDArray ai = fwd.ia[time];
+            if (sigmoidGates) {
+                Nd4j.getExecutioner().exec(new TimesOneMinus(ag, deltag)); //Equivalent to sigmoid deriv on zg
+                deltag.muli(ai);
+                deltag.muli(nablaCellState);
+            } else {
+                Nd4j.getExecutioner().exec(new MulOp(ai, nablaCellState, temp));
+                deltag.assign(gateActivationFn.backprop(fwd.gz[time], temp).getFirst());
+            }
+
+            //Network input delta:
+            Nd4j.getExecutioner().exec(new MulOp(ag, nablaCellState, temp));
+            deltai.assign(afn.backprop(fwd.iz[time], temp).getFirst());
+
+            if (maskArray != null) {
+                //Bidirectional RNN with mask: zero out the deltas for masked time steps
+                deltaifog.muliColumnVector(maskArray.getColumn(time));
+            }
+
+            deltaifogAll.get(interval(time * miniBatchSize, (time + 1) * miniBatchSize), all()).assign(deltaifog);
+
+            INDArray swap = nablaCellStateNext;
+            nablaCellStateNext = nablaCellState;
+            nablaCellState = swap;
+        }
+
+        //Gradients for all time steps at once. Previous activations/cell state are zero at the first time step
+        INDArray iwGradientsOut = gradientViews.get(inputWeightKey);
+        INDArray rwGradientsOut = gradientViews.get(recurrentWeightKey); //Order: {I,F,O,G,FF,OO,GG}
+        INDArray bGradientsOut = gradientViews.get(biasWeightKey);
+        iwGradientsOut.assign(0);
+        rwGradientsOut.assign(0);
+        bGradientsOut.assign(0);
+
+        Nd4j.gemm(fwd.input2d, deltaifogAll, iwGradientsOut, true, false, 1.0, 1.0);
+
+        INDArray prevOut2d = toShiftedTimeMajor2d(fwd.fwdPassOutput, forwards);
+        INDArray rwGradientsIFOG = rwGradientsOut.get(all(), interval(0, 4 * h));
+        Nd4j.gemm(prevOut2d, deltaifogAll, rwGradientsIFOG, true, false, 1.0, 1.0);
+        prevOut2d = null;
+
+        Level1 l1BLAS = Nd4j.getBlasWrapper().level1();
+        INDArray memCell2d = toTimeMajor2d(fwd.memCellState3d);
+        INDArray prevMemCell2d = toShiftedTimeMajor2d(fwd.memCellState3d, forwards);
+        INDArray temp2d = Nd4j.createUninitialized(memCell2d.shape(), 'f');
+        Nd4j.getExecutioner().exec(new MulOp(deltaifogAll.get(all(), interval(h, 2 * h)), prevMemCell2d, temp2d));
+        l1BLAS.axpy(h, 1.0, temp2d.sum(0), rwGradientsOut.get(all(), point(4 * h))); //dL/dw_{FF}
+        Nd4j.getExecutioner().exec(new MulOp(deltaifogAll.get(all(), interval(2 * h, 3 * h)), memCell2d, temp2d));
+        l1BLAS.axpy(h, 1.0, temp2d.sum(0), rwGradientsOut.get(all(), point(4 * h + 1))); //dL/dw_{OO}
+        Nd4j.getExecutioner().exec(new MulOp(deltaifogAll.get(all(), interval(3 * h, 4 * h)), prevMemCell2d, temp2d));
+        l1BLAS.axpy(h, 1.0, temp2d.sum(0), rwGradientsOut.get(all(), point(4 * h + 2))); //dL/dw_{GG}
+
+        l1BLAS.axpy(4 * h, 1.0, deltaifogAll.sum(0), bGradientsOut);
+
+        //Epsilons for the layer below: [m*T, nIn] -> [m,nIn,T]
+        INDArray epsilonNext2d = Nd4j.create(new int[] {miniBatchSize * timeSeriesLength, prevLayerSize}, 'f');
+        Nd4j.gemm(deltaifogAll, inputWeights, epsilonNext2d, false, true, 1.0, 1.0);
+        INDArray epsilonNext = Nd4j.createUninitialized(new int[] {miniBatchSize, prevLayerSize, timeSeriesLength}, 'f');
+        epsilonNext.assign(epsilonNext2d.reshape('f', miniBatchSize, timeSeriesLength, prevLayerSize).permute(0, 2, 1));
+        if (maskArray != null) {
+            Nd4j.getExecutioner().exec(new BroadcastMulOp(epsilonNext, maskArray, epsilonNext, 0, 2));
+        }
+
+        Gradient retGradient = new DefaultGradient();
+        retGradient.gradientForVariable().put(inputWeightKey, iwGradientsOut);
+        retGradient.gradientForVariable().put(recurrentWeightKey, rwGradientsOut);
+        retGradient.gradientForVariable().put(biasWeightKey, bGradientsOut);
+
+        return new Pair<>(retGradient, epsilonNext);
+    }
+
+    /**
+     * Peephole weights (column of the recurrent weights) as a row vector
+     */
+    private static INDArray peepholeWeights(INDArray recurrentWeights, int column) {
+        return recurrentWeights.get(all(), interval(column, column + 1)).transpose().dup();
+    }
+
+    /**
+     * Rearrange a [miniBatch, size, timeSeriesLength] array to [miniBatch*timeSeriesLength, size], with rows
+     * example + miniBatch*time
+     */
+    private static INDArray toTimeMajor2d(INDArray arr) {
+        int m = arr.size(0);
+        int size = arr.size(1);
+        int t = arr.size(2);
+        INDArray out = Nd4j.createUninitialized(new int[] {m, t, size}, 'f');
+        out.assign(arr.permute(0, 2, 1));
+        return out.reshape('f', m * t, size);
+    }
+
+    /**
+     * As per {@link #toTimeMajor2d(INDArray)}, but each row holds the values for the previous time step (in the
+     * direction of the pass), and zeros for the first time step
+     */
+    private static INDArray toShiftedTimeMajor2d(INDArray arr, boolean forwards) {
+        int m = arr.size(0);
+        int size = arr.size(1);
+        int t = arr.size(2);
+        INDArray out = Nd4j.create(new int[] {m, t, size}, 'f');
+        if (t > 1) {
+            INDArray to = out.get(all(), forwards ? interval(1, t) : interval(0, t - 1), all());
+            INDArray from = arr.get(all(), all(), forwards ? interval(0, t - 1) : interval(1, t));
+            to.assign(from.permute(0, 2, 1));
+        }
+        return out.reshape('f', m * t, size);
+    }
+}
@@ -54,12 +54,51 @@ import java.util.Map;
 public class GravesBidirectionalLSTM
                 extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.layers.GravesBidirectionalLSTM> {
 
+    protected LSTMHelper helper = null;
+
     public GravesBidirectionalLSTM(NeuralNetConfiguration conf) {
         super(conf);
+        initializeHelper();
     }
 
     public GravesBidirectionalLSTM(NeuralNetConfiguration conf, INDArray input) {
         super(conf, input);
+        initializeHelper();
+    }
+
+    void initializeHelper() {
+        helper = LSTMHelpers.createHelper();
+    }
+
+    private boolean useHelper() {
+        return helper != null
+                        && helper.checkSupported(layerConf().getGateActivationFn(), layerConf().getActivationFn());
+    }
+
+    private FwdPassReturn lstmActivate(INDArray recurrentWeights, INDArray inputWeights, INDArray biases,
+                    boolean training, INDArray prevOutputActivations, INDArray prevMemCellState, boolean forBackprop,
+                    boolean forwards, String inputWeightKey) {
+        if (useHelper()) {
+            return helper.activate(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
+                            recurrentWeights, inputWeights, biases, training, prevOutputActivations, prevMemCellState,
+                            forBackprop, forwards, inputWeightKey, maskArray);
+        }
+        return LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
+                        recurrentWeights, inputWeights, biases, training, prevOutputActivations, prevMemCellState,
+                        forBackprop, forwards, inputWeightKey, maskArray);
+    }
+
+    private Pair<Gradient, INDArray> lstmBackprop(INDArray recurrentWeights, INDArray inputWeights, INDArray epsilon,
+                    FwdPassReturn fwdPass, boolean forwards, String inputWeightKey, String recurrentWeightKey,
+                    String biasWeightKey) {
+        if (useHelper()) {
+            return helper.backpropGradient(this.conf, this.layerConf().getGateActivationFn(), this.input,
+                            recurrentWeights, inputWeights, epsilon, false, -1, fwdPass, forwards, inputWeightKey,
+                            recurrentWeightKey, biasWeightKey, gradientViews, maskArray);
+        }
+        return LSTMHelpers.backpropGradientHelper(this.conf, this.layerConf().getGateActivationFn(), this.input,
+                        recurrentWeights, inputWeights, epsilon, false, -1, fwdPass, forwards, inputWeightKey,
+                        recurrentWeightKey, biasWeightKey, gradientViews, maskArray);
     }
 
     @Override
@@ -93,27 +132,23 @@ public class GravesBidirectionalLSTM
 
         final FwdPassReturn fwdPass = activateHelperDirectional(true, null, null, true, true);
 
-        final Pair<Gradient, INDArray> forwardsGradient = LSTMHelpers.backpropGradientHelper(this.conf,
-                        this.layerConf().getGateActivationFn(), this.input,
+        final Pair<Gradient, INDArray> forwardsGradient = lstmBackprop(
                         getParam(GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_FORWARDS),
-                        getParam(GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS), epsilon,
-                        truncatedBPTT, tbpttBackwardLength, fwdPass, true,
-                        GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS,
+                        getParam(GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS), epsilon, fwdPass,
+                        true, GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS,
                         GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_FORWARDS,
-                        GravesBidirectionalLSTMParamInitializer.BIAS_KEY_FORWARDS, gradientViews, maskArray);
+                        GravesBidirectionalLSTMParamInitializer.BIAS_KEY_FORWARDS);
 
 
 
         final FwdPassReturn backPass = activateHelperDirectional(true, null, null, true, false);
 
-        final Pair<Gradient, INDArray> backwardsGradient = LSTMHelpers.backpropGradientHelper(this.conf,
-                        this.layerConf().getGateActivationFn(), this.input,
+        final Pair<Gradient, INDArray> backwardsGradient = lstmBackprop(
                         getParam(GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_BACKWARDS),
-                        getParam(GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS), epsilon,
-                        truncatedBPTT, tbpttBackwardLength, backPass, false,
-                        GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS,
+                        getParam(GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS), epsilon, backPass,
+                        false, GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS,
                         GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_BACKWARDS,
-                        GravesBidirectionalLSTMParamInitializer.BIAS_KEY_BACKWARDS, gradientViews, maskArray);
+                        GravesBidirectionalLSTMParamInitializer.BIAS_KEY_BACKWARDS);
 
 
         //merge the gradient, which is key value pair of String,INDArray
@@ -184,20 +219,18 @@ public class GravesBidirectionalLSTM
 
 
         final FwdPassReturn forwardsEval =
-                        LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
-                                        getParam(GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_FORWARDS),
+                        lstmActivate(getParam(GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_FORWARDS),
                                         getParam(GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS),
                                         getParam(GravesBidirectionalLSTMParamInitializer.BIAS_KEY_FORWARDS), training,
                                         null, null, forBackprop, true,
-                                        GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS, maskArray);
+                                        GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_FORWARDS);
 
         final FwdPassReturn backwardsEval =
-                        LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
-                                        getParam(GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_BACKWARDS),
+                        lstmActivate(getParam(GravesBidirectionalLSTMParamInitializer.RECURRENT_WEIGHT_KEY_BACKWARDS),
                                         getParam(GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS),
                                         getParam(GravesBidirectionalLSTMParamInitializer.BIAS_KEY_BACKWARDS), training,
                                         null, null, forBackprop, false,
-                                        GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS, maskArray);
+                                        GravesBidirectionalLSTMParamInitializer.INPUT_WEIGHT_KEY_BACKWARDS);
 
 
         //sum outputs
@@ -221,9 +254,8 @@ public class GravesBidirectionalLSTM
             biasKey = GravesBidirectionalLSTMParamInitializer.BIAS_KEY_BACKWARDS;
         }
 
-        return LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
-                        getParam(recurrentKey), getParam(inputKey), getParam(biasKey), training, prevOutputActivations,
-                        prevMemCellState, forBackprop, forwards, inputKey, maskArray);
+        return lstmActivate(getParam(recurrentKey), getParam(inputKey), getParam(biasKey), training,
+                        prevOutputActivations, prevMemCellState, forBackprop, forwards, inputKey);
 
     }
 
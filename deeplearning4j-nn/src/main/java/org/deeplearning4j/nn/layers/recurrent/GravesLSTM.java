@@ -42,12 +42,20 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
     public static final String STATE_KEY_PREV_ACTIVATION = "prevAct";
     public static final String STATE_KEY_PREV_MEMCELL = "prevMem";
 
+    protected LSTMHelper helper = null;
+
     public GravesLSTM(NeuralNetConfiguration conf) {
         super(conf);
+        initializeHelper();
     }
 
     public GravesLSTM(NeuralNetConfiguration conf, INDArray input) {
         super(conf, input);
+        initializeHelper();
+    }
+
+    void initializeHelper() {
+        helper = LSTMHelpers.createHelper();
     }
 
     @Override
@@ -91,6 +99,12 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
         }
 
 
+        if (useHelper()) {
+            return helper.backpropGradient(this.conf, this.layerConf().getGateActivationFn(), this.input,
+                            recurrentWeights, inputWeights, epsilon, truncatedBPTT, tbpttBackwardLength, fwdPass, true,
+                            GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, GravesLSTMParamInitializer.RECURRENT_WEIGHT_KEY,
+                            GravesLSTMParamInitializer.BIAS_KEY, gradientViews, null);
+        }
         return LSTMHelpers.backpropGradientHelper(this.conf, this.layerConf().getGateActivationFn(), this.input,
                         recurrentWeights, inputWeights, epsilon, truncatedBPTT, tbpttBackwardLength, fwdPass, true,
                         GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, GravesLSTMParamInitializer.RECURRENT_WEIGHT_KEY,
@@ -139,11 +153,21 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
         final INDArray inputWeights = getParam(GravesLSTMParamInitializer.INPUT_WEIGHT_KEY); //Shape: [n^(L-1),4*hiddenLayerSize]; order: [wi,wf,wo,wg]
         final INDArray biases = getParam(GravesLSTMParamInitializer.BIAS_KEY); //by row: IFOG			//Shape: [4,hiddenLayerSize]; order: [bi,bf,bo,bg]^T
 
+        if (useHelper()) {
+            return helper.activate(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
+                            recurrentWeights, inputWeights, biases, training, prevOutputActivations, prevMemCellState,
+                            forBackprop, true, GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, null);
+        }
         return LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(), this.input,
                         recurrentWeights, inputWeights, biases, training, prevOutputActivations, prevMemCellState,
                         forBackprop, true, GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, null);
     }
 
+    private boolean useHelper() {
+        return helper != null
+                        && helper.checkSupported(layerConf().getGateActivationFn(), layerConf().getActivationFn());
+    }
+
     @Override
     public INDArray activationMean() {
         return activate();
@@ -0,0 +1,35 @@
+package org.deeplearning4j.nn.layers.recurrent;
+
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.Map;
+
+/**
+ * Helper for the LSTM layers ({@link GravesLSTM} and {@link GravesBidirectionalLSTM}). The arguments are the same as
+ * for {@link LSTMHelpers#activateHelper} and {@link LSTMHelpers#backpropGradientHelper}.<br>
+ * Which helper is used can be set with the {@link LSTMHelpers#LSTM_HELPER_PROPERTY} system property.
+ */
+public interface LSTMHelper {
+
+    /**
+     * @return True if the helper supports the given gate and layer activation functions. If not, the layer uses
+     *         {@link LSTMHelpers}
+     */
+    boolean checkSupported(IActivation gateActivationFn, IActivation activationFn);
+
+    FwdPassReturn activate(Layer layer, NeuralNetConfiguration conf, IActivation gateActivationFn, INDArray input,
+                    INDArray recurrentWeights, INDArray inputWeights, INDArray biases, boolean training,
+                    INDArray prevOutputActivations, INDArray prevMemCellState, boolean forBackprop, boolean forwards,
+                    String inputWeightKey, INDArray maskArray);
+
+    Pair<Gradient, INDArray> backpropGradient(NeuralNetConfiguration conf, IActivation gateActivationFn,
+                    INDArray input, INDArray recurrentWeights, INDArray inputWeights, INDArray epsilon,
+                    boolean truncatedBPTT, int tbpttBackwardLength, FwdPassReturn fwdPass, boolean forwards,
+                    String inputWeightKey, String recurrentWeightKey, String biasWeightKey,
+                    Map<String, INDArray> gradientViews, INDArray maskArray);
+}
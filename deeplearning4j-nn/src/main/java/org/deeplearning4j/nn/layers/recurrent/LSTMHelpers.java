@@ -1,5 +1,6 @@
 package org.deeplearning4j.nn.layers.recurrent;
 
+import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.exception.DL4JInvalidInputException;
 import org.deeplearning4j.nn.api.Layer;
@@ -44,12 +45,38 @@ import static org.nd4j.linalg.indexing.NDArrayIndex.point;
  * @author Alex Black (LSTM implementation)
  * @author Benjamin Joseph (refactoring for bidirectional LSTM)
  */
+@Slf4j
 public class LSTMHelpers {
 
     //    public static final String SIGMOID = "sigmoid";
 
+    /**
+     * System property for the {@link LSTMHelper} used by the LSTM layers: the fully qualified class name of the helper
+     * (for example, {@link FusedLSTMHelper}), or "none" to use the per time step implementation in this class.
+     * Default (not set): "none". The fused helper gives the same results, but it should only be made the default once
+     * GravesLSTMTest#testFusedHelperPerformance shows it to be faster at short, medium and long sequence lengths.
+     */
+    public static final String LSTM_HELPER_PROPERTY = "org.deeplearning4j.config.lstm.helper";
+
     private LSTMHelpers() {}
 
+    /**
+     * Create the LSTM helper as per the {@link #LSTM_HELPER_PROPERTY} system property
+     *
+     * @return The helper, or null if no helper should be used
+     */
+    public static LSTMHelper createHelper() {
+        String prop = System.getProperty(LSTM_HELPER_PROPERTY);
+        if (prop == null || prop.isEmpty() || "none".equalsIgnoreCase(prop))
+            return null;
+        try {
+            return Class.forName(prop).asSubclass(LSTMHelper.class).newInstance();
+        } catch (Throwable t) {
+            log.warn("Could not load LSTM helper " + prop + "; using the per time step implementation", t);
+            return null;
+        }
+    }
+
     /**
      * Returns FwdPassReturn object with activations/INDArrays. Allows activateHelper to be used for forward pass, backward pass
      * and rnnTimeStep whilst being reasonably efficient for all
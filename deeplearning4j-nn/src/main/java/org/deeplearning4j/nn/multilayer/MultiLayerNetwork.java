@@ -44,6 +44,7 @@ import org.deeplearning4j.optimize.Solver;
 import org.deeplearning4j.optimize.api.ConvexOptimizer;
 import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.optimize.api.TrainingListener;
+import org.deeplearning4j.util.ActivationCheckpointUtils;
 import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
@@ -736,6 +737,58 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
         return activations;
     }
 
+    /**
+     * Training time forward pass up to and including the specified layer, with activation checkpointing: the inputs
+     * of layers that can be recomputed from an earlier retained input are released as soon as the layer's output has
+     * been calculated. These are recomputed during backprop, in {@link #calcBackpropGradients(INDArray, boolean)}.
+     * <br>
+     * Note that if training listeners are present, the full list of activations is still returned, for
+     * {@link TrainingListener#onForwardPass(Model, List)}; otherwise, only the network input and the last activations
+     * are returned.
+     */
+    protected List<INDArray> feedForwardToLayerCheckpointed(int layerNum) {
+        boolean[] retain = ActivationCheckpointUtils.retainedLayerInputs(layers,
+                        layerWiseConfigurations.getActivationCheckpoints());
+        boolean allActivations = trainingListeners.size() > 0;
+
+        INDArray currInput = input;
+        List<INDArray> activations = new ArrayList<>();
+        activations.add(currInput);
+        for (int i = 0; i <= layerNum; i++) {
+            currInput = activationFromPrevLayer(i, currInput, true);
+            if (!retain[i])
+                layers[i].setInput(null);
+            if (allActivations || i == layerNum)
+                activations.add(currInput);
+        }
+        return activations;
+    }
+
+    /**
+     * Recompute the input of the specified layer (released by activation checkpointing), and the inputs of all layers
+     * between it and the previous layer with a retained input. These layers are marked in the recomputed array
+     */
+    private void recomputeLayerInputs(int layerIdx, boolean[] recomputed) {
+        int from = layerIdx - 1;
+        while (from > 0 && layers[from].input() == null)
+            from--;
+        if (layers[from].input() == null)
+            throw new IllegalStateException("Cannot recompute input for layer " + layerIdx + ": no retained input");
+
+        INDArray currInput = layers[from].activate(true);
+        for (int i = from + 1; i <= layerIdx; i++) {
+            if (getLayerWiseConfigurations().getInputPreProcess(i) != null)
+                currInput = getLayerWiseConfigurations().getInputPreProcess(i).preProcess(currInput,
+                                getInputMiniBatchSize());
+            if (i < layerIdx) {
+                currInput = layers[i].activate(currInput, true);
+            } else {
+                layers[i].setInput(currInput);
+            }
+            recomputed[i] = true;
+        }
+    }
+
     /**
      * Compute activations from input to output of the output layer
      *
@@ -858,6 +911,14 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
         return flattenedParams;
     }
 
+    /**
+     * @return the flattened gradients for all layers (with the exception of pretrain-only parameters). The
+     * gradients of each layer are views of this array
+     */
+    public INDArray getFlattenedGradients() {
+        return flattenedGradients;
+    }
+
     /**
      * Set the parameters for this model.
      * This expects a linear ndarray
@@ -1086,11 +1147,16 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
         }
 
         // Calculate gradients for previous layers & drops output layer in count
+        boolean[] recomputed = new boolean[numLayers];
         for (int j = layerFrom; j >= 0; j--) {
             currLayer = getLayer(j);
             if (currLayer instanceof FrozenLayer)
                 break;
+            if (currLayer.input() == null && j > 0)
+                recomputeLayerInputs(j, recomputed); //Released by activation checkpointing
             currPair = currLayer.backpropGradient(currPair.getSecond());
+            if (recomputed[j])
+                currLayer.setInput(null);
 
             LinkedList<Triple<String, INDArray, Character>> tempList = new LinkedList<>();
             for (Map.Entry<String, INDArray> entry : currPair.getFirst().gradientForVariable().entrySet()) {
@@ -1816,7 +1882,12 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
             //First: do a feed-forward through the network
             //Note that we don't actually need to do the full forward pass through the output layer right now; but we do
             // need the input to the output layer to be set (such that backprop can be done)
-            List<INDArray> activations = feedForwardToLayer(layers.length - 2, true);
+            List<INDArray> activations;
+            if (layerWiseConfigurations.getActivationCheckpoints() != null) {
+                activations = feedForwardToLayerCheckpointed(layers.length - 2);
+            } else {
+                activations = feedForwardToLayer(layers.length - 2, true);
+            }
             if (trainingListeners.size() > 0) {
                 //TODO: We possibly do want output layer activations in some cases here...
                 for (TrainingListener tl : trainingListeners) {
@@ -2464,32 +2535,41 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
         }
 
         while (iterator.hasNext()) {
-            DataSet next = iterator.next();
-
-            if (next.getFeatureMatrix() == null || next.getLabels() == null)
+            if (!doEvaluation(iterator.next(), evaluation))
                 break;
+        }
+    }
 
-            INDArray features = next.getFeatures();
-            INDArray labels = next.getLabels();
+    /**
+     * Evaluate a single minibatch
+     *
+     * @return false if the minibatch has no features or labels, in which case evaluation should stop
+     */
+    private boolean doEvaluation(DataSet next, IEvaluation evaluation) {
+        if (next.getFeatureMatrix() == null || next.getLabels() == null)
+            return false;
 
-            INDArray out;
-            if (next.hasMaskArrays()) {
-                INDArray fMask = next.getFeaturesMaskArray();
-                INDArray lMask = next.getLabelsMaskArray();
-                out = this.output(features, false, fMask, lMask);
+        INDArray features = next.getFeatures();
+        INDArray labels = next.getLabels();
 
-                //Assume this is time series data. Not much point having a mask array for non TS data
-                evaluation.evalTimeSeries(labels, out, lMask);
-            } else {
-                out = this.output(features, false);
-                if (labels.rank() == 3)
-                    evaluation.evalTimeSeries(labels, out, null);
-                else {
-                    List<Serializable> meta = next.getExampleMetaData();
-                    evaluation.eval(labels, out, meta);
-                }
+        INDArray out;
+        if (next.hasMaskArrays()) {
+            INDArray fMask = next.getFeaturesMaskArray();
+            INDArray lMask = next.getLabelsMaskArray();
+            out = this.output(features, false, fMask, lMask);
+
+            //Assume this is time series data. Not much point having a mask array for non TS data
+            evaluation.evalTimeSeries(labels, out, lMask);
+        } else {
+            out = this.output(features, false);
+            if (labels.rank() == 3)
+                evaluation.evalTimeSeries(labels, out, null);
+            else {
+                List<Serializable> meta = next.getExampleMetaData();
+                evaluation.eval(labels, out, meta);
             }
         }
+        return true;
     }
 
     /**
@@ -2524,6 +2604,48 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
         return e;
     }
 
+    /**
+     * Evaluate the network (for classification) on the provided data set using multiple threads. Each thread
+     * evaluates minibatches from the shared iterator on its own copy of the network, into its own {@link Evaluation};
+     * the per-thread evaluations are merged once the iterator is exhausted.
+     *
+     * @param iterator   Iterator (data) to evaluate on
+     * @param labelsList List of labels. May be null.
+     * @param topN       N value for top N accuracy evaluation
+     * @param numWorkers Number of threads (and network copies) to use. Values <= 1: evaluate on the calling thread
+     * @return Evaluation object, summarizing the results of the evaluation on the provided DataSetIterator
+     */
+    public Evaluation evaluate(DataSetIterator iterator, List<String> labelsList, int topN, int numWorkers) {
+        if (numWorkers <= 1)
+            return evaluate(iterator, labelsList, topN);
+        if (layers == null || !(getOutputLayer() instanceof IOutputLayer)) {
+            throw new IllegalStateException("Cannot evaluate network with no output layer");
+        }
+        if (labelsList == null)
+            labelsList = iterator.getLabels();
+
+        List<Evaluation> evaluations = new ArrayList<>(numWorkers);
+        List<ParallelEvaluator.Worker> workers = new ArrayList<>(numWorkers);
+        for (int i = 0; i < numWorkers; i++) {
+            final MultiLayerNetwork replica = (i == 0 ? this : clone());
+            final Evaluation e = new Evaluation(labelsList, topN);
+            evaluations.add(e);
+            workers.add(new ParallelEvaluator.Worker() {
+                @Override
+                public boolean eval(DataSet next) {
+                    return replica.doEvaluation(next, e);
+                }
+            });
+        }
+        ParallelEvaluator.evaluate(iterator, workers);
+
+        Evaluation e = evaluations.get(0);
+        for (int i = 1; i < numWorkers; i++) {
+            e.merge(evaluations.get(i));
+        }
+        return e;
+    }
+
     private void update(Task task) {
         if (!initDone) {
             initDone = true;
@@ -0,0 +1,297 @@
+package org.deeplearning4j.nn.updater;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Updater;
+import org.deeplearning4j.nn.api.layers.SparseGradientLayer;
+import org.deeplearning4j.nn.conf.LearningRatePolicy;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.layers.FrozenLayer;
+import org.deeplearning4j.nn.params.PretrainParamInitializer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.learning.GradientUpdater;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.util.*;
+
+/**
+ * Applies the {@link LayerUpdater} steps for all layers of a network in blocks, instead of parameter by parameter.
+ * <p>
+ * Parameters whose gradients and values are adjacent in the network's flattened gradient and parameter arrays, and
+ * that share the same post-updater scaling (learning rate for SGD, minibatch division) and L1/L2 coefficients, are
+ * grouped into a single block. The regularization and minibatch division of {@link LayerUpdater#postApply} are then
+ * executed once per block on views of the flattened arrays, and for SGD (and NONE) updaters the learning rate is folded
+ * into the same scaling op. Stateful updaters (Adam, RMSProp etc.) are still applied per parameter, as their state
+ * layout is fixed by the updater state view array. Layers with sparse gradients ({@link SparseGradientLayer}) are
+ * updated separately by their {@link LayerUpdater}, so that only the rows with a gradient are processed.
+ * <p>
+ * The grouping is computed on first use and reused for as long as the layers provide the same gradient view arrays and
+ * the learning rates and L1/L2 coefficients in the layer configurations are unchanged.
+ * When the gradients are not views of the flattened gradient array (or for layers in pretraining mode) the update is
+ * declined, and the caller should fall back to {@link LayerUpdater#update}.
+ */
+public class FusedUpdater {
+
+    private Plan plan;
+
+    /**
+     * Update the gradients of the given layers, if possible
+     *
+     * @param layers          Layers to update
+     * @param updaters        Updater for each layer
+     * @param gradients       Gradient for each layer, keyed by parameter name
+     * @param flatGradients   Flattened gradients for the network. All layer gradients should be views of this array
+     * @param flatParams      Flattened parameters for the network
+     * @param iteration       Iteration number
+     * @param miniBatchSize   Minibatch size
+     * @return True if the gradients were updated, false if the fused update is not applicable (gradients not modified)
+     */
+    public boolean update(Layer[] layers, Updater[] updaters, Gradient[] gradients, INDArray flatGradients,
+                    INDArray flatParams, int iteration, int miniBatchSize) {
+        if (flatGradients == null || flatParams == null)
+            return false;
+        if (plan == null || !plan.matches(layers, gradients, flatGradients, flatParams)) {
+            plan = Plan.create(layers, updaters, gradients, flatGradients, flatParams);
+        }
+        if (plan.unsupported)
+            return false;
+
+        for (int i = 0; i < layers.length; i++) {
+            if (plan.layerwiseLayers[i]) {
+                updaters[i].update(layers[i], gradients[i], iteration, miniBatchSize);
+            } else if (plan.activeLayers[i]) {
+                ((LayerUpdater) updaters[i]).preApply(layers[i], gradients[i], iteration);
+            }
+        }
+
+        for (ParamEntry e : plan.entries) {
+            if (e.applyLrDecay) {
+                e.updater.applyLrDecayPolicy(e.layer.conf().getLearningRatePolicy(), e.layer, iteration, e.paramName);
+            }
+            if (!e.fusedLearningRate) {
+                INDArray updated = e.gradientUpdater.getGradient(e.gradient, iteration);
+                if (updated != e.gradient)
+                    e.gradient.assign(updated);
+            }
+        }
+
+        for (Block b : plan.blocks) {
+            b.apply(miniBatchSize);
+        }
+        return true;
+    }
+
+    private static class ParamEntry {
+        private int layerIdx;
+        private Layer layer;
+        private LayerUpdater updater;
+        private GradientUpdater gradientUpdater;
+        private String paramName;
+        private INDArray gradient;
+        private INDArray param;
+        private long gradientOffset;
+        private long paramOffset;
+        private boolean applyLrDecay;
+        private boolean fusedLearningRate;
+        private double learningRate;
+        private double l1;
+        private double l2;
+        private boolean miniBatch;
+
+        private boolean sameScaling(ParamEntry o) {
+            return fusedLearningRate == o.fusedLearningRate && learningRate == o.learningRate && l1 == o.l1
+                            && l2 == o.l2 && miniBatch == o.miniBatch;
+        }
+
+        /**
+         * Read the learning rate decay flag and the scaling (learning rate, L1/L2, minibatch division) for this
+         * parameter from the current layer configuration
+         */
+        private void readScaling(NeuralNetConfiguration conf) {
+            LearningRatePolicy decay = conf.getLearningRatePolicy();
+            applyLrDecay = decay != LearningRatePolicy.None
+                            || conf.getLayer().getUpdater() == org.deeplearning4j.nn.conf.Updater.NESTEROVS;
+
+            org.deeplearning4j.nn.conf.Updater u = conf.getLayer().getUpdaterByParam(paramName);
+            if (u == org.deeplearning4j.nn.conf.Updater.NONE) {
+                fusedLearningRate = true;
+                learningRate = 1.0;
+            } else if (u == org.deeplearning4j.nn.conf.Updater.SGD && !applyLrDecay) {
+                fusedLearningRate = true;
+                learningRate = conf.getLearningRateByParam(paramName);
+            } else {
+                fusedLearningRate = false;
+                learningRate = 1.0;
+            }
+            l1 = conf.isUseRegularization() ? Math.max(0.0, conf.getL1ByParam(paramName)) : 0.0;
+            l2 = conf.isUseRegularization() ? Math.max(0.0, conf.getL2ByParam(paramName)) : 0.0;
+            miniBatch = conf.isMiniBatch();
+        }
+    }
+
+    private static class Block {
+        private INDArray gradient;
+        private INDArray params;
+        private double learningRate;
+        private double l1;
+        private double l2;
+        private boolean miniBatch;
+
+        private void apply(int miniBatchSize) {
+            //Equivalent to (per parameter): gradient = (lr * gradient + l2 * params + l1 * sign(params)) / miniBatchSize
+            double divisor = (miniBatch ? miniBatchSize : 1.0);
+            double scale = learningRate / divisor;
+            if (scale != 1.0)
+                gradient.muli(scale);
+            if (l2 > 0)
+                Nd4j.getBlasWrapper().level1().axpy(gradient.length(), l2 / divisor, params, gradient);
+            if (l1 > 0)
+                Nd4j.getBlasWrapper().level1().axpy(gradient.length(), l1 / divisor, Transforms.sign(params, true),
+                                gradient);
+        }
+    }
+
+    private static class Plan {
+        private boolean unsupported;
+        private boolean[] activeLayers;
+        private boolean[] layerwiseLayers;
+        private Layer[] layers;
+        private List<ParamEntry> entries = new ArrayList<>();
+        private List<Block> blocks = new ArrayList<>();
+        private int numGradients;
+        private INDArray flatGradients;
+        private INDArray flatParams;
+        private final ParamEntry scratch = new ParamEntry();
+
+        private boolean matches(Layer[] layers, Gradient[] gradients, INDArray flatGradients, INDArray flatParams) {
+            if (this.flatGradients != flatGradients || this.flatParams != flatParams
+                            || this.layers.length != layers.length)
+                return false;
+            int count = 0;
+            for (int i = 0; i < layers.length; i++) {
+                if (this.layers[i] != layers[i])
+                    return false;
+                count += gradients[i].gradientForVariable().size();
+            }
+            if (count != numGradients)
+                return false;
+            for (ParamEntry e : entries) {
+                if (gradients[e.layerIdx].getGradientFor(e.paramName) != e.gradient)
+                    return false;
+                //The learning rate and regularization can be changed between iterations via the configuration
+                scratch.paramName = e.paramName;
+                scratch.readScaling(e.layer.conf());
+                if (scratch.applyLrDecay != e.applyLrDecay || !scratch.sameScaling(e))
+                    return false;
+            }
+            return true;
+        }
+
+        private static Plan create(Layer[] layers, Updater[] updaters, Gradient[] gradients, INDArray flatGradients,
+                        INDArray flatParams) {
+            Plan plan = new Plan();
+            plan.layers = layers.clone();
+            plan.activeLayers = new boolean[layers.length];
+            plan.layerwiseLayers = new boolean[layers.length];
+            plan.flatGradients = flatGradients;
+            plan.flatParams = flatParams;
+            for (Gradient g : gradients) {
+                plan.numGradients += g.gradientForVariable().size();
+            }
+
+            for (int i = 0; i < layers.length; i++) {
+                Layer layer = layers[i];
+                if (layer instanceof FrozenLayer)
+                    continue;
+                if (!(updaters[i] instanceof LayerUpdater) || layer.conf().isPretrain()) {
+                    plan.unsupported = true;
+                    return plan;
+                }
+                if (layer instanceof SparseGradientLayer) {
+                    plan.layerwiseLayers[i] = true;
+                    continue;
+                }
+                plan.activeLayers[i] = true;
+
+                LayerUpdater layerUpdater = (LayerUpdater) updaters[i];
+
+                for (Map.Entry<String, INDArray> entry : gradients[i].gradientForVariable().entrySet()) {
+                    String paramName = entry.getKey();
+                    if (PretrainParamInitializer.VISIBLE_BIAS_KEY.equals(paramName.split("_")[0]))
+                        continue; //Not updated outside of pretraining, as per LayerUpdater
+
+                    INDArray g = entry.getValue();
+                    INDArray p = layer.getParam(paramName);
+                    if (!isContiguousView(g, flatGradients) || p == null || !isContiguousView(p, flatParams)
+                                    || !Arrays.equals(g.shape(), p.shape())
+                                    || (g.ordering() != p.ordering() && !g.isVector())) {
+                        plan.unsupported = true;
+                        return plan;
+                    }
+
+                    ParamEntry e = new ParamEntry();
+                    e.layerIdx = i;
+                    e.layer = layer;
+                    e.updater = layerUpdater;
+                    e.gradientUpdater = layerUpdater.init(paramName, layer);
+                    e.paramName = paramName;
+                    e.gradient = g;
+                    e.param = p;
+                    e.gradientOffset = g.offset();
+                    e.paramOffset = p.offset();
+                    e.readScaling(layer.conf());
+                    plan.entries.add(e);
+                }
+            }
+
+            //Group adjacent parameters (in the flattened arrays) with the same scaling into blocks
+            List<ParamEntry> sorted = new ArrayList<>(plan.entries);
+            Collections.sort(sorted, new Comparator<ParamEntry>() {
+                @Override
+                public int compare(ParamEntry o1, ParamEntry o2) {
+                    return Long.compare(o1.gradientOffset, o2.gradientOffset);
+                }
+            });
+
+            int start = 0;
+            while (start < sorted.size()) {
+                ParamEntry first = sorted.get(start);
+                int end = start + 1;
+                long gEnd = first.gradientOffset + first.gradient.length();
+                long pEnd = first.paramOffset + first.param.length();
+                while (end < sorted.size()) {
+                    ParamEntry next = sorted.get(end);
+                    if (next.gradientOffset != gEnd || next.paramOffset != pEnd || !first.sameScaling(next))
+                        break;
+                    gEnd += next.gradient.length();
+                    pEnd += next.param.length();
+                    end++;
+                }
+
+                Block b = new Block();
+                b.gradient = subset(flatGradients, first.gradientOffset, gEnd);
+                b.params = subset(flatParams, first.paramOffset, pEnd);
+                b.learningRate = first.learningRate;
+                b.l1 = first.l1;
+                b.l2 = first.l2;
+                b.miniBatch = first.miniBatch;
+                plan.blocks.add(b);
+
+                start = end;
+            }
+            return plan;
+        }
+
+        private static boolean isContiguousView(INDArray view, INDArray flat) {
+            return view.data() == flat.data() && view.elementWiseStride() == 1;
+        }
+
+        private static INDArray subset(INDArray flat, long startOffset, long endOffset) {
+            int from = (int) (startOffset - flat.offset());
+            int to = (int) (endOffset - flat.offset());
+            return flat.get(NDArrayIndex.point(0), NDArrayIndex.interval(from, to));
+        }
+    }
+}
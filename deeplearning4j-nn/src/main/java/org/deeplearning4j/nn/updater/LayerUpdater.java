@@ -4,10 +4,12 @@ import com.google.common.base.Preconditions;
 import org.apache.commons.math3.util.FastMath;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.Updater;
+import org.deeplearning4j.nn.api.layers.SparseGradientLayer;
 import org.deeplearning4j.nn.conf.GradientNormalization;
 import org.deeplearning4j.nn.conf.LearningRatePolicy;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.gradient.SparseRowGradient;
 import org.deeplearning4j.nn.layers.FrozenLayer;
 import org.deeplearning4j.nn.params.PretrainParamInitializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -29,6 +31,8 @@ import java.util.Map;
  */
 public class LayerUpdater implements Updater {
     protected Map<String, GradientUpdater> updaterForVariable = new LinkedHashMap<>();
+    //Updater state view for each parameter, as passed to GradientUpdater.setStateViewArray
+    protected Map<String, INDArray> stateViewForVariable = new HashMap<>();
     protected INDArray viewArray;
 
     @Override
@@ -45,6 +49,7 @@ public class LayerUpdater implements Updater {
                 continue;
             INDArray subset = viewArray.get(NDArrayIndex.point(0), NDArrayIndex.interval(count, count + thisSize));
             gu.setStateViewArray(subset, paramsArray.shape(), paramsArray.ordering(), initialize);
+            stateViewForVariable.put(entry.getKey(), subset);
             count += thisSize;
         }
     }
@@ -80,6 +85,20 @@ public class LayerUpdater implements Updater {
             return;
 
         preApply(layer, gradient, iteration);
+        Map<String, SparseRowGradient> sparseGradients = null;
+        if (layer instanceof SparseGradientLayer)
+            sparseGradients = ((SparseGradientLayer) layer).getSparseGradients();
+        if (sparseGradients != null && !sparseGradients.isEmpty() && isGradientNormalized(layer)) {
+            //Gradient normalization was applied to the dense gradients only
+            for (Map.Entry<String, SparseRowGradient> entry : sparseGradients.entrySet()) {
+                INDArray dense = gradient.getGradientFor(entry.getKey());
+                if (dense != null) {
+                    entry.getValue().getValues().assign(Nd4j.pullRows(dense, 1, entry.getValue().getRows(), 'c'));
+                }
+            }
+        }
+        boolean sparseFallback = false;
+
         for (Map.Entry<String, INDArray> gradientPair : gradient.gradientForVariable().entrySet()) {
             paramName = gradientPair.getKey();
             if (!layer.conf().isPretrain() && PretrainParamInitializer.VISIBLE_BIAS_KEY.equals(paramName.split("_")[0]))
@@ -89,11 +108,29 @@ public class LayerUpdater implements Updater {
             if (decay != LearningRatePolicy.None
                             || layer.conf().getLayer().getUpdater() == org.deeplearning4j.nn.conf.Updater.NESTEROVS)
                 applyLrDecayPolicy(decay, layer, iteration, paramName);
+
+            SparseRowGradient sparse = (sparseGradients == null ? null : sparseGradients.get(paramName));
+            if (sparse != null) {
+                if (SparseRowUpdater.update(this, layer, paramName, gradientOrig, sparse, iteration, miniBatchSize))
+                    continue;
+                sparseFallback = true;
+            }
+
             updater = init(paramName, layer);
             gradient2 = updater.getGradient(gradientOrig, iteration);
             postApply(layer, gradient2, paramName, miniBatchSize);
             gradient.setGradientFor(paramName, gradient2);
         }
+
+        if (sparseFallback) {
+            //Dense update applied instead: the sparse gradients are not valid updates
+            ((SparseGradientLayer) layer).clearSparseGradients();
+        }
+    }
+
+    private static boolean isGradientNormalized(Layer layer) {
+        GradientNormalization normalization = layer.conf().getLayer().getGradientNormalization();
+        return normalization != null && normalization != GradientNormalization.None && !layer.conf().isPretrain();
     }
 
     /**
@@ -254,44 +291,63 @@ public class LayerUpdater implements Updater {
     public GradientUpdater init(String variable, Layer layer) {
         GradientUpdater updater = updaterForVariable.get(variable);
         if (updater == null) {
-            org.deeplearning4j.nn.conf.Updater u = layer.conf().getLayer().getUpdaterByParam(variable);
-            switch (u) {
-                case SGD:
-                    updater = new org.nd4j.linalg.learning.Sgd(layer.conf().getLearningRateByParam(variable));
-                    break;
-                case ADAM:
-                    updater = new Adam(layer.conf().getLearningRateByParam(variable),
-                                    layer.conf().getLayer().getAdamMeanDecay(),
-                                    layer.conf().getLayer().getAdamVarDecay(), layer.conf().getLayer().getEpsilon());
-                    break;
-                case ADADELTA:
-                    updater = new AdaDelta(layer.conf().getLayer().getRho(), layer.conf().getLayer().getEpsilon());
-                    break;
-                case NESTEROVS:
-                    updater = new Nesterovs(layer.conf().getLayer().getMomentum(),
-                                    layer.conf().getLearningRateByParam(variable));
-                    break;
-                case ADAGRAD:
-                    updater = new AdaGrad(layer.conf().getLearningRateByParam(variable),
-                                    layer.conf().getLayer().getEpsilon());
-                    break;
-                case RMSPROP:
-                    updater = new org.nd4j.linalg.learning.RmsProp(layer.conf().getLearningRateByParam(variable),
-                                    layer.conf().getLayer().getRmsDecay(), layer.conf().getLayer().getEpsilon());
-                    break;
-                case NONE:
-                    updater = new NoOpUpdater();
-                    break;
-                case CUSTOM:
-                    throw new UnsupportedOperationException("Custom updaters: not yet implemented");
-                default:
-                    throw new IllegalArgumentException("Unknown updater: " + u);
-            }
+            updater = createGradientUpdater(variable, layer);
             updaterForVariable.put(variable, updater);
         }
         return updater;
     }
 
+    /**
+     * Get the updater state view array for the given parameter, as set by
+     * {@link #setStateViewArray(Layer, INDArray, boolean)}
+     *
+     * @return The state view array, or null if the state view array has not been set (or the updater has no state)
+     */
+    public INDArray getStateViewArray(String variable) {
+        return stateViewForVariable.get(variable);
+    }
+
+    /**
+     * Create a new (uninitialized) GradientUpdater for the given parameter, based on the layer configuration
+     */
+    protected GradientUpdater createGradientUpdater(String variable, Layer layer) {
+        GradientUpdater updater;
+        org.deeplearning4j.nn.conf.Updater u = layer.conf().getLayer().getUpdaterByParam(variable);
+        switch (u) {
+            case SGD:
+                updater = new org.nd4j.linalg.learning.Sgd(layer.conf().getLearningRateByParam(variable));
+                break;
+            case ADAM:
+                updater = new Adam(layer.conf().getLearningRateByParam(variable),
+                                layer.conf().getLayer().getAdamMeanDecay(),
+                                layer.conf().getLayer().getAdamVarDecay(), layer.conf().getLayer().getEpsilon());
+                break;
+            case ADADELTA:
+                updater = new AdaDelta(layer.conf().getLayer().getRho(), layer.conf().getLayer().getEpsilon());
+                break;
+            case NESTEROVS:
+                updater = new Nesterovs(layer.conf().getLayer().getMomentum(),
+                                layer.conf().getLearningRateByParam(variable));
+                break;
+            case ADAGRAD:
+                updater = new AdaGrad(layer.conf().getLearningRateByParam(variable),
+                                layer.conf().getLayer().getEpsilon());
+                break;
+            case RMSPROP:
+                updater = new org.nd4j.linalg.learning.RmsProp(layer.conf().getLearningRateByParam(variable),
+                                layer.conf().getLayer().getRmsDecay(), layer.conf().getLayer().getEpsilon());
+                break;
+            case NONE:
+                updater = new NoOpUpdater();
+                break;
+            case CUSTOM:
+                throw new UnsupportedOperationException("Custom updaters: not yet implemented");
+            default:
+                throw new IllegalArgumentException("Unknown updater: " + u);
+        }
+        return updater;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (!(other instanceof LayerUpdater))
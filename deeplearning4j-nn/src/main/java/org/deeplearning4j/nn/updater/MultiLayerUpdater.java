@@ -19,11 +19,12 @@ import java.util.Map;
  * Expects backprop gradients for all layers to be in single Gradient object,
  * keyed by "0_b", "1_w" etc., as per MultiLayerNetwork.backward()
  */
-@EqualsAndHashCode
+@EqualsAndHashCode(exclude = {"fusedUpdater"})
 @Getter
 public class MultiLayerUpdater implements Updater {
     private final Updater[] layerUpdaters;
     private INDArray viewArray;
+    private transient FusedUpdater fusedUpdater;
 
     public MultiLayerUpdater(MultiLayerNetwork network) {
         Layer[] layers = network.getLayers();
@@ -132,6 +133,12 @@ public class MultiLayerUpdater implements Updater {
             layerGradients[layerIdx].gradientForVariable().put(newKey, gradientPair.getValue());
         }
 
+        if (fusedUpdater == null)
+            fusedUpdater = new FusedUpdater();
+        if (fusedUpdater.update(mln.getLayers(), layerUpdaters, layerGradients, mln.getFlattenedGradients(),
+                        mln.params(), iteration, batchSize))
+            return;
+
         for (int i = 0; i < layerUpdaters.length; i++) {
             layerUpdaters[i].update(mln.getLayer(i), layerGradients[i], iteration, batchSize);
         }
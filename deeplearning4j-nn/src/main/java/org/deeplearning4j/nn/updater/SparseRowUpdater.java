@@ -0,0 +1,103 @@
+package org.deeplearning4j.nn.updater;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.gradient.SparseRowGradient;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.learning.GradientUpdater;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+/**
+ * Applies the {@link LayerUpdater} to only some rows of a 2d gradient: those listed by a {@link SparseRowGradient}.
+ * All other rows of the gradient are expected to be zero.
+ * <p>
+ * The rows of each block of the updater state are gathered into compact arrays, and a new {@link GradientUpdater} of
+ * the configured type is applied to them and to the compact row gradients of the {@link SparseRowGradient}, so the
+ * update rule is exactly that of the dense updater. The compact state is then scattered back into the updater state.
+ * The compact update (after L1/L2 regularization and division by the minibatch size) replaces the values of the
+ * {@link SparseRowGradient}, for the step function, and is written to the same rows of the dense gradient. All work is
+ * proportional to the number of rows with a gradient. Rows without a gradient are not modified: for SGD, Adagrad and
+ * NONE this is identical to the dense update (without regularization). For updaters with decaying state (Adam, RMSProp, AdaDelta, Nesterovs) the state of rows
+ * without a gradient is not decayed (as in "lazy" Adam), and regularization is only applied to rows with a gradient.
+ */
+class SparseRowUpdater {
+
+    private SparseRowUpdater() {}
+
+    /**
+     * @param gradient Dense gradient view for the parameter, non-zero only for the given rows. The rows are replaced
+     *                 by the update
+     * @param sparse   Gradient for the rows. The values are replaced by the update
+     * @return False if the sparse update is not possible (updater state view not set); nothing is modified
+     */
+    static boolean update(LayerUpdater layerUpdater, Layer layer, String paramName, INDArray gradient,
+                    SparseRowGradient sparse, int iteration, int miniBatchSize) {
+        int[] rows = sparse.getRows();
+        GradientUpdater gradientUpdater = layerUpdater.init(paramName, layer);
+        int length = gradient.length();
+        int stateSize = gradientUpdater.stateSizeForInputSize(length);
+        INDArray stateView = layerUpdater.getStateViewArray(paramName);
+        if (stateSize > 0 && stateView == null)
+            return false;
+        if (rows.length == 0) {
+            sparse.setUpdate(true);
+            return true;
+        }
+
+        NeuralNetConfiguration conf = layer.conf();
+        INDArray param = layer.getParam(paramName);
+        int nCols = gradient.columns();
+        int[] compactShape = new int[] {rows.length, nCols};
+        int compactLength = rows.length * nCols;
+
+        //The state is made up of blocks (for example, the two moment estimates for Adam), each with the parameter shape
+        int numBlocks = stateSize / length;
+        INDArray[] stateBlocks = new INDArray[numBlocks];
+        INDArray[] compactBlocks = new INDArray[numBlocks];
+        GradientUpdater compactUpdater = layerUpdater.createGradientUpdater(paramName, layer);
+        if (numBlocks > 0) {
+            INDArray compactState = Nd4j.create(1, numBlocks * compactLength);
+            for (int b = 0; b < numBlocks; b++) {
+                stateBlocks[b] = reshape(stateView.get(NDArrayIndex.point(0),
+                                NDArrayIndex.interval(b * length, (b + 1) * length)), param.shape(), param.ordering());
+                compactBlocks[b] = reshape(compactState.get(NDArrayIndex.point(0),
+                                NDArrayIndex.interval(b * compactLength, (b + 1) * compactLength)), compactShape, 'c');
+                compactBlocks[b].assign(Nd4j.pullRows(stateBlocks[b], 1, rows, 'c'));
+            }
+            compactUpdater.setStateViewArray(compactState, compactShape, 'c', false);
+        }
+
+        INDArray update = compactUpdater.getGradient(sparse.getValues(), iteration);
+
+        for (int b = 0; b < numBlocks; b++) {
+            SparseRowGradient.scatterRows(stateBlocks[b], rows, compactBlocks[b]);
+        }
+
+        //As per LayerUpdater.postApply, for the rows with a gradient only
+        if (conf.isUseRegularization() && (conf.getL2ByParam(paramName) > 0 || conf.getL1ByParam(paramName) > 0)) {
+            INDArray paramRows = Nd4j.pullRows(param, 1, rows, 'c');
+            if (conf.getL2ByParam(paramName) > 0)
+                update.addi(paramRows.mul(conf.getL2ByParam(paramName)));
+            if (conf.getL1ByParam(paramName) > 0)
+                update.addi(Transforms.sign(paramRows, false).muli(conf.getL1ByParam(paramName)));
+        }
+        if (conf.isMiniBatch())
+            update.divi(miniBatchSize);
+
+        if (update != sparse.getValues())
+            sparse.getValues().assign(update);
+        sparse.setUpdate(true);
+        SparseRowGradient.scatterRows(gradient, rows, update);
+        return true;
+    }
+
+    private static INDArray reshape(INDArray vector, int[] shape, char order) {
+        INDArray reshaped = Shape.newShapeNoCopy(vector, shape, order == 'f');
+        if (reshaped == null)
+            throw new IllegalStateException("Could not reshape updater state without copying");
+        return reshaped;
+    }
+}
@@ -5,6 +5,7 @@ import org.deeplearning4j.nn.api.Updater;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.updater.FusedUpdater;
 import org.deeplearning4j.nn.updater.UpdaterCreator;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
@@ -26,6 +27,7 @@ public class ComputationGraphUpdater implements Serializable, Cloneable {
     private final Updater[] layerUpdaters;
     private final Map<String, Integer> layerUpdatersMap;
     private INDArray viewArray;
+    private transient FusedUpdater fusedUpdater;
 
     public ComputationGraphUpdater(ComputationGraph graph) {
         layerUpdaters = new Updater[graph.getNumLayers()];
@@ -138,10 +140,29 @@ public class ComputationGraphUpdater implements Serializable, Cloneable {
             g.setGradientFor(newKey, gradientPair.getValue());
         }
 
+        int nLayers = layerGradients.size();
+        Layer[] layers = new Layer[nLayers];
+        Updater[] updaters = new Updater[nLayers];
+        Gradient[] gradients = new Gradient[nLayers];
+        int i = 0;
+        for (Map.Entry<String, Gradient> entry : layerGradients.entrySet()) {
+            layers[i] = graph.getLayer(entry.getKey());
+            updaters[i] = layerUpdaters[layerUpdatersMap.get(entry.getKey())];
+            gradients[i] = entry.getValue();
+            i++;
+        }
+
+        if (fusedUpdater == null)
+            fusedUpdater = new FusedUpdater();
+        boolean fused = fusedUpdater.update(layers, updaters, gradients, graph.getFlattenedGradients(), graph.params(),
+                        iteration, batchSize);
+
+        i = 0;
         for (Map.Entry<String, Gradient> entry : layerGradients.entrySet()) {
             String layerName = entry.getKey();
-            int updaterIdx = layerUpdatersMap.get(layerName);
-            layerUpdaters[updaterIdx].update(graph.getLayer(layerName), entry.getValue(), iteration, batchSize);
+            if (!fused)
+                updaters[i].update(layers[i], entry.getValue(), iteration, batchSize);
+            i++;
 
 
             //Gradients may be replaced by BaseUpdater.update()
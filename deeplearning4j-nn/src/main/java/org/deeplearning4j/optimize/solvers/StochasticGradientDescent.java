@@ -19,20 +19,36 @@
 package org.deeplearning4j.optimize.solvers;
 
 import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.api.layers.SparseGradientLayer;
+import org.deeplearning4j.nn.conf.LearningRatePolicy;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.gradient.SparseRowGradient;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.optimize.api.StepFunction;
 import org.deeplearning4j.optimize.api.TerminationCondition;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Stochastic Gradient Descent
  * Standard fix step size
  * No line search
+ * <p>
+ * For layers with sparse row updates ({@link SparseGradientLayer}), the step is applied to the updated rows of these
+ * parameters only, and to the rest of the flattened parameters as usual.
  * @author Adam Gibson
  */
 public class StochasticGradientDescent extends BaseOptimizer {
@@ -58,7 +74,9 @@ public class StochasticGradientDescent extends BaseOptimizer {
             Gradient gradient = pair.getFirst();
 
             INDArray params = model.params();
-            stepFunction.step(params, gradient.gradient());
+            boolean sparseStep = stepSparse(params, gradient.gradient());
+            if (!sparseStep)
+                stepFunction.step(params, gradient.gradient());
             //Note: model.params() is always in-place for MultiLayerNetwork and ComputationGraph, hence no setParams is necessary there
             //However: for pretrain layers, params are NOT a view. Thus a setParams call is necessary
             //But setParams should be a no-op for MLN and CG
@@ -68,13 +86,92 @@ public class StochasticGradientDescent extends BaseOptimizer {
             for (IterationListener listener : iterationListeners)
                 listener.iterationDone(model, iterationCount);
 
-            checkTerminalConditions(pair.getFirst().gradient(), oldScore, score, i);
+            //The termination conditions don't end training here, and check the full gradient: with sparse updates,
+            // they are only needed for score based learning rate decay
+            if (!sparseStep || conf.getLearningRatePolicy() == LearningRatePolicy.Score)
+                checkTerminalConditions(pair.getFirst().gradient(), oldScore, score, i);
 
             BaseOptimizer.incrementIterationCount(model, 1);
         }
         return true;
     }
 
+    /**
+     * Apply the step with the sparse updates of the model's {@link SparseGradientLayer}s: the step function is applied
+     * to the updated rows of these parameters, and to the remaining ranges of the flattened parameters and gradients
+     *
+     * @return False if not applicable (no sparse updates, or parameters that are not views of the flattened parameters),
+     *         in which case nothing is modified
+     */
+    private boolean stepSparse(INDArray params, INDArray flatGradient) {
+        Layer[] layers;
+        if (model instanceof MultiLayerNetwork) {
+            layers = ((MultiLayerNetwork) model).getLayers();
+        } else if (model instanceof ComputationGraph) {
+            layers = ((ComputationGraph) model).getLayers();
+        } else {
+            return false;
+        }
+        if (layers == null || flatGradient == null || params.rows() != 1 || flatGradient.rows() != 1
+                        || params.length() != flatGradient.length())
+            return false;
+
+        List<INDArray> sparseParams = new ArrayList<>();
+        List<SparseRowGradient> sparseUpdates = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        for (Layer layer : layers) {
+            if (!(layer instanceof SparseGradientLayer))
+                continue;
+            Map<String, SparseRowGradient> sparse = ((SparseGradientLayer) layer).getSparseGradients();
+            if (sparse == null)
+                continue;
+            for (Map.Entry<String, SparseRowGradient> entry : sparse.entrySet()) {
+                INDArray param = layer.getParam(entry.getKey());
+                if (!entry.getValue().isUpdate() || param == null || param.data() != params.data()
+                                || param.elementWiseStride() != 1)
+                    return false;
+                //The gradient for a parameter is at the same position in the flattened gradients as the parameter in
+                // the flattened parameters
+                int start = (int) (param.offset() - params.offset());
+                if (start < 0 || start + param.length() > params.length())
+                    return false;
+                sparseParams.add(param);
+                sparseUpdates.add(entry.getValue());
+                ranges.add(new int[] {start, start + param.length()});
+            }
+        }
+        if (sparseParams.isEmpty())
+            return false;
+
+        Collections.sort(ranges, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] o1, int[] o2) {
+                return Integer.compare(o1[0], o2[0]);
+            }
+        });
+        int from = 0;
+        for (int i = 0; i <= ranges.size(); i++) {
+            int to = (i < ranges.size() ? ranges.get(i)[0] : params.length());
+            if (to > from) {
+                stepFunction.step(params.get(NDArrayIndex.point(0), NDArrayIndex.interval(from, to)),
+                                flatGradient.get(NDArrayIndex.point(0), NDArrayIndex.interval(from, to)));
+            }
+            if (i < ranges.size())
+                from = Math.max(from, ranges.get(i)[1]);
+        }
+
+        for (int i = 0; i < sparseParams.size(); i++) {
+            INDArray param = sparseParams.get(i);
+            SparseRowGradient update = sparseUpdates.get(i);
+            if (update.getRows().length == 0)
+                continue;
+            INDArray rows = Nd4j.pullRows(param, 1, update.getRows(), 'c');
+            stepFunction.step(rows, update.getValues());
+            SparseRowGradient.scatterRows(param, update.getRows(), rows);
+        }
+        return true;
+    }
+
     @Override
     public void preProcessLine() {}
 
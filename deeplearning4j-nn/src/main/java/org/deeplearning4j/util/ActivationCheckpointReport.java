@@ -0,0 +1,157 @@
+package org.deeplearning4j.util;
+
+import lombok.Data;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.graph.vertex.GraphVertex;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Memory vs. time comparison for activation checkpointing: the activation memory retained from the forward pass for
+ * use in backprop, and the time per gradient calculation (forward pass + backprop), with and without checkpointing.
+ * <p>
+ * The checkpoints configured for the network are used; if none are configured, checkpointing with no explicit
+ * checkpoints (i.e., retaining only the activations that can't be recomputed) is evaluated. The network parameters
+ * are not modified, however note that layers with side effects in the forward pass (such as the global statistics of
+ * batch normalization layers) are updated as in training.
+ * <p>
+ * Usage: {@code System.out.println(ActivationCheckpointReport.evaluate(net, features, labels, 10));}
+ */
+@Data
+public class ActivationCheckpointReport {
+
+    private final long retainedBytes;
+    private final long retainedBytesCheckpointed;
+    private final double msPerIteration;
+    private final double msPerIterationCheckpointed;
+
+    /**
+     * Evaluate activation checkpointing for a MultiLayerNetwork
+     *
+     * @param net        Network to evaluate
+     * @param features   Features for one minibatch
+     * @param labels     Labels for one minibatch
+     * @param iterations Number of gradient calculations to time, for each setting
+     */
+    public static ActivationCheckpointReport evaluate(MultiLayerNetwork net, INDArray features, INDArray labels,
+                    int iterations) {
+        MultiLayerConfiguration conf = net.getLayerWiseConfigurations();
+        int[] checkpoints = conf.getActivationCheckpoints();
+        net.setInput(features);
+        net.setLabels(labels);
+        try {
+            conf.setActivationCheckpoints(null);
+            double ms = time(net, iterations);
+            long bytes = retainedBytes(net);
+
+            conf.setActivationCheckpoints(checkpoints != null ? checkpoints : new int[0]);
+            double msCheckpointed = time(net, iterations);
+            long bytesCheckpointed = retainedBytes(net);
+
+            return new ActivationCheckpointReport(bytes, bytesCheckpointed, ms, msCheckpointed);
+        } finally {
+            conf.setActivationCheckpoints(checkpoints);
+        }
+    }
+
+    /**
+     * Evaluate activation checkpointing for a ComputationGraph
+     *
+     * @param net        Network to evaluate
+     * @param features   Features (network inputs) for one minibatch
+     * @param labels     Labels for one minibatch
+     * @param iterations Number of gradient calculations to time, for each setting
+     */
+    public static ActivationCheckpointReport evaluate(ComputationGraph net, INDArray[] features, INDArray[] labels,
+                    int iterations) {
+        ComputationGraphConfiguration conf = net.getConfiguration();
+        List<String> checkpoints = conf.getActivationCheckpoints();
+        net.setInputs(features);
+        net.setLabels(labels);
+        try {
+            conf.setActivationCheckpoints(null);
+            double ms = time(net, iterations);
+            long bytes = retainedBytes(net);
+
+            conf.setActivationCheckpoints(checkpoints != null ? checkpoints : Collections.<String>emptyList());
+            double msCheckpointed = time(net, iterations);
+            long bytesCheckpointed = retainedBytes(net);
+
+            return new ActivationCheckpointReport(bytes, bytesCheckpointed, ms, msCheckpointed);
+        } finally {
+            conf.setActivationCheckpoints(checkpoints);
+        }
+    }
+
+    private static double time(MultiLayerNetwork net, int iterations) {
+        net.computeGradientAndScore(); //Warmup
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            net.computeGradientAndScore();
+        }
+        return (System.nanoTime() - start) / 1e6 / Math.max(1, iterations);
+    }
+
+    private static double time(ComputationGraph net, int iterations) {
+        net.computeGradientAndScore(); //Warmup
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            net.computeGradientAndScore();
+        }
+        return (System.nanoTime() - start) / 1e6 / Math.max(1, iterations);
+    }
+
+    /**
+     * Activations still referenced by the layers after backprop. Without checkpointing, these are all activations;
+     * with checkpointing, recomputed activations are released during backprop
+     */
+    private static long retainedBytes(MultiLayerNetwork net) {
+        List<INDArray> arrays = new ArrayList<>();
+        arrays.add(net.getInput());
+        for (Layer l : net.getLayers()) {
+            arrays.add(l.input());
+        }
+        return ActivationCheckpointUtils.distinctBufferBytes(arrays);
+    }
+
+    private static long retainedBytes(ComputationGraph net) {
+        List<INDArray> arrays = new ArrayList<>();
+        for (GraphVertex v : net.getVertices()) {
+            if (v.isInputVertex())
+                continue;
+            Collections.addAll(arrays, v.getInputs());
+            if (v.hasLayer())
+                arrays.add(v.getLayer().input());
+        }
+        return ActivationCheckpointUtils.distinctBufferBytes(arrays);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Activation checkpointing: retained activations ").append(formatBytes(retainedBytes))
+                        .append(" -> ").append(formatBytes(retainedBytesCheckpointed));
+        if (retainedBytes > 0) {
+            sb.append(String.format(" (%.1f%%)", 100.0 * retainedBytesCheckpointed / retainedBytes));
+        }
+        sb.append(String.format(", time per iteration %.2f ms -> %.2f ms", msPerIteration,
+                        msPerIterationCheckpointed));
+        if (msPerIteration > 0) {
+            sb.append(String.format(" (%.1f%%)", 100.0 * msPerIterationCheckpointed / msPerIteration));
+        }
+        return sb.toString();
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024 * 1024)
+            return String.format("%.1f kB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
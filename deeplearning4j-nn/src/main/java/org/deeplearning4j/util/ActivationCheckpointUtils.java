@@ -0,0 +1,118 @@
+package org.deeplearning4j.util;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.graph.vertex.GraphVertex;
+import org.deeplearning4j.nn.graph.vertex.VertexIndices;
+import org.deeplearning4j.nn.layers.FrozenLayer;
+import org.deeplearning4j.nn.layers.normalization.BatchNormalization;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Utilities for activation checkpointing (recomputation of activations during backprop), as configured via
+ * {@link org.deeplearning4j.nn.conf.MultiLayerConfiguration.Builder#activationCheckpoints(int...)} and
+ * {@link org.deeplearning4j.nn.conf.ComputationGraphConfiguration.GraphBuilder#activationCheckpoints(String...)}
+ */
+public class ActivationCheckpointUtils {
+
+    private ActivationCheckpointUtils() {}
+
+    /**
+     * Whether the training forward pass of a layer can be repeated during backprop with an identical result, and
+     * without side effects. This is not the case for layers with dropout (random), and for batch normalization
+     * (which updates the global mean/variance estimates in the forward pass)
+     */
+    public static boolean canRecompute(Layer layer) {
+        if (layer instanceof FrozenLayer)
+            layer = ((FrozenLayer) layer).getInsideLayer();
+        if (layer instanceof BatchNormalization)
+            return false;
+        org.deeplearning4j.nn.conf.layers.Layer conf = layer.conf().getLayer();
+        return conf == null || conf.getDropOut() <= 0.0;
+    }
+
+    /**
+     * Determine which layer inputs of a MultiLayerNetwork are retained after the forward pass. Retained are: the
+     * network input, the input of the output layer, the inputs of the layers following the checkpoint layers, and
+     * the inputs and outputs of layers that can't be recomputed.
+     *
+     * @param layers      Layers of the network
+     * @param checkpoints Indices of the layers whose activations (outputs) should be retained
+     * @return For each layer, whether its input is retained
+     */
+    public static boolean[] retainedLayerInputs(Layer[] layers, int[] checkpoints) {
+        int n = layers.length;
+        boolean[] retain = new boolean[n];
+        if (n == 0)
+            return retain;
+        retain[0] = true;
+        retain[n - 1] = true;
+        for (int c : checkpoints) {
+            if (c + 1 < n)
+                retain[c + 1] = true;
+        }
+        for (int i = 0; i < n; i++) {
+            if (!canRecompute(layers[i])) {
+                retain[i] = true;
+                if (i + 1 < n)
+                    retain[i + 1] = true;
+            }
+        }
+        return retain;
+    }
+
+    /**
+     * Determine which vertex outputs of a ComputationGraph are retained after the forward pass (for the vertices that
+     * use them as input). Retained are the network inputs, the checkpoint vertices, the inputs of output vertices, and
+     * the inputs and outputs of layers that can't be recomputed.
+     *
+     * @param vertices    Vertices of the network, by vertex index
+     * @param checkpoints Names of the vertices whose activations should be retained
+     * @return For each vertex index, whether its output is retained
+     */
+    public static boolean[] retainedVertexOutputs(GraphVertex[] vertices, Collection<String> checkpoints) {
+        boolean[] retain = new boolean[vertices.length];
+        for (GraphVertex v : vertices) {
+            int idx = v.getVertexIndex();
+            if (v.isInputVertex() || checkpoints.contains(v.getVertexName())
+                            || (v.hasLayer() && !canRecompute(v.getLayer()))) {
+                retain[idx] = true;
+            }
+            if (v.isOutputVertex() || (v.hasLayer() && !canRecompute(v.getLayer()))) {
+                VertexIndices[] inputs = v.getInputVertices();
+                if (inputs != null) {
+                    for (VertexIndices in : inputs) {
+                        retain[in.getVertexIndex()] = true;
+                    }
+                }
+            }
+        }
+        return retain;
+    }
+
+    /**
+     * Estimate the memory used by the given arrays, counting each underlying buffer only once (views and arrays that
+     * are referenced more than once don't add to the total)
+     *
+     * @param arrays Arrays (null entries are ignored)
+     * @return Memory in bytes
+     */
+    public static long distinctBufferBytes(Collection<INDArray> arrays) {
+        Map<DataBuffer, Boolean> seen = new IdentityHashMap<>();
+        long bytes = 0;
+        for (INDArray arr : arrays) {
+            if (arr == null)
+                continue;
+            DataBuffer buffer = arr.data();
+            if (buffer.underlyingDataBuffer() != null)
+                buffer = buffer.underlyingDataBuffer();
+            if (seen.put(buffer, Boolean.TRUE) == null)
+                bytes += buffer.length() * (long) buffer.getElementSize();
+        }
+        return bytes;
+    }
+}
@@ -23,11 +23,20 @@ public class Dropout {
      * @return the post applied drop connect
      */
     public static INDArray applyDropConnect(Layer layer, String variable) {
-        INDArray result = layer.getParam(variable).dup();
+        INDArray param = layer.getParam(variable);
+        double dropOut = layer.conf().getLayer().getDropOut();
+        INDArray result;
+        if (param.elementWiseStride() < 1) {
+            result = param.dup();
+            param = result;
+        } else {
+            //Copy and drop connect in a single pass over the parameters, instead of dup() followed by an in-place op
+            result = Nd4j.createUninitialized(param.shape(), param.ordering());
+        }
         if (Nd4j.getRandom().getStatePointer() != null) {
-            Nd4j.getExecutioner().exec(new DropOut(result, result, layer.conf().getLayer().getDropOut()));
+            Nd4j.getExecutioner().exec(new DropOut(param, result, dropOut));
         } else {
-            Nd4j.getExecutioner().exec(new LegacyDropOut(result, result, layer.conf().getLayer().getDropOut()));
+            Nd4j.getExecutioner().exec(new LegacyDropOut(param, result, dropOut));
         }
         return result;
     }
@@ -46,5 +55,28 @@ public class Dropout {
         }
     }
 
+    /**
+     * Apply (inverted) dropout to a copy of the given input, leaving the input unmodified.
+     * The copy is written by the dropout op itself, so the input is read only once, instead of once for a dup() and
+     * again for an in-place dropout op
+     * @param input the input to do drop out on
+     * @param dropout the drop out probability
+     * @return a new array with dropout applied
+     */
+    public static INDArray applyDropoutCopy(INDArray input, double dropout) {
+        if (input.elementWiseStride() < 1) {
+            INDArray result = input.dup();
+            applyDropout(result, dropout);
+            return result;
+        }
+        INDArray result = Nd4j.createUninitialized(input.shape(), input.ordering());
+        if (Nd4j.getRandom().getStatePointer() != null) {
+            Nd4j.getExecutioner().exec(new DropOutInverted(input, result, dropout));
+        } else {
+            Nd4j.getExecutioner().exec(new LegacyDropOutInverted(input, result, dropout));
+        }
+        return result;
+    }
+
 
 }
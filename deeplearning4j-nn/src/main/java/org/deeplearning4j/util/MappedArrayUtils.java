@@ -0,0 +1,162 @@
+package org.deeplearning4j.util;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Utilities for writing array contents to files in a memory mappable layout, and for reading them back through
+ * (copy on write) memory mapping. Used by {@link ModelSerializer#writeModelMapped} and by
+ * {@link org.deeplearning4j.datasets.iterator.MinibatchCache}.<br>
+ * Array contents are written as raw elements in the given data type, in native byte order; callers place them at
+ * offsets aligned with {@link #align(long)}.
+ */
+public class MappedArrayUtils {
+
+    /** Alignment, in bytes, of array contents within files */
+    public static final int ALIGNMENT = 64;
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private MappedArrayUtils() {}
+
+    /**
+     * @return The smallest offset that is greater than or equal to the specified offset, and a multiple of
+     *         {@link #ALIGNMENT}
+     */
+    public static long align(long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * @return Data type (double or float) used to store arrays, for the current Nd4j data type
+     */
+    public static DataBuffer.Type storageType() {
+        return Nd4j.dataType() == DataBuffer.Type.DOUBLE ? DataBuffer.Type.DOUBLE : DataBuffer.Type.FLOAT;
+    }
+
+    /**
+     * @return Element size, in bytes, of the specified (double or float) data type
+     */
+    public static int elementSize(DataBuffer.Type dataType) {
+        return dataType == DataBuffer.Type.DOUBLE ? 8 : 4;
+    }
+
+    /**
+     * Write the contents of the array, in its own ordering ('c' or 'f'), as raw elements of the specified data type in
+     * native byte order
+     *
+     * @param channel  Channel to write to
+     * @param array    Array to write
+     * @param dataType Data type to write (double or float)
+     * @param offset   Position in the channel to write the first element to
+     */
+    public static void writeArray(FileChannel channel, INDArray array, DataBuffer.Type dataType, long offset)
+                    throws IOException {
+        if (array.isView() || array.data().length() != array.length())
+            array = array.dup(array.ordering());
+
+        int length = array.length();
+        int chunk = Math.max(1, Math.min(CHUNK_SIZE, length));
+        if (dataType == DataBuffer.Type.DOUBLE) {
+            double[] data = array.data().asDouble();
+            ByteBuffer bb = ByteBuffer.allocateDirect(chunk * 8).order(ByteOrder.nativeOrder());
+            for (int i = 0; i < length; i += chunk) {
+                int n = Math.min(chunk, length - i);
+                bb.clear();
+                bb.asDoubleBuffer().put(data, i, n);
+                bb.limit(n * 8);
+                writeFully(channel, bb, offset + i * 8L);
+            }
+        } else {
+            float[] data = array.data().asFloat();
+            ByteBuffer bb = ByteBuffer.allocateDirect(chunk * 4).order(ByteOrder.nativeOrder());
+            for (int i = 0; i < length; i += chunk) {
+                int n = Math.min(chunk, length - i);
+                bb.clear();
+                bb.asFloatBuffer().put(data, i, n);
+                bb.limit(n * 4);
+                writeFully(channel, bb, offset + i * 4L);
+            }
+        }
+    }
+
+    /**
+     * Map a region of a file, copy on write: pages are shared between processes mapping the same file until they are
+     * modified, and modifications are never written back to the file
+     *
+     * @param channel     Channel to map
+     * @param offset      Position of the region in the file
+     * @param lengthBytes Length of the region, in bytes. Must be at most 2GB
+     * @param order       Byte order of the contents of the region
+     */
+    public static ByteBuffer map(FileChannel channel, long offset, long lengthBytes, ByteOrder order)
+                    throws IOException {
+        if (lengthBytes > Integer.MAX_VALUE) {
+            throw new UnsupportedOperationException(
+                            "Cannot map regions larger than 2GB (length: " + lengthBytes + " bytes)");
+        }
+        return channel.map(FileChannel.MapMode.PRIVATE, offset, lengthBytes).order(order);
+    }
+
+    /**
+     * Create an array from (usually memory mapped) raw elements. If the data type matches {@link Nd4j#dataType()}
+     * and the byte order is native, the array wraps the buffer directly, on backends that support it. Otherwise the
+     * elements are copied.
+     *
+     * @param data     Raw elements, from position 0 of the buffer. The buffer's byte order is used
+     * @param dataType Data type of the elements (double or float)
+     * @param shape    Shape of the array
+     * @param order    Ordering of the elements ('c' or 'f')
+     */
+    public static INDArray toArray(ByteBuffer data, DataBuffer.Type dataType, int[] shape, char order) {
+        int length = 1;
+        for (int d : shape)
+            length *= d;
+
+        if (dataType == Nd4j.dataType() && data.order() == ByteOrder.nativeOrder()) {
+            //The data buffer wraps (and holds on to) the direct buffer
+            DataBuffer buffer = Nd4j.createBuffer(data, dataType, length);
+            return Nd4j.create(buffer, shape, Nd4j.getStrides(shape, order), 0, order);
+        }
+        if (dataType == DataBuffer.Type.DOUBLE) {
+            double[] d = new double[length];
+            data.asDoubleBuffer().get(d);
+            return Nd4j.create(d, shape, order);
+        } else {
+            float[] f = new float[length];
+            data.asFloatBuffer().get(f);
+            return Nd4j.create(f, shape, order);
+        }
+    }
+
+    /**
+     * Write all remaining bytes of the buffer to the channel, starting at the specified position
+     */
+    public static void writeFully(FileChannel channel, ByteBuffer bb, long position) throws IOException {
+        while (bb.hasRemaining()) {
+            int written = channel.write(bb, position);
+            if (written < 0)
+                throw new EOFException("Could not write to file");
+            position += written;
+        }
+    }
+
+    /**
+     * Read bytes from the channel, starting at the specified position, until the buffer is full
+     */
+    public static void readFully(FileChannel channel, ByteBuffer bb, long position) throws IOException {
+        while (bb.hasRemaining()) {
+            int read = channel.read(bb, position);
+            if (read < 0)
+                throw new EOFException("Unexpected end of file");
+            position += read;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.deeplearning4j.nn.conf.layers.RBM;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.preprocessor.DataNormalization;
@@ -23,7 +24,11 @@ import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.heartbeat.reports.Task;
 
 import java.io.*;
-import java.util.Enumeration;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -40,6 +45,24 @@ public class ModelSerializer {
     public static final String UPDATER_BIN = "updaterState.bin";
     public static final String NORMALIZER_BIN = "normalizer.bin";
 
+    /** Alignment, in bytes, of the parameter and updater blocks in files written by {@link #writeModelMapped} */
+    public static final int MAPPED_ALIGNMENT = MappedArrayUtils.ALIGNMENT;
+    private static final byte[] MAPPED_MAGIC = "DL4JMMAP".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAPPED_VERSION = 1;
+    private static final int MAPPED_HEADER_SIZE = 128;
+    private static final int MAPPED_TYPE_MULTILAYER = 0;
+    private static final int MAPPED_TYPE_GRAPH = 1;
+    private static final int CONFIGURATION_CACHE_SIZE = 16;
+
+    //Configurations parsed from memory mapped model files, keyed by canonical path, length and last modified time of
+    // the file. Accessed in access order; the least recently used entry is evicted
+    private static final Map<String, Object> CONFIGURATION_CACHE = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > CONFIGURATION_CACHE_SIZE;
+        }
+    };
+
     private ModelSerializer() {}
 
     /**
@@ -147,6 +170,9 @@ public class ModelSerializer {
      */
     public static MultiLayerNetwork restoreMultiLayerNetwork(@NonNull File file, boolean loadUpdater)
                     throws IOException {
+        if (isMappedModelFile(file))
+            return restoreMultiLayerNetworkMapped(file, loadUpdater);
+
         ZipFile zipFile = new ZipFile(file);
 
         boolean gotConfig = false;
@@ -364,6 +390,9 @@ public class ModelSerializer {
      * @throws IOException
      */
     public static ComputationGraph restoreComputationGraph(@NonNull File file, boolean loadUpdater) throws IOException {
+        if (isMappedModelFile(file))
+            return restoreComputationGraphMapped(file, loadUpdater);
+
         ZipFile zipFile = new ZipFile(file);
 
         boolean gotConfig = false;
@@ -469,6 +498,207 @@ public class ModelSerializer {
                             + "], gotCoefficients: [" + gotCoefficients + "], gotUpdater: [" + gotUpdaterState + "]");
     }
 
+    /**
+     * Write a model to a file in the memory mappable format.<br>
+     * Unlike {@link #writeModel(Model, File, boolean)}, the file is not a (compressed) zip archive: it consists of a
+     * small header, the JSON configuration, and the raw parameters and (optionally) updater state, each stored
+     * uncompressed and aligned to {@link #MAPPED_ALIGNMENT} bytes. Such files can be restored with
+     * {@link #restoreMultiLayerNetworkMapped(File, boolean)} / {@link #restoreComputationGraphMapped(File, boolean)}
+     * (or the standard restore methods, which detect the format) without inflating or parsing the parameters.
+     * Normalizers and preprocessors are not supported in this format.
+     *
+     * @param model       the model to write
+     * @param file        the file to write to
+     * @param saveUpdater whether to save the updater state or not
+     * @throws IOException
+     */
+    public static void writeModelMapped(@NonNull Model model, @NonNull File file, boolean saveUpdater)
+                    throws IOException {
+        int modelType;
+        String json;
+        INDArray updaterState = null;
+        if (model instanceof MultiLayerNetwork) {
+            modelType = MAPPED_TYPE_MULTILAYER;
+            json = ((MultiLayerNetwork) model).getLayerWiseConfigurations().toJson();
+            if (saveUpdater)
+                updaterState = ((MultiLayerNetwork) model).getUpdater().getStateViewArray();
+        } else if (model instanceof ComputationGraph) {
+            modelType = MAPPED_TYPE_GRAPH;
+            json = ((ComputationGraph) model).getConfiguration().toJson();
+            if (saveUpdater)
+                updaterState = ((ComputationGraph) model).getUpdater().getStateViewArray();
+        } else {
+            throw new IllegalArgumentException("Unsupported model type: " + model.getClass().getName());
+        }
+
+        INDArray params = model.params();
+        DataBuffer.Type dataType = params.data().dataType();
+        if (dataType != DataBuffer.Type.FLOAT && dataType != DataBuffer.Type.DOUBLE) {
+            throw new UnsupportedOperationException("Unsupported parameters data type: " + dataType);
+        }
+        int elementSize = dataType == DataBuffer.Type.DOUBLE ? 8 : 4;
+        long updaterLength = (updaterState == null ? 0 : updaterState.length());
+
+        byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+        long configOffset = MAPPED_HEADER_SIZE;
+        long paramsOffset = MappedArrayUtils.align(configOffset + jsonBytes.length);
+        long updaterOffset = MappedArrayUtils.align(paramsOffset + params.length() * (long) elementSize);
+
+        ByteBuffer header = ByteBuffer.allocate(MAPPED_HEADER_SIZE);
+        header.put(MAPPED_MAGIC);
+        header.putInt(MAPPED_VERSION);
+        header.putInt(modelType);
+        header.putInt(elementSize);
+        header.putInt(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 0 : 1);
+        header.putLong(configOffset).putLong(jsonBytes.length);
+        header.putLong(paramsOffset).putLong(params.length());
+        header.putLong(updaterOffset).putLong(updaterLength);
+        header.rewind();
+
+        try (FileChannel channel = new RandomAccessFile(file, "rw").getChannel()) {
+            channel.truncate(0);
+            MappedArrayUtils.writeFully(channel, header, 0);
+            MappedArrayUtils.writeFully(channel, ByteBuffer.wrap(jsonBytes), configOffset);
+            MappedArrayUtils.writeArray(channel, params, dataType, paramsOffset);
+            if (updaterLength > 0)
+                MappedArrayUtils.writeArray(channel, updaterState, dataType, updaterOffset);
+        }
+    }
+
+    /**
+     * Restore a MultiLayerNetwork written by {@link #writeModelMapped(Model, File, boolean)}.<br>
+     * The parameters are memory mapped (copy on write) and used directly as the network's flattened parameters view
+     * where the backend, data type and byte order allow it (for example, the native CPU backend with a matching
+     * {@link Nd4j#dataType()}): restoring is then independent of the model size, and
+     * processes restoring the same file share the parameter pages through the OS page cache until they are modified.
+     * Otherwise, the parameters are copied from the mapped file.
+     *
+     * @param file        File to restore from
+     * @param loadUpdater Whether to restore the updater state. If false, the updater state is not read at all
+     * @return the restored network
+     * @throws IOException
+     */
+    public static MultiLayerNetwork restoreMultiLayerNetworkMapped(@NonNull File file, boolean loadUpdater)
+                    throws IOException {
+        MappedModel mapped = readMapped(file, MAPPED_TYPE_MULTILAYER, loadUpdater);
+
+        MultiLayerNetwork network = new MultiLayerNetwork((MultiLayerConfiguration) mapped.configuration);
+        network.init(mapped.params, false);
+        if (mapped.updaterState != null) {
+            network.getUpdater().setStateViewArray(network, mapped.updaterState, false);
+        }
+        return network;
+    }
+
+    /**
+     * Restore a ComputationGraph written by {@link #writeModelMapped(Model, File, boolean)}. See
+     * {@link #restoreMultiLayerNetworkMapped(File, boolean)} for details.
+     *
+     * @param file        File to restore from
+     * @param loadUpdater Whether to restore the updater state. If false, the updater state is not read at all
+     * @return the restored computation graph
+     * @throws IOException
+     */
+    public static ComputationGraph restoreComputationGraphMapped(@NonNull File file, boolean loadUpdater)
+                    throws IOException {
+        MappedModel mapped = readMapped(file, MAPPED_TYPE_GRAPH, loadUpdater);
+
+        ComputationGraph cg = new ComputationGraph((ComputationGraphConfiguration) mapped.configuration);
+        cg.init(mapped.params, false);
+        if (mapped.updaterState != null) {
+            cg.getUpdater().setStateViewArray(mapped.updaterState);
+        }
+        return cg;
+    }
+
+    /**
+     * @return true if the file was written by {@link #writeModelMapped(Model, File, boolean)}
+     */
+    public static boolean isMappedModelFile(@NonNull File file) throws IOException {
+        if (!file.isFile() || file.length() < MAPPED_HEADER_SIZE)
+            return false;
+        byte[] magic = new byte[MAPPED_MAGIC.length];
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
+            dis.readFully(magic);
+        }
+        return Arrays.equals(MAPPED_MAGIC, magic);
+    }
+
+    private static class MappedModel {
+        private Object configuration;
+        private INDArray params;
+        private INDArray updaterState;
+    }
+
+    private static MappedModel readMapped(File file, int expectedModelType, boolean loadUpdater) throws IOException {
+        try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(MAPPED_HEADER_SIZE);
+            MappedArrayUtils.readFully(channel, header, 0);
+            header.flip();
+
+            byte[] magic = new byte[MAPPED_MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(MAPPED_MAGIC, magic))
+                throw new IllegalStateException("Not a memory mapped model file: " + file);
+            int version = header.getInt();
+            if (version != MAPPED_VERSION)
+                throw new IllegalStateException("Unsupported memory mapped model file version: " + version);
+            int modelType = header.getInt();
+            if (modelType != expectedModelType) {
+                throw new IllegalStateException("Model in file " + file + " is a "
+                                + (modelType == MAPPED_TYPE_GRAPH ? "ComputationGraph" : "MultiLayerNetwork"));
+            }
+            int elementSize = header.getInt();
+            ByteOrder order = header.getInt() == 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            long configOffset = header.getLong();
+            long configLength = header.getLong();
+            long paramsOffset = header.getLong();
+            long paramsLength = header.getLong();
+            long updaterOffset = header.getLong();
+            long updaterLength = header.getLong();
+
+            String cacheKey = file.getCanonicalPath() + ":" + file.length() + ":" + file.lastModified();
+            Object configuration;
+            synchronized (CONFIGURATION_CACHE) {
+                configuration = CONFIGURATION_CACHE.get(cacheKey);
+            }
+            if (configuration == null) {
+                ByteBuffer jsonBytes = ByteBuffer.allocate((int) configLength);
+                MappedArrayUtils.readFully(channel, jsonBytes, configOffset);
+                jsonBytes.flip();
+                String json = StandardCharsets.UTF_8.decode(jsonBytes).toString();
+                if (modelType == MAPPED_TYPE_GRAPH) {
+                    configuration = ComputationGraphConfiguration.fromJson(json);
+                } else {
+                    configuration = MultiLayerConfiguration.fromJson(json);
+                }
+                synchronized (CONFIGURATION_CACHE) {
+                    CONFIGURATION_CACHE.put(cacheKey, configuration);
+                }
+            }
+
+            MappedModel out = new MappedModel();
+            //Configurations are modified during training: each network gets its own copy of the cached configuration
+            if (modelType == MAPPED_TYPE_GRAPH) {
+                out.configuration = ((ComputationGraphConfiguration) configuration).clone();
+            } else {
+                out.configuration = ((MultiLayerConfiguration) configuration).clone();
+            }
+            out.params = mapArray(channel, paramsOffset, paramsLength, elementSize, order);
+            if (loadUpdater && updaterLength > 0) {
+                out.updaterState = mapArray(channel, updaterOffset, updaterLength, elementSize, order);
+            }
+            return out;
+        }
+    }
+
+    private static INDArray mapArray(FileChannel channel, long offset, long length, int elementSize, ByteOrder order)
+                    throws IOException {
+        ByteBuffer mapped = MappedArrayUtils.map(channel, offset, length * elementSize, order);
+        DataBuffer.Type fileType = elementSize == 8 ? DataBuffer.Type.DOUBLE : DataBuffer.Type.FLOAT;
+        return MappedArrayUtils.toArray(mapped, fileType, new int[] {1, (int) length}, 'c');
+    }
+
     /**
      *
      * @param model
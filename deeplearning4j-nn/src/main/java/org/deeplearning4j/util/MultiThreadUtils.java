@@ -21,6 +21,7 @@ package org.deeplearning4j.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
 
@@ -69,4 +70,32 @@ public class MultiThreadUtils {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Run all tasks on the given executor and wait until all of them are done.<br>
+     * Unlike {@link #parallelTasks(List, ExecutorService)}, an exception thrown by any task is not only logged, but
+     * rethrown once all tasks have finished. Use this when tasks fill in parts of a shared result, where a failed
+     * task would otherwise leave its part silently empty.
+     */
+    public static void parallelTasksRethrow(List<Runnable> tasks, ExecutorService executorService) {
+        List<Future<?>> futures = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks)
+            futures.add(executorService.submit(task));
+
+        Throwable firstError = null;
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                if (firstError == null)
+                    firstError = e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+
+        if (firstError != null)
+            throw new RuntimeException("Error in parallel task", firstError);
+    }
 }
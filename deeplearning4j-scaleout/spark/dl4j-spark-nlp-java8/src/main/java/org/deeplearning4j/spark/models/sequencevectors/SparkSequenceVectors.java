@@ -27,15 +27,18 @@ import org.deeplearning4j.spark.models.sequencevectors.learning.SparkElementsLea
 import org.deeplearning4j.spark.models.sequencevectors.learning.SparkSequenceLearningAlgorithm;
 import org.deeplearning4j.spark.models.sequencevectors.primitives.ExtraCounter;
 import org.deeplearning4j.spark.models.sequencevectors.primitives.NetworkInformation;
-import org.deeplearning4j.spark.models.sequencevectors.utils.NetworkOrganizer;
+import org.deeplearning4j.spark.models.sequencevectors.transport.RoutedSequenceVectorsTransport;
+import org.deeplearning4j.spark.models.sequencevectors.transport.SequenceVectorsTransport;
+import org.deeplearning4j.spark.models.sequencevectors.transport.TransportStats;
+import org.deeplearning4j.spark.models.sequencevectors.transport.TransportStatsAccumulator;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
 import org.nd4j.linalg.exception.ND4JIllegalStateException;
 import org.nd4j.parameterserver.distributed.VoidParameterServer;
 import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
 import org.nd4j.parameterserver.distributed.enums.FaultToleranceStrategy;
-import org.nd4j.parameterserver.distributed.transport.RoutedTransport;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -46,6 +49,8 @@ import java.util.Set;
  */
 @Slf4j
 public class SparkSequenceVectors<T extends SequenceElement> extends SequenceVectors<T> {
+    public static final int DEFAULT_SEND_QUEUE_SIZE = 0;
+
     protected Accumulator<Counter<Long>> elementsFreqAccum;
     protected Accumulator<ExtraCounter<Long>> elementsFreqAccumExtra;
     protected StorageLevel storageLevel = StorageLevel.MEMORY_ONLY();
@@ -68,6 +73,12 @@ public class SparkSequenceVectors<T extends SequenceElement> extends SequenceVec
 
     protected VoidConfiguration paramServerConfiguration;
 
+    protected SequenceVectorsTransport transport = new RoutedSequenceVectorsTransport();
+    protected int sequencesPerFrame = PartitionTrainingFunction.DEFAULT_SEQUENCES_PER_FRAME;
+    protected int sendQueueSize = DEFAULT_SEND_QUEUE_SIZE;
+    protected boolean collectTransportStats = false;
+    protected List<TransportStats> transportStats = new ArrayList<>();
+
     protected SparkSequenceVectors() {
         this(new VectorsConfiguration());
     }
@@ -80,6 +91,16 @@ public class SparkSequenceVectors<T extends SequenceElement> extends SequenceVec
         return shallowVocabCache;
     }
 
+    /**
+     * This method returns transport statistics for each epoch of last fitSequences() call.
+     * Statistics are collected only if enabled via Builder.collectTransportStats(true)
+     *
+     * @return
+     */
+    public List<TransportStats> getTransportStats() {
+        return Collections.unmodifiableList(transportStats);
+    }
+
 
     /**
      * PLEASE NOTE: This method isn't supported for Spark implementation. Consider using fitLists() or fitSequences() instead.
@@ -204,29 +225,8 @@ public class SparkSequenceVectors<T extends SequenceElement> extends SequenceVec
             // getting list of available hosts
             Set<NetworkInformation> availableHosts = spareReference.getNetworkInformation();
 
-            log.info("availableHosts: {}", availableHosts);
-            if (availableHosts.size() > 1) {
-                // now we have to pick N shards and optionally N backup nodes, and pass them within configuration bean
-                NetworkOrganizer organizer =
-                                new NetworkOrganizer(availableHosts, paramServerConfiguration.getNetworkMask());
-
-                paramServerConfiguration
-                                .setShardAddresses(organizer.getSubset(paramServerConfiguration.getNumberOfShards()));
-
-                // backup shards are optional
-                if (paramServerConfiguration.getFaultToleranceStrategy() != FaultToleranceStrategy.NONE) {
-                    paramServerConfiguration.setBackupAddresses(
-                                    organizer.getSubset(paramServerConfiguration.getNumberOfShards(),
-                                                    paramServerConfiguration.getShardAddresses()));
-                }
-            } else {
-                // for single host (aka driver-only, aka spark-local) just run on loopback interface
-                paramServerConfiguration.setShardAddresses(
-                                Arrays.asList("127.0.0.1:" + paramServerConfiguration.getUnicastPort()));
-                paramServerConfiguration.setFaultToleranceStrategy(FaultToleranceStrategy.NONE);
-            }
-
-
+            // now transport picks shards (and optionally backup shards) out of available hosts
+            transport.configure(sc, paramServerConfiguration, availableHosts);
 
             log.info("Got Shards so far: {}", paramServerConfiguration.getShardAddresses());
 
@@ -238,6 +238,7 @@ public class SparkSequenceVectors<T extends SequenceElement> extends SequenceVec
             paramServerConfigurationBroadcast = sc.broadcast(paramServerConfiguration);
 
         } else {
+            transport.configure(sc, paramServerConfiguration, null);
 
             // update ps configuration with real values where required
             paramServerConfiguration.setNumberOfShards(paramServerConfiguration.getShardAddresses().size());
@@ -251,7 +252,7 @@ public class SparkSequenceVectors<T extends SequenceElement> extends SequenceVec
             elementsFreqAccum = corpus.context().accumulator(new Counter<Long>(), new ElementsFrequenciesAccumulator());
             CountFunction<T> elementsCounter =
                             new CountFunction<>(configurationBroadcast, paramServerConfigurationBroadcast,
-                                            elementsFreqAccum, configuration.isTrainSequenceVectors());
+                                            elementsFreqAccum, configuration.isTrainSequenceVectors(), transport);
 
             // count all sequence elements and their sum
             JavaRDD<Pair<Sequence<T>, Long>> countedCorpus = corpus.map(elementsCounter);
@@ -282,15 +283,15 @@ public class SparkSequenceVectors<T extends SequenceElement> extends SequenceVec
 
         // FIXME: probably we need to reconsider this approach
         JavaRDD<T> vocabRDD = corpus
-                        .flatMap(new VocabRddFunctionFlat<T>(configurationBroadcast, paramServerConfigurationBroadcast))
+                        .flatMap(new VocabRddFunctionFlat<T>(configurationBroadcast, paramServerConfigurationBroadcast,
+                                        transport))
                         .distinct();
         vocabRDD.count();
 
         /**
          * now we initialize Shards with values. That call should be started from driver which is either Client or Shard in standalone mode.
          */
-        VoidParameterServer.getInstance().init(paramServerConfiguration, new RoutedTransport(),
-                        ela.getTrainingDriver());
+        transport.init(paramServerConfiguration, ela.getTrainingDriver());
         VoidParameterServer.getInstance().initializeSeqVec(configuration.getLayersSize(), (int) numberOfUniqueElements,
                         119, configuration.getLayersSize() / paramServerConfiguration.getNumberOfShards(),
                         paramServerConfiguration.isUseHS(), paramServerConfiguration.isUseNS());
@@ -298,13 +299,34 @@ public class SparkSequenceVectors<T extends SequenceElement> extends SequenceVec
         // proceed to training
         // also, training function is the place where we invoke ParameterServer
         TrainingFunction<T> trainer = new TrainingFunction<>(shallowVocabCacheBroadcast, configurationBroadcast,
-                        paramServerConfigurationBroadcast);
+                        paramServerConfigurationBroadcast, transport);
+
+        Accumulator<TransportStats> statsAccumulator = collectTransportStats
+                        ? corpus.context().accumulator(new TransportStats(), new TransportStatsAccumulator()) : null;
         PartitionTrainingFunction<T> partitionTrainer = new PartitionTrainingFunction<>(shallowVocabCacheBroadcast,
-                        configurationBroadcast, paramServerConfigurationBroadcast);
+                        configurationBroadcast, paramServerConfigurationBroadcast, transport, sequencesPerFrame,
+                        sendQueueSize, statsAccumulator);
 
+        transportStats.clear();
         if (configuration != null)
-            for (int e = 0; e < configuration.getEpochs(); e++)
+            for (int e = 0; e < configuration.getEpochs(); e++) {
+                if (statsAccumulator != null)
+                    statsAccumulator.setValue(new TransportStats());
+
+                long time = System.currentTimeMillis();
                 corpus.foreachPartition(partitionTrainer);
+                time = System.currentTimeMillis() - time;
+
+                if (statsAccumulator != null) {
+                    TransportStats stats = statsAccumulator.value();
+                    stats.setEpochTimeMs(time);
+                    transportStats.add(stats);
+
+                    log.info("Epoch {} finished in {} ms; frames sent: {}; messages sent: {} ({} messages/sec); bytes sent: {}",
+                                    e, time, stats.getNumFrames(), stats.getNumMessages(),
+                                    String.format("%.1f", stats.getMessagesPerSecond()), stats.getNumBytes());
+                }
+            }
         //corpus.foreach(trainer);
 
 
@@ -362,6 +384,10 @@ public class SparkSequenceVectors<T extends SequenceElement> extends SequenceVec
         protected VoidConfiguration peersConfiguration;
         protected int workers;
         protected StorageLevel storageLevel;
+        protected SequenceVectorsTransport transport = new RoutedSequenceVectorsTransport();
+        protected int sequencesPerFrame = PartitionTrainingFunction.DEFAULT_SEQUENCES_PER_FRAME;
+        protected int sendQueueSize = DEFAULT_SEND_QUEUE_SIZE;
+        protected boolean collectTransportStats = false;
 
         /**
          * This method should NOT be used in real world environment
@@ -519,6 +545,61 @@ public class SparkSequenceVectors<T extends SequenceElement> extends SequenceVec
         }
 
 
+        /**
+         * This method defines transport used to exchange messages with parameter server shards.
+         * Default is RoutedSequenceVectorsTransport, use LocalSequenceVectorsTransport for Spark local mode.
+         *
+         * @param transport
+         * @return
+         */
+        public Builder<T> transport(@NonNull SequenceVectorsTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * This method defines number of sequences, whose messages are stacked into single Frame before sending
+         *
+         * @param num
+         * @return
+         */
+        public Builder<T> sequencesPerFrame(int num) {
+            if (num < 1)
+                throw new DL4JInvalidConfigException("sequencesPerFrame should be positive value");
+
+            this.sequencesPerFrame = num;
+            return this;
+        }
+
+        /**
+         * This method defines number of Frames that might be queued for sending, while next Frame is built.
+         * 0 means Frames are sent synchronously, within training thread.
+         *
+         * Default value: 0
+         *
+         * @param num
+         * @return
+         */
+        public Builder<T> sendQueueSize(int num) {
+            if (num < 0)
+                throw new DL4JInvalidConfigException("sendQueueSize should be non-negative value");
+
+            this.sendQueueSize = num;
+            return this;
+        }
+
+        /**
+         * If set to true, number of frames, messages and bytes sent will be collected for each epoch.
+         * PLEASE NOTE: bytes are measured by serializing every Frame, so this option has its own cost.
+         *
+         * @param reallyCollect
+         * @return
+         */
+        public Builder<T> collectTransportStats(boolean reallyCollect) {
+            this.collectTransportStats = reallyCollect;
+            return this;
+        }
+
         public SparkSequenceVectors<T> build() {
             if (modelExporter == null)
                 throw new IllegalStateException("ModelExporter is undefined!");
@@ -528,6 +609,10 @@ public class SparkSequenceVectors<T extends SequenceElement> extends SequenceVec
             seqVec.paramServerConfiguration = peersConfiguration;
             seqVec.storageLevel = storageLevel;
             seqVec.workers = workers;
+            seqVec.transport = transport;
+            seqVec.sequencesPerFrame = sequencesPerFrame;
+            seqVec.sendQueueSize = sendQueueSize;
+            seqVec.collectTransportStats = collectTransportStats;
 
             return seqVec;
         }
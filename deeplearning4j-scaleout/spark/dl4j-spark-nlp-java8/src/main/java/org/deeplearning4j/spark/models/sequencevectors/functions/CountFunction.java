@@ -11,11 +11,11 @@ import org.deeplearning4j.models.embeddings.loader.VectorsConfiguration;
 import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.deeplearning4j.spark.models.sequencevectors.learning.SparkElementsLearningAlgorithm;
-import org.nd4j.parameterserver.distributed.VoidParameterServer;
+import org.deeplearning4j.spark.models.sequencevectors.transport.RoutedSequenceVectorsTransport;
+import org.deeplearning4j.spark.models.sequencevectors.transport.SequenceVectorsTransport;
 import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
 import org.nd4j.parameterserver.distributed.messages.TrainingMessage;
 import org.nd4j.parameterserver.distributed.training.TrainingDriver;
-import org.nd4j.parameterserver.distributed.transport.RoutedTransport;
 
 /**
  * This accumulator function does count individual elements, using provided Accumulator
@@ -28,6 +28,7 @@ public class CountFunction<T extends SequenceElement> implements Function<Sequen
     protected boolean fetchLabels;
     protected Broadcast<VoidConfiguration> voidConfigurationBroadcast;
     protected Broadcast<VectorsConfiguration> vectorsConfigurationBroadcast;
+    protected SequenceVectorsTransport transport;
 
     protected transient SparkElementsLearningAlgorithm ela;
     protected transient TrainingDriver<? extends TrainingMessage> driver;
@@ -35,10 +36,19 @@ public class CountFunction<T extends SequenceElement> implements Function<Sequen
     public CountFunction(@NonNull Broadcast<VectorsConfiguration> vectorsConfigurationBroadcast,
                     @NonNull Broadcast<VoidConfiguration> voidConfigurationBroadcast,
                     @NonNull Accumulator<Counter<Long>> accumulator, boolean fetchLabels) {
+        this(vectorsConfigurationBroadcast, voidConfigurationBroadcast, accumulator, fetchLabels,
+                        new RoutedSequenceVectorsTransport());
+    }
+
+    public CountFunction(@NonNull Broadcast<VectorsConfiguration> vectorsConfigurationBroadcast,
+                    @NonNull Broadcast<VoidConfiguration> voidConfigurationBroadcast,
+                    @NonNull Accumulator<Counter<Long>> accumulator, boolean fetchLabels,
+                    @NonNull SequenceVectorsTransport transport) {
         this.accumulator = accumulator;
         this.fetchLabels = fetchLabels;
         this.voidConfigurationBroadcast = voidConfigurationBroadcast;
         this.vectorsConfigurationBroadcast = vectorsConfigurationBroadcast;
+        this.transport = transport;
     }
 
     @Override
@@ -60,7 +70,7 @@ public class CountFunction<T extends SequenceElement> implements Function<Sequen
         driver = ela.getTrainingDriver();
 
         //System.out.println("Initializing VoidParameterServer in CountFunction");
-        VoidParameterServer.getInstance().init(voidConfigurationBroadcast.getValue(), new RoutedTransport(), driver);
+        transport.init(voidConfigurationBroadcast.getValue(), driver);
 
         for (T element : sequence.getElements()) {
             if (element == null)
@@ -1,6 +1,7 @@
 package org.deeplearning4j.spark.models.sequencevectors.functions;
 
 import lombok.NonNull;
+import org.apache.spark.Accumulator;
 import org.apache.spark.api.java.function.VoidFunction;
 import org.apache.spark.broadcast.Broadcast;
 import org.deeplearning4j.models.embeddings.learning.ElementsLearningAlgorithm;
@@ -12,6 +13,10 @@ import org.deeplearning4j.models.sequencevectors.sequence.ShallowSequenceElement
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.deeplearning4j.spark.models.sequencevectors.learning.SparkElementsLearningAlgorithm;
 import org.deeplearning4j.spark.models.sequencevectors.learning.SparkSequenceLearningAlgorithm;
+import org.deeplearning4j.spark.models.sequencevectors.transport.FrameSender;
+import org.deeplearning4j.spark.models.sequencevectors.transport.RoutedSequenceVectorsTransport;
+import org.deeplearning4j.spark.models.sequencevectors.transport.SequenceVectorsTransport;
+import org.deeplearning4j.spark.models.sequencevectors.transport.TransportStats;
 import org.nd4j.linalg.exception.ND4JIllegalStateException;
 import org.nd4j.parameterserver.distributed.VoidParameterServer;
 import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
@@ -19,7 +24,6 @@ import org.nd4j.parameterserver.distributed.logic.sequence.BasicSequenceProvider
 import org.nd4j.parameterserver.distributed.messages.Frame;
 import org.nd4j.parameterserver.distributed.messages.TrainingMessage;
 import org.nd4j.parameterserver.distributed.training.TrainingDriver;
-import org.nd4j.parameterserver.distributed.transport.RoutedTransport;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -27,13 +31,23 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * This function trains over partition of Sequences: messages for a number of sequences are stacked into single Frame,
+ * and Frames are sent to shards via {@link FrameSender}, optionally pipelined with building of next Frame.
+ *
  * @author raver119@gmail.com
  */
 public class PartitionTrainingFunction<T extends SequenceElement> implements VoidFunction<Iterator<Sequence<T>>> {
+    public static final int DEFAULT_SEQUENCES_PER_FRAME = 8;
+
     protected Broadcast<VocabCache<ShallowSequenceElement>> vocabCacheBroadcast;
     protected Broadcast<VectorsConfiguration> configurationBroadcast;
     protected Broadcast<VoidConfiguration> paramServerConfigurationBroadcast;
 
+    protected SequenceVectorsTransport transport;
+    protected int sequencesPerFrame;
+    protected int sendQueueSize;
+    protected Accumulator<TransportStats> statsAccumulator;
+
     protected transient VoidParameterServer paramServer;
     protected transient VectorsConfiguration vectorsConfiguration;
 
@@ -46,9 +60,35 @@ public class PartitionTrainingFunction<T extends SequenceElement> implements Voi
     public PartitionTrainingFunction(@NonNull Broadcast<VocabCache<ShallowSequenceElement>> vocabCacheBroadcast,
                     @NonNull Broadcast<VectorsConfiguration> vectorsConfigurationBroadcast,
                     @NonNull Broadcast<VoidConfiguration> paramServerConfigurationBroadcast) {
+        this(vocabCacheBroadcast, vectorsConfigurationBroadcast, paramServerConfigurationBroadcast,
+                        new RoutedSequenceVectorsTransport(), DEFAULT_SEQUENCES_PER_FRAME, 0, null);
+    }
+
+    /**
+     *
+     * @param vocabCacheBroadcast
+     * @param vectorsConfigurationBroadcast
+     * @param paramServerConfigurationBroadcast
+     * @param transport Transport used to exchange messages with shards
+     * @param sequencesPerFrame Number of sequences, whose messages are stacked into single Frame
+     * @param sendQueueSize Number of Frames that might be queued for sending. 0 means synchronous sending
+     * @param statsAccumulator Accumulator for transport statistics. If null, no statistics will be collected
+     */
+    public PartitionTrainingFunction(@NonNull Broadcast<VocabCache<ShallowSequenceElement>> vocabCacheBroadcast,
+                    @NonNull Broadcast<VectorsConfiguration> vectorsConfigurationBroadcast,
+                    @NonNull Broadcast<VoidConfiguration> paramServerConfigurationBroadcast,
+                    @NonNull SequenceVectorsTransport transport, int sequencesPerFrame, int sendQueueSize,
+                    Accumulator<TransportStats> statsAccumulator) {
+        if (sequencesPerFrame < 1)
+            throw new IllegalArgumentException("sequencesPerFrame should be positive value, got " + sequencesPerFrame);
+
         this.vocabCacheBroadcast = vocabCacheBroadcast;
         this.configurationBroadcast = vectorsConfigurationBroadcast;
         this.paramServerConfigurationBroadcast = paramServerConfigurationBroadcast;
+        this.transport = transport;
+        this.sequencesPerFrame = sequencesPerFrame;
+        this.sendQueueSize = sendQueueSize;
+        this.statsAccumulator = statsAccumulator;
     }
 
     @SuppressWarnings("unchecked")
@@ -75,7 +115,7 @@ public class PartitionTrainingFunction<T extends SequenceElement> implements Voi
             driver = elementsLearningAlgorithm.getTrainingDriver();
 
             // FIXME: init line should probably be removed, basically init happens in VocabRddFunction
-            paramServer.init(paramServerConfigurationBroadcast.getValue(), new RoutedTransport(), driver);
+            transport.init(paramServerConfigurationBroadcast.getValue(), driver);
         }
 
         if (shallowVocabCache == null)
@@ -113,46 +153,60 @@ public class PartitionTrainingFunction<T extends SequenceElement> implements Voi
 
 
         List<Sequence<ShallowSequenceElement>> sequences = new ArrayList<>();
+        FrameSender sender = new FrameSender(transport, sendQueueSize, statsAccumulator != null);
 
-        // now we roll throw Sequences and prepare/convert/"learn" them
-        while (sequenceIterator.hasNext()) {
-            Sequence<T> sequence = sequenceIterator.next();
+        try {
+            // now we roll throw Sequences and prepare/convert/"learn" them
+            while (sequenceIterator.hasNext()) {
+                Sequence<T> sequence = sequenceIterator.next();
 
-            Sequence<ShallowSequenceElement> mergedSequence = new Sequence<>();
-            for (T element : sequence.getElements()) {
-                // it's possible to get null here, i.e. if frequency for this element is below minWordFrequency threshold
-                ShallowSequenceElement reduced = shallowVocabCache.tokenFor(element.getStorageId());
+                Sequence<ShallowSequenceElement> mergedSequence = new Sequence<>();
+                for (T element : sequence.getElements()) {
+                    // it's possible to get null here, i.e. if frequency for this element is below minWordFrequency threshold
+                    ShallowSequenceElement reduced = shallowVocabCache.tokenFor(element.getStorageId());
 
-                if (reduced != null)
-                    mergedSequence.addElement(reduced);
-            }
+                    if (reduced != null)
+                        mergedSequence.addElement(reduced);
+                }
 
-            // do the same with labels, transfer them, if any
-            if (sequenceLearningAlgorithm != null && vectorsConfiguration.isTrainSequenceVectors()) {
-                for (T label : sequence.getSequenceLabels()) {
-                    ShallowSequenceElement reduced = shallowVocabCache.tokenFor(label.getStorageId());
+                // do the same with labels, transfer them, if any
+                if (sequenceLearningAlgorithm != null && vectorsConfiguration.isTrainSequenceVectors()) {
+                    for (T label : sequence.getSequenceLabels()) {
+                        ShallowSequenceElement reduced = shallowVocabCache.tokenFor(label.getStorageId());
 
-                    if (reduced != null)
-                        mergedSequence.addSequenceLabel(reduced);
+                        if (reduced != null)
+                            mergedSequence.addSequenceLabel(reduced);
+                    }
+                }
+
+                sequences.add(mergedSequence);
+                if (sequences.size() >= sequencesPerFrame) {
+                    trainAllAtOnce(sequences, sender);
+                    sequences.clear();
                 }
             }
 
-            sequences.add(mergedSequence);
-            if (sequences.size() >= 8) {
-                trainAllAtOnce(sequences);
+            if (sequences.size() > 0) {
+                // finishing training round, to make sure we don't have trails
+                trainAllAtOnce(sequences, sender);
                 sequences.clear();
             }
+        } catch (Exception e) {
+            // don't wait for queued Frames, and don't let sender errors mask the original exception
+            sender.abort();
+            throw e;
         }
 
-        if (sequences.size() > 0) {
-            // finishing training round, to make sure we don't have trails
-            trainAllAtOnce(sequences);
-            sequences.clear();
-        }
+        // wait for queued Frames, so partition isn't reported as finished before its messages were sent
+        sender.close();
+
+        if (statsAccumulator != null)
+            statsAccumulator.add(sender.getStats());
     }
 
 
-    protected void trainAllAtOnce(List<Sequence<ShallowSequenceElement>> sequences) {
+    protected void trainAllAtOnce(List<Sequence<ShallowSequenceElement>> sequences, FrameSender sender)
+                    throws Exception {
         Frame bigFrame = new Frame(BasicSequenceProvider.getInstance().getNextValue());
 
         for (Sequence<ShallowSequenceElement> sequence : sequences) {
@@ -161,6 +215,6 @@ public class PartitionTrainingFunction<T extends SequenceElement> implements Voi
         }
 
         if (bigFrame.size() > 0)
-            paramServer.execDistributed(bigFrame);
+            sender.send(bigFrame);
     }
 }
@@ -13,12 +13,13 @@ import org.deeplearning4j.models.sequencevectors.sequence.ShallowSequenceElement
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.deeplearning4j.spark.models.sequencevectors.learning.SparkElementsLearningAlgorithm;
 import org.deeplearning4j.spark.models.sequencevectors.learning.SparkSequenceLearningAlgorithm;
+import org.deeplearning4j.spark.models.sequencevectors.transport.RoutedSequenceVectorsTransport;
+import org.deeplearning4j.spark.models.sequencevectors.transport.SequenceVectorsTransport;
 import org.nd4j.linalg.exception.ND4JIllegalStateException;
 import org.nd4j.parameterserver.distributed.VoidParameterServer;
 import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
 import org.nd4j.parameterserver.distributed.messages.TrainingMessage;
 import org.nd4j.parameterserver.distributed.training.TrainingDriver;
-import org.nd4j.parameterserver.distributed.transport.RoutedTransport;
 
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -32,6 +33,7 @@ public class TrainingFunction<T extends SequenceElement> implements VoidFunction
     protected Broadcast<VocabCache<ShallowSequenceElement>> vocabCacheBroadcast;
     protected Broadcast<VectorsConfiguration> configurationBroadcast;
     protected Broadcast<VoidConfiguration> paramServerConfigurationBroadcast;
+    protected SequenceVectorsTransport transport;
 
     protected transient VoidParameterServer paramServer;
     protected transient VectorsConfiguration vectorsConfiguration;
@@ -45,9 +47,18 @@ public class TrainingFunction<T extends SequenceElement> implements VoidFunction
     public TrainingFunction(@NonNull Broadcast<VocabCache<ShallowSequenceElement>> vocabCacheBroadcast,
                     @NonNull Broadcast<VectorsConfiguration> vectorsConfigurationBroadcast,
                     @NonNull Broadcast<VoidConfiguration> paramServerConfigurationBroadcast) {
+        this(vocabCacheBroadcast, vectorsConfigurationBroadcast, paramServerConfigurationBroadcast,
+                        new RoutedSequenceVectorsTransport());
+    }
+
+    public TrainingFunction(@NonNull Broadcast<VocabCache<ShallowSequenceElement>> vocabCacheBroadcast,
+                    @NonNull Broadcast<VectorsConfiguration> vectorsConfigurationBroadcast,
+                    @NonNull Broadcast<VoidConfiguration> paramServerConfigurationBroadcast,
+                    @NonNull SequenceVectorsTransport transport) {
         this.vocabCacheBroadcast = vocabCacheBroadcast;
         this.configurationBroadcast = vectorsConfigurationBroadcast;
         this.paramServerConfigurationBroadcast = paramServerConfigurationBroadcast;
+        this.transport = transport;
     }
 
     @Override
@@ -74,7 +85,7 @@ public class TrainingFunction<T extends SequenceElement> implements VoidFunction
             driver = elementsLearningAlgorithm.getTrainingDriver();
 
             // FIXME: init line should probably be removed, basically init happens in VocabRddFunction
-            paramServer.init(paramServerConfigurationBroadcast.getValue(), new RoutedTransport(), driver);
+            transport.init(paramServerConfigurationBroadcast.getValue(), driver);
         }
 
         if (vectorsConfiguration == null)
@@ -142,8 +153,7 @@ public class TrainingFunction<T extends SequenceElement> implements VoidFunction
          */
         // FIXME: temporary hook
         if (sequence.size() > 0)
-            paramServer.execDistributed(
-                            elementsLearningAlgorithm.frameSequence(mergedSequence, new AtomicLong(119), 25e-3));
+            transport.send(elementsLearningAlgorithm.frameSequence(mergedSequence, new AtomicLong(119), 25e-3));
         else
             log.warn("Skipping empty sequence...");
 
@@ -8,11 +8,11 @@ import org.deeplearning4j.models.embeddings.loader.VectorsConfiguration;
 import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.deeplearning4j.spark.models.sequencevectors.learning.SparkElementsLearningAlgorithm;
-import org.nd4j.parameterserver.distributed.VoidParameterServer;
+import org.deeplearning4j.spark.models.sequencevectors.transport.RoutedSequenceVectorsTransport;
+import org.deeplearning4j.spark.models.sequencevectors.transport.SequenceVectorsTransport;
 import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
 import org.nd4j.parameterserver.distributed.messages.TrainingMessage;
 import org.nd4j.parameterserver.distributed.training.TrainingDriver;
-import org.nd4j.parameterserver.distributed.transport.RoutedTransport;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -24,7 +24,14 @@ import java.util.List;
 public class VocabRddFunctionFlat<T extends SequenceElement> extends BaseFlatMapFunctionAdaptee<Sequence<T>, T> {
     public VocabRddFunctionFlat(@NonNull Broadcast<VectorsConfiguration> vectorsConfigurationBroadcast,
                     @NonNull Broadcast<VoidConfiguration> paramServerConfigurationBroadcast) {
-        super(new VocabRddFunctionAdapter<T>(vectorsConfigurationBroadcast, paramServerConfigurationBroadcast));
+        this(vectorsConfigurationBroadcast, paramServerConfigurationBroadcast, new RoutedSequenceVectorsTransport());
+    }
+
+    public VocabRddFunctionFlat(@NonNull Broadcast<VectorsConfiguration> vectorsConfigurationBroadcast,
+                    @NonNull Broadcast<VoidConfiguration> paramServerConfigurationBroadcast,
+                    @NonNull SequenceVectorsTransport transport) {
+        super(new VocabRddFunctionAdapter<T>(vectorsConfigurationBroadcast, paramServerConfigurationBroadcast,
+                        transport));
     }
 
 
@@ -32,15 +39,18 @@ public class VocabRddFunctionFlat<T extends SequenceElement> extends BaseFlatMap
                     implements FlatMapFunctionAdapter<Sequence<T>, T> {
         protected Broadcast<VectorsConfiguration> vectorsConfigurationBroadcast;
         protected Broadcast<VoidConfiguration> paramServerConfigurationBroadcast;
+        protected SequenceVectorsTransport transport;
 
         protected transient VectorsConfiguration configuration;
         protected transient SparkElementsLearningAlgorithm ela;
         protected transient TrainingDriver<? extends TrainingMessage> driver;
 
         public VocabRddFunctionAdapter(@NonNull Broadcast<VectorsConfiguration> vectorsConfigurationBroadcast,
-                        @NonNull Broadcast<VoidConfiguration> paramServerConfigurationBroadcast) {
+                        @NonNull Broadcast<VoidConfiguration> paramServerConfigurationBroadcast,
+                        @NonNull SequenceVectorsTransport transport) {
             this.vectorsConfigurationBroadcast = vectorsConfigurationBroadcast;
             this.paramServerConfigurationBroadcast = paramServerConfigurationBroadcast;
+            this.transport = transport;
         }
 
         @Override
@@ -59,8 +69,7 @@ public class VocabRddFunctionFlat<T extends SequenceElement> extends BaseFlatMap
             driver = ela.getTrainingDriver();
 
             // we just silently initialize server
-            VoidParameterServer.getInstance().init(paramServerConfigurationBroadcast.getValue(), new RoutedTransport(),
-                            driver);
+            transport.init(paramServerConfigurationBroadcast.getValue(), driver);
 
             // TODO: call for initializeSeqVec here
 
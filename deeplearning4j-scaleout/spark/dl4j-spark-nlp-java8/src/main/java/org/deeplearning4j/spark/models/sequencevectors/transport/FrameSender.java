@@ -0,0 +1,177 @@
+package org.deeplearning4j.spark.models.sequencevectors.transport;
+
+import lombok.NonNull;
+import org.nd4j.parameterserver.distributed.messages.Frame;
+import org.nd4j.parameterserver.distributed.messages.TrainingMessage;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class sends Frames via given {@link SequenceVectorsTransport}, optionally in pipelined fashion.
+ *
+ * With queueSize > 0, Frames are handed over to background thread through bounded queue, so the caller can build the
+ * next Frame while the previous one is being sent. Caller blocks only if queue is full. With queueSize == 0 Frames are
+ * sent synchronously, within caller thread.
+ *
+ * Any exception thrown by transport is rethrown on next send() call, or on close().
+ */
+public class FrameSender implements AutoCloseable {
+    private static final long POLL_MS = 100;
+
+    private final SequenceVectorsTransport transport;
+    private final boolean collectStats;
+    private final BlockingQueue<Frame<? extends TrainingMessage>> queue;
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final Thread senderThread;
+    private volatile boolean finished = false;
+
+    private final TransportStats stats = new TransportStats();
+
+    /**
+     * @param transport    Transport to be used for sending Frames
+     * @param queueSize    Maximum number of Frames waiting to be sent. 0 means synchronous sending
+     * @param collectStats If true, serialized size of each Frame will be measured
+     */
+    public FrameSender(@NonNull SequenceVectorsTransport transport, int queueSize, boolean collectStats) {
+        if (queueSize < 0)
+            throw new IllegalArgumentException("Queue size should be non-negative value, got " + queueSize);
+
+        this.transport = transport;
+        this.collectStats = collectStats;
+
+        if (queueSize > 0) {
+            queue = new ArrayBlockingQueue<>(queueSize);
+            senderThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            Frame<? extends TrainingMessage> frame = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                            if (frame != null)
+                                doSend(frame);
+                            else if (finished)
+                                break;
+                        }
+                    } catch (Throwable t) {
+                        error.compareAndSet(null, t);
+                    }
+                }
+            });
+            senderThread.setDaemon(true);
+            senderThread.setName("FrameSender-" + senderThread.getId());
+            senderThread.start();
+        } else {
+            queue = null;
+            senderThread = null;
+        }
+    }
+
+    /**
+     * This method sends Frame, or enqueues it for sending
+     *
+     * @param frame
+     */
+    public void send(@NonNull Frame<? extends TrainingMessage> frame) throws IOException, InterruptedException {
+        checkError();
+
+        if (frame.size() == 0)
+            return;
+
+        if (queue == null) {
+            doSend(frame);
+            return;
+        }
+
+        // don't block forever if sender thread has failed
+        while (!queue.offer(frame, POLL_MS, TimeUnit.MILLISECONDS))
+            checkError();
+    }
+
+    /**
+     * This method blocks until all enqueued Frames are sent, and stops background thread
+     */
+    @Override
+    public void close() throws InterruptedException {
+        finished = true;
+        if (senderThread != null)
+            senderThread.join();
+
+        checkError();
+    }
+
+    /**
+     * This method discards enqueued Frames and stops background thread. Unlike close(), exceptions from background
+     * thread are not rethrown, so this method should be used when the caller is failing already.
+     */
+    public void abort() {
+        finished = true;
+        if (queue != null)
+            queue.clear();
+
+        if (senderThread != null) {
+            try {
+                senderThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return statistics for Frames sent so far. Should be called after close()
+     */
+    public TransportStats getStats() {
+        return stats;
+    }
+
+    protected void doSend(Frame<? extends TrainingMessage> frame) throws IOException {
+        long bytes = collectStats ? serializedSize(frame) : 0;
+
+        long time = System.currentTimeMillis();
+        transport.send(frame);
+        time = System.currentTimeMillis() - time;
+
+        // only one thread ever calls this method
+        stats.setNumFrames(stats.getNumFrames() + 1);
+        stats.setNumMessages(stats.getNumMessages() + frame.size());
+        stats.setNumBytes(stats.getNumBytes() + bytes);
+        stats.setSendTimeMs(stats.getSendTimeMs() + time);
+    }
+
+    protected void checkError() {
+        Throwable t = error.get();
+        if (t != null)
+            throw new RuntimeException("Exception in FrameSender thread", t);
+    }
+
+    /**
+     * This method returns size of Java-serialized object, used as estimate for number of bytes sent over the wire
+     */
+    protected static long serializedSize(Object object) throws IOException {
+        CountingOutputStream cos = new CountingOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(cos)) {
+            oos.writeObject(object);
+        }
+        return cos.count;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
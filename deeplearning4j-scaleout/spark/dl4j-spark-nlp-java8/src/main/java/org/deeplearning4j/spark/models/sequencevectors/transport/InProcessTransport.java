@@ -0,0 +1,20 @@
+package org.deeplearning4j.spark.models.sequencevectors.transport;
+
+import lombok.NonNull;
+import org.nd4j.parameterserver.distributed.messages.VoidMessage;
+import org.nd4j.parameterserver.distributed.transport.RoutedTransport;
+
+/**
+ * Transport for single JVM, which is both the only shard and the only client: every message sent is put directly
+ * into this node's incoming message queue, without serialization or network round trip.
+ *
+ * Messages that require response (i.e. sendMessageAndGetResponse()) are still handled by {@link RoutedTransport}, over
+ * loopback interface.
+ */
+public class InProcessTransport extends RoutedTransport {
+
+    @Override
+    public void sendMessage(@NonNull VoidMessage message) {
+        putMessage(message);
+    }
+}
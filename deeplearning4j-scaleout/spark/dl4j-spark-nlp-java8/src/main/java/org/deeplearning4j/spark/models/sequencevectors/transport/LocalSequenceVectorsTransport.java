@@ -0,0 +1,41 @@
+package org.deeplearning4j.spark.models.sequencevectors.transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.deeplearning4j.exception.DL4JInvalidConfigException;
+import org.deeplearning4j.spark.models.sequencevectors.primitives.NetworkInformation;
+import org.nd4j.parameterserver.distributed.VoidParameterServer;
+import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
+import org.nd4j.parameterserver.distributed.messages.TrainingMessage;
+import org.nd4j.parameterserver.distributed.training.TrainingDriver;
+
+import java.util.Set;
+
+/**
+ * Transport for Spark local mode (i.e. local[*]), where all tasks run within driver JVM.
+ *
+ * Discovered hosts and shard addresses are ignored: single shard is always started within driver JVM, and fault
+ * tolerance is disabled. VoidParameterServer is initialized with {@link InProcessTransport}, so messages are delivered
+ * through in-memory queue instead of network stack. Combined with training statistics, this gives reproducible numbers
+ * for messages and bytes exchanged per epoch, without any cluster involved.
+ */
+@Slf4j
+public class LocalSequenceVectorsTransport extends RoutedSequenceVectorsTransport {
+
+    @Override
+    public void configure(JavaSparkContext sc, VoidConfiguration configuration,
+                    Set<NetworkInformation> availableHosts) {
+        if (!sc.isLocal())
+            throw new DL4JInvalidConfigException("LocalSequenceVectorsTransport can be used with Spark local mode only, "
+                            + "but master is [" + sc.master() + "]");
+
+        configureLoopback(configuration);
+
+        log.info("Using in-process shard at {}", configuration.getShardAddresses());
+    }
+
+    @Override
+    public void init(VoidConfiguration configuration, TrainingDriver<? extends TrainingMessage> driver) {
+        VoidParameterServer.getInstance().init(configuration, new InProcessTransport(), driver);
+    }
+}
@@ -0,0 +1,69 @@
+package org.deeplearning4j.spark.models.sequencevectors.transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.deeplearning4j.spark.models.sequencevectors.primitives.NetworkInformation;
+import org.deeplearning4j.spark.models.sequencevectors.utils.NetworkOrganizer;
+import org.nd4j.parameterserver.distributed.VoidParameterServer;
+import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
+import org.nd4j.parameterserver.distributed.enums.FaultToleranceStrategy;
+import org.nd4j.parameterserver.distributed.messages.Frame;
+import org.nd4j.parameterserver.distributed.messages.TrainingMessage;
+import org.nd4j.parameterserver.distributed.training.TrainingDriver;
+import org.nd4j.parameterserver.distributed.transport.RoutedTransport;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Default transport: shards are picked out of discovered hosts, and messages are routed over the network via
+ * {@link RoutedTransport}
+ */
+@Slf4j
+public class RoutedSequenceVectorsTransport implements SequenceVectorsTransport {
+
+    @Override
+    public void configure(JavaSparkContext sc, VoidConfiguration configuration,
+                    Set<NetworkInformation> availableHosts) {
+        // shard addresses were provided by user, nothing to do here
+        if (availableHosts == null)
+            return;
+
+        log.info("availableHosts: {}", availableHosts);
+        if (availableHosts.size() > 1) {
+            // now we have to pick N shards and optionally N backup nodes, and pass them within configuration bean
+            NetworkOrganizer organizer = new NetworkOrganizer(availableHosts, configuration.getNetworkMask());
+
+            configuration.setShardAddresses(organizer.getSubset(configuration.getNumberOfShards()));
+
+            // backup shards are optional
+            if (configuration.getFaultToleranceStrategy() != FaultToleranceStrategy.NONE) {
+                configuration.setBackupAddresses(organizer.getSubset(configuration.getNumberOfShards(),
+                                configuration.getShardAddresses()));
+            }
+        } else {
+            // for single host (aka driver-only, aka spark-local) just run on loopback interface
+            configureLoopback(configuration);
+        }
+    }
+
+    /**
+     * This method configures single shard on loopback interface, without fault tolerance
+     *
+     * @param configuration VoidConfiguration to be updated
+     */
+    protected void configureLoopback(VoidConfiguration configuration) {
+        configuration.setShardAddresses(Arrays.asList("127.0.0.1:" + configuration.getUnicastPort()));
+        configuration.setFaultToleranceStrategy(FaultToleranceStrategy.NONE);
+    }
+
+    @Override
+    public void init(VoidConfiguration configuration, TrainingDriver<? extends TrainingMessage> driver) {
+        VoidParameterServer.getInstance().init(configuration, new RoutedTransport(), driver);
+    }
+
+    @Override
+    public void send(Frame<? extends TrainingMessage> frame) {
+        VoidParameterServer.getInstance().execDistributed(frame);
+    }
+}
@@ -0,0 +1,44 @@
+package org.deeplearning4j.spark.models.sequencevectors.transport;
+
+import org.apache.spark.api.java.JavaSparkContext;
+import org.deeplearning4j.spark.models.sequencevectors.primitives.NetworkInformation;
+import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
+import org.nd4j.parameterserver.distributed.messages.Frame;
+import org.nd4j.parameterserver.distributed.messages.TrainingMessage;
+import org.nd4j.parameterserver.distributed.training.TrainingDriver;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * This interface describes how SparkSequenceVectors exchanges training messages with parameter server shards.
+ *
+ * Instances are serialized together with Spark functions, so they should be stateless/lightweight.
+ */
+public interface SequenceVectorsTransport extends Serializable {
+
+    /**
+     * This method is called on driver, before broadcasting VoidConfiguration. Implementations should pick shards (and
+     * optionally backup shards) here.
+     *
+     * @param sc Spark context used for training
+     * @param configuration VoidConfiguration to be updated
+     * @param availableHosts Hosts found during auto discovery, or null if shard addresses were set explicitly
+     */
+    void configure(JavaSparkContext sc, VoidConfiguration configuration, Set<NetworkInformation> availableHosts);
+
+    /**
+     * This method initializes VoidParameterServer within current JVM. It's safe to call it multiple times.
+     *
+     * @param configuration
+     * @param driver
+     */
+    void init(VoidConfiguration configuration, TrainingDriver<? extends TrainingMessage> driver);
+
+    /**
+     * This method sends given Frame to shards, and returns once Frame is handed over
+     *
+     * @param frame
+     */
+    void send(Frame<? extends TrainingMessage> frame);
+}
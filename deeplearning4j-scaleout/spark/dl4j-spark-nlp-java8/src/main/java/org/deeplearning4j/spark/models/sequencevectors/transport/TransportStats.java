@@ -0,0 +1,59 @@
+package org.deeplearning4j.spark.models.sequencevectors.transport;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Statistics for messages exchanged with parameter server shards: number of Frames and TrainingMessages sent, their
+ * serialized size, and time spent within transport.
+ *
+ * Values are summed over all partitions via {@link TransportStatsAccumulator}; epochTimeMs is set on driver.
+ */
+@Data
+@NoArgsConstructor
+public class TransportStats implements Serializable {
+    private long numFrames;
+    private long numMessages;
+    private long numBytes;
+    private long sendTimeMs;
+    private long epochTimeMs;
+
+    public TransportStats(long numFrames, long numMessages, long numBytes, long sendTimeMs) {
+        this.numFrames = numFrames;
+        this.numMessages = numMessages;
+        this.numBytes = numBytes;
+        this.sendTimeMs = sendTimeMs;
+    }
+
+    /**
+     * This method adds values from other TransportStats to this one
+     *
+     * @param other
+     */
+    public void add(TransportStats other) {
+        if (other == null)
+            return;
+
+        numFrames += other.numFrames;
+        numMessages += other.numMessages;
+        numBytes += other.numBytes;
+        sendTimeMs += other.sendTimeMs;
+        epochTimeMs += other.epochTimeMs;
+    }
+
+    /**
+     * @return number of messages sent per second of epoch time, or 0 if epoch time is unknown
+     */
+    public double getMessagesPerSecond() {
+        return epochTimeMs > 0 ? numMessages * 1000.0 / epochTimeMs : 0.0;
+    }
+
+    /**
+     * @return number of serialized bytes sent per second of epoch time, or 0 if epoch time is unknown
+     */
+    public double getBytesPerSecond() {
+        return epochTimeMs > 0 ? numBytes * 1000.0 / epochTimeMs : 0.0;
+    }
+}
@@ -0,0 +1,28 @@
+package org.deeplearning4j.spark.models.sequencevectors.transport;
+
+import org.apache.spark.AccumulatorParam;
+
+/**
+ * Accumulator for {@link TransportStats}
+ */
+public class TransportStatsAccumulator implements AccumulatorParam<TransportStats> {
+    @Override
+    public TransportStats addAccumulator(TransportStats s1, TransportStats s2) {
+        if (s1 == null) {
+            return new TransportStats();
+        }
+        addInPlace(s1, s2);
+        return s1;
+    }
+
+    @Override
+    public TransportStats addInPlace(TransportStats r1, TransportStats r2) {
+        r1.add(r2);
+        return r1;
+    }
+
+    @Override
+    public TransportStats zero(TransportStats initialValue) {
+        return new TransportStats();
+    }
+}
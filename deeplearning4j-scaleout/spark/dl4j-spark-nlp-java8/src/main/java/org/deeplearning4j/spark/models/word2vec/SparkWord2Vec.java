@@ -17,6 +17,7 @@ import org.deeplearning4j.spark.models.sequencevectors.export.SparkModelExporter
 import org.deeplearning4j.spark.models.sequencevectors.functions.TokenizerFunction;
 import org.deeplearning4j.spark.models.sequencevectors.learning.SparkElementsLearningAlgorithm;
 import org.deeplearning4j.spark.models.sequencevectors.learning.SparkSequenceLearningAlgorithm;
+import org.deeplearning4j.spark.models.sequencevectors.transport.SequenceVectorsTransport;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
 import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
@@ -152,6 +153,30 @@ public class SparkWord2Vec extends SparkSequenceVectors<VocabWord> {
             return this;
         }
 
+        @Override
+        public Builder transport(@NonNull SequenceVectorsTransport transport) {
+            super.transport(transport);
+            return this;
+        }
+
+        @Override
+        public Builder sequencesPerFrame(int num) {
+            super.sequencesPerFrame(num);
+            return this;
+        }
+
+        @Override
+        public Builder sendQueueSize(int num) {
+            super.sendQueueSize(num);
+            return this;
+        }
+
+        @Override
+        public Builder collectTransportStats(boolean reallyCollect) {
+            super.collectTransportStats(reallyCollect);
+            return this;
+        }
+
         @Override
         public Builder setStorageLevel(StorageLevel level) {
             super.setStorageLevel(level);
@@ -227,6 +252,10 @@ public class SparkWord2Vec extends SparkSequenceVectors<VocabWord> {
             sw2v.exporter = this.modelExporter;
             sw2v.storageLevel = this.storageLevel;
             sw2v.workers = this.workers;
+            sw2v.transport = this.transport;
+            sw2v.sequencesPerFrame = this.sequencesPerFrame;
+            sw2v.sendQueueSize = this.sendQueueSize;
+            sw2v.collectTransportStats = this.collectTransportStats;
 
             return sw2v;
         }
@@ -0,0 +1,149 @@
+package org.deeplearning4j.spark.models.sequencevectors.transport;
+
+import org.apache.spark.api.java.JavaSparkContext;
+import org.deeplearning4j.spark.models.sequencevectors.primitives.NetworkInformation;
+import org.junit.Test;
+import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
+import org.nd4j.parameterserver.distributed.messages.Frame;
+import org.nd4j.parameterserver.distributed.messages.TrainingMessage;
+import org.nd4j.parameterserver.distributed.messages.requests.SkipGramRequestMessage;
+import org.nd4j.parameterserver.distributed.training.TrainingDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class FrameSenderTest {
+
+    private static Frame<SkipGramRequestMessage> getFrame(long id, int numMessages) {
+        Frame<SkipGramRequestMessage> frame = new Frame<>(id);
+        for (int i = 0; i < numMessages; i++)
+            frame.stackMessage(new SkipGramRequestMessage(i, i + 1, new int[] {i}, new byte[] {1}, (short) 0, 0.025,
+                            119L));
+        return frame;
+    }
+
+    @Test
+    public void testSynchronousAndPipelined() throws Exception {
+        for (int queueSize : new int[] {0, 1, 4}) {
+            RecordingTransport transport = new RecordingTransport(queueSize > 0 ? 5 : 0, false);
+            FrameSender sender = new FrameSender(transport, queueSize, true);
+
+            List<Frame<SkipGramRequestMessage>> sent = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                sent.add(getFrame(i, 3));
+                sender.send(sent.get(i));
+            }
+
+            // empty frames are never sent
+            sender.send(getFrame(100, 0));
+            sender.close();
+
+            assertEquals(10, transport.frames.size());
+            // frames should be sent in original order
+            for (int i = 0; i < 10; i++)
+                assertSame(sent.get(i), transport.frames.get(i));
+
+            TransportStats stats = sender.getStats();
+            assertEquals(10, stats.getNumFrames());
+            assertEquals(30, stats.getNumMessages());
+            assertTrue(stats.getNumBytes() > 0);
+        }
+    }
+
+    @Test
+    public void testStatsDisabled() throws Exception {
+        FrameSender sender = new FrameSender(new RecordingTransport(0, false), 2, false);
+        sender.send(getFrame(1, 3));
+        sender.close();
+
+        assertEquals(1, sender.getStats().getNumFrames());
+        assertEquals(3, sender.getStats().getNumMessages());
+        assertEquals(0, sender.getStats().getNumBytes());
+    }
+
+    @Test
+    public void testErrorIsRethrown() throws Exception {
+        FrameSender sender = new FrameSender(new RecordingTransport(0, true), 2, false);
+        try {
+            for (int i = 0; i < 10; i++)
+                sender.send(getFrame(i, 1));
+            sender.close();
+            fail("Expected exception");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testAbort() throws Exception {
+        // abort() shouldn't wait for queued frames, and shouldn't rethrow transport exceptions
+        RecordingTransport transport = new RecordingTransport(50, false);
+        FrameSender sender = new FrameSender(transport, 4, false);
+        for (int i = 0; i < 5; i++)
+            sender.send(getFrame(i, 1));
+        sender.abort();
+        assertTrue(transport.frames.size() < 5);
+
+        FrameSender failing = new FrameSender(new RecordingTransport(0, true), 2, false);
+        failing.send(getFrame(1, 1));
+        failing.abort();
+    }
+
+    @Test
+    public void testStatsAccumulator() {
+        TransportStatsAccumulator accumulator = new TransportStatsAccumulator();
+        TransportStats stats = accumulator.zero(null);
+        accumulator.addInPlace(stats, new TransportStats(2, 10, 1000, 5));
+        accumulator.addInPlace(stats, new TransportStats(3, 20, 2000, 7));
+        stats.setEpochTimeMs(1000);
+
+        assertEquals(5, stats.getNumFrames());
+        assertEquals(30, stats.getNumMessages());
+        assertEquals(3000, stats.getNumBytes());
+        assertEquals(12, stats.getSendTimeMs());
+        assertEquals(30.0, stats.getMessagesPerSecond(), 1e-6);
+        assertEquals(3000.0, stats.getBytesPerSecond(), 1e-6);
+    }
+
+    private static class RecordingTransport implements SequenceVectorsTransport {
+        private final long delayMs;
+        private final boolean fail;
+        private final List<Frame<? extends TrainingMessage>> frames =
+                        Collections.synchronizedList(new ArrayList<Frame<? extends TrainingMessage>>());
+
+        private RecordingTransport(long delayMs, boolean fail) {
+            this.delayMs = delayMs;
+            this.fail = fail;
+        }
+
+        @Override
+        public void configure(JavaSparkContext sc, VoidConfiguration configuration,
+                        Set<NetworkInformation> availableHosts) {
+            // no-op
+        }
+
+        @Override
+        public void init(VoidConfiguration configuration, TrainingDriver<? extends TrainingMessage> driver) {
+            // no-op
+        }
+
+        @Override
+        public void send(Frame<? extends TrainingMessage> frame) {
+            if (fail)
+                throw new IllegalStateException("Transport failure");
+
+            if (delayMs > 0) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            frames.add(frame);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import org.apache.spark.api.java.function.Function;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import scala.Tuple2;
+
+/**
+ * Converts the sum of the syn0 vectors for a word (see {@link Syn0SumFunction}) to their average
+ */
+public class Syn0AverageFunction implements Function<Tuple2<INDArray, Integer>, Tuple2<INDArray, Integer>> {
+
+    @Override
+    public Tuple2<INDArray, Integer> call(Tuple2<INDArray, Integer> sumAndCount) {
+        if (sumAndCount._2() > 1)
+            sumAndCount._1().divi(sumAndCount._2());
+        return sumAndCount;
+    }
+}
@@ -0,0 +1,35 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import org.apache.spark.api.java.function.Function;
+import org.apache.spark.broadcast.Broadcast;
+import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import scala.Tuple2;
+
+/**
+ * Converts a syn0 row (word index, (vector, count)) to a line of text in the format used by
+ * {@link WordVectorSerializer}: the Base64 encoded word, followed by the vector values, separated by spaces.
+ * Used to write syn0 shards directly from the executors.
+ */
+public class Syn0ShardToStringFunction implements Function<Tuple2<Integer, Tuple2<INDArray, Integer>>, String> {
+
+    private final Broadcast<VocabCache<VocabWord>> vocabCacheBroadcast;
+
+    public Syn0ShardToStringFunction(Broadcast<VocabCache<VocabWord>> vocabCacheBroadcast) {
+        this.vocabCacheBroadcast = vocabCacheBroadcast;
+    }
+
+    @Override
+    public String call(Tuple2<Integer, Tuple2<INDArray, Integer>> row) {
+        VocabWord word = vocabCacheBroadcast.getValue().elementAtIndex(row._1());
+        StringBuilder sb = new StringBuilder();
+        sb.append(WordVectorSerializer.encodeB64(word.getLabel()));
+        INDArray vec = row._2()._1();
+        for (int i = 0; i < vec.length(); i++) {
+            sb.append(" ").append(vec.getDouble(i));
+        }
+        return sb.toString();
+    }
+}
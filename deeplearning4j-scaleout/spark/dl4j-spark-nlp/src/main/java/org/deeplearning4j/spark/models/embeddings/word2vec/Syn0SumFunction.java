@@ -0,0 +1,17 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import org.apache.spark.api.java.function.Function2;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import scala.Tuple2;
+
+/**
+ * Sums syn0 vectors (and the number of vectors) for the same word. The first vector is modified in place.
+ */
+public class Syn0SumFunction
+                implements Function2<Tuple2<INDArray, Integer>, Tuple2<INDArray, Integer>, Tuple2<INDArray, Integer>> {
+
+    @Override
+    public Tuple2<INDArray, Integer> call(Tuple2<INDArray, Integer> v1, Tuple2<INDArray, Integer> v2) {
+        return new Tuple2<>(v1._1().addi(v2._1()), v1._2() + v2._2());
+    }
+}
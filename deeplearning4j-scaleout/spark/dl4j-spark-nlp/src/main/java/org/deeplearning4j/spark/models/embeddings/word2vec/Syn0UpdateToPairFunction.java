@@ -0,0 +1,21 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import org.apache.spark.api.java.function.PairFunction;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import scala.Tuple2;
+
+import java.util.Map;
+
+/**
+ * Maps each syn0 vector from a partition to (word index, (vector, 1)), for summing and averaging the vectors by word
+ * index with {@link Syn0SumFunction} and {@link Syn0AverageFunction}
+ */
+public class Syn0UpdateToPairFunction
+                implements PairFunction<Map.Entry<VocabWord, INDArray>, Integer, Tuple2<INDArray, Integer>> {
+
+    @Override
+    public Tuple2<Integer, Tuple2<INDArray, Integer>> call(Map.Entry<VocabWord, INDArray> entry) {
+        return new Tuple2<>(entry.getKey().getIndex(), new Tuple2<>(entry.getValue(), 1));
+    }
+}
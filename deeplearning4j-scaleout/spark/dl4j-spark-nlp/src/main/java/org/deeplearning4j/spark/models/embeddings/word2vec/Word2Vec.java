@@ -26,6 +26,7 @@ import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.storage.StorageLevel;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.embeddings.loader.VectorsConfiguration;
@@ -43,10 +44,12 @@ import org.nd4j.linalg.heartbeat.reports.Event;
 import org.nd4j.linalg.heartbeat.utils.EnvironmentUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.Tuple2;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -75,6 +78,12 @@ public class Word2Vec extends WordVectorsImpl<VocabWord> implements Serializable
     private boolean removeStop = false;
     private long seed = 42L;
     private boolean useUnknown = false;
+    private int syn0AveragingPartitions = 0;
+    private String syn0ShardsOutputPath = null;
+
+    /** Training throughput of the last call to {@link #train(JavaRDD)}, in words per second (times iterations) */
+    @Getter
+    private double wordsPerSecond;
 
     // Constructor to take InMemoryLookupCache table from an already trained model
     protected Word2Vec(INDArray trainedSyn1) {
@@ -206,6 +215,51 @@ public class Word2Vec extends WordVectorsImpl<VocabWord> implements Serializable
         log.info("Training word2vec sentences ...");
         FlatMapFunction firstIterFunc =
                         new FirstIterationFunction(word2vecVarMapBroadcast, expTableBroadcast, vocabCacheBroadcast);
+        long trainingStart = System.currentTimeMillis();
+        INDArray syn0;
+        if (syn0AveragingPartitions > 0) {
+            Pair<INDArray, Integer> syn0AndMaxRep = trainExecutorAveraging(firstIterFunc,
+                            vocabWordListSentenceCumSumRDD, vocabCacheBroadcast, vocabCache.numWords());
+            syn0 = syn0AndMaxRep.getFirst();
+            maxRep = syn0AndMaxRep.getSecond();
+        } else {
+            syn0 = Nd4j.zeros(vocabCache.numWords(), layerSize);
+            maxRep = trainOnDriver(firstIterFunc, vocabWordListSentenceCumSumRDD, syn0);
+        }
+
+        long trainingTime = Math.max(1, System.currentTimeMillis() - trainingStart);
+        long wordsTrained = pipeline.getTotalWordCount() * numIterations;
+        wordsPerSecond = wordsTrained * 1000.0 / trainingTime;
+        log.info("Trained {} words in {} ms: {} words/sec, with {} executors and {} partitions", wordsTrained,
+                        trainingTime, String.format("%.1f", wordsPerSecond),
+                        sc.sc().getExecutorMemoryStatus().size(), vocabWordListSentenceCumSumRDD.partitions().size());
+
+        long totals = 0;
+
+        log.info("Finished calculations...");
+
+
+        vocab = vocabCache;
+        InMemoryLookupTable<VocabWord> inMemoryLookupTable = new InMemoryLookupTable<VocabWord>();
+        Environment env = EnvironmentUtils.buildEnvironment();
+        env.setNumCores(maxRep);
+        env.setAvailableMemory(totals);
+        update(env, Event.SPARK);
+        inMemoryLookupTable.setVocab(vocabCache);
+        inMemoryLookupTable.setVectorLength(layerSize);
+        inMemoryLookupTable.setSyn0(syn0);
+        lookupTable = inMemoryLookupTable;
+        modelUtils.init(lookupTable);
+    }
+
+    /**
+     * Train, collecting all syn0 vectors from all partitions to the driver, and averaging them there
+     *
+     * @return Maximum number of vectors averaged for a single word
+     */
+    private int trainOnDriver(FlatMapFunction firstIterFunc,
+                    JavaPairRDD<List<VocabWord>, Long> vocabWordListSentenceCumSumRDD, INDArray syn0) {
+        int maxRep = 1;
         @SuppressWarnings("unchecked")
         JavaRDD<Pair<VocabWord, INDArray>> indexSyn0UpdateEntryRDD =
                         vocabWordListSentenceCumSumRDD.mapPartitions(firstIterFunc).map(new MapToPairFunction());
@@ -213,9 +267,6 @@ public class Word2Vec extends WordVectorsImpl<VocabWord> implements Serializable
         // Get all the syn0 updates into a list in driver
         List<Pair<VocabWord, INDArray>> syn0UpdateEntries = indexSyn0UpdateEntryRDD.collect();
 
-        // Instantiate syn0
-        INDArray syn0 = Nd4j.zeros(vocabCache.numWords(), layerSize);
-
         // Updating syn0 first pass: just add vectors obtained from different nodes
         log.info("Averaging results...");
         Map<VocabWord, AtomicInteger> updates = new HashMap<>();
@@ -242,23 +293,53 @@ public class Word2Vec extends WordVectorsImpl<VocabWord> implements Serializable
                 syn0.getRow(entry.getKey().getIndex()).divi(entry.getValue().get());
             }
         }
+        return maxRep;
+    }
 
-        long totals = 0;
-
-        log.info("Finished calculations...");
-
+    /**
+     * Train, summing and averaging the syn0 vectors from all partitions on the executors (with reduceByKey, by word
+     * index range: see {@link WordIndexRangePartitioner}) instead of collecting them all to the driver. Each shard is
+     * optionally written directly to {@link Builder#syn0ShardsOutputPath(String)}.<br>
+     * Only the final averaging step differs from {@link #trainOnDriver(FlatMapFunction, JavaPairRDD, INDArray)}:
+     * training itself is the same (each partition trains its own copy of syn0 and syn1Neg, and no vectors are
+     * exchanged during training), and the full averaged syn0 is still allocated and assembled on the driver, one
+     * shard at a time, to build the model. This is not a sharded parameter exchange.
+     *
+     * @return Final syn0, and maximum number of vectors averaged for a single word
+     */
+    private Pair<INDArray, Integer> trainExecutorAveraging(FlatMapFunction firstIterFunc,
+                    JavaPairRDD<List<VocabWord>, Long> vocabWordListSentenceCumSumRDD,
+                    Broadcast<VocabCache<VocabWord>> vocabCacheBroadcast, int numWords) {
+        log.info("Averaging syn0 on executors, in {} shards", syn0AveragingPartitions);
+        @SuppressWarnings("unchecked")
+        JavaRDD<Map.Entry<VocabWord, INDArray>> indexSyn0UpdateEntryRDD =
+                        vocabWordListSentenceCumSumRDD.mapPartitions(firstIterFunc);
+
+        JavaPairRDD<Integer, Tuple2<INDArray, Integer>> syn0Shards = indexSyn0UpdateEntryRDD
+                        .mapToPair(new Syn0UpdateToPairFunction())
+                        .reduceByKey(new WordIndexRangePartitioner(numWords, syn0AveragingPartitions),
+                                        new Syn0SumFunction())
+                        .mapValues(new Syn0AverageFunction()).setName("syn0Shards");
+        syn0Shards.persist(StorageLevel.MEMORY_AND_DISK());
+
+        try {
+            if (syn0ShardsOutputPath != null) {
+                log.info("Writing syn0 shards to {}", syn0ShardsOutputPath);
+                syn0Shards.map(new Syn0ShardToStringFunction(vocabCacheBroadcast)).saveAsTextFile(syn0ShardsOutputPath);
+            }
 
-        vocab = vocabCache;
-        InMemoryLookupTable<VocabWord> inMemoryLookupTable = new InMemoryLookupTable<VocabWord>();
-        Environment env = EnvironmentUtils.buildEnvironment();
-        env.setNumCores(maxRep);
-        env.setAvailableMemory(totals);
-        update(env, Event.SPARK);
-        inMemoryLookupTable.setVocab(vocabCache);
-        inMemoryLookupTable.setVectorLength(layerSize);
-        inMemoryLookupTable.setSyn0(syn0);
-        lookupTable = inMemoryLookupTable;
-        modelUtils.init(lookupTable);
+            INDArray syn0 = Nd4j.zeros(numWords, layerSize);
+            int maxRep = 1;
+            Iterator<Tuple2<Integer, Tuple2<INDArray, Integer>>> iter = syn0Shards.toLocalIterator();
+            while (iter.hasNext()) {
+                Tuple2<Integer, Tuple2<INDArray, Integer>> row = iter.next();
+                syn0.getRow(row._1()).assign(row._2()._1());
+                maxRep = Math.max(maxRep, row._2()._2());
+            }
+            return new Pair<>(syn0, maxRep);
+        } finally {
+            syn0Shards.unpersist();
+        }
     }
 
 
@@ -284,6 +365,8 @@ public class Word2Vec extends WordVectorsImpl<VocabWord> implements Serializable
         private String tokenizer = "";
         private String tokenPreprocessor = "";
         private int workers = 0;
+        private int syn0AveragingPartitions = 0;
+        private String syn0ShardsOutputPath = null;
 
         /**
          * Creates Builder instance with default parameters set.
@@ -551,6 +634,41 @@ public class Word2Vec extends WordVectorsImpl<VocabWord> implements Serializable
             return this;
         }
 
+        /**
+         * Average the syn0 vectors from all partitions on the executors instead of on the driver. The vectors are
+         * grouped by word index range into the specified number of partitions for the averaging, so the driver no
+         * longer needs to collect all vectors from all partitions: it only gathers the averaged syn0, one shard at a
+         * time. Training itself is unchanged: each partition trains its own copy of the vectors, and syn1Neg is not
+         * averaged or exchanged.
+         *
+         * Default: 0 (average on the driver)
+         *
+         * @param syn0AveragingPartitions Number of partitions (word index ranges) to average syn0 in. Usually the
+         *                                number of executors (or a multiple of it)
+         * @return
+         */
+        public Builder syn0AveragingPartitions(int syn0AveragingPartitions) {
+            if (syn0AveragingPartitions < 0)
+                throw new IllegalArgumentException(
+                                "Invalid number of syn0 averaging partitions: " + syn0AveragingPartitions
+                                                + " (must be >= 0)");
+            this.syn0AveragingPartitions = syn0AveragingPartitions;
+            return this;
+        }
+
+        /**
+         * If set (and {@link #syn0AveragingPartitions(int)} is used), each averaged syn0 shard is written directly from
+         * the executors to this path, as text (one word per line, in the WordVectorSerializer text format), in addition
+         * to being gathered to the driver
+         *
+         * @param syn0ShardsOutputPath Output directory for the syn0 shards (for example, on HDFS)
+         * @return
+         */
+        public Builder syn0ShardsOutputPath(String syn0ShardsOutputPath) {
+            this.syn0ShardsOutputPath = syn0ShardsOutputPath;
+            return this;
+        }
+
         public Word2Vec build() {
             Word2Vec ret = new Word2Vec();
 
@@ -570,6 +688,8 @@ public class Word2Vec extends WordVectorsImpl<VocabWord> implements Serializable
 
             ret.workers = this.workers;
             ret.nGrams = this.nGrams;
+            ret.syn0AveragingPartitions = this.syn0AveragingPartitions;
+            ret.syn0ShardsOutputPath = this.syn0ShardsOutputPath;
 
             ret.configuration = this.configuration;
 
@@ -0,0 +1,53 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import org.apache.spark.Partitioner;
+
+/**
+ * Partitioner for integer word index keys, that assigns a contiguous range of word indices to each partition:
+ * partition i holds the words with index in [i * numWords / numPartitions, (i+1) * numWords / numPartitions).<br>
+ * Used to average syn0 by word index range on the executors in {@link Word2Vec}.
+ */
+public class WordIndexRangePartitioner extends Partitioner {
+
+    private final int numWords;
+    private final int numPartitions;
+
+    /**
+     * @param numWords      Number of words in the vocabulary (word indices are 0 to numWords-1)
+     * @param numPartitions Number of partitions (shards)
+     */
+    public WordIndexRangePartitioner(int numWords, int numPartitions) {
+        if (numWords <= 0)
+            throw new IllegalArgumentException("Invalid number of words: " + numWords + " (must be >= 1)");
+        if (numPartitions <= 0)
+            throw new IllegalArgumentException("Invalid number of partitions: " + numPartitions + " (must be >= 1)");
+        this.numWords = numWords;
+        this.numPartitions = numPartitions;
+    }
+
+    @Override
+    public int numPartitions() {
+        return numPartitions;
+    }
+
+    @Override
+    public int getPartition(Object key) {
+        int idx = (Integer) key;
+        if (idx < 0 || idx >= numWords)
+            throw new IllegalArgumentException("Invalid word index: " + idx + " (vocabulary size: " + numWords + ")");
+        return (int) ((long) idx * numPartitions / numWords);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof WordIndexRangePartitioner))
+            return false;
+        WordIndexRangePartitioner p = (WordIndexRangePartitioner) o;
+        return numWords == p.numWords && numPartitions == p.numPartitions;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * numWords + numPartitions;
+    }
+}
@@ -0,0 +1,99 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import org.apache.spark.SparkConf;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.deeplearning4j.spark.text.BaseSparkTest;
+import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.CommonPreprocessor;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Word2VecPartitionedTest extends BaseSparkTest {
+
+    private static final String[] WORDS = {"day", "night", "week", "year", "one", "two", "three", "four", "five",
+                    "it", "was", "is", "a", "the", "good", "long", "short", "time"};
+
+    private JavaRDD<String> getCorpus() {
+        return getCorpus(sc, 200, 4);
+    }
+
+    private static JavaRDD<String> getCorpus(JavaSparkContext sc, int numSentences, int numPartitions) {
+        Random r = new Random(12345);
+        List<String> sentences = new ArrayList<>();
+        for (int i = 0; i < numSentences; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 5 + r.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                if (j > 0)
+                    sb.append(" ");
+                sb.append(WORDS[r.nextInt(WORDS.length)]);
+            }
+            sentences.add(sb.toString());
+        }
+        return sc.parallelize(sentences, numPartitions);
+    }
+
+    private static Word2Vec getWord2Vec(int syn0AveragingPartitions) {
+        TokenizerFactory t = new DefaultTokenizerFactory();
+        t.setTokenPreProcessor(new CommonPreprocessor());
+        return new Word2Vec.Builder().setNGrams(1).tokenizerFactory(t).seed(42L).negative(5).useAdaGrad(false)
+                        .layerSize(10).windowSize(3).learningRate(0.025).minLearningRate(0.0001).iterations(1)
+                        .batchSize(100).minWordFrequency(1).syn0AveragingPartitions(syn0AveragingPartitions)
+                        .build();
+    }
+
+    @Test
+    public void testExecutorAveragingMatchesDriver() throws Exception {
+        //Averaging on the executors should give the same vectors as averaging on the driver (up to the order of the
+        // floating point additions)
+        JavaRDD<String> corpus = getCorpus();
+
+        Word2Vec driver = getWord2Vec(0);
+        driver.train(corpus);
+
+        Word2Vec partitioned = getWord2Vec(3);
+        partitioned.train(corpus);
+
+        assertEquals(driver.vocab().numWords(), partitioned.vocab().numWords());
+        for (String word : driver.vocab().words()) {
+            INDArray expected = driver.getWordVectorMatrix(word);
+            INDArray actual = partitioned.getWordVectorMatrix(word);
+            double diff = expected.sub(actual).norm1Number().doubleValue();
+            assertTrue(word + ": " + expected + " vs. " + actual, diff < 1e-4);
+        }
+        assertTrue(partitioned.getWordsPerSecond() > 0);
+    }
+
+    @Test
+    @Ignore //Benchmark: should be run manually
+    public void testWordsPerSecond() throws Exception {
+        //Training throughput with averaging on the driver vs. on the executors, for 1, 2 and 4 executor threads
+        sc.close();
+        for (int numExecutors : new int[] {1, 2, 4}) {
+            sc = new JavaSparkContext(new SparkConf().setMaster("local[" + numExecutors + "]")
+                            .setAppName("sparktest").set(Word2VecVariables.NUM_WORDS, String.valueOf(1)));
+            JavaRDD<String> corpus = getCorpus(sc, 20000, numExecutors).cache();
+            corpus.count();
+            for (int syn0AveragingPartitions : new int[] {0, numExecutors}) {
+                Word2Vec w2v = getWord2Vec(syn0AveragingPartitions);
+                w2v.train(corpus);
+                System.out.println(String.format("%d executors, %s: %.0f words/sec", numExecutors,
+                                (syn0AveragingPartitions == 0 ? "driver averaging" : "executor averaging"),
+                                w2v.getWordsPerSecond()));
+            }
+            corpus.unpersist();
+            if (numExecutors < 4)
+                sc.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.deeplearning4j.spark.models.embeddings.word2vec;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import scala.Tuple2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WordIndexRangePartitionerTest {
+
+    @Test
+    public void testContiguousRanges() {
+        int numWords = 103;
+        int numPartitions = 4;
+        WordIndexRangePartitioner p = new WordIndexRangePartitioner(numWords, numPartitions);
+
+        int[] counts = new int[numPartitions];
+        int last = 0;
+        for (int i = 0; i < numWords; i++) {
+            int partition = p.getPartition(i);
+            assertTrue(partition >= last);
+            assertTrue(partition < numPartitions);
+            counts[partition]++;
+            last = partition;
+        }
+        for (int c : counts) {
+            assertTrue(c == numWords / numPartitions || c == numWords / numPartitions + 1);
+        }
+
+        //More partitions than words: still valid
+        WordIndexRangePartitioner p2 = new WordIndexRangePartitioner(3, 10);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(p2.getPartition(i) < 10);
+        }
+    }
+
+    @Test
+    public void testSumAndAverage() throws Exception {
+        INDArray a = Nd4j.create(new double[] {1, 2, 3});
+        INDArray b = Nd4j.create(new double[] {3, 4, 5});
+        INDArray c = Nd4j.create(new double[] {2, 0, 1});
+
+        Syn0SumFunction sum = new Syn0SumFunction();
+        Tuple2<INDArray, Integer> s = sum.call(sum.call(new Tuple2<>(a, 1), new Tuple2<>(b, 1)), new Tuple2<>(c, 1));
+        assertEquals(3, (int) s._2());
+
+        Tuple2<INDArray, Integer> avg = new Syn0AverageFunction().call(s);
+        assertEquals(Nd4j.create(new double[] {2, 2, 3}), avg._1());
+    }
+}
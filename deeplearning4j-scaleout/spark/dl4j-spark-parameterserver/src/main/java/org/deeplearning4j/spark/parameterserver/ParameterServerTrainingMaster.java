@@ -0,0 +1,685 @@
+package org.deeplearning4j.spark.parameterserver;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.SparkContext;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.input.PortableDataStream;
+import org.deeplearning4j.api.storage.Persistable;
+import org.deeplearning4j.api.storage.StatsStorageRouter;
+import org.deeplearning4j.api.storage.StatsStorageRouterProvider;
+import org.deeplearning4j.api.storage.StorageMetaData;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.optimize.api.IterationListener;
+import org.deeplearning4j.spark.api.Repartition;
+import org.deeplearning4j.spark.api.RepartitionStrategy;
+import org.deeplearning4j.spark.api.TrainingHook;
+import org.deeplearning4j.spark.api.TrainingMaster;
+import org.deeplearning4j.spark.api.WorkerConfiguration;
+import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.api.worker.*;
+import org.deeplearning4j.spark.impl.graph.SparkComputationGraph;
+import org.deeplearning4j.spark.impl.graph.dataset.DataSetToMultiDataSetFn;
+import org.deeplearning4j.spark.impl.listeners.VanillaStatsStorageRouterProvider;
+import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.deeplearning4j.spark.parameterserver.server.ShardedParameterServer;
+import org.deeplearning4j.spark.parameterserver.transport.InProcessTransportProvider;
+import org.deeplearning4j.spark.parameterserver.transport.ParameterServerTransportProvider;
+import org.deeplearning4j.spark.util.SparkUtils;
+import org.deeplearning4j.util.UIDProvider;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.shade.jackson.annotation.JsonAutoDetect;
+import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
+import org.nd4j.shade.jackson.annotation.JsonTypeInfo;
+import org.nd4j.shade.jackson.annotation.PropertyAccessor;
+import org.nd4j.shade.jackson.core.JsonFactory;
+import org.nd4j.shade.jackson.core.JsonProcessingException;
+import org.nd4j.shade.jackson.databind.DeserializationFeature;
+import org.nd4j.shade.jackson.databind.MapperFeature;
+import org.nd4j.shade.jackson.databind.ObjectMapper;
+import org.nd4j.shade.jackson.databind.SerializationFeature;
+import org.nd4j.shade.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ParameterServerTrainingMaster: A {@link TrainingMaster} implementation for asynchronous training on Spark, using a
+ * sharded parameter server.
+ * <p>
+ * Unlike {@link org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingMaster}, there are no averaging rounds
+ * (and hence no barriers) during training: the data is split between the workers once, and each worker trains on its
+ * partition in a single task, pushing threshold encoded updates to the parameter server after each minibatch and pulling
+ * parameter shards from the server when they become stale (see {@link ParameterServerTrainingWorker}). Consequently,
+ * fast workers are not held up by slow ones (until the end of the fit call).<br>
+ * The updater state (for example, momentum or Adam moment estimates) is broadcast to the workers with the network
+ * configuration; at the end of the fit call, the updater states of the workers are averaged.
+ * <p>
+ * The parameter server is started on the driver for each fit call, and is accessed via a
+ * {@link ParameterServerTransportProvider}. The default ({@link InProcessTransportProvider}) requires the workers to run
+ * in the same JVM as the driver: i.e., Spark local mode.
+ */
+@Data
+@JsonIgnoreProperties({"stats", "listeners", "statsStorage", "trainingMasterUID", "sessionCount", "sessionId",
+                "configurationBroadcast"})
+@EqualsAndHashCode(exclude = {"stats", "listeners", "statsStorage", "trainingMasterUID", "sessionCount", "sessionId",
+                "configurationBroadcast"})
+@Slf4j
+public class ParameterServerTrainingMaster
+                implements TrainingMaster<ParameterServerTrainingResult, ParameterServerTrainingWorker> {
+
+    private static ObjectMapper jsonMapper;
+    private static ObjectMapper yamlMapper;
+
+    private Integer numWorkers;
+    private int rddDataSetNumExamples;
+    private int batchSizePerWorker;
+    private int prefetchNumBatches;
+    private int numShards;
+    private double updateThreshold;
+    private int maxStaleness;
+    private Repartition repartition;
+    private RepartitionStrategy repartitionStrategy;
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.PROPERTY, property = "@class")
+    private ParameterServerTransportProvider transportProvider;
+    private boolean collectTrainingStats;
+    private SparkTrainingStats stats;
+
+    private Collection<TrainingHook> trainingHookList;
+    private final String trainingMasterUID;
+    private int sessionCount;
+    private String sessionId;
+    private Broadcast<NetBroadcastTuple> configurationBroadcast;
+
+    //Listeners etc
+    private Collection<IterationListener> listeners;
+    private StatsStorageRouter statsStorage;
+
+    private ParameterServerTrainingMaster() {
+        // no-arg constructor for Jackson
+
+        String jvmuid = UIDProvider.getJVMUID();
+        this.trainingMasterUID =
+                        System.currentTimeMillis() + "_" + (jvmuid.length() <= 8 ? jvmuid : jvmuid.substring(0, 8));
+    }
+
+    private ParameterServerTrainingMaster(Builder builder) {
+        this.numWorkers = builder.numWorkers;
+        this.rddDataSetNumExamples = builder.rddDataSetNumExamples;
+        this.batchSizePerWorker = builder.batchSizePerWorker;
+        this.prefetchNumBatches = builder.prefetchNumBatches;
+        this.numShards = builder.numShards;
+        this.updateThreshold = builder.updateThreshold;
+        this.maxStaleness = builder.maxStaleness;
+        this.repartition = builder.repartition;
+        this.repartitionStrategy = builder.repartitionStrategy;
+        this.transportProvider = builder.transportProvider;
+        this.collectTrainingStats = builder.collectTrainingStats;
+        this.trainingHookList = builder.trainingHooks;
+
+        String jvmuid = UIDProvider.getJVMUID();
+        this.trainingMasterUID =
+                        System.currentTimeMillis() + "_" + (jvmuid.length() <= 8 ? jvmuid : jvmuid.substring(0, 8));
+    }
+
+    private static synchronized ObjectMapper getJsonMapper() {
+        if (jsonMapper == null) {
+            jsonMapper = getNewMapper(new JsonFactory());
+        }
+        return jsonMapper;
+    }
+
+    private static synchronized ObjectMapper getYamlMapper() {
+        if (yamlMapper == null) {
+            yamlMapper = getNewMapper(new YAMLFactory());
+        }
+        return yamlMapper;
+    }
+
+    private static ObjectMapper getNewMapper(JsonFactory jsonFactory) {
+        ObjectMapper om = new ObjectMapper(jsonFactory);
+        om.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        om.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        om.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+        om.enable(SerializationFeature.INDENT_OUTPUT);
+        om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        om.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return om;
+    }
+
+    @Override
+    public void removeHook(TrainingHook trainingHook) {
+        if (trainingHookList == null)
+            return;
+        trainingHookList.remove(trainingHook);
+    }
+
+    @Override
+    public void addHook(TrainingHook trainingHook) {
+        if (trainingHookList == null) {
+            trainingHookList = new ArrayList<>();
+        }
+        trainingHookList.add(trainingHook);
+    }
+
+    @Override
+    public String toJson() {
+        ObjectMapper om = getJsonMapper();
+
+        try {
+            return om.writeValueAsString(this);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error producing JSON representation for ParameterServerTrainingMaster", e);
+        }
+    }
+
+    @Override
+    public String toYaml() {
+        ObjectMapper om = getYamlMapper();
+
+        try {
+            return om.writeValueAsString(this);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error producing YAML representation for ParameterServerTrainingMaster", e);
+        }
+    }
+
+    /**
+     * Create a ParameterServerTrainingMaster instance by deserializing a JSON string that has been serialized with
+     * {@link #toJson()}
+     *
+     * @param jsonStr ParameterServerTrainingMaster configuration serialized as JSON
+     */
+    public static ParameterServerTrainingMaster fromJson(String jsonStr) {
+        ObjectMapper om = getJsonMapper();
+        try {
+            return om.readValue(jsonStr, ParameterServerTrainingMaster.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not parse JSON", e);
+        }
+    }
+
+    /**
+     * Create a ParameterServerTrainingMaster instance by deserializing a YAML string that has been serialized with
+     * {@link #toYaml()}
+     *
+     * @param yamlStr ParameterServerTrainingMaster configuration serialized as YAML
+     */
+    public static ParameterServerTrainingMaster fromYaml(String yamlStr) {
+        ObjectMapper om = getYamlMapper();
+        try {
+            return om.readValue(yamlStr, ParameterServerTrainingMaster.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not parse YAML", e);
+        }
+    }
+
+    /**
+     * Get a worker for the current training session. Note that the parameter server for the session must already have
+     * been started: i.e., this can only be used during one of the executeTraining methods.
+     */
+    @Override
+    public ParameterServerTrainingWorker getWorkerInstance(SparkDl4jMultiLayer network) {
+        assertSessionStarted();
+        WorkerConfiguration configuration = new WorkerConfiguration(false, rddDataSetNumExamples, batchSizePerWorker,
+                        0, prefetchNumBatches, collectTrainingStats);
+        return new ParameterServerTrainingWorker(configurationBroadcast, transportProvider, sessionId,
+                        updateThreshold, maxStaleness, configuration, trainingHookList, listeners,
+                        getRouterProvider());
+    }
+
+    /**
+     * Get a worker for the current training session. Note that the parameter server for the session must already have
+     * been started: i.e., this can only be used during one of the executeTraining methods.
+     */
+    @Override
+    public ParameterServerTrainingWorker getWorkerInstance(SparkComputationGraph graph) {
+        assertSessionStarted();
+        WorkerConfiguration configuration = new WorkerConfiguration(true, rddDataSetNumExamples, batchSizePerWorker,
+                        0, prefetchNumBatches, collectTrainingStats);
+        return new ParameterServerTrainingWorker(configurationBroadcast, transportProvider, sessionId,
+                        updateThreshold, maxStaleness, configuration, trainingHookList, listeners,
+                        getRouterProvider());
+    }
+
+    private void assertSessionStarted() {
+        if (sessionId == null)
+            throw new IllegalStateException("Parameter server has not been started: workers can only be created "
+                            + "during training");
+    }
+
+    @Override
+    public void executeTraining(SparkDl4jMultiLayer network, JavaRDD<DataSet> trainingData) {
+        startSession(network, null);
+        try {
+            JavaRDD<DataSet> data = repartition(trainingData);
+            processResults(network, null, data.mapPartitions(new ExecuteWorkerFlatMap<>(getWorkerInstance(network))));
+        } finally {
+            endSession();
+        }
+    }
+
+    @Override
+    public void executeTraining(SparkDl4jMultiLayer network, JavaPairRDD<String, PortableDataStream> trainingData) {
+        startSession(network, null);
+        try {
+            JavaRDD<PortableDataStream> data = repartition(trainingData.values());
+            processResults(network, null,
+                            data.mapPartitions(new ExecuteWorkerPDSFlatMap<>(getWorkerInstance(network))));
+        } finally {
+            endSession();
+        }
+    }
+
+    @Override
+    public void executeTrainingPaths(SparkDl4jMultiLayer network, JavaRDD<String> trainingDataPaths) {
+        startSession(network, null);
+        try {
+            JavaRDD<String> data = repartition(trainingDataPaths);
+            processResults(network, null,
+                            data.mapPartitions(new ExecuteWorkerPathFlatMap<>(getWorkerInstance(network))));
+        } finally {
+            endSession();
+        }
+    }
+
+    @Override
+    public void executeTraining(SparkComputationGraph graph, JavaRDD<DataSet> trainingData) {
+        executeTrainingMDS(graph, trainingData.map(new DataSetToMultiDataSetFn()));
+    }
+
+    @Override
+    public void executeTraining(SparkComputationGraph graph, JavaPairRDD<String, PortableDataStream> trainingData) {
+        startSession(null, graph);
+        try {
+            JavaRDD<PortableDataStream> data = repartition(trainingData.values());
+            processResults(null, graph, data.mapPartitions(new ExecuteWorkerPDSFlatMap<>(getWorkerInstance(graph))));
+        } finally {
+            endSession();
+        }
+    }
+
+    @Override
+    public void executeTrainingPaths(SparkComputationGraph graph, JavaRDD<String> trainingDataPaths) {
+        startSession(null, graph);
+        try {
+            JavaRDD<String> data = repartition(trainingDataPaths);
+            processResults(null, graph, data.mapPartitions(new ExecuteWorkerPathFlatMap<>(getWorkerInstance(graph))));
+        } finally {
+            endSession();
+        }
+    }
+
+    @Override
+    public void executeTrainingPathsMDS(SparkComputationGraph graph, JavaRDD<String> trainingMultiDataSetPaths) {
+        startSession(null, graph);
+        try {
+            JavaRDD<String> data = repartition(trainingMultiDataSetPaths);
+            processResults(null, graph,
+                            data.mapPartitions(new ExecuteWorkerPathMDSFlatMap<>(getWorkerInstance(graph))));
+        } finally {
+            endSession();
+        }
+    }
+
+    @Override
+    public void executeTrainingMDS(SparkComputationGraph graph, JavaRDD<MultiDataSet> trainingData) {
+        startSession(null, graph);
+        try {
+            JavaRDD<MultiDataSet> data = repartition(trainingData);
+            processResults(null, graph,
+                            data.mapPartitions(new ExecuteWorkerMultiDataSetFlatMap<>(getWorkerInstance(graph))));
+        } finally {
+            endSession();
+        }
+    }
+
+    @Override
+    public void executeTrainingMDS(SparkComputationGraph graph, JavaPairRDD<String, PortableDataStream> trainingData) {
+        startSession(null, graph);
+        try {
+            JavaRDD<PortableDataStream> data = repartition(trainingData.values());
+            processResults(null, graph,
+                            data.mapPartitions(new ExecuteWorkerPDSMDSFlatMap<>(getWorkerInstance(graph))));
+        } finally {
+            endSession();
+        }
+    }
+
+    /**
+     * Start the parameter server for a fit call, and broadcast the network configuration and updater state
+     */
+    private void startSession(SparkDl4jMultiLayer network, SparkComputationGraph graph) {
+        JavaSparkContext sc;
+        NetBroadcastTuple tuple;
+        INDArray params;
+        if (network != null) {
+            sc = network.getSparkContext();
+            params = network.getNetwork().params();
+            tuple = new NetBroadcastTuple(network.getNetwork().getLayerWiseConfigurations(), null,
+                            network.getNetwork().getUpdater().getStateViewArray());
+        } else {
+            sc = graph.getSparkContext();
+            params = graph.getNetwork().params();
+            tuple = new NetBroadcastTuple(graph.getNetwork().getConfiguration(), null,
+                            graph.getNetwork().getUpdater().getStateViewArray());
+        }
+        if (numWorkers == null)
+            numWorkers = sc.defaultParallelism();
+
+        sessionId = trainingMasterUID + "_" + (sessionCount++);
+        transportProvider.startServer(sessionId, params, numShards);
+        configurationBroadcast = sc.broadcast(tuple);
+        log.info("Started parameter server for session {}: {} shards, {} workers", sessionId, numShards, numWorkers);
+    }
+
+    private void endSession() {
+        if (sessionId != null)
+            transportProvider.stopServer(sessionId);
+        if (configurationBroadcast != null)
+            configurationBroadcast.unpersist(false);
+        sessionId = null;
+        configurationBroadcast = null;
+    }
+
+    private <T> JavaRDD<T> repartition(JavaRDD<T> data) {
+        if (repartition == Repartition.Never)
+            return data;
+        int objectsPerPartition = (int) Math.ceil(data.count() / (double) numWorkers);
+        return SparkUtils.repartition(data, repartition, repartitionStrategy, Math.max(1, objectsPerPartition),
+                        numWorkers);
+    }
+
+    private void processResults(SparkDl4jMultiLayer network, SparkComputationGraph graph,
+                    JavaRDD<ParameterServerTrainingResult> results) {
+        List<ParameterServerTrainingResult> list = results.collect();
+
+        int numMinibatches = 0;
+        int maxWorkerMinibatches = 0;
+        double scoreSum = 0.0;
+        int numPulls = 0;
+        int numPushes = 0;
+        long numPushedValues = 0;
+        INDArray updaterStateSum = null;
+        int numUpdaterStates = 0;
+        for (ParameterServerTrainingResult r : list) {
+            numMinibatches += r.getNumMinibatches();
+            maxWorkerMinibatches = Math.max(maxWorkerMinibatches, r.getNumMinibatches());
+            scoreSum += r.getScoreSum();
+            numPulls += r.getNumPulls();
+            numPushes += r.getNumPushes();
+            numPushedValues += r.getNumPushedValues();
+            if (r.getNumMinibatches() > 0 && r.getUpdaterState() != null) {
+                if (updaterStateSum == null)
+                    updaterStateSum = r.getUpdaterState().dup();
+                else
+                    updaterStateSum.addi(r.getUpdaterState());
+                numUpdaterStates++;
+            }
+
+            if (collectTrainingStats && r.getSparkTrainingStats() != null) {
+                if (stats == null)
+                    stats = r.getSparkTrainingStats();
+                else
+                    stats.addOtherTrainingStats(r.getSparkTrainingStats());
+            }
+
+            if (statsStorage != null) {
+                Collection<StorageMetaData> meta = r.getListenerMetaData();
+                if (meta != null && meta.size() > 0)
+                    statsStorage.putStorageMetaData(meta);
+                Collection<Persistable> staticInfo = r.getListenerStaticInfo();
+                if (staticInfo != null && staticInfo.size() > 0)
+                    statsStorage.putStaticInfo(staticInfo);
+                Collection<Persistable> updates = r.getListenerUpdates();
+                if (updates != null && updates.size() > 0)
+                    statsStorage.putUpdate(updates);
+            }
+        }
+
+        if (numMinibatches == 0) {
+            log.info("No data: skipping parameter update");
+            return;
+        }
+
+        INDArray params = ShardedParameterServer.pullAll(transportProvider.connect(sessionId));
+        double score = scoreSum / numMinibatches;
+        if (network != null) {
+            network.getNetwork().setParameters(params);
+            if (updaterStateSum != null)
+                network.getNetwork().getUpdater().setStateViewArray(null, updaterStateSum.divi(numUpdaterStates),
+                                false);
+            network.setScore(score);
+            MultiLayerConfiguration conf = network.getNetwork().getLayerWiseConfigurations();
+            conf.setIterationCount(conf.getIterationCount()
+                            + network.getNetwork().conf().getNumIterations() * maxWorkerMinibatches);
+        } else {
+            graph.getNetwork().setParams(params);
+            if (updaterStateSum != null)
+                graph.getNetwork().getUpdater().setStateViewArray(updaterStateSum.divi(numUpdaterStates));
+            graph.setScore(score);
+            ComputationGraphConfiguration conf = graph.getNetwork().getConfiguration();
+            conf.setIterationCount(conf.getIterationCount()
+                            + graph.getNetwork().conf().getNumIterations() * maxWorkerMinibatches);
+        }
+
+        log.info("Completed parameter server training: {} minibatches over {} workers, {} pulls, {} pushes "
+                        + "({} values)", numMinibatches, list.size(), numPulls, numPushes, numPushedValues);
+    }
+
+    @Override
+    public void setCollectTrainingStats(boolean collectTrainingStats) {
+        this.collectTrainingStats = collectTrainingStats;
+    }
+
+    @Override
+    public boolean getIsCollectTrainingStats() {
+        return collectTrainingStats;
+    }
+
+    @Override
+    public SparkTrainingStats getTrainingStats() {
+        return stats;
+    }
+
+    @Override
+    public void setListeners(Collection<IterationListener> listeners) {
+        setListeners(null, listeners);
+    }
+
+    @Override
+    public void setListeners(StatsStorageRouter statsStorage, Collection<IterationListener> listeners) {
+        this.statsStorage = statsStorage;
+        this.listeners = listeners;
+    }
+
+    @Override
+    public boolean deleteTempFiles(JavaSparkContext sc) {
+        return true; //No temporary files
+    }
+
+    @Override
+    public boolean deleteTempFiles(SparkContext sc) {
+        return true;
+    }
+
+    private StatsStorageRouterProvider getRouterProvider() {
+        if (statsStorage == null)
+            return null; //Not needed
+        return new VanillaStatsStorageRouterProvider();
+    }
+
+
+    public static class Builder {
+        private Integer numWorkers;
+        private int rddDataSetNumExamples;
+        private int batchSizePerWorker = 16;
+        private int prefetchNumBatches = 0;
+        private int numShards = 4;
+        private double updateThreshold = 1e-3;
+        private int maxStaleness = 8;
+        private Repartition repartition = Repartition.Always;
+        private RepartitionStrategy repartitionStrategy = RepartitionStrategy.Balanced;
+        private ParameterServerTransportProvider transportProvider = new InProcessTransportProvider();
+        private boolean collectTrainingStats = false;
+        private Collection<TrainingHook> trainingHooks;
+
+        /**
+         * Same as {@link #Builder(Integer, int)} but automatically set number of workers based on
+         * JavaSparkContext.defaultParallelism()
+         *
+         * @param rddDataSetNumExamples Number of examples in each DataSet object in the {@code RDD<DataSet>}
+         */
+        public Builder(int rddDataSetNumExamples) {
+            this(null, rddDataSetNumExamples);
+        }
+
+        /**
+         * @param numWorkers            Number of workers (executors * threads per executor) for the cluster. If null:
+         *                              JavaSparkContext.defaultParallelism() is used
+         * @param rddDataSetNumExamples Number of examples in each DataSet object in the {@code RDD<DataSet>}
+         */
+        public Builder(Integer numWorkers, int rddDataSetNumExamples) {
+            if (numWorkers != null && numWorkers <= 0)
+                throw new IllegalArgumentException("Invalid number of workers: " + numWorkers + " (must be >= 1)");
+            if (rddDataSetNumExamples <= 0)
+                throw new IllegalArgumentException(
+                                "Invalid rdd data set size: " + rddDataSetNumExamples + " (must be >= 1)");
+            this.numWorkers = numWorkers;
+            this.rddDataSetNumExamples = rddDataSetNumExamples;
+        }
+
+        /**
+         * Batch size (in number of examples) per worker, for each fit(DataSet) call.
+         *
+         * @param batchSizePerWorker Size of each minibatch to use for each worker
+         */
+        public Builder batchSizePerWorker(int batchSizePerWorker) {
+            this.batchSizePerWorker = batchSizePerWorker;
+            return this;
+        }
+
+        /**
+         * Set the number of minibatches to asynchronously prefetch in the worker.
+         * Default: 0 (no prefetching)
+         *
+         * @param prefetchNumBatches Number of minibatches (DataSets of size batchSizePerWorker) to fetch
+         */
+        public Builder workerPrefetchNumBatches(int prefetchNumBatches) {
+            this.prefetchNumBatches = prefetchNumBatches;
+            return this;
+        }
+
+        /**
+         * Number of shards to split the parameters into. Pushes and pulls for different shards are independent, and
+         * workers pull only the shards that are stale.
+         * Default: 4
+         *
+         * @param numShards Number of parameter shards
+         */
+        public Builder numShards(int numShards) {
+            if (numShards < 1)
+                throw new IllegalArgumentException("Invalid number of shards: " + numShards + " (must be >= 1)");
+            this.numShards = numShards;
+            return this;
+        }
+
+        /**
+         * Threshold for encoding parameter updates: after each minibatch, workers push only those parameters for which
+         * the accumulated (unsent) update is at least this value in magnitude, as a +/- threshold value. Larger values
+         * result in smaller (sparser) updates, with more of the update delayed.
+         * Default: 1e-3
+         *
+         * @param updateThreshold Update encoding threshold. Must be positive
+         */
+        public Builder updateThreshold(double updateThreshold) {
+            if (updateThreshold <= 0.0)
+                throw new IllegalArgumentException("Invalid threshold: " + updateThreshold + " (must be > 0)");
+            this.updateThreshold = updateThreshold;
+            return this;
+        }
+
+        /**
+         * Maximum staleness of the worker parameters: before each minibatch, a worker pulls any parameter shard that
+         * has received more than this number of updates (from all workers, including itself) since it was last
+         * pulled. 0: pull every shard that has changed, before every minibatch.
+         * Default: 8
+         *
+         * @param maxStaleness Maximum number of updates before a shard is pulled
+         */
+        public Builder maxStaleness(int maxStaleness) {
+            if (maxStaleness < 0)
+                throw new IllegalArgumentException("Invalid max staleness: " + maxStaleness + " (must be >= 0)");
+            this.maxStaleness = maxStaleness;
+            return this;
+        }
+
+        /**
+         * Set if/when repartitioning should be conducted for the training data.
+         * Default value: always repartition (if required to guarantee correct number of partitions and correct number
+         * of examples in each partition).
+         *
+         * @param repartition Setting for repartitioning
+         */
+        public Builder repartionData(Repartition repartition) {
+            this.repartition = repartition;
+            return this;
+        }
+
+        /**
+         * Used in conjunction with {@link #repartionData(Repartition)} (which defines <i>when</i> repartitioning should
+         * be conducted), repartitionStrategy defines <i>how</i> the repartitioning should be done.
+         * See {@link RepartitionStrategy} for details
+         *
+         * @param repartitionStrategy Repartitioning strategy to use
+         */
+        public Builder repartitionStrategy(RepartitionStrategy repartitionStrategy) {
+            this.repartitionStrategy = repartitionStrategy;
+            return this;
+        }
+
+        /**
+         * Transport for the parameter server. Default: {@link InProcessTransportProvider}, which requires Spark local
+         * mode
+         *
+         * @param transportProvider Parameter server transport provider
+         */
+        public Builder transportProvider(ParameterServerTransportProvider transportProvider) {
+            this.transportProvider = transportProvider;
+            return this;
+        }
+
+        /**
+         * Whether to collect training statistics (timing of the worker steps)
+         * Default: false
+         */
+        public Builder collectTrainingStats(boolean collectTrainingStats) {
+            this.collectTrainingStats = collectTrainingStats;
+            return this;
+        }
+
+        /**
+         * Adds training hooks to the master. The training master will setup the workers with the desired hooks for
+         * training.
+         *
+         * @param trainingHooks the training hooks to add
+         */
+        public Builder trainingHooks(Collection<TrainingHook> trainingHooks) {
+            this.trainingHooks = trainingHooks;
+            return this;
+        }
+
+        public ParameterServerTrainingMaster build() {
+            return new ParameterServerTrainingMaster(this);
+        }
+    }
+}
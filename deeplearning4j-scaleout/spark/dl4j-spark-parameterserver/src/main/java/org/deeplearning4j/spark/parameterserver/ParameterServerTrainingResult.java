@@ -0,0 +1,51 @@
+package org.deeplearning4j.spark.parameterserver;
+
+import lombok.Data;
+import org.deeplearning4j.api.storage.Persistable;
+import org.deeplearning4j.api.storage.StorageMetaData;
+import org.deeplearning4j.spark.api.TrainingResult;
+import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * The results returned by a {@link ParameterServerTrainingWorker} to the {@link ParameterServerTrainingMaster}.
+ * Parameters are not included: these are held by the parameter server. The updater state of the worker is included,
+ * so that the master can average it at the end of training.
+ */
+@Data
+public class ParameterServerTrainingResult implements TrainingResult, Serializable {
+
+    private final int numMinibatches;
+    private final double scoreSum;
+    private final int numPulls;
+    private final int numPushes;
+    private final long numPushedValues;
+    private final INDArray updaterState;
+    private SparkTrainingStats sparkTrainingStats;
+
+    private final Collection<StorageMetaData> listenerMetaData;
+    private final Collection<Persistable> listenerStaticInfo;
+    private final Collection<Persistable> listenerUpdates;
+
+    public ParameterServerTrainingResult(int numMinibatches, double scoreSum, int numPulls, int numPushes,
+                    long numPushedValues, INDArray updaterState, Collection<StorageMetaData> listenerMetaData,
+                    Collection<Persistable> listenerStaticInfo, Collection<Persistable> listenerUpdates) {
+        this.numMinibatches = numMinibatches;
+        this.scoreSum = scoreSum;
+        this.numPulls = numPulls;
+        this.numPushes = numPushes;
+        this.numPushedValues = numPushedValues;
+        this.updaterState = updaterState;
+        this.listenerMetaData = listenerMetaData;
+        this.listenerStaticInfo = listenerStaticInfo;
+        this.listenerUpdates = listenerUpdates;
+    }
+
+    @Override
+    public void setStats(SparkTrainingStats sparkTrainingStats) {
+        this.sparkTrainingStats = sparkTrainingStats;
+    }
+}
@@ -0,0 +1,385 @@
+package org.deeplearning4j.spark.parameterserver;
+
+import org.apache.spark.broadcast.Broadcast;
+import org.deeplearning4j.api.storage.Persistable;
+import org.deeplearning4j.api.storage.StatsStorageRouter;
+import org.deeplearning4j.api.storage.StatsStorageRouterProvider;
+import org.deeplearning4j.api.storage.StorageMetaData;
+import org.deeplearning4j.api.storage.listener.RoutingIterationListener;
+import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.graph.util.ComputationGraphUtil;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.updater.MultiLayerUpdater;
+import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
+import org.deeplearning4j.optimize.api.IterationListener;
+import org.deeplearning4j.spark.api.TrainingHook;
+import org.deeplearning4j.spark.api.TrainingWorker;
+import org.deeplearning4j.spark.api.WorkerConfiguration;
+import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.api.worker.NetBroadcastTuple;
+import org.deeplearning4j.spark.impl.listeners.VanillaStatsStorageRouter;
+import org.deeplearning4j.spark.parameterserver.encoding.SparseUpdate;
+import org.deeplearning4j.spark.parameterserver.encoding.ThresholdEncodedUpdate;
+import org.deeplearning4j.spark.parameterserver.server.ShardSnapshot;
+import org.deeplearning4j.spark.parameterserver.transport.ParameterServerTransport;
+import org.deeplearning4j.spark.parameterserver.transport.ParameterServerTransportProvider;
+import org.deeplearning4j.util.UIDProvider;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.dataset.api.DataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ParameterServerTrainingWorker: the worker side of the {@link ParameterServerTrainingMaster}.
+ * <p>
+ * The worker fits its local copy of the network on each minibatch, then pushes the change in parameters to the
+ * parameter server as a threshold encoded update (see {@link ThresholdEncodedUpdate}); the part of the change that was
+ * not sent is kept as a residual and added to the next update. Before each minibatch, each parameter shard that has
+ * received more than maxStaleness updates (from any worker) since it was last pulled is pulled again, replacing the
+ * local values for that shard. There is no synchronization with the other workers.<br>
+ * At the end of the partition, whatever remains in the residual is pushed without encoding (see {@link SparseUpdate}),
+ * and the updater state of the worker is returned to the master along with the training statistics.
+ */
+public class ParameterServerTrainingWorker implements TrainingWorker<ParameterServerTrainingResult> {
+
+    private final Broadcast<NetBroadcastTuple> broadcast;
+    private final ParameterServerTransportProvider transportProvider;
+    private final String sessionId;
+    private final double updateThreshold;
+    private final int maxStaleness;
+    private final WorkerConfiguration configuration;
+    private Collection<TrainingHook> trainingHooks;
+    private final Collection<IterationListener> iterationListeners;
+    private final StatsStorageRouterProvider listenerRouterProvider;
+
+    //State for the current partition
+    private transient ParameterServerTransport transport;
+    private transient int[] shardOffsets;
+    private transient long[] shardVersions;
+    private transient INDArray residual;
+    private transient INDArray paramsBeforeFit;
+    private transient int numMinibatches;
+    private transient double scoreSum;
+    private transient int numPulls;
+    private transient int numPushes;
+    private transient long numPushedValues;
+
+    /**
+     * @param broadcast         Broadcast network configuration and updater state. Parameters are pulled from the
+     *                          parameter server
+     * @param transportProvider Provider for the connection to the parameter server
+     * @param sessionId         ID of the training session (parameter server) to connect to
+     * @param updateThreshold   Threshold for encoding the parameter updates
+     * @param maxStaleness      Maximum number of updates a shard may receive before the worker pulls it again
+     */
+    public ParameterServerTrainingWorker(Broadcast<NetBroadcastTuple> broadcast,
+                    ParameterServerTransportProvider transportProvider, String sessionId, double updateThreshold,
+                    int maxStaleness, WorkerConfiguration configuration, Collection<TrainingHook> trainingHooks,
+                    Collection<IterationListener> listeners, StatsStorageRouterProvider routerProvider) {
+        this.broadcast = broadcast;
+        this.transportProvider = transportProvider;
+        this.sessionId = sessionId;
+        this.updateThreshold = updateThreshold;
+        this.maxStaleness = maxStaleness;
+        this.configuration = configuration;
+        this.trainingHooks = trainingHooks;
+        this.iterationListeners = listeners;
+        this.listenerRouterProvider = routerProvider;
+    }
+
+    @Override
+    public void removeHook(TrainingHook trainingHook) {
+        if (trainingHooks == null)
+            return;
+        trainingHooks.remove(trainingHook);
+    }
+
+    @Override
+    public void addHook(TrainingHook trainingHook) {
+        if (trainingHooks == null)
+            trainingHooks = new ArrayList<>();
+        trainingHooks.add(trainingHook);
+    }
+
+    @Override
+    public MultiLayerNetwork getInitialModel() {
+        NetBroadcastTuple tuple = broadcast.getValue();
+        MultiLayerNetwork net = new MultiLayerNetwork(tuple.getConfiguration().clone());
+        net.init(connect(), false);
+        if (tuple.getUpdaterState() != null) {
+            net.setUpdater(new MultiLayerUpdater(net, tuple.getUpdaterState().unsafeDuplication())); //Can't have shared updater state
+        }
+        configureListeners(net, tuple.getCounter().getAndIncrement());
+        return net;
+    }
+
+    @Override
+    public ComputationGraph getInitialModelGraph() {
+        NetBroadcastTuple tuple = broadcast.getValue();
+        ComputationGraph net = new ComputationGraph(tuple.getGraphConfiguration().clone());
+        net.init(connect(), false);
+        if (tuple.getUpdaterState() != null) {
+            net.setUpdater(new ComputationGraphUpdater(net, tuple.getUpdaterState().unsafeDuplication())); //Can't have shared updater state
+        }
+        configureListeners(net, tuple.getCounter().getAndIncrement());
+        return net;
+    }
+
+    /**
+     * Connect to the parameter server, and pull the current parameters
+     */
+    private INDArray connect() {
+        transport = transportProvider.connect(sessionId);
+        shardOffsets = transport.getShardOffsets();
+        int numShards = transport.numShards();
+        shardVersions = new long[numShards];
+        double[] params = new double[shardOffsets[numShards]];
+        for (int i = 0; i < numShards; i++) {
+            ShardSnapshot snapshot = transport.pull(i);
+            System.arraycopy(snapshot.getValues(), 0, params, shardOffsets[i], snapshot.getValues().length);
+            shardVersions[i] = snapshot.getVersion();
+        }
+        //Allocated once per partition, and reused for each minibatch
+        residual = Nd4j.zeros(1, params.length);
+        paramsBeforeFit = Nd4j.create(1, params.length);
+        numMinibatches = 0;
+        scoreSum = 0.0;
+        numPulls = 0;
+        numPushes = 0;
+        numPushedValues = 0;
+        return Nd4j.create(params);
+    }
+
+    private void configureListeners(Model m, int counter) {
+        if (iterationListeners != null) {
+            List<IterationListener> list = new ArrayList<>(iterationListeners.size());
+            for (IterationListener l : iterationListeners) {
+                if (listenerRouterProvider != null && l instanceof RoutingIterationListener) {
+                    RoutingIterationListener rl = (RoutingIterationListener) l;
+                    rl.setStorageRouter(listenerRouterProvider.getRouter());
+                    String workerID = UIDProvider.getJVMUID() + "_" + counter;
+                    rl.setWorkerID(workerID);
+                }
+                list.add(l);
+            }
+            if (m instanceof MultiLayerNetwork)
+                ((MultiLayerNetwork) m).setListeners(list);
+            else
+                ((ComputationGraph) m).setListeners(list);
+        }
+    }
+
+    /**
+     * Pull any shards that have received more than maxStaleness updates since they were last pulled
+     *
+     * @param params Flattened parameters of the local network. Modified in place
+     */
+    private void pullStaleShards(INDArray params) {
+        for (int i = 0; i < shardVersions.length; i++) {
+            if (transport.getVersion(i) - shardVersions[i] > maxStaleness) {
+                ShardSnapshot snapshot = transport.pull(i);
+                params.get(NDArrayIndex.point(0), NDArrayIndex.interval(shardOffsets[i], shardOffsets[i + 1]))
+                                .assign(Nd4j.create(snapshot.getValues()));
+                shardVersions[i] = snapshot.getVersion();
+                numPulls++;
+            }
+        }
+    }
+
+    /**
+     * Add the change in parameters from the last fit to the residual, and push the encoded updates for each shard.
+     * The residual is encoded in place, without copying
+     */
+    private void pushUpdates(INDArray params) {
+        residual.addi(params).subi(paramsBeforeFit);
+        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+        DataBuffer residualBuffer = residual.data();
+        for (int i = 0; i < shardVersions.length; i++) {
+            ThresholdEncodedUpdate update = ThresholdEncodedUpdate.encode(residualBuffer, shardOffsets[i],
+                            shardOffsets[i + 1], updateThreshold);
+            if (update.numValues() > 0) {
+                transport.push(i, update);
+                numPushes++;
+                numPushedValues += update.numValues();
+            }
+        }
+    }
+
+    /**
+     * Push the remaining residual (the part of the change in parameters below the threshold) for each shard, so that
+     * no updates are lost at the end of the partition
+     */
+    private void flushResidual() {
+        if (residual == null)
+            return;
+        DataBuffer residualBuffer = residual.data();
+        for (int i = 0; i < shardVersions.length; i++) {
+            SparseUpdate update = SparseUpdate.flush(residualBuffer, shardOffsets[i], shardOffsets[i + 1]);
+            if (update.numValues() > 0) {
+                transport.push(i, update);
+                numPushes++;
+                numPushedValues += update.numValues();
+            }
+        }
+    }
+
+    @Override
+    public ParameterServerTrainingResult processMinibatch(DataSet dataSet, MultiLayerNetwork network,
+                    boolean isLast) {
+        if (trainingHooks != null) {
+            for (TrainingHook trainingHook : trainingHooks) {
+                trainingHook.preUpdate(dataSet, network);
+            }
+        }
+
+        pullStaleShards(network.params());
+        paramsBeforeFit.assign(network.params());
+        network.fit(dataSet);
+        pushUpdates(network.params());
+        numMinibatches++;
+        scoreSum += network.score();
+
+        if (trainingHooks != null) {
+            for (TrainingHook trainingHook : trainingHooks) {
+                trainingHook.postUpdate(dataSet, network);
+            }
+        }
+
+        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+        if (isLast)
+            return getFinalResult(network);
+
+        return null;
+    }
+
+    @Override
+    public ParameterServerTrainingResult processMinibatch(DataSet dataSet, ComputationGraph graph, boolean isLast) {
+        return processMinibatch(ComputationGraphUtil.toMultiDataSet(dataSet), graph, isLast);
+    }
+
+    @Override
+    public ParameterServerTrainingResult processMinibatch(MultiDataSet dataSet, ComputationGraph graph,
+                    boolean isLast) {
+        if (trainingHooks != null) {
+            for (TrainingHook trainingHook : trainingHooks) {
+                trainingHook.preUpdate(dataSet, graph);
+            }
+        }
+
+        pullStaleShards(graph.params());
+        paramsBeforeFit.assign(graph.params());
+        graph.fit(dataSet);
+        pushUpdates(graph.params());
+        numMinibatches++;
+        scoreSum += graph.score();
+
+        if (trainingHooks != null) {
+            for (TrainingHook trainingHook : trainingHooks) {
+                trainingHook.postUpdate(dataSet, graph);
+            }
+        }
+
+        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+        if (isLast)
+            return getFinalResult(graph);
+
+        return null;
+    }
+
+    @Override
+    public Pair<ParameterServerTrainingResult, SparkTrainingStats> processMinibatchWithStats(DataSet dataSet,
+                    MultiLayerNetwork network, boolean isLast) {
+        ParameterServerTrainingResult result = processMinibatch(dataSet, network, isLast);
+        if (result == null)
+            return null;
+        return new Pair<>(result, null);
+    }
+
+    @Override
+    public Pair<ParameterServerTrainingResult, SparkTrainingStats> processMinibatchWithStats(DataSet dataSet,
+                    ComputationGraph graph, boolean isLast) {
+        return processMinibatchWithStats(ComputationGraphUtil.toMultiDataSet(dataSet), graph, isLast);
+    }
+
+    @Override
+    public Pair<ParameterServerTrainingResult, SparkTrainingStats> processMinibatchWithStats(MultiDataSet dataSet,
+                    ComputationGraph graph, boolean isLast) {
+        ParameterServerTrainingResult result = processMinibatch(dataSet, graph, isLast);
+        if (result == null)
+            return null;
+        return new Pair<>(result, null);
+    }
+
+    @Override
+    public ParameterServerTrainingResult getFinalResult(MultiLayerNetwork network) {
+        return createResult(network.getUpdater().getStateViewArray());
+    }
+
+    @Override
+    public ParameterServerTrainingResult getFinalResult(ComputationGraph graph) {
+        return createResult(graph.getUpdater().getStateViewArray());
+    }
+
+    private ParameterServerTrainingResult createResult(INDArray updaterState) {
+        if (Nd4j.getExecutioner() instanceof GridExecutioner)
+            ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+
+        flushResidual();
+
+        Collection<StorageMetaData> storageMetaData = null;
+        Collection<Persistable> listenerStaticInfo = null;
+        Collection<Persistable> listenerUpdates = null;
+        if (listenerRouterProvider != null) {
+            StatsStorageRouter r = listenerRouterProvider.getRouter();
+            if (r instanceof VanillaStatsStorageRouter) {
+                VanillaStatsStorageRouter ssr = (VanillaStatsStorageRouter) r;
+                storageMetaData = ssr.getStorageMetaData();
+                listenerStaticInfo = ssr.getStaticInfo();
+                listenerUpdates = ssr.getUpdates();
+            }
+        }
+        return new ParameterServerTrainingResult(numMinibatches, scoreSum, numPulls, numPushes, numPushedValues,
+                        updaterState == null ? null : updaterState.dup(), storageMetaData, listenerStaticInfo,
+                        listenerUpdates);
+    }
+
+    @Override
+    public ParameterServerTrainingResult getFinalResultNoData() {
+        return new ParameterServerTrainingResult(0, 0.0, 0, 0, 0, null, null, null, null);
+    }
+
+    @Override
+    public Pair<ParameterServerTrainingResult, SparkTrainingStats> getFinalResultNoDataWithStats() {
+        return new Pair<>(getFinalResultNoData(), null);
+    }
+
+    @Override
+    public Pair<ParameterServerTrainingResult, SparkTrainingStats> getFinalResultWithStats(
+                    MultiLayerNetwork network) {
+        return new Pair<>(getFinalResult(network), null);
+    }
+
+    @Override
+    public Pair<ParameterServerTrainingResult, SparkTrainingStats> getFinalResultWithStats(ComputationGraph graph) {
+        return new Pair<>(getFinalResult(graph), null);
+    }
+
+    @Override
+    public WorkerConfiguration getDataConfiguration() {
+        return configuration;
+    }
+}
@@ -0,0 +1,29 @@
+package org.deeplearning4j.spark.parameterserver.encoding;
+
+import java.io.Serializable;
+
+/**
+ * An update for a contiguous range of parameters, as pushed by the workers to the parameter server
+ *
+ * @see ThresholdEncodedUpdate
+ * @see SparseUpdate
+ */
+public interface ParameterUpdate extends Serializable {
+
+    /**
+     * Add the (decoded) update to the target array
+     *
+     * @param target Array to add the update to. Must have the same length as the range of the update
+     */
+    void addTo(double[] target);
+
+    /**
+     * @return Number of non-zero values in the update
+     */
+    int numValues();
+
+    /**
+     * @return Length of the range of parameters the update is for
+     */
+    int length();
+}
@@ -0,0 +1,70 @@
+package org.deeplearning4j.spark.parameterserver.encoding;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+
+import java.util.Arrays;
+
+/**
+ * A sparse update with exact values, for a contiguous range of parameters.
+ * <p>
+ * Used by the workers to flush the residual of the threshold encoding (see {@link ThresholdEncodedUpdate}) at the end
+ * of training, so that the parameter server receives the full change in parameters.
+ */
+public class SparseUpdate implements ParameterUpdate {
+
+    private final int length;
+    private final int[] indices;
+    private final double[] values;
+
+    private SparseUpdate(int length, int[] indices, double[] values) {
+        this.length = length;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    /**
+     * Encode the non-zero values of the specified range of the residual, and set them to zero in the residual
+     *
+     * @param residual Accumulated updates not yet sent. Modified in place
+     * @param from     First index of the range (inclusive)
+     * @param to       Last index of the range (exclusive)
+     */
+    public static SparseUpdate flush(DataBuffer residual, int from, int to) {
+        int[] indices = new int[16];
+        double[] values = new double[16];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            double r = residual.getDouble(i);
+            if (r == 0.0)
+                continue;
+            residual.put(i, 0.0);
+            if (count == indices.length) {
+                indices = Arrays.copyOf(indices, 2 * count);
+                values = Arrays.copyOf(values, 2 * count);
+            }
+            indices[count] = i - from;
+            values[count++] = r;
+        }
+        return new SparseUpdate(to - from, Arrays.copyOf(indices, count), Arrays.copyOf(values, count));
+    }
+
+    @Override
+    public void addTo(double[] target) {
+        if (target.length != length)
+            throw new IllegalArgumentException(
+                            "Target length (" + target.length + ") does not match update length " + length);
+        for (int i = 0; i < indices.length; i++) {
+            target[indices[i]] += values[i];
+        }
+    }
+
+    @Override
+    public int numValues() {
+        return indices.length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+}
@@ -0,0 +1,86 @@
+package org.deeplearning4j.spark.parameterserver.encoding;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+
+import java.util.Arrays;
+
+/**
+ * A sparse, threshold encoded update for a contiguous range of parameters.
+ * <p>
+ * Each encoded value is either +threshold or -threshold, for the parameters whose accumulated (residual) update is at
+ * least the threshold in magnitude. The encoded amount is subtracted from the residual, so that the remainder is sent in
+ * later updates, once enough has accumulated. Each encoded value is stored as a single int: (index + 1) for a positive
+ * value, or -(index + 1) for a negative value, with the index relative to the start of the range.
+ */
+public class ThresholdEncodedUpdate implements ParameterUpdate {
+
+    private final double threshold;
+    private final int length;
+    private final int[] encoded;
+
+    private ThresholdEncodedUpdate(double threshold, int length, int[] encoded) {
+        this.threshold = threshold;
+        this.length = length;
+        this.encoded = encoded;
+    }
+
+    /**
+     * Encode the specified range of the residual, and subtract the encoded values from the residual. The residual is
+     * read and updated directly in its data buffer, without copying
+     *
+     * @param residual  Accumulated updates not yet sent. Modified in place
+     * @param from      First index of the range (inclusive)
+     * @param to        Last index of the range (exclusive)
+     * @param threshold Threshold (and magnitude of the encoded values). Must be positive
+     */
+    public static ThresholdEncodedUpdate encode(DataBuffer residual, int from, int to, double threshold) {
+        if (threshold <= 0.0)
+            throw new IllegalArgumentException("Invalid threshold: " + threshold + " (must be > 0)");
+        int[] encoded = new int[16];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            double r = residual.getDouble(i);
+            int value;
+            if (r >= threshold) {
+                residual.put(i, r - threshold);
+                value = i - from + 1;
+            } else if (r <= -threshold) {
+                residual.put(i, r + threshold);
+                value = -(i - from + 1);
+            } else {
+                continue;
+            }
+            if (count == encoded.length)
+                encoded = Arrays.copyOf(encoded, 2 * count);
+            encoded[count++] = value;
+        }
+        return new ThresholdEncodedUpdate(threshold, to - from, Arrays.copyOf(encoded, count));
+    }
+
+    @Override
+    public void addTo(double[] target) {
+        if (target.length != length)
+            throw new IllegalArgumentException(
+                            "Target length (" + target.length + ") does not match update length " + length);
+        for (int e : encoded) {
+            if (e > 0)
+                target[e - 1] += threshold;
+            else
+                target[-e - 1] -= threshold;
+        }
+    }
+
+    @Override
+    public int numValues() {
+        return encoded.length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+}
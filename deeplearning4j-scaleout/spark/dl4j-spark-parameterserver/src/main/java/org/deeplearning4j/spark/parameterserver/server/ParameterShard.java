@@ -0,0 +1,44 @@
+package org.deeplearning4j.spark.parameterserver.server;
+
+import org.deeplearning4j.spark.parameterserver.encoding.ParameterUpdate;
+
+/**
+ * One contiguous range of the flattened parameter vector, held by the parameter server.
+ * Updates are applied as they arrive (no synchronization between workers); each update increments the shard version.
+ */
+public class ParameterShard {
+
+    private final int offset;
+    private final double[] values;
+    private long version;
+
+    /**
+     * @param offset Offset of the shard in the flattened parameter vector
+     * @param values Initial values for the shard. Not copied
+     */
+    public ParameterShard(int offset, double[] values) {
+        this.offset = offset;
+        this.values = values;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int length() {
+        return values.length;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized void apply(ParameterUpdate update) {
+        update.addTo(values);
+        version++;
+    }
+
+    public synchronized ShardSnapshot snapshot() {
+        return new ShardSnapshot(values.clone(), version);
+    }
+}
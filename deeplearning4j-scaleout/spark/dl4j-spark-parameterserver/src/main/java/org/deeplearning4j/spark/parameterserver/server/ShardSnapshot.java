@@ -0,0 +1,19 @@
+package org.deeplearning4j.spark.parameterserver.server;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * A copy of the values of one parameter shard, along with the shard version (number of updates applied to the shard)
+ * at the time the copy was made
+ */
+@AllArgsConstructor
+@Data
+public class ShardSnapshot implements Serializable {
+
+    private final double[] values;
+    private final long version;
+
+}
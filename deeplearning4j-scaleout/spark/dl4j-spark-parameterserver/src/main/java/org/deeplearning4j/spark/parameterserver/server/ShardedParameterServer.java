@@ -0,0 +1,84 @@
+package org.deeplearning4j.spark.parameterserver.server;
+
+import org.deeplearning4j.spark.parameterserver.encoding.ParameterUpdate;
+import org.deeplearning4j.spark.parameterserver.transport.ParameterServerTransport;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * A parameter server holding the flattened parameter vector, split into contiguous shards of (approximately) equal
+ * size. Shards are updated independently: pushes to and pulls from different shards do not block each other.
+ * <p>
+ * This class is the server side state only; it implements {@link ParameterServerTransport} for direct (in-process)
+ * use.
+ */
+public class ShardedParameterServer implements ParameterServerTransport {
+
+    private final ParameterShard[] shards;
+    private final int[] offsets;
+
+    /**
+     * @param initialParameters Initial values for the (flattened) parameters. Not modified
+     * @param numShards         Number of shards. If greater than the number of parameters, the number of parameters is
+     *                          used instead
+     */
+    public ShardedParameterServer(INDArray initialParameters, int numShards) {
+        if (numShards < 1)
+            throw new IllegalArgumentException("Invalid number of shards: " + numShards + " (must be >= 1)");
+        double[] values = initialParameters.dup().data().asDouble();
+        int n = values.length;
+        numShards = Math.max(1, Math.min(numShards, n));
+
+        shards = new ParameterShard[numShards];
+        offsets = new int[numShards + 1];
+        for (int i = 0; i < numShards; i++) {
+            int start = (int) ((long) n * i / numShards);
+            int end = (int) ((long) n * (i + 1) / numShards);
+            double[] shardValues = new double[end - start];
+            System.arraycopy(values, start, shardValues, 0, end - start);
+            shards[i] = new ParameterShard(start, shardValues);
+            offsets[i] = start;
+        }
+        offsets[numShards] = n;
+    }
+
+    @Override
+    public int numShards() {
+        return shards.length;
+    }
+
+    @Override
+    public int[] getShardOffsets() {
+        return offsets.clone();
+    }
+
+    @Override
+    public long getVersion(int shard) {
+        return shards[shard].getVersion();
+    }
+
+    @Override
+    public ShardSnapshot pull(int shard) {
+        return shards[shard].snapshot();
+    }
+
+    @Override
+    public void push(int shard, ParameterUpdate update) {
+        shards[shard].apply(update);
+    }
+
+    /**
+     * Pull all shards from the specified transport, and combine them into a single (row vector) parameter array
+     *
+     * @param transport Transport to pull the parameters from
+     */
+    public static INDArray pullAll(ParameterServerTransport transport) {
+        int[] offsets = transport.getShardOffsets();
+        double[] all = new double[offsets[offsets.length - 1]];
+        for (int i = 0; i < transport.numShards(); i++) {
+            double[] values = transport.pull(i).getValues();
+            System.arraycopy(values, 0, all, offsets[i], values.length);
+        }
+        return Nd4j.create(all);
+    }
+}
@@ -0,0 +1,42 @@
+package org.deeplearning4j.spark.parameterserver.transport;
+
+import lombok.EqualsAndHashCode;
+import org.deeplearning4j.spark.parameterserver.server.ShardedParameterServer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ParameterServerTransportProvider} for parameter servers in the same JVM as the workers: the server is held in
+ * a static map (by session ID), and workers call it directly.<br>
+ * This is suitable only when the driver and the executors share a JVM: i.e., Spark local mode (such as local[*]),
+ * mainly for testing and single machine training. For training on a cluster, a network based transport is required.
+ */
+@EqualsAndHashCode
+public class InProcessTransportProvider implements ParameterServerTransportProvider {
+
+    private static final Map<String, ShardedParameterServer> servers = new ConcurrentHashMap<>();
+
+    @Override
+    public void startServer(String sessionId, INDArray initialParameters, int numShards) {
+        if (servers.containsKey(sessionId))
+            throw new IllegalStateException("Parameter server for session \"" + sessionId + "\" is already running");
+        servers.put(sessionId, new ShardedParameterServer(initialParameters, numShards));
+    }
+
+    @Override
+    public ParameterServerTransport connect(String sessionId) {
+        ShardedParameterServer server = servers.get(sessionId);
+        if (server == null)
+            throw new IllegalStateException("No parameter server for session \"" + sessionId + "\" in this JVM. "
+                            + "The in-process transport can only be used when the workers run in the same JVM as the "
+                            + "driver (Spark local mode)");
+        return server;
+    }
+
+    @Override
+    public void stopServer(String sessionId) {
+        servers.remove(sessionId);
+    }
+}
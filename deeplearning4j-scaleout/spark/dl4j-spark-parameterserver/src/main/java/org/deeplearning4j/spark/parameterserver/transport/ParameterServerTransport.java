@@ -0,0 +1,46 @@
+package org.deeplearning4j.spark.parameterserver.transport;
+
+import org.deeplearning4j.spark.parameterserver.encoding.ParameterUpdate;
+import org.deeplearning4j.spark.parameterserver.server.ShardSnapshot;
+
+/**
+ * Connection to a sharded parameter server, as used by the workers (to push updates and pull parameters) and by the
+ * training master (to pull the final parameters).
+ * Implementations must be safe for use by multiple threads.
+ *
+ * @see ParameterServerTransportProvider
+ */
+public interface ParameterServerTransport {
+
+    /**
+     * @return Number of parameter shards
+     */
+    int numShards();
+
+    /**
+     * @return Offsets of each shard in the flattened parameter vector, followed by the total number of parameters
+     * (i.e., length numShards() + 1)
+     */
+    int[] getShardOffsets();
+
+    /**
+     * @param shard Index of the shard
+     * @return Current version of the shard: the number of updates that have been applied to it
+     */
+    long getVersion(int shard);
+
+    /**
+     * @param shard Index of the shard
+     * @return Copy of the current shard values
+     */
+    ShardSnapshot pull(int shard);
+
+    /**
+     * Apply an update to the specified shard. The update may be applied asynchronously.
+     *
+     * @param shard  Index of the shard
+     * @param update Update for the shard. Indices are relative to the start of the shard
+     */
+    void push(int shard, ParameterUpdate update);
+
+}
@@ -0,0 +1,39 @@
+package org.deeplearning4j.spark.parameterserver.transport;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.Serializable;
+
+/**
+ * Provides the parameter server for a training session: the server is started on the driver by the training master,
+ * and each worker connects to it by session ID. The provider itself is serialized (with the workers), hence
+ * implementations should not hold references to the server or to open connections.
+ *
+ * @see InProcessTransportProvider
+ */
+public interface ParameterServerTransportProvider extends Serializable {
+
+    /**
+     * Start a parameter server for the specified session (called on the driver)
+     *
+     * @param sessionId         Unique ID for the training session
+     * @param initialParameters Initial values for the (flattened) parameters
+     * @param numShards         Number of shards to split the parameters into
+     */
+    void startServer(String sessionId, INDArray initialParameters, int numShards);
+
+    /**
+     * Connect to the parameter server for the specified session (called on the workers and on the driver)
+     *
+     * @param sessionId ID of the training session
+     */
+    ParameterServerTransport connect(String sessionId);
+
+    /**
+     * Stop the parameter server for the specified session, and release its resources (called on the driver)
+     *
+     * @param sessionId ID of the training session
+     */
+    void stopServer(String sessionId);
+
+}
@@ -0,0 +1,259 @@
+package org.deeplearning4j.spark.parameterserver;
+
+import org.apache.spark.SparkConf;
+import org.apache.spark.TaskContext;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.deeplearning4j.spark.api.Repartition;
+import org.deeplearning4j.spark.api.TrainingHook;
+import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingMaster;
+import org.deeplearning4j.spark.parameterserver.transport.InProcessTransportProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class TestParameterServerTrainingMaster {
+    private static final Logger log = LoggerFactory.getLogger(TestParameterServerTrainingMaster.class);
+
+    private static final int NUM_WORKERS = 4;
+    private JavaSparkContext sc;
+
+    @Before
+    public void before() {
+        sc = new JavaSparkContext(new SparkConf().setMaster("local[" + NUM_WORKERS + "]").setAppName("pstest"));
+    }
+
+    @After
+    public void after() {
+        sc.close();
+        sc = null;
+    }
+
+    private static MultiLayerConfiguration getConf() {
+        return getConf(Updater.SGD);
+    }
+
+    private static MultiLayerConfiguration getConf(Updater updater) {
+        return new NeuralNetConfiguration.Builder().seed(12345).updater(updater).learningRate(0.1)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                        .weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(10).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(10).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .pretrain(false).backprop(true).build();
+    }
+
+    private JavaRDD<DataSet> getIrisData() {
+        List<DataSet> list = new ArrayList<>();
+        DataSetIterator iter = new IrisDataSetIterator(1, 150);
+        while (iter.hasNext())
+            list.add(iter.next());
+        Collections.shuffle(list, new Random(12345));
+        return sc.parallelize(list);
+    }
+
+    @Test
+    public void testTraining() {
+        MultiLayerNetwork net = new MultiLayerNetwork(getConf());
+        net.init();
+
+        DataSet all = new IrisDataSetIterator(150, 150).next();
+        double scoreBefore = net.score(all);
+
+        ParameterServerTrainingMaster tm = new ParameterServerTrainingMaster.Builder(NUM_WORKERS, 1)
+                        .batchSizePerWorker(5).numShards(3).updateThreshold(1e-3).maxStaleness(2).build();
+        SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, net, tm);
+
+        JavaRDD<DataSet> data = getIrisData();
+        for (int i = 0; i < 5; i++) {
+            sparkNet.fit(data);
+        }
+
+        double scoreAfter = sparkNet.getNetwork().score(all);
+        assertTrue(scoreBefore + " vs. " + scoreAfter, scoreAfter < scoreBefore);
+
+        //Server should have been shut down after training
+        assertNull(tm.getSessionId());
+        try {
+            new InProcessTransportProvider().connect(tm.getTrainingMasterUID() + "_0");
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            //OK
+        }
+    }
+
+    @Test
+    public void testStraggler() {
+        //One worker is much slower than the others. With parameter averaging, the other workers wait for it at the end
+        // of each averaging round; with the parameter server, they don't (no averaging rounds), and should finish all
+        // of their minibatches before the straggler
+        JavaRDD<DataSet> data = getIrisData();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(getConf());
+        net.init();
+        ParameterAveragingTrainingMaster paramAvg = new ParameterAveragingTrainingMaster.Builder(NUM_WORKERS, 1)
+                        .batchSizePerWorker(5).averagingFrequency(5).repartionData(Repartition.Always)
+                        .trainingHooks(Collections.<TrainingHook>singletonList(new SlowHook())).build();
+        SlowHook.reset();
+        long start = System.currentTimeMillis();
+        new SparkDl4jMultiLayer(sc, net, paramAvg).fit(data);
+        long paramAvgTime = System.currentTimeMillis() - start;
+        long paramAvgFastTime = SlowHook.fastWorkerTime();
+
+        net = new MultiLayerNetwork(getConf());
+        net.init();
+        INDArray initialParams = net.params().dup();
+        ParameterServerTrainingMaster tm = new ParameterServerTrainingMaster.Builder(NUM_WORKERS, 1)
+                        .batchSizePerWorker(5).trainingHooks(Collections.<TrainingHook>singletonList(new SlowHook()))
+                        .build();
+        SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, net, tm);
+        SlowHook.reset();
+        start = System.currentTimeMillis();
+        sparkNet.fit(data);
+        long paramServerTime = System.currentTimeMillis() - start;
+        long paramServerFastTime = SlowHook.fastWorkerTime();
+
+        log.info("Straggler: parameter averaging {} ms (fast workers done after {} ms of training), parameter server "
+                        + "{} ms (fast workers done after {} ms of training)", paramAvgTime, paramAvgFastTime,
+                        paramServerTime, paramServerFastTime);
+
+        assertNotEquals(initialParams, sparkNet.getNetwork().params());
+        assertTrue(SlowHook.FINISH_TIMES.containsKey(SlowHook.SLOW_PARTITION));
+        assertTrue(SlowHook.FINISH_TIMES.size() > 1);
+        long stragglerFinish = SlowHook.FINISH_TIMES.get(SlowHook.SLOW_PARTITION);
+        for (Map.Entry<Integer, Long> e : SlowHook.FINISH_TIMES.entrySet()) {
+            if (e.getKey() != SlowHook.SLOW_PARTITION) {
+                assertTrue("Partition " + e.getKey() + " finished after the straggler", e.getValue() < stragglerFinish);
+            }
+        }
+        assertTrue(paramServerFastTime + " vs. " + paramAvgFastTime, paramServerFastTime < paramAvgFastTime);
+    }
+
+    @Test
+    public void testUpdaterState() {
+        //Updater state (here: Adam moment estimates) should be broadcast to the workers and returned after training
+        MultiLayerNetwork net = new MultiLayerNetwork(getConf(Updater.ADAM));
+        net.init();
+        INDArray initialState = net.getUpdater().getStateViewArray().dup();
+        assertEquals(0.0, initialState.norm2Number().doubleValue(), 0.0);
+
+        ParameterServerTrainingMaster tm = new ParameterServerTrainingMaster.Builder(NUM_WORKERS, 1)
+                        .batchSizePerWorker(5).numShards(3).updateThreshold(1e-3).build();
+        SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, net, tm);
+
+        JavaRDD<DataSet> data = getIrisData();
+        sparkNet.fit(data);
+        INDArray stateAfterFirst = sparkNet.getNetwork().getUpdater().getStateViewArray().dup();
+        assertTrue(stateAfterFirst.norm2Number().doubleValue() > 0.0);
+
+        sparkNet.fit(data);
+        INDArray stateAfterSecond = sparkNet.getNetwork().getUpdater().getStateViewArray();
+        assertNotEquals(stateAfterFirst, stateAfterSecond);
+    }
+
+    @Test
+    public void testResidualFlushed() {
+        //With a threshold much larger than any update, nothing is sent during training: the parameters should still
+        // change, as the residual is pushed at the end of each partition
+        MultiLayerNetwork net = new MultiLayerNetwork(getConf());
+        net.init();
+        INDArray initialParams = net.params().dup();
+
+        ParameterServerTrainingMaster tm = new ParameterServerTrainingMaster.Builder(NUM_WORKERS, 1)
+                        .batchSizePerWorker(5).numShards(3).updateThreshold(1e3).build();
+        SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, net, tm);
+        sparkNet.fit(getIrisData());
+
+        assertNotEquals(initialParams, sparkNet.getNetwork().params());
+    }
+
+    @Test
+    public void testJsonYaml() {
+        ParameterServerTrainingMaster tm = new ParameterServerTrainingMaster.Builder(2, 1).batchSizePerWorker(32)
+                        .numShards(7).updateThreshold(0.01).maxStaleness(3).build();
+
+        String json = tm.toJson();
+        String yaml = tm.toYaml();
+
+        assertEquals(tm, ParameterServerTrainingMaster.fromJson(json));
+        assertEquals(tm, ParameterServerTrainingMaster.fromYaml(yaml));
+    }
+
+    private static class SlowHook implements TrainingHook {
+        private static final int SLOW_PARTITION = 0;
+        //Static: Spark is running in local mode. Time at which training started (first minibatch on any partition),
+        // and at which each partition finished its last minibatch
+        private static final AtomicLong START_TIME = new AtomicLong();
+        private static final Map<Integer, Long> FINISH_TIMES = new ConcurrentHashMap<>();
+
+        private static void reset() {
+            START_TIME.set(0);
+            FINISH_TIMES.clear();
+        }
+
+        /**
+         * @return Time (ms) from the start of training until the last of the fast partitions finished
+         */
+        private static long fastWorkerTime() {
+            long last = 0;
+            for (Map.Entry<Integer, Long> e : FINISH_TIMES.entrySet()) {
+                if (e.getKey() != SLOW_PARTITION)
+                    last = Math.max(last, e.getValue());
+            }
+            return last - START_TIME.get();
+        }
+
+        @Override
+        public void preUpdate(org.nd4j.linalg.dataset.api.DataSet minibatch, Model model) {
+            START_TIME.compareAndSet(0, System.currentTimeMillis());
+            if (TaskContext.getPartitionId() == SLOW_PARTITION) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void postUpdate(org.nd4j.linalg.dataset.api.DataSet minibatch, Model model) {
+            FINISH_TIMES.put(TaskContext.getPartitionId(), System.currentTimeMillis());
+        }
+
+        @Override
+        public void preUpdate(MultiDataSet minibatch, Model model) {}
+
+        @Override
+        public void postUpdate(MultiDataSet minibatch, Model model) {}
+    }
+}
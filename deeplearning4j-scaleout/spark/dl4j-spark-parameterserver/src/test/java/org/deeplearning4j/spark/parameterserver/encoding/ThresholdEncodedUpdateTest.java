@@ -0,0 +1,64 @@
+package org.deeplearning4j.spark.parameterserver.encoding;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ThresholdEncodedUpdateTest {
+
+    @Test
+    public void testEncodeDecode() {
+        DataBuffer residual = Nd4j.createBuffer(new double[] {0.5, -0.05, 0.1, -0.25, 0.0, 0.09, 1.0});
+        //Encode indices 1 to 6 only
+        ThresholdEncodedUpdate update = ThresholdEncodedUpdate.encode(residual, 1, 6, 0.1);
+        assertEquals(5, update.length());
+        assertEquals(2, update.numValues());
+
+        //Encoded values subtracted from the residual; values outside of the range are unchanged
+        assertArrayEquals(new double[] {0.5, -0.05, 0.0, -0.15, 0.0, 0.09, 1.0}, residual.asDouble(), 1e-6);
+
+        double[] target = new double[5];
+        SerializationUtils.clone(update).addTo(target);
+        assertArrayEquals(new double[] {0.0, 0.1, -0.1, 0.0, 0.0}, target, 1e-6);
+    }
+
+    @Test
+    public void testResidualSentEventually() {
+        DataBuffer residual = Nd4j.createBuffer(new double[3]);
+        double[] server = new double[3];
+        double[] step = {0.03, -0.07, 0.001};
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 3; j++) {
+                residual.put(j, residual.getDouble(j) + step[j]);
+            }
+            ThresholdEncodedUpdate.encode(residual, 0, 3, 0.1).addTo(server);
+        }
+
+        //Total sent + residual == total update; residual is less than the threshold
+        for (int j = 0; j < 3; j++) {
+            assertEquals(100 * step[j], server[j] + residual.getDouble(j), 1e-4);
+            assertEquals(0.0, residual.getDouble(j), 0.1);
+        }
+    }
+
+    @Test
+    public void testFlushResidual() {
+        DataBuffer residual = Nd4j.createBuffer(new double[] {0.5, -0.05, 0.0, 0.09, 1.0});
+        //Flush indices 1 to 4 only: all non-zero values are sent exactly, regardless of magnitude
+        SparseUpdate update = SparseUpdate.flush(residual, 1, 4);
+        assertEquals(3, update.length());
+        assertEquals(2, update.numValues());
+        assertArrayEquals(new double[] {0.5, 0.0, 0.0, 0.0, 1.0}, residual.asDouble(), 1e-6);
+
+        double[] target = {1.0, 1.0, 1.0};
+        SerializationUtils.clone(update).addTo(target);
+        assertArrayEquals(new double[] {0.95, 1.0, 1.09}, target, 1e-6);
+
+        //Nothing left to flush
+        assertEquals(0, SparseUpdate.flush(residual, 1, 4).numValues());
+    }
+}
@@ -7,12 +7,18 @@ package org.deeplearning4j.spark.api;
  * be problematic when the number of elements in a RDD is small<br>
  * Balanced: a custom repartitioning strategy that attempts to ensure that each partition ends up with the correct number
  * of elements. It has a slightly higher overhead (need to count the number of values in each partition) but should be less
- * prone to random sampling variance than the SparkDefault strategy
+ * prone to random sampling variance than the SparkDefault strategy<br>
+ * Adaptive: balances the predicted training time of each partition, instead of the number of elements. The cost of
+ * each element (such as the number of example time steps) and worker fit times from previous averaging rounds are used
+ * to predict training time, and elements are moved from the most loaded to the least loaded partitions between rounds
+ * (see {@link org.deeplearning4j.spark.impl.common.repartition.AdaptiveRepartitioner}). Worker fit times are only
+ * available when training statistics collection is enabled. Where no round-to-round state is available, this is
+ * equivalent to Balanced
  *
  *
  * @author Alex Black
  */
 public enum RepartitionStrategy {
-    SparkDefault, Balanced
+    SparkDefault, Balanced, Adaptive
 
 }
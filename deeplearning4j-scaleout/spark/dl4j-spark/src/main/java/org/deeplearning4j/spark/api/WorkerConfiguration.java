@@ -20,5 +20,12 @@ public class WorkerConfiguration implements Serializable {
     protected final int maxBatchesPerWorker;
     protected final int prefetchNumBatches;
     protected final boolean collectTrainingStats;
+    protected final long dataSetCacheSizeBytes; //Executor-local cache of deserialized DataSets (path/PDS data only). 0 to disable
+
+    public WorkerConfiguration(boolean isGraphNetwork, int dataSetObjectSizeExamples, int batchSizePerWorker,
+                    int maxBatchesPerWorker, int prefetchNumBatches, boolean collectTrainingStats) {
+        this(isGraphNetwork, dataSetObjectSizeExamples, batchSizePerWorker, maxBatchesPerWorker, prefetchNumBatches,
+                        collectTrainingStats, 0);
+    }
 
 }
@@ -5,6 +5,7 @@ import org.datavec.spark.functions.FlatMapFunctionAdapter;
 import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
 import org.deeplearning4j.spark.api.TrainingResult;
 import org.deeplearning4j.spark.api.TrainingWorker;
+import org.deeplearning4j.spark.iterator.DataSetCache;
 import org.deeplearning4j.spark.iterator.PortableDataStreamDataSetIterator;
 import org.nd4j.linalg.dataset.DataSet;
 
@@ -34,13 +35,21 @@ public class ExecuteWorkerPDSFlatMap<R extends TrainingResult>
 class ExecuteWorkerPDSFlatMapAdapter<R extends TrainingResult>
                 implements FlatMapFunctionAdapter<Iterator<PortableDataStream>, R> {
     private final FlatMapFunctionAdapter<Iterator<DataSet>, R> workerFlatMap;
+    private final long dataSetCacheSizeBytes;
 
     public ExecuteWorkerPDSFlatMapAdapter(TrainingWorker<R> worker) {
         this.workerFlatMap = new ExecuteWorkerFlatMapAdapter<>(worker);
+        this.dataSetCacheSizeBytes = worker.getDataConfiguration().getDataSetCacheSizeBytes();
     }
 
     @Override
     public Iterable<R> call(Iterator<PortableDataStream> iter) throws Exception {
-        return workerFlatMap.call(new PortableDataStreamDataSetIterator(iter));
+        DataSetCache cache = null;
+        if (dataSetCacheSizeBytes > 0) {
+            cache = DataSetCache.getInstance();
+            cache.setMaxSizeBytes(dataSetCacheSizeBytes);
+        }
+
+        return workerFlatMap.call(new PortableDataStreamDataSetIterator(iter, cache));
     }
 }
@@ -5,6 +5,7 @@ import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
 import org.deeplearning4j.spark.api.TrainingResult;
 import org.deeplearning4j.spark.api.TrainingWorker;
 import org.deeplearning4j.spark.api.WorkerConfiguration;
+import org.deeplearning4j.spark.iterator.DataSetCache;
 import org.deeplearning4j.spark.iterator.PathSparkDataSetIterator;
 import org.nd4j.linalg.dataset.DataSet;
 
@@ -38,9 +39,11 @@ public class ExecuteWorkerPathFlatMap<R extends TrainingResult>
 class ExecuteWorkerPathFlatMapAdapter<R extends TrainingResult> implements FlatMapFunctionAdapter<Iterator<String>, R> {
     private final FlatMapFunctionAdapter<Iterator<DataSet>, R> workerFlatMap;
     private final int maxDataSetObjects;
+    private final long dataSetCacheSizeBytes;
 
     public ExecuteWorkerPathFlatMapAdapter(TrainingWorker<R> worker) {
         this.workerFlatMap = new ExecuteWorkerFlatMapAdapter<>(worker);
+        this.dataSetCacheSizeBytes = worker.getDataConfiguration().getDataSetCacheSizeBytes();
 
         //How many dataset objects of size 'dataSetObjectNumExamples' should we load?
         //Only pass on the required number, not all of them (to avoid async preloading data that won't be used)
@@ -68,6 +71,12 @@ class ExecuteWorkerPathFlatMapAdapter<R extends TrainingResult> implements FlatM
             list.add(iter.next());
         }
 
-        return workerFlatMap.call(new PathSparkDataSetIterator(list.iterator()));
+        DataSetCache cache = null;
+        if (dataSetCacheSizeBytes > 0) {
+            cache = DataSetCache.getInstance();
+            cache.setMaxSizeBytes(dataSetCacheSizeBytes);
+        }
+
+        return workerFlatMap.call(new PathSparkDataSetIterator(list.iterator(), cache));
     }
 }
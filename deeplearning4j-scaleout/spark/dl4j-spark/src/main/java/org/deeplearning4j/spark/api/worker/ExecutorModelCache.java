@@ -0,0 +1,98 @@
+package org.deeplearning4j.spark.api.worker;
+
+import org.deeplearning4j.nn.api.Model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An executor (JVM) local pool of initialized networks, keyed by training session.<br>
+ * Creating a network from the broadcast configuration and parameters requires creating the layers, parameter views
+ * and updater state: for short averaging periods, this can be a significant fraction of the time for each split.
+ * Workers can instead take a previously initialized network from this cache (if one is available for the session),
+ * overwrite its parameters and updater state in place, and return it to the cache once they are done with it.
+ * <p>
+ * A network is used by at most one task at a time: {@link #take(String)} removes the network from the cache, and
+ * {@link #release(String, Model)} returns it. The number of networks for a session is thus bounded by the number of
+ * concurrent tasks on the executor. Only the networks for the {@link #DEFAULT_MAX_SESSIONS} most recently used
+ * sessions are retained.
+ * <p>
+ * The session key must change whenever the network configuration changes: the cache does not check configurations.
+ */
+public class ExecutorModelCache {
+
+    public static final int DEFAULT_MAX_SESSIONS = 2;
+
+    private static final ExecutorModelCache INSTANCE = new ExecutorModelCache(DEFAULT_MAX_SESSIONS);
+
+    private final Map<String, Deque<Model>> cache;
+
+    /**
+     * @param maxSessions Maximum number of sessions to retain networks for
+     */
+    public ExecutorModelCache(final int maxSessions) {
+        if (maxSessions < 1)
+            throw new IllegalArgumentException("Invalid maximum number of sessions: " + maxSessions + " (must be >= 1)");
+        this.cache = new LinkedHashMap<String, Deque<Model>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deque<Model>> eldest) {
+                return size() > maxSessions;
+            }
+        };
+    }
+
+    /**
+     * @return The cache instance for this JVM
+     */
+    public static ExecutorModelCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Take a network for the specified session from the cache, if one is available. The network is removed from the
+     * cache until it is returned via {@link #release(String, Model)}
+     *
+     * @param sessionKey Session key
+     * @return A previously initialized network for the session, or null if none is available
+     */
+    public synchronized Model take(String sessionKey) {
+        Deque<Model> models = cache.get(sessionKey);
+        if (models == null)
+            return null;
+        return models.pollFirst();
+    }
+
+    /**
+     * Return a network to the cache, so that it can be reused by later tasks for the same session
+     *
+     * @param sessionKey Session key
+     * @param model      Network to return to the cache. Must not be used by the caller after this method is called
+     */
+    public synchronized void release(String sessionKey, Model model) {
+        Deque<Model> models = cache.get(sessionKey);
+        if (models == null) {
+            models = new ArrayDeque<>();
+            cache.put(sessionKey, models);
+        }
+        models.addFirst(model);
+    }
+
+    /**
+     * @return Total number of networks currently held in the cache
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Deque<Model> models : cache.values())
+            size += models.size();
+        return size;
+    }
+
+    /**
+     * Remove all networks from the cache
+     */
+    public synchronized void clear() {
+        cache.clear();
+    }
+}
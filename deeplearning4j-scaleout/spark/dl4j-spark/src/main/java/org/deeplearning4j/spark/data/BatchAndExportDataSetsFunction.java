@@ -22,6 +22,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.function.Function2;
 import org.deeplearning4j.berkeley.Pair;
+import org.deeplearning4j.spark.data.columnar.ColumnarDataSetFormat;
 import org.deeplearning4j.util.UIDProvider;
 import org.nd4j.linalg.dataset.DataSet;
 
@@ -37,7 +38,9 @@ import java.util.*;
  * <p>
  * Naming convention for exported files:
  * "dataset_" + partitionIdx + JVM_UID + "_" + idx + ".bin"
- * where 'idx' is the index of the DataSet objects in this partition
+ * where 'idx' is the index of the DataSet objects in this partition.<br>
+ * DataSets are saved with {@link DataSet#save(java.io.OutputStream)}, or in the {@link ColumnarDataSetFormat} if a
+ * format is provided
  *
  * @author Alex Black
  */
@@ -47,13 +50,26 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
     private final int minibatchSize;
     private final String exportBaseDirectory;
     private final String jvmuid;
+    private final ColumnarDataSetFormat format;
 
     /**
      * @param minibatchSize       Minibatch size to combine examples to (if necessary)
      * @param exportBaseDirectory Base directory for exporting
      */
     public BatchAndExportDataSetsFunction(int minibatchSize, String exportBaseDirectory) {
+        this(minibatchSize, exportBaseDirectory, null);
+    }
+
+    /**
+     * @param minibatchSize       Minibatch size to combine examples to (if necessary)
+     * @param exportBaseDirectory Base directory for exporting
+     * @param format              Format to export the DataSets in. If null: DataSets are saved with
+     *                            {@link DataSet#save(java.io.OutputStream)}
+     */
+    public BatchAndExportDataSetsFunction(int minibatchSize, String exportBaseDirectory,
+                    ColumnarDataSetFormat format) {
         this.minibatchSize = minibatchSize;
+        this.format = format;
         this.exportBaseDirectory = exportBaseDirectory;
         String fullUID = UIDProvider.getJVMUID();
         this.jvmuid = (fullUID.length() <= 8 ? fullUID : fullUID.substring(0, 8));
@@ -139,7 +155,11 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
                         + filename);
         FileSystem file = FileSystem.get(uri, conf);
         try (FSDataOutputStream out = file.create(new Path(uri))) {
-            dataSet.save(out);
+            if (format != null) {
+                format.write(dataSet, out);
+            } else {
+                dataSet.save(out);
+            }
         }
 
         return uri.getPath();
@@ -5,6 +5,7 @@ import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.function.VoidFunction;
+import org.deeplearning4j.spark.data.columnar.ColumnarDataSetFormat;
 import org.deeplearning4j.util.UIDProvider;
 import org.nd4j.linalg.dataset.DataSet;
 
@@ -14,7 +15,9 @@ import java.util.Iterator;
 /**
  * A function (used in forEachPartition) to save DataSet objects to disk/HDFS. Each DataSet object is given a random and
  * (probably) unique name, starting with "dataset_" and ending  with ".bin".<br>
- * Use with {@code JavaRDD<DataSet>.foreachPartition()}
+ * Use with {@code JavaRDD<DataSet>.foreachPartition()}<br>
+ * DataSets are saved with {@link DataSet#save(java.io.OutputStream)}, or in the {@link ColumnarDataSetFormat} if a
+ * format is provided
  *
  * @author Alex Black
  */
@@ -22,12 +25,23 @@ public class DataSetExportFunction implements VoidFunction<Iterator<DataSet>> {
     private static final Configuration conf = new Configuration();
 
     private final URI outputDir;
+    private final ColumnarDataSetFormat format;
     private String uid = null;
 
     private int outputCount;
 
     public DataSetExportFunction(URI outputDir) {
+        this(outputDir, null);
+    }
+
+    /**
+     * @param outputDir Directory to save the DataSets to
+     * @param format    Format to save the DataSets in. If null: DataSets are saved with
+     *                  {@link DataSet#save(java.io.OutputStream)}
+     */
+    public DataSetExportFunction(URI outputDir, ColumnarDataSetFormat format) {
         this.outputDir = outputDir;
+        this.format = format;
     }
 
     @Override
@@ -45,7 +59,11 @@ public class DataSetExportFunction implements VoidFunction<Iterator<DataSet>> {
             URI uri = new URI(path + (path.endsWith("/") || path.endsWith("\\") ? "" : "/") + filename);
             FileSystem file = FileSystem.get(uri, conf);
             try (FSDataOutputStream out = file.create(new Path(uri))) {
-                next.save(out);
+                if (format != null) {
+                    format.write(next, out);
+                } else {
+                    next.save(out);
+                }
             }
         }
     }
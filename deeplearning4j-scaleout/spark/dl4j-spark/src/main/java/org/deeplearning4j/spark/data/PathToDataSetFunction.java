@@ -5,13 +5,15 @@ import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.function.Function;
+import org.deeplearning4j.spark.data.columnar.ColumnarDataSetFormat;
 import org.nd4j.linalg.dataset.DataSet;
 
 import java.io.IOException;
 import java.net.URI;
 
 /**
- * Simple function used to load DataSets (serialized with DataSet.save()) from a given Path (as a String)
+ * Simple function used to load DataSets (serialized with DataSet.save() or in the {@link ColumnarDataSetFormat}) from
+ * a given Path (as a String)
  * to a DataSet object - i.e., {@code RDD<String>} to {@code RDD<DataSet>}
  *
  * @author Alex Black
@@ -31,9 +33,9 @@ public class PathToDataSetFunction implements Function<String, DataSet> {
             }
         }
 
-        DataSet ds = new DataSet();
+        DataSet ds;
         try (FSDataInputStream inputStream = fileSystem.open(new Path(path), BUFFER_SIZE)) {
-            ds.load(inputStream);
+            ds = ColumnarDataSetFormat.loadRanged(inputStream);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
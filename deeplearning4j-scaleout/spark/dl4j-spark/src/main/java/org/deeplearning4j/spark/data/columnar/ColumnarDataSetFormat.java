@@ -0,0 +1,397 @@
+package org.deeplearning4j.spark.data.columnar;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.hadoop.fs.PositionedReadable;
+import org.deeplearning4j.spark.data.columnar.ColumnarDataSetHeader.ArrayEntry;
+import org.deeplearning4j.spark.data.columnar.ColumnarDataSetHeader.ArrayType;
+import org.deeplearning4j.spark.data.columnar.ColumnarDataSetHeader.StoredType;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A columnar file format for (exported) DataSet objects. Compared to {@link DataSet#save(OutputStream)}:
+ * <ul>
+ *     <li>Each file starts with a small header (see {@link ColumnarDataSetHeader}) with the number of examples, and
+ *     the shape, stored type and location of the features, labels and mask arrays. Headers can be read without reading
+ *     or deserializing the array data</li>
+ *     <li>Each array is stored as a separate block, so individual arrays (for example, only the features) can be
+ *     read with ranged reads: see {@link #readArray(PositionedReadable, ColumnarDataSetHeader, ArrayType)}</li>
+ *     <li>Each block can optionally be compressed ({@link Compression#DEFLATE})</li>
+ *     <li>Values can optionally be stored in half precision (16 bit floating point), halving the file size for float
+ *     data. Values are converted back to the default ND4J data type when loaded</li>
+ * </ul>
+ * Files in this format can be distinguished from files saved with {@link DataSet#save(OutputStream)} by their first
+ * bytes: {@link #load(InputStream)} loads DataSets from either format.
+ * <p>
+ * File layout (big endian): magic bytes, header length (int), number of examples (int), compression (byte), then for
+ * each of the 4 array types: present flag (byte), and if present: stored type (byte), rank (byte), shape (int[rank]),
+ * offset (long), stored length (int), raw length (int). The array blocks follow the header.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnarDataSetFormat implements Serializable {
+
+    /**
+     * Block compression for the arrays
+     */
+    public enum Compression {
+        NONE, DEFLATE
+    }
+
+    /** Magic bytes at the start of each file: "DL4JCOL" and the format version */
+    public static final byte[] MAGIC = {'D', 'L', '4', 'J', 'C', 'O', 'L', 1};
+    private static final int HEADER_BUFFER_SIZE = 512;
+
+    private Compression compression = Compression.NONE;
+    private boolean halfPrecision = false;
+
+    /**
+     * Write the DataSet in this format
+     *
+     * @param dataSet DataSet to write
+     * @param out     Output stream to write to. Not closed by this method
+     */
+    public void write(DataSet dataSet, OutputStream out) throws IOException {
+        INDArray[] arrays = getArrays(dataSet);
+
+        int headerLength = MAGIC.length + 4 + 4 + 1;
+        byte[][] blocks = new byte[arrays.length][];
+        int[] rawLengths = new int[arrays.length];
+        StoredType[] storedTypes = new StoredType[arrays.length];
+        for (int i = 0; i < arrays.length; i++) {
+            headerLength += 1;
+            if (arrays[i] == null)
+                continue;
+            storedTypes[i] = getStoredType(arrays[i]);
+            byte[] raw = toBytes(arrays[i], storedTypes[i]);
+            rawLengths[i] = raw.length;
+            blocks[i] = (compression == Compression.DEFLATE ? deflate(raw) : raw);
+            headerLength += 1 + 1 + 4 * arrays[i].rank() + 8 + 4 + 4;
+        }
+
+        DataOutputStream dos = new DataOutputStream(out);
+        dos.write(MAGIC);
+        dos.writeInt(headerLength);
+        dos.writeInt(dataSet.numExamples());
+        dos.writeByte(compression.ordinal());
+        long offset = headerLength;
+        for (int i = 0; i < arrays.length; i++) {
+            if (arrays[i] == null) {
+                dos.writeByte(0);
+                continue;
+            }
+            dos.writeByte(1);
+            dos.writeByte(storedTypes[i].ordinal());
+            int[] shape = arrays[i].shape();
+            dos.writeByte(shape.length);
+            for (int s : shape)
+                dos.writeInt(s);
+            dos.writeLong(offset);
+            dos.writeInt(blocks[i].length);
+            dos.writeInt(rawLengths[i]);
+            offset += blocks[i].length;
+        }
+        for (byte[] block : blocks) {
+            if (block != null)
+                dos.write(block);
+        }
+        dos.flush();
+    }
+
+    /**
+     * Read only the header of a DataSet file in this format. The stream is positioned at the start of the array data
+     * after this method returns
+     *
+     * @param in Input stream, positioned at the start of the file
+     */
+    public static ColumnarDataSetHeader readHeader(InputStream in) throws IOException {
+        DataInputStream dis = new DataInputStream(in);
+        byte[] magic = new byte[MAGIC.length];
+        dis.readFully(magic);
+        if (!Arrays.equals(MAGIC, magic))
+            throw new IOException("Not a columnar DataSet file: invalid magic bytes " + Arrays.toString(magic));
+
+        int headerLength = dis.readInt();
+        int numExamples = dis.readInt();
+        Compression compression = Compression.values()[dis.readByte()];
+        ArrayEntry[] entries = new ArrayEntry[ArrayType.values().length];
+        for (int i = 0; i < entries.length; i++) {
+            if (dis.readByte() == 0)
+                continue;
+            StoredType storedType = StoredType.values()[dis.readByte()];
+            int[] shape = new int[dis.readByte()];
+            for (int j = 0; j < shape.length; j++)
+                shape[j] = dis.readInt();
+            long offset = dis.readLong();
+            int storedLength = dis.readInt();
+            int rawLength = dis.readInt();
+            entries[i] = new ArrayEntry(storedType, shape, offset, storedLength, rawLength);
+        }
+        return new ColumnarDataSetHeader(numExamples, compression, headerLength, entries);
+    }
+
+    /**
+     * Read a complete DataSet in this format
+     *
+     * @param in Input stream, positioned at the start of the file
+     */
+    public static DataSet read(InputStream in) throws IOException {
+        ColumnarDataSetHeader header = readHeader(in);
+        DataInputStream dis = new DataInputStream(in);
+        INDArray[] arrays = new INDArray[ArrayType.values().length];
+        for (ArrayType t : ArrayType.values()) {
+            ArrayEntry e = header.getEntry(t);
+            if (e == null)
+                continue;
+            byte[] stored = new byte[e.getStoredLength()];
+            dis.readFully(stored);
+            arrays[t.ordinal()] = toArray(stored, e, header.getCompression());
+        }
+        return new DataSet(arrays[0], arrays[1], arrays[2], arrays[3]);
+    }
+
+    /**
+     * Read a single array from a DataSet file in this format, using a ranged (positioned) read: only the data for the
+     * requested array is read
+     *
+     * @param in     File to read from
+     * @param header Header for the file, as returned by {@link #readHeader(InputStream)}
+     * @param type   Array to read
+     * @return The array, or null if the array is not present in the file
+     */
+    public static INDArray readArray(PositionedReadable in, ColumnarDataSetHeader header, ArrayType type)
+                    throws IOException {
+        ArrayEntry e = header.getEntry(type);
+        if (e == null)
+            return null;
+        byte[] stored = new byte[e.getStoredLength()];
+        in.readFully(e.getOffset(), stored);
+        return toArray(stored, e, header.getCompression());
+    }
+
+    /**
+     * Load a DataSet saved either in this format, or with {@link DataSet#save(OutputStream)}
+     *
+     * @param in Input stream, positioned at the start of the file
+     */
+    public static DataSet load(InputStream in) throws IOException {
+        BufferedInputStream bis = new BufferedInputStream(in);
+        if (isColumnar(bis))
+            return read(bis);
+
+        DataSet ds = new DataSet();
+        ds.load(bis);
+        return ds;
+    }
+
+    /**
+     * Load a DataSet saved either in this format, or with {@link DataSet#save(OutputStream)}, from a file that supports
+     * ranged reads (such as a Hadoop FSDataInputStream). For files in this format, only the header is read from the
+     * stream; each array is then read with a single ranged read of its block (see
+     * {@link #readArray(PositionedReadable, ColumnarDataSetHeader, ArrayType)})
+     *
+     * @param in Input stream, positioned at the start of the file
+     */
+    public static <T extends InputStream & PositionedReadable> DataSet loadRanged(T in) throws IOException {
+        //Small buffer: only the magic bytes and header are read through it for files in this format
+        BufferedInputStream bis = new BufferedInputStream(in, HEADER_BUFFER_SIZE);
+        if (!isColumnar(bis)) {
+            DataSet ds = new DataSet();
+            ds.load(bis);
+            return ds;
+        }
+
+        ColumnarDataSetHeader header = readHeader(bis);
+        INDArray[] arrays = new INDArray[ArrayType.values().length];
+        for (ArrayType t : ArrayType.values()) {
+            arrays[t.ordinal()] = readArray(in, header, t);
+        }
+        return new DataSet(arrays[0], arrays[1], arrays[2], arrays[3]);
+    }
+
+    /**
+     * Determine whether the stream contains a DataSet in this format, by checking the magic bytes. The position of
+     * the stream is unchanged after this method returns
+     *
+     * @param in Input stream, positioned at the start of the file
+     */
+    public static boolean isColumnar(BufferedInputStream in) throws IOException {
+        in.mark(MAGIC.length);
+        byte[] start = new byte[MAGIC.length];
+        int read = 0;
+        while (read < start.length) {
+            int r = in.read(start, read, start.length - read);
+            if (r < 0)
+                break;
+            read += r;
+        }
+        in.reset();
+        return read == MAGIC.length && Arrays.equals(MAGIC, start);
+    }
+
+    private static INDArray[] getArrays(DataSet ds) {
+        return new INDArray[] {ds.getFeatures(), ds.getLabels(), ds.getFeaturesMaskArray(), ds.getLabelsMaskArray()};
+    }
+
+    private StoredType getStoredType(INDArray arr) {
+        if (halfPrecision)
+            return StoredType.HALF;
+        return (arr.data().dataType() == DataBuffer.Type.DOUBLE ? StoredType.DOUBLE : StoredType.FLOAT);
+    }
+
+    private static byte[] toBytes(INDArray arr, StoredType storedType) {
+        INDArray c = arr.dup('c');
+        ByteBuffer bb = ByteBuffer.allocate(c.length() * storedType.getBytesPerElement());
+        switch (storedType) {
+            case FLOAT:
+                bb.asFloatBuffer().put(c.data().asFloat());
+                break;
+            case DOUBLE:
+                bb.asDoubleBuffer().put(c.data().asDouble());
+                break;
+            case HALF:
+                ShortBuffer sb = bb.asShortBuffer();
+                for (float f : c.data().asFloat())
+                    sb.put(floatToHalf(f));
+                break;
+        }
+        return bb.array();
+    }
+
+    private static INDArray toArray(byte[] stored, ArrayEntry e, Compression compression) throws IOException {
+        byte[] raw = (compression == Compression.DEFLATE ? inflate(stored, e.getRawLength()) : stored);
+        ByteBuffer bb = ByteBuffer.wrap(raw);
+        int length = e.length();
+        switch (e.getStoredType()) {
+            case DOUBLE:
+                double[] d = new double[length];
+                DoubleBuffer db = bb.asDoubleBuffer();
+                db.get(d);
+                return Nd4j.create(d, e.getShape(), 'c');
+            case FLOAT:
+                float[] f = new float[length];
+                FloatBuffer fb = bb.asFloatBuffer();
+                fb.get(f);
+                return Nd4j.create(f, e.getShape(), 'c');
+            case HALF:
+                float[] h = new float[length];
+                ShortBuffer sb = bb.asShortBuffer();
+                for (int i = 0; i < length; i++)
+                    h[i] = halfToFloat(sb.get());
+                return Nd4j.create(h, e.getShape(), 'c');
+            default:
+                throw new IllegalStateException("Unknown stored type: " + e.getStoredType());
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[65536];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                baos.write(buffer, 0, n);
+            }
+            return baos.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] stored, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            byte[] raw = new byte[rawLength];
+            int pos = 0;
+            while (pos < rawLength) {
+                int n = inflater.inflate(raw, pos, rawLength - pos);
+                if (n == 0 && (inflater.finished() || inflater.needsInput()))
+                    throw new IOException("Corrupt columnar DataSet file: expected " + rawLength + " bytes, got " + pos);
+                pos += n;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt columnar DataSet file", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Convert a float to IEEE 754 half precision (binary16), rounding to nearest. Values too large for half
+     * precision are converted to infinity
+     */
+    static short floatToHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int abs = bits & 0x7fffffff;
+        int rounded = abs + 0x1000;
+
+        if (abs >= 0x7f800000) {
+            //NaN or infinity. Keep NaN as NaN
+            return (short) (sign | 0x7c00 | (abs > 0x7f800000 ? 0x200 : 0));
+        }
+        if (rounded >= 0x47800000) {
+            //Too large: infinity
+            return (short) (sign | 0x7c00);
+        }
+        if (rounded >= 0x38800000) {
+            //Normal half precision value
+            return (short) (sign | ((rounded - 0x38000000) >>> 13));
+        }
+        if (rounded < 0x33000000) {
+            //Too small: zero
+            return (short) sign;
+        }
+        //Subnormal half precision value
+        int exp = abs >>> 23;
+        int mantissa = (abs & 0x7fffff) | 0x800000;
+        return (short) (sign | ((mantissa + (0x800000 >>> (exp - 102))) >>> (126 - exp)));
+    }
+
+    /**
+     * Convert an IEEE 754 half precision (binary16) value to a float
+     */
+    static float halfToFloat(short half) {
+        int bits = half & 0xffff;
+        int sign = (bits & 0x8000) << 16;
+        int exp = (bits >>> 10) & 0x1f;
+        int mantissa = bits & 0x3ff;
+
+        if (exp == 0x1f) {
+            //NaN or infinity
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+        if (exp == 0) {
+            if (mantissa == 0)
+                return Float.intBitsToFloat(sign);
+            //Subnormal: normalize
+            exp = 1;
+            while ((mantissa & 0x400) == 0) {
+                mantissa <<= 1;
+                exp--;
+            }
+            mantissa &= 0x3ff;
+        }
+        return Float.intBitsToFloat(sign | ((exp + 112) << 23) | (mantissa << 13));
+    }
+}
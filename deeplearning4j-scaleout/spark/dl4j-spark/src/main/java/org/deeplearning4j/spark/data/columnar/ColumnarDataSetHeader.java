@@ -0,0 +1,87 @@
+package org.deeplearning4j.spark.data.columnar;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * The header (index) of a DataSet saved in the {@link ColumnarDataSetFormat}: the number of examples, the compression,
+ * and the shape, stored data type and location of each array (features, labels and masks) in the file.<br>
+ * Headers can be read without reading the array data, via {@link ColumnarDataSetFormat#readHeader(java.io.InputStream)}
+ */
+@AllArgsConstructor
+@Data
+public class ColumnarDataSetHeader implements Serializable {
+
+    /**
+     * The arrays that may be stored in a DataSet file, in the order in which they are stored
+     */
+    public enum ArrayType {
+        FEATURES, LABELS, FEATURES_MASK, LABELS_MASK
+    }
+
+    /**
+     * How the values of an array are stored
+     */
+    public enum StoredType {
+        FLOAT, DOUBLE, HALF;
+
+        public int getBytesPerElement() {
+            switch (this) {
+                case FLOAT:
+                    return 4;
+                case DOUBLE:
+                    return 8;
+                case HALF:
+                    return 2;
+                default:
+                    throw new IllegalStateException("Unknown stored type: " + this);
+            }
+        }
+    }
+
+    /**
+     * The index entry for one array
+     */
+    @AllArgsConstructor
+    @Data
+    public static class ArrayEntry implements Serializable {
+        private final StoredType storedType;
+        private final int[] shape;
+        /** Position of the (possibly compressed) array data, in bytes from the start of the file */
+        private final long offset;
+        /** Length of the array data in the file (after compression), in bytes */
+        private final int storedLength;
+        /** Length of the array data before compression, in bytes */
+        private final int rawLength;
+
+        public int length() {
+            int length = 1;
+            for (int s : shape)
+                length *= s;
+            return length;
+        }
+    }
+
+    private final int numExamples;
+    private final ColumnarDataSetFormat.Compression compression;
+    /** Length of the header, in bytes. The array data starts at this position in the file */
+    private final int headerLength;
+    /** Index entries, by {@link ArrayType} ordinal. Null for arrays that are not present (such as absent masks) */
+    private final ArrayEntry[] entries;
+
+    /**
+     * @return The entry for the specified array, or null if the array is not present
+     */
+    public ArrayEntry getEntry(ArrayType type) {
+        return entries[type.ordinal()];
+    }
+
+    /**
+     * @return Whether the specified array is present
+     */
+    public boolean hasArray(ArrayType type) {
+        return entries[type.ordinal()] != null;
+    }
+}
@@ -0,0 +1,116 @@
+package org.deeplearning4j.spark.data.shuffle;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Function (for use with mapPartitions) that combines DataSets of arbitrary size into minibatches of exactly
+ * minibatchSize examples (other than the last minibatch in each partition, which may be smaller). DataSets are split
+ * by row range where required, not into single examples. The output is produced lazily as it is consumed.
+ * <p>
+ * Used in {@link org.deeplearning4j.spark.util.SparkUtils#shuffleExamples(JavaRDD, int, int)} to assemble minibatches
+ * from the output of {@link PackedShuffleDataSetsFunction}
+ */
+public class AssembleMinibatchesFunction extends BaseFlatMapFunctionAdaptee<Iterator<DataSet>, DataSet> {
+
+    public AssembleMinibatchesFunction(int minibatchSize) {
+        super(new AssembleMinibatchesFunctionAdapter(minibatchSize));
+    }
+}
+
+
+class AssembleMinibatchesFunctionAdapter implements FlatMapFunctionAdapter<Iterator<DataSet>, DataSet> {
+
+    private final int minibatchSize;
+
+    public AssembleMinibatchesFunctionAdapter(int minibatchSize) {
+        if (minibatchSize <= 0)
+            throw new IllegalArgumentException("Invalid minibatch size: " + minibatchSize + " (must be >= 1)");
+        this.minibatchSize = minibatchSize;
+    }
+
+    @Override
+    public Iterable<DataSet> call(final Iterator<DataSet> iter) throws Exception {
+        //Minibatches are assembled lazily, as the output is consumed: only the rows of the current (incomplete)
+        // minibatch are held, not the whole output of the partition
+        return new Iterable<DataSet>() {
+            @Override
+            public Iterator<DataSet> iterator() {
+                return new AssemblingIterator(iter);
+            }
+        };
+    }
+
+    private class AssemblingIterator implements Iterator<DataSet> {
+
+        private final Iterator<DataSet> iter;
+        //Row range views for the current minibatch, and the minibatches that are complete but not yet returned
+        private final List<DataSet> pending = new ArrayList<>();
+        private final Deque<DataSet> ready = new ArrayDeque<>();
+        private int count = 0;
+
+        private AssemblingIterator(Iterator<DataSet> iter) {
+            this.iter = iter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (ready.isEmpty()) {
+                if (iter.hasNext()) {
+                    add(iter.next());
+                } else if (count > 0) {
+                    emit();
+                } else {
+                    break;
+                }
+            }
+            return !ready.isEmpty();
+        }
+
+        @Override
+        public DataSet next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return ready.poll();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Not supported");
+        }
+
+        private void add(DataSet ds) {
+            int n = ds.numExamples();
+            if (count == 0 && n == minibatchSize) {
+                ready.add(ds);
+                return;
+            }
+
+            int pos = 0;
+            while (pos < n) {
+                int toTake = Math.min(n - pos, minibatchSize - count);
+                pending.add(PackedShuffleDataSetsFunction.rowRange(ds, pos, pos + toTake));
+                count += toTake;
+                pos += toTake;
+
+                if (count == minibatchSize)
+                    emit();
+            }
+        }
+
+        private void emit() {
+            ready.add(PackedShuffleDataSetsFunction.pack(pending));
+            pending.clear();
+            count = 0;
+        }
+    }
+}
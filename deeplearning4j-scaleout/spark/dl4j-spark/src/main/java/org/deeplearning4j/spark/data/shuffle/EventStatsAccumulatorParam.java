@@ -0,0 +1,29 @@
+package org.deeplearning4j.spark.data.shuffle;
+
+import org.apache.spark.AccumulatorParam;
+import org.deeplearning4j.spark.stats.EventStats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AccumulatorParam for collecting {@link EventStats} from executors into a single list on the driver
+ */
+public class EventStatsAccumulatorParam implements AccumulatorParam<List<EventStats>> {
+
+    @Override
+    public List<EventStats> addInPlace(List<EventStats> l1, List<EventStats> l2) {
+        l1.addAll(l2);
+        return l1;
+    }
+
+    @Override
+    public List<EventStats> zero(List<EventStats> initialValue) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<EventStats> addAccumulator(List<EventStats> l1, List<EventStats> l2) {
+        return addInPlace(l1, l2);
+    }
+}
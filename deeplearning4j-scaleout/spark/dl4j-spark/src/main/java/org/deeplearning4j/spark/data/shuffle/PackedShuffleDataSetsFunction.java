@@ -0,0 +1,308 @@
+package org.deeplearning4j.spark.data.shuffle;
+
+import org.apache.spark.Accumulator;
+import org.apache.spark.api.java.JavaRDD;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import org.deeplearning4j.spark.stats.EventStats;
+import org.deeplearning4j.spark.stats.ShuffleEventStats;
+import org.deeplearning4j.spark.time.TimeSource;
+import org.deeplearning4j.spark.time.TimeSourceProvider;
+import org.deeplearning4j.spark.util.BasePairFlatMapFunctionAdaptee;
+import org.deeplearning4j.util.MathUtils;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.INDArrayIndex;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import scala.Tuple2;
+
+import java.util.*;
+
+/**
+ * A PairFlatMapFunction (for use with mapPartitionsToPair) that randomly assigns each example in a partition to one of
+ * numPartitions destinations, without splitting the DataSets into single examples.<br>
+ * The rows of each DataSet are randomly permuted, and contiguous ranges of the permutation are assigned to each
+ * destination. The rows for each destination are gathered into a single DataSet (one contiguous buffer per array) once
+ * at least packedSize examples are available for that destination, or at the end of the partition. The input DataSets
+ * are not copied or modified, and the output is produced lazily as it is consumed. The key of each output DataSet is
+ * the index of its destination.
+ * <p>
+ * Used in {@link org.deeplearning4j.spark.util.SparkUtils#shuffleExamples(JavaRDD, int, int)}, with
+ * {@link AssembleMinibatchesFunction} to combine the packed DataSets into minibatches after the shuffle.
+ */
+public class PackedShuffleDataSetsFunction
+                extends BasePairFlatMapFunctionAdaptee<Iterator<DataSet>, Integer, DataSet> {
+
+    /**
+     * @param numPartitions Number of destination partitions
+     * @param packedSize    Minimum number of examples in each packed DataSet, other than the last one for each
+     *                      destination. Usually the minibatch size after shuffling
+     * @param stats         Accumulator for the statistics of each partition. May be null
+     */
+    public PackedShuffleDataSetsFunction(int numPartitions, int packedSize, Accumulator<List<EventStats>> stats) {
+        super(new PackedShuffleDataSetsFunctionAdapter(numPartitions, packedSize, stats));
+    }
+
+    /**
+     * Get a DataSet containing the specified rows (examples) of the features, labels and masks. The arrays are views
+     * of the original arrays
+     *
+     * @param ds   DataSet to get the rows from
+     * @param from First row (inclusive)
+     * @param to   Last row (exclusive)
+     */
+    static DataSet rowRange(DataSet ds, int from, int to) {
+        return new DataSet(rowRange(ds.getFeatures(), from, to), rowRange(ds.getLabels(), from, to),
+                        rowRange(ds.getFeaturesMaskArray(), from, to), rowRange(ds.getLabelsMaskArray(), from, to));
+    }
+
+    private static INDArray rowRange(INDArray arr, int from, int to) {
+        if (arr == null)
+            return null;
+        INDArrayIndex[] indexes = new INDArrayIndex[arr.rank()];
+        indexes[0] = NDArrayIndex.interval(from, to);
+        for (int i = 1; i < indexes.length; i++)
+            indexes[i] = NDArrayIndex.all();
+        return arr.get(indexes);
+    }
+
+    /**
+     * Combine the DataSets (usually row range views) into a single DataSet with its own (contiguous) arrays
+     */
+    static DataSet pack(List<DataSet> list) {
+        if (list.size() == 1)
+            return list.get(0).copy();
+        return DataSet.merge(list);
+    }
+
+    /**
+     * Copy the specified rows (examples) of the DataSets into a single DataSet with its own (contiguous) arrays
+     *
+     * @param sources DataSets to get the rows from
+     * @param rows    Indices of the rows to copy, for each source DataSet, in the order they should appear in the output
+     * @param numRows Total number of rows
+     */
+    static DataSet packRows(List<DataSet> sources, List<int[]> rows, int numRows) {
+        List<INDArray> features = new ArrayList<>(sources.size());
+        List<INDArray> labels = new ArrayList<>(sources.size());
+        List<INDArray> featuresMask = new ArrayList<>(sources.size());
+        List<INDArray> labelsMask = new ArrayList<>(sources.size());
+        for (DataSet ds : sources) {
+            features.add(ds.getFeatures());
+            labels.add(ds.getLabels());
+            featuresMask.add(ds.getFeaturesMaskArray());
+            labelsMask.add(ds.getLabelsMaskArray());
+        }
+        return new DataSet(packRowsOf(features, rows, numRows), packRowsOf(labels, rows, numRows),
+                        packRowsOf(featuresMask, rows, numRows), packRowsOf(labelsMask, rows, numRows));
+    }
+
+    private static INDArray packRowsOf(List<INDArray> sources, List<int[]> rows, int numRows) {
+        INDArray first = sources.get(0);
+        if (first == null)
+            return null;
+        int[] shape = first.shape().clone();
+        shape[0] = numRows;
+        INDArray out = Nd4j.create(shape, first.ordering());
+        int k = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            INDArray source = sources.get(i);
+            int[] r = rows.get(i);
+            if (r.length == 0)
+                continue;
+            INDArray gathered = gatherRows(source, r);
+            if (gathered != null) {
+                rowRange(out, k, k + r.length).assign(gathered);
+                k += r.length;
+                continue;
+            }
+
+            //Rows can't be gathered in one op: copy each run of consecutive rows with a single (row range) assign
+            int start = 0;
+            while (start < r.length) {
+                int end = start + 1;
+                while (end < r.length && r[end] == r[end - 1] + 1)
+                    end++;
+                int runLength = end - start;
+                rowRange(out, k, k + runLength).assign(rowRange(source, r[start], r[start] + runLength));
+                k += runLength;
+                start = end;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Gather the specified rows of the array with {@link Nd4j#pullRows(INDArray, int, int[], char)}: directly for
+     * matrices, or via a 2d view for 'c' order arrays of higher rank without offset or gaps (such as the arrays of
+     * deserialized DataSets)
+     *
+     * @return The gathered rows, or null if the rows of the array can't be gathered in one op
+     */
+    private static INDArray gatherRows(INDArray source, int[] rows) {
+        if (source.rank() == 2)
+            return Nd4j.pullRows(source, 1, rows, 'c');
+        if (source.ordering() != 'c' || source.isView() || source.offset() != 0
+                        || source.data().length() != source.length())
+            return null;
+
+        int rowLength = source.length() / source.size(0);
+        INDArray matrix = source.reshape('c', source.size(0), rowLength);
+        int[] shape = source.shape().clone();
+        shape[0] = rows.length;
+        return Nd4j.pullRows(matrix, 1, rows, 'c').reshape('c', shape);
+    }
+
+    /**
+     * @return Total size of the feature, label and mask arrays, in bytes
+     */
+    static long sizeBytes(DataSet ds) {
+        return sizeBytes(ds.getFeatures()) + sizeBytes(ds.getLabels()) + sizeBytes(ds.getFeaturesMaskArray())
+                        + sizeBytes(ds.getLabelsMaskArray());
+    }
+
+    private static long sizeBytes(INDArray arr) {
+        if (arr == null)
+            return 0;
+        return arr.length() * (long) arr.data().getElementSize();
+    }
+}
+
+
+class PackedShuffleDataSetsFunctionAdapter
+                implements FlatMapFunctionAdapter<Iterator<DataSet>, Tuple2<Integer, DataSet>> {
+
+    private final int numPartitions;
+    private final int packedSize;
+    private final Accumulator<List<EventStats>> stats;
+
+    public PackedShuffleDataSetsFunctionAdapter(int numPartitions, int packedSize,
+                    Accumulator<List<EventStats>> stats) {
+        if (numPartitions <= 0)
+            throw new IllegalArgumentException("Invalid number of partitions: " + numPartitions + " (must be >= 1)");
+        if (packedSize <= 0)
+            throw new IllegalArgumentException("Invalid packed size: " + packedSize + " (must be >= 1)");
+        this.numPartitions = numPartitions;
+        this.packedSize = packedSize;
+        this.stats = stats;
+    }
+
+    @Override
+    public Iterable<Tuple2<Integer, DataSet>> call(final Iterator<DataSet> iter) throws Exception {
+        //Packed DataSets are created lazily, as the output is consumed: only the pending rows for each destination are
+        // held in memory, not the whole output of the partition
+        return new Iterable<Tuple2<Integer, DataSet>>() {
+            @Override
+            public Iterator<Tuple2<Integer, DataSet>> iterator() {
+                return new PackingIterator(iter);
+            }
+        };
+    }
+
+    private class PackingIterator implements Iterator<Tuple2<Integer, DataSet>> {
+
+        private final Iterator<DataSet> iter;
+        private final Random r = new Random();
+        private final TimeSource timeSource = TimeSourceProvider.getInstance();
+        private final long startTime = timeSource.currentTimeMillis();
+
+        //Rows not yet emitted for each destination: the source DataSets (not copied), and the row indices in each
+        private final List<List<DataSet>> pendingSources = new ArrayList<>(numPartitions);
+        private final List<List<int[]>> pendingRows = new ArrayList<>(numPartitions);
+        private final int[] pendingCount = new int[numPartitions];
+        private final Deque<Tuple2<Integer, DataSet>> ready = new ArrayDeque<>();
+        private boolean flushed = false;
+
+        private long numExamples = 0;
+        private long numBytes = 0;
+        private int numObjects = 0;
+
+        private PackingIterator(Iterator<DataSet> iter) {
+            this.iter = iter;
+            for (int i = 0; i < numPartitions; i++) {
+                pendingSources.add(new ArrayList<DataSet>());
+                pendingRows.add(new ArrayList<int[]>());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (ready.isEmpty() && !flushed) {
+                if (iter.hasNext()) {
+                    assign(iter.next());
+                } else {
+                    for (int d = 0; d < numPartitions; d++) {
+                        if (pendingCount[d] > 0)
+                            emit(d);
+                    }
+                    flushed = true;
+                    if (stats != null) {
+                        long endTime = timeSource.currentTimeMillis();
+                        List<EventStats> l = new ArrayList<>();
+                        l.add(new ShuffleEventStats(startTime, endTime - startTime, numExamples, numObjects,
+                                        numBytes));
+                        stats.add(l);
+                    }
+                }
+            }
+            return !ready.isEmpty();
+        }
+
+        @Override
+        public Tuple2<Integer, DataSet> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return ready.poll();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Not supported");
+        }
+
+        /**
+         * Randomly assign the rows of the DataSet to the destinations, emitting any destinations with at least
+         * packedSize pending rows. The input is not modified (it may be cached)
+         */
+        private void assign(DataSet ds) {
+            int n = ds.numExamples();
+            if (n == 0)
+                return;
+            numExamples += n;
+
+            int[] counts = new int[numPartitions];
+            for (int i = 0; i < n; i++)
+                counts[r.nextInt(numPartitions)]++;
+
+            //Random permutation of the rows: each destination gets a contiguous range of it
+            int[] perm = new int[n];
+            for (int i = 0; i < n; i++)
+                perm[i] = i;
+            MathUtils.shuffleArray(perm, r);
+
+            int pos = 0;
+            for (int d = 0; d < numPartitions; d++) {
+                if (counts[d] == 0)
+                    continue;
+                pendingSources.get(d).add(ds);
+                pendingRows.get(d).add(Arrays.copyOfRange(perm, pos, pos + counts[d]));
+                pendingCount[d] += counts[d];
+                pos += counts[d];
+
+                if (pendingCount[d] >= packedSize)
+                    emit(d);
+            }
+        }
+
+        private void emit(int destination) {
+            DataSet packed = PackedShuffleDataSetsFunction.packRows(pendingSources.get(destination),
+                            pendingRows.get(destination), pendingCount[destination]);
+            pendingSources.get(destination).clear();
+            pendingRows.get(destination).clear();
+            pendingCount[destination] = 0;
+            ready.add(new Tuple2<>(destination, packed));
+            numObjects++;
+            numBytes += PackedShuffleDataSetsFunction.sizeBytes(packed);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.deeplearning4j.spark.data.shuffle;
+
+import lombok.Data;
+import org.apache.spark.SparkContext;
+import org.apache.spark.api.java.JavaRDD;
+import org.deeplearning4j.spark.api.stats.CommonSparkTrainingStats;
+import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.stats.EventStats;
+import org.deeplearning4j.spark.stats.ShuffleEventStats;
+import org.deeplearning4j.spark.stats.StatsUtils;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Statistics for shuffling examples via
+ * {@link org.deeplearning4j.spark.util.SparkUtils#shuffleExamplesWithStats(JavaRDD, int, int)}: the total time for
+ * the shuffle (as measured on the driver), and the time, number of examples, number of objects and number of bytes
+ * sent to the shuffle for each input partition. All values are {@link ShuffleEventStats} instances.
+ */
+@Data
+public class ShuffleStats implements SparkTrainingStats {
+
+    public static final String DEFAULT_DELIMITER = CommonSparkTrainingStats.DEFAULT_DELIMITER;
+    public static final String FILENAME_TOTAL_TIME_STATS = "shuffleTotalTimeMs.txt";
+    public static final String FILENAME_PARTITION_STATS = "shufflePartitionTimesMs.txt";
+
+    public static final String SHUFFLE_TOTAL_TIME_MS = "ShuffleTotalTimeMs";
+    public static final String SHUFFLE_PARTITION_TIMES_MS = "ShufflePartitionTimesMs";
+    private static Set<String> columnNames = Collections.unmodifiableSet(
+                    new LinkedHashSet<>(Arrays.asList(SHUFFLE_TOTAL_TIME_MS, SHUFFLE_PARTITION_TIMES_MS)));
+
+    private List<EventStats> shuffleTotalTimeMs;
+    private List<EventStats> shufflePartitionTimesMs;
+
+    public ShuffleStats(List<EventStats> shuffleTotalTimeMs, List<EventStats> shufflePartitionTimesMs) {
+        this.shuffleTotalTimeMs = shuffleTotalTimeMs;
+        this.shufflePartitionTimesMs = shufflePartitionTimesMs;
+    }
+
+    /**
+     * @return Total size of the arrays sent to the shuffle, in bytes
+     */
+    public long getTotalBytes() {
+        long sum = 0;
+        for (EventStats e : shufflePartitionTimesMs)
+            sum += ((ShuffleEventStats) e).getNumBytes();
+        return sum;
+    }
+
+    /**
+     * @return Total number of (packed) objects sent to the shuffle
+     */
+    public long getTotalObjects() {
+        long sum = 0;
+        for (EventStats e : shufflePartitionTimesMs)
+            sum += ((ShuffleEventStats) e).getNumObjects();
+        return sum;
+    }
+
+    /**
+     * @return Total time for the shuffle, in milliseconds
+     */
+    public long getTotalTimeMs() {
+        long sum = 0;
+        for (EventStats e : shuffleTotalTimeMs)
+            sum += e.getDurationMs();
+        return sum;
+    }
+
+    @Override
+    public Set<String> getKeySet() {
+        return columnNames;
+    }
+
+    @Override
+    public List<EventStats> getValue(String key) {
+        switch (key) {
+            case SHUFFLE_TOTAL_TIME_MS:
+                return shuffleTotalTimeMs;
+            case SHUFFLE_PARTITION_TIMES_MS:
+                return shufflePartitionTimesMs;
+            default:
+                throw new IllegalArgumentException("Unknown key: \"" + key + "\"");
+        }
+    }
+
+    @Override
+    public String getShortNameForKey(String key) {
+        switch (key) {
+            case SHUFFLE_TOTAL_TIME_MS:
+                return "Shuffle";
+            case SHUFFLE_PARTITION_TIMES_MS:
+                return "ShufflePartition";
+            default:
+                throw new IllegalArgumentException("Unknown key: \"" + key + "\"");
+        }
+    }
+
+    @Override
+    public boolean defaultIncludeInPlots(String key) {
+        switch (key) {
+            case SHUFFLE_TOTAL_TIME_MS:
+            case SHUFFLE_PARTITION_TIMES_MS:
+                return true;
+            default:
+                throw new IllegalArgumentException("Unknown key: \"" + key + "\"");
+        }
+    }
+
+    @Override
+    public void addOtherTrainingStats(SparkTrainingStats other) {
+        if (!(other instanceof ShuffleStats))
+            throw new IllegalArgumentException(
+                            "Cannot merge ShuffleStats with " + (other != null ? other.getClass() : null));
+
+        ShuffleStats o = (ShuffleStats) other;
+        this.shuffleTotalTimeMs.addAll(o.shuffleTotalTimeMs);
+        this.shufflePartitionTimesMs.addAll(o.shufflePartitionTimesMs);
+    }
+
+    @Override
+    public SparkTrainingStats getNestedTrainingStats() {
+        return null;
+    }
+
+    @Override
+    public String statsAsString() {
+        StringBuilder sb = new StringBuilder();
+        String f = SparkTrainingStats.DEFAULT_PRINT_FORMAT;
+
+        sb.append(String.format(f, SHUFFLE_TOTAL_TIME_MS));
+        if (shuffleTotalTimeMs == null)
+            sb.append("-\n");
+        else
+            sb.append(StatsUtils.getDurationAsString(shuffleTotalTimeMs, ",")).append("\n");
+
+        sb.append(String.format(f, SHUFFLE_PARTITION_TIMES_MS));
+        if (shufflePartitionTimesMs == null)
+            sb.append("-\n");
+        else
+            sb.append(StatsUtils.getDurationAsString(shufflePartitionTimesMs, ",")).append("\n");
+
+        sb.append(String.format(f, "ShuffleTotalBytes")).append(getTotalBytes()).append("\n");
+        sb.append(String.format(f, "ShuffleTotalObjects")).append(getTotalObjects()).append("\n");
+
+        return sb.toString();
+    }
+
+    @Override
+    public void exportStatFiles(String outputPath, SparkContext sc) throws IOException {
+        String d = DEFAULT_DELIMITER;
+        StatsUtils.exportStats(shuffleTotalTimeMs, outputPath, FILENAME_TOTAL_TIME_STATS, d, sc);
+        StatsUtils.exportStats(shufflePartitionTimesMs, outputPath, FILENAME_PARTITION_STATS, d, sc);
+    }
+}
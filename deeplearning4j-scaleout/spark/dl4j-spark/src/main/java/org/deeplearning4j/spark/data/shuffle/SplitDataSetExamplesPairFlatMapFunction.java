@@ -14,7 +14,8 @@ import java.util.Random;
  * A PairFlatMapFunction that splits each example in a {@link DataSet} object into its own {@link DataSet}.
  * Also adds a random key (integer value) in the range 0 to maxKeyIndex-1.<br>
  *
- * Used in {@link org.deeplearning4j.spark.util.SparkUtils#shuffleExamples(JavaRDD, int, int)}
+ * Note that {@link org.deeplearning4j.spark.util.SparkUtils#shuffleExamples(JavaRDD, int, int)} uses
+ * {@link PackedShuffleDataSetsFunction} instead, which avoids creating one object per example
  *
  * @author Alex Black
  */
@@ -30,7 +31,8 @@ public class SplitDataSetExamplesPairFlatMapFunction extends BasePairFlatMapFunc
  * A PairFlatMapFunction that splits each example in a {@link DataSet} object into its own {@link DataSet}.
  * Also adds a random key (integer value) in the range 0 to maxKeyIndex-1.<br>
  *
- * Used in {@link org.deeplearning4j.spark.util.SparkUtils#shuffleExamples(JavaRDD, int, int)}
+ * Note that {@link org.deeplearning4j.spark.util.SparkUtils#shuffleExamples(JavaRDD, int, int)} uses
+ * {@link PackedShuffleDataSetsFunction} instead, which avoids creating one object per example
  *
  * @author Alex Black
  */
@@ -0,0 +1,326 @@
+package org.deeplearning4j.spark.impl.common.repartition;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaRDD;
+import org.deeplearning4j.spark.api.Repartition;
+import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingWorkerStats;
+import org.deeplearning4j.spark.stats.EventStats;
+import org.deeplearning4j.spark.stats.ExampleCountEventStats;
+import scala.Tuple2;
+
+import java.util.*;
+
+/**
+ * Adaptive (cost based) repartitioning, used for {@link org.deeplearning4j.spark.api.RepartitionStrategy#Adaptive}.
+ * Instances keep state between averaging rounds, and hence are used on the driver only.
+ * <p>
+ * Instead of balancing the number of elements in each partition, this balances the <i>predicted training time</i> of each
+ * partition, so that each averaging round waits less for the slowest partition:
+ * <ul>
+ *     <li>The cost of each element is determined with an {@link ObjectCostFunction} - for example, the number of example
+ *     time steps for time series data (see {@link DataSetCostFunction})</li>
+ *     <li>The predicted time for an element is {@code msPerUnit * (cost + overheadPerObject)}. The per element overhead
+ *     (for example, fixed cost per minibatch fit, relative to the cost per example) is estimated from the worker fit
+ *     times ({@link ParameterAveragingTrainingWorkerStats}) of previous rounds, via {@link #update(SparkTrainingStats)}</li>
+ *     <li>Elements are first assigned to their current partition. Then, in a work-stealing fashion, the least loaded
+ *     partition repeatedly takes the largest element from the most loaded partition that reduces the imbalance, until
+ *     the most loaded partition is within the tolerance of the mean. If no elements need to be moved, and the number of
+ *     partitions is already correct, no repartitioning (shuffle) is performed at all</li>
+ * </ul>
+ * Note that worker fit times are only available if training statistics collection is enabled. Otherwise, partitions are
+ * balanced on the element costs only.
+ */
+@Slf4j
+public class AdaptiveRepartitioner {
+    public static final double DEFAULT_IMBALANCE_TOLERANCE = 0.05;
+    public static final double DEFAULT_SMOOTHING = 0.5;
+
+    private final double imbalanceTolerance;
+    private final double smoothing;
+
+    /** Estimated fixed cost of each element, relative to the cost function units */
+    @Getter
+    private double overheadPerObject = 0.0;
+    /** Estimated training time per cost function unit, in milliseconds. NaN if no timing information is available yet */
+    @Getter
+    private double msPerUnit = Double.NaN;
+    /** Ratio of the maximum to the mean total fit time per worker, for each round with timing information */
+    @Getter
+    private final List<Double> roundTailRatios = new ArrayList<>();
+
+    private double lastTotalCost;
+    private int lastNumObjects;
+
+    public AdaptiveRepartitioner() {
+        this(DEFAULT_IMBALANCE_TOLERANCE, DEFAULT_SMOOTHING);
+    }
+
+    /**
+     * @param imbalanceTolerance Maximum allowed load of any partition, as a fraction above the mean load (for example,
+     *                           0.05 for 5% above the mean)
+     * @param smoothing          Weight of the latest round (vs. the previous estimates) when updating the cost model.
+     *                           Must be in range (0,1]
+     */
+    public AdaptiveRepartitioner(double imbalanceTolerance, double smoothing) {
+        if (imbalanceTolerance < 0)
+            throw new IllegalArgumentException("Invalid imbalance tolerance: " + imbalanceTolerance + " (must be >= 0)");
+        if (smoothing <= 0 || smoothing > 1)
+            throw new IllegalArgumentException("Invalid smoothing: " + smoothing + " (must be in range (0,1])");
+        this.imbalanceTolerance = imbalanceTolerance;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Repartition the RDD (given the {@link Repartition} setting) into {@code numPartitions} partitions, with balanced
+     * predicted training time per partition
+     *
+     * @param rdd           RDD to repartition
+     * @param repartition   Repartitioning setting
+     * @param numPartitions Number of partitions to have
+     * @param costFunction  Cost function for the elements. May be null, in which case all elements have the same cost
+     * @param <T>           Type of RDD
+     * @return Repartitioned RDD, or the original RDD if no repartitioning was performed
+     */
+    public <T> JavaRDD<T> repartition(JavaRDD<T> rdd, Repartition repartition, int numPartitions,
+                    ObjectCostFunction<T> costFunction) {
+        int origNumPartitions = rdd.partitions().size();
+        switch (repartition) {
+            case Never:
+                return rdd;
+            case NumPartitionsWorkersDiffers:
+                if (origNumPartitions == numPartitions)
+                    return rdd;
+            case Always:
+                break;
+            default:
+                throw new RuntimeException("Unknown setting for repartition: " + repartition);
+        }
+
+        List<Tuple2<Integer, double[]>> partitionCosts =
+                        rdd.mapPartitionsWithIndex(new CostPartitionsFunction<>(costFunction), true).collect();
+
+        double[][] costs = new double[origNumPartitions][];
+        int[] elementStartOffsetByPartitions = new int[origNumPartitions];
+        double totalCost = 0.0;
+        int totalObjects = 0;
+        for (Tuple2<Integer, double[]> t2 : partitionCosts) {
+            costs[t2._1()] = t2._2();
+        }
+        for (int i = 0; i < origNumPartitions; i++) {
+            if (costs[i] == null)
+                costs[i] = new double[0];
+            elementStartOffsetByPartitions[i] = totalObjects;
+            totalObjects += costs[i].length;
+            for (double d : costs[i]) {
+                totalCost += d;
+            }
+        }
+        lastTotalCost = totalCost;
+        lastNumObjects = totalObjects;
+
+        //Predicted time for each element (relative to msPerUnit, which doesn't change the balancing)
+        double[][] predicted = new double[origNumPartitions][];
+        for (int i = 0; i < origNumPartitions; i++) {
+            predicted[i] = new double[costs[i].length];
+            for (int j = 0; j < costs[i].length; j++) {
+                predicted[i][j] = costs[i][j] + overheadPerObject;
+            }
+        }
+
+        int[] assignment = rebalance(predicted, numPartitions, imbalanceTolerance);
+
+        if (origNumPartitions == numPartitions) {
+            boolean moved = false;
+            int idx = 0;
+            for (int i = 0; i < origNumPartitions && !moved; i++) {
+                for (int j = 0; j < costs[i].length; j++) {
+                    if (assignment[idx++] != i) {
+                        moved = true;
+                        break;
+                    }
+                }
+            }
+            if (!moved) {
+                //Don't need to do any repartitioning here - already balanced
+                return rdd;
+            }
+        }
+
+        JavaRDD<Tuple2<Integer, T>> indexed = rdd.mapPartitionsWithIndex(
+                        new AssignIndexFunction<T>(elementStartOffsetByPartitions), true);
+        JavaPairRDD<Integer, T> pairIndexed = indexed.mapPartitionsToPair(new MapTupleToPairFlatMap<Integer, T>(), true);
+        pairIndexed = pairIndexed.partitionBy(new IndexedPartitioner(numPartitions, assignment));
+
+        return pairIndexed.values();
+    }
+
+    /**
+     * Assign elements to partitions, so that the total cost of each partition is approximately equal.<br>
+     * Each element is initially assigned to its current partition (modulo numPartitions). Then, the least loaded
+     * partition repeatedly steals the largest element of the most loaded partition that is smaller than the difference
+     * in their loads (i.e., any move strictly reduces the imbalance), until the most loaded partition is within the
+     * tolerance of the mean load, or no such element exists.
+     *
+     * @param costs         Cost of each element, for each current partition
+     * @param numPartitions Number of output partitions
+     * @param tolerance     Maximum allowed load of any partition, as a fraction above the mean load
+     * @return Output partition for each element, in order (current partition 0 elements first, etc)
+     */
+    public static int[] rebalance(double[][] costs, int numPartitions, double tolerance) {
+        int n = 0;
+        for (double[] d : costs)
+            n += d.length;
+
+        int[] assignment = new int[n];
+        double[] cost = new double[n];
+        double[] load = new double[numPartitions];
+        List<List<Integer>> members = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++)
+            members.add(new ArrayList<Integer>());
+
+        int idx = 0;
+        double total = 0.0;
+        for (int i = 0; i < costs.length; i++) {
+            int p = i % numPartitions;
+            for (int j = 0; j < costs[i].length; j++) {
+                assignment[idx] = p;
+                cost[idx] = costs[i][j];
+                load[p] += cost[idx];
+                members.get(p).add(idx);
+                total += cost[idx];
+                idx++;
+            }
+        }
+
+        double maxAllowed = (total / numPartitions) * (1.0 + tolerance);
+        //Each move strictly reduces the sum of squared loads, but bound the number of moves anyway
+        int maxMoves = 4 * n + numPartitions;
+        for (int m = 0; m < maxMoves; m++) {
+            int maxP = 0;
+            int minP = 0;
+            for (int p = 1; p < numPartitions; p++) {
+                if (load[p] > load[maxP])
+                    maxP = p;
+                if (load[p] < load[minP])
+                    minP = p;
+            }
+            if (load[maxP] <= maxAllowed)
+                break;
+
+            double gap = load[maxP] - load[minP];
+            List<Integer> from = members.get(maxP);
+            int best = -1;
+            for (int i = 0; i < from.size(); i++) {
+                double c = cost[from.get(i)];
+                if (c < gap && (best < 0 || c > cost[from.get(best)]))
+                    best = i;
+            }
+            if (best < 0)
+                break;
+
+            int element = from.remove(best);
+            members.get(minP).add(element);
+            assignment[element] = minP;
+            load[maxP] -= cost[element];
+            load[minP] += cost[element];
+        }
+
+        return assignment;
+    }
+
+    /**
+     * Update the cost model with the worker statistics from the last averaging round. This should be called after each
+     * round that was repartitioned with this instance. Statistics without worker fit times (i.e., if training statistics
+     * collection is disabled) are ignored.
+     *
+     * @param stats Aggregated statistics of the workers for the last round. May be null.
+     */
+    public void update(SparkTrainingStats stats) {
+        List<EventStats> fitStats = getFitStats(stats);
+        if (fitStats == null || fitStats.isEmpty())
+            return;
+
+        //Least squares fit of fit time vs. number of examples, for each minibatch: time = a + b * examples
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        int nFits = 0;
+        Map<String, Long> timePerWorker = new HashMap<>();
+        for (EventStats e : fitStats) {
+            if (!(e instanceof ExampleCountEventStats))
+                continue;
+            double x = ((ExampleCountEventStats) e).getTotalExampleCount();
+            double y = e.getDurationMs();
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+            nFits++;
+
+            String worker = e.getMachineID() + "_" + e.getJvmID() + "_" + e.getThreadID();
+            Long prev = timePerWorker.get(worker);
+            timePerWorker.put(worker, (prev == null ? 0L : prev) + e.getDurationMs());
+        }
+        if (nFits == 0 || sumX <= 0)
+            return;
+
+        long maxWorkerTime = 0;
+        long sumWorkerTime = 0;
+        for (Long l : timePerWorker.values()) {
+            maxWorkerTime = Math.max(maxWorkerTime, l);
+            sumWorkerTime += l;
+        }
+        if (sumWorkerTime > 0) {
+            double tailRatio = maxWorkerTime / (sumWorkerTime / (double) timePerWorker.size());
+            roundTailRatios.add(tailRatio);
+            log.info("Adaptive repartitioning: {} workers, max/mean worker fit time ratio for last round: {}",
+                            timePerWorker.size(), String.format("%.3f", tailRatio));
+        }
+
+        if (lastNumObjects <= 0 || lastTotalCost <= 0 || sumY <= 0)
+            return;
+
+        double a = 0.0;
+        double b = sumY / sumX;
+        double denominator = nFits * sumXX - sumX * sumX;
+        if (nFits > 1 && denominator > 0) {
+            double bFit = (nFits * sumXY - sumX * sumY) / denominator;
+            double aFit = (sumY - bFit * sumX) / nFits;
+            if (bFit > 0 && aFit >= 0) {
+                a = aFit;
+                b = bFit;
+            }
+        }
+
+        //Relate the per example time to the cost function units, using the costs of the elements in the last round
+        double unitsPerExample = lastTotalCost / sumX;
+        double newMsPerUnit = b / unitsPerExample;
+        //Fixed (per minibatch) time for the round, spread over the elements, in cost function units
+        double newOverhead = (a * nFits / lastNumObjects) / newMsPerUnit;
+
+        if (Double.isNaN(msPerUnit)) {
+            msPerUnit = newMsPerUnit;
+            overheadPerObject = newOverhead;
+        } else {
+            msPerUnit = smoothing * newMsPerUnit + (1.0 - smoothing) * msPerUnit;
+            overheadPerObject = smoothing * newOverhead + (1.0 - smoothing) * overheadPerObject;
+        }
+        lastNumObjects = 0;
+
+        if (log.isDebugEnabled()) {
+            log.debug("Adaptive repartitioning cost model: msPerUnit={}, overheadPerObject={}", msPerUnit,
+                            overheadPerObject);
+        }
+    }
+
+    private static List<EventStats> getFitStats(SparkTrainingStats stats) {
+        String key = ParameterAveragingTrainingWorkerStats.PARAMETER_AVERAGING_WORKER_FIT_TIMES_MS;
+        while (stats != null) {
+            if (stats.getKeySet().contains(key))
+                return stats.getValue(key);
+            stats = stats.getNestedTrainingStats();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package org.deeplearning4j.spark.impl.common.repartition;
+
+import org.apache.spark.api.java.function.Function2;
+import scala.Tuple2;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * A function used to determine the cost of each element in each partition, in order. It is used as part of
+ * {@link AdaptiveRepartitioner}, in the same way as {@link org.deeplearning4j.spark.impl.common.CountPartitionsFunction}
+ * is used for balanced repartitioning.
+ */
+public class CostPartitionsFunction<T> implements Function2<Integer, Iterator<T>, Iterator<Tuple2<Integer, double[]>>> {
+    private final ObjectCostFunction<T> costFunction;
+
+    /**
+     * @param costFunction Cost function for the elements. If null: all elements have a cost of 1.0
+     */
+    public CostPartitionsFunction(ObjectCostFunction<T> costFunction) {
+        this.costFunction = costFunction;
+    }
+
+    @Override
+    public Iterator<Tuple2<Integer, double[]>> call(Integer partitionIdx, Iterator<T> iter) throws Exception {
+        double[] costs = new double[16];
+        int count = 0;
+        while (iter.hasNext()) {
+            T t = iter.next();
+            if (count == costs.length) {
+                double[] temp = new double[2 * costs.length];
+                System.arraycopy(costs, 0, temp, 0, count);
+                costs = temp;
+            }
+            costs[count++] = (costFunction == null ? 1.0 : costFunction.getCost(t));
+        }
+
+        double[] out = new double[count];
+        System.arraycopy(costs, 0, out, 0, count);
+        return Collections.singletonList(new Tuple2<>(partitionIdx, out)).iterator();
+    }
+}
@@ -0,0 +1,26 @@
+package org.deeplearning4j.spark.impl.common.repartition;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+
+/**
+ * Cost of a {@link DataSet}: the number of examples, or for time series data (rank 3 features), the number of example
+ * time steps. If a features mask array is present, only the time steps that are present (not masked out) are counted.
+ */
+public class DataSetCostFunction implements ObjectCostFunction<DataSet> {
+
+    @Override
+    public double getCost(DataSet dataSet) {
+        return getCost(dataSet.getFeatures(), dataSet.getFeaturesMaskArray());
+    }
+
+    protected static double getCost(INDArray features, INDArray featuresMask) {
+        if (features == null)
+            return 0.0;
+        if (features.rank() != 3)
+            return features.size(0);
+        if (featuresMask != null)
+            return featuresMask.sumNumber().doubleValue();
+        return (double) features.size(0) * features.size(2);
+    }
+}
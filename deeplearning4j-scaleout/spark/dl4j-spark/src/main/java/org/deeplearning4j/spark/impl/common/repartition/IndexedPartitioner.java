@@ -0,0 +1,36 @@
+package org.deeplearning4j.spark.impl.common.repartition;
+
+import org.apache.spark.Partitioner;
+
+/**
+ * A partitioner (used in conjunction with {@link AssignIndexFunction}) that places each element in the partition
+ * explicitly assigned to its index. Used by {@link AdaptiveRepartitioner}.
+ */
+public class IndexedPartitioner extends Partitioner {
+    private final int numPartitions;
+    private final int[] partitionForIndex;
+
+    /**
+     * @param numPartitions     Total number of partitions
+     * @param partitionForIndex Output partition for each element, by element index
+     */
+    public IndexedPartitioner(int numPartitions, int[] partitionForIndex) {
+        this.numPartitions = numPartitions;
+        this.partitionForIndex = partitionForIndex;
+    }
+
+    @Override
+    public int numPartitions() {
+        return numPartitions;
+    }
+
+    @Override
+    public int getPartition(Object key) {
+        int elementIdx = (Integer) key;
+        if (elementIdx < 0 || elementIdx >= partitionForIndex.length) {
+            //Should never happen, unless the RDD changed between assigning partitions and repartitioning
+            throw new IllegalStateException("No partition assigned for element index " + elementIdx);
+        }
+        return partitionForIndex[elementIdx];
+    }
+}
@@ -0,0 +1,26 @@
+package org.deeplearning4j.spark.impl.common.repartition;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+
+/**
+ * Cost of a {@link MultiDataSet}: the maximum over all feature arrays of the cost as defined in
+ * {@link DataSetCostFunction} (number of examples, or number of unmasked example time steps for time series)
+ */
+public class MultiDataSetCostFunction implements ObjectCostFunction<MultiDataSet> {
+
+    @Override
+    public double getCost(MultiDataSet multiDataSet) {
+        INDArray[] features = multiDataSet.getFeatures();
+        if (features == null)
+            return 0.0;
+
+        INDArray[] masks = multiDataSet.getFeaturesMaskArrays();
+        double max = 0.0;
+        for (int i = 0; i < features.length; i++) {
+            INDArray mask = (masks != null ? masks[i] : null);
+            max = Math.max(max, DataSetCostFunction.getCost(features[i], mask));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,20 @@
+package org.deeplearning4j.spark.impl.common.repartition;
+
+import java.io.Serializable;
+
+/**
+ * Estimates the relative cost of training on a single RDD element, for cost-based repartitioning (see
+ * {@link AdaptiveRepartitioner}). For example, the number of examples in a DataSet, or the number of example time steps
+ * for time series data.
+ *
+ * @param <T> Type of the RDD elements
+ */
+public interface ObjectCostFunction<T> extends Serializable {
+
+    /**
+     * @param object RDD element
+     * @return Relative (non-negative) cost of training on the element
+     */
+    double getCost(T object);
+
+}
@@ -0,0 +1,267 @@
+package org.deeplearning4j.spark.impl.common.score;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.broadcast.Broadcast;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.spark.api.worker.ExecutorModelCache;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
+import org.nd4j.linalg.factory.Nd4j;
+import scala.Tuple2;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Batched, multi-threaded feed-forward (inference) with keys. For each partition:
+ * <ul>
+ *     <li>The calling thread assembles minibatches of up to batchSize examples (stacking the feature arrays of
+ *     consecutive keys with the same shape), and places them in a bounded queue of up to prefetchBatches
+ *     minibatches. Batch assembly thus overlaps with the forward passes</li>
+ *     <li>numThreads inference threads take minibatches from the queue and run the forward pass. Each thread uses its
+ *     own copy of the network. Networks are taken from (and returned to) the executor-local
+ *     {@link ExecutorModelCache}, so they are only created from the broadcast configuration and parameters once per
+ *     executor, not once per partition</li>
+ *     <li>Outputs are returned as one primitive double[] per key (the network output for that key's examples,
+ *     flattened in c order), instead of one INDArray per key. These are compact to serialize, and can be converted
+ *     directly to Spark SQL rows or vectors</li>
+ * </ul>
+ * The order of the output is the same as the order of the input.
+ *
+ * @param <K> Type of key, associated with each example. Used to keep track of which output belongs to which input
+ */
+@Slf4j
+public abstract class BaseBatchedFeedForwardWithKeyFunctionAdapter<K>
+                implements FlatMapFunctionAdapter<Iterator<Tuple2<K, INDArray>>, Tuple2<K, double[]>> {
+
+    private static final long POLL_MS = 100;
+
+    protected final Broadcast<INDArray> params;
+    protected final Broadcast<String> jsonConfig;
+    private final int batchSize;
+    private final int numThreads;
+    private final int prefetchBatches;
+
+    /**
+     * @param params          Network parameters
+     * @param jsonConfig      Network configuration, as json
+     * @param batchSize       Maximum number of examples in each minibatch for inference
+     * @param numThreads      Number of inference threads (and network copies) per partition
+     * @param prefetchBatches Maximum number of assembled minibatches waiting for an inference thread
+     */
+    public BaseBatchedFeedForwardWithKeyFunctionAdapter(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
+                    int batchSize, int numThreads, int prefetchBatches) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize + " (must be >= 1)");
+        if (numThreads <= 0)
+            throw new IllegalArgumentException("Invalid number of threads: " + numThreads + " (must be >= 1)");
+        if (prefetchBatches <= 0)
+            throw new IllegalArgumentException(
+                            "Invalid number of prefetch batches: " + prefetchBatches + " (must be >= 1)");
+        this.params = params;
+        this.jsonConfig = jsonConfig;
+        this.batchSize = batchSize;
+        this.numThreads = numThreads;
+        this.prefetchBatches = prefetchBatches;
+    }
+
+    /**
+     * Create and initialize a network from the broadcast configuration and parameters
+     */
+    public abstract Model createNetwork();
+
+    /**
+     * Run the forward pass (in inference mode) for the specified minibatch
+     */
+    public abstract INDArray output(Model network, INDArray features);
+
+    /**
+     * @return Key for the networks of this function in the {@link ExecutorModelCache}
+     */
+    protected String getModelCacheKey() {
+        return "inference_" + getClass().getName() + "_" + params.id() + "_" + jsonConfig.id();
+    }
+
+    @Override
+    public Iterable<Tuple2<K, double[]>> call(Iterator<Tuple2<K, INDArray>> iterator) throws Exception {
+        if (!iterator.hasNext()) {
+            return Collections.emptyList();
+        }
+
+        final BlockingQueue<Batch<K>> queue = new ArrayBlockingQueue<>(prefetchBatches);
+        final Map<Integer, List<Tuple2<K, double[]>>> results = new ConcurrentHashMap<>();
+        final String cacheKey = getModelCacheKey();
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = Executors.defaultThreadFactory().newThread(r);
+                t.setDaemon(true);
+                t.setName("BatchedInference-" + t.getId());
+                return t;
+            }
+        });
+
+        List<Future<?>> futures = new ArrayList<>(numThreads);
+        int numBatches = 0;
+        int totalCount = 0;
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        runInference(cacheKey, queue, results);
+                        return null;
+                    }
+                }));
+            }
+
+            //Assemble minibatches on this thread, while the inference threads process earlier minibatches
+            Batch<K> batch = new Batch<>(numBatches);
+            while (iterator.hasNext()) {
+                Tuple2<K, INDArray> t2 = iterator.next();
+                INDArray features = t2._2();
+                if (batch.numExamples > 0 && (batch.numExamples + features.size(0) > batchSize
+                                || !batch.isCompatible(features))) {
+                    put(queue, batch, futures);
+                    batch = new Batch<>(++numBatches);
+                }
+                batch.add(t2._1(), features);
+                totalCount += features.size(0);
+            }
+            put(queue, batch, futures);
+            numBatches++;
+
+            for (int i = 0; i < numThreads; i++)
+                put(queue, Batch.<K>end(), futures);
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Error during batched inference", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Tuple2<K, double[]>> out = new ArrayList<>();
+        for (int i = 0; i < numBatches; i++) {
+            out.addAll(results.get(i));
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Performed inference on {} examples in {} minibatches", totalCount, numBatches);
+        }
+
+        return out;
+    }
+
+    private void runInference(String cacheKey, BlockingQueue<Batch<K>> queue,
+                    Map<Integer, List<Tuple2<K, double[]>>> results) throws Exception {
+        ExecutorModelCache cache = ExecutorModelCache.getInstance();
+        Model network = cache.take(cacheKey);
+        if (network == null) {
+            network = createNetwork();
+        }
+
+        try {
+            while (true) {
+                Batch<K> batch = queue.take();
+                if (batch.isEnd())
+                    break;
+                INDArray out = output(network, batch.getFeatures());
+                results.put(batch.index, batch.split(out));
+            }
+
+            if (Nd4j.getExecutioner() instanceof GridExecutioner)
+                ((GridExecutioner) Nd4j.getExecutioner()).flushQueueBlocking();
+        } finally {
+            cache.release(cacheKey, network);
+        }
+    }
+
+    private static <K> void put(BlockingQueue<Batch<K>> queue, Batch<K> batch, List<Future<?>> futures)
+                    throws Exception {
+        //Don't block forever if the inference threads have failed
+        while (!queue.offer(batch, POLL_MS, TimeUnit.MILLISECONDS)) {
+            for (Future<?> f : futures) {
+                if (f.isDone()) {
+                    try {
+                        f.get();
+                    } catch (ExecutionException e) {
+                        throw new RuntimeException("Error during batched inference", e.getCause());
+                    }
+                    throw new IllegalStateException("Inference thread terminated unexpectedly");
+                }
+            }
+        }
+    }
+
+    /**
+     * A minibatch: the keys and features of consecutive input elements, with the same feature shape (other than
+     * dimension 0)
+     */
+    private static class Batch<K> {
+        private final int index;
+        private final List<K> keys = new ArrayList<>();
+        private final List<INDArray> features = new ArrayList<>();
+        private int numExamples;
+
+        private Batch(int index) {
+            this.index = index;
+        }
+
+        private static <K> Batch<K> end() {
+            return new Batch<>(-1);
+        }
+
+        private boolean isEnd() {
+            return index < 0;
+        }
+
+        private boolean isCompatible(INDArray f) {
+            int[] first = features.get(0).shape();
+            int[] shape = f.shape();
+            if (first.length != shape.length)
+                return false;
+            for (int i = 1; i < first.length; i++) {
+                if (first[i] != shape[i])
+                    return false;
+            }
+            return true;
+        }
+
+        private void add(K key, INDArray f) {
+            keys.add(key);
+            features.add(f);
+            numExamples += f.size(0);
+        }
+
+        private INDArray getFeatures() {
+            if (features.size() == 1)
+                return features.get(0);
+            return Nd4j.concat(0, features.toArray(new INDArray[features.size()]));
+        }
+
+        /**
+         * Split the output for the minibatch into one flattened (c order) double[] per key
+         */
+        private List<Tuple2<K, double[]>> split(INDArray out) {
+            INDArray c = (out.ordering() == 'c' && !out.isView() ? out : out.dup('c'));
+            double[] all = c.data().asDouble();
+            int valuesPerExample = out.length() / out.size(0);
+            List<Tuple2<K, double[]>> list = new ArrayList<>(keys.size());
+            int pos = 0;
+            for (int i = 0; i < keys.size(); i++) {
+                int n = features.get(i).size(0) * valuesPerExample;
+                double[] row = new double[n];
+                System.arraycopy(all, pos, row, 0, n);
+                pos += n;
+                list.add(new Tuple2<>(keys.get(i), row));
+            }
+            return list;
+        }
+    }
+}
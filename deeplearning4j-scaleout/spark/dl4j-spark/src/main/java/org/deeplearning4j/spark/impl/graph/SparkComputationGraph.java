@@ -62,6 +62,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class SparkComputationGraph extends SparkListenable {
 
     public static final int DEFAULT_EVAL_SCORE_BATCH_SIZE = 64;
+    public static final int DEFAULT_INFERENCE_NUM_THREADS = 2;
+    public static final int DEFAULT_INFERENCE_PREFETCH_BATCHES = 4;
     private transient JavaSparkContext sc;
     private ComputationGraphConfiguration conf;
     private ComputationGraph network;
@@ -466,6 +468,48 @@ public class SparkComputationGraph extends SparkListenable {
                         sc.broadcast(conf.toJson()), batchSize));
     }
 
+    /**
+     * Feed-forward the specified data with the given keys, using batched and multi-threaded inference, with the
+     * default number of inference threads ({@link #DEFAULT_INFERENCE_NUM_THREADS}) and prefetch queue size
+     * ({@link #DEFAULT_INFERENCE_PREFETCH_BATCHES}).
+     * See {@link #feedForwardWithKeySingleBatched(JavaPairRDD, int, int, int)} for details.
+     */
+    public <K> JavaPairRDD<K, double[]> feedForwardWithKeySingleBatched(JavaPairRDD<K, INDArray> featuresData,
+                    int batchSize) {
+        return feedForwardWithKeySingleBatched(featuresData, batchSize, DEFAULT_INFERENCE_NUM_THREADS,
+                        DEFAULT_INFERENCE_PREFETCH_BATCHES);
+    }
+
+    /**
+     * Feed-forward the specified data, with the given keys, using batched and multi-threaded inference. Can only be
+     * used with graphs with a single input and a single output. Compared to
+     * {@link #feedForwardWithKeySingle(JavaPairRDD, int)}:<br>
+     * - Networks are reused between partitions on each executor, instead of being created for every partition<br>
+     * - Minibatches are assembled in a separate thread from the forward pass (up to prefetchBatches in advance)<br>
+     * - numThreads inference threads (each with its own copy of the network) are used for each partition<br>
+     * - The output for each key is returned as a double[] (the network output for the key's examples, flattened in
+     * c order), which is more compact to serialize than an INDArray and can be used directly in Spark SQL rows
+     *
+     * @param featuresData    Features data to feed through the network
+     * @param batchSize       Batch size to use when doing feed forward operations
+     * @param numThreads      Number of inference threads to use for each partition
+     * @param prefetchBatches Maximum number of minibatches to assemble ahead of the inference threads
+     * @param <K>             Type of data for key - may be anything
+     * @return Network output given the input, by key
+     */
+    public <K> JavaPairRDD<K, double[]> feedForwardWithKeySingleBatched(JavaPairRDD<K, INDArray> featuresData,
+                    int batchSize, int numThreads, int prefetchBatches) {
+        if (network.getNumInputArrays() != 1 || network.getNumOutputArrays() != 1) {
+            throw new IllegalStateException(
+                            "Cannot use this method with computation graphs with more than 1 input or output "
+                                            + "( has: " + network.getNumInputArrays() + " inputs, "
+                                            + network.getNumOutputArrays() + " outputs");
+        }
+        return featuresData.mapPartitionsToPair(new GraphBatchedFeedForwardWithKeyFunction<K>(
+                        sc.broadcast(network.params()), sc.broadcast(conf.toJson()), batchSize, numThreads,
+                        prefetchBatches));
+    }
+
     private void update(int mr, long mg) {
         Environment env = EnvironmentUtils.buildEnvironment();
         env.setNumCores(mr);
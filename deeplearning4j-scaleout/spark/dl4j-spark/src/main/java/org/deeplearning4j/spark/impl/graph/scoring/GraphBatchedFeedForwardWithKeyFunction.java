@@ -0,0 +1,64 @@
+package org.deeplearning4j.spark.impl.graph.scoring;
+
+import org.apache.spark.broadcast.Broadcast;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.spark.impl.common.score.BaseBatchedFeedForwardWithKeyFunctionAdapter;
+import org.deeplearning4j.spark.util.BasePairFlatMapFunctionAdaptee;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import scala.Tuple2;
+
+import java.util.Iterator;
+
+/**
+ * Function to feed-forward examples through a ComputationGraph with a single input and a single output, and get the
+ * network output (for example, class probabilities) as one double[] per key. Inference is batched and
+ * multi-threaded, and networks are reused between partitions on each executor: see
+ * {@link BaseBatchedFeedForwardWithKeyFunctionAdapter} for details.
+ *
+ * @param <K> Type of key, associated with each example. Used to keep track of which output belongs to which input example
+ * @see GraphFeedForwardWithKeyFunction
+ */
+public class GraphBatchedFeedForwardWithKeyFunction<K>
+                extends BasePairFlatMapFunctionAdaptee<Iterator<Tuple2<K, INDArray>>, K, double[]> {
+
+    public GraphBatchedFeedForwardWithKeyFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
+                    int batchSize, int numThreads, int prefetchBatches) {
+        super(new GraphBatchedFeedForwardWithKeyFunctionAdapter<K>(params, jsonConfig, batchSize, numThreads,
+                        prefetchBatches));
+    }
+}
+
+
+class GraphBatchedFeedForwardWithKeyFunctionAdapter<K> extends BaseBatchedFeedForwardWithKeyFunctionAdapter<K> {
+
+    /**
+     * @param params          ComputationGraph parameters
+     * @param jsonConfig      ComputationGraphConfiguration, as json
+     * @param batchSize       Batch size to use for forward pass (use > 1 for efficiency)
+     * @param numThreads      Number of inference threads per partition
+     * @param prefetchBatches Maximum number of minibatches to assemble ahead of the inference threads
+     */
+    public GraphBatchedFeedForwardWithKeyFunctionAdapter(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
+                    int batchSize, int numThreads, int prefetchBatches) {
+        super(params, jsonConfig, batchSize, numThreads, prefetchBatches);
+    }
+
+    @Override
+    public Model createNetwork() {
+        ComputationGraph network = new ComputationGraph(ComputationGraphConfiguration.fromJson(jsonConfig.getValue()));
+        network.init();
+        INDArray val = params.value().unsafeDuplication();
+        if (val.length() != network.numParams(false))
+            throw new IllegalStateException(
+                            "Network did not have same number of parameters as the broadcast set parameters");
+        network.setParams(val);
+        return network;
+    }
+
+    @Override
+    public INDArray output(Model network, INDArray features) {
+        return ((ComputationGraph) network).outputSingle(false, features);
+    }
+}
@@ -43,6 +43,7 @@ import org.deeplearning4j.spark.impl.SparkListenable;
 import org.deeplearning4j.spark.impl.common.reduce.IntDoubleReduceFunction;
 import org.deeplearning4j.spark.impl.listeners.VanillaStatsStorageRouterProvider;
 import org.deeplearning4j.spark.impl.multilayer.evaluation.*;
+import org.deeplearning4j.spark.impl.multilayer.scoring.BatchedFeedForwardWithKeyFunction;
 import org.deeplearning4j.spark.impl.multilayer.scoring.FeedForwardWithKeyFunction;
 import org.deeplearning4j.spark.impl.multilayer.scoring.ScoreExamplesFunction;
 import org.deeplearning4j.spark.impl.multilayer.scoring.ScoreExamplesWithKeyFunction;
@@ -75,6 +76,8 @@ import java.util.*;
 public class SparkDl4jMultiLayer extends SparkListenable {
     public static final int DEFAULT_EVAL_SCORE_BATCH_SIZE = 64;
     public static final int DEFAULT_ROC_THRESHOLD_STEPS = 32;
+    public static final int DEFAULT_INFERENCE_NUM_THREADS = 2;
+    public static final int DEFAULT_INFERENCE_PREFETCH_BATCHES = 4;
     private transient JavaSparkContext sc;
     private MultiLayerConfiguration conf;
     private MultiLayerNetwork network;
@@ -439,6 +442,41 @@ public class SparkDl4jMultiLayer extends SparkListenable {
                         sc.broadcast(conf.toJson()), batchSize));
     }
 
+    /**
+     * Feed-forward the specified data with the given keys, using batched and multi-threaded inference, with the
+     * default number of inference threads ({@link #DEFAULT_INFERENCE_NUM_THREADS}) and prefetch queue size
+     * ({@link #DEFAULT_INFERENCE_PREFETCH_BATCHES}).
+     * See {@link #feedForwardWithKeyBatched(JavaPairRDD, int, int, int)} for details.
+     */
+    public <K> JavaPairRDD<K, double[]> feedForwardWithKeyBatched(JavaPairRDD<K, INDArray> featuresData,
+                    int batchSize) {
+        return feedForwardWithKeyBatched(featuresData, batchSize, DEFAULT_INFERENCE_NUM_THREADS,
+                        DEFAULT_INFERENCE_PREFETCH_BATCHES);
+    }
+
+    /**
+     * Feed-forward the specified data, with the given keys, using batched and multi-threaded inference. Compared to
+     * {@link #feedForwardWithKey(JavaPairRDD, int)}:<br>
+     * - Networks are reused between partitions on each executor, instead of being created for every partition<br>
+     * - Minibatches are assembled in a separate thread from the forward pass (up to prefetchBatches in advance)<br>
+     * - numThreads inference threads (each with its own copy of the network) are used for each partition<br>
+     * - The output for each key is returned as a double[] (the network output for the key's examples, flattened in
+     * c order), which is more compact to serialize than an INDArray and can be used directly in Spark SQL rows
+     *
+     * @param featuresData    Features data to feed through the network
+     * @param batchSize       Batch size to use when doing feed forward operations
+     * @param numThreads      Number of inference threads to use for each partition
+     * @param prefetchBatches Maximum number of minibatches to assemble ahead of the inference threads
+     * @param <K>             Type of data for key - may be anything
+     * @return Network output given the input, by key
+     */
+    public <K> JavaPairRDD<K, double[]> feedForwardWithKeyBatched(JavaPairRDD<K, INDArray> featuresData, int batchSize,
+                    int numThreads, int prefetchBatches) {
+        return featuresData.mapPartitionsToPair(new BatchedFeedForwardWithKeyFunction<K>(
+                        sc.broadcast(network.params()), sc.broadcast(conf.toJson()), batchSize, numThreads,
+                        prefetchBatches));
+    }
+
     /**
      * {@code RDD<DataSet>} overload of {@link #evaluate(JavaRDD)}
      */
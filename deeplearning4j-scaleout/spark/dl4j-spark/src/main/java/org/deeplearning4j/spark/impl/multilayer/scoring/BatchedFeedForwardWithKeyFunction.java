@@ -0,0 +1,63 @@
+package org.deeplearning4j.spark.impl.multilayer.scoring;
+
+import org.apache.spark.broadcast.Broadcast;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.spark.impl.common.score.BaseBatchedFeedForwardWithKeyFunctionAdapter;
+import org.deeplearning4j.spark.util.BasePairFlatMapFunctionAdaptee;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import scala.Tuple2;
+
+import java.util.Iterator;
+
+/**
+ * Function to feed-forward examples through a MultiLayerNetwork, and get the network output (for example, class
+ * probabilities) as one double[] per key. Inference is batched and multi-threaded, and networks are reused between
+ * partitions on each executor: see {@link BaseBatchedFeedForwardWithKeyFunctionAdapter} for details.
+ *
+ * @param <K> Type of key, associated with each example. Used to keep track of which output belongs to which input example
+ * @see FeedForwardWithKeyFunction
+ */
+public class BatchedFeedForwardWithKeyFunction<K>
+                extends BasePairFlatMapFunctionAdaptee<Iterator<Tuple2<K, INDArray>>, K, double[]> {
+
+    public BatchedFeedForwardWithKeyFunction(Broadcast<INDArray> params, Broadcast<String> jsonConfig, int batchSize,
+                    int numThreads, int prefetchBatches) {
+        super(new BatchedFeedForwardWithKeyFunctionAdapter<K>(params, jsonConfig, batchSize, numThreads,
+                        prefetchBatches));
+    }
+}
+
+
+class BatchedFeedForwardWithKeyFunctionAdapter<K> extends BaseBatchedFeedForwardWithKeyFunctionAdapter<K> {
+
+    /**
+     * @param params          MultiLayerNetwork parameters
+     * @param jsonConfig      MultiLayerConfiguration, as json
+     * @param batchSize       Batch size to use for forward pass (use > 1 for efficiency)
+     * @param numThreads      Number of inference threads per partition
+     * @param prefetchBatches Maximum number of minibatches to assemble ahead of the inference threads
+     */
+    public BatchedFeedForwardWithKeyFunctionAdapter(Broadcast<INDArray> params, Broadcast<String> jsonConfig,
+                    int batchSize, int numThreads, int prefetchBatches) {
+        super(params, jsonConfig, batchSize, numThreads, prefetchBatches);
+    }
+
+    @Override
+    public Model createNetwork() {
+        MultiLayerNetwork network = new MultiLayerNetwork(MultiLayerConfiguration.fromJson(jsonConfig.getValue()));
+        network.init();
+        INDArray val = params.value().unsafeDuplication();
+        if (val.length() != network.numParams(false))
+            throw new IllegalStateException(
+                            "Network did not have same number of parameters as the broadcast set parameters");
+        network.setParameters(val);
+        return network;
+    }
+
+    @Override
+    public INDArray output(Model network, INDArray features) {
+        return ((MultiLayerNetwork) network).output(features, false);
+    }
+}
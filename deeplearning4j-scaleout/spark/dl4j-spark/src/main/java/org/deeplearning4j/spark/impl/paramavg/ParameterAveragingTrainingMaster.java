@@ -40,13 +40,21 @@ import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.api.worker.*;
 import org.deeplearning4j.spark.data.BatchAndExportDataSetsFunction;
 import org.deeplearning4j.spark.data.BatchAndExportMultiDataSetsFunction;
+import org.deeplearning4j.spark.data.columnar.ColumnarDataSetFormat;
+import org.deeplearning4j.spark.impl.common.repartition.AdaptiveRepartitioner;
+import org.deeplearning4j.spark.impl.common.repartition.DataSetCostFunction;
+import org.deeplearning4j.spark.impl.common.repartition.MultiDataSetCostFunction;
 import org.deeplearning4j.spark.impl.graph.SparkComputationGraph;
 import org.deeplearning4j.spark.impl.graph.dataset.DataSetToMultiDataSetFn;
 import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.deeplearning4j.spark.impl.paramavg.aggregator.DeltaCompression;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingAggregationTuple;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementAddFunction;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementCombineFunction;
 import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingMasterStats;
+import org.deeplearning4j.spark.impl.paramavg.util.ChangedBlocks;
+import org.deeplearning4j.spark.impl.paramavg.util.DeltaBroadcastTuple;
+import org.deeplearning4j.spark.time.ClockAlignment;
 import org.deeplearning4j.spark.util.SparkUtils;
 import org.deeplearning4j.util.UIDProvider;
 import org.deeplearning4j.spark.util.serde.StorageLevelDeserializer;
@@ -65,19 +73,36 @@ import java.util.*;
 /**
  * ParameterAveragingTrainingMaster: A {@link TrainingMaster} implementation for training networks on Spark.
  * This is standard parameter averaging with a configurable averaging period.
+ * <p>
+ * Worker results are combined with a tree aggregation of configurable depth (see {@link Builder#aggregationDepth(int)}),
+ * so that the driver receives only a few partially summed results. Optionally (see
+ * {@link Builder#deltaAggregation(boolean, DeltaCompression)}), workers return (optionally compressed) parameter
+ * changes instead of the full parameters, and only the blocks of parameters that changed since the last full broadcast
+ * are broadcast each averaging round.
+ * <p>
+ * Executors can also reuse initialized networks between averaging rounds (see {@link Builder#workerModelCaching(boolean)})
+ * and cache deserialized training data between epochs (see {@link Builder#workerDataSetCacheSize(long)}).
  *
  * @author Alex Black
  */
 @Data
 @JsonIgnoreProperties({"stats", "listeners", "iterationCount", "rng", "lastExportedRDDId", "lastRDDExportPath",
-                "trainingMasterUID"})
+                "trainingMasterUID", "baseBroadcast", "lastDeltaBroadcast", "baseParams", "baseUpdaterState",
+                "baseConfigurationJson", "modelCacheConfigurationJson", "modelCacheVersion", "adaptiveRepartitioner",
+                "clockAlignment"})
 @EqualsAndHashCode(exclude = {"stats", "listeners", "iterationCount", "rng", "lastExportedRDDId", "lastRDDExportPath",
-                "trainingMasterUID"})
+                "trainingMasterUID", "baseBroadcast", "lastDeltaBroadcast", "baseParams", "baseUpdaterState",
+                "baseConfigurationJson", "modelCacheConfigurationJson", "modelCacheVersion", "adaptiveRepartitioner",
+                "clockAlignment"})
 @Slf4j
 public class ParameterAveragingTrainingMaster
                 implements TrainingMaster<ParameterAveragingTrainingResult, ParameterAveragingTrainingWorker> {
 
     private static final int COALESCE_THRESHOLD = 3;
+    //Delta aggregation: if more than this fraction of the parameters have changed, broadcast a new base instead
+    private static final double DELTA_REBASE_THRESHOLD = 0.5;
+    //Delta aggregation: number of blocks compared to estimate the fraction changed, before computing the changed blocks
+    private static final int DELTA_SAMPLE_BLOCKS = 64;
     private static ObjectMapper jsonMapper;
     private static ObjectMapper yamlMapper;
 
@@ -101,6 +126,26 @@ public class ParameterAveragingTrainingMaster
     private RDDTrainingApproach rddTrainingApproach = RDDTrainingApproach.Export;
     private String exportDirectory = null;
     private Random rng;
+    private int aggregationDepth = 2;
+    private boolean deltaAggregation = false;
+    private DeltaCompression deltaCompression = DeltaCompression.NONE;
+    private boolean workerModelCaching = false;
+    private long workerDataSetCacheSizeBytes = 0;
+    private ColumnarDataSetFormat exportFormat = null;
+
+    //Delta aggregation only: the last full broadcast, and the values it contains
+    private Broadcast<NetBroadcastTuple> baseBroadcast;
+    private Broadcast<DeltaBroadcastTuple> lastDeltaBroadcast;
+    private INDArray baseParams;
+    private INDArray baseUpdaterState;
+    private String baseConfigurationJson;
+    //Worker model caching only: configuration the current cache key was created for, and the version for the key
+    private String modelCacheConfigurationJson;
+    private int modelCacheVersion = 0;
+    //Driver-side state for RepartitionStrategy.Adaptive
+    private AdaptiveRepartitioner adaptiveRepartitioner;
+    //Driver-side state for aligning executor clocks, when collecting training stats
+    private ClockAlignment clockAlignment;
 
     private Collection<TrainingHook> trainingHookList;
     private int lastExportedRDDId = Integer.MIN_VALUE;
@@ -134,6 +179,12 @@ public class ParameterAveragingTrainingMaster
         this.rddTrainingApproach = builder.rddTrainingApproach;
         this.exportDirectory = builder.exportDirectory;
         this.trainingHookList = builder.trainingHooks;
+        this.aggregationDepth = builder.aggregationDepth;
+        this.deltaAggregation = builder.deltaAggregation;
+        this.deltaCompression = builder.deltaCompression;
+        this.workerModelCaching = builder.workerModelCaching;
+        this.workerDataSetCacheSizeBytes = builder.workerDataSetCacheSizeBytes;
+        this.exportFormat = builder.exportFormat;
 
         if (builder.rngSeed == null) {
             this.rng = new Random();
@@ -301,8 +352,30 @@ public class ParameterAveragingTrainingMaster
 
     @Override
     public ParameterAveragingTrainingWorker getWorkerInstance(SparkDl4jMultiLayer network) {
-        NetBroadcastTuple tuple = new NetBroadcastTuple(network.getNetwork().getLayerWiseConfigurations(),
-                        network.getNetwork().params(), network.getNetwork().getUpdater().getStateViewArray());
+        alignClocksIfRequired(network.getSparkContext());
+        if (collectTrainingStats)
+            stats.logAveragingRoundStart();
+        WorkerConfiguration configuration = new WorkerConfiguration(false, rddDataSetNumExamples, batchSizePerWorker,
+                        averagingFrequency, prefetchNumBatches, collectTrainingStats, workerDataSetCacheSizeBytes);
+
+        MultiLayerNetwork net = network.getNetwork();
+        String confJson = null;
+        MultiLayerConfiguration baseConf = null;
+        if (deltaAggregation || workerModelCaching) {
+            baseConf = net.getLayerWiseConfigurations().clone();
+            baseConf.setIterationCount(0);
+            confJson = baseConf.toJson();
+        }
+        String modelCacheKey = (workerModelCaching ? getModelCacheKey(confJson) : null);
+
+        if (deltaAggregation) {
+            return getDeltaWorkerInstance(network.getSparkContext(), confJson,
+                            new NetBroadcastTuple(baseConf, net.params(), net.getUpdater().getStateViewArray()),
+                            net.getLayerWiseConfigurations().getIterationCount(), configuration, modelCacheKey);
+        }
+
+        NetBroadcastTuple tuple = new NetBroadcastTuple(net.getLayerWiseConfigurations(), net.params(),
+                        net.getUpdater().getStateViewArray());
 
         if (collectTrainingStats)
             stats.logBroadcastStart();
@@ -310,16 +383,36 @@ public class ParameterAveragingTrainingMaster
         if (collectTrainingStats)
             stats.logBroadcastEnd();
 
-        WorkerConfiguration configuration = new WorkerConfiguration(false, rddDataSetNumExamples, batchSizePerWorker,
-                        averagingFrequency, prefetchNumBatches, collectTrainingStats);
-        return new ParameterAveragingTrainingWorker(broadcast, saveUpdater, configuration, trainingHookList, listeners,
-                        getRouterProvider());
+        return new ParameterAveragingTrainingWorker(broadcast, null, null, saveUpdater, configuration,
+                        trainingHookList, listeners, getRouterProvider(), modelCacheKey);
     }
 
     @Override
     public ParameterAveragingTrainingWorker getWorkerInstance(SparkComputationGraph graph) {
-        NetBroadcastTuple tuple = new NetBroadcastTuple(graph.getNetwork().getConfiguration(),
-                        graph.getNetwork().params(), graph.getNetwork().getUpdater().getStateViewArray());
+        alignClocksIfRequired(graph.getSparkContext());
+        if (collectTrainingStats)
+            stats.logAveragingRoundStart();
+        WorkerConfiguration configuration = new WorkerConfiguration(true, rddDataSetNumExamples, batchSizePerWorker,
+                        averagingFrequency, prefetchNumBatches, collectTrainingStats, workerDataSetCacheSizeBytes);
+
+        ComputationGraph net = graph.getNetwork();
+        String confJson = null;
+        ComputationGraphConfiguration baseConf = null;
+        if (deltaAggregation || workerModelCaching) {
+            baseConf = net.getConfiguration().clone();
+            baseConf.setIterationCount(0);
+            confJson = baseConf.toJson();
+        }
+        String modelCacheKey = (workerModelCaching ? getModelCacheKey(confJson) : null);
+
+        if (deltaAggregation) {
+            return getDeltaWorkerInstance(graph.getSparkContext(), confJson,
+                            new NetBroadcastTuple(baseConf, net.params(), net.getUpdater().getStateViewArray()),
+                            net.getConfiguration().getIterationCount(), configuration, modelCacheKey);
+        }
+
+        NetBroadcastTuple tuple = new NetBroadcastTuple(net.getConfiguration(), net.params(),
+                        net.getUpdater().getStateViewArray());
 
         if (collectTrainingStats)
             stats.logBroadcastStart();
@@ -327,10 +420,96 @@ public class ParameterAveragingTrainingMaster
         if (collectTrainingStats)
             stats.logBroadcastEnd();
 
-        WorkerConfiguration configuration = new WorkerConfiguration(true, rddDataSetNumExamples, batchSizePerWorker,
-                        averagingFrequency, prefetchNumBatches, collectTrainingStats);
-        return new ParameterAveragingTrainingWorker(broadcast, saveUpdater, configuration, trainingHookList, listeners,
-                        getRouterProvider());
+        return new ParameterAveragingTrainingWorker(broadcast, null, null, saveUpdater, configuration,
+                        trainingHookList, listeners, getRouterProvider(), modelCacheKey);
+    }
+
+    /**
+     * Get the key for caching initialized networks on the executors. The key changes whenever the network
+     * configuration (other than the iteration count) changes, so that executors don't reuse networks created for a
+     * different configuration.
+     *
+     * @param confJson JSON for the network configuration, with the iteration count set to 0
+     */
+    private String getModelCacheKey(String confJson) {
+        if (!confJson.equals(modelCacheConfigurationJson)) {
+            modelCacheConfigurationJson = confJson;
+            modelCacheVersion++;
+        }
+        return trainingMasterUID + "_" + modelCacheVersion;
+    }
+
+    /**
+     * Create a worker for delta aggregation: the base broadcast (configuration, parameters and updater state) is reused
+     * from the previous averaging round where possible, and only the blocks of parameters and updater state that have
+     * changed since the base was broadcast are broadcast for this round.
+     *
+     * @param sc             Spark context
+     * @param confJson       JSON for the network configuration, with the iteration count set to 0
+     * @param current        Current configuration (iteration count set to 0), parameters and updater state
+     * @param iterationCount Current iteration count for the network
+     * @param modelCacheKey  Key for reusing networks on the executors, or null
+     */
+    private ParameterAveragingTrainingWorker getDeltaWorkerInstance(JavaSparkContext sc, String confJson,
+                    NetBroadcastTuple current, int iterationCount, WorkerConfiguration configuration,
+                    String modelCacheKey) {
+        INDArray params = current.getParameters();
+        INDArray updaterState = current.getUpdaterState();
+
+        if (collectTrainingStats)
+            stats.logBroadcastStart();
+
+        boolean rebase = baseBroadcast == null || !confJson.equals(baseConfigurationJson)
+                        || baseParams.length() != params.length()
+                        || (baseUpdaterState == null) != (updaterState == null)
+                        || (updaterState != null && baseUpdaterState.length() != updaterState.length());
+
+        if (!rebase) {
+            //Dense changes (for example, all layers trainable): rebase without computing the changed blocks
+            double estimate = ChangedBlocks.estimateFractionChanged(baseParams, params,
+                            ChangedBlocks.DEFAULT_BLOCK_SIZE, DELTA_SAMPLE_BLOCKS);
+            if (updaterState != null)
+                estimate = Math.max(estimate, ChangedBlocks.estimateFractionChanged(baseUpdaterState, updaterState,
+                                ChangedBlocks.DEFAULT_BLOCK_SIZE, DELTA_SAMPLE_BLOCKS));
+            rebase = estimate > DELTA_REBASE_THRESHOLD;
+        }
+
+        ChangedBlocks paramBlocks = null;
+        ChangedBlocks updaterBlocks = null;
+        if (!rebase) {
+            paramBlocks = ChangedBlocks.between(baseParams, params, ChangedBlocks.DEFAULT_BLOCK_SIZE);
+            if (updaterState != null)
+                updaterBlocks = ChangedBlocks.between(baseUpdaterState, updaterState, ChangedBlocks.DEFAULT_BLOCK_SIZE);
+            double fractionChanged = (updaterBlocks == null ? paramBlocks.fractionChanged()
+                            : Math.max(paramBlocks.fractionChanged(), updaterBlocks.fractionChanged()));
+            rebase = fractionChanged > DELTA_REBASE_THRESHOLD;
+        }
+
+        if (rebase) {
+            if (baseBroadcast != null)
+                baseBroadcast.unpersist(false);
+            baseParams = params.dup();
+            baseUpdaterState = (updaterState == null ? null : updaterState.dup());
+            baseConfigurationJson = confJson;
+            baseBroadcast = sc.broadcast(new NetBroadcastTuple(current.getConfiguration(),
+                            current.getGraphConfiguration(), baseParams, baseUpdaterState));
+
+            paramBlocks = ChangedBlocks.none(baseParams.length(), ChangedBlocks.DEFAULT_BLOCK_SIZE);
+            if (baseUpdaterState != null)
+                updaterBlocks = ChangedBlocks.none(baseUpdaterState.length(), ChangedBlocks.DEFAULT_BLOCK_SIZE);
+            else
+                updaterBlocks = null;
+        }
+
+        if (lastDeltaBroadcast != null)
+            lastDeltaBroadcast.unpersist(false);
+        lastDeltaBroadcast = sc.broadcast(new DeltaBroadcastTuple(paramBlocks, updaterBlocks, iterationCount));
+
+        if (collectTrainingStats)
+            stats.logBroadcastEnd();
+
+        return new ParameterAveragingTrainingWorker(baseBroadcast, lastDeltaBroadcast, deltaCompression, saveUpdater,
+                        configuration, trainingHookList, listeners, getRouterProvider(), modelCacheKey);
     }
 
     private int numObjectsEachWorker(int numExamplesEachRddObject) {
@@ -700,7 +879,8 @@ public class ParameterAveragingTrainingMaster
         if (collectTrainingStats)
             stats.logRepartitionStart();
         splitData = SparkUtils.repartition(splitData, repartition, repartitionStrategy,
-                        numObjectsEachWorker(rddDataSetNumExamples), numWorkers);
+                        numObjectsEachWorker(rddDataSetNumExamples), numWorkers, adaptiveRepartitioner(),
+                        new DataSetCostFunction());
         int nPartitions = splitData.partitions().size();
         if (collectTrainingStats && repartition != Repartition.Never)
             stats.logRepartitionEnd();
@@ -726,7 +906,7 @@ public class ParameterAveragingTrainingMaster
         if (collectTrainingStats)
             stats.logRepartitionStart();
         splitData = SparkUtils.repartition(splitData, repartition, repartitionStrategy,
-                        numObjectsEachWorker(rddDataSetNumExamples), numWorkers);
+                        numObjectsEachWorker(rddDataSetNumExamples), numWorkers, adaptiveRepartitioner(), null);
         int nPartitions = splitData.partitions().size();
         if (collectTrainingStats && repartition != Repartition.Never)
             stats.logRepartitionEnd();
@@ -755,7 +935,7 @@ public class ParameterAveragingTrainingMaster
         if (collectTrainingStats)
             stats.logRepartitionStart();
         splitData = SparkUtils.repartition(splitData, repartition, repartitionStrategy,
-                        numObjectsEachWorker(dataSetObjectNumExamples), numWorkers);
+                        numObjectsEachWorker(dataSetObjectNumExamples), numWorkers, adaptiveRepartitioner(), null);
         int nPartitions = splitData.partitions().size();
         if (collectTrainingStats && repartition != Repartition.Never)
             stats.logRepartitionEnd();
@@ -784,7 +964,7 @@ public class ParameterAveragingTrainingMaster
         if (collectTrainingStats)
             stats.logRepartitionStart();
         splitData = SparkUtils.repartition(splitData, repartition, repartitionStrategy,
-                        numObjectsEachWorker(dataSetObjectNumExamples), numWorkers);
+                        numObjectsEachWorker(dataSetObjectNumExamples), numWorkers, adaptiveRepartitioner(), null);
         int nPartitions = splitData.partitions().size();
         if (collectTrainingStats && repartition != Repartition.Never)
             stats.logRepartitionEnd();
@@ -809,7 +989,8 @@ public class ParameterAveragingTrainingMaster
         JavaRDD<MultiDataSet> splitData = split;
 
         splitData = SparkUtils.repartition(splitData, repartition, repartitionStrategy,
-                        numObjectsEachWorker(rddDataSetNumExamples), numWorkers);
+                        numObjectsEachWorker(rddDataSetNumExamples), numWorkers, adaptiveRepartitioner(),
+                        new MultiDataSetCostFunction());
         int nPartitions = split.partitions().size();
 
         FlatMapFunction<Iterator<MultiDataSet>, ParameterAveragingTrainingResult> function =
@@ -832,7 +1013,7 @@ public class ParameterAveragingTrainingMaster
         if (collectTrainingStats)
             stats.logRepartitionStart();
         splitData = SparkUtils.repartition(splitData, repartition, repartitionStrategy,
-                        numObjectsEachWorker(rddDataSetNumExamples), numWorkers);
+                        numObjectsEachWorker(rddDataSetNumExamples), numWorkers, adaptiveRepartitioner(), null);
         int nPartitions = splitData.partitions().size();
         if (collectTrainingStats && repartition != Repartition.Never)
             stats.logRepartitionEnd();
@@ -848,6 +1029,23 @@ public class ParameterAveragingTrainingMaster
     }
 
 
+    private void alignClocksIfRequired(JavaSparkContext sc) {
+        //Event timestamps from different executors are only comparable if their clocks are aligned to the driver
+        if (!collectTrainingStats || !ClockAlignment.isApplicable())
+            return;
+        if (clockAlignment == null)
+            clockAlignment = new ClockAlignment();
+        clockAlignment.alignIfRequired(sc);
+    }
+
+    private AdaptiveRepartitioner adaptiveRepartitioner() {
+        if (repartitionStrategy != RepartitionStrategy.Adaptive)
+            return null;
+        if (adaptiveRepartitioner == null)
+            adaptiveRepartitioner = new AdaptiveRepartitioner();
+        return adaptiveRepartitioner;
+    }
+
     private void processResults(SparkDl4jMultiLayer network, SparkComputationGraph graph,
                     JavaRDD<ParameterAveragingTrainingResult> results, int splitNum, int totalSplits) {
         //Need to do parameter averaging, and where necessary also do averaging of the updaters
@@ -855,8 +1053,9 @@ public class ParameterAveragingTrainingMaster
 
         if (collectTrainingStats)
             stats.logAggregateStartTime();
-        ParameterAveragingAggregationTuple tuple = results.aggregate(null, new ParameterAveragingElementAddFunction(),
-                        new ParameterAveragingElementCombineFunction());
+        ParameterAveragingAggregationTuple tuple = results.treeAggregate(null,
+                        new ParameterAveragingElementAddFunction(), new ParameterAveragingElementCombineFunction(),
+                        aggregationDepth);
         INDArray params = tuple.getParametersSum();
         int aggCount = tuple.getAggregationsCount();
         SparkTrainingStats aggregatedStats = tuple.getSparkTrainingStats();
@@ -872,6 +1071,23 @@ public class ParameterAveragingTrainingMaster
             if (updaterState != null)
                 updaterState.divi(aggCount); //May be null if all SGD updaters, for example
 
+            if (tuple.getDeltaCompression() != null) {
+                //Delta aggregation: we have the average change in parameters and updater state, relative to the
+                // values that were broadcast (i.e., the network's current values)
+                INDArray currentParams;
+                INDArray currentUpdaterState;
+                if (network != null) {
+                    currentParams = network.getNetwork().params();
+                    currentUpdaterState = network.getNetwork().getUpdater().getStateViewArray();
+                } else {
+                    currentParams = graph.getNetwork().params();
+                    currentUpdaterState = graph.getNetwork().getUpdater().getStateViewArray();
+                }
+                params.addi(currentParams);
+                if (updaterState != null && currentUpdaterState != null)
+                    updaterState.addi(currentUpdaterState);
+            }
+
             if (network != null) {
                 MultiLayerNetwork net = network.getNetwork();
                 net.setParameters(params);
@@ -893,6 +1109,9 @@ public class ParameterAveragingTrainingMaster
 
 
 
+        if (adaptiveRepartitioner != null)
+            adaptiveRepartitioner.update(aggregatedStats);
+
         if (collectTrainingStats) {
             stats.logProcessParamsUpdaterEnd();
             stats.addWorkerStats(aggregatedStats);
@@ -920,6 +1139,9 @@ public class ParameterAveragingTrainingMaster
 
 
 
+        if (collectTrainingStats)
+            stats.logAveragingRoundEnd(aggCount);
+
         log.info("Completed training of split {} of {}", splitNum, totalSplits);
 
         if (params != null) {
@@ -1012,7 +1234,7 @@ public class ParameterAveragingTrainingMaster
 
         log.info("Initiating RDD<DataSet> export at {}", baseDir);
         JavaRDD<String> paths = trainingData
-                        .mapPartitionsWithIndex(new BatchAndExportDataSetsFunction(batchSizePerWorker, dataDir), true);
+                        .mapPartitionsWithIndex(new BatchAndExportDataSetsFunction(batchSizePerWorker, dataDir, exportFormat), true);
         paths.saveAsTextFile(pathsDir);
         log.info("RDD<DataSet> export complete at {}", baseDir);
 
@@ -1096,6 +1318,12 @@ public class ParameterAveragingTrainingMaster
         private String exportDirectory = null;
         private Long rngSeed;
         private Collection<TrainingHook> trainingHooks;
+        private int aggregationDepth = 2;
+        private boolean deltaAggregation = false;
+        private DeltaCompression deltaCompression = DeltaCompression.NONE;
+        private boolean workerModelCaching = false;
+        private long workerDataSetCacheSizeBytes = 0;
+        private ColumnarDataSetFormat exportFormat = null;
 
 
         /**
@@ -1312,6 +1540,102 @@ public class ParameterAveragingTrainingMaster
             return this;
         }
 
+        /**
+         * Depth of the tree aggregation used to combine the worker results at the end of each averaging round.
+         * With a depth of 1, all worker results are sent to the driver and summed there. With greater depths, results
+         * are first summed on the executors in (depth - 1) rounds of partial aggregation, reducing the amount of data
+         * sent to the driver (and the time spent summing on the driver) when there are many workers.
+         * Default: 2
+         *
+         * @param aggregationDepth Depth of the aggregation tree (must be 1 or more)
+         */
+        public Builder aggregationDepth(int aggregationDepth) {
+            if (aggregationDepth < 1)
+                throw new IllegalArgumentException("Invalid aggregation depth: " + aggregationDepth + " (must be >= 1)");
+            this.aggregationDepth = aggregationDepth;
+            return this;
+        }
+
+        /**
+         * Equivalent to {@link #deltaAggregation(boolean, DeltaCompression)} with {@link DeltaCompression#NONE}
+         */
+        public Builder deltaAggregation(boolean deltaAggregation) {
+            return deltaAggregation(deltaAggregation, DeltaCompression.NONE);
+        }
+
+        /**
+         * If true: workers return the change in parameters (and updater state) over the averaging round, instead of
+         * the final values. The changes are (optionally) compressed when serialized for aggregation: GZIP compression
+         * is lossless, whereas INT8 quantization is lossy, but reduces the size of the results by approximately 4x
+         * (float) or 8x (double). INT8 quantization is applied once, to the results from each worker; partial sums
+         * are then combined in full precision, and sent with GZIP compression.<br>
+         * Additionally, with delta aggregation the configuration, parameters and updater state are broadcast in full
+         * only when required: in other averaging rounds, only the blocks of parameters and updater state that have
+         * changed since the last full broadcast are broadcast. This is useful for networks where much of the
+         * parameters are unchanged between averaging rounds, such as those with frozen layers.<br>
+         * Note that compression is applied only when the results are serialized with Java serialization (not Kryo).
+         * Default: false (no delta aggregation)
+         *
+         * @param deltaAggregation Whether to use delta aggregation
+         * @param deltaCompression Compression for the parameter and updater state changes
+         */
+        public Builder deltaAggregation(boolean deltaAggregation, DeltaCompression deltaCompression) {
+            if (deltaCompression == null)
+                throw new IllegalArgumentException("Delta compression cannot be null");
+            this.deltaAggregation = deltaAggregation;
+            this.deltaCompression = deltaCompression;
+            return this;
+        }
+
+        /**
+         * If true: executors keep the networks they have initialized, and reuse them for later averaging rounds with
+         * the same network configuration. The parameters, updater state and iteration count are overwritten in place
+         * for each round, instead of creating the layers, parameter views and updater state from scratch. This reduces
+         * the per-round setup time, which is useful when the averaging frequency is low.<br>
+         * Each executor holds one network per concurrently executing task. Note that other mutable state held in the
+         * network (such as learning rates modified by {@link org.deeplearning4j.nn.conf.LearningRatePolicy#Score})
+         * carries over between rounds on the same executor.<br>
+         * Default: false
+         *
+         * @param workerModelCaching Whether executors should reuse initialized networks
+         */
+        public Builder workerModelCaching(boolean workerModelCaching) {
+            this.workerModelCaching = workerModelCaching;
+            return this;
+        }
+
+        /**
+         * Maximum size (in bytes) of the executor-local cache of deserialized DataSets. When training from exported
+         * data (see {@link RDDTrainingApproach#Export}) or from PortableDataStreams, each executor keeps the most
+         * recently used DataSets (up to this size), so that they don't need to be loaded and deserialized again on later
+         * epochs. The cache size is the total size of the (off-heap) feature, label and mask arrays, for all tasks on
+         * the executor.<br>
+         * Default: 0 (no caching)
+         *
+         * @param workerDataSetCacheSizeBytes Maximum cache size per executor, in bytes. 0 to disable
+         */
+        public Builder workerDataSetCacheSize(long workerDataSetCacheSizeBytes) {
+            if (workerDataSetCacheSizeBytes < 0)
+                throw new IllegalArgumentException(
+                                "Invalid cache size: " + workerDataSetCacheSizeBytes + " (must be >= 0)");
+            this.workerDataSetCacheSizeBytes = workerDataSetCacheSizeBytes;
+            return this;
+        }
+
+        /**
+         * File format for exported DataSets, when using {@link RDDTrainingApproach#Export}. If null (default), DataSets
+         * are exported with {@link DataSet#save(java.io.OutputStream)}. Otherwise, they are exported in the
+         * {@link ColumnarDataSetFormat}, which can optionally use compression and half precision storage to reduce the
+         * size of the exported data.<br>
+         * Note that this applies to DataSet exports only, not MultiDataSet exports
+         *
+         * @param exportFormat Format for exported DataSets. May be null
+         */
+        public Builder exportFormat(ColumnarDataSetFormat exportFormat) {
+            this.exportFormat = exportFormat;
+            return this;
+        }
+
         public ParameterAveragingTrainingMaster build() {
             return new ParameterAveragingTrainingMaster(this);
         }
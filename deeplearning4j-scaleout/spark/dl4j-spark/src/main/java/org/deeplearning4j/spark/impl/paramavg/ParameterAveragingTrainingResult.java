@@ -5,6 +5,7 @@ import org.deeplearning4j.api.storage.Persistable;
 import org.deeplearning4j.api.storage.StorageMetaData;
 import org.deeplearning4j.spark.api.TrainingResult;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.impl.paramavg.aggregator.DeltaCompression;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.util.Collection;
@@ -26,6 +27,8 @@ public class ParameterAveragingTrainingResult implements TrainingResult {
     private final Collection<StorageMetaData> listenerMetaData;
     private final Collection<Persistable> listenerStaticInfo;
     private final Collection<Persistable> listenerUpdates;
+    //Non-null if parameters and updater state are deltas relative to the broadcast values
+    private final DeltaCompression deltaCompression;
 
 
     public ParameterAveragingTrainingResult(INDArray parameters, INDArray updaterState, double score,
@@ -37,6 +40,19 @@ public class ParameterAveragingTrainingResult implements TrainingResult {
     public ParameterAveragingTrainingResult(INDArray parameters, INDArray updaterState, double score,
                     SparkTrainingStats sparkTrainingStats, Collection<StorageMetaData> listenerMetaData,
                     Collection<Persistable> listenerStaticInfo, Collection<Persistable> listenerUpdates) {
+        this(parameters, updaterState, score, sparkTrainingStats, listenerMetaData, listenerStaticInfo,
+                        listenerUpdates, null);
+    }
+
+    /**
+     * @param deltaCompression If non-null: the parameters and updater state are deltas relative to the broadcast
+     *                         parameters and updater state, to be compressed using the specified compression when
+     *                         sent to the driver
+     */
+    public ParameterAveragingTrainingResult(INDArray parameters, INDArray updaterState, double score,
+                    SparkTrainingStats sparkTrainingStats, Collection<StorageMetaData> listenerMetaData,
+                    Collection<Persistable> listenerStaticInfo, Collection<Persistable> listenerUpdates,
+                    DeltaCompression deltaCompression) {
         this.parameters = parameters;
         this.updaterState = updaterState;
         this.score = score;
@@ -45,6 +61,7 @@ public class ParameterAveragingTrainingResult implements TrainingResult {
         this.listenerMetaData = listenerMetaData;
         this.listenerStaticInfo = listenerStaticInfo;
         this.listenerUpdates = listenerUpdates;
+        this.deltaCompression = deltaCompression;
     }
 
     @Override
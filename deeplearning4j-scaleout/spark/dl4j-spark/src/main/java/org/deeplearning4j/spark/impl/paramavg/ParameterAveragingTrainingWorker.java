@@ -9,19 +9,25 @@ import org.deeplearning4j.api.storage.listener.RoutingIterationListener;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Updater;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.graph.util.ComputationGraphUtil;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.updater.MultiLayerUpdater;
+import org.deeplearning4j.nn.updater.UpdaterCreator;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
 import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.spark.api.TrainingHook;
 import org.deeplearning4j.spark.api.TrainingWorker;
 import org.deeplearning4j.spark.api.WorkerConfiguration;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.api.worker.ExecutorModelCache;
 import org.deeplearning4j.spark.api.worker.NetBroadcastTuple;
 import org.deeplearning4j.spark.impl.listeners.VanillaStatsStorageRouter;
+import org.deeplearning4j.spark.impl.paramavg.aggregator.DeltaCompression;
 import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingWorkerStats;
+import org.deeplearning4j.spark.impl.paramavg.util.DeltaBroadcastTuple;
 import org.deeplearning4j.util.UIDProvider;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.executioner.GridExecutioner;
@@ -49,17 +55,48 @@ public class ParameterAveragingTrainingWorker implements TrainingWorker<Paramete
     private ParameterAveragingTrainingWorkerStats.ParameterAveragingTrainingWorkerStatsHelper stats = null;
     private Collection<IterationListener> iterationListeners;
     private StatsStorageRouterProvider listenerRouterProvider;
+    //Delta aggregation only: changed parameters relative to the base broadcast, and compression for the results
+    private final Broadcast<DeltaBroadcastTuple> deltaBroadcast;
+    private final DeltaCompression deltaCompression;
+    private transient INDArray initialParams;
+    private transient INDArray initialUpdaterState;
+    //Key for the executor-local model cache (see ExecutorModelCache), or null if networks should not be reused
+    private final String modelCacheKey;
 
     public ParameterAveragingTrainingWorker(Broadcast<NetBroadcastTuple> broadcast, boolean saveUpdater,
                     WorkerConfiguration configuration, Collection<TrainingHook> trainingHooks,
                     Collection<IterationListener> listeners, StatsStorageRouterProvider routerProvider) {
+        this(broadcast, null, null, saveUpdater, configuration, trainingHooks, listeners, routerProvider, null);
+    }
+
+    /**
+     * @param broadcast        Broadcast configuration, parameters and updater state. For delta aggregation, this is
+     *                         the base broadcast that the delta broadcast is relative to
+     * @param deltaBroadcast   For delta aggregation: parameters and updater state changed since the base broadcast.
+     *                         Null otherwise
+     * @param deltaCompression For delta aggregation: compression for the parameter and updater state deltas returned
+     *                         by the worker. Null otherwise
+     * @param modelCacheKey    Key for reusing initialized networks on the executor (see {@link ExecutorModelCache}).
+     *                         Must change whenever the network configuration changes. Null: don't reuse networks
+     */
+    public ParameterAveragingTrainingWorker(Broadcast<NetBroadcastTuple> broadcast,
+                    Broadcast<DeltaBroadcastTuple> deltaBroadcast, DeltaCompression deltaCompression,
+                    boolean saveUpdater, WorkerConfiguration configuration, Collection<TrainingHook> trainingHooks,
+                    Collection<IterationListener> listeners, StatsStorageRouterProvider routerProvider,
+                    String modelCacheKey) {
+        if ((deltaBroadcast == null) != (deltaCompression == null))
+            throw new IllegalArgumentException("Delta broadcast and delta compression must both be set (delta "
+                            + "aggregation) or both be null");
 
         this.broadcast = broadcast;
+        this.deltaBroadcast = deltaBroadcast;
+        this.deltaCompression = deltaCompression;
         this.saveUpdater = saveUpdater;
         this.configuration = configuration;
         this.trainingHooks = trainingHooks;
         this.iterationListeners = listeners;
         this.listenerRouterProvider = routerProvider;
+        this.modelCacheKey = modelCacheKey;
     }
 
     /**
@@ -98,13 +135,44 @@ public class ParameterAveragingTrainingWorker implements TrainingWorker<Paramete
         if (configuration.isCollectTrainingStats())
             stats.logBroadcastGetValueEnd();
 
-        //Don't want to have shared configuration object: each may update its iteration count (for LR schedule etc) individually
-        MultiLayerNetwork net = new MultiLayerNetwork(tuple.getConfiguration().clone());
-        //Can't have shared parameter array across executors for parameter averaging, hence the 'true' for clone parameters array arg
-        net.init(tuple.getParameters().unsafeDuplication(), false);
+        INDArray params = tuple.getParameters();
+        INDArray updaterState = tuple.getUpdaterState();
+        int iterationCount = tuple.getConfiguration().getIterationCount();
+        if (deltaBroadcast != null) {
+            DeltaBroadcastTuple delta = getDeltaBroadcastValue();
+            iterationCount = delta.getIterationCount();
+            params = initialParams = delta.getParameters().applyTo(params);
+            if (delta.getUpdaterState() != null)
+                updaterState = delta.getUpdaterState().applyTo(updaterState);
+            initialUpdaterState = updaterState;
+        }
 
-        if (tuple.getUpdaterState() != null) {
-            net.setUpdater(new MultiLayerUpdater(net, tuple.getUpdaterState().unsafeDuplication())); //Can't have shared updater state
+        MultiLayerNetwork net = null;
+        if (modelCacheKey != null) {
+            Model cached = ExecutorModelCache.getInstance().take(modelCacheKey);
+            if (cached instanceof MultiLayerNetwork && cached.numParams() == params.length())
+                net = (MultiLayerNetwork) cached;
+        }
+
+        if (net != null) {
+            //Reuse a network initialized by an earlier task: overwrite parameters and updater state in place
+            net.getLayerWiseConfigurations().setIterationCount(iterationCount);
+            net.setParams(params);
+            if (updaterState != null)
+                net.getUpdater().setStateViewArray(net, updaterState, false);
+            else
+                net.setUpdater(UpdaterCreator.getUpdater(net));
+        } else {
+            //Don't want to have shared configuration object: each may update its iteration count (for LR schedule etc) individually
+            MultiLayerConfiguration conf = tuple.getConfiguration().clone();
+            conf.setIterationCount(iterationCount);
+            net = new MultiLayerNetwork(conf);
+            //Can't have shared parameter array across executors for parameter averaging, hence the 'true' for clone parameters array arg
+            net.init(params.unsafeDuplication(), false);
+
+            if (updaterState != null) {
+                net.setUpdater(new MultiLayerUpdater(net, updaterState.unsafeDuplication())); //Can't have shared updater state
+            }
         }
 
         if (Nd4j.getExecutioner() instanceof GridExecutioner)
@@ -129,13 +197,44 @@ public class ParameterAveragingTrainingWorker implements TrainingWorker<Paramete
         if (configuration.isCollectTrainingStats())
             stats.logBroadcastGetValueEnd();
 
-        //Don't want to have shared configuration object: each may update its iteration count (for LR schedule etc) individually
-        ComputationGraph net = new ComputationGraph(tuple.getGraphConfiguration().clone());
-        //Can't have shared parameter array across executors for parameter averaging, hence the 'true' for clone parameters array arg
-        net.init(tuple.getParameters().unsafeDuplication(), false);
+        INDArray params = tuple.getParameters();
+        INDArray updaterState = tuple.getUpdaterState();
+        int iterationCount = tuple.getGraphConfiguration().getIterationCount();
+        if (deltaBroadcast != null) {
+            DeltaBroadcastTuple delta = getDeltaBroadcastValue();
+            iterationCount = delta.getIterationCount();
+            params = initialParams = delta.getParameters().applyTo(params);
+            if (delta.getUpdaterState() != null)
+                updaterState = delta.getUpdaterState().applyTo(updaterState);
+            initialUpdaterState = updaterState;
+        }
+
+        ComputationGraph net = null;
+        if (modelCacheKey != null) {
+            Model cached = ExecutorModelCache.getInstance().take(modelCacheKey);
+            if (cached instanceof ComputationGraph && cached.numParams() == params.length())
+                net = (ComputationGraph) cached;
+        }
 
-        if (tuple.getUpdaterState() != null) {
-            net.setUpdater(new ComputationGraphUpdater(net, tuple.getUpdaterState().unsafeDuplication())); //Again: can't have shared updater state
+        if (net != null) {
+            //Reuse a network initialized by an earlier task: overwrite parameters and updater state in place
+            net.getConfiguration().setIterationCount(iterationCount);
+            net.setParams(params);
+            if (updaterState != null)
+                net.getUpdater().setStateViewArray(updaterState);
+            else
+                net.setUpdater(new ComputationGraphUpdater(net));
+        } else {
+            //Don't want to have shared configuration object: each may update its iteration count (for LR schedule etc) individually
+            ComputationGraphConfiguration conf = tuple.getGraphConfiguration().clone();
+            conf.setIterationCount(iterationCount);
+            net = new ComputationGraph(conf);
+            //Can't have shared parameter array across executors for parameter averaging, hence the 'true' for clone parameters array arg
+            net.init(params.unsafeDuplication(), false);
+
+            if (updaterState != null) {
+                net.setUpdater(new ComputationGraphUpdater(net, updaterState.unsafeDuplication())); //Again: can't have shared updater state
+            }
         }
 
         if (Nd4j.getExecutioner() instanceof GridExecutioner)
@@ -149,6 +248,54 @@ public class ParameterAveragingTrainingWorker implements TrainingWorker<Paramete
         return net;
     }
 
+    private DeltaBroadcastTuple getDeltaBroadcastValue() {
+        if (configuration.isCollectTrainingStats())
+            stats.logBroadcastGetValueStart();
+        DeltaBroadcastTuple delta = deltaBroadcast.getValue();
+        if (configuration.isCollectTrainingStats())
+            stats.logBroadcastGetValueEnd();
+        return delta;
+    }
+
+    private ParameterAveragingTrainingResult createResult(INDArray params, INDArray updaterState, double score,
+                    Collection<StorageMetaData> storageMetaData, Collection<Persistable> listenerStaticInfo,
+                    Collection<Persistable> listenerUpdates) {
+        if (deltaCompression == null) {
+            return new ParameterAveragingTrainingResult(params, updaterState, score, storageMetaData,
+                            listenerStaticInfo, listenerUpdates);
+        }
+
+        //Delta aggregation: return the changes relative to the values this worker started from
+        INDArray paramsDelta = params.sub(initialParams);
+        INDArray updaterStateDelta = null;
+        if (updaterState != null) {
+            updaterStateDelta = (initialUpdaterState == null ? updaterState.dup()
+                            : updaterState.sub(initialUpdaterState));
+        }
+        return new ParameterAveragingTrainingResult(paramsDelta, updaterStateDelta, score, null, storageMetaData,
+                        listenerStaticInfo, listenerUpdates, deltaCompression);
+    }
+
+    private ParameterAveragingTrainingResult releaseAndCreateResult(Model network, INDArray params,
+                    INDArray updaterState, Collection<StorageMetaData> storageMetaData,
+                    Collection<Persistable> listenerStaticInfo, Collection<Persistable> listenerUpdates) {
+        if (modelCacheKey == null) {
+            return createResult(params, updaterState, network.score(), storageMetaData, listenerStaticInfo,
+                            listenerUpdates);
+        }
+
+        //The network is returned to the cache for reuse by later tasks: the result can't share its arrays
+        if (deltaCompression == null) {
+            params = params.dup();
+            if (updaterState != null)
+                updaterState = updaterState.dup();
+        }
+        ParameterAveragingTrainingResult result = createResult(params, updaterState, network.score(), storageMetaData,
+                        listenerStaticInfo, listenerUpdates);
+        ExecutorModelCache.getInstance().release(modelCacheKey, network);
+        return result;
+    }
+
     private void configureListeners(Model m, int counter) {
         if (iterationListeners != null) {
             List<IterationListener> list = new ArrayList<>(iterationListeners.size());
@@ -293,8 +440,8 @@ public class ParameterAveragingTrainingWorker implements TrainingWorker<Paramete
                 listenerUpdates = ssr.getUpdates();
             }
         }
-        return new ParameterAveragingTrainingResult(network.params(), updaterState, network.score(), storageMetaData,
-                        listenerStaticInfo, listenerUpdates);
+        return releaseAndCreateResult(network, network.params(), updaterState, storageMetaData, listenerStaticInfo,
+                        listenerUpdates);
     }
 
     @Override
@@ -322,8 +469,8 @@ public class ParameterAveragingTrainingWorker implements TrainingWorker<Paramete
             }
         }
 
-        return new ParameterAveragingTrainingResult(network.params(), updaterState, network.score(), storageMetaData,
-                        listenerStaticInfo, listenerUpdates);
+        return releaseAndCreateResult(network, network.params(), updaterState, storageMetaData, listenerStaticInfo,
+                        listenerUpdates);
     }
 
     @Override
@@ -0,0 +1,179 @@
+package org.deeplearning4j.spark.impl.paramavg.aggregator;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A serializable, compressed copy of an INDArray, using one of the {@link DeltaCompression} encodings.
+ *
+ * @see DeltaCompression
+ */
+public class CompressedArray implements Serializable {
+
+    /**
+     * Number of values sharing the same offset and scale, for {@link DeltaCompression#INT8}
+     */
+    public static final int INT8_BLOCK_SIZE = 1024;
+
+    private final DeltaCompression compression;
+    private final int[] shape;
+    private final char order;
+    private final boolean doublePrecision;
+    private final byte[] data;
+    //INT8 only: offset (minimum value) and scale for each block
+    private final float[] blockMin;
+    private final float[] blockScale;
+    //NONE only
+    private final INDArray array;
+
+    private CompressedArray(DeltaCompression compression, int[] shape, char order, boolean doublePrecision,
+                    byte[] data, float[] blockMin, float[] blockScale, INDArray array) {
+        this.compression = compression;
+        this.shape = shape;
+        this.order = order;
+        this.doublePrecision = doublePrecision;
+        this.data = data;
+        this.blockMin = blockMin;
+        this.blockScale = blockScale;
+        this.array = array;
+    }
+
+    /**
+     * Compress the specified array
+     *
+     * @param arr         Array to compress. Not modified
+     * @param compression Encoding to use
+     */
+    public static CompressedArray compress(INDArray arr, DeltaCompression compression) {
+        if (compression == null || compression == DeltaCompression.NONE) {
+            return new CompressedArray(DeltaCompression.NONE, arr.shape(), arr.ordering(), false, null, null, null,
+                            arr);
+        }
+
+        if (arr.offset() != 0 || arr.length() != arr.data().length()) {
+            arr = arr.dup(arr.ordering());
+        }
+        boolean doublePrecision = arr.data().dataType() == DataBuffer.Type.DOUBLE;
+
+        switch (compression) {
+            case GZIP:
+                try {
+                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                    try (DataOutputStream dos =
+                                    new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(baos)))) {
+                        if (doublePrecision) {
+                            for (double d : arr.data().asDouble()) {
+                                dos.writeDouble(d);
+                            }
+                        } else {
+                            for (float f : arr.data().asFloat()) {
+                                dos.writeFloat(f);
+                            }
+                        }
+                    }
+                    return new CompressedArray(compression, arr.shape(), arr.ordering(), doublePrecision,
+                                    baos.toByteArray(), null, null, null);
+                } catch (IOException e) {
+                    //Should never happen for in-memory streams
+                    throw new RuntimeException("Error compressing array", e);
+                }
+            case INT8:
+                float[] values = arr.data().asFloat();
+                int numBlocks = (values.length + INT8_BLOCK_SIZE - 1) / INT8_BLOCK_SIZE;
+                float[] blockMin = new float[numBlocks];
+                float[] blockScale = new float[numBlocks];
+                byte[] data = new byte[values.length];
+                for (int b = 0; b < numBlocks; b++) {
+                    int start = b * INT8_BLOCK_SIZE;
+                    int end = Math.min(values.length, start + INT8_BLOCK_SIZE);
+                    float min = values[start];
+                    float max = values[start];
+                    for (int i = start + 1; i < end; i++) {
+                        min = Math.min(min, values[i]);
+                        max = Math.max(max, values[i]);
+                    }
+                    float scale = (max - min) / 255.0f;
+                    blockMin[b] = min;
+                    blockScale[b] = scale;
+                    if (scale == 0.0f)
+                        continue; //All values equal to min; bytes are all zero
+                    for (int i = start; i < end; i++) {
+                        int q = Math.round((values[i] - min) / scale);
+                        data[i] = (byte) Math.min(255, Math.max(0, q));
+                    }
+                }
+                return new CompressedArray(compression, arr.shape(), arr.ordering(), doublePrecision, data, blockMin,
+                                blockScale, null);
+            default:
+                throw new IllegalArgumentException("Unknown compression: " + compression);
+        }
+    }
+
+    /**
+     * @return The compression used for this array
+     */
+    public DeltaCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * @return Size of the compressed values, in bytes
+     */
+    public long compressedSizeBytes() {
+        if (array != null) {
+            return array.length() * (array.data().dataType() == DataBuffer.Type.DOUBLE ? 8 : 4);
+        }
+        long size = data.length;
+        if (blockMin != null)
+            size += 4L * (blockMin.length + blockScale.length);
+        return size;
+    }
+
+    /**
+     * @return A new array with the (decompressed) values
+     */
+    public INDArray decompress() {
+        if (array != null)
+            return array;
+
+        int length = 1;
+        for (int s : shape)
+            length *= s;
+
+        switch (compression) {
+            case GZIP:
+                try (DataInputStream dis = new DataInputStream(
+                                new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(data))))) {
+                    if (doublePrecision) {
+                        double[] values = new double[length];
+                        for (int i = 0; i < length; i++) {
+                            values[i] = dis.readDouble();
+                        }
+                        return Nd4j.create(values, shape, order);
+                    } else {
+                        float[] values = new float[length];
+                        for (int i = 0; i < length; i++) {
+                            values[i] = dis.readFloat();
+                        }
+                        return Nd4j.create(values, shape, order);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException("Error decompressing array", e);
+                }
+            case INT8:
+                float[] values = new float[length];
+                for (int i = 0; i < length; i++) {
+                    int b = i / INT8_BLOCK_SIZE;
+                    values[i] = blockMin[b] + (data[i] & 0xFF) * blockScale[b];
+                }
+                return Nd4j.create(values, shape, order);
+            default:
+                throw new IllegalStateException("Unknown compression: " + compression);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.deeplearning4j.spark.impl.paramavg.aggregator;
+
+/**
+ * Encoding used for the parameter and updater state deltas (and their sums) sent from workers to the driver, when
+ * using delta aggregation in {@link org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingMaster}.<br>
+ * NONE: deltas are sent as standard (dense) arrays<br>
+ * GZIP: lossless; the array values are compressed with gzip<br>
+ * INT8: lossy; values are quantized to 8 bits, with a separate offset and scale for each block of
+ * {@link CompressedArray#INT8_BLOCK_SIZE} values. Quantization error is at most half of (blockMax-blockMin)/255
+ *
+ * @see CompressedArray
+ */
+public enum DeltaCompression {
+    NONE, GZIP, INT8
+}
@@ -8,12 +8,21 @@ import org.deeplearning4j.api.storage.StorageMetaData;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 
 /**
  * Simple helper tuple used to execute parameter averaging
+ * <p>
+ * If {@link #getDeltaCompression()} is non-null, the parameter and updater state sums are sums of deltas (relative to
+ * the broadcast parameters and updater state) rather than of absolute values. In that case, when the tuple is
+ * serialized (i.e., sent between executors or to the driver, with Java serialization) the sums are compressed
+ * using the specified {@link DeltaCompression}. Lossy (INT8) compression is only used for the tuples created from the
+ * worker results; once tuples are combined, the compression is changed to lossless (see
+ * {@link #combinedCompression(DeltaCompression)}). Each worker's delta is hence quantized at most once, and the sums
+ * in the tree aggregation are in full precision.
  *
  * @author Alex Black
  */
@@ -29,4 +38,56 @@ public class ParameterAveragingAggregationTuple implements Serializable {
     private final Collection<StorageMetaData> listenerMetaData;
     private final Collection<Persistable> listenerStaticInfo;
     private final Collection<Persistable> listenerUpdates;
+    private final DeltaCompression deltaCompression;
+
+    /**
+     * @param compression Compression of the tuples being combined
+     * @return Compression to use for the combined tuple: INT8 is replaced by (lossless) GZIP
+     */
+    public static DeltaCompression combinedCompression(DeltaCompression compression) {
+        return compression == DeltaCompression.INT8 ? DeltaCompression.GZIP : compression;
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        if (deltaCompression == null || deltaCompression == DeltaCompression.NONE)
+            return this;
+        return new CompressedForm(this);
+    }
+
+    /**
+     * Serialized form of the tuple, with compressed parameter and updater state sums
+     */
+    private static class CompressedForm implements Serializable {
+        private final CompressedArray parametersSum;
+        private final CompressedArray updaterStateSum;
+        private final double scoreSum;
+        private final int aggregationsCount;
+        private final SparkTrainingStats sparkTrainingStats;
+        private final Collection<StorageMetaData> listenerMetaData;
+        private final Collection<Persistable> listenerStaticInfo;
+        private final Collection<Persistable> listenerUpdates;
+        private final DeltaCompression deltaCompression;
+
+        private CompressedForm(ParameterAveragingAggregationTuple t) {
+            DeltaCompression c = t.deltaCompression;
+            this.parametersSum = (t.parametersSum == null ? null : CompressedArray.compress(t.parametersSum, c));
+            this.updaterStateSum =
+                            (t.updaterStateSum == null ? null : CompressedArray.compress(t.updaterStateSum, c));
+            this.scoreSum = t.scoreSum;
+            this.aggregationsCount = t.aggregationsCount;
+            this.sparkTrainingStats = t.sparkTrainingStats;
+            this.listenerMetaData = t.listenerMetaData;
+            this.listenerStaticInfo = t.listenerStaticInfo;
+            this.listenerUpdates = t.listenerUpdates;
+            this.deltaCompression = c;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            return new ParameterAveragingAggregationTuple(
+                            (parametersSum == null ? null : parametersSum.decompress()),
+                            (updaterStateSum == null ? null : updaterStateSum.decompress()), scoreSum,
+                            aggregationsCount, sparkTrainingStats, listenerMetaData, listenerStaticInfo,
+                            listenerUpdates, deltaCompression);
+        }
+    }
 }
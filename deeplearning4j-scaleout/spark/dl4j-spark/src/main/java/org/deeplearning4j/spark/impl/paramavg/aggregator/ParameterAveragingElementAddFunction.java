@@ -28,7 +28,8 @@ public class ParameterAveragingElementAddFunction implements
                             .sparkTrainingStats(result.getSparkTrainingStats())
                             .listenerMetaData(result.getListenerMetaData())
                             .listenerStaticInfo(result.getListenerStaticInfo())
-                            .listenerUpdates(result.getListenerUpdates()).build();
+                            .listenerUpdates(result.getListenerUpdates())
+                            .deltaCompression(result.getDeltaCompression()).build();
         }
 
         INDArray params = tuple.getParametersSum().addi(result.getParameters());
@@ -83,6 +84,7 @@ public class ParameterAveragingElementAddFunction implements
 
 
         return new ParameterAveragingAggregationTuple(params, updaterStateSum, scoreSum,
-                        tuple.getAggregationsCount() + 1, stats, listenerMetaData, listenerStaticInfo, listenerUpdates);
+                        tuple.getAggregationsCount() + 1, stats, listenerMetaData, listenerStaticInfo, listenerUpdates,
+                        tuple.getDeltaCompression());
     }
 }
@@ -84,6 +84,7 @@ public class ParameterAveragingElementCombineFunction implements
         }
 
         return new ParameterAveragingAggregationTuple(newParams, updaterStateSum, scoreSum, aggregationCount, stats,
-                        listenerMetaData, listenerStaticInfo, listenerUpdates);
+                        listenerMetaData, listenerStaticInfo, listenerUpdates,
+                        ParameterAveragingAggregationTuple.combinedCompression(v1.getDeltaCompression()));
     }
 }
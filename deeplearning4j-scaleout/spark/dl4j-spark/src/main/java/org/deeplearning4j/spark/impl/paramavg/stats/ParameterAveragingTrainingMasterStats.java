@@ -30,6 +30,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
     public static final String FILENAME_AGGREGATE_TIME = "parameterAveragingMasterAggregateTimesMs.txt";
     public static final String FILENAME_PROCESS_PARAMS_TIME = "parameterAveragingMasterProcessParamsUpdaterTimesMs.txt";
     public static final String FILENAME_REPARTITION_STATS = "parameterAveragingMasterRepartitionTimesMs.txt";
+    public static final String FILENAME_AVERAGING_ROUND_TIME = "parameterAveragingMasterAveragingRoundTimesMs.txt";
 
     public static final String PARAMETER_AVERAGING_MASTER_EXPORT_RDD_TIMES_MS = "parameterAveragingMasterExportTimesMs";
     public static final String PARAMETER_AVERAGING_MASTER_COUNT_RDD_TIMES_MS =
@@ -46,6 +47,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                     "ParameterAveragingMasterProcessParamsUpdaterTimesMs";
     public static final String PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS =
                     "ParameterAveragingMasterRepartitionTimesMs";
+    public static final String PARAMETER_AVERAGING_MASTER_AVERAGING_ROUND_TIMES_MS =
+                    "ParameterAveragingMasterAveragingRoundTimesMs";
 
     private static Set<String> columnNames = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
                     PARAMETER_AVERAGING_MASTER_EXPORT_RDD_TIMES_MS, PARAMETER_AVERAGING_MASTER_COUNT_RDD_TIMES_MS,
@@ -53,7 +56,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                     PARAMETER_AVERAGING_MASTER_SPLIT_TIMES_MS, PARAMETER_AVERAGING_MASTER_MAP_PARTITIONS_TIMES_MS,
                     PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS,
                     PARAMETER_AVERAGING_MASTER_PROCESS_PARAMS_UPDATER_TIMES_MS,
-                    PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS)));
+                    PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS,
+                    PARAMETER_AVERAGING_MASTER_AVERAGING_ROUND_TIMES_MS)));
 
     private SparkTrainingStats workerStats;
     private List<EventStats> parameterAveragingMasterExportTimesMs;
@@ -65,6 +69,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
     private List<EventStats> paramaterAveragingMasterAggregateTimesMs;
     private List<EventStats> parameterAveragingMasterProcessParamsUpdaterTimesMs;
     private List<EventStats> parameterAveragingMasterRepartitionTimesMs;
+    //Time from broadcast to updated parameters for each averaging round, with the number of workers that returned results
+    private List<EventStats> parameterAveragingMasterAveragingRoundTimesMs;
 
 
     public ParameterAveragingTrainingMasterStats(SparkTrainingStats workerStats,
@@ -77,6 +83,24 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                     List<EventStats> parameterAveragingMasterAggregateTimesMs,
                     List<EventStats> parameterAveragingMasterProcessParamsUpdaterTimesMs,
                     List<EventStats> parameterAveragingMasterRepartitionTimesMs) {
+        this(workerStats, parameterAveragingMasterExportTimesMs, parameterAveragingMasterCountRddSizeTimesMs,
+                        parameterAveragingMasterBroadcastCreateTimeMs, parameterAveragingMasterFitTimeMs,
+                        parameterAveragingMasterSplitTimeMs, parameterAveragingMasterMapPartitionsTimesMs,
+                        parameterAveragingMasterAggregateTimesMs, parameterAveragingMasterProcessParamsUpdaterTimesMs,
+                        parameterAveragingMasterRepartitionTimesMs, null);
+    }
+
+    public ParameterAveragingTrainingMasterStats(SparkTrainingStats workerStats,
+                    List<EventStats> parameterAveragingMasterExportTimesMs,
+                    List<EventStats> parameterAveragingMasterCountRddSizeTimesMs,
+                    List<EventStats> parameterAveragingMasterBroadcastCreateTimeMs,
+                    List<EventStats> parameterAveragingMasterFitTimeMs,
+                    List<EventStats> parameterAveragingMasterSplitTimeMs,
+                    List<EventStats> parameterAveragingMasterMapPartitionsTimesMs,
+                    List<EventStats> parameterAveragingMasterAggregateTimesMs,
+                    List<EventStats> parameterAveragingMasterProcessParamsUpdaterTimesMs,
+                    List<EventStats> parameterAveragingMasterRepartitionTimesMs,
+                    List<EventStats> parameterAveragingMasterAveragingRoundTimesMs) {
         this.workerStats = workerStats;
         this.parameterAveragingMasterExportTimesMs = parameterAveragingMasterExportTimesMs;
         this.parameterAveragingMasterCountRddSizeTimesMs = parameterAveragingMasterCountRddSizeTimesMs;
@@ -87,6 +111,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         this.paramaterAveragingMasterAggregateTimesMs = parameterAveragingMasterAggregateTimesMs;
         this.parameterAveragingMasterProcessParamsUpdaterTimesMs = parameterAveragingMasterProcessParamsUpdaterTimesMs;
         this.parameterAveragingMasterRepartitionTimesMs = parameterAveragingMasterRepartitionTimesMs;
+        this.parameterAveragingMasterAveragingRoundTimesMs = parameterAveragingMasterAveragingRoundTimesMs;
     }
 
 
@@ -119,6 +144,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                 return parameterAveragingMasterProcessParamsUpdaterTimesMs;
             case PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS:
                 return parameterAveragingMasterRepartitionTimesMs;
+            case PARAMETER_AVERAGING_MASTER_AVERAGING_ROUND_TIMES_MS:
+                return parameterAveragingMasterAveragingRoundTimesMs;
             default:
                 if (workerStats != null)
                     return workerStats.getValue(key);
@@ -147,6 +174,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                 return "ProcessParams";
             case PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS:
                 return "Repartition";
+            case PARAMETER_AVERAGING_MASTER_AVERAGING_ROUND_TIMES_MS:
+                return "AveragingRound";
             default:
                 if (workerStats != null)
                     return workerStats.getShortNameForKey(key);
@@ -167,6 +196,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             case PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS:
             case PARAMETER_AVERAGING_MASTER_PROCESS_PARAMS_UPDATER_TIMES_MS:
             case PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS:
+            case PARAMETER_AVERAGING_MASTER_AVERAGING_ROUND_TIMES_MS:
                 return true;
             default:
                 if (workerStats != null)
@@ -203,6 +233,13 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             if (o.parameterAveragingMasterRepartitionTimesMs != null)
                 parameterAveragingMasterRepartitionTimesMs.addAll(o.parameterAveragingMasterRepartitionTimesMs);
         }
+        if (parameterAveragingMasterAveragingRoundTimesMs == null) {
+            if (o.parameterAveragingMasterAveragingRoundTimesMs != null)
+                parameterAveragingMasterAveragingRoundTimesMs = o.parameterAveragingMasterAveragingRoundTimesMs;
+        } else {
+            if (o.parameterAveragingMasterAveragingRoundTimesMs != null)
+                parameterAveragingMasterAveragingRoundTimesMs.addAll(o.parameterAveragingMasterAveragingRoundTimesMs);
+        }
     }
 
     @Override
@@ -270,6 +307,12 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             sb.append(StatsUtils.getDurationAsString(parameterAveragingMasterProcessParamsUpdaterTimesMs, ","))
                             .append("\n");
 
+        sb.append(String.format(f, PARAMETER_AVERAGING_MASTER_AVERAGING_ROUND_TIMES_MS));
+        if (parameterAveragingMasterAveragingRoundTimesMs == null)
+            sb.append("-\n");
+        else
+            sb.append(getAveragingRoundTimesByWorkerCount()).append("\n");
+
         if (workerStats != null)
             sb.append(workerStats.statsAsString());
 
@@ -322,10 +365,41 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             StatsUtils.exportStats(parameterAveragingMasterRepartitionTimesMs, repartitionPath, d, sc);
         }
 
+        //Averaging round times
+        if (parameterAveragingMasterAveragingRoundTimesMs != null) {
+            String roundPath = FilenameUtils.concat(outputPath, FILENAME_AVERAGING_ROUND_TIME);
+            StatsUtils.exportStats(parameterAveragingMasterAveragingRoundTimesMs, roundPath, d, sc);
+        }
+
         if (workerStats != null)
             workerStats.exportStatFiles(outputPath, sc);
     }
 
+    /**
+     * @return Mean averaging round duration for each number of workers, as a String
+     */
+    public String getAveragingRoundTimesByWorkerCount() {
+        Map<Integer, long[]> byCount = new TreeMap<>(); //Values: total duration, number of rounds
+        for (EventStats e : parameterAveragingMasterAveragingRoundTimesMs) {
+            int numWorkers = (e instanceof WorkerCountEventStats ? ((WorkerCountEventStats) e).getNumWorkers() : -1);
+            long[] v = byCount.get(numWorkers);
+            if (v == null) {
+                v = new long[2];
+                byCount.put(numWorkers, v);
+            }
+            v[0] += e.getDurationMs();
+            v[1]++;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Integer, long[]> entry : byCount.entrySet()) {
+            if (sb.length() > 0)
+                sb.append(", ");
+            long[] v = entry.getValue();
+            sb.append(String.format("%d workers: %.1f ms (%d rounds)", entry.getKey(), v[0] / (double) v[1], v[1]));
+        }
+        return sb.toString();
+    }
+
     public static class ParameterAveragingTrainingMasterStatsHelper {
 
         private long lastExportStartTime;
@@ -337,6 +411,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         private long lastMapPartitionsStartTime;
         private long lastAggregateStartTime;
         private long lastProcessParamsUpdaterStartTime;
+        private long lastAveragingRoundStartTime;
 
         private SparkTrainingStats workerStats;
 
@@ -349,6 +424,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         private List<EventStats> mapPartitions = new ArrayList<>();
         private List<EventStats> aggregateTimes = new ArrayList<>();
         private List<EventStats> processParamsUpdaterTimes = new ArrayList<>();
+        private List<EventStats> averagingRoundTimes = new ArrayList<>();
 
         private final TimeSource timeSource = TimeSourceProvider.getInstance();
 
@@ -438,6 +514,16 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                             now - lastProcessParamsUpdaterStartTime));
         }
 
+        public void logAveragingRoundStart() {
+            lastAveragingRoundStartTime = timeSource.currentTimeMillis();
+        }
+
+        public void logAveragingRoundEnd(int numWorkers) {
+            long now = timeSource.currentTimeMillis();
+            averagingRoundTimes.add(new WorkerCountEventStats(lastAveragingRoundStartTime,
+                            now - lastAveragingRoundStartTime, numWorkers));
+        }
+
         public void addWorkerStats(SparkTrainingStats workerStats) {
             if (this.workerStats == null)
                 this.workerStats = workerStats;
@@ -448,7 +534,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         public ParameterAveragingTrainingMasterStats build() {
             return new ParameterAveragingTrainingMasterStats(workerStats, exportTimes, countTimes, broadcastTimes,
                             fitTimes, splitTimes, mapPartitions, aggregateTimes, processParamsUpdaterTimes,
-                            repartitionTimes);
+                            repartitionTimes, averagingRoundTimes);
         }
 
     }
@@ -0,0 +1,168 @@
+package org.deeplearning4j.spark.impl.paramavg.util;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The blocks (fixed size, contiguous ranges of values) of a row vector that differ from a base row vector, along with
+ * the new values of those blocks. Used to broadcast only the parameters (and updater state) that have changed since a
+ * previously broadcast copy: for example, the rows of an embedding layer or the parameters of frozen layers that were
+ * not modified in the last averaging round.
+ */
+public class ChangedBlocks implements Serializable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final int blockSize;
+    private final int length;
+    private final int[] blocks;
+    private final INDArray values;
+
+    private ChangedBlocks(int blockSize, int length, int[] blocks, INDArray values) {
+        this.blockSize = blockSize;
+        this.length = length;
+        this.blocks = blocks;
+        this.values = values;
+    }
+
+    /**
+     * Find the blocks of {@code current} that differ from {@code base}
+     *
+     * @param base      Base values (row vector)
+     * @param current   Current values (row vector, same length as base)
+     * @param blockSize Number of values in each block
+     */
+    public static ChangedBlocks between(INDArray base, INDArray current, int blockSize) {
+        if (base.length() != current.length())
+            throw new IllegalArgumentException("Arrays differ in length: base length " + base.length()
+                            + ", current length " + current.length());
+        int length = current.length();
+        int numBlocks = (length + blockSize - 1) / blockSize;
+        if (length == 0)
+            return new ChangedBlocks(blockSize, 0, new int[0], null);
+
+        //Max absolute difference for each block. Last block may be partial: pad with zeros
+        INDArray absDiff = Nd4j.zeros(1, numBlocks * blockSize);
+        absDiff.get(NDArrayIndex.point(0), NDArrayIndex.interval(0, length)).assign(current.sub(base));
+        Transforms.abs(absDiff, false);
+        INDArray blockMax = absDiff.reshape('c', numBlocks, blockSize).max(1);
+
+        int[] changed = new int[numBlocks];
+        int numChanged = 0;
+        int numValues = 0;
+        for (int b = 0; b < numBlocks; b++) {
+            if (blockMax.getDouble(b) != 0.0) {
+                changed[numChanged++] = b;
+                numValues += blockEnd(b, blockSize, length) - b * blockSize;
+            }
+        }
+        changed = Arrays.copyOf(changed, numChanged);
+
+        INDArray values = null;
+        if (numChanged > 0) {
+            values = Nd4j.create(1, numValues);
+            int pos = 0;
+            for (int b : changed) {
+                int start = b * blockSize;
+                int end = blockEnd(b, blockSize, length);
+                values.get(NDArrayIndex.point(0), NDArrayIndex.interval(pos, pos + end - start))
+                                .assign(current.get(NDArrayIndex.point(0), NDArrayIndex.interval(start, end)));
+                pos += end - start;
+            }
+        }
+        return new ChangedBlocks(blockSize, length, changed, values);
+    }
+
+    /**
+     * Estimate the fraction of the blocks of {@code current} that differ from {@code base}, by comparing only a sample
+     * of (evenly spaced) blocks. This is much cheaper than {@link #between(INDArray, INDArray, int)} for large arrays,
+     * and can be used to decide if computing the changed blocks is worthwhile
+     *
+     * @param base       Base values (row vector)
+     * @param current    Current values (row vector, same length as base)
+     * @param blockSize  Number of values in each block
+     * @param numSamples Maximum number of blocks to compare
+     * @return Fraction (0 to 1) of the sampled blocks that differ
+     */
+    public static double estimateFractionChanged(INDArray base, INDArray current, int blockSize, int numSamples) {
+        if (base.length() != current.length())
+            throw new IllegalArgumentException("Arrays differ in length: base length " + base.length()
+                            + ", current length " + current.length());
+        int length = current.length();
+        int numBlocks = (length + blockSize - 1) / blockSize;
+        int n = Math.min(numSamples, numBlocks);
+        if (n <= 0)
+            return 0.0;
+
+        int numChanged = 0;
+        for (int i = 0; i < n; i++) {
+            int b = (int) ((long) i * numBlocks / n);
+            int start = b * blockSize;
+            int end = blockEnd(b, blockSize, length);
+            INDArray diff = current.get(NDArrayIndex.point(0), NDArrayIndex.interval(start, end))
+                            .sub(base.get(NDArrayIndex.point(0), NDArrayIndex.interval(start, end)));
+            if (Transforms.abs(diff, false).maxNumber().doubleValue() != 0.0)
+                numChanged++;
+        }
+        return numChanged / (double) n;
+    }
+
+    /**
+     * @param length    Length of the array
+     * @param blockSize Number of values in each block
+     * @return A ChangedBlocks instance with no changed blocks
+     */
+    public static ChangedBlocks none(int length, int blockSize) {
+        return new ChangedBlocks(blockSize, length, new int[0], null);
+    }
+
+    private static int blockEnd(int block, int blockSize, int length) {
+        return Math.min(length, (block + 1) * blockSize);
+    }
+
+    /**
+     * @return A new array, equal to the base array with the changed blocks replaced
+     */
+    public INDArray applyTo(INDArray base) {
+        if (base.length() != length)
+            throw new IllegalArgumentException(
+                            "Base array length (" + base.length() + ") does not match expected length " + length);
+        INDArray out = base.dup();
+        int pos = 0;
+        for (int b : blocks) {
+            int start = b * blockSize;
+            int end = blockEnd(b, blockSize, length);
+            out.get(NDArrayIndex.point(0), NDArrayIndex.interval(start, end))
+                            .assign(values.get(NDArrayIndex.point(0), NDArrayIndex.interval(pos, pos + end - start)));
+            pos += end - start;
+        }
+        return out;
+    }
+
+    /**
+     * @return Number of blocks that differ from the base array
+     */
+    public int numChangedBlocks() {
+        return blocks.length;
+    }
+
+    /**
+     * @return Total number of blocks
+     */
+    public int numBlocks() {
+        return (length + blockSize - 1) / blockSize;
+    }
+
+    /**
+     * @return Fraction (0 to 1) of the blocks that differ from the base array
+     */
+    public double fractionChanged() {
+        int n = numBlocks();
+        return n == 0 ? 0.0 : blocks.length / (double) n;
+    }
+}
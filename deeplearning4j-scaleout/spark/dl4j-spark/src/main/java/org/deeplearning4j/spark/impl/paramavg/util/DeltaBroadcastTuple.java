@@ -0,0 +1,20 @@
+package org.deeplearning4j.spark.impl.paramavg.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * Broadcast for each averaging round when using delta aggregation in
+ * {@link org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingMaster}: the parameters and updater state
+ * that have changed, relative to the (cached) base {@link org.deeplearning4j.spark.api.worker.NetBroadcastTuple}, and
+ * the current iteration count for the network configuration.
+ */
+@AllArgsConstructor
+@Data
+public class DeltaBroadcastTuple implements Serializable {
+    private final ChangedBlocks parameters;
+    private final ChangedBlocks updaterState;
+    private final int iterationCount;
+}
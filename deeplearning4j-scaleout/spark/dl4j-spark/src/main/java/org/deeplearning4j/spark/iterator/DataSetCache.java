@@ -0,0 +1,112 @@
+package org.deeplearning4j.spark.iterator;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An executor (JVM) local, least recently used cache of deserialized DataSet objects, keyed by path.<br>
+ * When training from exported data (or from PortableDataStreams), the same DataSet files are opened and deserialized
+ * on each epoch. Holding the deserialized DataSets avoids this. The array contents of the cached DataSets are held
+ * by ND4J in off-heap memory: the cache size (in bytes) is the total size of the feature, label and mask arrays.
+ * <p>
+ * Cached DataSets are shared between tasks: they must not be modified by the caller.
+ */
+public class DataSetCache {
+
+    private static final DataSetCache INSTANCE = new DataSetCache();
+
+    private final LinkedHashMap<String, DataSet> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxSizeBytes = 0;
+    private long sizeBytes = 0;
+
+    /**
+     * @return The cache instance for this JVM
+     */
+    public static DataSetCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Set the maximum total size of the cached DataSets. If the cache currently exceeds this size, the least recently
+     * used DataSets are removed
+     *
+     * @param maxSizeBytes Maximum size in bytes. 0 disables the cache
+     */
+    public synchronized void setMaxSizeBytes(long maxSizeBytes) {
+        if (maxSizeBytes < 0)
+            throw new IllegalArgumentException("Invalid cache size: " + maxSizeBytes + " (must be >= 0)");
+        this.maxSizeBytes = maxSizeBytes;
+        evict();
+    }
+
+    /**
+     * @param path Path of the DataSet
+     * @return The cached DataSet, or null if the DataSet is not in the cache
+     */
+    public synchronized DataSet get(String path) {
+        return cache.get(path);
+    }
+
+    /**
+     * Add a DataSet to the cache. DataSets larger than the maximum cache size are not cached
+     *
+     * @param path    Path of the DataSet
+     * @param dataSet DataSet loaded from the path
+     */
+    public synchronized void put(String path, DataSet dataSet) {
+        long bytes = sizeBytes(dataSet);
+        if (bytes > maxSizeBytes)
+            return;
+
+        DataSet previous = cache.put(path, dataSet);
+        if (previous != null)
+            sizeBytes -= sizeBytes(previous);
+        sizeBytes += bytes;
+        evict();
+    }
+
+    /**
+     * @return Number of DataSets in the cache
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return Total size of the cached DataSets, in bytes
+     */
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Remove all DataSets from the cache
+     */
+    public synchronized void clear() {
+        cache.clear();
+        sizeBytes = 0;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, DataSet>> iter = cache.entrySet().iterator();
+        while (sizeBytes > maxSizeBytes && iter.hasNext()) {
+            sizeBytes -= sizeBytes(iter.next().getValue());
+            iter.remove();
+        }
+    }
+
+    private static long sizeBytes(DataSet ds) {
+        return sizeBytes(ds.getFeatures()) + sizeBytes(ds.getLabels()) + sizeBytes(ds.getFeaturesMaskArray())
+                        + sizeBytes(ds.getLabelsMaskArray());
+    }
+
+    private static long sizeBytes(INDArray arr) {
+        if (arr == null)
+            return 0;
+        return arr.length() * (long) arr.data().getElementSize();
+    }
+}
@@ -4,6 +4,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.deeplearning4j.spark.data.columnar.ColumnarDataSetFormat;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
@@ -16,8 +17,8 @@ import java.util.Iterator;
 import java.util.List;
 
 /**
- * A DataSetIterator that loads serialized DataSet objects (saved with {@link DataSet#save(OutputStream)}) from
- * a String that represents the path (for example, on HDFS)
+ * A DataSetIterator that loads serialized DataSet objects (saved with {@link DataSet#save(OutputStream)} or in the
+ * {@link ColumnarDataSetFormat}) from a String that represents the path (for example, on HDFS)
  *
  * @author Alex Black
  */
@@ -25,15 +26,26 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
 
     public static final int BUFFER_SIZE = 4194304; //4 MB
     private FileSystem fileSystem;
+    private final DataSetCache cache;
 
     public PathSparkDataSetIterator(Iterator<String> iter) {
+        this(iter, null);
+    }
+
+    /**
+     * @param iter  Paths of the DataSets to load
+     * @param cache Cache of deserialized DataSets to use. May be null (no caching)
+     */
+    public PathSparkDataSetIterator(Iterator<String> iter, DataSetCache cache) {
         this.dataSetStreams = null;
         this.iter = iter;
+        this.cache = cache;
     }
 
     public PathSparkDataSetIterator(Collection<String> dataSetStreams) {
         this.dataSetStreams = dataSetStreams;
         iter = dataSetStreams.iterator();
+        this.cache = null;
     }
 
     @Override
@@ -55,12 +67,23 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
         inputColumns = ds.getFeatureMatrix().size(1);
         batch = ds.numExamples();
 
-        if (preprocessor != null)
+        if (preprocessor != null) {
+            if (cache != null)
+                ds = ds.copy(); //Cached DataSets are shared, and must not be modified
             preprocessor.preProcess(ds);
+        }
         return ds;
     }
 
     protected synchronized DataSet load(String path) {
+        if (cache != null) {
+            DataSet cached = cache.get(path);
+            if (cached != null) {
+                cursor++;
+                return cached;
+            }
+        }
+
         if (fileSystem == null) {
             try {
                 fileSystem = FileSystem.get(new URI(path), new Configuration());
@@ -69,12 +92,14 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
             }
         }
 
-        DataSet ds = new DataSet();
+        DataSet ds;
         try (FSDataInputStream inputStream = fileSystem.open(new Path(path), BUFFER_SIZE)) {
-            ds.load(inputStream);
+            ds = ColumnarDataSetFormat.loadRanged(inputStream);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        if (cache != null)
+            cache.put(path, ds);
 
         cursor++;
         return ds;
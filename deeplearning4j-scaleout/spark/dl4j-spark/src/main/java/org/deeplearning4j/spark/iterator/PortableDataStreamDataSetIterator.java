@@ -1,6 +1,7 @@
 package org.deeplearning4j.spark.iterator;
 
 import org.apache.spark.input.PortableDataStream;
+import org.deeplearning4j.spark.data.columnar.ColumnarDataSetFormat;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
@@ -13,21 +14,33 @@ import java.util.Iterator;
 import java.util.List;
 
 /**
- * A DataSetIterator that loads serialized DataSet objects (saved with {@link DataSet#save(OutputStream)}) from
- * a {@link PortableDataStream}, usually obtained from SparkContext.binaryFiles()
+ * A DataSetIterator that loads serialized DataSet objects (saved with {@link DataSet#save(OutputStream)} or in the
+ * {@link ColumnarDataSetFormat}) from a {@link PortableDataStream}, usually obtained from SparkContext.binaryFiles()
  *
  * @author Alex Black
  */
 public class PortableDataStreamDataSetIterator extends BaseDataSetIterator<PortableDataStream> {
 
+    private final DataSetCache cache;
+
     public PortableDataStreamDataSetIterator(Iterator<PortableDataStream> iter) {
+        this(iter, null);
+    }
+
+    /**
+     * @param iter  Streams of the DataSets to load
+     * @param cache Cache of deserialized DataSets (keyed by stream path) to use. May be null (no caching)
+     */
+    public PortableDataStreamDataSetIterator(Iterator<PortableDataStream> iter, DataSetCache cache) {
         this.dataSetStreams = null;
         this.iter = iter;
+        this.cache = cache;
     }
 
     public PortableDataStreamDataSetIterator(Collection<PortableDataStream> dataSetStreams) {
         this.dataSetStreams = dataSetStreams;
         iter = dataSetStreams.iterator();
+        this.cache = null;
     }
 
     @Override
@@ -49,18 +62,31 @@ public class PortableDataStreamDataSetIterator extends BaseDataSetIterator<Porta
         inputColumns = ds.getFeatureMatrix().size(1);
         batch = ds.numExamples();
 
-        if (preprocessor != null)
+        if (preprocessor != null) {
+            if (cache != null)
+                ds = ds.copy(); //Cached DataSets are shared, and must not be modified
             preprocessor.preProcess(ds);
+        }
         return ds;
     }
 
     protected DataSet load(PortableDataStream pds) {
-        DataSet ds = new DataSet();
+        if (cache != null) {
+            DataSet cached = cache.get(pds.getPath());
+            if (cached != null) {
+                cursor++;
+                return cached;
+            }
+        }
+
+        DataSet ds;
         try (InputStream is = pds.open()) {
-            ds.load(is);
+            ds = ColumnarDataSetFormat.load(is);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        if (cache != null)
+            cache.put(pds.getPath(), ds);
         cursor++;
         return ds;
     }
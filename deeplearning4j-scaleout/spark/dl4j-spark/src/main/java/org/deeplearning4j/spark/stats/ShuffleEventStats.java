@@ -0,0 +1,43 @@
+package org.deeplearning4j.spark.stats;
+
+import lombok.Getter;
+
+/**
+ * Event stats implementation for shuffling data: number of examples, number of (packed) objects and total size of
+ * the arrays sent to the shuffle
+ */
+public class ShuffleEventStats extends BaseEventStats {
+
+    @Getter
+    private final long numExamples;
+    @Getter
+    private final int numObjects;
+    @Getter
+    private final long numBytes;
+
+    public ShuffleEventStats(long startTime, long durationMs, long numExamples, int numObjects, long numBytes) {
+        super(startTime, durationMs);
+        this.numExamples = numExamples;
+        this.numObjects = numObjects;
+        this.numBytes = numBytes;
+    }
+
+    public ShuffleEventStats(String machineId, String jvmId, long threadId, long startTime, long durationMs,
+                    long numExamples, int numObjects, long numBytes) {
+        super(machineId, jvmId, threadId, startTime, durationMs);
+        this.numExamples = numExamples;
+        this.numObjects = numObjects;
+        this.numBytes = numBytes;
+    }
+
+    @Override
+    public String asString(String delimiter) {
+        return super.asString(delimiter) + delimiter + numExamples + delimiter + numObjects + delimiter + numBytes;
+    }
+
+    @Override
+    public String getStringHeader(String delimiter) {
+        return super.getStringHeader(delimiter) + delimiter + "numExamples" + delimiter + "numObjects" + delimiter
+                        + "numBytes";
+    }
+}
@@ -0,0 +1,33 @@
+package org.deeplearning4j.spark.stats;
+
+import lombok.Getter;
+
+/**
+ * Event stats implementation with worker count
+ */
+public class WorkerCountEventStats extends BaseEventStats {
+
+    @Getter
+    private final int numWorkers;
+
+    public WorkerCountEventStats(long startTime, long durationMs, int numWorkers) {
+        super(startTime, durationMs);
+        this.numWorkers = numWorkers;
+    }
+
+    public WorkerCountEventStats(String machineId, String jvmId, long threadId, long startTime, long durationMs,
+                    int numWorkers) {
+        super(machineId, jvmId, threadId, startTime, durationMs);
+        this.numWorkers = numWorkers;
+    }
+
+    @Override
+    public String asString(String delimiter) {
+        return super.asString(delimiter) + delimiter + numWorkers;
+    }
+
+    @Override
+    public String getStringHeader(String delimiter) {
+        return super.getStringHeader(delimiter) + delimiter + "numWorkers";
+    }
+}
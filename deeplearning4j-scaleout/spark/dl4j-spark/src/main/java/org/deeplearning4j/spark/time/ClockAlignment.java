@@ -0,0 +1,265 @@
+package org.deeplearning4j.spark.time;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.api.java.function.Function;
+import org.deeplearning4j.util.UIDProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.Tuple3;
+import scala.Tuple4;
+
+import java.util.*;
+
+/**
+ * ClockAlignment: aligns the {@link DriverAlignedTimeSource} of each executor JVM to the clock of the driver, without
+ * any external time service.<br>
+ * This is used on the driver only.
+ *
+ * Alignment is done with a Cristian/NTP style estimate, using Spark jobs (one task per available core) as the message
+ * exchange: the driver records its time before submitting the job and after collecting the results, and each task
+ * records the executor's local time when it starts and finishes. Because the task can only start after the job was
+ * submitted, and the results can only be received after the task finished, the offset (driver time - executor time)
+ * must lie within the interval [driverSend - taskStart, driverReceive - taskEnd]. The intervals of all tasks that ran
+ * in the same executor JVM are intersected, over a number of rounds; the midpoint of the result is used as the offset.
+ * Offsets are sent to the executors with the tasks of the next round, hence one additional job is run at the end.<br>
+ * Executor JVMs that don't receive any task keep their previous offset.<br>
+ * Each task also reports the time source class configured in its JVM (see {@link TimeSourceProvider}). Executor JVMs
+ * that don't use {@link DriverAlignedTimeSource} are not aligned (their event timestamps don't use the offset), and a
+ * warning is logged, as the time source property must be set on the executors as well as on the driver.
+ *
+ * Re-alignment (see {@link #alignIfRequired(JavaSparkContext)}) is done periodically, to account for clock drift.
+ */
+public class ClockAlignment {
+
+    public static final int DEFAULT_NUM_ROUNDS = 3;
+    public static final long DEFAULT_REALIGNMENT_INTERVAL_MS = 10 * 60 * 1000L; //10 minutes
+
+    private static Logger log = LoggerFactory.getLogger(ClockAlignment.class);
+
+    private final int numRounds;
+    private final long realignmentIntervalMs;
+    private long lastAlignmentTime = -1;
+    private Map<String, ClockOffsetEstimate> estimates = Collections.emptyMap();
+    private Map<String, String> otherTimeSources = Collections.emptyMap();
+
+    public ClockAlignment() {
+        this(DEFAULT_NUM_ROUNDS, DEFAULT_REALIGNMENT_INTERVAL_MS);
+    }
+
+    /**
+     * @param numRounds             Number of alignment jobs to run, whose estimates are combined
+     * @param realignmentIntervalMs Minimum time between alignments, for {@link #alignIfRequired(JavaSparkContext)}
+     */
+    public ClockAlignment(int numRounds, long realignmentIntervalMs) {
+        if (numRounds <= 0)
+            throw new IllegalArgumentException("Number of rounds must be positive. Got: " + numRounds);
+        this.numRounds = numRounds;
+        this.realignmentIntervalMs = realignmentIntervalMs;
+    }
+
+    /**
+     * @return True if the configured {@link TimeSource} (see {@link TimeSourceProvider}) is a
+     * {@link DriverAlignedTimeSource}, and hence alignment is useful. This checks the driver only: executors using a
+     * different time source are reported by {@link #align(JavaSparkContext)}
+     */
+    public static boolean isApplicable() {
+        return TimeSourceProvider.getInstance() instanceof DriverAlignedTimeSource;
+    }
+
+    /**
+     * Align executor clocks, if this has not been done within the re-alignment interval
+     *
+     * @param sc Spark context
+     * @return True if alignment was done
+     */
+    public boolean alignIfRequired(JavaSparkContext sc) {
+        if (lastAlignmentTime >= 0 && DriverAlignedTimeSource.getInstance().localTimeMillis()
+                        - lastAlignmentTime < realignmentIntervalMs)
+            return false;
+        align(sc);
+        return true;
+    }
+
+    /**
+     * Estimate the clock offset of each executor JVM relative to the driver, and set it on the executors
+     *
+     * @param sc Spark context
+     * @return Offset estimates, by JVM ID (see {@link UIDProvider#getJVMUID()}). The driver JVM is not included.
+     */
+    public Map<String, ClockOffsetEstimate> align(JavaSparkContext sc) {
+        DriverAlignedTimeSource timeSource = DriverAlignedTimeSource.getInstance();
+        String driverJvmId = UIDProvider.getJVMUID();
+        long start = timeSource.localTimeMillis();
+
+        int numTasks = Math.max(1, sc.defaultParallelism());
+        List<Integer> taskIds = new ArrayList<>(numTasks);
+        for (int i = 0; i < numTasks; i++)
+            taskIds.add(i);
+        JavaRDD<Integer> rdd = sc.parallelize(taskIds, numTasks);
+
+        Map<String, ClockOffsetEstimate> newEstimates = new HashMap<>();
+        Map<String, String> newOtherTimeSources = new HashMap<>();
+        HashMap<String, Long> offsets = new HashMap<>();
+        for (int i = 0; i <= numRounds; i++) {
+            long driverSend = timeSource.localTimeMillis();
+            List<Tuple4<String, Long, Long, String>> samples =
+                            rdd.map(new AlignmentFunction(driverJvmId, offsets)).collect();
+            long driverReceive = timeSource.localTimeMillis();
+
+            //Last round: only sends the final offsets to the executors
+            if (i == numRounds)
+                break;
+
+            newOtherTimeSources.putAll(otherTimeSources(driverJvmId, samples));
+            update(newEstimates, driverJvmId, driverSend, driverReceive,
+                            timingSamples(samples, newOtherTimeSources.keySet()));
+            offsets = new HashMap<>();
+            for (Map.Entry<String, ClockOffsetEstimate> e : newEstimates.entrySet())
+                offsets.put(e.getKey(), e.getValue().getOffsetMillis());
+        }
+
+        long maxUncertainty = 0;
+        for (ClockOffsetEstimate e : newEstimates.values())
+            maxUncertainty = Math.max(maxUncertainty, e.getUncertaintyMillis());
+
+        lastAlignmentTime = timeSource.localTimeMillis();
+        estimates = Collections.unmodifiableMap(newEstimates);
+        otherTimeSources = Collections.unmodifiableMap(newOtherTimeSources);
+        if (!newOtherTimeSources.isEmpty()) {
+            log.warn("{} executor JVM(s) do not use {}, so their clocks are not aligned and their event timestamps may "
+                            + "not be comparable: {}. Set the system property {} on the executors (for example, via "
+                            + "spark.executor.extraJavaOptions)", newOtherTimeSources.size(),
+                            DriverAlignedTimeSource.class.getSimpleName(), newOtherTimeSources,
+                            TimeSourceProvider.TIMESOURCE_CLASSNAME_PROPERTY);
+        }
+        log.info("Aligned clocks of {} executor JVM(s) to driver in {} ms; maximum uncertainty: {} ms",
+                        newEstimates.size(), lastAlignmentTime - start, maxUncertainty);
+        return estimates;
+    }
+
+    /**
+     * @return Offset estimates from the last alignment, by JVM ID
+     */
+    public Map<String, ClockOffsetEstimate> getEstimates() {
+        return estimates;
+    }
+
+    /**
+     * @return Time source class names of the executor JVMs that don't use {@link DriverAlignedTimeSource}, by JVM ID,
+     *         from the last alignment
+     */
+    public Map<String, String> getOtherTimeSources() {
+        return otherTimeSources;
+    }
+
+    /**
+     * @param driverJvmId JVM ID of the driver. Samples from the driver JVM are ignored
+     * @param samples     (JVM ID, task start, task end, time source class name) for each task
+     * @return Time source class names of the executor JVMs that don't use {@link DriverAlignedTimeSource}, by JVM ID
+     */
+    protected static Map<String, String> otherTimeSources(String driverJvmId,
+                    List<Tuple4<String, Long, Long, String>> samples) {
+        Map<String, String> out = new HashMap<>();
+        for (Tuple4<String, Long, Long, String> sample : samples) {
+            if (!sample._1().equals(driverJvmId) && !DriverAlignedTimeSource.class.getName().equals(sample._4()))
+                out.put(sample._1(), sample._4());
+        }
+        return out;
+    }
+
+    /**
+     * @return (JVM ID, task start, task end) for each sample, other than those from the excluded JVMs
+     */
+    private static List<Tuple3<String, Long, Long>> timingSamples(List<Tuple4<String, Long, Long, String>> samples,
+                    Set<String> excludedJvmIds) {
+        List<Tuple3<String, Long, Long>> out = new ArrayList<>(samples.size());
+        for (Tuple4<String, Long, Long, String> sample : samples) {
+            if (!excludedJvmIds.contains(sample._1()))
+                out.add(new Tuple3<>(sample._1(), sample._2(), sample._3()));
+        }
+        return out;
+    }
+
+    /**
+     * Intersect the offset intervals in the estimates with those of the given samples
+     *
+     * @param estimates     Current estimates, modified in-place
+     * @param driverJvmId   JVM ID of the driver. Samples from the driver JVM are ignored
+     * @param driverSend    Driver time before the job was submitted
+     * @param driverReceive Driver time after the results were collected
+     * @param samples       (JVM ID, local time at task start, local time at task end) for each task
+     */
+    protected static void update(Map<String, ClockOffsetEstimate> estimates, String driverJvmId, long driverSend,
+                    long driverReceive, List<Tuple3<String, Long, Long>> samples) {
+        for (Tuple3<String, Long, Long> sample : samples) {
+            String jvmId = sample._1();
+            if (jvmId.equals(driverJvmId))
+                continue;
+
+            //All times are truncated to milliseconds, hence the bounds are widened by 1 ms
+            long lower = driverSend - sample._2() - 1;
+            long upper = driverReceive - sample._3() + 1;
+
+            ClockOffsetEstimate current = estimates.get(jvmId);
+            if (current != null) {
+                long intersectLower = Math.max(current.getLowerBoundMillis(), lower);
+                long intersectUpper = Math.min(current.getUpperBoundMillis(), upper);
+                //Empty intersection: the executor clock has been adjusted or has drifted. Use only the new sample
+                if (intersectLower <= intersectUpper) {
+                    estimates.put(jvmId, new ClockOffsetEstimate(intersectLower, intersectUpper,
+                                    current.getNumSamples() + 1));
+                    continue;
+                }
+            }
+            estimates.put(jvmId, new ClockOffsetEstimate(lower, upper, 1));
+        }
+    }
+
+    /**
+     * Estimated offset (driver time - executor time) for one executor JVM, as an interval
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ClockOffsetEstimate {
+        private long lowerBoundMillis;
+        private long upperBoundMillis;
+        private int numSamples;
+
+        public long getOffsetMillis() {
+            return lowerBoundMillis + (upperBoundMillis - lowerBoundMillis) / 2;
+        }
+
+        public long getUncertaintyMillis() {
+            return (upperBoundMillis - lowerBoundMillis + 1) / 2;
+        }
+    }
+
+    private static class AlignmentFunction implements Function<Integer, Tuple4<String, Long, Long, String>> {
+        private final String driverJvmId;
+        private final HashMap<String, Long> offsets;
+
+        private AlignmentFunction(String driverJvmId, HashMap<String, Long> offsets) {
+            this.driverJvmId = driverJvmId;
+            this.offsets = offsets;
+        }
+
+        @Override
+        public Tuple4<String, Long, Long, String> call(Integer taskId) throws Exception {
+            DriverAlignedTimeSource timeSource = DriverAlignedTimeSource.getInstance();
+            long taskStart = timeSource.localTimeMillis();
+            String jvmId = UIDProvider.getJVMUID();
+            if (!jvmId.equals(driverJvmId)) {
+                Long offset = offsets.get(jvmId);
+                if (offset != null)
+                    timeSource.setOffsetMillis(offset);
+            }
+            //The time source used for this JVM's event timestamps: only DriverAlignedTimeSource uses the offset
+            String timeSourceClass = System.getProperty(TimeSourceProvider.TIMESOURCE_CLASSNAME_PROPERTY,
+                            TimeSourceProvider.DEFAULT_TIMESOURCE_CLASS_NAME);
+            return new Tuple4<>(jvmId, taskStart, timeSource.localTimeMillis(), timeSourceClass);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.deeplearning4j.spark.time;
+
+/**
+ * A {@link TimeSource} that does not require any external service, and that can be aligned to the clock of the Spark
+ * driver.<br>
+ * Instances should be obtained via {@link #getInstance()} or {@link TimeSourceProvider}; one instance is used per
+ * JVM<br>
+ *
+ * Time is measured using {@link System#nanoTime()} relative to a single {@link System#currentTimeMillis()} reading
+ * taken when the instance is created. Consequently, durations (end time - start time) are not affected by system clock
+ * adjustments, and returned values never decrease.<br>
+ * An offset relative to the driver's clock can be set by {@link ClockAlignment}, which estimates it on the driver
+ * using the round trip of small Spark jobs, so that timestamps from different executors can be compared. The first
+ * offset is applied immediately; later changes to the offset (re-alignment, to account for clock drift) are applied
+ * gradually, at no more than 1 ms per {@link #SLEW_INTERVAL_MS} ms, so durations measured across a re-alignment are
+ * off by at most 1% (and time never stands still).
+ */
+public class DriverAlignedTimeSource implements TimeSource {
+
+    /** Offset changes after the first are applied at a rate of at most 1 ms per this number of ms */
+    public static final long SLEW_INTERVAL_MS = 100;
+
+    private static DriverAlignedTimeSource instance;
+
+    public static synchronized DriverAlignedTimeSource getInstance() {
+        if (instance == null)
+            instance = new DriverAlignedTimeSource();
+        return instance;
+    }
+
+    private final long anchorTimeMillis;
+    private final long anchorNanos;
+    private boolean offsetSet = false;
+    private long offsetMillis;
+    private long targetOffsetMillis;
+    private long lastSlewTime;
+    private long lastTime = Long.MIN_VALUE;
+
+    protected DriverAlignedTimeSource() {
+        this.anchorTimeMillis = System.currentTimeMillis();
+        this.anchorNanos = System.nanoTime();
+    }
+
+    /**
+     * Local (monotonic) time for this JVM, in milliseconds, without the driver offset applied
+     */
+    public long localTimeMillis() {
+        return anchorTimeMillis + (System.nanoTime() - anchorNanos) / 1000000L;
+    }
+
+    @Override
+    public synchronized long currentTimeMillis() {
+        long local = localTimeMillis();
+        if (offsetMillis == targetOffsetMillis) {
+            lastSlewTime = local;
+        } else {
+            long maxChange = (local - lastSlewTime) / SLEW_INTERVAL_MS;
+            if (maxChange > 0) {
+                long diff = targetOffsetMillis - offsetMillis;
+                offsetMillis += Math.max(-maxChange, Math.min(maxChange, diff));
+                lastSlewTime = local;
+            }
+        }
+
+        //Slewing alone keeps time from decreasing; this guards against rounding at the millisecond boundaries
+        lastTime = Math.max(lastTime, local + offsetMillis);
+        return lastTime;
+    }
+
+    /**
+     * @return Offset (in milliseconds) currently applied to this JVM's clock, to obtain the driver's time. May differ
+     * from the last offset set, while a change of offset is being applied
+     */
+    public synchronized long getOffsetMillis() {
+        return offsetMillis;
+    }
+
+    /**
+     * @return Last offset (in milliseconds) set via {@link #setOffsetMillis(long)}
+     */
+    public synchronized long getTargetOffsetMillis() {
+        return targetOffsetMillis;
+    }
+
+    /**
+     * Set the offset (in milliseconds) to add to the local time, to obtain the driver's time. The first offset is
+     * applied immediately; subsequent changes are applied gradually (see {@link #SLEW_INTERVAL_MS})
+     *
+     * @param offsetMillis Offset to use, usually estimated by {@link ClockAlignment}
+     */
+    public synchronized void setOffsetMillis(long offsetMillis) {
+        if (!offsetSet) {
+            offsetSet = true;
+            stepOffsetMillis(offsetMillis);
+            return;
+        }
+        if (this.offsetMillis == targetOffsetMillis)
+            lastSlewTime = localTimeMillis();
+        targetOffsetMillis = offsetMillis;
+    }
+
+    /**
+     * Apply the offset immediately, without slewing. Returned values still never decrease: if the offset is decreased,
+     * time stands still until the new offset catches up
+     */
+    synchronized void stepOffsetMillis(long offsetMillis) {
+        this.offsetMillis = offsetMillis;
+        this.targetOffsetMillis = offsetMillis;
+        this.lastSlewTime = localTimeMillis();
+    }
+}
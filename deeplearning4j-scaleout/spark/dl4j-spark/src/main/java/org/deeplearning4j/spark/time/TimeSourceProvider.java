@@ -4,8 +4,11 @@ import java.lang.reflect.Method;
 
 /**
  * TimeSourceProvider: used to get a TimeSource via a static method.<br>
- * Defaults to the Network Time Protocol implementation {@link NTPTimeSource}, but can be switched to other implementations
- * via the {@link TimeSourceProvider#TIMESOURCE_CLASSNAME_PROPERTY} system property.
+ * Defaults to the Network Time Protocol implementation {@link NTPTimeSource}. It can be switched to other
+ * implementations via the {@link TimeSourceProvider#TIMESOURCE_CLASSNAME_PROPERTY} system property: for example,
+ * {@link DriverAlignedTimeSource}, which requires no external service. Note that executor clocks are only aligned to
+ * the driver by {@link ClockAlignment} where the training master supports it (currently: ParameterAveragingTrainingMaster
+ * with training stats collection enabled), and only if the property is set on the executors as well as the driver.
  *
  * @author Alex Black
  */
@@ -6,22 +6,33 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.spark.Accumulator;
 import org.apache.spark.SparkContext;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.serializer.SerializerInstance;
+import org.apache.spark.storage.StorageLevel;
+import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.spark.api.Repartition;
 import org.deeplearning4j.spark.api.RepartitionStrategy;
-import org.deeplearning4j.spark.data.BatchDataSetsFunction;
+import org.deeplearning4j.spark.data.shuffle.AssembleMinibatchesFunction;
+import org.deeplearning4j.spark.data.shuffle.EventStatsAccumulatorParam;
 import org.deeplearning4j.spark.data.shuffle.IntPartitioner;
-import org.deeplearning4j.spark.data.shuffle.SplitDataSetExamplesPairFlatMapFunction;
+import org.deeplearning4j.spark.data.shuffle.PackedShuffleDataSetsFunction;
+import org.deeplearning4j.spark.data.shuffle.ShuffleStats;
 import org.deeplearning4j.spark.impl.common.CountPartitionsFunction;
 import org.deeplearning4j.spark.impl.common.SplitPartitionsFunction;
 import org.deeplearning4j.spark.impl.common.SplitPartitionsFunction2;
+import org.deeplearning4j.spark.impl.common.repartition.AdaptiveRepartitioner;
 import org.deeplearning4j.spark.impl.common.repartition.AssignIndexFunction;
 import org.deeplearning4j.spark.impl.common.repartition.BalancedPartitioner;
 import org.deeplearning4j.spark.impl.common.repartition.MapTupleToPairFlatMap;
+import org.deeplearning4j.spark.impl.common.repartition.ObjectCostFunction;
+import org.deeplearning4j.spark.stats.EventStats;
+import org.deeplearning4j.spark.stats.ShuffleEventStats;
+import org.deeplearning4j.spark.time.TimeSource;
+import org.deeplearning4j.spark.time.TimeSourceProvider;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
@@ -240,12 +251,37 @@ public class SparkUtils {
                 //Either repartition always, or workers/num partitions differs
                 return rdd.repartition(numPartitions);
             case Balanced:
+            case Adaptive:
+                //Adaptive repartitioning requires state from previous rounds: without it, balance by element count
                 return repartitionBalanceIfRequired(rdd, repartition, objectsPerPartition, numPartitions);
             default:
                 throw new RuntimeException("Unknown repartition strategy: " + repartitionStrategy);
         }
     }
 
+    /**
+     * Repartition the specified RDD (or not) using the given {@link Repartition} and {@link RepartitionStrategy} settings.
+     * For {@link RepartitionStrategy#Adaptive}, the given {@link AdaptiveRepartitioner} and cost function are used;
+     * otherwise, this is the same as {@link #repartition(JavaRDD, Repartition, RepartitionStrategy, int, int)}
+     *
+     * @param rdd                   RDD to repartition
+     * @param repartition           Setting for when repartiting is to be conducted
+     * @param repartitionStrategy   Setting for how repartitioning is to be conducted
+     * @param objectsPerPartition   Desired number of objects per partition
+     * @param numPartitions         Total number of partitions
+     * @param adaptiveRepartitioner Repartitioner (with state from previous rounds) for adaptive repartitioning. May be null
+     * @param costFunction          Cost function for the elements, for adaptive repartitioning. May be null (equal costs)
+     * @param <T>                   Type of the RDD
+     * @return Repartitioned RDD, or original RDD if no repartitioning was conducted
+     */
+    public static <T> JavaRDD<T> repartition(JavaRDD<T> rdd, Repartition repartition,
+                    RepartitionStrategy repartitionStrategy, int objectsPerPartition, int numPartitions,
+                    AdaptiveRepartitioner adaptiveRepartitioner, ObjectCostFunction<T> costFunction) {
+        if (repartitionStrategy == RepartitionStrategy.Adaptive && adaptiveRepartitioner != null)
+            return adaptiveRepartitioner.repartition(rdd, repartition, numPartitions, costFunction);
+        return repartition(rdd, repartition, repartitionStrategy, objectsPerPartition, numPartitions);
+    }
+
 
     /**
      * Repartition a RDD (given the {@link Repartition} setting) such that we have approximately {@code numPartitions} partitions,
@@ -428,6 +464,10 @@ public class SparkUtils {
     /**
      * Randomly shuffle the examples in each DataSet object, and recombine them into new DataSet objects
      * with the specified BatchSize
+     * <p>
+     * DataSets are not split into single examples for the shuffle: instead, each input partition sends one packed
+     * DataSet (of approximately newBatchSize examples) at a time to each output partition, and the output partitions
+     * assemble minibatches from these. See {@link PackedShuffleDataSetsFunction} and {@link AssembleMinibatchesFunction}
      *
      * @param rdd DataSets to shuffle/recombine
      * @param newBatchSize New batch size for the DataSet objects, after shuffling/recombining
@@ -435,15 +475,62 @@ public class SparkUtils {
      * @return A new {@link JavaRDD<DataSet>}, with the examples shuffled/combined in each
      */
     public static JavaRDD<DataSet> shuffleExamples(JavaRDD<DataSet> rdd, int newBatchSize, int numPartitions) {
-        //Step 1: split into individual examples, mapping to a pair RDD (random key in range 0 to numPartitions)
+        return shuffleExamples(rdd, newBatchSize, numPartitions, null);
+    }
+
+    /**
+     * As per {@link #shuffleExamples(JavaRDD, int, int)}, but also collect statistics for the shuffle: the total time
+     * for the shuffle, and the time, number of examples, number of objects and number of bytes sent to the shuffle
+     * by each input partition.<br>
+     * To measure the shuffle, the returned RDD is persisted (with {@link StorageLevel#MEMORY_ONLY()}) and evaluated
+     * before this method returns. The caller should unpersist it once it is no longer required.<br>
+     * Note that the per-partition statistics are collected with an accumulator: if tasks are retried, the statistics
+     * for those partitions will be included more than once.
+     *
+     * @param rdd DataSets to shuffle/recombine
+     * @param newBatchSize New batch size for the DataSet objects, after shuffling/recombining
+     * @param numPartitions Number of partitions to use when splitting/recombining
+     * @return The shuffled DataSets (persisted), and the statistics for the shuffle
+     */
+    public static Pair<JavaRDD<DataSet>, ShuffleStats> shuffleExamplesWithStats(JavaRDD<DataSet> rdd,
+                    int newBatchSize, int numPartitions) {
+        JavaSparkContext sc = JavaSparkContext.fromSparkContext(rdd.context());
+        Accumulator<List<EventStats>> partitionStats =
+                        sc.accumulator(new ArrayList<EventStats>(), new EventStatsAccumulatorParam());
+
+        TimeSource timeSource = TimeSourceProvider.getInstance();
+        long startTime = timeSource.currentTimeMillis();
+        JavaRDD<DataSet> shuffled = shuffleExamples(rdd, newBatchSize, numPartitions, partitionStats);
+        shuffled.persist(StorageLevel.MEMORY_ONLY());
+        shuffled.count();
+        long endTime = timeSource.currentTimeMillis();
+
+        List<EventStats> partitionStatsList = new ArrayList<>(partitionStats.value());
+        long numExamples = 0;
+        int numObjects = 0;
+        long numBytes = 0;
+        for (EventStats e : partitionStatsList) {
+            ShuffleEventStats ses = (ShuffleEventStats) e;
+            numExamples += ses.getNumExamples();
+            numObjects += ses.getNumObjects();
+            numBytes += ses.getNumBytes();
+        }
+        List<EventStats> totalTime = new ArrayList<>();
+        totalTime.add(new ShuffleEventStats(startTime, endTime - startTime, numExamples, numObjects, numBytes));
+
+        return new Pair<>(shuffled, new ShuffleStats(totalTime, partitionStatsList));
+    }
 
-        JavaPairRDD<Integer, DataSet> singleExampleDataSets =
-                        rdd.flatMapToPair(new SplitDataSetExamplesPairFlatMapFunction(numPartitions));
+    private static JavaRDD<DataSet> shuffleExamples(JavaRDD<DataSet> rdd, int newBatchSize, int numPartitions,
+                    Accumulator<List<EventStats>> stats) {
+        //Step 1: shuffle the examples within each DataSet, and pack contiguous row ranges for each destination partition
+        JavaPairRDD<Integer, DataSet> packed = rdd.mapPartitionsToPair(
+                        new PackedShuffleDataSetsFunction(numPartitions, newBatchSize, stats));
 
-        //Step 2: repartition according to the random keys
-        singleExampleDataSets = singleExampleDataSets.partitionBy(new IntPartitioner(numPartitions));
+        //Step 2: repartition according to the destination keys
+        packed = packed.partitionBy(new IntPartitioner(numPartitions));
 
-        //Step 3: Recombine
-        return singleExampleDataSets.values().mapPartitions(new BatchDataSetsFunction(newBatchSize));
+        //Step 3: Assemble minibatches of the required size
+        return packed.values().mapPartitions(new AssembleMinibatchesFunction(newBatchSize));
     }
 }
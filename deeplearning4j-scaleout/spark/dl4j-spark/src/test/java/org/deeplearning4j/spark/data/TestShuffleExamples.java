@@ -1,18 +1,24 @@
 package org.deeplearning4j.spark.data;
 
 import org.apache.spark.api.java.JavaRDD;
+import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.spark.BaseSparkTest;
+import org.deeplearning4j.spark.data.shuffle.ShuffleStats;
+import org.deeplearning4j.spark.stats.EventStats;
+import org.deeplearning4j.spark.stats.ShuffleEventStats;
 import org.deeplearning4j.spark.util.SparkUtils;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Alex on 06/01/2017.
@@ -47,4 +53,64 @@ public class TestShuffleExamples extends BaseSparkTest {
         assertEquals(100, totalExampleCount);
     }
 
+    @Test
+    public void testShuffleMinibatchSizesAndStats() {
+        //Time series data with masks: check that minibatches have the requested size, and that features, labels and
+        // masks for each example stay together. 'c' order features are gathered in one op, 'f' order features are
+        // copied by runs of consecutive rows
+        for (char order : new char[] {'c', 'f'}) {
+            List<DataSet> list = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                INDArray f = Nd4j.create(new int[] {10, 2, 3}, order);
+                INDArray fMask = Nd4j.create(10, 3);
+                for (int j = 0; j < 10; j++) {
+                    f.get(NDArrayIndex.point(j), NDArrayIndex.all(), NDArrayIndex.all()).assign(10 * i + j);
+                    fMask.getRow(j).assign(10 * i + j);
+                }
+                INDArray l = f.dup();
+                INDArray lMask = fMask.dup();
+
+                list.add(new DataSet(f, l, fMask, lMask));
+            }
+
+            JavaRDD<DataSet> rdd = sc.parallelize(list, 3);
+
+            Pair<JavaRDD<DataSet>, ShuffleStats> p = SparkUtils.shuffleExamplesWithStats(rdd, 7, 4);
+            List<DataSet> shuffledList = p.getFirst().collect();
+
+            int[] exampleCounts = new int[100];
+            int numSmallerMinibatches = 0;
+            for (DataSet ds : shuffledList) {
+                assertEquals(ds.getFeatures(), ds.getLabels());
+                assertEquals(ds.getFeaturesMaskArray(), ds.getLabelsMaskArray());
+                assertTrue(ds.numExamples() <= 7);
+                if (ds.numExamples() < 7)
+                    numSmallerMinibatches++;
+
+                for (int j = 0; j < ds.numExamples(); j++) {
+                    int value = ds.getFeaturesMaskArray().getInt(j, 0);
+                    assertEquals(value, ds.getFeatures().getInt(j, 1, 2));
+                    exampleCounts[value]++;
+                }
+            }
+            //At most one smaller minibatch per partition
+            assertTrue(numSmallerMinibatches <= 4);
+            for (int i = 0; i < 100; i++)
+                assertEquals(1, exampleCounts[i]);
+
+            ShuffleStats stats = p.getSecond();
+            assertEquals(1, stats.getShuffleTotalTimeMs().size());
+            assertEquals(3, stats.getShufflePartitionTimesMs().size());
+            long numExamples = 0;
+            for (EventStats e : stats.getShufflePartitionTimesMs())
+                numExamples += ((ShuffleEventStats) e).getNumExamples();
+            assertEquals(100, numExamples);
+            //Packed: far fewer objects than examples
+            assertTrue(String.valueOf(stats.getTotalObjects()), stats.getTotalObjects() < 50);
+            int elementSize = list.get(0).getFeatures().data().getElementSize();
+            assertEquals(100 * (2 * 6 + 2 * 3) * elementSize, stats.getTotalBytes());
+
+            p.getFirst().unpersist();
+        }
+    }
 }
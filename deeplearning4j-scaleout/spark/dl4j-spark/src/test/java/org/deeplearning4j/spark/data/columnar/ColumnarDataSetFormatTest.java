@@ -0,0 +1,143 @@
+package org.deeplearning4j.spark.data.columnar;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.deeplearning4j.spark.data.PathToDataSetFunction;
+import org.deeplearning4j.spark.data.columnar.ColumnarDataSetHeader.ArrayType;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+
+import static org.junit.Assert.*;
+
+public class ColumnarDataSetFormatTest {
+
+    private static DataSet getDataSet() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray f = Nd4j.rand(new int[] {5, 3, 4});
+        INDArray l = Nd4j.rand(new int[] {5, 2, 4});
+        INDArray fm = Nd4j.ones(5, 4);
+        fm.putScalar(0, 3, 0.0);
+        INDArray lm = fm.dup();
+        return new DataSet(f, l, fm, lm);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        DataSet ds = getDataSet();
+
+        for (ColumnarDataSetFormat.Compression c : ColumnarDataSetFormat.Compression.values()) {
+            ColumnarDataSetFormat format = new ColumnarDataSetFormat(c, false);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            format.write(ds, baos);
+            byte[] bytes = baos.toByteArray();
+
+            ColumnarDataSetHeader header = ColumnarDataSetFormat.readHeader(new ByteArrayInputStream(bytes));
+            assertEquals(5, header.getNumExamples());
+            assertEquals(c, header.getCompression());
+            for (ArrayType t : ArrayType.values())
+                assertTrue(header.hasArray(t));
+            assertArrayEquals(new int[] {5, 3, 4}, header.getEntry(ArrayType.FEATURES).getShape());
+
+            DataSet read = ColumnarDataSetFormat.read(new ByteArrayInputStream(bytes));
+            assertEquals(ds.getFeatures(), read.getFeatures());
+            assertEquals(ds.getLabels(), read.getLabels());
+            assertEquals(ds.getFeaturesMaskArray(), read.getFeaturesMaskArray());
+            assertEquals(ds.getLabelsMaskArray(), read.getLabelsMaskArray());
+        }
+
+        //No masks
+        DataSet noMask = new DataSet(Nd4j.rand(3, 4), Nd4j.rand(3, 2));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new ColumnarDataSetFormat().write(noMask, baos);
+        DataSet read = ColumnarDataSetFormat.read(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(noMask.getFeatures(), read.getFeatures());
+        assertEquals(noMask.getLabels(), read.getLabels());
+        assertNull(read.getFeaturesMaskArray());
+        assertNull(read.getLabelsMaskArray());
+    }
+
+    @Test
+    public void testHalfPrecision() throws Exception {
+        DataSet ds = getDataSet();
+
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        new ColumnarDataSetFormat(ColumnarDataSetFormat.Compression.NONE, false).write(ds, full);
+        ByteArrayOutputStream half = new ByteArrayOutputStream();
+        new ColumnarDataSetFormat(ColumnarDataSetFormat.Compression.NONE, true).write(ds, half);
+        assertTrue(half.size() < full.size());
+
+        DataSet read = ColumnarDataSetFormat.read(new ByteArrayInputStream(half.toByteArray()));
+        assertArrayEquals(ds.getFeatures().shape(), read.getFeatures().shape());
+        float[] expected = ds.getFeatures().dup('c').data().asFloat();
+        float[] actual = read.getFeatures().dup('c').data().asFloat();
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], actual[i], Math.max(Math.abs(expected[i]) * 1e-3, 1e-7));
+        assertEquals(ds.getFeaturesMaskArray(), read.getFeaturesMaskArray());
+
+        float[] values = {0.0f, -0.0f, 1.0f, -2.5f, 65504f, 1e-5f, 6.1e-5f, Float.POSITIVE_INFINITY};
+        for (float v : values) {
+            float out = ColumnarDataSetFormat.halfToFloat(ColumnarDataSetFormat.floatToHalf(v));
+            assertEquals(v, out, Math.max(Math.abs(v) * 1e-3, 1e-7));
+        }
+        assertTrue(Float.isNaN(ColumnarDataSetFormat.halfToFloat(ColumnarDataSetFormat.floatToHalf(Float.NaN))));
+        assertTrue(Float.isInfinite(ColumnarDataSetFormat.halfToFloat(ColumnarDataSetFormat.floatToHalf(1e6f))));
+    }
+
+    @Test
+    public void testRangedReadAndLoad() throws Exception {
+        DataSet ds = getDataSet();
+
+        File f = File.createTempFile("columnar", ".bin");
+        f.deleteOnExit();
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(f))) {
+            new ColumnarDataSetFormat(ColumnarDataSetFormat.Compression.DEFLATE, false).write(ds, os);
+        }
+
+        String path = f.toURI().toString();
+        FileSystem fs = FileSystem.get(f.toURI(), new Configuration());
+        try (FSDataInputStream in = fs.open(new Path(path))) {
+            ColumnarDataSetHeader header = ColumnarDataSetFormat.readHeader(in);
+            assertEquals(ds.getLabels(), ColumnarDataSetFormat.readArray(in, header, ArrayType.LABELS));
+            assertEquals(ds.getFeatures(), ColumnarDataSetFormat.readArray(in, header, ArrayType.FEATURES));
+        }
+        DataSet loadedRanged = new PathToDataSetFunction().call(path);
+        assertEquals(ds.getFeatures(), loadedRanged.getFeatures());
+        assertEquals(ds.getLabels(), loadedRanged.getLabels());
+        assertEquals(ds.getFeaturesMaskArray(), loadedRanged.getFeaturesMaskArray());
+        assertEquals(ds.getLabelsMaskArray(), loadedRanged.getLabelsMaskArray());
+
+        //Both formats should be loaded by ColumnarDataSetFormat.load
+        try (InputStream in = new FileInputStream(f)) {
+            DataSet loaded = ColumnarDataSetFormat.load(in);
+            assertEquals(ds.getFeatures(), loaded.getFeatures());
+            assertEquals(ds.getLabelsMaskArray(), loaded.getLabelsMaskArray());
+        }
+
+        File legacy = File.createTempFile("legacy", ".bin");
+        legacy.deleteOnExit();
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(legacy))) {
+            ds.save(os);
+        }
+        try (InputStream in = new FileInputStream(legacy)) {
+            DataSet loaded = ColumnarDataSetFormat.load(in);
+            assertEquals(ds.getFeatures(), loaded.getFeatures());
+            assertEquals(ds.getLabels(), loaded.getLabels());
+        }
+        DataSet legacyRanged = new PathToDataSetFunction().call(legacy.toURI().toString());
+        assertEquals(ds.getFeatures(), legacyRanged.getFeatures());
+        assertEquals(ds.getLabelsMaskArray(), legacyRanged.getLabelsMaskArray());
+
+        try (InputStream in = new FileInputStream(legacy)) {
+            ColumnarDataSetFormat.readHeader(in);
+            fail("Expected exception");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("magic"));
+        }
+    }
+}
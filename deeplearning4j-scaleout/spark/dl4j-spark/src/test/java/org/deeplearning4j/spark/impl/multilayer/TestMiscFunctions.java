@@ -17,6 +17,7 @@ import org.deeplearning4j.spark.BaseSparkTest;
 import org.deeplearning4j.spark.impl.graph.SparkComputationGraph;
 import org.deeplearning4j.spark.impl.multilayer.scoring.VaeReconstructionErrorWithKeyFunction;
 import org.deeplearning4j.spark.impl.multilayer.scoring.VaeReconstructionProbWithKeyFunction;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -30,6 +31,7 @@ import scala.Tuple2;
 
 import java.util.*;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -140,6 +142,124 @@ public class TestMiscFunctions extends BaseSparkTest {
         }
     }
 
+    @Test
+    public void testFeedForwardWithKeyBatched() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(4).nOut(3).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(3).nOut(3)
+                                        .activation(Activation.SOFTMAX).build())
+                        .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        List<INDArray> expected = new ArrayList<>();
+        JavaPairRDD<Integer, INDArray> rdd = sc.parallelizePairs(getIrisFeaturesWithKey(net, null, expected));
+
+        SparkDl4jMultiLayer multiLayer = new SparkDl4jMultiLayer(sc, net, null);
+        for (int numThreads : new int[] {1, 3}) {
+            //Run twice: the second run should reuse the networks cached on the executor
+            for (int i = 0; i < 2; i++) {
+                Map<Integer, double[]> map =
+                                multiLayer.feedForwardWithKeyBatched(rdd, 16, numThreads, 2).collectAsMap();
+                assertEquals(expected.size(), map.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertArrayEquals(expected.get(j).dup('c').data().asDouble(), map.get(j), 1e-6);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFeedForwardWithKeyBatchedGraph() {
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder().weightInit(WeightInit.XAVIER)
+                        .graphBuilder().addInputs("in")
+                        .addLayer("0", new DenseLayer.Builder().nIn(4).nOut(3).build(), "in")
+                        .addLayer("1", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(3).nOut(3)
+                                        .activation(Activation.SOFTMAX).build(), "0")
+                        .setOutputs("1").build();
+
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+
+        List<INDArray> expected = new ArrayList<>();
+        JavaPairRDD<Integer, INDArray> rdd = sc.parallelizePairs(getIrisFeaturesWithKey(null, net, expected));
+
+        SparkComputationGraph graph = new SparkComputationGraph(sc, net, null);
+        Map<Integer, double[]> map = graph.feedForwardWithKeySingleBatched(rdd, 16).collectAsMap();
+        assertEquals(expected.size(), map.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i).dup('c').data().asDouble(), map.get(i), 1e-6);
+        }
+    }
+
+    @Test
+    @Ignore //Benchmark: should be run manually
+    public void testFeedForwardWithKeyBatchedThroughput() {
+        //Simple comparison of scoring throughput on local[*], for feedForwardWithKey vs. feedForwardWithKeyBatched
+        int nIn = 100;
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(nIn).nOut(200).build())
+                        .layer(1, new DenseLayer.Builder().nIn(200).nOut(200).build())
+                        .layer(2, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(200).nOut(10)
+                                        .activation(Activation.SOFTMAX).build())
+                        .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        int numExamples = 20000;
+        List<Tuple2<Integer, INDArray>> list = new ArrayList<>(numExamples);
+        for (int i = 0; i < numExamples; i++) {
+            list.add(new Tuple2<>(i, Nd4j.rand(1, nIn)));
+        }
+        JavaPairRDD<Integer, INDArray> rdd = sc.parallelizePairs(list, numExecutors() * 4);
+        rdd.cache();
+        rdd.count();
+
+        SparkDl4jMultiLayer multiLayer = new SparkDl4jMultiLayer(sc, net, null);
+        int nRuns = 3;
+        long original = Long.MAX_VALUE;
+        long batched = Long.MAX_VALUE;
+        for (int i = 0; i < nRuns; i++) {
+            long start = System.currentTimeMillis();
+            assertEquals(numExamples, multiLayer.feedForwardWithKey(rdd, 64).count());
+            original = Math.min(original, System.currentTimeMillis() - start);
+
+            start = System.currentTimeMillis();
+            assertEquals(numExamples, multiLayer.feedForwardWithKeyBatched(rdd, 64).count());
+            batched = Math.min(batched, System.currentTimeMillis() - start);
+        }
+
+        System.out.println("feedForwardWithKey: " + original + " ms (" + (numExamples * 1000L / Math.max(1, original))
+                        + " examples/sec); feedForwardWithKeyBatched: " + batched + " ms ("
+                        + (numExamples * 1000L / Math.max(1, batched)) + " examples/sec)");
+        rdd.unpersist();
+    }
+
+    private static List<Tuple2<Integer, INDArray>> getIrisFeaturesWithKey(MultiLayerNetwork net, ComputationGraph graph,
+                    List<INDArray> expectedOut) {
+        DataSet ds = new IrisDataSetIterator(150, 150).next();
+
+        List<Tuple2<Integer, INDArray>> mapFeatures = new ArrayList<>();
+        int count = 0;
+        int arrayCount = 0;
+        Random r = new Random(12345);
+        while (count < 150) {
+            int exampleCount = r.nextInt(5) + 1; //1 to 5 inclusive examples
+            if (count + exampleCount > 150)
+                exampleCount = 150 - count;
+
+            INDArray subset = ds.getFeatures().get(NDArrayIndex.interval(count, count + exampleCount),
+                            NDArrayIndex.all());
+
+            expectedOut.add(net != null ? net.output(subset, false) : graph.outputSingle(false, subset));
+            mapFeatures.add(new Tuple2<>(arrayCount, subset));
+            arrayCount++;
+            count += exampleCount;
+        }
+        return mapFeatures;
+    }
+
 
     @Test
     public void testVaeReconstructionProbabilityWithKey() {
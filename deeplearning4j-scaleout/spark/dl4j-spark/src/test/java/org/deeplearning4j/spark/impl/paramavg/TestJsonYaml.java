@@ -2,6 +2,8 @@ package org.deeplearning4j.spark.impl.paramavg;
 
 import org.apache.spark.storage.StorageLevel;
 import org.deeplearning4j.spark.api.TrainingMaster;
+import org.deeplearning4j.spark.data.columnar.ColumnarDataSetFormat;
+import org.deeplearning4j.spark.impl.paramavg.aggregator.DeltaCompression;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -16,7 +18,8 @@ public class TestJsonYaml {
         TrainingMaster tm = new ParameterAveragingTrainingMaster.Builder(2).batchSizePerWorker(32)
                         .exportDirectory("hdfs://SomeDirectory/").saveUpdater(false).averagingFrequency(3)
                         .storageLevel(StorageLevel.MEMORY_ONLY_SER_2()).storageLevelStreams(StorageLevel.DISK_ONLY())
-                        .build();
+                        .aggregationDepth(3).deltaAggregation(true, DeltaCompression.GZIP)
+                        .exportFormat(new ColumnarDataSetFormat(ColumnarDataSetFormat.Compression.DEFLATE, true)).build();
 
         String json = tm.toJson();
         String yaml = tm.toYaml();
@@ -51,8 +51,11 @@ import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
 import org.deeplearning4j.spark.BaseSparkTest;
 import org.deeplearning4j.spark.api.Repartition;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.api.worker.ExecutorModelCache;
 import org.deeplearning4j.spark.impl.graph.SparkComputationGraph;
 import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.deeplearning4j.spark.impl.paramavg.aggregator.DeltaCompression;
+import org.deeplearning4j.spark.iterator.DataSetCache;
 import org.deeplearning4j.spark.stats.EventStats;
 import org.deeplearning4j.spark.stats.ExampleCountEventStats;
 import org.junit.Test;
@@ -701,6 +704,129 @@ public class TestSparkMultiLayerParameterAveraging extends BaseSparkTest {
     }
 
 
+    @Test
+    public void testTreeAndDeltaAggregation() throws Exception {
+        //Tree aggregation and (lossless) delta aggregation should give the same result as the default configuration,
+        // up to floating point differences due to the order of summation
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(Updater.RMSPROP)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                        .weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.DenseLayer.Builder().nIn(4).nOut(4)
+                                        .activation(Activation.TANH).build())
+                        .layer(1, new org.deeplearning4j.nn.conf.layers.OutputLayer.Builder(
+                                        LossFunctions.LossFunction.MCXENT).nIn(4).nOut(3).activation(Activation.SOFTMAX)
+                                                        .build())
+                        .pretrain(false).backprop(true).build();
+
+        List<DataSet> data = new ArrayList<>();
+        DataSetIterator iter = new IrisDataSetIterator(1, 150);
+        while (iter.hasNext())
+            data.add(iter.next());
+        JavaRDD<DataSet> rdd = sc.parallelize(data);
+
+        ParameterAveragingTrainingMaster[] masters = new ParameterAveragingTrainingMaster[5];
+        for (int i = 0; i < masters.length; i++) {
+            ParameterAveragingTrainingMaster.Builder b = new ParameterAveragingTrainingMaster.Builder(1)
+                            .batchSizePerWorker(5).averagingFrequency(2).repartionData(Repartition.Always)
+                            .saveUpdater(true).rngSeed(12345);
+            switch (i) {
+                case 1:
+                    b.aggregationDepth(3);
+                    break;
+                case 2:
+                    b.deltaAggregation(true);
+                    break;
+                case 3:
+                    b.deltaAggregation(true, DeltaCompression.GZIP);
+                    break;
+                case 4:
+                    b.deltaAggregation(true, DeltaCompression.INT8);
+                    break;
+            }
+            masters[i] = b.build();
+            Thread.sleep(100); //Training master IDs are only unique if they are created at least 1 ms apart...
+        }
+
+        INDArray[] params = new INDArray[masters.length];
+        for (int i = 0; i < masters.length; i++) {
+            Nd4j.getRandom().setSeed(12345);
+            MultiLayerNetwork net = new MultiLayerNetwork(conf.clone());
+            net.init();
+
+            SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, net, masters[i]);
+            sparkNet.fit(rdd);
+            sparkNet.fit(rdd);
+            params[i] = sparkNet.getNetwork().params();
+            masters[i].deleteTempFiles(sc);
+        }
+
+        for (int i = 1; i <= 3; i++) {
+            INDArray diff = params[0].sub(params[i]);
+            double maxAbsDiff = Math.max(diff.maxNumber().doubleValue(), -diff.minNumber().doubleValue());
+            assertTrue("Configuration " + i + ": " + maxAbsDiff, maxAbsDiff < 1e-4);
+        }
+
+        //INT8 quantization is lossy: just check that training proceeds normally
+        INDArray diff = params[0].sub(params[4]);
+        double maxAbsDiff = Math.max(diff.maxNumber().doubleValue(), -diff.minNumber().doubleValue());
+        assertTrue(String.valueOf(maxAbsDiff), maxAbsDiff < 0.5);
+    }
+
+    @Test
+    public void testWorkerModelAndDataSetCaching() throws Exception {
+        //Reusing networks and cached DataSets on the executors should not change the result
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).updater(Updater.RMSPROP)
+                        .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                        .weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new org.deeplearning4j.nn.conf.layers.DenseLayer.Builder().nIn(4).nOut(4)
+                                        .activation(Activation.TANH).build())
+                        .layer(1, new org.deeplearning4j.nn.conf.layers.OutputLayer.Builder(
+                                        LossFunctions.LossFunction.MCXENT).nIn(4).nOut(3).activation(Activation.SOFTMAX)
+                                                        .build())
+                        .pretrain(false).backprop(true).build();
+
+        List<DataSet> data = new ArrayList<>();
+        DataSetIterator iter = new IrisDataSetIterator(1, 150);
+        while (iter.hasNext())
+            data.add(iter.next());
+        JavaRDD<DataSet> rdd = sc.parallelize(data);
+
+        for (boolean saveUpdater : new boolean[] {true, false}) {
+            ExecutorModelCache.getInstance().clear();
+            DataSetCache.getInstance().clear();
+
+            INDArray[] params = new INDArray[2];
+            for (int i = 0; i < 2; i++) {
+                boolean caching = (i == 1);
+                ParameterAveragingTrainingMaster tm = new ParameterAveragingTrainingMaster.Builder(1)
+                                .batchSizePerWorker(5).averagingFrequency(2).repartionData(Repartition.Always)
+                                .saveUpdater(saveUpdater).rngSeed(12345).workerModelCaching(caching)
+                                .workerDataSetCacheSize(caching ? 10 * 1024 * 1024 : 0).build();
+
+                Nd4j.getRandom().setSeed(12345);
+                MultiLayerNetwork net = new MultiLayerNetwork(conf.clone());
+                net.init();
+
+                SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, net, tm);
+                sparkNet.fit(rdd);
+                sparkNet.fit(rdd);
+                params[i] = sparkNet.getNetwork().params();
+                tm.deleteTempFiles(sc);
+            }
+
+            assertTrue(ExecutorModelCache.getInstance().size() > 0);
+            assertTrue(DataSetCache.getInstance().size() > 0);
+
+            INDArray diff = params[0].sub(params[1]);
+            double maxAbsDiff = Math.max(diff.maxNumber().doubleValue(), -diff.minNumber().doubleValue());
+            assertTrue("saveUpdater=" + saveUpdater + ": " + maxAbsDiff, maxAbsDiff < 1e-4);
+        }
+
+        ExecutorModelCache.getInstance().clear();
+        DataSetCache.getInstance().clear();
+    }
+
+
     @Test
     public void testIterationCounts() throws Exception {
         int dataSetObjSize = 5;
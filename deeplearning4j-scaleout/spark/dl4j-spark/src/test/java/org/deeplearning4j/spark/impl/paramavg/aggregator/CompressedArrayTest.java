@@ -0,0 +1,102 @@
+package org.deeplearning4j.spark.impl.paramavg.aggregator;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompressedArrayTest {
+
+    @Test
+    public void testLosslessRoundTrip() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray arr = Nd4j.randn(1, 5000);
+
+        for (DeltaCompression c : new DeltaCompression[] {DeltaCompression.NONE, DeltaCompression.GZIP}) {
+            CompressedArray compressed = CompressedArray.compress(arr, c);
+            CompressedArray afterSerialization = SerializationUtils.clone(compressed);
+
+            INDArray out = afterSerialization.decompress();
+            assertEquals(c, afterSerialization.getCompression());
+            assertArrayEquals(arr.shape(), out.shape());
+            assertEquals(arr, out);
+        }
+    }
+
+    @Test
+    public void testGzipMostlyZeros() {
+        //Typical of deltas for (for example) embedding layers: most values unchanged
+        INDArray arr = Nd4j.zeros(1, 10000);
+        arr.putScalar(17, 1.5);
+        arr.putScalar(9000, -2.0);
+
+        CompressedArray compressed = CompressedArray.compress(arr, DeltaCompression.GZIP);
+        assertTrue(compressed.compressedSizeBytes() < arr.length());
+        assertEquals(arr, compressed.decompress());
+    }
+
+    @Test
+    public void testInt8() {
+        Nd4j.getRandom().setSeed(12345);
+        int length = 3 * CompressedArray.INT8_BLOCK_SIZE + 17; //Partial last block
+        INDArray arr = Nd4j.rand(1, length).subi(0.5);
+        arr.putScalar(0, 10.0); //Outlier: affects the scale of the first block only
+
+        CompressedArray compressed = SerializationUtils.clone(CompressedArray.compress(arr, DeltaCompression.INT8));
+        INDArray out = compressed.decompress();
+        assertArrayEquals(arr.shape(), out.shape());
+        assertTrue(compressed.compressedSizeBytes() < 2L * length);
+
+        for (int b = 0; b * CompressedArray.INT8_BLOCK_SIZE < length; b++) {
+            int start = b * CompressedArray.INT8_BLOCK_SIZE;
+            int end = Math.min(length, start + CompressedArray.INT8_BLOCK_SIZE);
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (int i = start; i < end; i++) {
+                min = Math.min(min, arr.getDouble(i));
+                max = Math.max(max, arr.getDouble(i));
+            }
+            double maxError = (max - min) / 255.0 / 2.0 + 1e-6;
+            for (int i = start; i < end; i++) {
+                assertEquals(arr.getDouble(i), out.getDouble(i), maxError);
+            }
+        }
+    }
+
+    @Test
+    public void testAggregationTupleSerialization() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray params = Nd4j.rand(1, 100);
+        INDArray updater = Nd4j.rand(1, 200);
+        ParameterAveragingAggregationTuple tuple = new ParameterAveragingAggregationTuple(params, updater, 1.5, 3,
+                        null, null, null, null, DeltaCompression.GZIP);
+
+        ParameterAveragingAggregationTuple out = SerializationUtils.clone(tuple);
+        assertEquals(params, out.getParametersSum());
+        assertEquals(updater, out.getUpdaterStateSum());
+        assertEquals(1.5, out.getScoreSum(), 0.0);
+        assertEquals(3, out.getAggregationsCount());
+        assertEquals(DeltaCompression.GZIP, out.getDeltaCompression());
+    }
+
+    @Test
+    public void testCombinedTuplesLossless() throws Exception {
+        //Worker-level tuples are quantized once; combined sums should be sent without further quantization
+        Nd4j.getRandom().setSeed(12345);
+        ParameterAveragingAggregationTuple t1 = new ParameterAveragingAggregationTuple(Nd4j.randn(1, 1000), null, 1.0,
+                        1, null, null, null, null, DeltaCompression.INT8);
+        ParameterAveragingAggregationTuple t2 = new ParameterAveragingAggregationTuple(Nd4j.randn(1, 1000), null, 2.0,
+                        1, null, null, null, null, DeltaCompression.INT8);
+        INDArray expSum = t1.getParametersSum().add(t2.getParametersSum());
+
+        ParameterAveragingAggregationTuple combined = new ParameterAveragingElementCombineFunction().call(t1, t2);
+        assertEquals(DeltaCompression.GZIP, combined.getDeltaCompression());
+        ParameterAveragingAggregationTuple out = SerializationUtils.clone(combined);
+        assertEquals(expSum, out.getParametersSum());
+        assertEquals(2, out.getAggregationsCount());
+    }
+}
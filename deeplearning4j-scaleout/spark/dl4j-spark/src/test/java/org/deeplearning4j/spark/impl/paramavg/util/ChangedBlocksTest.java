@@ -0,0 +1,67 @@
+package org.deeplearning4j.spark.impl.paramavg.util;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChangedBlocksTest {
+
+    @Test
+    public void testChangedBlocks() {
+        Nd4j.getRandom().setSeed(12345);
+        int blockSize = 10;
+        INDArray base = Nd4j.rand(1, 95); //10 blocks, last one partial
+
+        INDArray current = base.dup();
+        current.putScalar(3, -1.0); //Block 0
+        current.get(NDArrayIndex.point(0), NDArrayIndex.interval(40, 50)).addi(1.0); //Block 4
+        current.putScalar(94, 5.0); //Block 9 (partial)
+
+        ChangedBlocks blocks = ChangedBlocks.between(base, current, blockSize);
+        assertEquals(10, blocks.numBlocks());
+        assertEquals(3, blocks.numChangedBlocks());
+        assertEquals(0.3, blocks.fractionChanged(), 1e-9);
+
+        ChangedBlocks afterSerialization = SerializationUtils.clone(blocks);
+        assertEquals(current, afterSerialization.applyTo(base));
+        //Base should not be modified
+        assertEquals(-1.0, current.getDouble(3), 0.0);
+        assertEquals(current, blocks.applyTo(base));
+    }
+
+    @Test
+    public void testEstimateFractionChanged() {
+        int blockSize = 10;
+        INDArray base = Nd4j.linspace(1, 1000, 1000); //100 blocks
+        assertEquals(0.0, ChangedBlocks.estimateFractionChanged(base, base.dup(), blockSize, 20), 0.0);
+
+        //All blocks changed
+        assertEquals(1.0, ChangedBlocks.estimateFractionChanged(base, base.add(1.0), blockSize, 20), 0.0);
+
+        //Every second block changed: sampled blocks are 0, 5, 10, ..., 95
+        INDArray current = base.dup();
+        for (int b = 0; b < 100; b += 2)
+            current.putScalar(b * blockSize + 3, -1.0);
+        assertEquals(0.5, ChangedBlocks.estimateFractionChanged(base, current, blockSize, 20), 0.0);
+
+        //Fewer blocks than samples: all blocks are compared
+        assertEquals(0.5, ChangedBlocks.estimateFractionChanged(base, current, blockSize, 1000), 0.0);
+    }
+
+    @Test
+    public void testNoChanges() {
+        INDArray base = Nd4j.linspace(1, 20, 20);
+        ChangedBlocks blocks = ChangedBlocks.between(base, base.dup(), 8);
+        assertEquals(3, blocks.numBlocks());
+        assertEquals(0, blocks.numChangedBlocks());
+        assertEquals(base, blocks.applyTo(base));
+
+        ChangedBlocks none = ChangedBlocks.none(20, 8);
+        assertEquals(0, none.numChangedBlocks());
+        assertEquals(base, none.applyTo(base));
+    }
+}
@@ -0,0 +1,45 @@
+package org.deeplearning4j.spark.iterator;
+
+import org.junit.Test;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.*;
+
+public class DataSetCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        DataSetCache cache = new DataSetCache();
+
+        DataSet ds = new DataSet(Nd4j.rand(10, 4), Nd4j.rand(10, 3));
+        long dsBytes = (ds.getFeatures().length() + ds.getLabels().length()) * (long) ds.getFeatures().data().getElementSize();
+
+        cache.setMaxSizeBytes(2 * dsBytes);
+        cache.put("a", ds);
+        cache.put("b", ds.copy());
+        assertEquals(2, cache.size());
+        assertEquals(2 * dsBytes, cache.getSizeBytes());
+
+        //Access "a": "b" is then the least recently used DataSet, and should be removed
+        assertSame(ds, cache.get("a"));
+        cache.put("c", ds.copy());
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+
+        //Reducing the maximum size removes entries
+        cache.setMaxSizeBytes(dsBytes);
+        assertEquals(1, cache.size());
+        assertEquals(dsBytes, cache.getSizeBytes());
+
+        //DataSets larger than the maximum size are not cached
+        cache.put("d", new DataSet(Nd4j.rand(20, 4), Nd4j.rand(20, 3)));
+        assertNull(cache.get("d"));
+
+        cache.setMaxSizeBytes(0);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getSizeBytes());
+    }
+}
@@ -1,6 +1,13 @@
 package org.deeplearning4j.spark.time;
 
 import org.junit.Test;
+import scala.Tuple3;
+import scala.Tuple4;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -12,7 +19,7 @@ public class TestTimeSource {
 
     @Test
     public void testTimeSourceNTP() throws Exception {
-        TimeSource timeSource = TimeSourceProvider.getInstance();
+        TimeSource timeSource = TimeSourceProvider.getInstance("org.deeplearning4j.spark.time.NTPTimeSource");
         assertTrue(timeSource instanceof NTPTimeSource);
 
         for (int i = 0; i < 10; i++) {
@@ -39,4 +46,99 @@ public class TestTimeSource {
         }
     }
 
+    @Test
+    public void testTimeSourceDriverAligned() throws Exception {
+        TimeSource timeSource = TimeSourceProvider.getInstance(DriverAlignedTimeSource.class.getName());
+        assertTrue(timeSource instanceof DriverAlignedTimeSource);
+        DriverAlignedTimeSource driverAligned = (DriverAlignedTimeSource) timeSource;
+        long origOffset = driverAligned.getOffsetMillis();
+        driverAligned.stepOffsetMillis(origOffset);
+        driverAligned.setOffsetMillis(origOffset);
+
+        try {
+            long systemTime = System.currentTimeMillis();
+            long time = timeSource.currentTimeMillis();
+            assertEquals(systemTime + origOffset, time, 100);
+
+            //Changes to the offset are applied gradually: durations remain accurate to within 1%, and time never
+            // stands still or goes backwards, even when the offset is decreased
+            driverAligned.setOffsetMillis(origOffset - 1000);
+            assertEquals(origOffset - 1000, driverAligned.getTargetOffsetMillis());
+            long last = timeSource.currentTimeMillis();
+            long start = last;
+            for (int i = 0; i < 5; i++) {
+                Thread.sleep(40);
+                long now = timeSource.currentTimeMillis();
+                assertTrue(now > last);
+                last = now;
+            }
+            long duration = last - start;
+            assertTrue(String.valueOf(duration), duration >= 190 && duration < 1000);
+            assertTrue(driverAligned.getOffsetMillis() < origOffset);
+            assertTrue(driverAligned.getOffsetMillis() > origOffset - 1000);
+
+            //Local time is measured using System.nanoTime(), without any offset
+            start = driverAligned.localTimeMillis();
+            Thread.sleep(200);
+            duration = driverAligned.localTimeMillis() - start;
+            assertTrue(String.valueOf(duration), duration >= 199 && duration < 1000);
+        } finally {
+            driverAligned.stepOffsetMillis(origOffset);
+        }
+    }
+
+    @Test
+    public void testClockAlignmentEstimate() {
+        Map<String, ClockAlignment.ClockOffsetEstimate> estimates = new HashMap<>();
+
+        //Executor "a" is 5000 ms behind the driver; executor "b" is 300 ms ahead
+        List<Tuple3<String, Long, Long>> samples = Arrays.asList(new Tuple3<>("driver", 1010L, 1011L),
+                        new Tuple3<>("a", 1010L - 5000, 1012L - 5000), new Tuple3<>("b", 1005L + 300, 1015L + 300),
+                        new Tuple3<>("b", 1030L + 300, 1031L + 300));
+        ClockAlignment.update(estimates, "driver", 1000L, 1040L, samples);
+
+        assertEquals(2, estimates.size());
+        ClockAlignment.ClockOffsetEstimate a = estimates.get("a");
+        assertEquals(1, a.getNumSamples());
+        assertTrue(a.getLowerBoundMillis() <= 5000 && a.getUpperBoundMillis() >= 5000);
+        assertEquals(-10 + 5000 - 1, a.getLowerBoundMillis());
+        assertEquals(28 + 5000 + 1, a.getUpperBoundMillis());
+
+        //Intervals of tasks on the same JVM are intersected
+        ClockAlignment.ClockOffsetEstimate b = estimates.get("b");
+        assertEquals(2, b.getNumSamples());
+        assertEquals(-5 - 300 - 1, b.getLowerBoundMillis());
+        assertEquals(9 - 300 + 1, b.getUpperBoundMillis());
+        assertTrue(b.getUncertaintyMillis() < 30);
+
+        //Second round with a shorter round trip narrows the interval further
+        ClockAlignment.update(estimates, "driver", 2000L, 2004L,
+                        Arrays.asList(new Tuple3<>("a", 2001L - 5000, 2002L - 5000)));
+        a = estimates.get("a");
+        assertEquals(2, a.getNumSamples());
+        assertEquals(5000 - 1 - 1, a.getLowerBoundMillis());
+        assertEquals(5000 + 2 + 1, a.getUpperBoundMillis());
+        assertEquals(5000, a.getOffsetMillis(), 1);
+
+        //Inconsistent sample (executor clock was adjusted): estimate is restarted
+        ClockAlignment.update(estimates, "driver", 3000L, 3004L,
+                        Arrays.asList(new Tuple3<>("a", 3001L - 7000, 3002L - 7000)));
+        a = estimates.get("a");
+        assertEquals(1, a.getNumSamples());
+        assertEquals(7000, a.getOffsetMillis(), 2);
+    }
+
+    @Test
+    public void testClockAlignmentOtherTimeSources() {
+        //Executor JVMs that don't use DriverAlignedTimeSource can't be aligned, and are reported; the driver is ignored
+        String aligned = DriverAlignedTimeSource.class.getName();
+        String ntp = NTPTimeSource.class.getName();
+        List<Tuple4<String, Long, Long, String>> samples = Arrays.asList(new Tuple4<>("driver", 1L, 2L, ntp),
+                        new Tuple4<>("a", 1L, 2L, aligned), new Tuple4<>("b", 1L, 2L, ntp),
+                        new Tuple4<>("b", 3L, 4L, ntp));
+
+        Map<String, String> other = ClockAlignment.otherTimeSources("driver", samples);
+        assertEquals(1, other.size());
+        assertEquals(ntp, other.get("b"));
+    }
 }
@@ -5,6 +5,11 @@ import org.deeplearning4j.spark.BaseSparkTest;
 import org.deeplearning4j.spark.api.Repartition;
 import org.deeplearning4j.spark.api.RepartitionStrategy;
 import org.deeplearning4j.spark.impl.common.CountPartitionsFunction;
+import org.deeplearning4j.spark.impl.common.repartition.AdaptiveRepartitioner;
+import org.deeplearning4j.spark.impl.common.repartition.ObjectCostFunction;
+import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingWorkerStats;
+import org.deeplearning4j.spark.stats.EventStats;
+import org.deeplearning4j.spark.stats.ExampleCountEventStats;
 import org.junit.Test;
 import scala.Tuple2;
 
@@ -13,7 +18,9 @@ import java.util.List;
 import java.util.Random;
 
 import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Alex on 03/07/2016.
@@ -97,4 +104,95 @@ public class TestRepartitioning extends BaseSparkTest {
             assertEquals(expNumPartitionsWithMore, actNumPartitionsWithMore);
         }
     }
+
+    @Test
+    public void testAdaptiveRebalance() {
+        Random r = new Random(12345);
+        double[][] costs = new double[8][];
+        for (int i = 0; i < costs.length; i++) {
+            costs[i] = new double[10 + r.nextInt(20)];
+            for (int j = 0; j < costs[i].length; j++) {
+                costs[i][j] = 1 + r.nextInt(100);
+            }
+        }
+
+        for (int numPartitions : new int[] {4, 8, 16}) {
+            int[] assignment = AdaptiveRepartitioner.rebalance(costs, numPartitions, 0.05);
+            double[] load = new double[numPartitions];
+            double total = 0.0;
+            int idx = 0;
+            for (double[] c : costs) {
+                for (double d : c) {
+                    load[assignment[idx++]] += d;
+                    total += d;
+                }
+            }
+            for (double l : load) {
+                assertTrue(l <= 1.05 * total / numPartitions);
+            }
+        }
+
+        //Elements that can't reduce the imbalance are not moved
+        assertArrayEquals(new int[] {1, 0, 0}, AdaptiveRepartitioner.rebalance(new double[][] {{1, 1, 1}, {}}, 2, 0.0));
+    }
+
+    @Test
+    public void testAdaptiveRepartitioning() {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < (i % 10 == 0 ? 50 : 1); j++) {
+                sb.append("x");
+            }
+            list.add(sb.toString());
+        }
+
+        JavaRDD<String> rdd = sc.parallelize(list, 1);
+        AdaptiveRepartitioner repartitioner = new AdaptiveRepartitioner();
+        JavaRDD<String> rdd2 = SparkUtils.repartition(rdd, Repartition.Always, RepartitionStrategy.Adaptive, 25, 4,
+                        repartitioner, new StringLengthCost());
+        assertFalse(rdd == rdd2);
+        assertEquals(4, rdd2.partitions().size());
+        assertEquals(100, rdd2.count());
+
+        int total = 0;
+        int maxLoad = 0;
+        for (int i = 0; i < 4; i++) {
+            int load = 0;
+            for (String s : rdd2.collectPartitions(new int[] {i})[0]) {
+                load += s.length();
+            }
+            total += load;
+            maxLoad = Math.max(maxLoad, load);
+        }
+        assertEquals(590, total);
+        assertTrue(maxLoad <= 1.05 * total / 4);
+
+        //Already balanced: should not be repartitioned again
+        JavaRDD<String> rdd3 = SparkUtils.repartition(rdd2, Repartition.Always, RepartitionStrategy.Adaptive, 25, 4,
+                        repartitioner, new StringLengthCost());
+        assertTrue(rdd2 == rdd3);
+
+        //Worker fit times for the last round: time = 10ms + 2ms * examples, for two workers
+        List<EventStats> fitTimes = new ArrayList<>();
+        fitTimes.add(new ExampleCountEventStats("m", "jvm", 1, 0, 26, 8));
+        fitTimes.add(new ExampleCountEventStats("m", "jvm", 1, 26, 42, 16));
+        fitTimes.add(new ExampleCountEventStats("m", "jvm", 2, 0, 74, 32));
+        fitTimes.add(new ExampleCountEventStats("m", "jvm", 2, 74, 26, 8));
+        repartitioner.update(new ParameterAveragingTrainingWorkerStats(new ArrayList<EventStats>(),
+                        new ArrayList<EventStats>(), fitTimes));
+
+        double expMsPerUnit = 2.0 / (590.0 / 64.0);
+        assertEquals(expMsPerUnit, repartitioner.getMsPerUnit(), 1e-6);
+        assertEquals((10.0 * 4 / 100) / expMsPerUnit, repartitioner.getOverheadPerObject(), 1e-6);
+        assertEquals(1, repartitioner.getRoundTailRatios().size());
+        assertEquals(100.0 / 84.0, repartitioner.getRoundTailRatios().get(0), 1e-6);
+    }
+
+    private static class StringLengthCost implements ObjectCostFunction<String> {
+        @Override
+        public double getCost(String object) {
+            return object.length();
+        }
+    }
 }